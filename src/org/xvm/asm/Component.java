@@ -1,15 +1,15 @@
 package org.xvm.asm;
 
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import java.nio.ByteBuffer;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -40,6 +40,7 @@ import org.xvm.asm.constants.TypedefConstant;
 import org.xvm.compiler.Parser;
 import org.xvm.compiler.Source;
 
+import org.xvm.util.ByteBufferInput;
 import org.xvm.util.Handy;
 import org.xvm.util.ListMap;
 
@@ -805,30 +806,43 @@ public abstract class Component
         }
 
     /**
-     * Make sure that any deferred child deserialization is complete
+     * Make sure that any deferred child deserialization is complete.
+     * <p/>
+     * The deferred bytes are shared by all of the siblings, and serve as the monitor for the
+     * deserialization; the first thread to arrive deserializes the children while any other thread
+     * waits, and the deferred bytes are not released until the children are fully in place, so
+     * that no thread can observe a partially deserialized set of children.
      */
     protected void ensureChildren()
         {
-        if (m_abChildren != null)
+        ByteBuffer buf = m_bufChildren;
+        if (buf != null && !Thread.holdsLock(buf))
             {
-            // first grab the deferred deserialization bytes and then make sure neither this nor any
-            // sibling retains hold of it (since it indicates that deserialization is deferred)
-            byte[] ab = m_abChildren;
-            for (Iterator<Component> siblings = siblings(); siblings.hasNext(); )
+            synchronized (buf)
                 {
-                siblings.next().m_abChildren = null;
-                }
+                if (m_bufChildren == buf)
+                    {
+                    // read in the children from a private view of the deferred bytes; note that
+                    // adding each child re-enters this method, which is a no-op while the lock is
+                    // held by this thread
+                    DataInput in = new ByteBufferInput(buf.duplicate());
+                    try
+                        {
+                        disassembleChildren(in, true);
+                        }
+                    catch (IOException e)
+                        {
+                        throw new IllegalStateException("IOException occurred in " + getIdentityConstant()
+                                + " during deferred read of child components", e);
+                        }
 
-            // now read in the children
-            DataInput in = new DataInputStream(new ByteArrayInputStream(ab));
-            try
-                {
-                disassembleChildren(in, true);
-                }
-            catch (IOException e)
-                {
-                throw new IllegalStateException("IOException occurred in " + getIdentityConstant()
-                        + " during deferred read of child components", e);
+                    // make sure neither this nor any sibling retains hold of the deferred bytes
+                    // (since it indicates that deserialization is deferred)
+                    for (Iterator<Component> siblings = siblings(); siblings.hasNext(); )
+                        {
+                        siblings.next().m_bufChildren = null;
+                        }
+                    }
                 }
             }
         }
@@ -944,11 +958,11 @@ public abstract class Component
         {
         // the child can't have any of its own children; that "merge" functionality is simply
         // not supported by this operation
-        assert m_abChildren       == null;
+        assert m_bufChildren      == null;
         assert m_childByName      == null;
 
         // make sure that the various sibling-shared fields are configured
-        m_abChildren  = that.m_abChildren;
+        m_bufChildren = that.m_bufChildren;
         m_childByName = that.m_childByName;
         }
 
@@ -1785,15 +1799,26 @@ public abstract class Component
                 {
                 if (fLazy)
                     {
-                    // just read the bytes for the children and store it off for later
-                    byte[] ab = new byte[cb];
-                    in.readFully(ab);
+                    // just read the bytes for the children and store it off for later; when reading
+                    // from a buffer (e.g. a memory-mapped file), the bytes are not copied at all
+                    ByteBuffer buf;
+                    if (in instanceof ByteBufferInput)
+                        {
+                        buf = ((ByteBufferInput) in).slice(cb);
+                        }
+                    else
+                        {
+                        byte[] ab = new byte[cb];
+                        in.readFully(ab);
+                        buf = ByteBuffer.wrap(ab);
+                        }
+
                     for (Component eachSibling = kid; eachSibling != null; eachSibling = eachSibling.getNextSibling())
                         {
-                        // note that every sibling has a copy of all of the children; this is because
-                        // the byte[] serves as both the storage of those children and an indicator that
-                        // the deserialization of the children has been deferred
-                        eachSibling.m_abChildren = ab;
+                        // note that every sibling has a reference to all of the children; this is
+                        // because the buffer serves as both the storage of those children and an
+                        // indicator that the deserialization of the children has been deferred
+                        eachSibling.m_bufChildren = buf;
                         }
                     }
                 else
@@ -3532,9 +3557,10 @@ public abstract class Component
     /**
      * This is a non-deserialized form of all of the children. When a Component is read from disk,
      * it can optionally lazily deserialize its children. This is possible because the "children"
-     * block is length-encoded.
+     * block is length-encoded. The buffer is shared by all of the siblings, and is used as the
+     * monitor for the deferred deserialization.
      */
-    private byte[] m_abChildren;
+    private volatile ByteBuffer m_bufChildren;
 
     /**
      * This holds all of the children of all of the siblings, except for methods (because they are
@@ -328,6 +328,8 @@ public abstract class Constant
             }
         that.setContaining(pool);
         that.resetRefs();
+        that.m_nHash  = 0;
+        that.m_nEpoch = 0;
         return that;
         }
 
@@ -466,6 +468,63 @@ public abstract class Constant
         return m_cRefs > 0;
         }
 
+    /**
+     * Obtain the hash code that the ConstantPool uses to look up this Constant. Since a Constant
+     * is only registered once it no longer contains any unresolved information, it can no longer
+     * change at that point, so the hash code is calculated once and cached. The cache is not
+     * synchronized; this relies on {@link #computeRegistrationHash} being a pure function of the
+     * Constant (e.g. not depending on any thread-local state), so that any thread that computes it
+     * stores the same value.
+     *
+     * @return the registration hash code of this Constant
+     */
+    public final int getRegistrationHash()
+        {
+        int nHash = m_nHash;
+        if (nHash == 0)
+            {
+            nHash = computeRegistrationHash();
+            if (nHash == 0)
+                {
+                nHash = 1;
+                }
+            m_nHash = nHash;
+            }
+        return nHash;
+        }
+
+    /**
+     * Calculate the hash code that the ConstantPool uses to look up this Constant. This is only
+     * called for Constants that contain no unresolved information, which allows a Constant whose
+     * {@link #hashCode()} has to remain stable while names are still being resolved (and is
+     * therefore quite coarse) to provide a much more discriminating hash code here.
+     *
+     * @return the registration hash code of this Constant
+     */
+    protected int computeRegistrationHash()
+        {
+        return hashCode();
+        }
+
+    /**
+     * @return the registration epoch of the ConstantPool that this Constant was last known to be
+     *         registered in, or 0
+     */
+    int getRegistrationEpoch()
+        {
+        return m_nEpoch;
+        }
+
+    /**
+     * Record that this Constant is registered in its ConstantPool.
+     *
+     * @param nEpoch  the current registration epoch of the ConstantPool
+     */
+    void setRegistrationEpoch(int nEpoch)
+        {
+        m_nEpoch = nEpoch;
+        }
+
 
     // ----- XvmStructure operations ---------------------------------------------------------------
 
@@ -968,4 +1027,14 @@ public abstract class Constant
      * constant pool.
      */
     private transient int m_cRefs;
+
+    /**
+     * The cached registration hash code, or 0 if it has not been calculated.
+     */
+    private transient int m_nHash;
+
+    /**
+     * The registration epoch of the ConstantPool that this Constant is known to be registered in.
+     */
+    private transient int m_nEpoch;
     }
@@ -6,6 +6,9 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 import java.nio.file.attribute.FileTime;
 
 import java.time.Instant;
@@ -26,14 +29,14 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Vector;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.xvm.asm.Constant.Format;
 
 import org.xvm.asm.constants.*;
-import org.xvm.asm.constants.TypeInfo.Progress;
 
 import org.xvm.type.Decimal;
 
-import org.xvm.util.ListMap;
 import org.xvm.util.PackedInteger;
 import org.xvm.util.Severity;
 
@@ -104,6 +107,15 @@ public class ConstantPool
             return null;
             }
 
+        // fast path: a constant that is already known to be registered with this pool (and that
+        // has therefore already been resolved and validated) does not need to be re-registered,
+        // unless the registrations are being tallied
+        if (constant.getRegistrationEpoch() == m_nEpoch && constant.getContaining() == this
+                && !m_fRecurseReg)
+            {
+            return constant;
+            }
+
         // before registering the constant, see if there is a simpler alternative to use; for
         // example, this allows a type constant that refers to a typedef constant to be replaced
         // with the type constant that the typedef refers to, removing a level of indirection
@@ -118,9 +130,53 @@ public class ConstantPool
             return constant;
             }
 
-        // check if the Constant is already registered
-        final HashMap<Constant, Constant> mapConstants = ensureConstantLookup(constant.getFormat());
-        final Constant constantOld = mapConstants.get(constant);
+        // check if the Constant is already registered; the lookup does not lock the pool, so the
+        // threads that build the TypeInfos for the types in this pool (which may happen on any
+        // thread) only contend with each other when a new Constant has to be added
+        Constant constantOld = m_fRecurseReg
+                ? null
+                : ensureConstantLookup(constant.getFormat()).get(constant);
+        if (constantOld != null)
+            {
+            if (constantOld == constant)
+                {
+                // the constant itself is registered (as opposed to just an equal constant), so the
+                // next registration of it can take the fast path
+                constant.setRegistrationEpoch(m_nEpoch);
+                }
+            constant = constantOld;
+            }
+        else
+            {
+            constant = registerNew(constant);
+            }
+
+        // once all of the modules are linked together, we know all of the valid upstream
+        // constant pools that we are allowed to refer to from this constant pool, so this
+        // is an assertion to make sure that we don't accidentally refer to a constant pool
+        // that isn't in that set of valid pools
+        if (!m_setValidPools.isEmpty())
+            {
+            constant.checkValidPools(m_setValidPools, new int[] {0});
+            }
+
+        return constant;
+        }
+
+    /**
+     * Register a Constant that was not found by the (lock-free) lookup, or any Constant while the
+     * registrations are being tallied. Unlike the lookup, this is atomic with respect to other
+     * threads registering constants with this pool.
+     *
+     * @param constant  the resolved Constant to register
+     *
+     * @return the registered Constant
+     */
+    private synchronized Constant registerNew(Constant constant)
+        {
+        // check again, since another thread may have just added an equal Constant
+        final ConstantTable tblConstants = ensureConstantLookup(constant.getFormat());
+        final Constant      constantOld  = tblConstants.get(constant);
         boolean fRegisterRecursively = false;
         if (constantOld == null)
             {
@@ -132,7 +188,8 @@ public class ConstantPool
             // add the Constant
             constant.setPosition(m_listConst.size());
             m_listConst.add(constant);
-            mapConstants.put(constant, constant);
+            tblConstants.add(constant);
+            constant.setRegistrationEpoch(m_nEpoch);
 
             // also allow the constant to be looked up by a locator
             Object oLocator = constant.getLocator();
@@ -151,6 +208,12 @@ public class ConstantPool
             }
         else
             {
+            if (constantOld == constant)
+                {
+                // the constant itself is registered (as opposed to just an equal constant),
+                // so the next registration of it can take the fast path
+                constant.setRegistrationEpoch(m_nEpoch);
+                }
             constant = constantOld;
             }
 
@@ -160,8 +223,8 @@ public class ConstantPool
             // register any constants that it refers to
             fRegisterRecursively = !constant.hasRefs();
 
-            // .. and each time the constant is registered, we tally that registration so that we
-            // can later order the constants from most to least referenced
+            // .. and each time the constant is registered, we tally that registration so that
+            // we can later order the constants from most to least referenced
             constant.addRef();
             }
 
@@ -169,13 +232,6 @@ public class ConstantPool
             {
             constant.registerConstants(this);
             }
-
-        // once all of the modules are linked together, we know all of the valid upstream
-        // constant pools that we are allowed to refer to from this constant pool, so this
-        // is an assertion to make sure that we don't accidentally refer to a constant pool
-        // that isn't in that set of valid pools
-        constant.checkValidPools(m_setValidPools, new int[] {0});
-
         return constant;
         }
 
@@ -2336,8 +2392,7 @@ public class ConstantPool
             throws IOException
         {
         m_listConst.clear();
-        m_mapConstants.clear();
-        m_mapLocators.clear();
+        discardLookup();
 
         // read the number of constants in the pool
         int cConst = readMagnitude(in);
@@ -2808,6 +2863,9 @@ public class ConstantPool
         assert !m_fRecurseReg;
         m_fRecurseReg = true;
 
+        // the snapshot refers to constants by their index, which is about to change
+        m_snapshot = null;
+
         m_listConst.forEach(Constant::resetRefs);
         }
 
@@ -3032,8 +3090,7 @@ public class ConstantPool
             }
 
         // discard any previous lookup structures, since contents may have changed
-        m_mapConstants.clear();
-        m_mapLocators.clear();
+        discardLookup();
         }
 
 
@@ -3049,12 +3106,11 @@ public class ConstantPool
      *
      * @param format  the Constant Type
      *
-     * @return the map from Constant to Constant
+     * @return the lookup table of Constants
      */
-    private HashMap<Constant, Constant> ensureConstantLookup(Format format)
+    private ConstantTable ensureConstantLookup(Format format)
         {
-        ensureLookup();
-        return m_mapConstants.get(format);
+        return ensureLookup()[format.ordinal()];
         }
 
     /**
@@ -3074,16 +3130,23 @@ public class ConstantPool
      *
      * @return the map from locator to Constant
      */
-    private HashMap<Object, Constant> ensureLocatorLookup(Format format)
+    private Map<Object, Constant> ensureLocatorLookup(Format format)
         {
-        final EnumMap<Format, HashMap<Object, Constant>> mapLocatorMaps = m_mapLocators;
+        final EnumMap<Format, Map<Object, Constant>> mapLocatorMaps = m_mapLocators;
 
-        HashMap<Object, Constant> mapLocators = mapLocatorMaps.get(format);
+        Map<Object, Constant> mapLocators = mapLocatorMaps.get(format);
         if (mapLocators == null)
             {
-            // lazily instantiate the locator map for the specified type
-            mapLocators = new HashMap<>();
-            mapLocatorMaps.put(format, mapLocators);
+            synchronized (this)
+                {
+                mapLocators = mapLocatorMaps.get(format);
+                if (mapLocators == null)
+                    {
+                    // lazily instantiate the locator map for the specified type
+                    mapLocators = new ConcurrentHashMap<>();
+                    mapLocatorMaps.put(format, mapLocators);
+                    }
+                }
             }
 
         return mapLocators;
@@ -3093,22 +3156,48 @@ public class ConstantPool
      * Create the necessary structures for looking up Constant objects quickly, and populate those
      * structures with the set of existing Constant objects.
      */
-    private void ensureLookup()
+    private ConstantTable[] ensureLookup()
+        {
+        ConstantTable[] atbl = m_atblConstants;
+        return atbl == null ? createLookup() : atbl;
+        }
+
+    /**
+     * Create the structures for looking up Constant objects, unless another thread has already
+     * created them.
+     *
+     * @return the lookup tables, indexed by the ordinal of the constant format
+     */
+    private synchronized ConstantTable[] createLookup()
         {
-        if (m_mapConstants.isEmpty())
+        ConstantTable[] atbl = m_atblConstants;
+        if (atbl == null)
             {
-            for (Format format : Format.values())
+            Format[] aFormat = Format.values();
+            int      cFormat = aFormat.length;
+
+            // pre-size the table for each format based on the constants already in the pool
+            int[] acConsts = new int[cFormat];
+            for (Constant constant : m_listConst)
                 {
-                m_mapConstants.put(format, new HashMap<>());
+                ++acConsts[constant.getFormat().ordinal()];
+                }
+
+            atbl = new ConstantTable[cFormat];
+            for (int i = 0; i < cFormat; ++i)
+                {
+                atbl[i] = new ConstantTable(acConsts[i]);
                 }
 
             for (Constant constant : m_listConst)
                 {
-                Constant constantOld = m_mapConstants.get(constant.getFormat()).put(constant, constant);
+                ConstantTable tbl         = atbl[constant.getFormat().ordinal()];
+                Constant      constantOld = tbl.get(constant);
                 if (constantOld != null && constantOld != constant)
                     {
                     throw new IllegalStateException("constant collision: old=" + constantOld + ", new=" + constant);
                     }
+                tbl.add(constant);
 
                 Object oLocator = constant.getLocator();
                 if (oLocator != null)
@@ -3120,7 +3209,185 @@ public class ConstantPool
                         }
                     }
                 }
+
+            m_atblConstants = atbl;
             }
+        return atbl;
+        }
+
+    /**
+     * Discard the structures for looking up Constant objects, because the contents of the pool have
+     * changed. This also invalidates the knowledge of which Constants are registered.
+     */
+    private synchronized void discardLookup()
+        {
+        m_atblConstants = null;
+        m_mapLocators.clear();
+        ++m_nEpoch;
+        }
+
+
+    // ----- inner class: ConstantTable ------------------------------------------------------------
+
+    /**
+     * An open-addressing hash table of the Constants of one format, which holds on to the
+     * registration hash code of each Constant, so that a lookup only has to compare the Constants
+     * that have the same hash code.
+     * <p/>
+     * The table can be read by any number of threads without locking, but it is only modified
+     * while holding the ConstantPool's monitor. Constants are never removed from a table, so a
+     * lookup that finds a Constant is always correct; a lookup that does not find it (for example,
+     * because it raced with the table growing) is repeated while holding the monitor.
+     */
+    private static class ConstantTable
+        {
+        /**
+         * Construct a ConstantTable.
+         *
+         * @param cExpected  the number of Constants that the table is expected to hold
+         */
+        ConstantTable(int cExpected)
+            {
+            int cCapacity = 16;
+            while (cCapacity < cExpected * 2)
+                {
+                cCapacity <<= 1;
+                }
+
+            m_slots = new Slots(cCapacity);
+            }
+
+        /**
+         * Find the Constant that is equal to the specified Constant.
+         *
+         * @param constant  the Constant to look for
+         *
+         * @return the equal Constant held by the table, or null
+         */
+        Constant get(Constant constant)
+            {
+            Slots      slots  = m_slots;
+            Constant[] aConst = slots.aConst;
+            int        nHash  = constant.getRegistrationHash();
+            int        nMask  = aConst.length - 1;
+            for (int i = spread(nHash) & nMask; ; i = (i + 1) & nMask)
+                {
+                Constant constantCur = (Constant) CONSTANTS.getAcquire(aConst, i);
+                if (constantCur == null)
+                    {
+                    return null;
+                    }
+
+                if (constantCur == constant || slots.anHash[i] == nHash && constant.equals(constantCur))
+                    {
+                    return constantCur;
+                    }
+                }
+            }
+
+        /**
+         * Add a Constant that is known not to be in the table yet.
+         *
+         * @param constant  the Constant to add
+         */
+        void add(Constant constant)
+            {
+            if ((m_cConsts + 1) * 2 > m_slots.aConst.length)
+                {
+                grow();
+                }
+
+            m_slots.insert(constant, constant.getRegistrationHash());
+            ++m_cConsts;
+            }
+
+        /**
+         * Double the capacity of the table.
+         */
+        private void grow()
+            {
+            Slots      slotsOld  = m_slots;
+            Constant[] aConstOld = slotsOld.aConst;
+            int        cOld      = aConstOld.length;
+            Slots      slotsNew  = new Slots(cOld * 2);
+            for (int i = 0; i < cOld; ++i)
+                {
+                Constant constant = aConstOld[i];
+                if (constant != null)
+                    {
+                    slotsNew.insert(constant, slotsOld.anHash[i]);
+                    }
+                }
+
+            m_slots = slotsNew;
+            }
+
+        /**
+         * Spread the bits of the hash code, since many of the Constant hash codes are built
+         * from small multipliers and would otherwise cluster.
+         */
+        private static int spread(int nHash)
+            {
+            nHash *= 0x9E3779B9;
+            return nHash ^ (nHash >>> 16);
+            }
+
+        /**
+         * The storage of the table; it is replaced as a whole when the table grows, so that a
+         * reader always sees a Constant array and a hash array that belong together.
+         */
+        private static class Slots
+            {
+            Slots(int cCapacity)
+                {
+                aConst = new Constant[cCapacity];
+                anHash = new int[cCapacity];
+                }
+
+            /**
+             * Place the Constant into the first free slot of its probe sequence. The hash code is
+             * stored before the Constant is published, so that a reader that sees the Constant
+             * also sees its hash code.
+             */
+            void insert(Constant constant, int nHash)
+                {
+                Constant[] aConst = this.aConst;
+                int        nMask  = aConst.length - 1;
+                int        i      = spread(nHash) & nMask;
+                while (aConst[i] != null)
+                    {
+                    i = (i + 1) & nMask;
+                    }
+
+                anHash[i] = nHash;
+                CONSTANTS.setRelease(aConst, i, constant);
+                }
+
+            /**
+             * The Constants, indexed by their (spread) hash codes.
+             */
+            final Constant[] aConst;
+
+            /**
+             * The registration hash codes of the Constants in the corresponding slots.
+             */
+            final int[] anHash;
+            }
+
+        /**
+         * Provides the acquire/release access to the elements of a Constant array.
+         */
+        private static final VarHandle CONSTANTS = MethodHandles.arrayElementVarHandle(Constant[].class);
+
+        /**
+         * The current storage of the table.
+         */
+        private volatile Slots m_slots;
+
+        /**
+         * The number of Constants in the table.
+         */
+        private int m_cConsts;
         }
 
 
@@ -3148,6 +3415,24 @@ public class ConstantPool
             }
         }
 
+    /**
+     * @return the TypeInfoSnapshot that was loaded with this pool, or null
+     */
+    public TypeInfoSnapshot getTypeInfoSnapshot()
+        {
+        return m_snapshot;
+        }
+
+    /**
+     * Specify the TypeInfoSnapshot that was loaded with this pool.
+     *
+     * @param snapshot  the TypeInfoSnapshot, or null
+     */
+    void setTypeInfoSnapshot(TypeInfoSnapshot snapshot)
+        {
+        m_snapshot = snapshot;
+        }
+
     /**
      * @return true iff there are any TypeConstants that have deferred the building of a TypeInfo
      */
@@ -3370,14 +3655,21 @@ public class ConstantPool
     private final ArrayList<Constant> m_listConst = new ArrayList<>();
 
     /**
-     * Reverse lookup structure to find a particular constant by constant.
+     * Reverse lookup structure to find a particular constant by constant, indexed by the ordinal of
+     * the constant format.
      */
-    private final EnumMap<Format, HashMap<Constant, Constant>> m_mapConstants = new EnumMap<>(Format.class);
+    private volatile ConstantTable[] m_atblConstants;
+
+    /**
+     * The registration epoch, which changes every time the lookup structures are discarded. A
+     * Constant that is marked with the current epoch is known to be registered with this pool.
+     */
+    private volatile int m_nEpoch = 1;
 
     /**
      * Reverse lookup structure to find a particular constant by locator.
      */
-    private final EnumMap<Format, HashMap<Object, Constant>> m_mapLocators = new EnumMap<>(Format.class);
+    private final EnumMap<Format, Map<Object, Constant>> m_mapLocators = new EnumMap<>(Format.class);
 
     /**
      * Set of references to ConstantPool instances, defining the only ConstantPool references that
@@ -3553,27 +3845,14 @@ public class ConstantPool
     private transient SignatureConstant m_sigCompare;
 
     /**
-     * A special TypeInfo that acts as a place-holder for "this TypeInfo is currently being built".
+     * A special "chicken and egg" list of TypeConstants that need to have their TypeInfos rebuilt.
      */
-    public final TypeInfo TYPEINFO_PLACEHOLDER = new TypeInfo(
-            typeObject(), 0, null, 0, true, Collections.EMPTY_MAP, Annotation.NO_ANNOTATIONS,
-            getConstantPool().typeObject(), null, getConstantPool().typeObject(),
-            Collections.EMPTY_LIST, new ListMap<>(), new ListMap<>(),
-            Collections.EMPTY_MAP, Collections.EMPTY_MAP,
-            Collections.EMPTY_MAP, Collections.EMPTY_MAP,
-            Progress.Building)
-        {
-        @Override
-        public String toString()
-            {
-            return "Placeholder";
-            }
-        };
+    private final ThreadLocal<List<TypeConstant>> f_tlolistDeferred = new ThreadLocal<>();
 
     /**
-     * A special "chicken and egg" list of TypeConstants that need to have their TypeInfos rebuilt.
+     * The snapshot of pre-computed TypeInfo objects that was loaded with this pool, if any.
      */
-    private final ThreadLocal<List<TypeConstant>> f_tlolistDeferred = new ThreadLocal<>();
+    private transient volatile TypeInfoSnapshot m_snapshot;
 
     /**
      * A list of classes that cause any derived TypeInfos to be invalidated.
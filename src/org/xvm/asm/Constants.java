@@ -555,6 +555,10 @@ public interface Constants
      * A virtual child {0} cannot be found on {1}.
      */
     public static final String VE_VIRTUAL_CHILD_MISSING               = "VERIFY-94";
+    /**
+     * The TypeInfo snapshot of module "{0}" is ignored: {1}
+     */
+    public static final String VE_TYPEINFO_SNAPSHOT_IGNORED           = "VERIFY-95";
 
     // ----- miscellaneous -------------------------------------------------------------------------
 
@@ -2,6 +2,7 @@ package org.xvm.asm;
 
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
@@ -13,17 +14,24 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 
+import java.nio.ByteBuffer;
+
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
 
 import org.xvm.asm.constants.ModuleConstant;
+import org.xvm.asm.constants.TypeInfoSnapshot;
 
+import org.xvm.util.ByteBufferInput;
 import org.xvm.util.LinkedIterator;
 
 import static org.xvm.util.Handy.intToHexString;
 import static org.xvm.util.Handy.readIndex;
-import static org.xvm.util.Handy.toInputStream;
 import static org.xvm.util.Handy.writePackedLong;
 
 
@@ -82,18 +90,26 @@ public class FileStructure
         }
 
     /**
-     * Construct a file structure for an existing file.
+     * Construct a file structure for an existing file. The file is memory-mapped; the constant
+     * pool is always decoded eagerly (the constants refer to each other by index, and the pool
+     * depends on their identity), while the child components can be deferred.
      *
      * @param file   the file that contains the existing FileStructure
-     * @param fLazy  true to defer the module deserialization until necessary
+     * @param fLazy  true to defer the deserialization of the child components until necessary
      *
      * @throws IOException  if an IOException occurs while reading the FileStructure
      */
     public FileStructure(File file, boolean fLazy)
             throws IOException
         {
-        this(toInputStream(file), true, fLazy);
-        this.file = file;
+        super(null, Access.PUBLIC, true, true, true, Format.FILE, null, null);
+
+        // the file is memory-mapped, which allows the deferred portions of the structure to be
+        // retained as views into the mapping instead of as copies of the bytes
+        fLazyDeser = fLazy;
+        disassemble(new ByteBufferInput(ByteBufferInput.mapFile(file)));
+        this.file    = file;
+        m_fileMapped = file;
         }
 
     /**
@@ -155,19 +171,37 @@ public class FileStructure
     public void writeTo(File file)
             throws IOException
         {
+        // if the file is the one that this structure was memory-mapped from, the structure is
+        // fully assembled before the file is opened for writing, since any deferred portions of
+        // the structure would be lost (or worse) once the file is truncated
+        File                  fileMapped = m_fileMapped;
+        ByteArrayOutputStream outBytes   = null;
+        if (fileMapped != null && fileMapped.getCanonicalFile().equals(file.getCanonicalFile()))
+            {
+            outBytes = new ByteArrayOutputStream();
+            writeTo(outBytes);
+            }
+
         FileOutputStream fos = new FileOutputStream(file);
         this.file = file;
         try
             {
-            BufferedOutputStream bos = new BufferedOutputStream(fos);
-            try
+            if (outBytes == null)
                 {
-                writeTo(bos);
+                BufferedOutputStream bos = new BufferedOutputStream(fos);
+                try
+                    {
+                    writeTo(bos);
+                    }
+                finally
+                    {
+                    bos.flush();
+                    bos.close();
+                    }
                 }
-            finally
+            else
                 {
-                bos.flush();
-                bos.close();
+                outBytes.writeTo(fos);
                 }
             }
         finally
@@ -200,11 +234,85 @@ public class FileStructure
     public void writeTo(DataOutput out)
             throws IOException
         {
-        reregisterConstants(true);
+        ConstantPool     pool     = this.pool;
+        TypeInfoSnapshot snapshot = m_fEmitTypeInfo ? new TypeInfoSnapshot(pool) : null;
+
+        pool.preRegisterAll();
+        registerConstants(pool);
+        if (snapshot != null && !snapshot.registerConstants(pool))
+            {
+            snapshot = null;
+            }
+        pool.postRegisterAll(true);
+
         assemble(out);
+        if (snapshot != null)
+            {
+            snapshot.assemble(out);
+            }
         resetModified();
         }
 
+    /**
+     * Specify whether the TypeInfo objects that have been computed for the types in this structure
+     * (for example, by the compiler) should be emitted as part of the structure when it is written.
+     * The TypeInfo snapshot allows the runtime to avoid re-computing those TypeInfo objects when
+     * the structure is loaded.
+     *
+     * @param fEmit  true to emit a TypeInfo snapshot
+     */
+    public void setEmitTypeInfo(boolean fEmit)
+        {
+        m_fEmitTypeInfo = fEmit;
+        }
+
+    /**
+     * Obtain a hash of the binary form of this structure (excluding any TypeInfo snapshot). The
+     * hash is only known for a structure that was loaded from a binary, or that has been written
+     * to a binary with the {@link #setEmitTypeInfo emission of a TypeInfo snapshot} enabled.
+     *
+     * @return the content hash, or null if it is not known
+     */
+    public Long getContentHash()
+        {
+        Long LHash = m_LContentHash;
+        if (LHash == null)
+            {
+            ByteBuffer buf = m_bufContent;
+            if (buf != null)
+                {
+                MessageDigest digest = createDigest();
+                digest.update(buf.duplicate());
+                m_LContentHash = LHash = toHash(digest);
+                m_bufContent   = null;
+                }
+            }
+        return LHash;
+        }
+
+    /**
+     * @return a new MessageDigest for calculating the content hash
+     */
+    private static MessageDigest createDigest()
+        {
+        try
+            {
+            return MessageDigest.getInstance("SHA-256");
+            }
+        catch (NoSuchAlgorithmException e)
+            {
+            throw new IllegalStateException(e);
+            }
+        }
+
+    /**
+     * @return the content hash from the specified digest
+     */
+    private static Long toHash(MessageDigest digest)
+        {
+        return ByteBuffer.wrap(digest.digest()).getLong();
+        }
+
 
     // ----- module containment --------------------------------------------------------------------
 
@@ -724,6 +832,9 @@ public class FileStructure
     protected void disassemble(DataInput in)
             throws IOException
         {
+        ByteBuffer bufIn   = in instanceof ByteBufferInput ? ((ByteBufferInput) in).getBuffer() : null;
+        int        ofStart = bufIn == null ? 0 : bufIn.position();
+
         // validate that it is an xtc/xvm file format
         int nMagic = in.readInt();
         if (nMagic != FILE_MAGIC)
@@ -756,6 +867,31 @@ public class FileStructure
             {
             throw new IOException("the file does not contain a primary module");
             }
+
+        // when the structure is read from a buffer, the content hash can be calculated (on demand)
+        // from the buffer, and the optional TypeInfo snapshot that follows the structure can be
+        // detected by the presence of any remaining bytes; a stream is never read past the end of
+        // the structure
+        if (bufIn != null)
+            {
+            ByteBuffer bufContent = bufIn.duplicate();
+            bufContent.limit(bufIn.position()).position(ofStart);
+            m_bufContent   = bufContent.slice();
+            m_LContentHash = null;
+
+            if (((ByteBufferInput) in).available() > 0)
+                {
+                try
+                    {
+                    pool.setTypeInfoSnapshot(new TypeInfoSnapshot(pool, in));
+                    }
+                catch (IOException e)
+                    {
+                    // the snapshot is only an optimization; the TypeInfos will be computed instead
+                    TypeInfoSnapshot.report(this, e);
+                    }
+                }
+            }
         }
 
     /**
@@ -780,12 +916,38 @@ public class FileStructure
     protected void assemble(DataOutput out)
             throws IOException
         {
-        out.writeInt(FILE_MAGIC);
-        out.writeShort(VERSION_MAJOR_CUR);
-        out.writeShort(VERSION_MINOR_CUR);
-        pool.assemble(out);
-        writePackedLong(out, getModule().getIdentityConstant().getPosition());
-        assembleChildren(out);
+        // when a TypeInfo snapshot is being emitted, the structure is hashed as it is written, so
+        // that the TypeInfo snapshots of any modules that depend on this one can be validated
+        // against it; otherwise, the content hash is simply no longer known
+        MessageDigest digest  = m_fEmitTypeInfo ? createDigest() : null;
+        DataOutput    outData = digest == null
+                ? out
+                : new DataOutputStream(new DigestOutputStream(new OutputStream()
+                    {
+                    @Override
+                    public void write(int b)
+                            throws IOException
+                        {
+                        out.write(b);
+                        }
+
+                    @Override
+                    public void write(byte[] ab, int of, int cb)
+                            throws IOException
+                        {
+                        out.write(ab, of, cb);
+                        }
+                    }, digest));
+
+        outData.writeInt(FILE_MAGIC);
+        outData.writeShort(VERSION_MAJOR_CUR);
+        outData.writeShort(VERSION_MINOR_CUR);
+        pool.assemble(outData);
+        writePackedLong(outData, getModule().getIdentityConstant().getPosition());
+        assembleChildren(outData);
+
+        m_LContentHash = digest == null ? null : toHash(digest);
+        m_bufContent   = null;
         }
 
     @Override
@@ -956,4 +1118,26 @@ public class FileStructure
     private int nMinorVer;
 
     private transient ErrorListener m_errs;
+
+    /**
+     * The file that the structure was memory-mapped from, if any; the deferred portions of the
+     * structure are views into that mapping.
+     */
+    private transient File m_fileMapped;
+
+    /**
+     * True iff a TypeInfo snapshot should be emitted when the structure is written.
+     */
+    private transient boolean m_fEmitTypeInfo;
+
+    /**
+     * The binary form of the structure that it was loaded from, retained only until the content
+     * hash is calculated.
+     */
+    private transient volatile ByteBuffer m_bufContent;
+
+    /**
+     * The content hash, or null if it is not known (or not yet calculated).
+     */
+    private transient volatile Long m_LContentHash;
     }
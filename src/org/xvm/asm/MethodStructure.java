@@ -1063,8 +1063,9 @@ public class MethodStructure
         {
         if (m_fInitialized)
             {
+            // another request could have completed the initialization since this one was sent
             return frameNext == null
-                    ? Op.R_NEXT
+                    ? frame.assignValue(0, xNullable.NULL)
                     : frame.call(frameNext);
             }
 
@@ -2098,11 +2099,7 @@ public class MethodStructure
 
                 f_method.registerDefaultArgs(registry);
 
-                Op[] aop = ensureOps();
-                for (Op op : aop)
-                    {
-                    op.registerConstants(registry);
-                    }
+                registry.registerConstants(ensureOps());
                 }
             else
                 {
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -685,12 +686,45 @@ public abstract class Op
                 return null;
                 }
 
-            constant = m_pool.register(constant);
+            // the ops of a method refer to the same constant instances over and over, so each
+            // instance is only registered with the pool once, and the registrations are tallied
+            // against the registered constant without having to hash it
+            Tally tally = m_mapTally.get(constant);
+            if (tally == null)
+                {
+                Constant constantReg = m_pool.register(constant);
 
-            // keep track of how many times each constant is registered
-            m_mapConstants.compute(constant, (k, count) -> count == null ? 1 : 1 + count);
+                tally = m_mapTally.get(constantReg);
+                if (tally == null)
+                    {
+                    tally = new Tally(constantReg);
+                    m_mapTally.put(constantReg, tally);
+                    }
+                m_mapTally.put(constant, tally);
+                }
+            else
+                {
+                // the pool tallies its own references, which is cheap for a registered constant
+                m_pool.register(tally.f_constant);
+                }
+
+            ++tally.m_cRefs;
+            return tally.f_constant;
+            }
 
-            return constant;
+        /**
+         * Register the constants of all of the specified ops as one batch.
+         *
+         * @param aop  the ops whose constants need to be registered
+         */
+        public void registerConstants(Op[] aop)
+            {
+            ensureRegistering();
+
+            for (Op op : aop)
+                {
+                op.registerConstants(this);
+                }
             }
 
         /**
@@ -741,11 +775,23 @@ public abstract class Op
             {
             if (m_aconst == null)
                 {
+                // collect the tallies; equal constants that were not registered with the pool
+                // (e.g. because they are not resolved) are tallied together
+                Map<Constant, Integer> mapConstants = m_mapConstants;
+                for (Tally tally : m_mapTally.values())
+                    {
+                    if (tally.m_cRefs > 0)
+                        {
+                        mapConstants.merge(tally.f_constant, tally.m_cRefs, Integer::sum);
+                        tally.m_cRefs = 0;
+                        }
+                    }
+                m_mapTally = null;
+
                 // first, create an array of all of the constants, sorted by how often they are used
                 // (backwards order, such that the most often used come first, since the variable
                 // length index encoding uses less bytes for lower indexes, the result is more
                 // compact)
-                Map<Constant, Integer> mapConstants = m_mapConstants;
                 Constant[] aconst = mapConstants.keySet().toArray(new Constant[mapConstants.size()]);
                 Arrays.sort(aconst, Constants.DEBUG
                         ? Comparator.<Constant>naturalOrder()
@@ -761,16 +807,42 @@ public abstract class Op
                 }
             }
 
+        /**
+         * The number of times that a registered constant has been registered with the registry.
+         */
+        private static class Tally
+            {
+            Tally(Constant constant)
+                {
+                f_constant = constant;
+                }
+
+            /**
+             * The constant, as registered with the pool.
+             */
+            final Constant f_constant;
+
+            /**
+             * The number of registrations.
+             */
+            int m_cRefs;
+            }
+
         /**
          * The underlying ConstantPool.
          */
         private ConstantPool m_pool;
 
         /**
-         * The constants registered in the ConstantRegistry. While the registry is still
-         * registering, the map tracks counts of how many times each constant is referenced. Once
-         * the registry optimizes its constant ordering, the map holds the index of each constant
-         * (in the local "constant pool", not the real constant pool.)
+         * While the registry is still registering, the tally for each constant instance that has
+         * been registered, and for each constant that it was registered as.
+         */
+        private Map<Constant, Tally> m_mapTally = new IdentityHashMap<>();
+
+        /**
+         * The constants registered in the ConstantRegistry. Once the registry optimizes its
+         * constant ordering, the map holds the index of each constant (in the local "constant
+         * pool", not the real constant pool.)
          */
         private Map<Constant, Integer> m_mapConstants = new HashMap<>();
 
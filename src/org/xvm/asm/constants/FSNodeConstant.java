@@ -229,6 +229,24 @@ public class FSNodeConstant
         return ((UInt8ArrayConstant) m_constData).getValue();
         }
 
+    /**
+     * @return the file's data constant; the bytes of a large file are not read until requested
+     */
+    public UInt8ArrayConstant getFileConstant()
+        {
+        assert m_fmt == Format.FSFile;
+
+        return (UInt8ArrayConstant) m_constData;
+        }
+
+    /**
+     * @return the number of bytes in the file, without reading the bytes
+     */
+    public int getFileSize()
+        {
+        return getFileConstant().size();
+        }
+
     public FSNodeConstant getLinkTarget()
         {
         assert m_fmt == Format.FSLink;
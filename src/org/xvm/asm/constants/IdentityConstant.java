@@ -382,6 +382,14 @@ public abstract class IdentityConstant
             m_resolver = resolver;
             }
 
+        /**
+         * @return the GenericTypeResolver for this NestedIdentity, or null
+         */
+        GenericTypeResolver getResolver()
+            {
+            return m_resolver;
+            }
+
         /**
          * @return the IdentityConstant that created this NestedIdentity
          */
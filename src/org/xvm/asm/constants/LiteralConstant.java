@@ -322,26 +322,20 @@ public class LiteralConstant
         {
         assert getFormat() == Format.IntLiteral || getFormat() == Format.FPLiteral && getFPRadix() == 10;
 
-        BigDecimal dec;
-
-        if (m_oVal == null)
+        if (m_oVal instanceof BigDecimal)
             {
-            // Java BigDecimal uses "E" to indicate a decimal exponent, while ISO uses "P"
-            m_oVal = dec = getFormat() == Format.IntLiteral
-                    ? new BigDecimal(getPackedInteger().getBigInteger())
-                    : new BigDecimal(m_constStr.getValue().replace('p', 'e').replace('P', 'E'));
-            }
-        else
-            {
-            if (m_oVal instanceof PackedInteger)
-                {
-                m_oVal = dec = new BigDecimal(((PackedInteger) m_oVal).getBigInteger());
-                }
-            else
-                {
-                dec = (BigDecimal) m_oVal;
-                }
+            return (BigDecimal) m_oVal;
             }
+
+        // note that the cached value may be of any other form (e.g. a Float or a Double, if the
+        // literal has already been converted to a binary floating point value), so the BigDecimal
+        // is always calculated from the literal itself; Java BigDecimal uses "E" to indicate a
+        // decimal exponent, while ISO uses "P"
+        BigDecimal dec = getFormat() == Format.IntLiteral
+                ? new BigDecimal(getPackedInteger().getBigInteger())
+                : new BigDecimal(m_constStr.getValue().replace('p', 'e').replace('P', 'E'));
+
+        m_oVal = dec;
         return dec;
         }
 
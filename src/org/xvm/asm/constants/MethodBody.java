@@ -312,6 +312,15 @@ public class MethodBody
                 : null;
         }
 
+    /**
+     * @return the target of the method body, which is either the PropertyConstant that provides
+     *         the reference to delegate to, the nid of the narrowing method, or null
+     */
+    Object getTarget()
+        {
+        return m_target;
+        }
+
     /**
      * @return the <i>resolved</i> nid of the method that narrowed this method, iff this MethodBody
      *         is a cap
@@ -538,6 +538,14 @@ public class MethodConstant
         return n;
         }
 
+    @Override
+    protected int computeRegistrationHash()
+        {
+        return isLambda()
+                ? hashCode()
+                : m_constParent.getRegistrationHash() * 17 + m_constSig.getRegistrationHash();
+        }
+
     @Override
     public String getValueString()
         {
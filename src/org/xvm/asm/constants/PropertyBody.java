@@ -125,6 +125,42 @@ public class PropertyBody
         m_effectSet     = Effect.None;
         }
 
+    /**
+     * Construct a PropertyBody from all of its constituent parts; this is used to restore a
+     * PropertyBody from a {@link TypeInfoSnapshot}.
+     */
+    PropertyBody(
+            PropertyStructure struct,
+            Implementation    impl,
+            PropertyConstant  constDelegate,
+            ParamInfo         param,
+            TypeConstant      type,
+            boolean           fRO,
+            boolean           fRW,
+            boolean           fCustomCode,
+            Effect            effectGet,
+            Effect            effectSet,
+            boolean           fReqField,
+            boolean           fConstant,
+            Constant          constInitVal,
+            MethodConstant    constInitFunc)
+        {
+        m_structProp    = struct;
+        m_impl          = impl;
+        m_constDelegate = constDelegate;
+        m_paraminfo     = param;
+        m_type          = type;
+        m_fRO           = fRO;
+        m_fRW           = fRW;
+        m_fCustom       = fCustomCode;
+        m_effectGet     = effectGet;
+        m_effectSet     = effectSet;
+        m_fField        = fReqField;
+        m_fConstant     = fConstant;
+        m_constInitVal  = constInitVal;
+        m_constInitFunc = constInitFunc;
+        }
+
     /**
      * @return the container of the property
      */
@@ -375,6 +411,22 @@ public class PropertyBody
         return m_effectSet != Effect.None;
         }
 
+    /**
+     * @return the Effect of the getter
+     */
+    Effect getGetterEffect()
+        {
+        return m_effectGet;
+        }
+
+    /**
+     * @return the Effect of the setter
+     */
+    Effect getSetterEffect()
+        {
+        return m_effectSet;
+        }
+
     /**
      * @return true iff the property has a getter method that blocks the invocation of its super
      *         method
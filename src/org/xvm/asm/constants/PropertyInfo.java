@@ -828,6 +828,14 @@ public class PropertyInfo
         return false;
         }
 
+    /**
+     * @return true iff this property was explicitly marked as requiring a field
+     */
+    boolean isFieldRequired()
+        {
+        return m_fRequireField;
+        }
+
     /**
      * @return true iff this property has a field, whether or not that field is reachable
      */
@@ -986,13 +994,18 @@ public class PropertyInfo
      */
     public TypeConstant getBaseRefType()
         {
-        TypeConstant typeProp = getType();
-        ConstantPool pool     = pool();
+        TypeConstant typeProp   = getType();
+        ConstantPool pool       = pool();
+        boolean      fAnnotated = isRefAnnotated();
+
+        // an annotated field whose setter is unreachable (e.g. a "public/private" property seen
+        // from a subclass) is still held by a Var, which is what the Var annotations require
+        boolean fVar = isVar() || fAnnotated && m_fSuppressVar && hasField();
 
         TypeConstant typeRef = pool.ensureParameterizedTypeConstant(
-            isVar() ? pool.typeVar() : pool.typeRef(), typeProp);
+            fVar ? pool.typeVar() : pool.typeRef(), typeProp);
 
-        return isRefAnnotated()
+        return fAnnotated
                 ? pool.ensureAnnotatedTypeConstant(typeRef, getRefAnnotations())
                 : typeRef;
         }
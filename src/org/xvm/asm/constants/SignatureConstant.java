@@ -571,9 +571,10 @@ public class SignatureConstant
             }
 
         SignatureConstant that = (SignatureConstant) obj;
-        if (that == m_sigPrev)
+        PrevCompare       prev = m_prevCompare;
+        if (prev != null && prev.f_sig == that)
             {
-            return m_nCmpPrev;
+            return prev.f_nCmp;
             }
 
         int n = this.m_constName.compareTo(that.m_constName);
@@ -592,13 +593,35 @@ public class SignatureConstant
 
         // while completely non-obvious at first look, caching this result has a tremendous impact
         // on the big-O, by short-circuiting a recursive comparison caused by signatures containing
-        // TypeParameterConstants
-        m_sigPrev  = that;
-        m_nCmpPrev = n;
+        // TypeParameterConstants; the target and the result are cached together, since signatures
+        // are compared concurrently by any number of threads, and only once both signatures are
+        // resolved, since the result of comparing unresolved signatures may still change
+        if (!this.containsUnresolved() && !that.containsUnresolved())
+            {
+            m_prevCompare = new PrevCompare(that, n);
+            }
 
         return n;
         }
 
+    @Override
+    protected int computeRegistrationHash()
+        {
+        // unlike hashCode(), which has to remain stable while the types are being resolved, the
+        // registration hash can take the types into account, which keeps all of the overloads
+        // of a method name from sharing the same hash
+        int nHash = hashCode();
+        for (TypeConstant type : m_aconstParams)
+            {
+            nHash = nHash * 31 + type.getRegistrationHash();
+            }
+        for (TypeConstant type : m_aconstReturns)
+            {
+            nHash = nHash * 31 + type.getRegistrationHash();
+            }
+        return nHash;
+        }
+
     @Override
     public String getValueString()
         {
@@ -840,6 +863,24 @@ public class SignatureConstant
         }
 
 
+    // ----- inner class: PrevCompare --------------------------------------------------------------
+
+    /**
+     * An immutable record of the most recent comparison.
+     */
+    private static class PrevCompare
+        {
+        PrevCompare(SignatureConstant sig, int nCmp)
+            {
+            f_sig  = sig;
+            f_nCmp = nCmp;
+            }
+
+        final SignatureConstant f_sig;
+        final int               f_nCmp;
+        }
+
+
     // ----- fields --------------------------------------------------------------------------------
 
     /**
@@ -879,12 +920,7 @@ public class SignatureConstant
     private transient boolean m_fProperty;
 
     /**
-     * Cached comparison target.
-     */
-    private transient SignatureConstant m_sigPrev;
-
-    /**
-     * Cached comparison result.
+     * Cached comparison target and result.
      */
-    private transient int m_nCmpPrev;
+    private transient PrevCompare m_prevCompare;
     }
@@ -8,12 +8,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
@@ -1029,11 +1033,77 @@ public abstract class TypeConstant
         //    incomplete TypeInfo, which is sufficient to build the dependent TypeInfo, but which
         //    in turn must be completed once the dependent (which is also a depended-upon) TypeInfo
         //    is complete
+        //
+        // across threads, only one thread at a time takes the responsibility for building the
+        // TypeInfo for any given type (as represented by a TypeInfoBuild); any other thread that
+        // needs that TypeInfo waits for the build to finish, unless waiting could deadlock (i.e.
+        // the building thread is itself waiting, directly or indirectly, for this thread), in
+        // which case this thread simply builds the TypeInfo as well
+        TypeInfoBuild build = new TypeInfoBuild();
+        while (!s_build.compareAndSet(this, null, build))
+            {
+            TypeInfoBuild buildOther = s_build.get(this);
+            if (buildOther == null)
+                {
+                continue;
+                }
+
+            if (buildOther.isOwnedByCurrentThread() || !buildOther.await())
+                {
+                build = null;
+                break;
+                }
+
+            info = getTypeInfo();
+            if (isComplete(info) && isUpToDate(info))
+                {
+                return info;
+                }
+            }
 
-        // there is a place-holder that signifies that a type is busy building a TypeInfo;
-        // mark the type as having its TypeInfo building "in progress"
-        setTypeInfo(pool.TYPEINFO_PLACEHOLDER);
+        try
+            {
+            // another thread may have finished building the TypeInfo in the meantime
+            info = getTypeInfo();
+            if (isComplete(info) && isUpToDate(info))
+                {
+                return info;
+                }
+
+            // a TypeInfo that was pre-computed when the module was compiled does not need to be
+            // built
+            if (info == null)
+                {
+                info = takeSnapshotTypeInfo();
+                if (info != null)
+                    {
+                    setTypeInfo(info);
+                    return info;
+                    }
+                }
+
+            return buildTypeInfoComplete(errs);
+            }
+        finally
+            {
+            if (build != null)
+                {
+                s_build.compareAndSet(this, build, null);
+                build.complete();
+                }
+            }
+        }
 
+    /**
+     * Build the "completed" TypeInfo for this type, including the completion of any TypeInfo that
+     * had to be deferred in the process.
+     *
+     * @param errs  the error list to log errors to
+     *
+     * @return the completed TypeInfo
+     */
+    private TypeInfo buildTypeInfoComplete(ErrorListener errs)
+        {
         // since this can only be used "from the outside", there should be no deferred TypeInfo
         // objects at this point
         if (hasDeferredTypeInfo())
@@ -1042,10 +1112,11 @@ public abstract class TypeConstant
                     + this + "; deferred types=" + takeDeferredTypeInfo());
             }
 
+        TypeInfo info;
         try
             {
             // build the TypeInfo for this type
-            info = buildTypeInfo(errs);
+            info = buildTypeInfoOnThisThread(errs);
             }
         catch (Exception | Error e)
             {
@@ -1072,6 +1143,7 @@ public abstract class TypeConstant
             // this TypeInfo is considered to be "deferred", but now that we've built
             // something (even if it isn't complete), we should be able to complete the
             // deferred TypeInfo building
+            Map<TypeConstant, Integer> mapDepth = s_tloRecursiveDepth.get();
             for (TypeConstant typeDeferred : takeDeferredTypeInfo())
                 {
                 if (typeDeferred != this)
@@ -1080,14 +1152,26 @@ public abstract class TypeConstant
                     // recursion, so be very careful about what can allow a TypeInfo to be built
                     // "incomplete" (it needs to be impossible to rebuild a TypeInfo and have it
                     // be incomplete for the second time)
-                    if (++m_cRecursiveDepth > 2)
+                    int cDepth = mapDepth.merge(this, 1, Integer::sum);
+                    if (cDepth > 2)
                         {
                         // an infinite loop
+                        mapDepth.remove(this);
                         throw new IllegalStateException("Infinite loop while producing a TypeInfo for "
                                 + this + "; deferred type=" + typeDeferred);
                         }
-                    TypeInfo infoDeferred = typeDeferred.ensureTypeInfo(errs);
-                    --m_cRecursiveDepth;
+                    TypeInfo infoDeferred;
+                    try
+                        {
+                        infoDeferred = typeDeferred.ensureTypeInfo(errs);
+                        }
+                    finally
+                        {
+                        if (mapDepth.merge(this, -1, Integer::sum) == 0)
+                            {
+                            mapDepth.remove(this);
+                            }
+                        }
                     assert infoDeferred.getProgress() == Progress.Complete;
                     }
                 }
@@ -1096,7 +1180,7 @@ public abstract class TypeConstant
         // now that all those other deferred types are done building, rebuild this if necessary
         if (!isComplete(info))
             {
-            info = buildTypeInfo(errs);
+            info = buildTypeInfoOnThisThread(errs);
             assert isComplete(info);
             setTypeInfo(info);
             }
@@ -1114,23 +1198,44 @@ public abstract class TypeConstant
      */
     protected TypeInfo ensureTypeInfoInternal(ErrorListener errs)
         {
-        TypeInfo info = getTypeInfo();
-        if (info != null && info.isPlaceHolder())
-            {
-            // the TypeInfo is already being built, so we're in the catch-22 situation; note that it
-            // is even more complicated, because it could be being built by a different thread, so
-            // always add it to the deferred list _on this thread_ so that we will force the rebuild
-            // of the TypeInfo if necessary (imagine that the other thread is super slow, so we need
-            // to preemptively duplicate its work on this thread, so we don't have to "wait" for
-            // the other thread)
+        if (isBuildingOnThisThread())
+            {
+            // the TypeInfo is already being built by this thread, so we're in the catch-22
+            // situation; add it to the deferred list _on this thread_ so that we will force the
+            // rebuild of the TypeInfo once the TypeInfo that depends on it has been built
             addDeferredTypeInfo(this);
             return null;
             }
 
+        TypeInfo info = getTypeInfo();
+        if (info == null)
+            {
+            // the TypeInfos that are needed to build another TypeInfo can come from the snapshot
+            // as well
+            info = takeSnapshotTypeInfo();
+            if (info != null)
+                {
+                setTypeInfo(info);
+                return info;
+                }
+            }
+
         if (info == null || !isUpToDate(info))
             {
-            setTypeInfo(getConstantPool().TYPEINFO_PLACEHOLDER);
-            info = buildTypeInfo(errs);
+            // if another thread is building the TypeInfo, wait for it (unless waiting could
+            // deadlock); otherwise, build it on this thread (even if another thread is also
+            // building it, since whichever TypeInfo is stored first will be used)
+            TypeInfoBuild buildOther = s_build.get(this);
+            if (buildOther != null && !buildOther.isOwnedByCurrentThread() && buildOther.await())
+                {
+                info = getTypeInfo();
+                if (isComplete(info) && isUpToDate(info))
+                    {
+                    return info;
+                    }
+                }
+
+            info = buildTypeInfoOnThisThread(errs);
             if (info != null)
                 {
                 setTypeInfo(info);
@@ -1144,11 +1249,62 @@ public abstract class TypeConstant
         return info;
         }
 
+    /**
+     * Build the TypeInfo for this type, marking the type as being built by this thread for the
+     * duration.
+     *
+     * @param errs  the error list to log to
+     *
+     * @return a new TypeInfo, or null (see {@link #buildTypeInfo})
+     */
+    private TypeInfo buildTypeInfoOnThisThread(ErrorListener errs)
+        {
+        // discard any out-of-date TypeInfo, so that the new TypeInfo will replace it
+        TypeInfo infoOld = getTypeInfo();
+        if (infoOld != null && !isUpToDate(infoOld))
+            {
+            s_typeinfo.compareAndSet(this, infoOld, null);
+            }
+
+        Set<TypeConstant> setBuild = s_tloBuilding.get();
+        boolean           fOuter   = setBuild.add(this);
+        try
+            {
+            return buildTypeInfo(errs);
+            }
+        finally
+            {
+            if (fOuter)
+                {
+                setBuild.remove(this);
+                }
+            }
+        }
+
+    /**
+     * @return true iff the TypeInfo for this type is currently being built by this thread
+     */
+    private boolean isBuildingOnThisThread()
+        {
+        return s_tloBuilding.get().contains(this);
+        }
+
+    /**
+     * Obtain the TypeInfo for this type from the TypeInfo snapshot that was loaded with the module
+     * that this type belongs to, if there is one.
+     *
+     * @return the pre-computed TypeInfo, or null if the TypeInfo needs to be built
+     */
+    private TypeInfo takeSnapshotTypeInfo()
+        {
+        TypeInfoSnapshot snapshot = getConstantPool().getTypeInfoSnapshot();
+        return snapshot == null ? null : snapshot.takeTypeInfo(this);
+        }
+
     /**
      * Obtain the TypeInfo associated with this type.
      *
-     * @return one of: null, a place-holder TypeInfo (if the TypeInfo is currently being built), an
-     *         "incomplete" TypeInfo, or a finished TypeInfo
+     * @return one of: null, an "incomplete" TypeInfo, or a finished TypeInfo
      */
     protected TypeInfo getTypeInfo()
         {
@@ -1164,8 +1320,7 @@ public abstract class TypeConstant
     protected void setTypeInfo(TypeInfo info)
         {
         TypeInfo infoOld;
-        while (rankTypeInfo(info) > rankTypeInfo(infoOld = s_typeinfo.get(this))
-                || info.isPlaceHolder())
+        while (rankTypeInfo(info) > rankTypeInfo(infoOld = s_typeinfo.get(this)))
             {
             // update the TypeInfo
             if (s_typeinfo.compareAndSet(this, infoOld, info))
@@ -1222,7 +1377,7 @@ public abstract class TypeConstant
         }
 
     /**
-     * Rank is null, place-holder, incomplete, complete.
+     * Rank is null, incomplete, complete.
      *
      * @param info  a TypeInfo
      *
@@ -1235,24 +1390,19 @@ public abstract class TypeConstant
             return 0;
             }
 
-        if (info.isPlaceHolder())
-            {
-            return 1;
-            }
-
         return info.isIncomplete()
-                ? 2
-                : 3;
+                ? 1
+                : 2;
         }
 
     /**
      * @param info  the TypeInfo to evaluate
      *
-     * @return true iff the passed TypeInfo is non-null, not the place-holder, and not incomplete
+     * @return true iff the passed TypeInfo is non-null and not incomplete
      */
     private static boolean isComplete(TypeInfo info)
         {
-        return rankTypeInfo(info) == 3;
+        return rankTypeInfo(info) == 2;
         }
 
     /**
@@ -4208,6 +4358,18 @@ public abstract class TypeConstant
     public Relation calculateRelation(TypeConstant typeLeft)
         {
         ConstantPool pool = getConstantPool();
+
+        // fast path: the relation has already been calculated and cached on this (registered) type
+        RelationMap mapCached = m_mapRelations;
+        if (mapCached != null && mapCached.f_cInvalidations == pool.getInvalidationCount())
+            {
+            Relation relation = mapCached.f_mapRelations.get(typeLeft);
+            if (relation != null)
+                {
+                return relation;
+                }
+            }
+
         if (this.equals(typeLeft) || typeLeft.equals(pool.typeObject()))
             {
             return Relation.IS_A;
@@ -4223,7 +4385,9 @@ public abstract class TypeConstant
             return typeRight.calculateRelation(typeLeftResolved);
             }
 
-        // WARNING: thread-unsafe
+        // the relations are cached on the registered (R-Value) type, so the cache is effectively
+        // a per-pool map from (L-Value, R-Value) pairs; it may be read and updated concurrently,
+        // while any relation that is being calculated is tracked by the calculating thread
         Map<TypeConstant, Relation> mapRelations = ensureRelationMap();
 
         Relation relation = mapRelations.get(typeLeft);
@@ -4256,8 +4420,35 @@ public abstract class TypeConstant
                 return relation;
                 }
 
+            Set<TypeConstant> setInProgress = ensureRelationsInProgress();
+            if (setInProgress.contains(typeLeft))
+                {
+                // we are in recursion; this can only happen for duck-typing, for example:
+                //
+                //    interface I { I! foo(); }
+                //    class C { C! foo(); }
+                //
+                // the check on whether C is assignable to I depends on whether the return value
+                // of C.foo() is assignable to the return value of I.foo(), which causes a
+                // recursion
+                //
+                // The soft assertion below assumes that a recursion for a given type always
+                // involves the same ConstantPool. However, there is a possibility that we cycled
+                // in to the same interface type on a different pool and called
+                // isInterfaceAssignableFrom again, checking all the methods and circled back for
+                // a non-interface comparison. Leaving the logging in for now, but no matter what,
+                // the answer should be negative (and the outer calculation will cache the actual
+                // answer).
+                if (!typeLeft.isInterfaceType())
+                    {
+                    System.err.println("rejecting isA() due to a recursion:" +
+                        " left=" + typeLeft.getValueString() + "; right=" + typeRight.getValueString());
+                    }
+                return Relation.INCOMPATIBLE;
+                }
+
             // now -- a long journey
-            mapRelations.put(typeLeft, Relation.IN_PROGRESS);
+            setInProgress.add(typeLeft);
             try
                 {
                 relation = typeRight.calculateRelationToLeft(typeLeft);
@@ -4285,33 +4476,14 @@ public abstract class TypeConstant
 
                 mapRelations.put(typeLeft, relation);
                 }
-            catch (RuntimeException | Error e)
+            finally
                 {
-                mapRelations.remove(typeLeft);
-                throw e;
-                }
-            }
-        else if (relation == Relation.IN_PROGRESS)
-            {
-            // we are in recursion; this can only happen for duck-typing, for example:
-            //
-            //    interface I { I! foo(); }
-            //    class C { C! foo(); }
-            //
-            // the check on whether C is assignable to I depends on whether the return value of
-            // C.foo() is assignable to the return value of I.foo(), which causes a recursion
-            //
-            // The soft assertion below assumes that a recursion for a given type always involves
-            // the same ConstantPool. However, there is a possibility that we cycled in to the same
-            // interface type on a different pool and called isInterfaceAssignableFrom again,
-            // checking all the methods and circled back for a non-interface comparison.
-            // Leaving the logging in for now, but no matter what, the answer should be negative.
-            if (!typeLeft.isInterfaceType())
-                {
-                System.err.println("rejecting isA() due to a recursion:" +
-                    " left=" + typeLeft.getValueString() + "; right=" + typeRight.getValueString());
+                setInProgress.remove(typeLeft);
+                if (setInProgress.isEmpty())
+                    {
+                    s_tloRelationsInProgress.get().remove(typeRight);
+                    }
                 }
-            mapRelations.put(typeLeft, relation = Relation.INCOMPATIBLE);
             }
         return relation;
         }
@@ -5339,6 +5511,8 @@ public abstract class TypeConstant
         {
         TypeConstant that = (TypeConstant) super.adoptedBy(pool);
         that.m_cInvalidations = 0;
+        that.m_build          = null;
+        that.m_mapRelations   = null;
         return that;
         }
 
@@ -5424,14 +5598,49 @@ public abstract class TypeConstant
 
     // ----- helpers -------------------------------------------------------------------------------
 
+    /**
+     * @param typeLeft  the L-Value type
+     *
+     * @return the cached relation between this (R-Value) and the specified (L-Value) types, or null
+     *         if the relation is not (or is no longer) cached
+     */
+    Relation getCachedRelation(TypeConstant typeLeft)
+        {
+        RelationMap map = m_mapRelations;
+        return map == null || map.f_cInvalidations != getConstantPool().getInvalidationCount()
+                ? null
+                : map.f_mapRelations.get(typeLeft);
+        }
+
+    /**
+     * @return the cache of relations for this (R-Value) type, which is discarded whenever the
+     *         TypeInfos of the ConstantPool are invalidated
+     */
     private Map<TypeConstant, Relation> ensureRelationMap()
         {
-        Map<TypeConstant, Relation> mapRelations = m_mapRelations;
-        if (mapRelations == null)
+        int         cInvals = getConstantPool().getInvalidationCount();
+        RelationMap map     = m_mapRelations;
+        if (map == null || map.f_cInvalidations != cInvals)
+            {
+            m_mapRelations = map = new RelationMap(cInvals);
+            }
+        return map.f_mapRelations;
+        }
+
+    /**
+     * @return the set of L-Value types whose relation to this (R-Value) type is currently being
+     *         calculated on this thread
+     */
+    private Set<TypeConstant> ensureRelationsInProgress()
+        {
+        Map<TypeConstant, Set<TypeConstant>> mapInProgress = s_tloRelationsInProgress.get();
+
+        Set<TypeConstant> set = mapInProgress.get(this);
+        if (set == null)
             {
-            mapRelations = m_mapRelations = new HashMap<>();
+            mapInProgress.put(this, set = new HashSet<>());
             }
-        return mapRelations;
+        return set;
         }
 
     private Map<String, Usage> ensureConsumesMap()
@@ -5513,6 +5722,130 @@ public abstract class TypeConstant
         }
 
 
+    // ----- inner class: RelationMap --------------------------------------------------------------
+
+    /**
+     * A cache of the relations of a type to L-Value types, which is valid for as long as the
+     * TypeInfo invalidation count of the ConstantPool does not change.
+     */
+    private static class RelationMap
+        {
+        RelationMap(int cInvalidations)
+            {
+            f_cInvalidations = cInvalidations;
+            }
+
+        /**
+         * The TypeInfo invalidation count of the ConstantPool when the cache was created.
+         */
+        final int f_cInvalidations;
+
+        /**
+         * The cached relations, keyed by the L-Value type.
+         */
+        final Map<TypeConstant, Relation> f_mapRelations = new ConcurrentHashMap<>();
+        }
+
+    // ----- inner class: TypeInfoBuild ------------------------------------------------------------
+
+    /**
+     * Represents the building of a TypeInfo by a specific thread. Other threads that need the same
+     * TypeInfo can {@link #await} the completion of the build.
+     */
+    private static class TypeInfoBuild
+        {
+        /**
+         * @return true iff this build is being performed by the current thread
+         */
+        boolean isOwnedByCurrentThread()
+            {
+            return f_thread == Thread.currentThread();
+            }
+
+        /**
+         * Mark the build as finished (whether or not it succeeded), releasing any waiting threads.
+         */
+        void complete()
+            {
+            f_latch.countDown();
+            }
+
+        /**
+         * Wait for the build to finish, unless waiting could deadlock, which is the case when the
+         * thread performing the build is itself waiting (directly or indirectly) for the current
+         * thread.
+         *
+         * @return true if the build has finished; false if the caller must not wait, and should
+         *         build the TypeInfo itself
+         */
+        boolean await()
+            {
+            Thread thread = Thread.currentThread();
+
+            // the wait is registered before checking for a deadlock, so that of any two threads
+            // that concurrently start waiting for each other, at least one will detect it; for the
+            // same reason, a cycle that forms after this thread starts waiting is always detected
+            // by the thread that closes it, so once this thread has found no cycle, it can block
+            s_mapAwaiting.put(thread, this);
+            try
+                {
+                if (isDeadlocked(thread))
+                    {
+                    return false;
+                    }
+
+                try
+                    {
+                    f_latch.await();
+                    }
+                catch (InterruptedException e)
+                    {
+                    thread.interrupt();
+                    return false;
+                    }
+                return true;
+                }
+            finally
+                {
+                s_mapAwaiting.remove(thread);
+                }
+            }
+
+        /**
+         * @return true iff the chain of threads waiting for TypeInfo builds, starting with the
+         *         thread performing this build, leads back to the specified thread
+         */
+        private boolean isDeadlocked(Thread thread)
+            {
+            TypeInfoBuild build = this;
+            for (int c = s_mapAwaiting.size(); build != null && c >= 0; --c)
+                {
+                if (build.f_thread == thread)
+                    {
+                    return true;
+                    }
+                build = s_mapAwaiting.get(build.f_thread);
+                }
+            return false;
+            }
+
+        /**
+         * The build that each waiting thread is waiting for.
+         */
+        private static final Map<Thread, TypeInfoBuild> s_mapAwaiting = new ConcurrentHashMap<>();
+
+        /**
+         * The thread performing the build.
+         */
+        private final Thread f_thread = Thread.currentThread();
+
+        /**
+         * The latch that is released when the build finishes.
+         */
+        private final CountDownLatch f_latch = new CountDownLatch(1);
+        }
+
+
     // ----- enums ---------------------------------------------------------------------------------
 
     /**
@@ -5577,7 +5910,26 @@ public abstract class TypeConstant
     private transient volatile TypeInfo m_typeinfo;
     private static final AtomicReferenceFieldUpdater<TypeConstant, TypeInfo> s_typeinfo =
             AtomicReferenceFieldUpdater.newUpdater(TypeConstant.class, TypeInfo.class, "m_typeinfo");
-    private transient volatile int m_cRecursiveDepth;
+
+    /**
+     * The TypeInfo build that is currently in progress for this type, if any.
+     */
+    private transient volatile TypeInfoBuild m_build;
+    private static final AtomicReferenceFieldUpdater<TypeConstant, TypeInfoBuild> s_build =
+            AtomicReferenceFieldUpdater.newUpdater(TypeConstant.class, TypeInfoBuild.class, "m_build");
+
+    /**
+     * The types whose TypeInfo is being built on the current thread.
+     */
+    private static final ThreadLocal<Set<TypeConstant>> s_tloBuilding =
+            ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /**
+     * For each type that is completing its deferred TypeInfos on the current thread, the depth of
+     * the recursion.
+     */
+    private static final ThreadLocal<Map<TypeConstant, Integer>> s_tloRecursiveDepth =
+            ThreadLocal.withInitial(IdentityHashMap::new);
 
     /**
      * The last time that we checked the invalidations from the ConstantPool, we cached the number
@@ -5593,7 +5945,14 @@ public abstract class TypeConstant
     /**
      * A cache of "isA" responses.
      */
-    private transient Map<TypeConstant, Relation> m_mapRelations;
+    private transient volatile RelationMap m_mapRelations;
+
+    /**
+     * For each R-Value type, the L-Value types whose relation is being calculated on the current
+     * thread.
+     */
+    private static final ThreadLocal<Map<TypeConstant, Set<TypeConstant>>> s_tloRelationsInProgress =
+            ThreadLocal.withInitial(IdentityHashMap::new);
 
     /**
      * A cache of "consumes" responses.
@@ -129,8 +129,7 @@ public class TypeInfo
         m_fExplicitAbstract = fExplicitAbstract;
         m_fImplicitAbstract = fImplicitAbstract;
 
-        assert cInvalidations == 0 // necessary for TYPEINFO_PLACEHOLDER construction
-            || cInvalidations <= type.getConstantPool().getInvalidationCount();
+        assert cInvalidations <= type.getConstantPool().getInvalidationCount();
         }
 
     /**
@@ -514,6 +513,15 @@ public class TypeInfo
         return f_cInvalidations;
         }
 
+    /**
+     * @return the nested depth of the TypeInfo; {@code 0} for a class TypeInfo, or {@code >0} for
+     *         a TypeInfo that represents a property
+     */
+    int getDepth()
+        {
+        return f_cDepth;
+        }
+
     /**
      * Determine if this TypeInfo is impacted by changes in the TypeInfos built for any of the
      * classes specified by the passed set of IdentityConstants.
@@ -2111,11 +2119,6 @@ public class TypeInfo
         return f_progress;
         }
 
-    boolean isPlaceHolder()
-        {
-        return f_progress == Progress.Building;
-        }
-
     boolean isIncomplete()
         {
         return f_progress == Progress.Incomplete;
@@ -2201,7 +2204,7 @@ public class TypeInfo
 
     public enum Progress
         {
-        Absent, Building, Incomplete, Complete;
+        Absent, Incomplete, Complete;
 
         public Progress worstOf(Progress that)
             {
@@ -0,0 +1,1047 @@
+package org.xvm.asm.constants;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.xvm.asm.Annotation;
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Component;
+import org.xvm.asm.Component.Composition;
+import org.xvm.asm.Component.Contribution;
+import org.xvm.asm.Constant;
+import org.xvm.asm.Constants;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.FileStructure;
+import org.xvm.asm.GenericTypeResolver;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.PropertyStructure;
+import org.xvm.asm.XvmStructure;
+
+import org.xvm.asm.constants.IdentityConstant.NestedIdentity;
+import org.xvm.asm.constants.MethodBody.Implementation;
+import org.xvm.asm.constants.PropertyBody.Effect;
+import org.xvm.asm.constants.TypeConstant.Origin;
+import org.xvm.asm.constants.TypeInfo.Progress;
+
+import org.xvm.util.ByteBufferInput;
+import org.xvm.util.ListMap;
+import org.xvm.util.Severity;
+
+import static org.xvm.util.Handy.readIndex;
+import static org.xvm.util.Handy.readMagnitude;
+import static org.xvm.util.Handy.readUtf8String;
+import static org.xvm.util.Handy.writePackedLong;
+import static org.xvm.util.Handy.writeUtf8String;
+
+
+/**
+ * A snapshot of the completed TypeInfo objects for the types in a ConstantPool, which can be
+ * emitted as an optional section at the end of a FileStructure. When a module that carries a
+ * snapshot is loaded, a TypeInfo is deserialized from the snapshot the first time that it is
+ * requested, instead of being re-computed.
+ * <p/>
+ * Since a TypeInfo is flattened across all of the contributions to a type, it depends on the
+ * contents of the upstream modules as well; the snapshot records the content hash of each upstream
+ * module that it was computed against, and the snapshot is disregarded (i.e. the TypeInfo objects
+ * are computed as usual) if any of those modules has changed.
+ * <p/>
+ * The section layout is:
+ * <ul>
+ * <li>magic number and snapshot format version;</li>
+ * <li>the number of upstream modules, and for each, its ModuleConstant and content hash;</li>
+ * <li>the number of TypeInfo objects, and for each, its TypeConstant and the length-prefixed
+ *     binary form of the TypeInfo.</li>
+ * </ul>
+ */
+public class TypeInfoSnapshot
+    {
+    // ----- constructors --------------------------------------------------------------------------
+
+    /**
+     * Construct a snapshot of all of the completed TypeInfo objects in the specified pool, for the
+     * purpose of emitting it as part of the FileStructure. This must be done before the pool is
+     * re-registered (and optimized), since constants that are not referenced by the structure
+     * itself are discarded during that process.
+     *
+     * @param pool  the ConstantPool to collect TypeInfo objects from
+     */
+    public TypeInfoSnapshot(ConstantPool pool)
+        {
+        f_pool = pool;
+
+        // collect the types first, since checking whether a TypeInfo can be serialized may add
+        // constants to the pool
+        List<TypeConstant> listTypes = new ArrayList<>();
+        for (Iterator<? extends XvmStructure> iter = pool.getContained(); iter.hasNext(); )
+            {
+            XvmStructure constant = iter.next();
+            if (constant instanceof TypeConstant)
+                {
+                listTypes.add((TypeConstant) constant);
+                }
+            }
+
+        for (TypeConstant type : listTypes)
+            {
+            TypeInfo info = type.getTypeInfo();
+            if (info != null && !type.isFormalType()
+                    && info.getProgress() == Progress.Complete
+                    && type.isUpToDate(info)
+                    && info.getType().equals(type)
+                    && isSerializable(info))
+                {
+                m_mapInfos.put(type, info);
+                }
+            }
+        }
+
+    /**
+     * Construct a snapshot by reading it from the passed stream.
+     *
+     * @param pool  the ConstantPool that the snapshot belongs to
+     * @param in    the DataInput that the snapshot section is read from
+     *
+     * @throws IOException  if the snapshot is malformed, or of an unsupported version
+     */
+    public TypeInfoSnapshot(ConstantPool pool, DataInput in)
+            throws IOException
+        {
+        f_pool = pool;
+
+        int nMagic = in.readInt();
+        if (nMagic != SNAPSHOT_MAGIC)
+            {
+            throw new IOException("invalid TypeInfo snapshot");
+            }
+
+        int nVersion = readMagnitude(in);
+        int cDeps    = readMagnitude(in);
+        for (int i = 0; i < cDeps; ++i)
+            {
+            ModuleConstant idModule = readConstant(pool, readMagnitude(in), ModuleConstant.class);
+            m_mapDepends.put(idModule.getName(), in.readLong());
+            }
+
+        int cInfos = readMagnitude(in);
+        for (int i = 0; i < cInfos; ++i)
+            {
+            TypeConstant type = readConstant(pool, readMagnitude(in), TypeConstant.class);
+            int          cb   = readMagnitude(in);
+
+            ByteBuffer buf;
+            if (in instanceof ByteBufferInput)
+                {
+                buf = ((ByteBufferInput) in).slice(cb);
+                }
+            else
+                {
+                byte[] ab = new byte[cb];
+                in.readFully(ab);
+                buf = ByteBuffer.wrap(ab);
+                }
+            m_mapBytes.put(type, buf);
+            }
+
+        // a snapshot of a different version is not an error; it is simply ignored
+        if (nVersion != SNAPSHOT_VERSION)
+            {
+            m_mapBytes.clear();
+            }
+        }
+
+
+    // ----- accessors -----------------------------------------------------------------------------
+
+    /**
+     * @return the number of TypeInfo objects in the snapshot
+     */
+    public int size()
+        {
+        return m_mapInfos.size() + m_mapBytes.size();
+        }
+
+    /**
+     * Obtain the TypeInfo for the specified type from the snapshot, if the snapshot contains it and
+     * the snapshot is still valid. Each TypeInfo can be taken from the snapshot only once; it is
+     * the responsibility of the caller to retain it.
+     *
+     * @param type  the (registered and normalized) type to obtain a TypeInfo for
+     *
+     * @return the deserialized TypeInfo, or null if the TypeInfo has to be computed
+     */
+    public synchronized TypeInfo takeTypeInfo(TypeConstant type)
+        {
+        if (m_mapBytes.isEmpty() || !ensureValid())
+            {
+            return null;
+            }
+
+        ByteBuffer buf = m_mapBytes.remove(type);
+        if (buf == null)
+            {
+            return null;
+            }
+
+        try
+            {
+            return new Reader(new ByteBufferInput(buf.duplicate())).readTypeInfo(type);
+            }
+        catch (IOException e)
+            {
+            // a snapshot is an optimization; if it is corrupt, the remainder of it is discarded,
+            // and the TypeInfo is computed instead
+            report(f_pool.getFileStructure(), e);
+            invalidate();
+            return null;
+            }
+        }
+
+    /**
+     * Report that the snapshot of the specified structure is unusable. The report is a warning
+     * that goes to the ErrorListener of the structure.
+     *
+     * @param file  the FileStructure that the snapshot belongs to
+     * @param e     the exception that describes the problem
+     */
+    public static void report(FileStructure file, IOException e)
+        {
+        file.getErrorListener().log(Severity.WARNING, Constants.VE_TYPEINFO_SNAPSHOT_IGNORED,
+                new Object[] {file.getModuleName(), e.getMessage()}, file);
+        }
+
+    /**
+     * Determine whether the upstream modules that the snapshot was computed against are the same
+     * modules that this module is now linked with.
+     *
+     * @return true iff the snapshot can be used
+     */
+    private boolean ensureValid()
+        {
+        Boolean FValid = m_FValid;
+        if (FValid == null)
+            {
+            FileStructure file = f_pool.getFileStructure();
+            for (Entry<String, Long> entry : m_mapDepends.entrySet())
+                {
+                ModuleStructure module = file.getModule(entry.getKey());
+                if (module == null)
+                    {
+                    return invalidate();
+                    }
+
+                if (module.isFingerprint())
+                    {
+                    module = module.getFingerprintOrigin();
+                    if (module == null)
+                        {
+                        // not linked yet; it is too early to tell
+                        return false;
+                        }
+                    }
+
+                Long LHash = module.getFileStructure().getContentHash();
+                if (LHash == null || LHash.longValue() != entry.getValue())
+                    {
+                    return invalidate();
+                    }
+                }
+            m_FValid = FValid = Boolean.TRUE;
+            }
+        return FValid;
+        }
+
+    /**
+     * Discard the contents of the snapshot.
+     *
+     * @return false
+     */
+    private boolean invalidate()
+        {
+        m_FValid = Boolean.FALSE;
+        m_mapBytes.clear();
+        return false;
+        }
+
+
+    // ----- XvmStructure-like methods -------------------------------------------------------------
+
+    /**
+     * Register all of the constants used by the TypeInfo objects in the snapshot.
+     *
+     * @param pool  the ConstantPool to register with
+     *
+     * @return false if the snapshot cannot be emitted, because the content hash of one or more of
+     *         the upstream modules is not known
+     */
+    public boolean registerConstants(ConstantPool pool)
+        {
+        assert pool == f_pool;
+
+        FileStructure file = pool.getFileStructure();
+        m_mapDependIds.clear();
+        for (String sModule : file.moduleNames())
+            {
+            ModuleStructure module = file.getModule(sModule);
+            if (module.isFingerprint())
+                {
+                ModuleStructure moduleUpstream = module.getFingerprintOrigin();
+                Long            LHash          = moduleUpstream == null
+                        ? null
+                        : moduleUpstream.getFileStructure().getContentHash();
+                if (LHash == null)
+                    {
+                    m_mapInfos.clear();
+                    return false;
+                    }
+                m_mapDependIds.put((ModuleConstant) pool.register(module.getIdentityConstant()), LHash);
+                }
+            }
+
+        Writer writer = new Writer(null);
+        for (Entry<TypeConstant, TypeInfo> entry : m_mapInfos.entrySet())
+            {
+            try
+                {
+                writer.writeConstant(entry.getKey());
+                writer.writeTypeInfo(entry.getValue());
+                }
+            catch (IOException e)
+                {
+                throw new IllegalStateException(e);
+                }
+            }
+        return true;
+        }
+
+    /**
+     * Write the snapshot section.
+     *
+     * @param out  the DataOutput to write to
+     *
+     * @throws IOException  if an I/O exception occurs
+     */
+    public void assemble(DataOutput out)
+            throws IOException
+        {
+        out.writeInt(SNAPSHOT_MAGIC);
+        writePackedLong(out, SNAPSHOT_VERSION);
+
+        writePackedLong(out, m_mapDependIds.size());
+        for (Entry<ModuleConstant, Long> entry : m_mapDependIds.entrySet())
+            {
+            writePackedLong(out, entry.getKey().getPosition());
+            out.writeLong(entry.getValue());
+            }
+
+        writePackedLong(out, m_mapInfos.size());
+        for (Entry<TypeConstant, TypeInfo> entry : m_mapInfos.entrySet())
+            {
+            ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+            new Writer(new DataOutputStream(outBytes)).writeTypeInfo(entry.getValue());
+
+            writePackedLong(out, f_pool.register(entry.getKey()).getPosition());
+            writePackedLong(out, outBytes.size());
+            out.write(outBytes.toByteArray());
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Determine if the passed TypeInfo can be represented in a snapshot.
+     *
+     * @param info  the TypeInfo
+     *
+     * @return true iff the TypeInfo can be serialized
+     */
+    private boolean isSerializable(TypeInfo info)
+        {
+        try
+            {
+            new Writer(null).writeTypeInfo(info);
+            return true;
+            }
+        catch (IOException | RuntimeException e)
+            {
+            return false;
+            }
+        }
+
+
+    /**
+     * Obtain the constant at the specified index of the pool, verifying that it is of the expected
+     * class.
+     *
+     * @param pool  the ConstantPool
+     * @param i     the index of the constant, or -1 for null
+     * @param clz   the expected class of the constant
+     *
+     * @return the constant, or null
+     *
+     * @throws IOException  if the index is invalid, or the constant is of an unexpected class
+     */
+    private static <T extends Constant> T readConstant(ConstantPool pool, int i, Class<T> clz)
+            throws IOException
+        {
+        Constant constant;
+        try
+            {
+            constant = pool.getConstant(i);
+            }
+        catch (IndexOutOfBoundsException e)
+            {
+            throw new IOException("invalid constant index: " + i);
+            }
+
+        if (constant != null && !clz.isInstance(constant))
+            {
+            throw new IOException("unexpected constant: " + constant);
+            }
+        return clz.cast(constant);
+        }
+
+
+    // ----- inner class: Writer -------------------------------------------------------------------
+
+    /**
+     * Writes the binary form of a TypeInfo. When there is no DataOutput, the writer simply visits
+     * the TypeInfo, registering each of the constants that it refers to.
+     */
+    private class Writer
+        {
+        Writer(DataOutput out)
+            {
+            f_out = out;
+            }
+
+        void writeTypeInfo(TypeInfo info)
+                throws IOException
+            {
+            ClassStructure struct = info.getClassStructure();
+            writeConstant(struct == null ? null : struct.getIdentityConstant());
+            writeInt(info.getDepth());
+            // the "implicitly abstract" flag is re-calculated from the properties and methods
+            writeBoolean(info.isExplicitlyAbstract());
+
+            Map<Object, ParamInfo> mapParams = info.getTypeParams();
+            writeInt(mapParams.size());
+            for (Entry<Object, ParamInfo> entry : mapParams.entrySet())
+                {
+                ParamInfo param = entry.getValue();
+                writeNid(entry.getKey());
+                writeNid(param.getNestedIdentity());
+                writeString(param.getName());
+                writeConstant(param.getConstraintType());
+                writeConstant(param.isActualTypeSpecified() ? param.getActualType() : null);
+                }
+
+            Annotation[] aAnno = info.getClassAnnotations();
+            writeInt(aAnno.length);
+            for (Annotation anno : aAnno)
+                {
+                writeConstant(anno);
+                }
+
+            writeConstant(info.getExtends());
+            writeConstant(info.getRebases());
+            writeConstant(info.getInto());
+
+            List<Contribution> listProcess = info.getContributionList();
+            writeInt(listProcess.size());
+            for (Contribution contrib : listProcess)
+                {
+                writeContribution(contrib);
+                }
+
+            writeChain(info.getClassChain());
+            writeChain(info.getDefaultChain());
+
+            // the same PropertyInfo and MethodInfo objects are held by more than one map, so each
+            // is written only once, and subsequently referred to by its index
+            Map<PropertyConstant, PropertyInfo> mapProps = info.getProperties();
+            writeInt(mapProps.size());
+            for (Entry<PropertyConstant, PropertyInfo> entry : mapProps.entrySet())
+                {
+                writeConstant(entry.getKey());
+                writePropertyInfo(entry.getValue());
+                }
+
+            Map<MethodConstant, MethodInfo> mapMethods = info.getMethods();
+            writeInt(mapMethods.size());
+            for (Entry<MethodConstant, MethodInfo> entry : mapMethods.entrySet())
+                {
+                writeConstant(entry.getKey());
+                writeMethodInfo(entry.getValue());
+                }
+
+            Map<Object, PropertyInfo> mapVirtProps = info.getVirtProperties();
+            writeInt(mapVirtProps.size());
+            for (Entry<Object, PropertyInfo> entry : mapVirtProps.entrySet())
+                {
+                writeNid(entry.getKey());
+                writePropertyInfo(entry.getValue());
+                }
+
+            Map<Object, MethodInfo> mapVirtMethods = info.getVirtMethods();
+            writeInt(mapVirtMethods.size());
+            for (Entry<Object, MethodInfo> entry : mapVirtMethods.entrySet())
+                {
+                writeNid(entry.getKey());
+                writeMethodInfo(entry.getValue());
+                }
+            }
+
+        void writeContribution(Contribution contrib)
+                throws IOException
+            {
+            Composition composition = contrib.getComposition();
+            switch (composition)
+                {
+                case Equal:
+                case Extends:
+                case Implements:
+                case Into:
+                case RebasesOnto:
+                case Annotation:
+                case Delegates:
+                    break;
+
+                case Incorporates:
+                    if (contrib.getTypeParams() != null)
+                        {
+                        // the conditional incorporation is not supported
+                        throw new IOException("unsupported contribution: " + composition);
+                        }
+                    break;
+
+                default:
+                    throw new IOException("unsupported contribution: " + composition);
+                }
+
+            writeInt(composition.ordinal());
+            writeConstant(contrib.getTypeConstant());
+            writeConstant(contrib.getAnnotation());
+            writeConstant(contrib.getDelegatePropertyConstant());
+            }
+
+        void writeChain(ListMap<IdentityConstant, Origin> listmap)
+                throws IOException
+            {
+            writeInt(listmap.size());
+            for (Entry<IdentityConstant, Origin> entry : listmap.entrySet())
+                {
+                Origin origin = entry.getValue();
+                writeConstant(entry.getKey());
+                writeConstant(origin.getType());
+                writeBoolean(origin.isAnchored());
+                }
+            }
+
+        void writePropertyInfo(PropertyInfo prop)
+                throws IOException
+            {
+            Integer IIndex = f_mapProps.get(prop);
+            if (IIndex != null)
+                {
+                writeInt(IIndex);
+                return;
+                }
+
+            f_mapProps.put(prop, f_mapProps.size() + 1);
+            writeInt(0);
+
+            PropertyBody[] aBody = prop.getPropertyBodies();
+            writeInt(aBody.length);
+            for (PropertyBody body : aBody)
+                {
+                PropertyStructure struct = body.getStructure();
+                ParamInfo         param  = body.getTypeParamInfo();
+
+                writeConstant(struct == null ? null : struct.getIdentityConstant());
+                writeInt(body.getImplementation().ordinal());
+                writeConstant(body.getDelegate());
+                writeConstant(body.getType());
+                writeBoolean(body.isRO());
+                writeBoolean(body.isRW());
+                writeBoolean(body.hasCustomCode());
+                writeInt(body.getGetterEffect().ordinal());
+                writeInt(body.getSetterEffect().ordinal());
+                writeBoolean(body.hasField());
+                writeBoolean(body.isConstant());
+                writeConstant(body.getInitialValue());
+                writeConstant(body.getInitializer());
+
+                writeBoolean(param != null);
+                if (param != null)
+                    {
+                    writeNid(param.getNestedIdentity());
+                    writeString(param.getName());
+                    writeConstant(param.getConstraintType());
+                    writeConstant(param.isActualTypeSpecified() ? param.getActualType() : null);
+                    }
+                }
+
+            writeConstant(prop.getType());
+            writeBoolean(prop.isFieldRequired());
+            writeBoolean(prop.isSetterUnreachable());
+            writeInt(prop.getRank());
+            }
+
+        void writeMethodInfo(MethodInfo method)
+                throws IOException
+            {
+            Integer IIndex = f_mapMethods.get(method);
+            if (IIndex != null)
+                {
+                writeInt(IIndex);
+                return;
+                }
+
+            f_mapMethods.put(method, f_mapMethods.size() + 1);
+            writeInt(0);
+
+            MethodBody[] aBody = method.getChain();
+            writeInt(aBody.length);
+            for (MethodBody body : aBody)
+                {
+                writeConstant(body.getIdentity());
+                writeConstant(body.getSignature());
+                writeInt(body.getImplementation().ordinal());
+                writeNid(body.getTarget());
+                }
+            }
+
+        /**
+         * Write a nested identity (or any other Object used as a key in the TypeInfo): a String,
+         * a Constant, or a NestedIdentity, whose resolver (if any) must be a type.
+         */
+        void writeNid(Object nid)
+                throws IOException
+            {
+            if (nid == null)
+                {
+                writeInt(NID_NULL);
+                }
+            else if (nid instanceof String)
+                {
+                writeInt(NID_STRING);
+                writeString((String) nid);
+                }
+            else if (nid instanceof Constant)
+                {
+                writeInt(NID_CONSTANT);
+                writeConstant((Constant) nid);
+                }
+            else if (nid instanceof NestedIdentity)
+                {
+                NestedIdentity      nestedId = (NestedIdentity) nid;
+                GenericTypeResolver resolver = nestedId.getResolver();
+                if (resolver != null && !(resolver instanceof TypeConstant))
+                    {
+                    throw new IOException("unsupported resolver: " + resolver);
+                    }
+
+                writeInt(NID_NESTED);
+                writeConstant(nestedId.getIdentityConstant());
+                writeConstant((TypeConstant) resolver);
+                }
+            else
+                {
+                throw new IOException("unsupported nested identity: " + nid);
+                }
+            }
+
+        void writeConstant(Constant constant)
+                throws IOException
+            {
+            if (constant != null && constant.containsUnresolved())
+                {
+                throw new IOException("unresolved constant: " + constant);
+                }
+
+            // the native rebase classes are created by the runtime, and cannot be assembled
+            if (constant instanceof NativeRebaseConstant || constant instanceof TypeConstant
+                    && ((TypeConstant) constant).isSingleDefiningConstant()
+                    && ((TypeConstant) constant).getDefiningConstant() instanceof NativeRebaseConstant)
+                {
+                throw new IOException("native constant: " + constant);
+                }
+
+            DataOutput out = f_out;
+            if (out == null)
+                {
+                f_pool.register(constant);
+                }
+            else
+                {
+                writePackedLong(out, constant == null ? -1 : f_pool.register(constant).getPosition());
+                }
+            }
+
+        void writeString(String s)
+                throws IOException
+            {
+            if (f_out != null)
+                {
+                writeUtf8String(f_out, s);
+                }
+            }
+
+        void writeInt(int n)
+                throws IOException
+            {
+            if (f_out != null)
+                {
+                writePackedLong(f_out, n);
+                }
+            }
+
+        void writeBoolean(boolean f)
+                throws IOException
+            {
+            if (f_out != null)
+                {
+                f_out.writeBoolean(f);
+                }
+            }
+
+        private final DataOutput f_out;
+
+        private final Map<PropertyInfo, Integer> f_mapProps   = new IdentityHashMap<>();
+        private final Map<MethodInfo, Integer>   f_mapMethods = new IdentityHashMap<>();
+        }
+
+
+    // ----- inner class: Reader -------------------------------------------------------------------
+
+    /**
+     * Reads the binary form of a TypeInfo.
+     */
+    private class Reader
+        {
+        Reader(DataInput in)
+            {
+            f_in = in;
+            }
+
+        TypeInfo readTypeInfo(TypeConstant type)
+                throws IOException
+            {
+            IdentityConstant idStruct  = readConstant(IdentityConstant.class);
+            ClassStructure   struct    = idStruct == null ? null : getComponent(idStruct, ClassStructure.class);
+            int              cDepth    = readMagnitude(f_in);
+            boolean          fAbstract = f_in.readBoolean();
+
+            int                    cParams   = readMagnitude(f_in);
+            Map<Object, ParamInfo> mapParams = new HashMap<>(cParams);
+            for (int i = 0; i < cParams; ++i)
+                {
+                Object nid = readNid();
+                mapParams.put(nid, readParamInfo());
+                }
+
+            int          cAnnos = readMagnitude(f_in);
+            Annotation[] aAnno  = cAnnos == 0 ? Annotation.NO_ANNOTATIONS : new Annotation[cAnnos];
+            for (int i = 0; i < cAnnos; ++i)
+                {
+                aAnno[i] = readConstant(Annotation.class);
+                }
+
+            TypeConstant typeExtends = readConstant(TypeConstant.class);
+            TypeConstant typeRebases = readConstant(TypeConstant.class);
+            TypeConstant typeInto    = readConstant(TypeConstant.class);
+
+            int                cContribs   = readMagnitude(f_in);
+            List<Contribution> listProcess = new ArrayList<>(cContribs);
+            for (int i = 0; i < cContribs; ++i)
+                {
+                listProcess.add(readContribution());
+                }
+
+            ListMap<IdentityConstant, Origin> listmapClassChain   = readChain();
+            ListMap<IdentityConstant, Origin> listmapDefaultChain = readChain();
+
+            int                                 cProps   = readMagnitude(f_in);
+            Map<PropertyConstant, PropertyInfo> mapProps = new HashMap<>(cProps);
+            for (int i = 0; i < cProps; ++i)
+                {
+                PropertyConstant id = readConstant(PropertyConstant.class);
+                mapProps.put(id, readPropertyInfo());
+                }
+
+            int                             cMethods   = readMagnitude(f_in);
+            Map<MethodConstant, MethodInfo> mapMethods = new HashMap<>(cMethods);
+            for (int i = 0; i < cMethods; ++i)
+                {
+                MethodConstant id = readConstant(MethodConstant.class);
+                mapMethods.put(id, readMethodInfo());
+                }
+
+            int                       cVirtProps   = readMagnitude(f_in);
+            Map<Object, PropertyInfo> mapVirtProps = new HashMap<>(cVirtProps);
+            for (int i = 0; i < cVirtProps; ++i)
+                {
+                Object nid = readNid();
+                mapVirtProps.put(nid, readPropertyInfo());
+                }
+
+            int                     cVirtMethods   = readMagnitude(f_in);
+            Map<Object, MethodInfo> mapVirtMethods = new HashMap<>(cVirtMethods);
+            for (int i = 0; i < cVirtMethods; ++i)
+                {
+                Object nid = readNid();
+                mapVirtMethods.put(nid, readMethodInfo());
+                }
+
+            return new TypeInfo(type, f_pool.getInvalidationCount(), struct, cDepth,
+                    fAbstract, mapParams, aAnno, typeExtends, typeRebases, typeInto,
+                    listProcess, listmapClassChain, listmapDefaultChain,
+                    mapProps, mapMethods, mapVirtProps, mapVirtMethods, Progress.Complete);
+            }
+
+        ParamInfo readParamInfo()
+                throws IOException
+            {
+            Object       nid            = readNid();
+            String       sName          = readUtf8String(f_in);
+            TypeConstant typeConstraint = readConstant(TypeConstant.class);
+            TypeConstant typeActual     = readConstant(TypeConstant.class);
+            return new ParamInfo(nid, sName, typeConstraint, typeActual);
+            }
+
+        Contribution readContribution()
+                throws IOException
+            {
+            Composition      composition = readEnum(Composition.values());
+            TypeConstant     type        = readConstant(TypeConstant.class);
+            Annotation       anno        = readConstant(Annotation.class);
+            PropertyConstant idDelegate  = readConstant(PropertyConstant.class);
+            switch (composition)
+                {
+                case Annotation:
+                    return new Contribution(anno, type);
+
+                case Delegates:
+                    return new Contribution(type, idDelegate);
+
+                default:
+                    return new Contribution(composition, type);
+                }
+            }
+
+        ListMap<IdentityConstant, Origin> readChain()
+                throws IOException
+            {
+            int                               c       = readMagnitude(f_in);
+            ListMap<IdentityConstant, Origin> listmap = new ListMap<>();
+            for (int i = 0; i < c; ++i)
+                {
+                IdentityConstant id   = readConstant(IdentityConstant.class);
+                TypeConstant     type = readConstant(TypeConstant.class);
+                listmap.put(id, type.new Origin(f_in.readBoolean()));
+                }
+            return listmap;
+            }
+
+        PropertyInfo readPropertyInfo()
+                throws IOException
+            {
+            int iProp = readMagnitude(f_in);
+            if (iProp > 0)
+                {
+                if (iProp > f_listProps.size())
+                    {
+                    throw new IOException("invalid property reference: " + iProp);
+                    }
+                return f_listProps.get(iProp - 1);
+                }
+
+            int            cBodies = readMagnitude(f_in);
+            PropertyBody[] aBody   = new PropertyBody[cBodies];
+            for (int i = 0; i < cBodies; ++i)
+                {
+                PropertyConstant  idStruct   = readConstant(PropertyConstant.class);
+                PropertyStructure struct     = idStruct == null ? null : getComponent(idStruct, PropertyStructure.class);
+                Implementation    impl       = readEnum(Implementation.values());
+                PropertyConstant  idDelegate = readConstant(PropertyConstant.class);
+                TypeConstant      type       = readConstant(TypeConstant.class);
+                boolean           fRO        = f_in.readBoolean();
+                boolean           fRW        = f_in.readBoolean();
+                boolean           fCustom    = f_in.readBoolean();
+                Effect            effectGet  = readEnum(Effect.values());
+                Effect            effectSet  = readEnum(Effect.values());
+                boolean           fField     = f_in.readBoolean();
+                boolean           fConstant  = f_in.readBoolean();
+                Constant          constVal   = readConstant(Constant.class);
+                MethodConstant    idInit     = readConstant(MethodConstant.class);
+                ParamInfo         param      = f_in.readBoolean() ? readParamInfo() : null;
+
+                aBody[i] = new PropertyBody(struct, impl, idDelegate, param, type, fRO, fRW,
+                        fCustom, effectGet, effectSet, fField, fConstant, constVal, idInit);
+                }
+
+            TypeConstant type          = readConstant(TypeConstant.class);
+            boolean      fRequireField = f_in.readBoolean();
+            boolean      fSuppressVar  = f_in.readBoolean();
+            int          nRank         = readMagnitude(f_in);
+
+            PropertyInfo prop = new PropertyInfo(aBody, type, fRequireField, fSuppressVar, nRank);
+            f_listProps.add(prop);
+            return prop;
+            }
+
+        MethodInfo readMethodInfo()
+                throws IOException
+            {
+            int iMethod = readMagnitude(f_in);
+            if (iMethod > 0)
+                {
+                if (iMethod > f_listMethods.size())
+                    {
+                    throw new IOException("invalid method reference: " + iMethod);
+                    }
+                return f_listMethods.get(iMethod - 1);
+                }
+
+            int          cBodies = readMagnitude(f_in);
+            MethodBody[] aBody   = new MethodBody[cBodies];
+            for (int i = 0; i < cBodies; ++i)
+                {
+                MethodConstant    id     = readConstant(MethodConstant.class);
+                SignatureConstant sig    = readConstant(SignatureConstant.class);
+                Implementation    impl   = readEnum(Implementation.values());
+                Object            target = readNid();
+                aBody[i] = new MethodBody(id, sig, impl, target);
+                }
+
+            MethodInfo method = new MethodInfo(aBody);
+            f_listMethods.add(method);
+            return method;
+            }
+
+        Object readNid()
+                throws IOException
+            {
+            switch (readMagnitude(f_in))
+                {
+                case NID_NULL:
+                    return null;
+
+                case NID_STRING:
+                    return readUtf8String(f_in);
+
+                case NID_CONSTANT:
+                    return readConstant(Constant.class);
+
+                case NID_NESTED:
+                    IdentityConstant id       = readConstant(IdentityConstant.class);
+                    TypeConstant     resolver = readConstant(TypeConstant.class);
+                    return id.new NestedIdentity(resolver);
+
+                default:
+                    throw new IOException("invalid nested identity");
+                }
+            }
+
+        <T extends Constant> T readConstant(Class<T> clz)
+                throws IOException
+            {
+            return TypeInfoSnapshot.readConstant(f_pool, readIndex(f_in), clz);
+            }
+
+        <T extends Component> T getComponent(IdentityConstant id, Class<T> clz)
+                throws IOException
+            {
+            Component component = id.getComponent();
+            if (component != null && !clz.isInstance(component))
+                {
+                throw new IOException("unexpected component: " + id);
+                }
+            return clz.cast(component);
+            }
+
+        <E extends Enum<E>> E readEnum(E[] aValue)
+                throws IOException
+            {
+            int i = readMagnitude(f_in);
+            if (i >= aValue.length)
+                {
+                throw new IOException("invalid ordinal: " + i);
+                }
+            return aValue[i];
+            }
+
+        private final DataInput f_in;
+
+        private final List<PropertyInfo> f_listProps   = new ArrayList<>();
+        private final List<MethodInfo>   f_listMethods = new ArrayList<>();
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The magic number that identifies the snapshot section.
+     */
+    public static final int SNAPSHOT_MAGIC = 0x7E1F05A9;
+
+    /**
+     * The version of the snapshot format; a snapshot of any other version is ignored.
+     */
+    public static final int SNAPSHOT_VERSION = 1;
+
+    private static final int NID_NULL     = 0;
+    private static final int NID_STRING   = 1;
+    private static final int NID_CONSTANT = 2;
+    private static final int NID_NESTED   = 3;
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The ConstantPool that the snapshot belongs to.
+     */
+    private final ConstantPool f_pool;
+
+    /**
+     * The TypeInfo objects to emit, keyed by type.
+     */
+    private final Map<TypeConstant, TypeInfo> m_mapInfos = new HashMap<>();
+
+    /**
+     * The content hash of each upstream module to emit.
+     */
+    private final Map<ModuleConstant, Long> m_mapDependIds = new HashMap<>();
+
+    /**
+     * The binary form of each TypeInfo that has not yet been taken from the snapshot, keyed by type.
+     */
+    private final Map<TypeConstant, ByteBuffer> m_mapBytes = new HashMap<>();
+
+    /**
+     * The content hash of each upstream module that the snapshot was computed against, keyed by
+     * module name.
+     */
+    private final Map<String, Long> m_mapDepends = new HashMap<>();
+
+    /**
+     * Null until the snapshot has been validated against the linked upstream modules; then true iff
+     * the snapshot is usable.
+     */
+    private Boolean m_FValid;
+    }
@@ -5,6 +5,8 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 import java.util.function.Consumer;
@@ -171,19 +173,18 @@ public class TypeParameterConstant
     @Override
     public boolean containsUnresolved()
         {
-        if (fResolved || fReEntry)
+        if (fResolved || !enter())
             {
             return false;
             }
 
-        fReEntry = true;
         try
             {
             return !(fResolved = !getMethod().containsUnresolved());
             }
         finally
             {
-            fReEntry = false;
+            exit();
             }
         }
 
@@ -233,19 +234,18 @@ public class TypeParameterConstant
 
         TypeParameterConstant regThat = (TypeParameterConstant) that;
         int nDif = this.m_iReg - regThat.m_iReg;
-        if (nDif != 0 || fReEntry)
+        if (nDif != 0 || !enter())
             {
             return nDif;
             }
 
-        fReEntry = true;
         try
             {
             return getParentConstant().compareTo(regThat.getParentConstant());
             }
         finally
             {
-            fReEntry = false;
+            exit();
             }
         }
 
@@ -273,20 +273,33 @@ public class TypeParameterConstant
     @Override
     public int hashCode()
         {
-        if (fReEntry)
-            {
-            return m_iReg;
-            }
+        // the name is held directly by this constant, so (unlike the comparison) the hash code
+        // cannot recurse back into this constant; it must not depend on the re-entry state, since
+        // it is also cached as the registration hash
+        return getName().hashCode() + m_iReg;
+        }
 
-        fReEntry = true;
-        try
-            {
-            return getName().hashCode() + m_iReg;
-            }
-        finally
-            {
-            fReEntry = false;
-            }
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Mark this constant as being visited by the current thread. The type parameter refers to its
+     * method, whose signature may in turn refer back to the type parameter, so the recursion has
+     * to be broken; since constants are shared across threads, the mark is thread-local.
+     *
+     * @return true iff this constant was not already being visited by the current thread
+     */
+    private boolean enter()
+        {
+        return s_tloReEntry.get().add(this);
+        }
+
+    /**
+     * Clear the mark set by {@link #enter()}.
+     */
+    private void exit()
+        {
+        s_tloReEntry.get().remove(this);
         }
 
 
@@ -297,6 +310,11 @@ public class TypeParameterConstant
      */
     private int m_iReg;
 
-    private transient boolean fReEntry;
     private transient boolean fResolved;
+
+    /**
+     * The TypeParameterConstants being visited by the current thread.
+     */
+    private static final ThreadLocal<Set<TypeParameterConstant>> s_tloReEntry =
+            ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
     }
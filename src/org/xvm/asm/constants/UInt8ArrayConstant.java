@@ -5,9 +5,13 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import java.nio.ByteBuffer;
+
 import org.xvm.asm.Constant;
 import org.xvm.asm.ConstantPool;
 
+import org.xvm.util.ByteBufferInput;
+
 import static org.xvm.util.Handy.byteArrayToHexString;
 import static org.xvm.util.Handy.readMagnitude;
 import static org.xvm.util.Handy.writePackedLong;
@@ -22,7 +26,8 @@ public class UInt8ArrayConstant
     // ----- constructors --------------------------------------------------------------------------
 
     /**
-     * Constructor used for deserialization.
+     * Constructor used for deserialization. If the stream is a view of a (memory-mapped) buffer,
+     * a large value is not copied out of the buffer until it is actually requested.
      *
      * @param pool    the ConstantPool that will contain this Constant
      * @param format  the format of the Constant in the stream
@@ -35,10 +40,19 @@ public class UInt8ArrayConstant
         {
         super(pool);
 
-        int    cb = readMagnitude(in);
-        byte[] ab = new byte[cb];
-        in.readFully(ab);
-        m_abVal = ab;
+        int cb = readMagnitude(in);
+        if (cb >= LAZY_THRESHOLD && in instanceof ByteBufferInput)
+            {
+            m_bufVal = ((ByteBufferInput) in).slice(cb);
+            }
+        else
+            {
+            byte[] ab = new byte[cb];
+            in.readFully(ab);
+            m_abVal  = ab;
+            m_bufVal = null;
+            }
+        m_cbVal = cb;
         }
 
     /**
@@ -53,7 +67,9 @@ public class UInt8ArrayConstant
         super(pool);
 
         assert abVal != null;
-        m_abVal = abVal;
+        m_abVal  = abVal;
+        m_bufVal = null;
+        m_cbVal  = abVal.length;
         }
 
 
@@ -73,7 +89,48 @@ public class UInt8ArrayConstant
     @Override
     public byte[] getValue()
         {
-        return m_abVal;
+        byte[] ab = m_abVal;
+        if (ab == null)
+            {
+            synchronized (this)
+                {
+                ab = m_abVal;
+                if (ab == null)
+                    {
+                    ab = new byte[m_cbVal];
+                    m_bufVal.duplicate().get(ab);
+                    m_abVal = ab;
+                    }
+                }
+            }
+        return ab;
+        }
+
+    /**
+     * @return the number of bytes in the octet string; unlike {@link #getValue()}, this never
+     *         causes the value to be read from the underlying storage
+     */
+    public int size()
+        {
+        return m_cbVal;
+        }
+
+    /**
+     * @return a view of the value that does not copy a deferred value out of the underlying
+     *         storage; the view must only be read using the absolute operations
+     */
+    private ByteBuffer viewValue()
+        {
+        byte[] ab = m_abVal;
+        return ab == null ? m_bufVal : ByteBuffer.wrap(ab);
+        }
+
+    /**
+     * @return true iff the value has not been read from the underlying storage yet
+     */
+    public boolean isDeferred()
+        {
+        return m_abVal == null;
         }
 
 
@@ -92,16 +149,20 @@ public class UInt8ArrayConstant
             {
             return -1;
             }
-        byte[] abThis = this.m_abVal;
-        byte[] abThat = ((UInt8ArrayConstant) that).m_abVal;
+        // a deferred value is compared in place, so that it is not copied out of the buffer
+        UInt8ArrayConstant constThat = (UInt8ArrayConstant) that;
+        ByteBuffer         bufThis   = this.viewValue();
+        ByteBuffer         bufThat   = constThat.viewValue();
 
-        int cbThis  = abThis.length;
-        int cbThat  = abThat.length;
+        int cbThis  = this.m_cbVal;
+        int cbThat  = constThat.m_cbVal;
         for (int of = 0, cb = Math.min(cbThis, cbThat); of < cb; ++of)
             {
-            if (abThis[of] != abThat[of])
+            byte bThis = bufThis.get(of);
+            byte bThat = bufThat.get(of);
+            if (bThis != bThat)
                 {
-                return (abThis[of] & 0xFF) - (abThat[of] & 0xFF);
+                return (bThis & 0xFF) - (bThat & 0xFF);
                 }
             }
         return cbThis - cbThat;
@@ -110,7 +171,7 @@ public class UInt8ArrayConstant
     @Override
     public String getValueString()
         {
-        return byteArrayToHexString(m_abVal);
+        return byteArrayToHexString(getValue());
         }
 
 
@@ -121,7 +182,7 @@ public class UInt8ArrayConstant
             throws IOException
         {
         out.writeByte(getFormat().ordinal());
-        final byte[] ab = m_abVal;
+        final byte[] ab = getValue();
         writePackedLong(out, ab.length);
         out.write(ab);
         }
@@ -141,11 +202,15 @@ public class UInt8ArrayConstant
         int nHash = m_nHash;
         if (nHash == 0)
             {
-            byte[] ab = m_abVal;
-            nHash = ab.length;
-            for (int of = 0, cb = ab.length, cbInc = Math.max(1, cb >>> 6); of < cb; of += cbInc)
+            // the hash only samples the value, so it doesn't need to read a deferred value out
+            byte[]     ab  = m_abVal;
+            ByteBuffer buf = m_bufVal;
+            int        cb  = m_cbVal;
+
+            nHash = cb;
+            for (int of = 0, cbInc = Math.max(1, cb >>> 6); of < cb; of += cbInc)
                 {
-                nHash *= 19 + ab[of];
+                nHash *= 19 + (ab == null ? buf.get(of) : ab[of]);
                 }
             m_nHash = nHash;
             }
@@ -156,9 +221,28 @@ public class UInt8ArrayConstant
     // ----- fields --------------------------------------------------------------------------------
 
     /**
-     * The constant octet string value stored as a <tt>byte[]</tt>.
+     * The size (in bytes) at which a deserialized value is left in the underlying buffer until it
+     * is requested.
+     */
+    public static final int LAZY_THRESHOLD = 64 * 1024;
+
+    /**
+     * The constant octet string value stored as a <tt>byte[]</tt>; null until a deferred value is
+     * requested.
+     */
+    private volatile byte[] m_abVal;
+
+    /**
+     * The view of the deferred value in the buffer the constant was deserialized from; the buffer
+     * is only read using the absolute operations or via a duplicate, so the view can be shared by
+     * multiple threads.
+     */
+    private final ByteBuffer m_bufVal;
+
+    /**
+     * The number of bytes in the value.
      */
-    private final byte[] m_abVal;
+    private final int m_cbVal;
 
     /**
      * Cached hash code.
@@ -137,15 +137,15 @@ public class AssertV
         @Override
         protected boolean updateResult(Frame frameCaller)
             {
-            char[] ach = ((StringHandle) frameCaller.popStack()).getValue();
-            if (sb.length() + ach.length > MAX_LEN)
+            String s = ((StringHandle) frameCaller.popStack()).getStringValue();
+            if (sb.length() + s.length() > MAX_LEN)
                 {
-                sb.append(ach, 0, Math.min(ach.length, Math.max(20, MAX_LEN - sb.length())))
+                sb.append(s, 0, Math.min(s.length(), Math.max(20, MAX_LEN - sb.length())))
                   .append("...");
                 return false;
                 }
 
-            sb.append(ach)
+            sb.append(s)
               .append(asLabel[index+1]);
             return true;
             }
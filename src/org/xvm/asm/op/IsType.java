@@ -12,6 +12,7 @@ import org.xvm.asm.constants.TypeConstant;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.ExceptionHandle;
+import org.xvm.runtime.TypeTestCache;
 
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xType.TypeHandle;
@@ -71,7 +72,6 @@ public class IsType
     @Override
     protected int completeUnaryOp(Frame frame, ObjectHandle hValue)
         {
-        TypeConstant typeTarget = hValue.getType();
         TypeConstant typeTest;
         if (m_nValue2 < CONSTANT_OFFSET)
             {
@@ -95,6 +95,8 @@ public class IsType
                 }
             }
 
-        return frame.assignValue(m_nRetValue, xBoolean.makeHandle(typeTarget.isA(typeTest)));
+        return frame.assignValue(m_nRetValue, xBoolean.makeHandle(m_cacheType.isA(hValue, typeTest)));
         }
+
+    private transient TypeTestCache m_cacheType = new TypeTestCache(); // cached type test
     }
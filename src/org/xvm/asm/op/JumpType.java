@@ -12,6 +12,7 @@ import org.xvm.asm.OpCondJump;
 import org.xvm.asm.constants.TypeConstant;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TypeTestCache;
 
 
 /**
@@ -67,9 +68,10 @@ public class JumpType
     @Override
     protected int completeUnaryOp(Frame frame, int iPC, ObjectHandle hValue)
         {
-        TypeConstant type     = hValue.getType();
         TypeConstant typeTest = frame.resolveType(m_nArg2);
 
-        return type.isA(typeTest) ? jump(frame, iPC + m_ofJmp, m_cExits) : iPC + 1;
+        return m_cacheType.isA(hValue, typeTest) ? jump(frame, iPC + m_ofJmp, m_cExits) : iPC + 1;
         }
+
+    private transient TypeTestCache m_cacheType = new TypeTestCache(); // cached type test
     }
@@ -14,6 +14,7 @@ import org.xvm.asm.constants.TypeConstant;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.ExceptionHandle;
+import org.xvm.runtime.TypeTestCache;
 import org.xvm.runtime.Utils;
 
 import org.xvm.runtime.template.xException;
@@ -107,7 +108,7 @@ public class MoveCast
         TypeConstant typeFrom = hValue.getType();
         TypeConstant typeTo   = frame.resolveType(m_nToType);
 
-        if (typeFrom.isA(typeTo))
+        if (m_cacheType.isA(hValue, typeTo))
             {
             if (frame.isNextRegister(m_nToValue))
                 {
@@ -137,4 +138,6 @@ public class MoveCast
     protected int m_nToType;
 
     private TypeConstant m_typeTo;
+
+    private transient TypeTestCache m_cacheType = new TypeTestCache(); // cached type test
     }
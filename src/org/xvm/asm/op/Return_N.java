@@ -78,7 +78,9 @@ public class Return_N
         boolean[]  afDynamic = null;
         boolean    fAnyProp  = false;
 
-        for (int i = 0; i < cArgs; i++)
+        // the values are retrieved in the inverse order, since the stack could be used to
+        // collect them (see Frame#getArguments)
+        for (int i = cArgs - 1; i >= 0; --i)
             {
             int          nArg = m_anArg[i];
             ObjectHandle hArg = frame.getReturnValue(nArg);
@@ -91,7 +93,7 @@ public class Return_N
                 }
             else if (frame.isDynamicVar(nArg))
                 {
-                if (afDynamic != null)
+                if (afDynamic == null)
                     {
                     afDynamic = new boolean[cArgs];
                     }
@@ -81,6 +81,8 @@ import static org.xvm.util.Handy.indentLines;
  * <li>{@code -nosrc} - do not include source code in the compiled module</li>
  * <li>{@code -nodbg} - do not include debugging information in the compiled module</li>
  * <li>{@code -nodoc} - do not include documentation in the compiled module</li>
+ * <li>{@code -typeinfo} - include the pre-computed type information in the compiled module, which
+ *     allows the runtime to avoid re-computing it when the module is loaded</li>
  * <li>{@code -strict} - convert warnings to errors</li>
  * <li>{@code -nowarn} - suppress warnings</li>
  * <li>{@code -verbose} - provide information about the work being done by the compilation process</li>
@@ -300,6 +302,10 @@ public class CommandLine
                         {
                         opts.includeDoc = false;
                         }
+                    else if (s.equals("-typeinfo"))
+                        {
+                        opts.includeTypeInfo = true;
+                        }
                     else if (s.equals("-strict"))
                         {
                         opts.strictLevel = Options.Strictness.Stickler;
@@ -836,6 +842,7 @@ public class CommandLine
                 FileStructure struct = module.getType().getComponent().getFileStructure();
                 try
                     {
+                    struct.setEmitTypeInfo(opts.includeTypeInfo);
                     struct.writeTo(file);
                     }
                 catch (IOException e)
@@ -1520,11 +1527,12 @@ public class CommandLine
      */
     public static class Options
         {
-        File    destination = null;
-        boolean verbose     = false;
-        boolean includeSrc  = true;
-        boolean includeDbg  = true;
-        boolean includeDoc  = true;
+        File    destination     = null;
+        boolean verbose         = false;
+        boolean includeSrc      = true;
+        boolean includeDbg      = true;
+        boolean includeDoc      = true;
+        boolean includeTypeInfo = false;
 
         enum Strictness {None, Suppressed, Normal, Stickler};
         Strictness strictLevel = Strictness.Normal;
@@ -1570,6 +1578,8 @@ public class CommandLine
               .append(includeDbg)
               .append("\nincludeDoc=")
               .append(includeDoc)
+              .append("\nincludeTypeInfo=")
+              .append(includeTypeInfo)
               .append("\nstrictLevel=")
               .append(strictLevel.name())
               .append("\nmodulePath=");
@@ -1332,7 +1332,7 @@ public class Lexer
                     {
                     biWhole = biWhole.negate();
                     }
-                dec = new BigDecimal(biWhole.multiply(BigInteger.valueOf(10 * fractionalDigits))
+                dec = new BigDecimal(biWhole.multiply(BigInteger.TEN.pow(fractionalDigits))
                         .add(piFraction.getBigInteger()), fractionalDigits);
                 if (signScalar < 0)
                     {
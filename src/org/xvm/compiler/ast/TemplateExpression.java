@@ -202,7 +202,7 @@ public class TemplateExpression
         //   $.append("...");
         //   expr1.appendTo($);             // for a Stringable
         //   $.append("...");
-        //   $.append(expr2);               // for an object
+        //   $.append(expr2);               // for an object, String, Int or Char
         //   $.append("...");
         //   {...}                          // for a void expression
         //   $.append("...");
@@ -237,14 +237,14 @@ public class TemplateExpression
             if (isStringConst(expr))
                 {
                 // $.append("...");
-                code.add(new Invoke_10(expr.toConstant(), idAppendTo, m_reg$));
+                code.add(new Invoke_10(m_reg$, idAppend, expr.toConstant()));
                 }
             else if (expr.isVoid())
                 {
                 // {...}
                 expr.generateVoid(ctx, code, errs);
                 }
-            else if (isStringable(expr))
+            else if (isStringable(expr) && !isNativeAppend(expr))
                 {
                 // expr1.appendTo($);
                 expr.generateAssignment(ctx, code, lvalStr, errs);
@@ -324,6 +324,19 @@ public class TemplateExpression
         return expr.getTypes().length > 0 && expr.getType().isA(pool().typeStringable());
         }
 
+    /**
+     * @return true iff the expression is of a type that the StringBuffer appends natively (and
+     *         therefore faster than the type's own "appendTo" implementation)
+     */
+    boolean isNativeAppend(Expression expr)
+        {
+        ConstantPool pool = pool();
+        TypeConstant type = expr.getType();
+        return type.equals(pool.typeString())
+            || type.equals(pool.typeInt())
+            || type.equals(pool.typeChar());
+        }
+
 
     // ----- fields --------------------------------------------------------------------------------
 
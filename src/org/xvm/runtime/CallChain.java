@@ -180,16 +180,16 @@ public class CallChain
             {
             case Native:
                 return fReturnTuple
-                    ? hThis.getTemplate().invokeNativeN(frame, methodSuper, hThis, ahArg, iReturn)
-                    : hThis.getTemplate().invokeNativeT(frame, methodSuper, hThis, ahArg, iReturn);
+                    ? hThis.getTemplate().invokeNativeT(frame, methodSuper, hThis, ahArg, iReturn)
+                    : hThis.getTemplate().invokeNativeN(frame, methodSuper, hThis, ahArg, iReturn);
 
             case Explicit:
                 {
                 ObjectHandle[] ahVar = Utils.ensureSize(ahArg, methodSuper.getMaxVars());
 
                 return fReturnTuple
-                    ? frame.invoke1(this, nDepth, hThis, ahVar, iReturn)
-                    : frame.invokeT(this, nDepth, hThis, ahVar, iReturn);
+                    ? frame.invokeT(this, nDepth, hThis, ahVar, iReturn)
+                    : frame.invoke1(this, nDepth, hThis, ahVar, iReturn);
                 }
 
             default:
@@ -32,6 +32,10 @@ import org.xvm.runtime.template._native.xLocalClock;
 import org.xvm.runtime.template._native.xNanosTimer;
 import org.xvm.runtime.template._native.xTerminalConsole;
 
+import org.xvm.runtime.template._native.net.xOSNetwork;
+
+import org.xvm.runtime.template._native.web.xOSHttpServer;
+
 import org.xvm.runtime.template.xService;
 import org.xvm.runtime.template.xService.ServiceHandle;
 import org.xvm.runtime.template.xFunction;
@@ -202,6 +206,26 @@ public class Container
         f_mapResources.put(new InjectionKey("homeDir", typeDirectory), this::ensureHomeDir);
         f_mapResources.put(new InjectionKey("curDir" , typeDirectory), this::ensureCurDir);
         f_mapResources.put(new InjectionKey("tmpDir" , typeDirectory), this::ensureTmpDir);
+
+        // +++ OSNetwork
+        xOSNetwork templateNetwork = (xOSNetwork) f_templates.getTemplate("_native.net.OSNetwork");
+        if (templateNetwork != null)
+            {
+            TypeConstant typeNetwork = f_templates.getTemplate("net.Network").getCanonicalType();
+
+            f_mapResources.put(new InjectionKey("network", typeNetwork),
+                frame -> templateNetwork.ensureNetwork());
+            }
+
+        // +++ OSHttpServer
+        xOSHttpServer templateHttpServer = (xOSHttpServer) f_templates.getTemplate("_native.web.OSHttpServer");
+        if (templateHttpServer != null)
+            {
+            TypeConstant typeHttpServer = f_templates.getTemplate("web.HttpServer").getCanonicalType();
+
+            f_mapResources.put(new InjectionKey("server", typeHttpServer),
+                frame -> templateHttpServer.createServer(frame.f_context));
+            }
         }
 
     protected ObjectHandle ensureDefaultClock(Frame frame)
@@ -47,6 +47,11 @@ public class FiberQueue
         return m_cSize == 0;
         }
 
+    public int size()
+        {
+        return m_cSize;
+        }
+
     // get the first of the waiting fibers that is either "ready" or timed-out
     public Frame getWaitingReady()
         {
@@ -179,7 +184,7 @@ public class FiberQueue
         {
         if (cCapacity > m_aFrame.length)
             {
-            int cNewCapacity = cCapacity + cCapacity >> 2; // 1.25
+            int cNewCapacity = cCapacity + (cCapacity >> 2); // 1.25
 
             Frame[] aNew = new Frame[cNewCapacity];
 
@@ -549,8 +549,51 @@ public abstract class ObjectHandle
             m_mutability = mutability;
             }
 
+        /**
+         * The index in the storage of the first element; non-zero only for a slice that shares
+         * the storage of the array it was taken from.
+         */
+        public int m_ofStart;
+
+        /**
+         * True iff the storage could be shared with another handle (an array and its slices).
+         * A shared storage must not be modified; see {@link #ensureExclusive()}.
+         */
+        public boolean m_fShared;
+
         abstract public int getCapacity();
 
+        /**
+         * Make sure that the storage of this array is not shared with any other handle, so it
+         * could be modified. This is the "write" side of the copy-on-write slices: taking a slice
+         * marks both the array and the slice as shared, and whichever is modified first gets its
+         * own copy of the elements.
+         */
+        public void ensureExclusive()
+            {
+            if (m_fShared)
+                {
+                copyStorage();
+                m_ofStart = 0;
+                m_fShared = false;
+                }
+            }
+
+        /**
+         * Replace the storage with a copy holding the elements of this array starting at index
+         * zero. An array (as opposed to a slice) should keep its capacity.
+         */
+        abstract protected void copyStorage();
+
+        /**
+         * @return the new capacity for the {@link #copyStorage} of a storage of the specified
+         *         length
+         */
+        protected int getExclusiveCapacity(int cLength)
+            {
+            return m_ofStart == 0 ? Math.max(cLength, m_cSize) : m_cSize;
+            }
+
         @Override
         public void makeImmutable()
             {
@@ -423,6 +423,13 @@ public class ServiceContext
         return !f_queueMsg.isEmpty() || !f_queueSuspended.isEmpty() || m_frameCurrent != null;
         }
 
+    // the number of requests and fibers waiting to be processed by this context; this is neither
+    // precise nor cheap (counting the requests is O(n)), so it is meant for diagnostics only
+    public int getQueueDepth()
+        {
+        return f_queueMsg.size() + f_queueSuspended.size();
+        }
+
     // send and asynchronous "call later" message to this context
     public int callLater(FunctionHandle hFunction, ObjectHandle[] ahArg)
         {
@@ -441,6 +448,19 @@ public class ServiceContext
         return Op.R_NEXT;
         }
 
+    // send an asynchronous "call" message to this context on behalf of a native (non-service)
+    // caller; the future is completed on this context's thread with the call's return values
+    public CompletableFuture<ObjectHandle[]> sendNativeCallRequest(FunctionHandle hFunction,
+                                                                   ObjectHandle[] ahArg, int cReturns)
+        {
+        CompletableFuture<ObjectHandle[]> future = new CompletableFuture<>();
+
+        addRequest(new NativeCallRequest(hFunction, ahArg, cReturns, future));
+        f_container.f_runtime.f_daemons.signal();
+
+        return future;
+        }
+
     // send and asynchronous "construct service" message to this context
     public CompletableFuture<ServiceHandle> sendConstructRequest(Frame frameCaller,
                 MethodStructure constructor, ClassComposition clazz, ObjectHandle[] ahArg)
@@ -763,6 +783,73 @@ public class ServiceContext
             }
         }
 
+    /**
+     * Represents a call request from a native (non-service) caller, which receives the return
+     * values directly rather than via a response.
+     */
+    public static class NativeCallRequest
+            extends Message
+        {
+        private final FunctionHandle                    f_hFunction;
+        private final ObjectHandle[]                    f_ahArg;
+        private final int                               f_cReturns;
+        private final CompletableFuture<ObjectHandle[]> f_future;
+
+        public NativeCallRequest(FunctionHandle hFunction, ObjectHandle[] ahArg, int cReturns,
+                                 CompletableFuture<ObjectHandle[]> future)
+            {
+            super(null);
+
+            f_hFunction = hFunction;
+            f_ahArg     = ahArg;
+            f_cReturns  = cReturns;
+            f_future    = future;
+            }
+
+        @Override
+        public Frame createFrame(ServiceContext context)
+            {
+            // the pseudo-frame's vars are the return values
+            int[] aiReturn = new int[f_cReturns];
+            for (int i = 0; i < f_cReturns; i++)
+                {
+                aiReturn[i] = i;
+                }
+
+            Op opCall = new Op()
+                {
+                public int process(Frame frame, int iPC)
+                    {
+                    return f_hFunction.callN(frame, null, f_ahArg, aiReturn);
+                    }
+
+                public String toString()
+                    {
+                    return "NativeCallRequest";
+                    }
+                };
+
+            Frame frame0 = context.createServiceEntryFrame(this, f_cReturns,
+                    new Op[] {opCall, Return_0.INSTANCE});
+
+            frame0.addContinuation(_null ->
+                {
+                ExceptionHandle hException = frame0.m_hException;
+                if (hException == null)
+                    {
+                    f_future.complete(frame0.f_ahVar);
+                    }
+                else
+                    {
+                    f_future.completeExceptionally(hException.getException());
+                    }
+                return Op.R_NEXT;
+                });
+
+            return frame0;
+            }
+        }
+
     /**
      * Represents an invoke request from one service onto another with zero or one return value.
      */
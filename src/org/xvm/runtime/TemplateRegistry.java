@@ -27,6 +27,9 @@ import org.xvm.runtime.template.xModule;
 import org.xvm.runtime.template.xObject;
 import org.xvm.runtime.template.xService;
 
+import org.xvm.runtime.template.collections.xHashMap;
+import org.xvm.runtime.template.collections.xHashSet;
+
 
 /**
  * The template registry.
@@ -235,11 +238,19 @@ public class TemplateRegistry
                     break;
 
                 case MIXIN:
-                case CLASS:
                 case INTERFACE:
                     template = new xObject(this, structClass, false);
                     break;
 
+                case CLASS:
+                    // the subclasses of the native collections need the native storage
+                    template = structClass.extendsClass(xHashMap.INSTANCE.getClassConstant())
+                            ? new xHashMap(this, structClass, false)
+                            : structClass.extendsClass(xHashSet.INSTANCE.getClassConstant())
+                                ? new xHashSet(this, structClass, false)
+                                : new xObject(this, structClass, false);
+                    break;
+
                 case SERVICE:
                     template = new xService(this, structClass, false);
                     break;
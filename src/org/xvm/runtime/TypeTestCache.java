@@ -0,0 +1,99 @@
+package org.xvm.runtime;
+
+
+import org.xvm.asm.ConstantPool;
+
+import org.xvm.asm.constants.TypeConstant;
+
+
+/**
+ * A small inline cache for the "isA" type tests performed by an op (or a native template) against
+ * the type of an object handle. Most type tests at any given site see the same class of objects
+ * over and over, so the cache remembers the result for the most recently tested TypeComposition
+ * and the type it was tested against, and only falls back to {@link TypeConstant#isA} when either
+ * changes. Like the relations cached by the TypeConstant itself, a cached result is only valid until
+ * the TypeInfos of the ConstantPool are {@link ConstantPool#invalidateTypeInfos invalidated}.
+ * <p/>
+ * A handle whose type is not the type of its TypeComposition (e.g. a function handle with bound
+ * arguments, which narrows the function type) is tested by its own type and never cached.
+ * <p/>
+ * The cache may be used concurrently from multiple threads; each cached entry is immutable, so a
+ * thread either sees a complete entry or none at all.
+ */
+public class TypeTestCache
+    {
+    /**
+     * Determine if the type of the specified handle is assignable to the specified type.
+     *
+     * @param hValue    the handle whose type is being tested
+     * @param typeTest  the type to test against (L-value)
+     *
+     * @return true iff the handle's type "isA" the test type
+     */
+    public boolean isA(ObjectHandle hValue, TypeConstant typeTest)
+        {
+        TypeComposition clz  = hValue.getComposition();
+        TypeConstant    type = hValue.getType();
+        return type == clz.getType()
+                ? isA(clz, typeTest)
+                : type.isA(typeTest);
+        }
+
+    /**
+     * Determine if the type of the specified TypeComposition is assignable to the specified type.
+     *
+     * @param clz       the TypeComposition whose type is being tested
+     * @param typeTest  the type to test against (L-value)
+     *
+     * @return true iff the composition's type "isA" the test type
+     */
+    public boolean isA(TypeComposition clz, TypeConstant typeTest)
+        {
+        Entry entry = m_entry;
+        if (entry != null && entry.f_clz == clz && entry.f_typeTest == typeTest
+                && entry.f_cInvalidations == entry.f_pool.getInvalidationCount())
+            {
+            return entry.f_fIsA;
+            }
+
+        TypeConstant type   = clz.getType();
+        ConstantPool pool   = type.getConstantPool();
+        int          cInval = pool.getInvalidationCount();
+        boolean      fIsA   = type.isA(typeTest);
+        m_entry = new Entry(clz, typeTest, pool, cInval, fIsA);
+        return fIsA;
+        }
+
+
+    // ----- inner class: Entry --------------------------------------------------------------------
+
+    /**
+     * An immutable cache entry.
+     */
+    private static class Entry
+        {
+        Entry(TypeComposition clz, TypeConstant typeTest, ConstantPool pool, int cInvalidations,
+              boolean fIsA)
+            {
+            f_clz            = clz;
+            f_typeTest       = typeTest;
+            f_pool           = pool;
+            f_cInvalidations = cInvalidations;
+            f_fIsA           = fIsA;
+            }
+
+        final TypeComposition f_clz;
+        final TypeConstant    f_typeTest;
+        final ConstantPool    f_pool;
+        final int             f_cInvalidations;
+        final boolean         f_fIsA;
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The most recent type test.
+     */
+    private Entry m_entry;
+    }
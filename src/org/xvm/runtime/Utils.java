@@ -26,6 +26,8 @@ import org.xvm.runtime.template.xString.StringHandle;
 
 import org.xvm.runtime.template.annotations.xFutureVar;
 
+import org.xvm.runtime.template._native.xTerminalConsole;
+
 
 /**
  * Various helpers.
@@ -37,10 +39,11 @@ public abstract class Utils
 
     public static void log(Frame frame, String sMsg)
         {
+        String sPrefix = "";
         if (sMsg.charAt(0) == '\n')
             {
-            System.out.println();
-            sMsg = sMsg.substring(1);
+            sPrefix = LINE_SEPARATOR;
+            sMsg    = sMsg.substring(1);
             }
 
         ServiceContext ctx;
@@ -57,10 +60,13 @@ public abstract class Utils
             lFiberId = frame.f_fiber.getId();
             }
 
-        System.out.println(new Timestamp(System.currentTimeMillis())
-            + " " + ctx + ", fiber " + lFiberId + ": " + sMsg);
+        // the log goes through the console writer to stay in order with the printed text
+        xTerminalConsole.writeOutput(sPrefix + new Timestamp(System.currentTimeMillis())
+            + " " + ctx + ", fiber " + lFiberId + ": " + sMsg + LINE_SEPARATOR);
         }
 
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     /**
      * Ensure that the specified array of arguments is of the specified size.
      *
@@ -568,7 +574,7 @@ public abstract class Utils
                 {
                 sb.append(sLabel).append('=');
                 }
-            sb.append(hString.getValue());
+            sb.append(hString.getStringValue());
 
             if (sb.length() < MAX_LEN)
                 {
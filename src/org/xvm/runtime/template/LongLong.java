@@ -3,12 +3,14 @@ package org.xvm.runtime.template;
 
 import java.math.BigInteger;
 
+import org.xvm.util.Handy;
+
 
 /**
  * 128 bit long implementation used by both Int128 and UInt128.
- *
- * TODO: optimize out BigInteger use for multiplication and division;
- * see https://mrob.com/pub/math/int128.c.txt
+ * <p/>
+ * The arithmetic operations are done on the two longs directly; BigInteger is only used for the
+ * conversions to and from the BigInteger form.
  */
 public class LongLong
     {
@@ -143,160 +145,314 @@ public class LongLong
 
     public LongLong mul(LongLong ll)
         {
-        BigInteger bi1 = toBigInteger();
-        BigInteger bi2 = ll.toBigInteger();
-        BigInteger bir = bi1.multiply(bi2);
+        long l1L = m_lLow;
+        long l1H = m_lHigh;
+        long l2L = ll.m_lLow;
+        long l2H = ll.m_lHigh;
 
-        return bir.bitLength() <= 127
-            ? fromBigInteger(bir)
-            : OVERFLOW;
+        if (l1H == l1L >> 63 && l2H == l2L >> 63)
+            {
+            // both values fit into a long; the product always fits into 127 bits
+            return new LongLong(l1L * l2L, Math.multiplyHigh(l1L, l2L));
+            }
+
+        boolean fNeg = (l1H ^ l2H) < 0;
+        if (l1H < 0)
+            {
+            l1L = -l1L;
+            l1H = l1L == 0 ? -l1H : ~l1H;
+            }
+        if (l2H < 0)
+            {
+            l2L = -l2L;
+            l2H = l2L == 0 ? -l2H : ~l2H;
+            }
+
+        return multiply(l1L, l1H, l2L, l2H, true, fNeg);
         }
 
     public LongLong mulUnsigned(LongLong ll)
         {
-        BigInteger bi1 = toUnsignedBigInteger();
-        BigInteger bi2 = ll.toUnsignedBigInteger();
-        BigInteger bir = bi1.multiply(bi2);
-
-        return bir.bitLength() <= 128
-            ? fromBigInteger(bir)
-            : OVERFLOW;
+        return multiply(m_lLow, m_lHigh, ll.m_lLow, ll.m_lHigh, false, false);
         }
 
     public LongLong div(LongLong ll)
         {
+        long l1L = m_lLow;
+        long l1H = m_lHigh;
         long l2L = ll.m_lLow;
         long l2H = ll.m_lHigh;
 
-        if (l2H == 0)
+        if ((l2L | l2H) == 0)
             {
-            if (l2L == 0)
-                {
-                return OVERFLOW;
-                }
+            return OVERFLOW;
+            }
 
-            if (l2L > 0)
-                {
-                return div(l2L);
-                }
+        if (l1H == l1L >> 63 && l2H == l2L >> 63)
+            {
+            // both values fit into a long; the only quotient that doesn't is MIN_VALUE / -1
+            return l1L == Long.MIN_VALUE && l2L == -1
+                    ? new LongLong(Long.MIN_VALUE, 0)
+                    : new LongLong(l1L / l2L);
             }
-        else
+
+        boolean fNeg = (l1H ^ l2H) < 0;
+        if (l1H < 0)
             {
-            if (l2H == -1 && l2L < 0)
-                {
-                return div(l2L);
-                }
+            l1L = -l1L;
+            l1H = l1L == 0 ? -l1H : ~l1H;
+            }
+        if (l2H < 0)
+            {
+            l2L = -l2L;
+            l2H = l2L == 0 ? -l2H : ~l2H;
             }
 
-        // the divisor doesn't fit into a long; use the BigInteger for now
-        BigInteger bi1 = toBigInteger();
-        BigInteger bi2 = ll.toBigInteger();
-        BigInteger bir = bi1.divide(bi2);
+        LongLong llr = divide(l1L, l1H, l2L, l2H, false, fNeg);
 
-        return fromBigInteger(bir);
+        // the only positive quotient that doesn't fit is MIN_VALUE / -1
+        return !fNeg && llr.m_lHigh < 0 ? OVERFLOW : llr;
         }
 
     public LongLong div(long l)
+        {
+        return div(new LongLong(l));
+        }
+
+    public LongLong divUnsigned(LongLong ll)
         {
         long l1L = m_lLow;
         long l1H = m_lHigh;
+        long l2L = ll.m_lLow;
+        long l2H = ll.m_lHigh;
 
-        if (l1H == 0)
+        if ((l2L | l2H) == 0)
             {
-            if (l1L == 0)
-                {
-                return ZERO;
-                }
+            return OVERFLOW;
+            }
 
-            if (l1L > 0)
-                {
-                return new LongLong(l1L/l);
-                }
+        return (l1H | l2H) == 0
+                ? new LongLong(Long.divideUnsigned(l1L, l2L), 0)
+                : divide(l1L, l1H, l2L, l2H, false, false);
+        }
+
+    public LongLong divUnsigned(long l)
+        {
+        return divUnsigned(new LongLong(l, 0));
+        }
+
+    /**
+     * Calculate the modulo the same way that the 64-bit integer types do, i.e. the result is never
+     * negative.
+     */
+    public LongLong mod(LongLong ll)
+        {
+        long l1L = m_lLow;
+        long l1H = m_lHigh;
+        long l2L = ll.m_lLow;
+        long l2H = ll.m_lHigh;
+
+        if ((l2L | l2H) == 0)
+            {
+            return OVERFLOW;
             }
-        else
+
+        if (l1H == l1L >> 63 && l2H == l2L >> 63)
             {
-            if (l1H == -1 && l1L < 0)
+            long lMod = l1L % l2L;
+            if (lMod < 0)
                 {
-                return new LongLong(l1H/l);
+                lMod += (l2L < 0 ? -l2L : l2L);
                 }
+            return new LongLong(lMod, 0);
             }
 
-        // the dividend doesn't fit into a long; use the BigInteger for now
-        BigInteger bi1 = toBigInteger();
-        BigInteger bi2 = BigInteger.valueOf(l);
-        BigInteger bir = bi1.divide(bi2);
+        boolean fNeg = l1H < 0;
+        if (l1H < 0)
+            {
+            l1L = -l1L;
+            l1H = l1L == 0 ? -l1H : ~l1H;
+            }
+        if (l2H < 0)
+            {
+            l2L = -l2L;
+            l2H = l2L == 0 ? -l2H : ~l2H;
+            }
 
-        return fromBigInteger(bir);
+        return divide(l1L, l1H, l2L, l2H, true, fNeg);
         }
 
-    public LongLong divUnsigned(LongLong ll)
+    public LongLong modUnsigned(LongLong ll)
         {
+        long l1L = m_lLow;
+        long l1H = m_lHigh;
         long l2L = ll.m_lLow;
         long l2H = ll.m_lHigh;
 
-        if (l2H == 0)
+        if ((l2L | l2H) == 0)
             {
-            if (l2L == 0)
+            return OVERFLOW;
+            }
+
+        return (l1H | l2H) == 0
+                ? new LongLong(Long.remainderUnsigned(l1L, l2L), 0)
+                : divide(l1L, l1H, l2L, l2H, true, false);
+        }
+
+    /**
+     * Multiply two unsigned 128-bit values (the magnitudes of the operands), detecting any
+     * overflow.
+     *
+     * @param fSigned  true iff the result has to fit into a signed 128-bit value
+     * @param fNeg     true iff the (signed) result is negative
+     *
+     * @return the product, or {@link #OVERFLOW}
+     */
+    private static LongLong multiply(long l1L, long l1H, long l2L, long l2H,
+                                     boolean fSigned, boolean fNeg)
+        {
+        if (l1H != 0 && l2H != 0)
+            {
+            return OVERFLOW;
+            }
+
+        long lrL = l1L * l2L;
+        long lrH = multiplyHighUnsigned(l1L, l2L);
+
+        // at most one of the cross products is non-zero, and it must fit into 64 bits
+        long lCross = 0;
+        if (l1H != 0)
+            {
+            if (multiplyHighUnsigned(l1H, l2L) != 0)
                 {
                 return OVERFLOW;
                 }
-
-            if (l2L > 0)
+            lCross = l1H * l2L;
+            }
+        else if (l2H != 0)
+            {
+            if (multiplyHighUnsigned(l1L, l2H) != 0)
                 {
-                return divUnsigned(l2L);
+                return OVERFLOW;
                 }
+            lCross = l1L * l2H;
             }
 
-        // the divisor doesn't fit into a long; use the BigInteger for now
-        BigInteger bi1 = toUnsignedBigInteger();
-        BigInteger bi2 = ll.toUnsignedBigInteger();
-        BigInteger bir = bi1.divide(bi2);
+        lrH += lCross;
+        if (Long.compareUnsigned(lrH, lCross) < 0)
+            {
+            return OVERFLOW;
+            }
 
-        return fromBigInteger(bir);
-        }
+        if (fSigned)
+            {
+            if (fNeg)
+                {
+                // the magnitude of a negative value can be up to (and including) 2^127
+                if (lrH < 0 && (lrH != Long.MIN_VALUE || lrL != 0))
+                    {
+                    return OVERFLOW;
+                    }
+                lrL = -lrL;
+                lrH = lrL == 0 ? -lrH : ~lrH;
+                }
+            else if (lrH < 0)
+                {
+                return OVERFLOW;
+                }
+            }
 
-    public LongLong divUnsigned(long l)
-        {
-        long l1L = m_lLow;
-        long l1H = m_lHigh;
+        return new LongLong(lrL, lrH);
+        }
 
-        if (l1H == 0)
+    /**
+     * Divide two unsigned 128-bit values (the magnitudes of the operands); the divisor must not be
+     * zero.
+     * <p/>
+     * When the divisor fits into 64 bits, the quotient is calculated as two 128/64-bit divisions;
+     * otherwise the quotient fits into 64 bits, and is estimated using the top 64 bits of the
+     * divisor and then corrected by one (Hacker's Delight, section 9-5).
+     *
+     * @param fMod  true to return the modulo; false to return the quotient
+     * @param fNeg  for the quotient, true to negate it; for the modulo, true if the dividend is
+     *              negative, in which case the result is the divisor minus the remainder
+     *
+     * @return the quotient or the modulo
+     */
+    private static LongLong divide(long lNL, long lNH, long lDL, long lDH,
+                                   boolean fMod, boolean fNeg)
+        {
+        long lQL;
+        long lQH;
+        long lRL;
+        long lRH;
+        if (lDH == 0)
             {
-            if (l1L == 0)
+            lQH = Long.compareUnsigned(lNH, lDL) < 0 ? 0 : Long.divideUnsigned(lNH, lDL);
+            lQL = Handy.divideUnsigned(lNH - lQH * lDL, lNL, lDL);
+            lRL = lNL - lQL * lDL;
+            lRH = 0;
+            }
+        else
+            {
+            // normalize the divisor, and divide the (halved, so that the quotient is guaranteed
+            // to fit) dividend by the top 64 bits of the divisor
+            int  cShift = Long.numberOfLeadingZeros(lDH);
+            long lV1    = cShift == 0 ? lDH : lDH << cShift | lDL >>> (64 - cShift);
+            long lQ1    = Handy.divideUnsigned(lNH >>> 1, lNH << 63 | lNL >>> 1, lV1);
+
+            // undo the normalization and the halving; the estimate is either exact or one too
+            // high, so decrement it to make it either exact or one too low
+            long lQ0 = lQ1 >>> (63 - cShift);
+            if (lQ0 != 0)
                 {
-                return ZERO;
+                --lQ0;
                 }
 
-            if (l1L > 0)
+            // calculate the remainder (the product fits into 128 bits since it's not greater
+            // than the dividend)
+            long lPL = lQ0 * lDL;
+            long lPH = multiplyHighUnsigned(lQ0, lDL) + lQ0 * lDH;
+            lRL = lNL - lPL;
+            lRH = lNH - lPH - (Long.compareUnsigned(lNL, lPL) < 0 ? 1 : 0);
+
+            if (Long.compareUnsigned(lRH, lDH) > 0 ||
+                    lRH == lDH && Long.compareUnsigned(lRL, lDL) >= 0)
                 {
-                return new LongLong(l1L/l);
+                ++lQ0;
+                lRH = lRH - lDH - (Long.compareUnsigned(lRL, lDL) < 0 ? 1 : 0);
+                lRL = lRL - lDL;
                 }
-            }
-
-        // the dividend doesn't fit into a long; use the BigInteger for now
-        BigInteger bi1 = toUnsignedBigInteger();
-        BigInteger bi2 = toUnsignedBigInteger(l);
-        BigInteger bir = bi1.divide(bi2);
 
-        return fromBigInteger(bir);
-        }
+            lQL = lQ0;
+            lQH = 0;
+            }
 
-    public LongLong mod(LongLong ll)
-        {
-        BigInteger bi1 = toBigInteger();
-        BigInteger bi2 = ll.toBigInteger();
-        BigInteger bir = bi1.mod(bi2);
+        if (fMod)
+            {
+            if (fNeg && (lRL | lRH) != 0)
+                {
+                lRH = lDH - lRH - (Long.compareUnsigned(lDL, lRL) < 0 ? 1 : 0);
+                lRL = lDL - lRL;
+                }
+            return new LongLong(lRL, lRH);
+            }
 
-        return fromBigInteger(bir);
+        if (fNeg)
+            {
+            lQL = -lQL;
+            lQH = lQL == 0 ? -lQH : ~lQH;
+            }
+        return new LongLong(lQL, lQH);
         }
 
-    public LongLong modUnsigned(LongLong ll)
+    /**
+     * @return the high 64 bits of the unsigned 128-bit product of two unsigned 64-bit values
+     */
+    private static long multiplyHighUnsigned(long l1, long l2)
         {
-        BigInteger bi1 = toUnsignedBigInteger();
-        BigInteger bi2 = ll.toUnsignedBigInteger();
-        BigInteger bir = bi1.mod(bi2);
-
-        return fromBigInteger(bir);
+        // Math.unsignedMultiplyHigh() is not available prior to Java 18
+        return Math.multiplyHigh(l1, l2) + ((l1 >> 63) & l2) + ((l2 >> 63) & l1);
         }
 
     public LongLong next(boolean fSigned)
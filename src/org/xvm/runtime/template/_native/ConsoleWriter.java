@@ -0,0 +1,264 @@
+package org.xvm.runtime.template._native;
+
+
+import java.io.Writer;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * The console output writer thread.
+ *
+ * The printed text is appended to a lock-free ring buffer by any number of producing threads,
+ * which never touch the underlying stream; the writer thread drains the ring and writes the text
+ * to the stream in batches. A batch is flushed as soon as {@link #FLUSH_SIZE} chars have been
+ * accumulated, or {@link #FLUSH_MILLIS} after its oldest text has been appended, or when a
+ * {@link #flush} is requested. The pending text is also flushed when the JVM shuts down.
+ *
+ * A producer only waits if the ring is full, i.e. when the stream cannot keep up with the output.
+ */
+public class ConsoleWriter
+        extends Thread
+    {
+    /**
+     * Construct and start the writer thread for the specified stream.
+     *
+     * @param out  the stream to write to
+     */
+    public ConsoleWriter(Writer out)
+        {
+        super("ConsoleWriter");
+
+        setDaemon(true);
+
+        f_out = out;
+
+        java.lang.Runtime.getRuntime().addShutdownHook(
+            new Thread(() -> flush(SHUTDOWN_MILLIS), "ConsoleWriter-Shutdown"));
+        start();
+        }
+
+    /**
+     * Append the specified text to the output.
+     *
+     * @param sText  the text
+     */
+    public void write(String sText)
+        {
+        if (sText.isEmpty())
+            {
+            return;
+            }
+
+        long lSeq = f_atomicTail.getAndIncrement();
+        while (lSeq - m_lHead >= CAPACITY)
+            {
+            // the ring is full; let the writer catch up
+            LockSupport.unpark(this);
+            LockSupport.parkNanos(PARK_NANOS);
+            }
+
+        f_asText.set((int) lSeq & MASK, sText);
+
+        if (m_fIdle)
+            {
+            LockSupport.unpark(this);
+            }
+        }
+
+    /**
+     * Wait until all the text appended before this call has been written and the stream flushed.
+     * Must not be called by the writer thread.
+     *
+     * @param cMillis  the maximum time to wait
+     *
+     * @return true iff the text has been flushed
+     */
+    public boolean flush(long cMillis)
+        {
+        long lTarget = f_atomicTail.get();
+        if (m_lFlushed >= lTarget)
+            {
+            return true;
+            }
+
+        synchronized (this)
+            {
+            if (m_lFlushTo < lTarget)
+                {
+                m_lFlushTo = lTarget;
+                }
+            }
+        LockSupport.unpark(this);
+
+        long ldtDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cMillis);
+        while (m_lFlushed < lTarget)
+            {
+            if (System.nanoTime() - ldtDeadline >= 0 || !isAlive())
+                {
+                return false;
+                }
+            LockSupport.parkNanos(PARK_NANOS);
+            }
+        return true;
+        }
+
+    @Override
+    public void run()
+        {
+        AtomicReferenceArray<String> asText    = f_asText;
+        StringBuilder                sb        = new StringBuilder(FLUSH_SIZE);
+        long                         lHead     = m_lHead;
+        long                         ldtOldest = 0;
+
+        while (true)
+            {
+            int    iSlot = (int) lHead & MASK;
+            String sText = asText.get(iSlot);
+            if (sText != null)
+                {
+                asText.lazySet(iSlot, null);
+                m_lHead = ++lHead;
+
+                if (sb.length() == 0)
+                    {
+                    ldtOldest = System.nanoTime();
+                    }
+                sb.append(sText);
+
+                if (sb.length() >= FLUSH_SIZE)
+                    {
+                    writeBatch(sb, lHead);
+                    }
+                continue;
+                }
+
+            // the ring has been drained
+            long cWait;
+            if (sb.length() > 0)
+                {
+                cWait = ldtOldest + FLUSH_NANOS - System.nanoTime();
+                if (cWait <= 0 || m_lFlushTo > m_lFlushed)
+                    {
+                    writeBatch(sb, lHead);
+                    continue;
+                    }
+                }
+            else
+                {
+                m_lFlushed = lHead;
+                cWait      = 0;
+                }
+
+            m_fIdle = true;
+            if (asText.get(iSlot) == null && m_lFlushTo <= m_lFlushed)
+                {
+                if (cWait > 0)
+                    {
+                    LockSupport.parkNanos(this, cWait);
+                    }
+                else
+                    {
+                    LockSupport.park(this);
+                    }
+                }
+            m_fIdle = false;
+            }
+        }
+
+    /**
+     * Write the accumulated text out and flush the stream.
+     *
+     * @param sb     the accumulated text
+     * @param lHead  the sequence number of the first text that has not been accumulated yet
+     */
+    private void writeBatch(StringBuilder sb, long lHead)
+        {
+        Writer out = f_out;
+        try
+            {
+            out.write(sb.toString());
+            out.flush();
+            }
+        catch (Exception e)
+            {
+            // the same as PrintStream, the output errors are not reported
+            }
+        sb.setLength(0);
+
+        m_lFlushed = lHead;
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The ring capacity (the number of pending print requests); must be a power of two.
+     */
+    private static final int CAPACITY = Integer.highestOneBit(
+            Math.max(Integer.getInteger("xvm.console.capacity", 4096), 2));
+
+    private static final int MASK = CAPACITY - 1;
+
+    /**
+     * The number of accumulated chars that causes an immediate flush.
+     */
+    private static final int FLUSH_SIZE = Integer.getInteger("xvm.console.flushSize", 8192);
+
+    /**
+     * The maximum time the text is held before it is flushed.
+     */
+    private static final long FLUSH_MILLIS = Long.getLong("xvm.console.flushMillis", 20);
+
+    private static final long FLUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(FLUSH_MILLIS);
+
+    /**
+     * The maximum time to wait for the pending output on shutdown.
+     */
+    private static final long SHUTDOWN_MILLIS = 5000;
+
+    /**
+     * The time a waiting producer or a flushing thread parks for before checking again.
+     */
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * The underlying stream.
+     */
+    private final Writer f_out;
+
+    /**
+     * The ring; a null slot has either been drained or not written yet.
+     */
+    private final AtomicReferenceArray<String> f_asText = new AtomicReferenceArray<>(CAPACITY);
+
+    /**
+     * The sequence number of the next text to be appended.
+     */
+    private final AtomicLong f_atomicTail = new AtomicLong();
+
+    /**
+     * The sequence number of the next text to be drained; only modified by the writer thread.
+     */
+    private volatile long m_lHead;
+
+    /**
+     * All the text before this sequence number has been written and flushed.
+     */
+    private volatile long m_lFlushed;
+
+    /**
+     * The sequence number that an explicit flush has been requested for.
+     */
+    private volatile long m_lFlushTo;
+
+    /**
+     * True iff the writer thread is (about to be) parked waiting for the text.
+     */
+    private volatile boolean m_fIdle;
+    }
@@ -4,14 +4,25 @@ package org.xvm.runtime.template._native.fs;
 import java.io.IOException;
 
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.xvm.asm.ClassStructure;
+import org.xvm.asm.ConstantPool;
 import org.xvm.asm.Constants.Access;
 import org.xvm.asm.MethodStructure;
 import org.xvm.asm.Op;
 
+import org.xvm.asm.constants.TypeConstant;
+
 import org.xvm.runtime.ClassComposition;
 import org.xvm.runtime.ClassTemplate;
 import org.xvm.runtime.Frame;
@@ -21,6 +32,8 @@ import org.xvm.runtime.TemplateRegistry;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.Utils;
 
+import org.xvm.runtime.template.collections.xArray;
+
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xConst;
 import org.xvm.runtime.template.xException;
@@ -31,6 +44,10 @@ import org.xvm.runtime.template.xString;
 
 /**
  * Native base for OSFile and OSDirectory implementations.
+ *
+ * The node attributes (existence, size and times) are read by a single file system call and
+ * cached by the node handle as an {@link AttributeSnapshot}; the nodes produced by a directory
+ * listing start with the snapshot collected by the listing itself.
  */
 public abstract class OSFileNode
         extends xConst
@@ -45,11 +62,17 @@ public abstract class OSFileNode
         {
         ClassTemplate templateDir    = f_templates.getTemplate("fs.Directory");
         ClassTemplate templateFile   = f_templates.getTemplate("fs.File");
-        ClassTemplate templateOSDir  = f_templates.getTemplate("_native.fs.OSDirectory");
-        ClassTemplate templateOSFile = f_templates.getTemplate("_native.fs.OSFile");
-
-        s_clzOSDir  = ensureClass(templateOSDir.getCanonicalType(),  templateDir.getCanonicalType());
-        s_clzOSFile = ensureClass(templateOSFile.getCanonicalType(), templateFile.getCanonicalType());
+        OSFileNode    templateOSDir  = (OSFileNode)
+                f_templates.getTemplate("_native.fs.OSDirectory");
+        OSFileNode    templateOSFile = (OSFileNode)
+                f_templates.getTemplate("_native.fs.OSFile");
+
+        // the compositions must be produced by their own templates, which implement the natives
+        // specific to the files and directories
+        s_clzOSDir  = templateOSDir.ensureClass(
+                templateOSDir.getCanonicalType(),  templateDir.getCanonicalType());
+        s_clzOSFile = templateOSFile.ensureClass(
+                templateOSFile.getCanonicalType(), templateFile.getCanonicalType());
 
         s_clzOSDirStruct  = s_clzOSDir.ensureAccess(Access.STRUCT);
         s_clzOSFileStruct = s_clzOSFile.ensureAccess(Access.STRUCT);
@@ -57,6 +80,11 @@ public abstract class OSFileNode
         s_constructorDir  = s_clzOSDir.getTemplate().f_struct.findConstructor();
         s_constructorFile = s_clzOSFile.getTemplate().f_struct.findConstructor();
 
+        ConstantPool  pool         = pool();
+        ClassTemplate templateNode = f_templates.getTemplate("fs.FileNode");
+        s_typeNodeArray = pool.ensureParameterizedTypeConstant(
+                pool.typeArray(), templateNode.getCanonicalType());
+
         markNativeProperty("store");
         markNativeProperty("pathString");
         markNativeProperty("exists");
@@ -64,6 +92,8 @@ public abstract class OSFileNode
         markNativeProperty("accessedMillis");
         markNativeProperty("modifiedMillis");
         markNativeProperty("size");
+
+        markNativeMethod("refresh", VOID, VOID);
         }
 
     @Override
@@ -79,64 +109,64 @@ public abstract class OSFileNode
                 return frame.assignValue(iReturn, xString.makeHandle(hNode.f_path.toString()));
 
             case "exists":
-                return frame.assignValue(iReturn, xBoolean.makeHandle(hNode.f_path.toFile().exists()));
+                return frame.assignValue(iReturn, xBoolean.makeHandle(hNode.exists()));
 
             case "createdMillis":
-                {
-                try
-                    {
-                    BasicFileAttributes attr = Files.readAttributes(hNode.f_path, BasicFileAttributes.class);
-                    return frame.assignValue(iReturn, xInt64.makeHandle(attr.creationTime().toMillis()));
-                    }
-                catch (IOException e)
-                    {
-                    return raisePathException(frame, e, hNode);
-                    }
-                }
-
             case "accessedMillis":
-                {
-                try
-                    {
-                    BasicFileAttributes attr = Files.readAttributes(hNode.f_path, BasicFileAttributes.class);
-                    return frame.assignValue(iReturn, xInt64.makeHandle(attr.lastAccessTime().toMillis()));
-                    }
-                catch (IOException e)
-                    {
-                    return raisePathException(frame, e, hNode);
-                    }
-                }
-
             case "modifiedMillis":
+            case "size":
                 {
+                BasicFileAttributes attrs;
                 try
                     {
-                    BasicFileAttributes attr = Files.readAttributes(hNode.f_path, BasicFileAttributes.class);
-                    return frame.assignValue(iReturn, xInt64.makeHandle(attr.lastModifiedTime().toMillis()));
+                    attrs = hNode.getAttributes();
                     }
                 catch (IOException e)
                     {
                     return raisePathException(frame, e, hNode);
                     }
-                }
 
-            case "size":
-                {
-                try
-                    {
-                    BasicFileAttributes attr = Files.readAttributes(hNode.f_path, BasicFileAttributes.class);
-                    return frame.assignValue(iReturn, xInt64.makeHandle(attr.size()));
-                    }
-                catch (IOException e)
+                long lValue;
+                switch (sPropName)
                     {
-                    return raisePathException(frame, e, hNode);
+                    case "createdMillis":
+                        lValue = attrs.creationTime().toMillis();
+                        break;
+
+                    case "accessedMillis":
+                        lValue = attrs.lastAccessTime().toMillis();
+                        break;
+
+                    case "modifiedMillis":
+                        lValue = attrs.lastModifiedTime().toMillis();
+                        break;
+
+                    default:
+                        lValue = attrs.size();
+                        break;
                     }
+                return frame.assignValue(iReturn, xInt64.makeHandle(lValue));
                 }
             }
 
         return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
         }
 
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        NodeHandle hNode = (NodeHandle) hTarget;
+        switch (method.getName())
+            {
+            case "refresh":
+                hNode.invalidateAttributes();
+                return Op.R_NEXT;
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
     /**
      * Construct a new {@link NodeHandle} representing the specified file or directory.
      *
@@ -148,25 +178,272 @@ public abstract class OSFileNode
      *
      * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION}
      */
-    static int createHandle(Frame frame, ObjectHandle hOSStore, Path path, boolean fDir, int iReturn)
+    static int createHandle(Frame frame, ObjectHandle hOSStore, Path path, boolean fDir,
+                            int iReturn)
+        {
+        return createHandle(frame, hOSStore, path, fDir, null, iReturn);
+        }
+
+    /**
+     * Construct a new {@link NodeHandle} representing the specified file or directory, which
+     * starts with the specified attribute snapshot.
+     *
+     * @param frame      the current frame
+     * @param hOSStore   the "host" OSStore handle
+     * @param path       the node's path
+     * @param fDir       true iff the path represents a directory; false otherwise
+     * @param snapshot   the node's attributes (optional)
+     * @param iReturn    the register id to place the created handle into
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION}
+     */
+    static int createHandle(Frame frame, ObjectHandle hOSStore, Path path, boolean fDir,
+                            AttributeSnapshot snapshot, int iReturn)
         {
         ClassComposition clzPublic   = fDir ? s_clzOSDir       : s_clzOSFile;
         ClassComposition clzStruct   = fDir ? s_clzOSDirStruct : s_clzOSFileStruct;
         MethodStructure  constructor = fDir ? s_constructorDir : s_constructorFile;
 
         NodeHandle hStruct = new NodeHandle(clzStruct, path.toAbsolutePath(), hOSStore);
+        hStruct.m_snapshot = snapshot;
 
         return clzPublic.getTemplate().callConstructor(frame, constructor,
             clzPublic.ensureAutoInitializer(), hStruct, Utils.OBJECTS_NONE, iReturn);
         }
 
+    /**
+     * Construct an immutable array of {@link NodeHandle}s representing the specified files and
+     * directories, which start with the specified attribute snapshots.
+     *
+     * @param frame       the current frame
+     * @param hOSStore    the "host" OSStore handle
+     * @param listPath    the node paths
+     * @param listAttrs   the node attributes
+     * @param iReturn     the register id to place the created array into
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION}
+     */
+    static int createHandles(Frame frame, ObjectHandle hOSStore,
+                             List<Path> listPath, List<AttributeSnapshot> listAttrs, int iReturn)
+        {
+        return createHandles(frame, hOSStore, listPath, listAttrs, (frameCaller, ahNode) ->
+            {
+            ClassComposition clzArray = s_clzNodeArray;
+            if (clzArray == null)
+                {
+                clzArray = s_clzNodeArray =
+                    s_clzOSDir.getTemplate().f_templates.resolveClass(s_typeNodeArray);
+                }
+
+            return frameCaller.assignValue(iReturn,
+                ((xArray) clzArray.getTemplate()).createArrayHandle(clzArray, ahNode));
+            });
+        }
+
+    /**
+     * Construct the {@link NodeHandle}s representing the specified files and directories, which
+     * start with the specified attribute snapshots, and pass them to the specified consumer.
+     *
+     * @param frame       the current frame
+     * @param hOSStore    the "host" OSStore handle
+     * @param listPath    the node paths
+     * @param listAttrs   the node attributes
+     * @param consumer    the consumer of the created handles
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION}
+     */
+    static int createHandles(Frame frame, ObjectHandle hOSStore,
+                             List<Path> listPath, List<AttributeSnapshot> listAttrs,
+                             NodeConsumer consumer)
+        {
+        return new CreateHandles(hOSStore, listPath, listAttrs, consumer).doNext(frame);
+        }
+
+    /**
+     * The consumer of the node handles created by {@link #createHandles}.
+     */
+    @FunctionalInterface
+    interface NodeConsumer
+        {
+        /**
+         * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION}
+         */
+        int accept(Frame frame, ObjectHandle[] ahNode);
+        }
+
+    /**
+     * Helper class for sequential node construction.
+     */
+    private static class CreateHandles
+            implements Frame.Continuation
+        {
+        public CreateHandles(ObjectHandle hOSStore, List<Path> listPath,
+                             List<AttributeSnapshot> listAttrs, NodeConsumer consumer)
+            {
+            this.hOSStore  = hOSStore;
+            this.listPath  = listPath;
+            this.listAttrs = listAttrs;
+            this.ahNode    = new ObjectHandle[listPath.size()];
+            this.consumer  = consumer;
+            }
+
+        @Override
+        public int proceed(Frame frameCaller)
+            {
+            ahNode[index] = frameCaller.popStack();
+            return doNext(frameCaller);
+            }
+
+        public int doNext(Frame frameCaller)
+            {
+            while (++index < ahNode.length)
+                {
+                AttributeSnapshot snapshot = listAttrs.get(index);
+                switch (createHandle(frameCaller, hOSStore, listPath.get(index),
+                            snapshot.isDirectory(), snapshot, Op.A_STACK))
+                    {
+                    case Op.R_NEXT:
+                        ahNode[index] = frameCaller.popStack();
+                        break;
+
+                    case Op.R_CALL:
+                        frameCaller.m_frameNext.addContinuation(this);
+                        return Op.R_CALL;
+
+                    case Op.R_EXCEPTION:
+                        return Op.R_EXCEPTION;
+
+                    default:
+                        throw new IllegalStateException();
+                    }
+                }
+
+            return consumer.accept(frameCaller, ahNode);
+            }
+
+        private final ObjectHandle            hOSStore;
+        private final List<Path>              listPath;
+        private final List<AttributeSnapshot> listAttrs;
+        private final ObjectHandle[]          ahNode;
+        private final NodeConsumer            consumer;
+
+        private int index = -1;
+        }
+
+
+    // ----- attribute cache -----------------------------------------------------------------------
+
+    /**
+     * Notify the attribute cache that the specified directory is being watched; from now on, the
+     * attribute snapshots of the directory's children are valid until a watch event arrives for
+     * the directory.
+     *
+     * @param pathDir  the directory path
+     */
+    static void onWatchStarted(Path pathDir)
+        {
+        s_mapDirStamp.putIfAbsent(pathDir.toAbsolutePath(), new AtomicLong());
+        }
+
+    /**
+     * Invalidate the attribute snapshots of all the children of the specified watched directory.
+     *
+     * @param pathDir  the directory path
+     */
+    static void onWatchEvent(Path pathDir)
+        {
+        AtomicLong stamp = s_mapDirStamp.get(pathDir.toAbsolutePath());
+        if (stamp != null)
+            {
+            stamp.incrementAndGet();
+            }
+        }
+
+    /**
+     * @return the current modification stamp of the specified directory or -1 if the directory is
+     *         not watched
+     */
+    static long getDirStamp(Path pathDir)
+        {
+        AtomicLong stamp = pathDir == null ? null : s_mapDirStamp.get(pathDir);
+        return stamp == null ? -1 : stamp.get();
+        }
+
+    /**
+     * An immutable snapshot of a node's basic attributes.
+     *
+     * A snapshot stays valid for {@link #ATTR_TTL_MILLIS}, unless the parent directory is watched,
+     * in which case it is valid until the {@link xOSStorage.WatchServiceDaemon} reports any change
+     * in that directory.
+     */
+    static class AttributeSnapshot
+        {
+        /**
+         * Read the attributes of the specified path.
+         *
+         * @param path  the (absolute) path
+         */
+        static AttributeSnapshot load(Path path)
+            {
+            long lStamp = getDirStamp(path.getParent());
+            try
+                {
+                return new AttributeSnapshot(
+                    Files.readAttributes(path, BasicFileAttributes.class), lStamp);
+                }
+            catch (IOException e)
+                {
+                return new AttributeSnapshot(null, lStamp);
+                }
+            }
+
+        /**
+         * @param attrs   the attributes or null if the node doesn't exist
+         * @param lStamp  the parent directory stamp at the time the attributes were read
+         */
+        AttributeSnapshot(BasicFileAttributes attrs, long lStamp)
+            {
+            f_attrs     = attrs;
+            f_lStamp    = lStamp;
+            f_ldtLoaded = System.currentTimeMillis();
+            }
+
+        boolean isValid(Path path)
+            {
+            long lStamp = getDirStamp(path.getParent());
+            return lStamp == f_lStamp &&
+                (lStamp >= 0 || System.currentTimeMillis() - f_ldtLoaded < ATTR_TTL_MILLIS);
+            }
+
+        boolean isDirectory()
+            {
+            return f_attrs != null && f_attrs.isDirectory();
+            }
+
+        /**
+         * The attributes; null if the node didn't exist.
+         */
+        final BasicFileAttributes f_attrs;
+
+        /**
+         * The parent directory stamp; -1 if the directory was not watched.
+         */
+        final long f_lStamp;
+
+        /**
+         * The time the attributes were read at.
+         */
+        final long f_ldtLoaded;
+        }
+
 
     // ----- helper methods ------------------------------------------------------------------------
 
     protected int raisePathException(Frame frame, IOException e, NodeHandle hNode)
         {
         // TODO: how to get the natural Path efficiently from hNode.f_path?
-        return frame.raiseException(xException.pathException(frame, e.getMessage(), xNullable.NULL));
+        return frame.raiseException(
+                xException.pathException(frame, e.getMessage(), xNullable.NULL));
         }
 
 
@@ -187,6 +464,54 @@ public abstract class OSFileNode
 
             setField("store", hOSStore);
             }
+
+        /**
+         * @return true iff the node exists according to the current attribute snapshot
+         */
+        protected boolean exists()
+            {
+            return ensureSnapshot().f_attrs != null;
+            }
+
+        /**
+         * @return the node attributes according to the current attribute snapshot
+         *
+         * @throws NoSuchFileException if the node doesn't exist
+         */
+        protected BasicFileAttributes getAttributes()
+                throws IOException
+            {
+            BasicFileAttributes attrs = ensureSnapshot().f_attrs;
+            if (attrs == null)
+                {
+                throw new NoSuchFileException(f_path.toString());
+                }
+            return attrs;
+            }
+
+        /**
+         * Discard the attribute snapshot, so the next attribute access reads the file system.
+         */
+        protected void invalidateAttributes()
+            {
+            m_snapshot = null;
+            }
+
+        private AttributeSnapshot ensureSnapshot()
+            {
+            AttributeSnapshot snapshot = m_snapshot;
+            if (snapshot == null || !snapshot.isValid(f_path))
+                {
+                m_snapshot = snapshot = AttributeSnapshot.load(f_path);
+                }
+            return snapshot;
+            }
+
+        /**
+         * The attribute snapshot; since the node handles are immutable and shared across
+         * services, the snapshot is replaced atomically as a whole.
+         */
+        protected volatile AttributeSnapshot m_snapshot;
         }
 
     // ----- constants -----------------------------------------------------------------------------
@@ -198,4 +523,18 @@ public abstract class OSFileNode
     static private ClassComposition s_clzOSFile;
     static private ClassComposition s_clzOSFileStruct;
     static private MethodStructure  s_constructorFile;
+
+    static private TypeConstant     s_typeNodeArray;
+    static private ClassComposition s_clzNodeArray;
+
+    /**
+     * The time (in milliseconds) an attribute snapshot of a node in a directory that is not
+     * watched stays valid.
+     */
+    static final long ATTR_TTL_MILLIS = 1000L;
+
+    /**
+     * The modification stamps of the watched directories.
+     */
+    static private final Map<Path, AtomicLong> s_mapDirStamp = new ConcurrentHashMap<>();
     }
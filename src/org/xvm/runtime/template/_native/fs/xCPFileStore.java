@@ -1,6 +1,11 @@
 package org.xvm.runtime.template._native.fs;
 
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.Constant;
 import org.xvm.asm.Constant.Format;
@@ -10,6 +15,7 @@ import org.xvm.asm.Op;
 
 import org.xvm.asm.constants.FSNodeConstant;
 import org.xvm.asm.constants.FileStoreConstant;
+import org.xvm.asm.constants.UInt8ArrayConstant;
 
 import org.xvm.runtime.ClassComposition;
 import org.xvm.runtime.Frame;
@@ -23,6 +29,7 @@ import org.xvm.runtime.Utils;
 import org.xvm.runtime.template.collections.xArray;
 import org.xvm.runtime.template.collections.xArray.Mutability;
 import org.xvm.runtime.template.collections.xByteArray;
+import org.xvm.runtime.template.collections.xByteArray.ByteArrayHandle;
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xConst;
 import org.xvm.runtime.template.xInt64;
@@ -31,7 +38,15 @@ import org.xvm.runtime.template.xString.StringHandle;
 
 
 /**
- * Native OSFileStore implementation.
+ * Native CPFileStore implementation.
+ *
+ * The contents of the files are decoded only once: the resulting immutable byte arrays are cached
+ * by the file content (so the identical files embedded by different modules share the same array)
+ * and shared by all the services. Each directory tree is indexed by the path of its nodes upon the
+ * first lookup, which makes the path lookups independent of the directory depth and size.
+ * <p/>
+ * The caches are keyed weakly by the constants (and their values never refer to their keys), so
+ * the cached data goes away together with the constant pool of the module that embedded it.
  */
 public class xCPFileStore
         extends xConst
@@ -51,6 +66,7 @@ public class xCPFileStore
         markNativeMethod("loadNode"     , null, null);
         markNativeMethod("loadDirectory", null, null);
         markNativeMethod("loadFile"     , null, null);
+        markNativeMethod("findNode"     , null, null);
 
         getCanonicalType().invalidateTypeInfo();
         }
@@ -63,9 +79,14 @@ public class xCPFileStore
             FileStoreConstant constStore = (FileStoreConstant) constant;
             FSNodeConstant    constRoot  = constStore.getValue();
 
-            GenericHandle hStruct = new GenericHandle(s_clzStruct);
+            GenericHandle  hStruct = new GenericHandle(s_clzStruct);
+            ObjectHandle[] ahArg   = new ObjectHandle[]
+                {
+                xString.makeHandle(constStore.getPath()),
+                new ConstantHandle(constRoot),
+                };
             return callConstructor(frame, s_constructor, s_clz.ensureAutoInitializer(), hStruct,
-                    new ObjectHandle[] {xString.makeHandle(constStore.getPath()), new ConstantHandle(constRoot)}, Op.A_STACK);
+                    ahArg, Op.A_STACK);
             }
 
         return super.createConstHandle(frame, constant);
@@ -82,9 +103,7 @@ public class xCPFileStore
                 {
                 ConstantHandle hNode     = (ConstantHandle) hArg;
                 FSNodeConstant constNode = (FSNodeConstant) hNode.get();
-                ObjectHandle   hBinary   = xByteArray.makeHandle(
-                        constNode.getFileBytes(), Mutability.Constant);
-                return frame.assignValue(iReturn, hBinary);
+                return frame.assignValue(iReturn, ensureContents(constNode));
                 }
             }
 
@@ -97,7 +116,8 @@ public class xCPFileStore
         {
         switch (method.getName())
             {
-            // protected (Boolean isdir, String name, String created, String modified, Int size) loadNode(Object constNode)
+            // protected (Boolean isdir, String name, String created, String modified, Int size)
+            //         loadNode(Object constNode)
             case "loadNode":
                 {
                 ConstantHandle hNode     = (ConstantHandle) ahArg[0];
@@ -134,6 +154,20 @@ public class xCPFileStore
                         xArray.makeStringArrayHandle(ahNames),
                         xArray.makeObjectArrayHandle(ahCookies));
                 }
+
+            // protected conditional Object findNode(Object constRoot, String pathString);
+            case "findNode":
+                {
+                ConstantHandle hRoot     = (ConstantHandle) ahArg[0];
+                FSNodeConstant constRoot = (FSNodeConstant) hRoot.get();
+                String         sPath     = ((StringHandle) ahArg[1]).getStringValue();
+
+                FSNodeConstant constNode = findNode(constRoot, trimPath(sPath));
+                return constNode == null
+                        ? frame.assignValue(aiReturn[0], xBoolean.FALSE)
+                        : frame.assignValues(aiReturn, xBoolean.TRUE,
+                                new ConstantHandle(constNode));
+                }
             }
 
         return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
@@ -147,27 +181,125 @@ public class xCPFileStore
 
     // ----- helpers -------------------------------------------------------------------------------
 
+    /**
+     * @return the immutable array holding the contents of the specified file
+     */
+    static ByteArrayHandle ensureContents(FSNodeConstant constFile)
+        {
+        UInt8ArrayConstant constData = constFile.getFileConstant();
+
+        ByteArrayHandle hBytes = s_mapContents.get(constData);
+        if (hBytes == null)
+            {
+            hBytes = xByteArray.makeHandle(constData.getValue(), Mutability.Constant);
+
+            ByteArrayHandle hPrev = s_mapContents.putIfAbsent(constData, hBytes);
+            if (hPrev != null)
+                {
+                hBytes = hPrev;
+                }
+            }
+        return hBytes;
+        }
+
+    /**
+     * @return the node of the specified directory tree at the specified path relative to the root
+     *         (see {@link #trimPath}) or null if there is no such node
+     */
+    static FSNodeConstant findNode(FSNodeConstant constRoot, String sPath)
+        {
+        return sPath.isEmpty()
+                ? constRoot
+                : ensureIndex(constRoot).get(sPath);
+        }
+
+    /**
+     * @return the index of all the nodes of the specified directory tree, except the root itself,
+     *         by their paths relative to the root
+     */
+    static Map<String, FSNodeConstant> ensureIndex(FSNodeConstant constRoot)
+        {
+        Map<String, FSNodeConstant> mapIndex = s_mapIndex.get(constRoot);
+        if (mapIndex == null)
+            {
+            mapIndex = new HashMap<>();
+            addToIndex(mapIndex, "", constRoot);
+
+            Map<String, FSNodeConstant> mapPrev = s_mapIndex.putIfAbsent(constRoot, mapIndex);
+            if (mapPrev != null)
+                {
+                mapIndex = mapPrev;
+                }
+            }
+        return mapIndex;
+        }
+
+    private static void addToIndex(Map<String, FSNodeConstant> mapIndex, String sPrefix,
+                                   FSNodeConstant constDir)
+        {
+        for (FSNodeConstant constNode : constDir.getDirectoryContents())
+            {
+            String sPath = sPrefix + constNode.getName();
+            mapIndex.put(sPath, constNode);
+
+            if (constNode.getFormat() == Format.FSDir)
+                {
+                addToIndex(mapIndex, sPath + '/', constNode);
+                }
+            }
+        }
+
+    /**
+     * @return the specified (normalized) path without the leading and trailing separators
+     */
+    static String trimPath(String sPath)
+        {
+        int ofStart = 0;
+        int ofEnd   = sPath.length();
+        while (ofStart < ofEnd && sPath.charAt(ofStart) == '/')
+            {
+            ++ofStart;
+            }
+        while (ofEnd > ofStart && sPath.charAt(ofEnd - 1) == '/')
+            {
+            --ofEnd;
+            }
+        return sPath.substring(ofStart, ofEnd);
+        }
+
     static long calcSize(FSNodeConstant node)
         {
+        Long LSize = s_mapSize.get(node);
+        if (LSize != null)
+            {
+            return LSize;
+            }
+
+        long lSize;
         switch (node.getFormat())
             {
             case FSDir:
-                long lSum = 0;
+                lSize = 0;
                 for (FSNodeConstant nodeSub : node.getDirectoryContents())
                     {
-                    lSum += calcSize(nodeSub);
+                    lSize += calcSize(nodeSub);
                     }
-                return lSum;
+                break;
 
             case FSFile:
-                return node.getFileBytes().length;
+                lSize = node.getFileSize();
+                break;
 
             case FSLink:
-                return calcSize(node.getLinkTarget());
+                lSize = calcSize(node.getLinkTarget());
+                break;
 
             default:
                 throw new IllegalStateException();
             }
+
+        s_mapSize.put(node, lSize);
+        return lSize;
         }
 
 
@@ -177,6 +309,25 @@ public class xCPFileStore
     static private ClassComposition s_clzStruct;
     static private MethodStructure  s_constructor;
 
+    /**
+     * The file contents by the data constant; since the constants compare by value, the identical
+     * files share the same array.
+     */
+    static private final Map<UInt8ArrayConstant, ByteArrayHandle> s_mapContents =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The path index by the root directory constant; the index doesn't hold the root itself.
+     */
+    static private final Map<FSNodeConstant, Map<String, FSNodeConstant>> s_mapIndex =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The directory and file sizes by the node constant.
+     */
+    static private final Map<FSNodeConstant, Long> s_mapSize =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
 
     // ----- data members --------------------------------------------------------------------------
     }
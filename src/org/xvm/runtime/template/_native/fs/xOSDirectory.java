@@ -1,12 +1,20 @@
 package org.xvm.runtime.template._native.fs;
 
 
+import java.nio.file.PathMatcher;
+
 import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
 
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
 import org.xvm.runtime.TemplateRegistry;
 
+import org.xvm.runtime.template.xBoolean.BooleanHandle;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xString.StringHandle;
+
 
 /**
  * Native OSDirectory implementation.
@@ -23,6 +31,9 @@ public class xOSDirectory
     public void initDeclared()
         {
         super.initDeclared();
+
+        markNativeMethod("names", VOID, null);
+        markNativeMethod("walk", null, null);
         }
 
     @Override
@@ -35,4 +46,45 @@ public class xOSDirectory
 
         return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
         }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        NodeHandle hNode = (NodeHandle) hTarget;
+        switch (method.getName())
+            {
+            case "names": // Iterator<String> names()
+                return frame.assignValue(iReturn, xOSNameIterator.INSTANCE.makeHandle(hNode.f_path));
+
+            case "walk": // Iterator<FileNode> walk(Int maxDepth, String? glob, Boolean filesOnly)
+                {
+                ObjectHandle hDepth = ahArg[0];
+                ObjectHandle hGlob  = ahArg[1];
+                ObjectHandle hFiles = ahArg[2];
+
+                long    cMaxDepth = hDepth instanceof JavaLong ? ((JavaLong) hDepth).getValue() : Long.MAX_VALUE;
+                boolean fFiles    = hFiles instanceof BooleanHandle && ((BooleanHandle) hFiles).get();
+
+                PathMatcher matcher = null;
+                if (hGlob instanceof StringHandle)
+                    {
+                    try
+                        {
+                        matcher = hNode.f_path.getFileSystem().getPathMatcher(
+                                "glob:" + ((StringHandle) hGlob).getStringValue());
+                        }
+                    catch (IllegalArgumentException e)
+                        {
+                        return frame.raiseException(xException.illegalArgument(frame, e.getMessage()));
+                        }
+                    }
+
+                return frame.assignValue(iReturn, xOSTreeWalker.INSTANCE.makeHandle(
+                        hNode.getField("store"), hNode.f_path, cMaxDepth, matcher, fFiles));
+                }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
     }
@@ -3,16 +3,27 @@ package org.xvm.runtime.template._native.fs;
 
 import java.io.IOException;
 
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.HashSet;
+import java.util.Set;
 
 import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
 
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.collections.xArray.GenericArrayHandle;
 import org.xvm.runtime.template.collections.xArray.Mutability;
 import org.xvm.runtime.template.collections.xByteArray;
 
+import org.xvm.runtime.template.xEnum.EnumHandle;
+import org.xvm.runtime.template.xException;
+
 import org.xvm.util.Handy;
 
 
@@ -33,6 +44,8 @@ public class xOSFile
         super.initDeclared();
 
         markNativeProperty("contents");
+
+        markNativeMethod("open", null, null);
         }
 
     @Override
@@ -60,4 +73,118 @@ public class xOSFile
 
         return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
         }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        NodeHandle hNode = (NodeHandle) hTarget;
+        switch (method.getName())
+            {
+            case "open": // FileChannel open(ReadOption read=Read, WriteOption... write=[Write])
+                {
+                ObjectHandle hRead  = ahArg[0];
+                ObjectHandle hWrite = ahArg[1];
+
+                Set<OpenOption> setOptions = new HashSet<>();
+
+                // ReadOption: NoRead, Read, Exclusive
+                int     nRead      = hRead == ObjectHandle.DEFAULT ? 1 : ((EnumHandle) hRead).getValue();
+                boolean fRead      = nRead != 0;
+                boolean fWrite     = false;
+                boolean fExclusive = nRead == 2;
+
+                if (fRead)
+                    {
+                    setOptions.add(StandardOpenOption.READ);
+                    }
+
+                if (hWrite == ObjectHandle.DEFAULT)
+                    {
+                    fWrite = true;
+                    }
+                else
+                    {
+                    GenericArrayHandle hOptions = (GenericArrayHandle) hWrite;
+                    for (int i = 0, c = hOptions.m_cSize; i < c; i++)
+                        {
+                        // WriteOption: NoWrite, Write, Ensure, Create, Sparse, Temp, Truncate,
+                        //              Append, Exclusive, SyncData, SyncAll
+                        int nWrite = ((EnumHandle) hOptions.m_ahValue[hOptions.m_ofStart + i]).getValue();
+                        switch (nWrite)
+                            {
+                            case 0:
+                                continue;
+
+                            case 2:
+                                setOptions.add(StandardOpenOption.CREATE);
+                                break;
+
+                            case 3:
+                                setOptions.add(StandardOpenOption.CREATE_NEW);
+                                break;
+
+                            case 4:
+                                setOptions.add(StandardOpenOption.CREATE_NEW);
+                                setOptions.add(StandardOpenOption.SPARSE);
+                                break;
+
+                            case 5:
+                                setOptions.add(StandardOpenOption.CREATE_NEW);
+                                setOptions.add(StandardOpenOption.DELETE_ON_CLOSE);
+                                break;
+
+                            case 6:
+                                setOptions.add(StandardOpenOption.TRUNCATE_EXISTING);
+                                break;
+
+                            case 7:
+                                setOptions.add(StandardOpenOption.APPEND);
+                                break;
+
+                            case 8:
+                                fExclusive = true;
+                                break;
+
+                            case 9:
+                                setOptions.add(StandardOpenOption.DSYNC);
+                                break;
+
+                            case 10:
+                                setOptions.add(StandardOpenOption.SYNC);
+                                break;
+                            }
+                        fWrite = true;
+                        }
+                    }
+
+                if (fWrite)
+                    {
+                    setOptions.add(StandardOpenOption.WRITE);
+                    }
+
+                try
+                    {
+                    ObjectHandle hChannel = xOSFileChannel.INSTANCE.open(
+                            hNode.f_path, setOptions, fRead, fWrite, fExclusive);
+                    if (fWrite)
+                        {
+                        // the file may have been created or truncated
+                        hNode.invalidateAttributes();
+                        }
+                    return frame.assignValue(iReturn, hChannel);
+                    }
+                catch (IOException e)
+                    {
+                    return raisePathException(frame, e, hNode);
+                    }
+                catch (IllegalArgumentException e)
+                    {
+                    return frame.raiseException(xException.illegalArgument(frame, e.getMessage()));
+                    }
+                }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
     }
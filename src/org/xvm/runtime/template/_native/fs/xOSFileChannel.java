@@ -0,0 +1,1007 @@
+package org.xvm.runtime.template._native.fs;
+
+
+import java.io.IOException;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+
+import java.util.Set;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Fiber;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ArrayHandle;
+import org.xvm.runtime.ObjectHandle.ExceptionHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.ServiceContext.Response;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+import org.xvm.runtime.Utils;
+
+import org.xvm.runtime.template.collections.xArray.GenericArrayHandle;
+
+import org.xvm.runtime.template.io.xByteBuffer.ByteBufferHandle;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xInt64;
+import org.xvm.runtime.template.xNullable;
+
+
+/**
+ * Native OSFileChannel implementation.
+ *
+ * The channel is a java.nio.channels.FileChannel that reads into and writes from the
+ * java.nio.ByteBuffer held by the native io.ByteBuffer handles, so there is no copying between
+ * the Ecstasy and the Java "worlds". The transfers that are larger than {@link #SYNC_LIMIT} (as
+ * well as the "flush" operation) are performed by the I/O thread pool, while the calling fiber
+ * is waiting for the result to come back via the service's response queue; the smaller transfers
+ * are performed synchronously, since they would mostly be served by the OS page cache anyway.
+ *
+ * Read-only channels for files larger than {@link #MAP_THRESHOLD} are memory-mapped when opened;
+ * all the reads for such a channel are served from the mapping without any system calls.
+ */
+public class xOSFileChannel
+        extends ClassTemplate
+    {
+    public static xOSFileChannel INSTANCE;
+
+    public xOSFileChannel(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        ClassTemplate templateChannel = f_templates.getTemplate("fs.FileChannel");
+
+        s_clzChannel = ensureClass(getCanonicalType(), templateChannel.getCanonicalType());
+
+        markNativeProperty("readable");
+        markNativeProperty("writable");
+        markNativeProperty("size");
+        markNativeProperty("position");
+
+        markNativeMethod("read", new String[] {"io.Buffer<UInt8>", "Int64"}, null);
+        markNativeMethod("read", new String[] {"collections.Array<io.Buffer<UInt8>>", "Int64"}, null);
+        markNativeMethod("write", new String[] {"io.Buffer<UInt8>"}, null);
+        markNativeMethod("write", new String[] {"collections.Array<io.Buffer<UInt8>>"}, null);
+        markNativeMethod("readAt", null, null);
+        markNativeMethod("writeAt", null, null);
+        markNativeMethod("flush", VOID, VOID);
+        markNativeMethod("close", VOID, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        ChannelHandle hChannel = (ChannelHandle) hTarget;
+
+        switch (sPropName)
+            {
+            case "readable":
+                return frame.assignValue(iReturn, xBoolean.makeHandle(hChannel.f_fReadable));
+
+            case "writable":
+                return frame.assignValue(iReturn, xBoolean.makeHandle(hChannel.f_fWritable));
+
+            case "size":
+                try
+                    {
+                    return frame.assignValue(iReturn, xInt64.makeHandle(hChannel.f_channel.size()));
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(makeIOException(frame, e));
+                    }
+
+            case "position":
+                try
+                    {
+                    return frame.assignValue(iReturn, xInt64.makeHandle(hChannel.getPosition()));
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(makeIOException(frame, e));
+                    }
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNativeSet(Frame frame, ObjectHandle hTarget, String sPropName, ObjectHandle hValue)
+        {
+        ChannelHandle hChannel = (ChannelHandle) hTarget;
+        FileChannel   channel  = hChannel.f_channel;
+        long          lValue   = ((JavaLong) hValue).getValue();
+
+        if (lValue < 0)
+            {
+            return frame.raiseException(
+                xException.illegalArgument(frame, "Invalid " + sPropName + ": " + lValue));
+            }
+
+        try
+            {
+            switch (sPropName)
+                {
+                case "size":
+                    {
+                    if (!hChannel.f_fWritable)
+                        {
+                        return frame.raiseException(xException.readOnly(frame));
+                        }
+
+                    long cbSize = channel.size();
+                    if (lValue < cbSize)
+                        {
+                        channel.truncate(lValue);
+                        }
+                    else if (lValue > cbSize)
+                        {
+                        channel.write(ByteBuffer.allocate(1), lValue - 1);
+                        }
+                    return Op.R_NEXT;
+                    }
+
+                case "position":
+                    hChannel.setPosition(lValue);
+                    return Op.R_NEXT;
+                }
+            }
+        catch (IOException e)
+            {
+            return frame.raiseException(makeIOException(frame, e));
+            }
+
+        return super.invokeNativeSet(frame, hTarget, sPropName, hValue);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        ChannelHandle hChannel = (ChannelHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "write": // Int write(Buffer<Byte> buffer)
+                {
+                ByteBuffer buffer = getBuffer(hArg, false);
+                if (buffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+                if (!hChannel.f_fWritable)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
+                return complete(frame, buffer.remaining(), () ->
+                    {
+                    FileChannel channel = hChannel.f_channel;
+                    long        cTotal  = 0;
+                    while (buffer.hasRemaining())
+                        {
+                        cTotal += channel.write(buffer);
+                        }
+                    return new long[] {cTotal};
+                    }, iReturn);
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        ChannelHandle hChannel = (ChannelHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "writeAt": // Int writeAt(Int offset, Buffer<Byte> buffer)
+                {
+                long       lOffset = ((JavaLong) ahArg[0]).getValue();
+                ByteBuffer buffer  = getBuffer(ahArg[1], false);
+                if (buffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+                if (!hChannel.f_fWritable)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+                if (lOffset < 0)
+                    {
+                    return frame.raiseException(
+                        xException.illegalArgument(frame, "Invalid offset: " + lOffset));
+                    }
+
+                return complete(frame, buffer.remaining(), () ->
+                    {
+                    FileChannel channel = hChannel.f_channel;
+                    long        cTotal  = 0;
+                    while (buffer.hasRemaining())
+                        {
+                        cTotal += channel.write(buffer, lOffset + cTotal);
+                        }
+                    return new long[] {cTotal};
+                    }, iReturn);
+                }
+
+            case "flush":
+                if (!hChannel.f_fWritable)
+                    {
+                    return Op.R_NEXT;
+                    }
+
+                return complete(frame, Long.MAX_VALUE, () ->
+                    {
+                    hChannel.f_channel.force(true);
+                    return null;
+                    }, iReturn);
+
+            case "close":
+                try
+                    {
+                    hChannel.f_channel.close();
+                    return Op.R_NEXT;
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(makeIOException(frame, e));
+                    }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                              ObjectHandle[] ahArg, int[] aiReturn)
+        {
+        ChannelHandle hChannel = (ChannelHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "read":
+                {
+                if (!hChannel.f_fReadable)
+                    {
+                    return frame.raiseException(
+                        xException.unsupportedOperation(frame, "Channel is not readable"));
+                    }
+
+                ObjectHandle hMin = ahArg[1];
+                long         cMin = hMin instanceof JavaLong
+                        ? ((JavaLong) hMin).getValue()
+                        : Long.MAX_VALUE;
+
+                if (ahArg[0] instanceof ArrayHandle)
+                    {
+                    // conditional (Int, Int) read(Buffer<Byte>[] buffers, Int minBytes = Int.maxvalue)
+                    ByteBuffer[] abuffer = getBuffers((ArrayHandle) ahArg[0], true);
+                    if (abuffer == null)
+                        {
+                        return raiseUnsupportedBuffer(frame);
+                        }
+                    if (isAnyReadOnly(abuffer))
+                        {
+                        return frame.raiseException(xException.readOnly(frame));
+                        }
+
+                    return complete(frame, hChannel.isMapped() ? 0 : remaining(abuffer),
+                        () -> hChannel.read(abuffer, cMin), aiReturn, true);
+                    }
+
+                // conditional Int read(Buffer<Byte> buffer, Int minBytes = Int.maxvalue)
+                ByteBuffer buffer = getBuffer(ahArg[0], true);
+                if (buffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+                if (buffer.isReadOnly())
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
+                return complete(frame, hChannel.isMapped() ? 0 : buffer.remaining(),
+                    () -> hChannel.read(buffer, cMin), aiReturn, true);
+                }
+
+            case "write": // (Int, Int) write(Buffer<Byte>[] buffers)
+                {
+                if (!hChannel.f_fWritable)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
+                ByteBuffer[] abuffer = getBuffers((ArrayHandle) ahArg[0], false);
+                if (abuffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+
+                return complete(frame, remaining(abuffer), () ->
+                    {
+                    FileChannel channel = hChannel.f_channel;
+                    long        cTotal  = 0;
+                    int         iNext   = nextRemaining(abuffer, 0);
+                    while (iNext < abuffer.length)
+                        {
+                        cTotal += channel.write(abuffer, iNext, abuffer.length - iNext);
+                        iNext   = nextRemaining(abuffer, iNext);
+                        }
+                    return new long[] {cTotal, iNext};
+                    }, aiReturn, false);
+                }
+
+            case "readAt": // conditional Int readAt(Int offset, Buffer<Byte> buffer)
+                {
+                if (!hChannel.f_fReadable)
+                    {
+                    return frame.raiseException(
+                        xException.unsupportedOperation(frame, "Channel is not readable"));
+                    }
+
+                long       lOffset = ((JavaLong) ahArg[0]).getValue();
+                ByteBuffer buffer  = getBuffer(ahArg[1], true);
+                if (buffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+                if (buffer.isReadOnly())
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+                if (lOffset < 0)
+                    {
+                    return frame.raiseException(
+                        xException.illegalArgument(frame, "Invalid offset: " + lOffset));
+                    }
+
+                return complete(frame, hChannel.isMapped() ? 0 : buffer.remaining(),
+                    () -> hChannel.readAt(lOffset, buffer), aiReturn, true);
+                }
+            }
+
+        return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
+        }
+
+
+    // ----- channel operations --------------------------------------------------------------------
+
+    /**
+     * Open a channel for the specified file.
+     *
+     * @param path        the file path
+     * @param setOptions  the options to open the file with
+     * @param fRead       true iff the channel should be readable
+     * @param fWrite      true iff the channel should be writable
+     * @param fExclusive  true iff the channel should hold a lock for the entire file
+     *
+     * @return a new channel handle
+     */
+    public ChannelHandle open(Path path, Set<OpenOption> setOptions,
+                              boolean fRead, boolean fWrite, boolean fExclusive)
+            throws IOException
+        {
+        FileChannel channel = FileChannel.open(path, setOptions);
+        try
+            {
+            if (fExclusive)
+                {
+                // a read-only channel can only hold a shared lock
+                FileLock lock = channel.tryLock(0, Long.MAX_VALUE, !fWrite);
+                if (lock == null)
+                    {
+                    throw new IOException("File is locked: " + path);
+                    }
+                }
+
+            ByteBuffer bufMapped = null;
+            if (fRead && !fWrite)
+                {
+                long cbSize = channel.size();
+                if (cbSize >= MAP_THRESHOLD && cbSize <= Integer.MAX_VALUE)
+                    {
+                    bufMapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, cbSize);
+                    }
+                }
+
+            return new ChannelHandle(s_clzChannel, channel, fRead, fWrite, bufMapped);
+            }
+        catch (IOException | RuntimeException e)
+            {
+            channel.close();
+            throw e;
+            }
+        }
+
+    /**
+     * Perform the I/O operation producing a single Int result.
+     *
+     * @param frame    the current frame
+     * @param cbSize   the number of bytes the operation is about to transfer
+     * @param action   the operation
+     * @param iReturn  the register id to place the result into
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION} values
+     */
+    protected int complete(Frame frame, long cbSize, IOAction action, int iReturn)
+        {
+        if (cbSize <= SYNC_LIMIT)
+            {
+            try
+                {
+                long[] alResult = action.perform();
+                return alResult == null
+                        ? Op.R_NEXT
+                        : frame.assignValue(iReturn, xInt64.makeHandle(alResult[0]));
+                }
+            catch (IOException | RuntimeException e)
+                {
+                return frame.raiseException(makeException(frame, e));
+                }
+            }
+
+        CompletableFuture<ObjectHandle> cfResult =
+            performAsync(frame, action, false).thenApply(ahResult -> ahResult[0]);
+        return frame.assignFutureResult(iReturn, cfResult);
+        }
+
+    /**
+     * Perform the I/O operation producing multiple results.
+     *
+     * @param frame         the current frame
+     * @param cbSize        the number of bytes the operation is about to transfer
+     * @param action        the operation
+     * @param aiReturn      the registers to place the results into
+     * @param fConditional  true iff the results are conditional, in which case a negative first
+     *                      result value indicates the "end-of-stream"
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION} values
+     */
+    protected int complete(Frame frame, long cbSize, IOAction action, int[] aiReturn,
+                           boolean fConditional)
+        {
+        if (cbSize <= SYNC_LIMIT)
+            {
+            try
+                {
+                ObjectHandle[] ahResult = makeResults(action.perform(), fConditional);
+                return ahResult[0] == xBoolean.FALSE
+                        ? frame.assignValue(aiReturn[0], xBoolean.FALSE)
+                        : new Utils.AssignValues(aiReturn, ahResult).proceed(frame);
+                }
+            catch (IOException | RuntimeException e)
+                {
+                return frame.raiseException(makeException(frame, e));
+                }
+            }
+
+        return frame.call(Utils.createWaitFrame(frame,
+            performAsync(frame, action, fConditional), aiReturn));
+        }
+
+    /**
+     * Schedule the I/O operation on the I/O thread pool.
+     *
+     * @return a future that is completed on the calling service's thread
+     */
+    private CompletableFuture<ObjectHandle[]> performAsync(Frame frame, IOAction action,
+                                                           boolean fConditional)
+        {
+        ServiceContext                    context  = frame.f_context;
+        Fiber                             fiber    = frame.f_fiber;
+        CompletableFuture<Object>         cfIO     = new CompletableFuture<>();
+        CompletableFuture<ObjectHandle[]> cfResult = new CompletableFuture<>();
+
+        // the response is processed by the service thread, so are all the dependent actions
+        cfIO.thenAccept(oResult ->
+            {
+            if (oResult instanceof Exception)
+                {
+                cfResult.completeExceptionally(
+                    makeException(frame, (Exception) oResult).getException());
+                }
+            else
+                {
+                cfResult.complete(makeResults((long[]) oResult, fConditional));
+                }
+            });
+
+        s_executorIO.execute(() ->
+            {
+            Object oResult;
+            try
+                {
+                long[] alResult = action.perform();
+                oResult = alResult == null ? NO_RESULT : alResult;
+                }
+            catch (IOException | RuntimeException e)
+                {
+                // the exception handle must be created on the service thread; any exception
+                // has to be reported, otherwise the waiting fiber would never resume
+                oResult = e;
+                }
+
+            context.respond(new Response<>(fiber, oResult, null, cfIO));
+            context.f_container.f_runtime.f_daemons.signal();
+            });
+
+        return cfResult;
+        }
+
+
+    // ----- helper methods ------------------------------------------------------------------------
+
+    /**
+     * @return the result handles for the specified operation results
+     */
+    private static ObjectHandle[] makeResults(long[] alResult, boolean fConditional)
+        {
+        int            cResults = alResult.length;
+        ObjectHandle[] ahResult;
+        if (fConditional)
+            {
+            ahResult = new ObjectHandle[cResults + 1];
+            if (alResult[0] < 0)
+                {
+                // the wait frame needs all the values, even though the caller only looks at the first
+                ahResult[0] = xBoolean.FALSE;
+                for (int i = 0; i < cResults; i++)
+                    {
+                    ahResult[i + 1] = xInt64.makeHandle(0);
+                    }
+                return ahResult;
+                }
+            ahResult[0] = xBoolean.TRUE;
+            }
+        else
+            {
+            ahResult = new ObjectHandle[cResults];
+            }
+
+        for (int i = 0, of = ahResult.length - cResults; i < cResults; i++)
+            {
+            ahResult[i + of] = xInt64.makeHandle(alResult[i]);
+            }
+        return ahResult;
+        }
+
+    /**
+     * @param hBuffer  the Buffer handle
+     * @param fWrite   true iff the channel is going to write into the buffer
+     *
+     * @return the ByteBuffer held by the specified Buffer handle or null if the buffer is not
+     *         a native one
+     */
+    private static ByteBuffer getBuffer(ObjectHandle hBuffer, boolean fWrite)
+        {
+        if (hBuffer instanceof ByteBufferHandle)
+            {
+            ByteBufferHandle h = (ByteBufferHandle) hBuffer;
+            return fWrite ? h.getWritableBuffer() : h.getBuffer();
+            }
+        return null;
+        }
+
+    /**
+     * @return the ByteBuffers held by the specified array of Buffer handles or null if any of the
+     *         buffers is not a native one
+     */
+    private static ByteBuffer[] getBuffers(ArrayHandle hArray, boolean fWrite)
+        {
+        if (!(hArray instanceof GenericArrayHandle))
+            {
+            return null;
+            }
+
+        GenericArrayHandle hBuffers = (GenericArrayHandle) hArray;
+        ObjectHandle[]     ahBuffer = hBuffers.m_ahValue;
+        int                ofStart  = hBuffers.m_ofStart;
+        int                cBuffers = hBuffers.m_cSize;
+        ByteBuffer[]       abuffer  = new ByteBuffer[cBuffers];
+
+        for (int i = 0; i < cBuffers; i++)
+            {
+            ByteBuffer buffer = getBuffer(ahBuffer[ofStart + i], fWrite);
+            if (buffer == null)
+                {
+                return null;
+                }
+            abuffer[i] = buffer;
+            }
+        return abuffer;
+        }
+
+    private static boolean isAnyReadOnly(ByteBuffer[] abuffer)
+        {
+        for (ByteBuffer buffer : abuffer)
+            {
+            if (buffer.isReadOnly())
+                {
+                return true;
+                }
+            }
+        return false;
+        }
+
+    /**
+     * @return the total number of bytes remaining in the specified buffers
+     */
+    private static long remaining(ByteBuffer[] abuffer)
+        {
+        long cb = 0;
+        for (ByteBuffer buffer : abuffer)
+            {
+            cb += buffer.remaining();
+            }
+        return cb;
+        }
+
+    /**
+     * @return the index of the first buffer starting at the specified index that has any bytes
+     *         remaining or the number of buffers if there is none
+     */
+    private static int nextRemaining(ByteBuffer[] abuffer, int iStart)
+        {
+        int i = iStart;
+        while (i < abuffer.length && !abuffer[i].hasRemaining())
+            {
+            ++i;
+            }
+        return i;
+        }
+
+    private int raiseUnsupportedBuffer(Frame frame)
+        {
+        return frame.raiseException(
+            xException.illegalArgument(frame, "Unsupported buffer; use io.ByteBuffer"));
+        }
+
+    /**
+     * @return an Ecstasy exception handle for the specified Java exception thrown by an I/O
+     *         operation
+     */
+    private static ExceptionHandle makeException(Frame frame, Exception e)
+        {
+        if (e instanceof IOException)
+            {
+            return makeIOException(frame, (IOException) e);
+            }
+
+        if (e instanceof NonReadableChannelException)
+            {
+            return xException.unsupportedOperation(frame, "Channel is not readable");
+            }
+
+        if (e instanceof NonWritableChannelException || e instanceof ReadOnlyBufferException)
+            {
+            return xException.readOnly(frame);
+            }
+
+        String sMsg = e.getMessage();
+        if (sMsg == null)
+            {
+            sMsg = e.toString();
+            }
+        return e instanceof BufferOverflowException || e instanceof BufferUnderflowException
+                || e instanceof IllegalArgumentException
+            ? xException.illegalArgument(frame, sMsg)
+            : xException.illegalState(frame, sMsg);
+        }
+
+    /**
+     * @return an IOException handle for the specified Java exception
+     */
+    private static ExceptionHandle makeIOException(Frame frame, IOException e)
+        {
+        String sMsg = e.getMessage();
+        return xException.pathException(frame, sMsg == null ? e.toString() : sMsg, xNullable.NULL);
+        }
+
+
+    // ----- IOAction ------------------------------------------------------------------------------
+
+    /**
+     * An I/O operation that could be performed either synchronously or by the I/O thread pool.
+     */
+    @FunctionalInterface
+    protected interface IOAction
+        {
+        /**
+         * Perform the operation.
+         *
+         * @return the operation results or null if there are none
+         */
+        long[] perform()
+                throws IOException;
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The FileChannel handle.
+     */
+    public static class ChannelHandle
+            extends ObjectHandle
+        {
+        protected ChannelHandle(TypeComposition clazz, FileChannel channel,
+                                boolean fReadable, boolean fWritable, ByteBuffer bufMapped)
+            {
+            super(clazz);
+
+            m_fMutable  = true;
+            f_channel   = channel;
+            f_fReadable = fReadable;
+            f_fWritable = fWritable;
+            f_bufMapped = bufMapped;
+            }
+
+        /**
+         * @return true iff the reads are served by the memory-mapped file content
+         */
+        public boolean isMapped()
+            {
+            return f_bufMapped != null;
+            }
+
+        /**
+         * @return the channel position
+         */
+        public long getPosition()
+                throws IOException
+            {
+            ensureOpen();
+            return isMapped() ? m_lPosition : f_channel.position();
+            }
+
+        /**
+         * Set the channel position.
+         */
+        public void setPosition(long lPosition)
+                throws IOException
+            {
+            if (isMapped())
+                {
+                ensureOpen();
+                m_lPosition = lPosition;
+                }
+            else
+                {
+                f_channel.position(lPosition);
+                }
+            }
+
+        /**
+         * Read into the specified buffer until it's filled, the end of the file is reached or
+         * at least the specified number of bytes is read.
+         *
+         * @return a single element array holding the number of bytes read or -1 for the EOF
+         */
+        protected long[] read(ByteBuffer buffer, long cMin)
+                throws IOException
+            {
+            long cTotal = 0;
+            while (buffer.hasRemaining() && cTotal < cMin)
+                {
+                int cb = isMapped()
+                        ? readMapped(buffer)
+                        : f_channel.read(buffer);
+                if (cb < 0)
+                    {
+                    return new long[] {cTotal == 0 ? -1 : cTotal};
+                    }
+                cTotal += cb;
+                }
+            return new long[] {cTotal};
+            }
+
+        /**
+         * Scatter-read into the specified buffers until they are all filled, the end of the file
+         * is reached or at least the specified number of bytes is read.
+         *
+         * @return the number of bytes read (or -1 for the EOF) and the index of the next buffer
+         *         to read into
+         */
+        protected long[] read(ByteBuffer[] abuffer, long cMin)
+                throws IOException
+            {
+            int  cBuffers = abuffer.length;
+            int  iNext    = nextRemaining(abuffer, 0);
+            long cTotal   = 0;
+            while (iNext < cBuffers && cTotal < cMin)
+                {
+                long cb = isMapped()
+                        ? readMapped(abuffer[iNext])
+                        : f_channel.read(abuffer, iNext, cBuffers - iNext);
+                if (cb < 0)
+                    {
+                    if (cTotal == 0)
+                        {
+                        return new long[] {-1, iNext};
+                        }
+                    break;
+                    }
+                cTotal += cb;
+                iNext   = nextRemaining(abuffer, iNext);
+                }
+            return new long[] {cTotal, iNext};
+            }
+
+        /**
+         * Read into the specified buffer starting at the specified file offset until the buffer
+         * is filled or the end of the file is reached.
+         *
+         * @return a single element array holding the number of bytes read or -1 for the EOF
+         */
+        protected long[] readAt(long lOffset, ByteBuffer buffer)
+                throws IOException
+            {
+            long cTotal = 0;
+            while (buffer.hasRemaining())
+                {
+                int cb = isMapped()
+                        ? copyMapped(lOffset + cTotal, buffer)
+                        : f_channel.read(buffer, lOffset + cTotal);
+                if (cb < 0)
+                    {
+                    return new long[] {cTotal == 0 ? -1 : cTotal};
+                    }
+                cTotal += cb;
+                }
+            return new long[] {cTotal};
+            }
+
+        /**
+         * Read from the mapped content at the current position.
+         *
+         * @return the number of bytes read or -1 for the EOF
+         */
+        private int readMapped(ByteBuffer buffer)
+                throws IOException
+            {
+            int cb = copyMapped(m_lPosition, buffer);
+            if (cb > 0)
+                {
+                m_lPosition += cb;
+                }
+            return cb;
+            }
+
+        /**
+         * Copy the mapped content starting at the specified offset into the buffer.
+         *
+         * @return the number of bytes copied or -1 for the EOF
+         */
+        private int copyMapped(long lOffset, ByteBuffer buffer)
+                throws IOException
+            {
+            ensureOpen();
+
+            ByteBuffer bufMapped = f_bufMapped;
+            int        cbMapped  = bufMapped.capacity();
+            if (lOffset >= cbMapped)
+                {
+                return -1;
+                }
+
+            int        of  = (int) lOffset;
+            int        cb  = Math.min(cbMapped - of, buffer.remaining());
+            ByteBuffer src = bufMapped.duplicate();
+
+            src.limit(of + cb).position(of);
+            buffer.put(src);
+            return cb;
+            }
+
+        private void ensureOpen()
+                throws IOException
+            {
+            if (!f_channel.isOpen())
+                {
+                throw new ClosedChannelException();
+                }
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + f_channel;
+            }
+
+        /**
+         * The underlying FileChannel.
+         */
+        protected final FileChannel f_channel;
+
+        /**
+         * The channel's access mode.
+         */
+        protected final boolean f_fReadable;
+        protected final boolean f_fWritable;
+
+        /**
+         * The mapped file content (read-only); null if the channel is not mapped.
+         */
+        protected final ByteBuffer f_bufMapped;
+
+        /**
+         * The channel position for a mapped channel.
+         */
+        protected long m_lPosition;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The transfer size (in bytes) above which the operations are performed asynchronously.
+     */
+    private static final long SYNC_LIMIT = 64 * 1024;
+
+    /**
+     * The file size (in bytes) at which the read-only channels get memory-mapped.
+     */
+    private static final long MAP_THRESHOLD = 4 * 1024 * 1024;
+
+    /**
+     * A place holder result of an operation that doesn't produce any.
+     */
+    private static final long[] NO_RESULT = new long[] {0};
+
+    /**
+     * The I/O thread pool.
+     */
+    private static final ExecutorService s_executorIO = Executors.newCachedThreadPool(runnable ->
+        {
+        Thread thread = new Thread(runnable, "FileChannelIO");
+        thread.setDaemon(true);
+        return thread;
+        });
+
+    private static ClassComposition s_clzChannel;
+    }
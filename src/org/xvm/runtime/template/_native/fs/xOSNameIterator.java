@@ -0,0 +1,295 @@
+package org.xvm.runtime.template._native.fs;
+
+
+import java.io.IOException;
+
+import java.lang.ref.Cleaner;
+
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Iterator;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+import org.xvm.runtime.Utils;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xNullable;
+import org.xvm.runtime.template.xString;
+
+
+/**
+ * Native OSNameIterator implementation.
+ */
+public class xOSNameIterator
+        extends ClassTemplate
+    {
+    public static xOSNameIterator INSTANCE;
+
+    public xOSNameIterator(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        markNativeMethod("next", VOID, null);
+        markNativeMethod("close", VOID, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                              ObjectHandle[] ahArg, int[] aiReturn)
+        {
+        IteratorHandle hIter = (IteratorHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "next": // conditional String next()
+                {
+                String sName;
+                try
+                    {
+                    sName = hIter.nextName();
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(
+                        xException.pathException(frame, e.getMessage(), xNullable.NULL));
+                    }
+
+                return sName == null
+                        ? frame.assignValue(aiReturn[0], xBoolean.FALSE)
+                        : new Utils.AssignValues(aiReturn, new ObjectHandle[]
+                            {xBoolean.TRUE, xString.makeHandle(sName)}).proceed(frame);
+                }
+            }
+
+        return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        IteratorHandle hIter = (IteratorHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "close": // void close()
+                try
+                    {
+                    hIter.close();
+                    return Op.R_NEXT;
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(
+                        xException.pathException(frame, e.getMessage(), xNullable.NULL));
+                    }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    /**
+     * Create an iterator handle over the names of the specified directory's children.
+     *
+     * @param pathDir  the directory path
+     *
+     * @return the iterator handle
+     */
+    public IteratorHandle makeHandle(Path pathDir)
+        {
+        return new IteratorHandle(getCanonicalClass(), pathDir);
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The iterator handle; the directory stream is opened by the first "next()" call and closed
+     * when the iterator is exhausted, fails or is closed. A stream of an iterator that has been
+     * abandoned before that is closed once the handle is garbage-collected.
+     */
+    public static class IteratorHandle
+            extends ObjectHandle
+        {
+        protected IteratorHandle(TypeComposition clazz, Path pathDir)
+            {
+            super(clazz);
+
+            m_fMutable = true;
+            f_pathDir  = pathDir;
+            f_holder   = new StreamHolder();
+
+            CLEANER.register(this, f_holder);
+            }
+
+        /**
+         * @return the next name or null if the iterator is exhausted
+         */
+        protected String nextName()
+                throws IOException
+            {
+            if (m_fDone)
+                {
+                return null;
+                }
+
+            try
+                {
+                Iterator<Path> iter = m_iter;
+                if (iter == null)
+                    {
+                    m_iter = iter = f_holder.open(f_pathDir).iterator();
+                    }
+
+                if (iter.hasNext())
+                    {
+                    return iter.next().getFileName().toString();
+                    }
+                }
+            catch (DirectoryIteratorException e)
+                {
+                throw closeOnFailure(e.getCause());
+                }
+            catch (IOException e)
+                {
+                throw closeOnFailure(e);
+                }
+            catch (RuntimeException e)
+                {
+                throw closeOnFailure(e);
+                }
+
+            close();
+            return null;
+            }
+
+        /**
+         * Close the directory stream after the specified failure.
+         *
+         * @return the failure to re-throw
+         */
+        private <E extends Exception> E closeOnFailure(E e)
+            {
+            try
+                {
+                close();
+                }
+            catch (IOException eClose)
+                {
+                e.addSuppressed(eClose);
+                }
+            return e;
+            }
+
+        /**
+         * Close the directory stream; the iterator is exhausted from now on.
+         */
+        protected void close()
+                throws IOException
+            {
+            m_fDone = true;
+            m_iter  = null;
+            f_holder.close();
+            }
+
+        /**
+         * The directory.
+         */
+        protected final Path f_pathDir;
+
+        /**
+         * The holder of the directory stream, which is shared with the {@link #CLEANER}.
+         */
+        private final StreamHolder f_holder;
+
+        /**
+         * The directory stream iterator.
+         */
+        private Iterator<Path> m_iter;
+
+        /**
+         * True iff the iterator is exhausted.
+         */
+        private boolean m_fDone;
+        }
+
+    /**
+     * The holder of a directory stream. It must not refer to the handle it belongs to, so that the
+     * handle can become unreachable and the {@link #CLEANER} can close the stream.
+     */
+    static class StreamHolder
+            implements Runnable
+        {
+        DirectoryStream<Path> open(Path pathDir)
+                throws IOException
+            {
+            return m_stream = Files.newDirectoryStream(pathDir);
+            }
+
+        void close()
+                throws IOException
+            {
+            DirectoryStream<Path> stream = m_stream;
+            if (stream != null)
+                {
+                m_stream = null;
+                stream.close();
+                }
+            }
+
+        @Override
+        public void run()
+            {
+            try
+                {
+                close();
+                }
+            catch (IOException e)
+                {
+                // nothing to report to; the handle is gone
+                }
+            }
+
+        /**
+         * The directory stream, if open (the Cleaner closes it on its own thread).
+         */
+        private volatile DirectoryStream<Path> m_stream;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The Cleaner that closes the directory streams of the abandoned iterators.
+     */
+    static final Cleaner CLEANER = Cleaner.create();
+    }
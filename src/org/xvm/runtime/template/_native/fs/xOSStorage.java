@@ -3,17 +3,30 @@ package org.xvm.runtime.template._native.fs;
 
 import java.io.IOException;
 
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.MethodStructure;
@@ -27,12 +40,15 @@ import org.xvm.runtime.ObjectHandle.ExceptionHandle;
 import org.xvm.runtime.TemplateRegistry;
 import org.xvm.runtime.Utils;
 
+import org.xvm.runtime.template._native.fs.OSFileNode.AttributeSnapshot;
+
 import org.xvm.runtime.template.collections.xArray;
+import org.xvm.runtime.template.collections.xArray.Mutability;
+import org.xvm.runtime.template.collections.xIntArray;
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xFunction;
 import org.xvm.runtime.template.xFunction.FunctionHandle;
-import org.xvm.runtime.template.xInt64;
 import org.xvm.runtime.template.xNullable;
 import org.xvm.runtime.template.xService;
 import org.xvm.runtime.template.xString;
@@ -53,7 +69,7 @@ public class xOSStorage
     @Override
     public void initDeclared()
         {
-        s_methodOnEvent = f_struct.findMethod("onEvent", null, null);
+        s_methodOnEvents = f_struct.findMethod("onEvents", null, null);
 
         markNativeProperty("homeDir");
         markNativeProperty("curDir");
@@ -61,6 +77,7 @@ public class xOSStorage
 
         markNativeMethod("find", new String[] {"_native.fs.OSFileStore", "String"}, null);
         markNativeMethod("names", STRING, null);
+        markNativeMethod("nodes", new String[] {"_native.fs.OSFileStore", "String"}, null);
         markNativeMethod("createDir", STRING, BOOLEAN);
         markNativeMethod("createFile", STRING, BOOLEAN);
         markNativeMethod("delete", STRING, BOOLEAN);
@@ -178,8 +195,12 @@ public class xOSStorage
 
                 try
                     {
-                    return frame.assignValue(iReturn,
-                        xBoolean.makeHandle(path.toFile().createNewFile()));
+                    Files.createDirectory(path);
+                    return frame.assignValue(iReturn, xBoolean.TRUE);
+                    }
+                catch (FileAlreadyExistsException e)
+                    {
+                    return frame.assignValue(iReturn, xBoolean.FALSE);
                     }
                 catch (IOException e)
                     {
@@ -234,6 +255,25 @@ public class xOSStorage
 
         switch (method.getName())
             {
+            case "nodes":  // (store, pathString)
+                {
+                ObjectHandle hStore      = ahArg[0];
+                StringHandle hPathString = (StringHandle) ahArg[1];
+
+                Path                    pathDir   =
+                        Paths.get(hPathString.getStringValue()).toAbsolutePath();
+                List<Path>              listPath  = new ArrayList<>();
+                List<AttributeSnapshot> listAttrs = new ArrayList<>();
+                try
+                    {
+                    listNodes(pathDir, listPath, listAttrs);
+                    }
+                catch (IOException e)
+                    {
+                    return raisePathException(frame, e, pathDir.toString());
+                    }
+                return OSFileNode.createHandles(frame, hStore, listPath, listAttrs, iReturn);
+                }
             }
         return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
         }
@@ -257,12 +297,15 @@ public class xOSStorage
                 ObjectHandle hStore      = ahArg[0];
                 StringHandle hPathString = (StringHandle) ahArg[1];
 
-                Path path = Paths.get(hPathString.getStringValue());
-                if (Files.exists(path))
+                Path              path     =
+                        Paths.get(hPathString.getStringValue()).toAbsolutePath();
+                AttributeSnapshot snapshot = AttributeSnapshot.load(path);
+                if (snapshot.f_attrs != null)
                     {
                     return Utils.assignConditionalResult(
                         frame,
-                        OSFileNode.createHandle(frame, hStore, path, Files.isDirectory(path), Op.A_STACK),
+                        OSFileNode.createHandle(frame, hStore, path, snapshot.isDirectory(),
+                            snapshot, Op.A_STACK),
                         aiReturn);
                     }
                 return frame.assignValue(aiReturn[0], xBoolean.FALSE);
@@ -274,6 +317,43 @@ public class xOSStorage
 
     // ----- helper methods ------------------------------------------------------------------------
 
+    /**
+     * Collect the children of the specified directory together with their attributes in a single
+     * pass over the directory.
+     *
+     * @param pathDir    the directory
+     * @param listPath   the list to add the child paths to
+     * @param listAttrs  the list to add the corresponding attribute snapshots to
+     */
+    protected static void listNodes(Path pathDir, List<Path> listPath,
+                                    List<AttributeSnapshot> listAttrs)
+            throws IOException
+        {
+        long lStamp = OSFileNode.getDirStamp(pathDir);
+
+        Files.walkFileTree(pathDir, EnumSet.noneOf(FileVisitOption.class), 1,
+            new SimpleFileVisitor<Path>()
+                {
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attrs)
+                    {
+                    // the walk doesn't follow the links, but the nodes do
+                    listPath.add(path);
+                    listAttrs.add(attrs.isSymbolicLink()
+                            ? AttributeSnapshot.load(path)
+                            : new AttributeSnapshot(attrs, lStamp));
+                    return FileVisitResult.CONTINUE;
+                    }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException e)
+                    {
+                    // the node has disappeared or is not accessible; skip it
+                    return FileVisitResult.CONTINUE;
+                    }
+                });
+        }
+
     protected static synchronized WatchServiceDaemon ensureWatchDaemon()
         {
         WatchServiceDaemon daemonWatch = s_daemonWatch;
@@ -298,6 +378,16 @@ public class xOSStorage
         return frame.raiseException(xException.pathException(frame, e.getMessage(), xNullable.NULL));
         }
 
+    /**
+     * The daemon that turns the file system watch events into the OSStorage "onEvents" calls.
+     *
+     * The events are not delivered one by one; instead, the daemon collects the events for each
+     * watched directory during a "window" (see {@link #WATCH_WINDOW_MILLIS}), collapsing the
+     * repeated events for the same path, and then delivers them all with a single call. If the
+     * underlying watch service reports an overflow (some events were lost), the directory is
+     * re-scanned and compared to the content it had at the previous scan, and the differences are
+     * delivered instead.
+     */
     protected static class WatchServiceDaemon
             extends Thread
         {
@@ -315,6 +405,9 @@ public class xOSStorage
         public void register(Path pathDir, ServiceHandle hStorage)
                 throws IOException
             {
+            // take the snapshot used to recover from an overflow before any events arrive
+            Map<Path, Long> mapContent = scan(pathDir);
+
             // on Mac OS the WatchService implementation simply polls every 10 seconds;
             // for Java 9 and above there is no way to configure that
             WatchKey key = pathDir.register(
@@ -324,7 +417,8 @@ public class xOSStorage
                 StandardWatchEventKinds.ENTRY_MODIFY
                 );
 
-            f_mapWatches.put(key, new WatchContext(pathDir, hStorage));
+            f_mapWatches.put(key, new WatchContext(pathDir, hStorage, mapContent));
+            OSFileNode.onWatchStarted(pathDir);
             }
 
         @Override
@@ -334,7 +428,28 @@ public class xOSStorage
                 {
                 while (true)
                     {
-                    processKey(f_service.take());
+                    WatchKey key;
+                    if (m_ldtFlush == Long.MAX_VALUE)
+                        {
+                        key = f_service.take();
+                        }
+                    else
+                        {
+                        long cWait = m_ldtFlush - System.currentTimeMillis();
+                        key = cWait > 0 ? f_service.poll(cWait, TimeUnit.MILLISECONDS) : null;
+                        }
+
+                    // collect everything that is already available
+                    while (key != null)
+                        {
+                        processKey(key);
+                        key = f_service.poll();
+                        }
+
+                    if (System.currentTimeMillis() >= m_ldtFlush)
+                        {
+                        flush();
+                        }
                     }
                 }
             catch (InterruptedException e)
@@ -343,39 +458,146 @@ public class xOSStorage
                 }
             }
 
+        /**
+         * Collect the events for the specified key.
+         */
         protected void processKey(WatchKey key)
             {
-            if (key == null)
+            WatchContext context = f_mapWatches.get(key);
+            if (context == null)
                 {
+                key.pollEvents();
+                key.reset();
                 return;
                 }
 
+            // any change in the directory invalidates the cached attributes of its children
+            OSFileNode.onWatchEvent(context.pathDir);
+
             for (WatchEvent event : key.pollEvents())
                 {
                 int iKind = getKindId(event.kind());
-                if (iKind < 0)
+                if (iKind == -1)
+                    {
+                    context.fOverflow = true;
+                    }
+                else if (iKind >= 0)
+                    {
+                    context.add(context.pathDir.resolve((Path) event.context()), iKind);
+                    }
+                }
+            key.reset();
+
+            if (context.isPending() && context.ldtFirst == Long.MAX_VALUE)
+                {
+                long ldtFirst = context.ldtFirst = System.currentTimeMillis();
+                m_ldtFlush = Math.min(m_ldtFlush, ldtFirst + WATCH_WINDOW_MILLIS);
+                }
+            }
+
+        /**
+         * Deliver the events for all the directories whose window has closed.
+         */
+        protected void flush()
+            {
+            long ldtNow   = System.currentTimeMillis();
+            long ldtFlush = Long.MAX_VALUE;
+
+            for (WatchContext context : f_mapWatches.values())
+                {
+                long ldtFirst = context.ldtFirst;
+                if (ldtFirst == Long.MAX_VALUE)
                     {
                     continue;
                     }
 
-                WatchContext context = f_mapWatches.get(key);
+                if (ldtNow >= ldtFirst + WATCH_WINDOW_MILLIS)
+                    {
+                    deliver(context);
+                    }
+                else
+                    {
+                    ldtFlush = Math.min(ldtFlush, ldtFirst + WATCH_WINDOW_MILLIS);
+                    }
+                }
+            m_ldtFlush = ldtFlush;
+            }
+
+        /**
+         * Deliver the collected events for the specified directory with a single call.
+         */
+        protected void deliver(WatchContext context)
+            {
+            boolean fOverflow = context.fOverflow;
+            if (fOverflow)
+                {
+                context.rescan();
+                }
+            else
+                {
+                context.applyPending();
+                }
+
+            Map<Path, Integer> mapPending = context.mapPending;
+            int                cEvents    = mapPending.size();
+            StringHandle[]     ahPath     = new StringHandle[cEvents];
+            long[]             alKind     = new long[cEvents];
+            int                i          = 0;
+            for (Map.Entry<Path, Integer> entry : mapPending.entrySet())
+                {
+                ahPath[i] = xString.makeHandle(entry.getKey().toString());
+                alKind[i] = entry.getValue();
+                ++i;
+                }
+
+            mapPending.clear();
+            context.fOverflow = false;
+            context.ldtFirst  = Long.MAX_VALUE;
 
-                Path pathDir      = context.pathDir;
-                Path pathRelative = (Path) event.context();
-                Path pathAbsolute = pathDir.resolve(pathRelative);
+            if (cEvents == 0 && !fOverflow)
+                {
+                return;
+                }
 
-                FunctionHandle hfnOnEvent = xFunction.makeHandle(s_methodOnEvent);
-                hfnOnEvent = hfnOnEvent.bind(-1, context.hStorage);
+            FunctionHandle hfnOnEvents = xFunction.makeHandle(s_methodOnEvents);
+            hfnOnEvents = hfnOnEvents.bind(-1, context.hStorage);
 
-                StringHandle hPathDir  = xString.makeHandle(pathDir.toString());
-                StringHandle hPathNode = xString.makeHandle(pathAbsolute.toString());
+            context.hStorage.m_context.callLater(hfnOnEvents, new ObjectHandle[]
+                {
+                xString.makeHandle(context.pathDir.toString()),
+                xArray.makeStringArrayHandle(ahPath),
+                xIntArray.makeHandle(alKind, Mutability.Constant),
+                xBoolean.makeHandle(fOverflow),
+                });
+            }
 
-                context.hStorage.m_context.callLater(hfnOnEvent, new ObjectHandle[]
+        /**
+         * @return the last modification times of the children of the specified directory
+         */
+        protected static Map<Path, Long> scan(Path pathDir)
+            {
+            Map<Path, Long> mapContent = new HashMap<>();
+
+            List<Path>              listPath  = new ArrayList<>();
+            List<AttributeSnapshot> listAttrs = new ArrayList<>();
+            try
+                {
+                listNodes(pathDir, listPath, listAttrs);
+                }
+            catch (IOException e)
+                {
+                return mapContent;
+                }
+
+            for (int i = 0, c = listPath.size(); i < c; i++)
+                {
+                BasicFileAttributes attrs = listAttrs.get(i).f_attrs;
+                if (attrs != null)
                     {
-                    hPathDir, hPathNode, xBoolean.TRUE, xInt64.makeHandle(iKind)
-                    });
+                    mapContent.put(listPath.get(i), attrs.lastModifiedTime().toMillis());
+                    }
                 }
-            key.reset();
+            return mapContent;
             }
 
         /**
@@ -386,15 +608,15 @@ public class xOSStorage
             {
             if (kind == StandardWatchEventKinds.ENTRY_CREATE)
                 {
-                return 0;
+                return CREATE;
                 }
             if (kind == StandardWatchEventKinds.ENTRY_MODIFY)
                 {
-                return 1;
+                return MODIFY;
                 }
             if (kind == StandardWatchEventKinds.ENTRY_DELETE)
                 {
-                return 2;
+                return DELETE;
                 }
             if (kind == StandardWatchEventKinds.OVERFLOW)
                 {
@@ -405,24 +627,162 @@ public class xOSStorage
 
         // ----- WatchContext class --------------------------------------------------------------
 
+        /**
+         * The state of a watched directory. Except for the construction, it's only accessed by
+         * the daemon thread.
+         */
         private static class WatchContext
             {
-            public WatchContext(Path pathDir, ServiceHandle hStorage)
+            public WatchContext(Path pathDir, ServiceHandle hStorage, Map<Path, Long> mapContent)
                 {
-                this.pathDir  = pathDir;
-                this.hStorage = hStorage;
+                this.pathDir    = pathDir;
+                this.hStorage   = hStorage;
+                this.mapContent = mapContent;
                 }
+
+            /**
+             * Add the specified event, collapsing it with an event already pending for the same
+             * path.
+             */
+            void add(Path path, int iKind)
+                {
+                Integer IPrev = mapPending.get(path);
+                if (IPrev == null)
+                    {
+                    mapPending.put(path, iKind);
+                    return;
+                    }
+
+                switch (IPrev * 3 + iKind)
+                    {
+                    case CREATE * 3 + MODIFY:
+                        // still a new node
+                        break;
+
+                    case CREATE * 3 + DELETE:
+                        // a transient node; nothing to report
+                        mapPending.remove(path);
+                        break;
+
+                    case DELETE * 3 + CREATE:
+                        // a replaced node
+                        mapPending.put(path, MODIFY);
+                        break;
+
+                    default:
+                        mapPending.put(path, iKind);
+                        break;
+                    }
+                }
+
+            boolean isPending()
+                {
+                return !mapPending.isEmpty() || fOverflow;
+                }
+
+            /**
+             * Bring the content snapshot up to date with the pending events.
+             */
+            void applyPending()
+                {
+                for (Map.Entry<Path, Integer> entry : mapPending.entrySet())
+                    {
+                    if (entry.getValue() == DELETE)
+                        {
+                        mapContent.remove(entry.getKey());
+                        }
+                    else
+                        {
+                        // the time is not known without reading it, which the events don't
+                        // need; an overflow would report the node as modified
+                        mapContent.put(entry.getKey(), UNKNOWN);
+                        }
+                    }
+                }
+
+            /**
+             * Replace the pending events with the differences between the current content of
+             * the directory and the content snapshot.
+             */
+            void rescan()
+                {
+                Map<Path, Long> mapOld = mapContent;
+                Map<Path, Long> mapNew = scan(pathDir);
+
+                mapPending.clear();
+                for (Map.Entry<Path, Long> entry : mapNew.entrySet())
+                    {
+                    Path path  = entry.getKey();
+                    Long LPrev = mapOld.get(path);
+                    if (LPrev == null)
+                        {
+                        mapPending.put(path, CREATE);
+                        }
+                    else if (LPrev == UNKNOWN || !LPrev.equals(entry.getValue()))
+                        {
+                        mapPending.put(path, MODIFY);
+                        }
+                    }
+                for (Path path : mapOld.keySet())
+                    {
+                    if (!mapNew.containsKey(path))
+                        {
+                        mapPending.put(path, DELETE);
+                        }
+                    }
+                mapContent = mapNew;
+                }
+
             public final Path          pathDir;
             public final ServiceHandle hStorage;
+
+            /**
+             * The pending events in the order of arrival.
+             */
+            final Map<Path, Integer> mapPending = new LinkedHashMap<>();
+
+            /**
+             * True iff some events have been lost since the last delivery.
+             */
+            boolean fOverflow;
+
+            /**
+             * The time the first pending event has arrived at; Long.MAX_VALUE if none.
+             */
+            long ldtFirst = Long.MAX_VALUE;
+
+            /**
+             * The directory content as of the last scan, adjusted by the delivered events:
+             * the children paths and their modification times.
+             */
+            Map<Path, Long> mapContent;
             }
 
         private final Map<WatchKey, WatchContext> f_mapWatches;
         private final WatchService                f_service;
+
+        /**
+         * The time of the next delivery; Long.MAX_VALUE if there's nothing pending.
+         */
+        private long m_ldtFlush = Long.MAX_VALUE;
+
+        private static final int CREATE = 0;
+        private static final int MODIFY = 1;
+        private static final int DELETE = 2;
+
+        private static final long UNKNOWN = Long.MIN_VALUE;
         }
 
     // ----- constants -----------------------------------------------------------------------------
 
-    private static MethodStructure s_methodOnEvent;
+    private static MethodStructure s_methodOnEvents;
+
+    /**
+     * The duration of the window (in milliseconds) during which the watch events for a directory
+     * are collected before being delivered; could be set using the "xvm.fs.watchWindow" system
+     * property.
+     */
+    public static final long WATCH_WINDOW_MILLIS = Long.getLong("xvm.fs.watchWindow", 100L);
 
     private static WatchServiceDaemon s_daemonWatch;
     }
@@ -0,0 +1,403 @@
+package org.xvm.runtime.template._native.fs;
+
+
+import java.io.IOException;
+
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+import org.xvm.runtime.Utils;
+
+import org.xvm.runtime.template._native.fs.OSFileNode.AttributeSnapshot;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xNullable;
+
+
+/**
+ * Native OSTreeWalker implementation.
+ */
+public class xOSTreeWalker
+        extends ClassTemplate
+    {
+    public static xOSTreeWalker INSTANCE;
+
+    public xOSTreeWalker(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        markNativeMethod("next", VOID, null);
+        markNativeMethod("close", VOID, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                              ObjectHandle[] ahArg, int[] aiReturn)
+        {
+        WalkerHandle hWalker = (WalkerHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "next": // conditional FileNode next()
+                {
+                ObjectHandle[] ahBatch = hWalker.m_ahBatch;
+                if (ahBatch != null && hWalker.m_iNext < ahBatch.length)
+                    {
+                    return assignNext(frame, hWalker, aiReturn);
+                    }
+
+                List<Path>              listPath  = new ArrayList<>(BATCH_SIZE);
+                List<AttributeSnapshot> listAttrs = new ArrayList<>(BATCH_SIZE);
+                try
+                    {
+                    hWalker.collect(listPath, listAttrs);
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(
+                        xException.pathException(frame, e.getMessage(), xNullable.NULL));
+                    }
+
+                if (listPath.isEmpty())
+                    {
+                    hWalker.m_ahBatch = null;
+                    return frame.assignValue(aiReturn[0], xBoolean.FALSE);
+                    }
+
+                return OSFileNode.createHandles(frame, hWalker.f_hOSStore, listPath, listAttrs,
+                    (frameCaller, ahNode) ->
+                        {
+                        hWalker.m_ahBatch = ahNode;
+                        hWalker.m_iNext   = 0;
+                        return assignNext(frameCaller, hWalker, aiReturn);
+                        });
+                }
+            }
+
+        return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        WalkerHandle hWalker = (WalkerHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "close": // void close()
+                try
+                    {
+                    hWalker.close();
+                    return Op.R_NEXT;
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(
+                        xException.pathException(frame, e.getMessage(), xNullable.NULL));
+                    }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    private static int assignNext(Frame frame, WalkerHandle hWalker, int[] aiReturn)
+        {
+        ObjectHandle hNode = hWalker.m_ahBatch[hWalker.m_iNext];
+
+        // don't hold on to the nodes that have already been returned
+        hWalker.m_ahBatch[hWalker.m_iNext++] = null;
+
+        return new Utils.AssignValues(aiReturn, new ObjectHandle[] {xBoolean.TRUE, hNode}).
+                proceed(frame);
+        }
+
+    /**
+     * Create a walker handle for the specified directory tree.
+     *
+     * @param hOSStore   the "host" OSStore handle
+     * @param pathRoot   the root directory
+     * @param cMaxDepth  the maximum depth to descend to
+     * @param matcher    the matcher for the paths relative to the root (optional)
+     * @param fFiles     true iff the directories should be skipped
+     *
+     * @return the walker handle
+     */
+    public WalkerHandle makeHandle(ObjectHandle hOSStore, Path pathRoot, long cMaxDepth,
+                                   PathMatcher matcher, boolean fFiles)
+        {
+        return new WalkerHandle(getCanonicalClass(), hOSStore, pathRoot, cMaxDepth, matcher, fFiles);
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The walker handle; the directory streams are closed when the walk is exhausted, fails or is
+     * closed. The streams of a walk that has been abandoned before that are closed once the handle
+     * is garbage-collected.
+     */
+    public static class WalkerHandle
+            extends ObjectHandle
+        {
+        protected WalkerHandle(TypeComposition clazz, ObjectHandle hOSStore, Path pathRoot,
+                               long cMaxDepth, PathMatcher matcher, boolean fFiles)
+            {
+            super(clazz);
+
+            m_fMutable  = true;
+            f_hOSStore  = hOSStore;
+            f_pathRoot  = pathRoot;
+            f_cMaxDepth = cMaxDepth;
+            f_matcher   = matcher;
+            f_fFiles    = fFiles;
+
+            // the clean-up action must not refer to the handle
+            Deque<Level> stack = f_stack;
+            xOSNameIterator.CLEANER.register(this, () ->
+                {
+                try
+                    {
+                    closeLevels(stack);
+                    }
+                catch (IOException e)
+                    {
+                    // nothing to report to; the handle is gone
+                    }
+                });
+            }
+
+        /**
+         * Collect up to {@link #BATCH_SIZE} of the next matching nodes.
+         *
+         * @param listPath   the list to add the node paths to
+         * @param listAttrs  the list to add the node attributes to
+         */
+        protected void collect(List<Path> listPath, List<AttributeSnapshot> listAttrs)
+                throws IOException
+            {
+            Deque<Level> stack = f_stack;
+            if (!m_fStarted)
+                {
+                m_fStarted = true;
+                if (f_cMaxDepth > 0)
+                    {
+                    stack.push(new Level(f_pathRoot, 1));
+                    }
+                }
+
+            while (listPath.size() < BATCH_SIZE && !stack.isEmpty())
+                {
+                Level level = stack.peek();
+                Path  path;
+                try
+                    {
+                    path = level.next();
+                    }
+                catch (IOException | RuntimeException e)
+                    {
+                    try
+                        {
+                        close();
+                        }
+                    catch (IOException eClose)
+                        {
+                        e.addSuppressed(eClose);
+                        }
+                    throw e;
+                    }
+
+                if (path == null)
+                    {
+                    stack.pop().close();
+                    continue;
+                    }
+
+                BasicFileAttributes attrs;
+                try
+                    {
+                    attrs = Files.readAttributes(path, BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS);
+                    }
+                catch (IOException e)
+                    {
+                    // the node has disappeared or is not accessible
+                    continue;
+                    }
+
+                // the walk doesn't follow the links, but the nodes do
+                AttributeSnapshot snapshot = attrs.isSymbolicLink()
+                        ? AttributeSnapshot.load(path)
+                        : new AttributeSnapshot(attrs, OSFileNode.getDirStamp(level.f_pathDir));
+
+                if ((!f_fFiles || !snapshot.isDirectory()) &&
+                        (f_matcher == null || f_matcher.matches(f_pathRoot.relativize(path))))
+                    {
+                    listPath.add(path);
+                    listAttrs.add(snapshot);
+                    }
+
+                if (attrs.isDirectory() && level.f_nDepth < f_cMaxDepth)
+                    {
+                    try
+                        {
+                        stack.push(new Level(path, level.f_nDepth + 1));
+                        }
+                    catch (IOException e)
+                        {
+                        // the directory is not accessible; don't descend
+                        }
+                    }
+                }
+            }
+
+        /**
+         * Close all the directory streams; the walk is exhausted from now on.
+         */
+        protected void close()
+                throws IOException
+            {
+            m_fStarted = true;
+            m_ahBatch  = null;
+            closeLevels(f_stack);
+            }
+
+        /**
+         * Close the directory streams of all the specified levels, reporting the first failure.
+         */
+        private static void closeLevels(Deque<Level> stack)
+                throws IOException
+            {
+            IOException ex = null;
+            while (!stack.isEmpty())
+                {
+                try
+                    {
+                    stack.pop().close();
+                    }
+                catch (IOException e)
+                    {
+                    if (ex == null)
+                        {
+                        ex = e;
+                        }
+                    }
+                }
+
+            if (ex != null)
+                {
+                throw ex;
+                }
+            }
+
+        /**
+         * A directory that is being walked.
+         */
+        private static class Level
+            {
+            Level(Path pathDir, int nDepth)
+                    throws IOException
+                {
+                f_pathDir = pathDir;
+                f_nDepth  = nDepth;
+                f_stream  = Files.newDirectoryStream(pathDir);
+                f_iter    = f_stream.iterator();
+                }
+
+            /**
+             * @return the next child path or null if there are no more
+             */
+            Path next()
+                    throws IOException
+                {
+                try
+                    {
+                    return f_iter.hasNext() ? f_iter.next() : null;
+                    }
+                catch (DirectoryIteratorException e)
+                    {
+                    throw e.getCause();
+                    }
+                }
+
+            void close()
+                    throws IOException
+                {
+                f_stream.close();
+                }
+
+            final Path                  f_pathDir;
+            final int                   f_nDepth;
+            final DirectoryStream<Path> f_stream;
+            final Iterator<Path>        f_iter;
+            }
+
+        protected final ObjectHandle f_hOSStore;
+        protected final Path         f_pathRoot;
+        protected final long         f_cMaxDepth;
+        protected final PathMatcher  f_matcher;
+        protected final boolean      f_fFiles;
+
+        /**
+         * The directories being walked; the current one is at the top.
+         */
+        private final Deque<Level> f_stack = new ArrayDeque<>();
+
+        /**
+         * True iff the walk has started.
+         */
+        private boolean m_fStarted;
+
+        /**
+         * The current batch of the node handles and the index of the next one to return.
+         */
+        protected ObjectHandle[] m_ahBatch;
+        protected int            m_iNext;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The maximum number of nodes created at once.
+     */
+    public static final int BATCH_SIZE = 64;
+    }
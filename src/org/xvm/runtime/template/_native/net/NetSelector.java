@@ -0,0 +1,189 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.IOException;
+
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import java.util.Iterator;
+import java.util.Queue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * An event loop that watches the network channels on behalf of the services that own them.
+ *
+ * The loop doesn't perform any I/O itself; when a channel becomes ready for an operation that a
+ * service is waiting for, the loop merely notifies the channel handle (see
+ * {@link SelectableHandle#onReady}), which turns the notification into a response message for the
+ * owning service. All the channel operations are performed by the service threads.
+ *
+ * There are a few loops (see {@link #SELECTOR_COUNT}); each channel is assigned to one of them
+ * in a round-robin fashion when created.
+ */
+public class NetSelector
+        extends Thread
+    {
+    private NetSelector(int nId)
+            throws IOException
+        {
+        super("NetSelector-" + nId);
+
+        setDaemon(true);
+
+        f_selector = Selector.open();
+        }
+
+    /**
+     * @return the selector loop for a new channel
+     */
+    public static NetSelector next()
+            throws IOException
+        {
+        NetSelector[] aSelector = s_aSelector;
+        if (aSelector == null)
+            {
+            synchronized (NetSelector.class)
+                {
+                aSelector = s_aSelector;
+                if (aSelector == null)
+                    {
+                    aSelector = new NetSelector[SELECTOR_COUNT];
+                    for (int i = 0; i < SELECTOR_COUNT; i++)
+                        {
+                        NetSelector selector = new NetSelector(i);
+                        selector.start();
+                        aSelector[i] = selector;
+                        }
+                    s_aSelector = aSelector;
+                    }
+                }
+            }
+        return aSelector[(s_cChannels.getAndIncrement() & Integer.MAX_VALUE) % aSelector.length];
+        }
+
+    /**
+     * Add the specified operation to the set of operations the channel is watched for.
+     *
+     * @param hChannel  the channel handle
+     * @param nOp       one of the {@link SelectionKey} operations
+     */
+    public void watch(SelectableHandle hChannel, int nOp)
+        {
+        f_queueRequests.add(() -> register(hChannel, nOp));
+        f_selector.wakeup();
+        }
+
+    @Override
+    public void run()
+        {
+        Selector selector = f_selector;
+        while (true)
+            {
+            try
+                {
+                selector.select();
+                }
+            catch (IOException e)
+                {
+                // there is nothing the loop can do about it, but try again
+                continue;
+                }
+
+            Runnable request;
+            while ((request = f_queueRequests.poll()) != null)
+                {
+                request.run();
+                }
+
+            Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+            while (iter.hasNext())
+                {
+                SelectionKey key = iter.next();
+                iter.remove();
+
+                SelectableHandle hChannel = (SelectableHandle) key.attachment();
+                int              nReady;
+                try
+                    {
+                    nReady = key.readyOps();
+
+                    // the interest is "one shot"; the service asks again if it needs to
+                    key.interestOps(key.interestOps() & ~nReady);
+                    }
+                catch (CancelledKeyException e)
+                    {
+                    nReady = ALL_OPS;
+                    }
+                hChannel.onReady(nReady);
+                }
+            }
+        }
+
+    /**
+     * Register the interest in the specified operation; called on the selector thread.
+     */
+    private void register(SelectableHandle hChannel, int nOp)
+        {
+        SelectableChannel channel = hChannel.getChannel();
+        try
+            {
+            SelectionKey key = channel.keyFor(f_selector);
+            if (key == null)
+                {
+                channel.register(f_selector, nOp, hChannel);
+                }
+            else
+                {
+                key.interestOps(key.interestOps() | nOp);
+                }
+            }
+        catch (ClosedChannelException | CancelledKeyException e)
+            {
+            // let the service discover that the channel is closed
+            hChannel.onReady(nOp);
+            }
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The number of the selector loops; could be set using the "xvm.net.selectors" system
+     * property.
+     */
+    public static final int SELECTOR_COUNT = Math.max(1, Integer.getInteger("xvm.net.selectors",
+            Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+    /**
+     * All the operations the loops watch for.
+     */
+    public static final int ALL_OPS = SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                                    | SelectionKey.OP_CONNECT | SelectionKey.OP_ACCEPT;
+
+    /**
+     * The selector loops; created on demand.
+     */
+    private static volatile NetSelector[] s_aSelector;
+
+    /**
+     * The number of channels ever assigned to the loops.
+     */
+    private static final AtomicInteger s_cChannels = new AtomicInteger();
+
+    /**
+     * The underlying selector.
+     */
+    private final Selector f_selector;
+
+    /**
+     * The registration requests to be processed by the selector thread.
+     */
+    private final Queue<Runnable> f_queueRequests = new ConcurrentLinkedQueue<>();
+    }
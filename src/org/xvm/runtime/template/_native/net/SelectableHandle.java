@@ -0,0 +1,333 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.xvm.runtime.Fiber;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ExceptionHandle;
+import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.ServiceContext.Response;
+import org.xvm.runtime.TypeComposition;
+import org.xvm.runtime.Utils;
+
+import org.xvm.runtime.template.xException;
+
+
+/**
+ * The base for the handles of the native network channels.
+ *
+ * All the operations are performed by the thread of the service that owns the channel. An operation
+ * that cannot complete right away (e.g. there is nothing to read yet) asks the channel's
+ * {@link NetSelector} to watch for the readiness and suspends the calling fiber; once the channel
+ * is ready, the selector thread posts a response to the owning service, and the service thread
+ * retries the operation, which either completes and resumes the fiber, or waits again.
+ */
+public abstract class SelectableHandle
+        extends ObjectHandle
+    {
+    protected SelectableHandle(TypeComposition clazz, SelectableChannel channel)
+            throws IOException
+        {
+        super(clazz);
+
+        m_fMutable = true;
+        f_channel  = channel;
+        f_selector = NetSelector.next();
+        }
+
+    /**
+     * @return the underlying channel
+     */
+    public SelectableChannel getChannel()
+        {
+        return f_channel;
+        }
+
+    /**
+     * Perform the operation producing a single result.
+     *
+     * @param frame    the current frame
+     * @param nOp      the {@link SelectionKey} operation to wait for if the action cannot complete
+     * @param action   the operation
+     * @param iReturn  the register id to place the result into
+     *
+     * @return one of the {@link org.xvm.asm.Op#R_NEXT}, {@link org.xvm.asm.Op#R_CALL} or
+     *         {@link org.xvm.asm.Op#R_EXCEPTION} values
+     */
+    public int complete(Frame frame, int nOp, NetAction action, int iReturn)
+        {
+        if ((m_nPendingOps & nOp) != 0)
+            {
+            return frame.raiseException(reportPending(frame, nOp));
+            }
+
+        ObjectHandle[] ahResult;
+        try
+            {
+            ahResult = action.perform();
+            }
+        catch (IOException e)
+            {
+            return frame.raiseException(makeIOException(frame, e));
+            }
+
+        if (ahResult != null)
+            {
+            return frame.assignValue(iReturn, ahResult[0]);
+            }
+
+        return frame.assignFutureResult(iReturn,
+            performAsync(frame, nOp, action).thenApply(ah -> ah[0]));
+        }
+
+    /**
+     * Perform the operation producing multiple results.
+     *
+     * @param frame     the current frame
+     * @param nOp       the {@link SelectionKey} operation to wait for if the action cannot complete
+     * @param action    the operation
+     * @param aiReturn  the registers to place the results into
+     *
+     * @return one of the {@link org.xvm.asm.Op#R_NEXT}, {@link org.xvm.asm.Op#R_CALL} or
+     *         {@link org.xvm.asm.Op#R_EXCEPTION} values
+     */
+    public int complete(Frame frame, int nOp, NetAction action, int[] aiReturn)
+        {
+        if ((m_nPendingOps & nOp) != 0)
+            {
+            return frame.raiseException(reportPending(frame, nOp));
+            }
+
+        ObjectHandle[] ahResult;
+        try
+            {
+            ahResult = action.perform();
+            }
+        catch (IOException e)
+            {
+            return frame.raiseException(makeIOException(frame, e));
+            }
+
+        if (ahResult != null)
+            {
+            return new Utils.AssignValues(aiReturn, ahResult).proceed(frame);
+            }
+
+        return frame.call(Utils.createWaitFrame(frame, performAsync(frame, nOp, action), aiReturn));
+        }
+
+    /**
+     * Keep retrying the operation every time the channel becomes ready, until it completes.
+     *
+     * @return a future that is completed on the owning service's thread
+     */
+    private CompletableFuture<ObjectHandle[]> performAsync(Frame frame, int nOp, NetAction action)
+        {
+        CompletableFuture<ObjectHandle[]> cfResult = new CompletableFuture<>();
+
+        m_nPendingOps |= nOp;
+        awaitReady(frame, nOp, action, cfResult);
+        return cfResult;
+        }
+
+    private void awaitReady(Frame frame, int nOp, NetAction action,
+                            CompletableFuture<ObjectHandle[]> cfResult)
+        {
+        ServiceContext            context = frame.f_context;
+        Fiber                     fiber   = frame.f_fiber;
+        CompletableFuture<Object> cfReady = new CompletableFuture<>();
+
+        // the response is processed by the service thread, so is the retry
+        cfReady.thenAccept(o ->
+            {
+            try
+                {
+                ObjectHandle[] ahResult = action.perform();
+                if (ahResult == null)
+                    {
+                    awaitReady(frame, nOp, action, cfResult);
+                    return;
+                    }
+
+                m_nPendingOps &= ~nOp;
+                cfResult.complete(ahResult);
+                }
+            catch (IOException e)
+                {
+                m_nPendingOps &= ~nOp;
+                cfResult.completeExceptionally(makeIOException(frame, e).getException());
+                }
+            });
+
+        synchronized (this)
+            {
+            m_aonReady[slot(nOp)] = () ->
+                {
+                context.respond(new Response<>(fiber, Boolean.TRUE, null, cfReady));
+                context.f_container.f_runtime.f_daemons.signal();
+                };
+            }
+        f_selector.watch(this, nOp);
+        }
+
+    /**
+     * Notify the waiting operations that the channel is ready for any of the specified operations;
+     * called by the selector thread or when the channel is closed.
+     *
+     * @param nReady  the {@link SelectionKey} operations bit set
+     */
+    protected void onReady(int nReady)
+        {
+        Runnable[] aonReady = m_aonReady;
+        Runnable[] aonFire  = null;
+        synchronized (this)
+            {
+            for (int i = 0; i < aonReady.length; i++)
+                {
+                Runnable onReady = aonReady[i];
+                if (onReady != null && (nReady & (1 << i)) != 0)
+                    {
+                    if (aonFire == null)
+                        {
+                        aonFire = new Runnable[aonReady.length];
+                        }
+                    aonFire[i]  = onReady;
+                    aonReady[i] = null;
+                    }
+                }
+            }
+
+        if (aonFire != null)
+            {
+            for (Runnable onReady : aonFire)
+                {
+                if (onReady != null)
+                    {
+                    onReady.run();
+                    }
+                }
+            }
+        }
+
+    /**
+     * Close the channel; all the pending operations will fail.
+     */
+    public void close()
+            throws IOException
+        {
+        f_channel.close();
+        onReady(NetSelector.ALL_OPS);
+        }
+
+    @Override
+    public String toString()
+        {
+        return super.toString() + f_channel;
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * @return the "host:port" representation of the specified address
+     */
+    public static String formatAddress(SocketAddress address)
+        {
+        if (address instanceof InetSocketAddress)
+            {
+            InetSocketAddress addrInet = (InetSocketAddress) address;
+            return addrInet.getHostString() + ':' + addrInet.getPort();
+            }
+        return String.valueOf(address);
+        }
+
+    /**
+     * @return an IOException handle for the specified Java exception
+     */
+    public static ExceptionHandle makeIOException(Frame frame, IOException e)
+        {
+        String sMsg = e.getMessage();
+        return xException.ioException(frame, sMsg == null ? e.toString() : sMsg);
+        }
+
+    private static ExceptionHandle reportPending(Frame frame, int nOp)
+        {
+        String sOp;
+        switch (nOp)
+            {
+            case SelectionKey.OP_READ:
+                sOp = "read";
+                break;
+            case SelectionKey.OP_WRITE:
+                sOp = "write";
+                break;
+            case SelectionKey.OP_ACCEPT:
+                sOp = "accept";
+                break;
+            default:
+                sOp = "connect";
+                break;
+            }
+        return xException.illegalState(frame, "Another " + sOp + " operation is pending");
+        }
+
+    /**
+     * @return the index of the callback slot for the specified operation
+     */
+    private static int slot(int nOp)
+        {
+        return Integer.numberOfTrailingZeros(nOp);
+        }
+
+
+    // ----- NetAction -----------------------------------------------------------------------------
+
+    /**
+     * A non-blocking network operation.
+     */
+    @FunctionalInterface
+    public interface NetAction
+        {
+        /**
+         * Perform the operation as far as the channel allows without blocking.
+         *
+         * @return the operation results or null if the operation has to wait for the channel
+         */
+        ObjectHandle[] perform()
+                throws IOException;
+        }
+
+
+    // ----- data fields ---------------------------------------------------------------------------
+
+    /**
+     * The underlying (non-blocking) channel.
+     */
+    protected final SelectableChannel f_channel;
+
+    /**
+     * The selector loop watching the channel.
+     */
+    protected final NetSelector f_selector;
+
+    /**
+     * The callbacks for the operations waiting for the channel readiness, indexed by the operation
+     * bit position.
+     */
+    private final Runnable[] m_aonReady = new Runnable[slot(SelectionKey.OP_ACCEPT) + 1];
+
+    /**
+     * The operations that are in progress; only accessed by the owning service.
+     */
+    private int m_nPendingOps;
+    }
@@ -0,0 +1,176 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xString.StringHandle;
+
+import org.xvm.runtime.template._native.net.xOSSocketChannel.SocketHandle;
+
+
+/**
+ * Native OSNetwork implementation.
+ *
+ * The network handle itself is immutable and holds no state, so it's not proxied when passed
+ * between services; the channels it creates are owned by the calling service.
+ */
+public class xOSNetwork
+        extends ClassTemplate
+    {
+    public static xOSNetwork INSTANCE;
+
+    public xOSNetwork(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        ClassTemplate templateNetwork = f_templates.getTemplate("net.Network");
+
+        s_clzNetwork = ensureClass(getCanonicalType(), templateNetwork.getCanonicalType());
+
+        markNativeMethod("listen", null, null);
+        markNativeMethod("connect", null, null);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    /**
+     * @return the Network handle
+     */
+    public ObjectHandle ensureNetwork()
+        {
+        ObjectHandle hNetwork = m_hNetwork;
+        if (hNetwork == null)
+            {
+            m_hNetwork = hNetwork = new ObjectHandle(s_clzNetwork) {};
+            }
+        return hNetwork;
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        switch (method.getName())
+            {
+            case "listen": // ServerSocketChannel listen(String host, Int port, Int backlog = 0)
+                {
+                String       sHost    = ((StringHandle) ahArg[0]).getStringValue();
+                long         lPort    = ((JavaLong) ahArg[1]).getValue();
+                ObjectHandle hBacklog = ahArg[2];
+                int          cBacklog = hBacklog instanceof JavaLong
+                        ? (int) ((JavaLong) hBacklog).getValue()
+                        : 0;
+
+                if (lPort < 0 || lPort > 0xFFFF)
+                    {
+                    return frame.raiseException(
+                        xException.illegalArgument(frame, "Invalid port: " + lPort));
+                    }
+
+                try
+                    {
+                    InetSocketAddress address = sHost.isEmpty()
+                            ? new InetSocketAddress((int) lPort)
+                            : new InetSocketAddress(sHost, (int) lPort);
+                    return frame.assignValue(iReturn,
+                        xOSServerSocketChannel.INSTANCE.open(address, cBacklog));
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                    }
+                }
+
+            case "connect": // SocketChannel connect(String host, Int port)
+                {
+                String sHost = ((StringHandle) ahArg[0]).getStringValue();
+                long   lPort = ((JavaLong) ahArg[1]).getValue();
+
+                if (lPort <= 0 || lPort > 0xFFFF)
+                    {
+                    return frame.raiseException(
+                        xException.illegalArgument(frame, "Invalid port: " + lPort));
+                    }
+
+                SocketHandle hChannel;
+                try
+                    {
+                    SocketChannel channel = SocketChannel.open();
+                    try
+                        {
+                        hChannel = xOSSocketChannel.INSTANCE.makeHandle(channel);
+                        channel.connect(new InetSocketAddress(sHost, (int) lPort));
+                        }
+                    catch (IOException | RuntimeException e)
+                        {
+                        channel.close();
+                        throw e;
+                        }
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                    }
+
+                SocketHandle hResult = hChannel;
+                return hChannel.complete(frame, SelectionKey.OP_CONNECT, () ->
+                    {
+                    try
+                        {
+                        return hResult.getSocketChannel().finishConnect()
+                                ? new ObjectHandle[] {hResult}
+                                : null;
+                        }
+                    catch (IOException e)
+                        {
+                        hResult.close();
+                        throw e;
+                        }
+                    }, iReturn);
+                }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    private static ClassComposition s_clzNetwork;
+
+    /**
+     * The (stateless) Network handle.
+     */
+    private ObjectHandle m_hNetwork;
+    }
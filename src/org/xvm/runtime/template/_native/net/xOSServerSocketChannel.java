@@ -0,0 +1,186 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.xInt64;
+import org.xvm.runtime.template.xString;
+
+
+/**
+ * Native OSServerSocketChannel implementation.
+ *
+ * The channel is a non-blocking java.nio.channels.ServerSocketChannel; a fiber that calls "accept"
+ * while there are no pending connections waits for the channel's selector loop to report one (see
+ * {@link SelectableHandle}). The accepted channels are owned by the same service.
+ */
+public class xOSServerSocketChannel
+        extends ClassTemplate
+    {
+    public static xOSServerSocketChannel INSTANCE;
+
+    public xOSServerSocketChannel(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        ClassTemplate templateChannel = f_templates.getTemplate("net.ServerSocketChannel");
+
+        s_clzChannel = ensureClass(getCanonicalType(), templateChannel.getCanonicalType());
+
+        markNativeProperty("localAddress");
+        markNativeProperty("port");
+
+        markNativeMethod("accept", VOID, null);
+        markNativeMethod("close", VOID, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    /**
+     * Open a channel listening on the specified address.
+     *
+     * @param address   the local address to bind to
+     * @param cBacklog  the maximum number of pending connections; zero for the system default
+     *
+     * @return a new channel handle
+     */
+    public ServerSocketHandle open(InetSocketAddress address, int cBacklog)
+            throws IOException
+        {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try
+            {
+            channel.configureBlocking(false);
+            channel.bind(address, cBacklog);
+            return new ServerSocketHandle(s_clzChannel, channel);
+            }
+        catch (IOException | RuntimeException e)
+            {
+            channel.close();
+            throw e;
+            }
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        ServerSocketHandle  hChannel = (ServerSocketHandle) hTarget;
+        ServerSocketChannel channel  = hChannel.getServerChannel();
+
+        try
+            {
+            switch (sPropName)
+                {
+                case "localAddress":
+                    return frame.assignValue(iReturn, xString.makeHandle(
+                        SelectableHandle.formatAddress(channel.getLocalAddress())));
+
+                case "port":
+                    return frame.assignValue(iReturn, xInt64.makeHandle(
+                        ((InetSocketAddress) channel.getLocalAddress()).getPort()));
+                }
+            }
+        catch (IOException e)
+            {
+            return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        ServerSocketHandle hChannel = (ServerSocketHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "accept": // SocketChannel accept()
+                {
+                ServerSocketChannel channel = hChannel.getServerChannel();
+                return hChannel.complete(frame, SelectionKey.OP_ACCEPT, () ->
+                    {
+                    SocketChannel channelNew = channel.accept();
+                    return channelNew == null
+                            ? null
+                            : new ObjectHandle[] {xOSSocketChannel.INSTANCE.makeHandle(channelNew)};
+                    }, iReturn);
+                }
+
+            case "close":
+                try
+                    {
+                    hChannel.close();
+                    return Op.R_NEXT;
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                    }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The ServerSocketChannel handle.
+     */
+    public static class ServerSocketHandle
+            extends SelectableHandle
+        {
+        protected ServerSocketHandle(TypeComposition clazz, ServerSocketChannel channel)
+                throws IOException
+            {
+            super(clazz, channel);
+            }
+
+        /**
+         * @return the underlying channel
+         */
+        public ServerSocketChannel getServerChannel()
+            {
+            return (ServerSocketChannel) f_channel;
+            }
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    private static ClassComposition s_clzChannel;
+    }
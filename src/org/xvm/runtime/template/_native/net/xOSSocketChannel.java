@@ -0,0 +1,505 @@
+package org.xvm.runtime.template._native.net;
+
+
+import java.io.IOException;
+
+import java.net.StandardSocketOptions;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ArrayHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.collections.xArray.GenericArrayHandle;
+
+import org.xvm.runtime.template.io.xByteBuffer.ByteBufferHandle;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xBoolean.BooleanHandle;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xInt64;
+import org.xvm.runtime.template.xString;
+
+
+/**
+ * Native OSSocketChannel implementation.
+ *
+ * The channel is a non-blocking java.nio.channels.SocketChannel that reads into and writes from
+ * the java.nio.ByteBuffer held by the native io.ByteBuffer handles. As much as possible is
+ * transferred right away; if the network is not ready, the calling fiber waits for the channel's
+ * selector loop to report the readiness (see {@link SelectableHandle}).
+ */
+public class xOSSocketChannel
+        extends ClassTemplate
+    {
+    public static xOSSocketChannel INSTANCE;
+
+    public xOSSocketChannel(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        ClassTemplate templateChannel = f_templates.getTemplate("net.SocketChannel");
+
+        s_clzChannel = ensureClass(getCanonicalType(), templateChannel.getCanonicalType());
+
+        markNativeProperty("readable");
+        markNativeProperty("writable");
+        markNativeProperty("localAddress");
+        markNativeProperty("remoteAddress");
+        markNativeProperty("noDelay");
+
+        markNativeMethod("read", new String[] {"io.Buffer<UInt8>", "Int64"}, null);
+        markNativeMethod("read", new String[] {"collections.Array<io.Buffer<UInt8>>", "Int64"}, null);
+        markNativeMethod("write", new String[] {"io.Buffer<UInt8>"}, null);
+        markNativeMethod("write", new String[] {"collections.Array<io.Buffer<UInt8>>"}, null);
+        markNativeMethod("shutdownOutput", VOID, VOID);
+        markNativeMethod("close", VOID, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    /**
+     * @return a new handle for the specified (connected) channel
+     */
+    public SocketHandle makeHandle(SocketChannel channel)
+            throws IOException
+        {
+        channel.configureBlocking(false);
+        return new SocketHandle(s_clzChannel, channel);
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        SocketHandle  hChannel = (SocketHandle) hTarget;
+        SocketChannel channel  = hChannel.getSocketChannel();
+
+        try
+            {
+            switch (sPropName)
+                {
+                case "readable":
+                    return frame.assignValue(iReturn,
+                        xBoolean.makeHandle(channel.isOpen() && !hChannel.m_fInputEnded));
+
+                case "writable":
+                    return frame.assignValue(iReturn,
+                        xBoolean.makeHandle(channel.isOpen() && !hChannel.m_fOutputShut));
+
+                case "localAddress":
+                    return frame.assignValue(iReturn, xString.makeHandle(
+                        SelectableHandle.formatAddress(channel.getLocalAddress())));
+
+                case "remoteAddress":
+                    return frame.assignValue(iReturn, xString.makeHandle(
+                        SelectableHandle.formatAddress(channel.getRemoteAddress())));
+
+                case "noDelay":
+                    return frame.assignValue(iReturn,
+                        xBoolean.makeHandle(channel.getOption(StandardSocketOptions.TCP_NODELAY)));
+                }
+            }
+        catch (IOException e)
+            {
+            return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNativeSet(Frame frame, ObjectHandle hTarget, String sPropName, ObjectHandle hValue)
+        {
+        SocketHandle hChannel = (SocketHandle) hTarget;
+
+        if (sPropName.equals("noDelay"))
+            {
+            try
+                {
+                hChannel.getSocketChannel().setOption(StandardSocketOptions.TCP_NODELAY,
+                    ((BooleanHandle) hValue).get());
+                return Op.R_NEXT;
+                }
+            catch (IOException e)
+                {
+                return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                }
+            }
+
+        return super.invokeNativeSet(frame, hTarget, sPropName, hValue);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        SocketHandle hChannel = (SocketHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "write": // Int write(Buffer<Byte> buffer)
+                {
+                ByteBuffer buffer = getBuffer(hArg, false);
+                if (buffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+
+                SocketChannel channel = hChannel.getSocketChannel();
+                long[]        acTotal = new long[1];
+                return hChannel.complete(frame, SelectionKey.OP_WRITE, () ->
+                    {
+                    while (buffer.hasRemaining())
+                        {
+                        int cb = channel.write(buffer);
+                        if (cb == 0)
+                            {
+                            return null;
+                            }
+                        acTotal[0] += cb;
+                        }
+                    return new ObjectHandle[] {xInt64.makeHandle(acTotal[0])};
+                    }, iReturn);
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        SocketHandle hChannel = (SocketHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "shutdownOutput":
+                try
+                    {
+                    if (!hChannel.m_fOutputShut)
+                        {
+                        hChannel.getSocketChannel().shutdownOutput();
+                        hChannel.m_fOutputShut = true;
+                        }
+                    return Op.R_NEXT;
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                    }
+
+            case "close":
+                try
+                    {
+                    hChannel.close();
+                    return Op.R_NEXT;
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                    }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                              ObjectHandle[] ahArg, int[] aiReturn)
+        {
+        SocketHandle  hChannel = (SocketHandle) hTarget;
+        SocketChannel channel  = hChannel.getSocketChannel();
+
+        switch (method.getName())
+            {
+            case "read":
+                {
+                ObjectHandle hMin = ahArg[1];
+                long         cMin = hMin instanceof JavaLong
+                        ? ((JavaLong) hMin).getValue()
+                        : Long.MAX_VALUE;
+
+                if (ahArg[0] instanceof ArrayHandle)
+                    {
+                    // conditional (Int, Int) read(Buffer<Byte>[] buffers, Int minBytes = Int.maxvalue)
+                    ByteBuffer[] abuffer = getBuffers((ArrayHandle) ahArg[0], true);
+                    if (abuffer == null)
+                        {
+                        return raiseUnsupportedBuffer(frame);
+                        }
+                    if (isAnyReadOnly(abuffer))
+                        {
+                        return frame.raiseException(xException.readOnly(frame));
+                        }
+
+                    int    cBuffers = abuffer.length;
+                    long[] acTotal  = new long[1];
+                    return hChannel.complete(frame, SelectionKey.OP_READ, () ->
+                        {
+                        int iNext = nextRemaining(abuffer, 0);
+                        while (iNext < cBuffers && acTotal[0] < cMin)
+                            {
+                            long cb = channel.read(abuffer, iNext, cBuffers - iNext);
+                            if (cb < 0)
+                                {
+                                hChannel.m_fInputEnded = true;
+                                return acTotal[0] == 0
+                                        ? makeEOF(2)
+                                        : makeResults(acTotal[0], iNext);
+                                }
+                            if (cb == 0)
+                                {
+                                return null;
+                                }
+                            acTotal[0] += cb;
+                            iNext       = nextRemaining(abuffer, iNext);
+                            }
+                        return makeResults(acTotal[0], iNext);
+                        }, aiReturn);
+                    }
+
+                // conditional Int read(Buffer<Byte> buffer, Int minBytes = Int.maxvalue)
+                ByteBuffer buffer = getBuffer(ahArg[0], true);
+                if (buffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+                if (buffer.isReadOnly())
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
+                long[] acTotal = new long[1];
+                return hChannel.complete(frame, SelectionKey.OP_READ, () ->
+                    {
+                    while (buffer.hasRemaining() && acTotal[0] < cMin)
+                        {
+                        int cb = channel.read(buffer);
+                        if (cb < 0)
+                            {
+                            hChannel.m_fInputEnded = true;
+                            return acTotal[0] == 0
+                                    ? makeEOF(1)
+                                    : makeResults(acTotal[0]);
+                            }
+                        if (cb == 0)
+                            {
+                            return null;
+                            }
+                        acTotal[0] += cb;
+                        }
+                    return makeResults(acTotal[0]);
+                    }, aiReturn);
+                }
+
+            case "write": // (Int, Int) write(Buffer<Byte>[] buffers)
+                {
+                ByteBuffer[] abuffer = getBuffers((ArrayHandle) ahArg[0], false);
+                if (abuffer == null)
+                    {
+                    return raiseUnsupportedBuffer(frame);
+                    }
+
+                int    cBuffers = abuffer.length;
+                long[] acTotal  = new long[1];
+                return hChannel.complete(frame, SelectionKey.OP_WRITE, () ->
+                    {
+                    int iNext = nextRemaining(abuffer, 0);
+                    while (iNext < cBuffers)
+                        {
+                        long cb = channel.write(abuffer, iNext, cBuffers - iNext);
+                        if (cb == 0)
+                            {
+                            return null;
+                            }
+                        acTotal[0] += cb;
+                        iNext       = nextRemaining(abuffer, iNext);
+                        }
+                    return new ObjectHandle[]
+                        {xInt64.makeHandle(acTotal[0]), xInt64.makeHandle(iNext)};
+                    }, aiReturn);
+                }
+            }
+
+        return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
+        }
+
+
+    // ----- helper methods ------------------------------------------------------------------------
+
+    /**
+     * @return the results of a successful conditional read
+     */
+    private static ObjectHandle[] makeResults(long... alResult)
+        {
+        int            cResults = alResult.length;
+        ObjectHandle[] ahResult = new ObjectHandle[cResults + 1];
+        ahResult[0] = xBoolean.TRUE;
+        for (int i = 0; i < cResults; i++)
+            {
+            ahResult[i + 1] = xInt64.makeHandle(alResult[i]);
+            }
+        return ahResult;
+        }
+
+    /**
+     * @return the results of a conditional read that reached the end-of-stream
+     */
+    private static ObjectHandle[] makeEOF(int cResults)
+        {
+        // the wait frame needs all the values, even though the caller only looks at the first
+        ObjectHandle[] ahResult = new ObjectHandle[cResults + 1];
+        ahResult[0] = xBoolean.FALSE;
+        for (int i = 1; i <= cResults; i++)
+            {
+            ahResult[i] = xInt64.makeHandle(0);
+            }
+        return ahResult;
+        }
+
+    /**
+     * @param hBuffer  the Buffer handle
+     * @param fWrite   true iff the channel is going to write into the buffer
+     *
+     * @return the ByteBuffer held by the specified Buffer handle or null if the buffer is not
+     *         a native one
+     */
+    private static ByteBuffer getBuffer(ObjectHandle hBuffer, boolean fWrite)
+        {
+        if (hBuffer instanceof ByteBufferHandle)
+            {
+            ByteBufferHandle h = (ByteBufferHandle) hBuffer;
+            return fWrite ? h.getWritableBuffer() : h.getBuffer();
+            }
+        return null;
+        }
+
+    /**
+     * @return the ByteBuffers held by the specified array of Buffer handles or null if any of the
+     *         buffers is not a native one
+     */
+    private static ByteBuffer[] getBuffers(ArrayHandle hArray, boolean fWrite)
+        {
+        if (!(hArray instanceof GenericArrayHandle))
+            {
+            return null;
+            }
+
+        GenericArrayHandle hBuffers = (GenericArrayHandle) hArray;
+        ObjectHandle[]     ahBuffer = hBuffers.m_ahValue;
+        int                ofStart  = hBuffers.m_ofStart;
+        int                cBuffers = hBuffers.m_cSize;
+        ByteBuffer[]       abuffer  = new ByteBuffer[cBuffers];
+
+        for (int i = 0; i < cBuffers; i++)
+            {
+            ByteBuffer buffer = getBuffer(ahBuffer[ofStart + i], fWrite);
+            if (buffer == null)
+                {
+                return null;
+                }
+            abuffer[i] = buffer;
+            }
+        return abuffer;
+        }
+
+    private static boolean isAnyReadOnly(ByteBuffer[] abuffer)
+        {
+        for (ByteBuffer buffer : abuffer)
+            {
+            if (buffer.isReadOnly())
+                {
+                return true;
+                }
+            }
+        return false;
+        }
+
+    /**
+     * @return the index of the first buffer starting at the specified index that has any bytes
+     *         remaining or the number of buffers if there is none
+     */
+    private static int nextRemaining(ByteBuffer[] abuffer, int iStart)
+        {
+        int i = iStart;
+        while (i < abuffer.length && !abuffer[i].hasRemaining())
+            {
+            ++i;
+            }
+        return i;
+        }
+
+    private int raiseUnsupportedBuffer(Frame frame)
+        {
+        return frame.raiseException(
+            xException.illegalArgument(frame, "Unsupported buffer; use io.ByteBuffer"));
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The SocketChannel handle.
+     */
+    public static class SocketHandle
+            extends SelectableHandle
+        {
+        protected SocketHandle(TypeComposition clazz, SocketChannel channel)
+                throws IOException
+            {
+            super(clazz, channel);
+            }
+
+        /**
+         * @return the underlying channel
+         */
+        public SocketChannel getSocketChannel()
+            {
+            return (SocketChannel) f_channel;
+            }
+
+        /**
+         * True iff the end-of-stream has been read.
+         */
+        protected boolean m_fInputEnded;
+
+        /**
+         * True iff the output has been shut down.
+         */
+        protected boolean m_fOutputShut;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    private static ClassComposition s_clzChannel;
+    }
@@ -0,0 +1,845 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import java.nio.charset.StandardCharsets;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * An HTTP/1.1 connection served by an {@link HttpEngine}.
+ *
+ * The connection parses the requests as the bytes arrive and hands each request over to the
+ * engine's {@link HttpEngine.Dispatcher}. The requests are represented by {@link Exchange}
+ * objects that are kept in the order of arrival, so that the responses to the pipelined requests,
+ * which could be produced in any order, are still sent back in the order of the requests.
+ *
+ * All the methods, except {@link Exchange#respond}, are called by the connection's I/O loop.
+ */
+public class HttpConnection
+    {
+    /**
+     * Construct an HttpConnection.
+     *
+     * @param loop     the I/O loop serving the connection
+     * @param channel  the (non-blocking) channel
+     */
+    protected HttpConnection(HttpEngine.Loop loop, SocketChannel channel)
+        {
+        f_loop      = loop;
+        f_channel   = channel;
+        m_ldtActive = System.currentTimeMillis();
+        }
+
+    /**
+     * Attach the connection to its selection key.
+     */
+    protected void setKey(SelectionKey key)
+        {
+        m_key = key;
+        }
+
+
+    // ----- I/O -----------------------------------------------------------------------------------
+
+    /**
+     * Read whatever has arrived and process the complete requests.
+     */
+    protected void onReadable()
+        {
+        int cb;
+        try
+            {
+            cb = f_channel.read(m_bufIn);
+            }
+        catch (IOException e)
+            {
+            close();
+            return;
+            }
+
+        if (cb < 0)
+            {
+            // the client is not going to send anything else; finish the pending responses
+            m_fInputClosed = true;
+            setInterest(SelectionKey.OP_READ, false);
+            if (f_queue.isEmpty())
+                {
+                close();
+                }
+            return;
+            }
+
+        m_ldtActive = System.currentTimeMillis();
+        parse();
+        }
+
+    /**
+     * Write out the responses that are ready, in the order of the requests.
+     */
+    protected void onWritable()
+        {
+        if (m_fClosed)
+            {
+            return;
+            }
+
+        ArrayDeque<Exchange> queue = f_queue;
+        Exchange             exchange;
+        while ((exchange = queue.peek()) != null)
+            {
+            ByteBuffer[] abuf = exchange.m_abufOut;
+            if (abuf == null)
+                {
+                break;
+                }
+
+            try
+                {
+                f_channel.write(abuf);
+                }
+            catch (IOException e)
+                {
+                close();
+                return;
+                }
+
+            if (abuf[abuf.length - 1].hasRemaining())
+                {
+                setInterest(SelectionKey.OP_WRITE, true);
+                return;
+                }
+
+            queue.poll();
+            m_ldtActive = System.currentTimeMillis();
+
+            if (!exchange.f_fKeepAlive)
+                {
+                close();
+                return;
+                }
+            }
+
+        setInterest(SelectionKey.OP_WRITE, false);
+
+        if (m_fInputClosed)
+            {
+            if (queue.isEmpty())
+                {
+                close();
+                }
+            }
+        else if (m_fSuspended && queue.size() < MAX_PIPELINED)
+            {
+            // there is room for more pipelined requests; some may already be buffered
+            m_fSuspended = false;
+            setInterest(SelectionKey.OP_READ, true);
+            parse();
+            }
+        }
+
+    /**
+     * @return true iff the connection has been idle for longer than the specified time
+     */
+    protected boolean isIdle(long ldtNow, long cMillis)
+        {
+        return f_queue.isEmpty() && ldtNow - m_ldtActive > cMillis;
+        }
+
+    /**
+     * Close the connection, abandoning any pending responses.
+     */
+    protected void close()
+        {
+        if (!m_fClosed)
+            {
+            m_fClosed = true;
+            f_queue.clear();
+            try
+                {
+                f_channel.close();
+                }
+            catch (IOException e) {}
+            }
+        }
+
+    /**
+     * Turn the interest in the specified operation on or off.
+     */
+    private void setInterest(int nOp, boolean fOn)
+        {
+        SelectionKey key = m_key;
+        if (key != null && !m_fClosed)
+            {
+            try
+                {
+                int nOps    = key.interestOps();
+                int nOpsNew = fOn ? nOps | nOp : nOps & ~nOp;
+                if (nOpsNew != nOps)
+                    {
+                    key.interestOps(nOpsNew);
+                    }
+                }
+            catch (CancelledKeyException e)
+                {
+                close();
+                }
+            }
+        }
+
+
+    // ----- parsing -------------------------------------------------------------------------------
+
+    /**
+     * Process the complete requests held by the input buffer.
+     */
+    private void parse()
+        {
+        ByteBuffer buf = m_bufIn;
+        buf.flip();
+        try
+            {
+            while (!m_fRejected)
+                {
+                if (f_queue.size() >= MAX_PIPELINED)
+                    {
+                    // don't read any more until some of the responses are sent
+                    m_fSuspended = true;
+                    setInterest(SelectionKey.OP_READ, false);
+                    break;
+                    }
+
+                if (m_abBody != null)
+                    {
+                    byte[] abBody = m_abBody;
+                    int    cb     = Math.min(buf.remaining(), abBody.length - m_ofBody);
+
+                    buf.get(abBody, m_ofBody, cb);
+                    m_ofBody += cb;
+                    if (m_ofBody < abBody.length)
+                        {
+                        break;
+                        }
+
+                    m_abBody = null;
+                    dispatch(abBody);
+                    continue;
+                    }
+
+                // skip the empty lines preceding a request line
+                while (buf.hasRemaining() && isLineEnd(buf.get(buf.position())))
+                    {
+                    buf.get();
+                    }
+
+                int ofEnd = findHeadEnd(buf);
+                if (ofEnd < 0)
+                    {
+                    if (buf.remaining() >= MAX_HEAD_SIZE)
+                        {
+                        reject(431);
+                        }
+                    break;
+                    }
+
+                int nStatus = parseHead(buf, ofEnd);
+                buf.position(ofEnd);
+                if (nStatus != 0)
+                    {
+                    reject(nStatus);
+                    break;
+                    }
+
+                long cbBody = m_cbBody;
+                if (cbBody == 0)
+                    {
+                    dispatch(NO_BYTES);
+                    }
+                else if (cbBody > MAX_BODY_SIZE)
+                    {
+                    reject(413);
+                    }
+                else
+                    {
+                    m_abBody = new byte[(int) cbBody];
+                    m_ofBody = 0;
+
+                    if (m_fExpectContinue && f_queue.isEmpty() && buf.remaining() < cbBody)
+                        {
+                        writeContinue();
+                        }
+                    }
+                }
+            }
+        finally
+            {
+            buf.compact();
+            }
+
+        if (!buf.hasRemaining() && buf.capacity() < MAX_HEAD_SIZE)
+            {
+            // the head of the request doesn't fit; make more room
+            ByteBuffer bufNew = ByteBuffer.allocate(Math.min(buf.capacity() * 2, MAX_HEAD_SIZE));
+            buf.flip();
+            bufNew.put(buf);
+            m_bufIn = bufNew;
+            }
+        }
+
+    /**
+     * @return the position following the empty line that terminates the request head or -1 if
+     *         the head is not complete yet
+     */
+    private static int findHeadEnd(ByteBuffer buf)
+        {
+        int     of      = buf.position();
+        int     ofLimit = buf.limit();
+        boolean fEmpty  = false;
+        for (; of < ofLimit; of++)
+            {
+            byte b = buf.get(of);
+            if (b == '\n')
+                {
+                if (fEmpty)
+                    {
+                    return of + 1;
+                    }
+                fEmpty = true;
+                }
+            else if (b != '\r')
+                {
+                fEmpty = false;
+                }
+            }
+        return -1;
+        }
+
+    /**
+     * Parse the request line and the headers.
+     *
+     * @param buf    the buffer positioned at the request line
+     * @param ofEnd  the position following the head
+     *
+     * @return zero if the head has been successfully parsed; otherwise the status to reject the
+     *         request with
+     */
+    private int parseHead(ByteBuffer buf, int ofEnd)
+        {
+        String[] asLine = splitLines(buf, ofEnd);
+
+        // request-line = method SP request-target SP HTTP-version
+        String sLine = asLine[0];
+        int    ofSp1 = sLine.indexOf(' ');
+        int    ofSp2 = sLine.lastIndexOf(' ');
+        if (ofSp1 <= 0 || ofSp2 <= ofSp1 + 1)
+            {
+            return 400;
+            }
+
+        String sVersion = sLine.substring(ofSp2 + 1);
+        if (!sVersion.startsWith("HTTP/1."))
+            {
+            return sVersion.startsWith("HTTP/") ? 505 : 400;
+            }
+
+        m_sMethod  = sLine.substring(0, ofSp1);
+        m_sUri     = sLine.substring(ofSp1 + 1, ofSp2);
+        m_sVersion = sVersion;
+
+        boolean fHttp10    = sVersion.equals("HTTP/1.0");
+        boolean fKeepAlive = !fHttp10;
+        long    cbBody     = 0;
+        boolean fContinue  = false;
+
+        int      cHeaders = asLine.length - 1;
+        String[] asName   = new String[cHeaders];
+        String[] asValue  = new String[cHeaders];
+        for (int i = 0; i < cHeaders; i++)
+            {
+            String sHeader = asLine[i + 1];
+            int    ofColon = sHeader.indexOf(':');
+            if (ofColon <= 0 || isWhitespace(sHeader.charAt(0))
+                             || isWhitespace(sHeader.charAt(ofColon - 1)))
+                {
+                // includes the obsolete line folding
+                return 400;
+                }
+
+            String sName  = sHeader.substring(0, ofColon).toLowerCase(Locale.ROOT);
+            String sValue = sHeader.substring(ofColon + 1).trim();
+
+            asName[i]  = sName;
+            asValue[i] = sValue;
+
+            switch (sName)
+                {
+                case "content-length":
+                    {
+                    long cb;
+                    try
+                        {
+                        cb = Long.parseLong(sValue);
+                        }
+                    catch (NumberFormatException e)
+                        {
+                        return 400;
+                        }
+                    if (cb < 0 || cbBody != 0 && cb != cbBody)
+                        {
+                        return 400;
+                        }
+                    cbBody = cb;
+                    break;
+                    }
+
+                case "transfer-encoding":
+                    if (!sValue.equalsIgnoreCase("identity"))
+                        {
+                        return 501;
+                        }
+                    break;
+
+                case "connection":
+                    for (String sToken : sValue.split(","))
+                        {
+                        sToken = sToken.trim();
+                        if (sToken.equalsIgnoreCase("close"))
+                            {
+                            fKeepAlive = false;
+                            }
+                        else if (fHttp10 && sToken.equalsIgnoreCase("keep-alive"))
+                            {
+                            fKeepAlive = true;
+                            }
+                        }
+                    break;
+
+                case "expect":
+                    fContinue = sValue.equalsIgnoreCase("100-continue");
+                    break;
+                }
+            }
+
+        m_asName          = asName;
+        m_asValue         = asValue;
+        m_cbBody          = cbBody;
+        m_fKeepAlive      = fKeepAlive;
+        m_fExpectContinue = fContinue && !fHttp10;
+        return 0;
+        }
+
+    /**
+     * @return the (non-empty) lines of the request head
+     */
+    private static String[] splitLines(ByteBuffer buf, int ofEnd)
+        {
+        List<String> listLines = new ArrayList<>();
+        int          ofLine    = buf.position();
+        for (int of = ofLine; of < ofEnd; of++)
+            {
+            if (buf.get(of) == '\n')
+                {
+                int ofLineEnd = of > ofLine && buf.get(of - 1) == '\r' ? of - 1 : of;
+                if (ofLineEnd > ofLine)
+                    {
+                    listLines.add(decode(buf, ofLine, ofLineEnd));
+                    }
+                ofLine = of + 1;
+                }
+            }
+        return listLines.toArray(new String[0]);
+        }
+
+    /**
+     * @return the ISO-8859-1 string for the specified range of bytes
+     */
+    private static String decode(ByteBuffer buf, int ofStart, int ofEnd)
+        {
+        int    cb = ofEnd - ofStart;
+        char[] ach = new char[cb];
+        for (int i = 0; i < cb; i++)
+            {
+            ach[i] = (char) (buf.get(ofStart + i) & 0xFF);
+            }
+        return new String(ach);
+        }
+
+    private static boolean isLineEnd(byte b)
+        {
+        return b == '\r' || b == '\n';
+        }
+
+    private static boolean isWhitespace(char ch)
+        {
+        return ch == ' ' || ch == '\t';
+        }
+
+    /**
+     * Hand the parsed request over to the dispatcher.
+     */
+    private void dispatch(byte[] abBody)
+        {
+        Exchange exchange = new Exchange(this, m_sMethod.equals("HEAD"), m_fKeepAlive,
+                                         m_sVersion.equals("HTTP/1.0"));
+        f_queue.add(exchange);
+
+        String[] asName  = m_asName;
+        String[] asValue = m_asValue;
+        m_asName  = null;
+        m_asValue = null;
+
+        f_loop.getEngine().getDispatcher().dispatch(exchange,
+            m_sMethod, m_sUri, m_sVersion, asName, asValue, abBody);
+        }
+
+    /**
+     * Reject the request that cannot be processed; the connection is closed once the responses
+     * to the preceding requests and the rejection are sent.
+     */
+    private void reject(int nStatus)
+        {
+        m_fRejected = true;
+        setInterest(SelectionKey.OP_READ, false);
+
+        Exchange exchange = new Exchange(this, false, false, false);
+        exchange.m_abufOut = new ByteBuffer[] {exchange.encodeHead(nStatus, null, null, 0, true)};
+        f_queue.add(exchange);
+
+        // the response is sent once the connection is writable
+        setInterest(SelectionKey.OP_WRITE, true);
+        }
+
+    /**
+     * Send the interim "100 Continue" response.
+     */
+    private void writeContinue()
+        {
+        try
+            {
+            f_channel.write(ByteBuffer.wrap(CONTINUE));
+            }
+        catch (IOException e)
+            {
+            close();
+            }
+        }
+
+
+    // ----- Exchange ------------------------------------------------------------------------------
+
+    /**
+     * A request awaiting its response.
+     */
+    public static class Exchange
+        {
+        protected Exchange(HttpConnection connection, boolean fHead, boolean fKeepAlive,
+                           boolean fHttp10)
+            {
+            f_connection = connection;
+            f_fHead      = fHead;
+            f_fKeepAlive = fKeepAlive;
+            f_fHttp10    = fHttp10;
+            }
+
+        /**
+         * Send the response; could be called by any thread, but only once.
+         *
+         * @param nStatus   the status code
+         * @param asName    the header names (optional)
+         * @param asValue   the header values (optional)
+         * @param bufBody   the body, which is sent from its position to its limit (optional)
+         */
+        public void respond(int nStatus, String[] asName, String[] asValue, ByteBuffer bufBody)
+            {
+            boolean fBody  = bufBody != null && nStatus >= 200 && nStatus != 204 && nStatus != 304;
+            long    cbBody = fBody ? bufBody.remaining() : 0;
+
+            ByteBuffer bufHead = encodeHead(nStatus, asName, asValue, cbBody, fBody || nStatus >= 200);
+            if (bufHead == null)
+                {
+                // the handler has produced an invalid header
+                bufHead = encodeHead(500, null, null, 0, true);
+                fBody   = false;
+                }
+
+            m_abufOut = fBody && !f_fHead && cbBody > 0
+                    ? new ByteBuffer[] {bufHead, bufBody.duplicate()}
+                    : new ByteBuffer[] {bufHead};
+
+            HttpConnection connection = f_connection;
+            connection.f_loop.execute(connection::onWritable);
+            }
+
+        /**
+         * Encode the status line and the headers.
+         *
+         * @return the buffer holding the response head or null if any of the headers is invalid
+         */
+        protected ByteBuffer encodeHead(int nStatus, String[] asName, String[] asValue,
+                                        long cbBody, boolean fLength)
+            {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("HTTP/1.1 ")
+              .append(nStatus)
+              .append(' ')
+              .append(getReason(nStatus))
+              .append("\r\n");
+
+            if (asName != null)
+                {
+                for (int i = 0, c = asName.length; i < c; i++)
+                    {
+                    String sName  = asName[i];
+                    String sValue = asValue[i];
+                    if (!isValidHeader(sName) || !isValidHeader(sValue) || sName.isEmpty())
+                        {
+                        return null;
+                        }
+
+                    switch (sName.toLowerCase(Locale.ROOT))
+                        {
+                        case "content-length":
+                        case "transfer-encoding":
+                        case "connection":
+                        case "date":
+                            // controlled by the server
+                            continue;
+                        }
+
+                    sb.append(sName).append(": ").append(sValue).append("\r\n");
+                    }
+                }
+
+            sb.append("Date: ").append(getDate()).append("\r\n");
+            if (fLength)
+                {
+                sb.append("Content-Length: ").append(cbBody).append("\r\n");
+                }
+            if (!f_fKeepAlive)
+                {
+                sb.append("Connection: close\r\n");
+                }
+            else if (f_fHttp10)
+                {
+                sb.append("Connection: keep-alive\r\n");
+                }
+            sb.append("\r\n");
+
+            return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+            }
+
+        private static boolean isValidHeader(String s)
+            {
+            for (int i = 0, c = s.length(); i < c; i++)
+                {
+                char ch = s.charAt(i);
+                if (ch == '\r' || ch == '\n' || ch > 0xFF)
+                    {
+                    return false;
+                    }
+                }
+            return true;
+            }
+
+        /**
+         * The connection the request has arrived on.
+         */
+        protected final HttpConnection f_connection;
+
+        /**
+         * True iff the request is a "HEAD" request, so the response body is not sent.
+         */
+        protected final boolean f_fHead;
+
+        /**
+         * True iff the connection stays open after the response is sent.
+         */
+        protected final boolean f_fKeepAlive;
+
+        /**
+         * True iff the request came from an HTTP/1.0 client, which needs to be told that the
+         * connection is kept alive.
+         */
+        protected final boolean f_fHttp10;
+
+        /**
+         * The response to send; null until the response is produced.
+         */
+        protected volatile ByteBuffer[] m_abufOut;
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * @return the reason phrase for the specified status code
+     */
+    protected static String getReason(int nStatus)
+        {
+        switch (nStatus)
+            {
+            case 100: return "Continue";
+            case 200: return "OK";
+            case 201: return "Created";
+            case 202: return "Accepted";
+            case 204: return "No Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 413: return "Payload Too Large";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 503: return "Service Unavailable";
+            case 505: return "HTTP Version Not Supported";
+            default:  return "Status " + nStatus;
+            }
+        }
+
+    /**
+     * @return the current date in the format required by the "Date" header; the value is cached
+     *         for the duration of a second
+     */
+    protected static String getDate()
+        {
+        long       lSecond = System.currentTimeMillis() / 1000;
+        CachedDate date    = s_date;
+        if (date.f_lSecond != lSecond)
+            {
+            s_date = date = new CachedDate(lSecond, DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.now(ZoneOffset.UTC)));
+            }
+        return date.f_sDate;
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The maximum size of a request line and the headers; could be set using the
+     * "xvm.http.maxHead" system property.
+     */
+    public static final int MAX_HEAD_SIZE = Integer.getInteger("xvm.http.maxHead", 64 * 1024);
+
+    /**
+     * The maximum size of a request body; could be set using the "xvm.http.maxBody" system
+     * property.
+     */
+    public static final long MAX_BODY_SIZE = Long.getLong("xvm.http.maxBody", 16 * 1024 * 1024);
+
+    /**
+     * The maximum number of the requests on a connection that are waiting for their responses;
+     * once it's reached, no more requests are read until some of the responses are sent.
+     */
+    public static final int MAX_PIPELINED = 16;
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private static final byte[] CONTINUE =
+            "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    /**
+     * The "Date" header value for the current second.
+     */
+    private static class CachedDate
+        {
+        CachedDate(long lSecond, String sDate)
+            {
+            f_lSecond = lSecond;
+            f_sDate   = sDate;
+            }
+
+        final long   f_lSecond;
+        final String f_sDate;
+        }
+
+    private static volatile CachedDate s_date = new CachedDate(-1, "");
+
+    /**
+     * The I/O loop serving the connection.
+     */
+    protected final HttpEngine.Loop f_loop;
+
+    /**
+     * The underlying channel.
+     */
+    protected final SocketChannel f_channel;
+
+    /**
+     * The channel's selection key.
+     */
+    private SelectionKey m_key;
+
+    /**
+     * The buffer holding the bytes that have been read but not processed yet.
+     */
+    private ByteBuffer m_bufIn = ByteBuffer.allocate(8 * 1024);
+
+    /**
+     * The requests awaiting their responses, in the order of arrival.
+     */
+    private final ArrayDeque<Exchange> f_queue = new ArrayDeque<>();
+
+    /**
+     * The time of the last activity on the connection.
+     */
+    private long m_ldtActive;
+
+    /**
+     * The parsed request head.
+     */
+    private String   m_sMethod;
+    private String   m_sUri;
+    private String   m_sVersion = "HTTP/1.1";
+    private String[] m_asName;
+    private String[] m_asValue;
+    private long     m_cbBody;
+    private boolean  m_fKeepAlive;
+    private boolean  m_fExpectContinue;
+
+    /**
+     * The body being read and the number of its bytes read so far.
+     */
+    private byte[] m_abBody;
+    private int    m_ofBody;
+
+    /**
+     * True iff the reading is suspended because there are too many pipelined requests.
+     */
+    private boolean m_fSuspended;
+
+    /**
+     * True iff a request has been rejected, so no more requests are processed.
+     */
+    private boolean m_fRejected;
+
+    /**
+     * True iff the client has shut down its side of the connection.
+     */
+    private boolean m_fInputClosed;
+
+    /**
+     * True iff the connection has been closed.
+     */
+    private boolean m_fClosed;
+    }
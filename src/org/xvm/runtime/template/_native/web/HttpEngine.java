@@ -0,0 +1,392 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.io.IOException;
+
+import java.net.StandardSocketOptions;
+
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.util.Iterator;
+import java.util.Queue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * The native part of an HTTP server.
+ *
+ * The engine runs a few I/O loops (see {@link #LOOP_COUNT}); the first loop also accepts the new
+ * connections and assigns them to the loops in a round-robin fashion. Unlike the
+ * {@link org.xvm.runtime.template._native.net.NetSelector} loops, which only report the channel
+ * readiness to the owning services, these loops perform all the I/O and parsing themselves, so the
+ * services only see the complete requests (see {@link Dispatcher}).
+ */
+public class HttpEngine
+    {
+    /**
+     * Construct an HttpEngine.
+     *
+     * @param channel     the (bound) server channel
+     * @param dispatcher  the dispatcher for the parsed requests
+     */
+    public HttpEngine(ServerSocketChannel channel, Dispatcher dispatcher)
+            throws IOException
+        {
+        f_channel    = channel;
+        f_dispatcher = dispatcher;
+
+        Loop[] aLoop = new Loop[LOOP_COUNT];
+        try
+            {
+            for (int i = 0; i < LOOP_COUNT; i++)
+                {
+                aLoop[i] = new Loop(i);
+                }
+            }
+        catch (IOException e)
+            {
+            for (Loop loop : aLoop)
+                {
+                if (loop != null)
+                    {
+                    loop.f_selector.close();
+                    }
+                }
+            throw e;
+            }
+        f_aLoop = aLoop;
+        }
+
+    /**
+     * @return the dispatcher for the parsed requests
+     */
+    public Dispatcher getDispatcher()
+        {
+        return f_dispatcher;
+        }
+
+    /**
+     * Start accepting and serving the connections.
+     */
+    public void start()
+            throws IOException
+        {
+        f_channel.configureBlocking(false);
+        f_channel.register(f_aLoop[0].f_selector, SelectionKey.OP_ACCEPT, this);
+
+        for (Loop loop : f_aLoop)
+            {
+            loop.start();
+            }
+        }
+
+    /**
+     * Stop accepting the connections and close all the open ones.
+     */
+    public void close()
+        {
+        if (f_fClosed.compareAndSet(false, true))
+            {
+            try
+                {
+                f_channel.close();
+                }
+            catch (IOException e) {}
+
+            for (Loop loop : f_aLoop)
+                {
+                loop.f_selector.wakeup();
+                }
+            }
+        }
+
+    /**
+     * Accept all the pending connections; called by the first loop.
+     */
+    private void accept()
+        {
+        while (true)
+            {
+            SocketChannel channel;
+            try
+                {
+                channel = f_channel.accept();
+                if (channel == null)
+                    {
+                    return;
+                    }
+                }
+            catch (IOException e)
+                {
+                return;
+                }
+
+            try
+                {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                }
+            catch (IOException e)
+                {
+                try
+                    {
+                    channel.close();
+                    }
+                catch (IOException e2) {}
+                continue;
+                }
+
+            Loop loop = f_aLoop[(m_cAccepted++ & Integer.MAX_VALUE) % f_aLoop.length];
+            loop.execute(() -> loop.register(channel));
+            }
+        }
+
+
+    // ----- Loop ----------------------------------------------------------------------------------
+
+    /**
+     * An I/O loop serving a subset of the connections.
+     */
+    public class Loop
+            extends Thread
+        {
+        private Loop(int nId)
+                throws IOException
+            {
+            super("HttpLoop-" + f_channel.socket().getLocalPort() + '-' + nId);
+
+            setDaemon(true);
+
+            f_selector = Selector.open();
+            }
+
+        /**
+         * @return the engine this loop belongs to
+         */
+        public HttpEngine getEngine()
+            {
+            return HttpEngine.this;
+            }
+
+        /**
+         * Run the specified task on this loop's thread.
+         */
+        public void execute(Runnable task)
+            {
+            f_queueTasks.add(task);
+            if (f_fWakeup.compareAndSet(false, true))
+                {
+                f_selector.wakeup();
+                }
+            }
+
+        @Override
+        public void run()
+            {
+            Selector selector   = f_selector;
+            long     ldtNextIdle = System.currentTimeMillis() + IDLE_CHECK_MILLIS;
+            while (!f_fClosed.get())
+                {
+                try
+                    {
+                    selector.select(IDLE_CHECK_MILLIS);
+                    }
+                catch (IOException e)
+                    {
+                    // there is nothing the loop can do about it, but try again
+                    continue;
+                    }
+
+                f_fWakeup.set(false);
+
+                Runnable task;
+                while ((task = f_queueTasks.poll()) != null)
+                    {
+                    task.run();
+                    }
+
+                Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+                while (iter.hasNext())
+                    {
+                    SelectionKey key = iter.next();
+                    iter.remove();
+
+                    Object oAttachment = key.attachment();
+                    if (oAttachment == HttpEngine.this)
+                        {
+                        accept();
+                        continue;
+                        }
+
+                    HttpConnection connection = (HttpConnection) oAttachment;
+                    try
+                        {
+                        int nReady = key.readyOps();
+                        if ((nReady & SelectionKey.OP_WRITE) != 0)
+                            {
+                            connection.onWritable();
+                            }
+                        if ((nReady & SelectionKey.OP_READ) != 0 && key.isValid())
+                            {
+                            connection.onReadable();
+                            }
+                        }
+                    catch (CancelledKeyException e)
+                        {
+                        connection.close();
+                        }
+                    }
+
+                long ldtNow = System.currentTimeMillis();
+                if (ldtNow >= ldtNextIdle)
+                    {
+                    closeIdle(ldtNow);
+                    ldtNextIdle = ldtNow + IDLE_CHECK_MILLIS;
+                    }
+                }
+
+            // the engine has been closed
+            for (SelectionKey key : selector.keys())
+                {
+                Object oAttachment = key.attachment();
+                if (oAttachment instanceof HttpConnection)
+                    {
+                    ((HttpConnection) oAttachment).close();
+                    }
+                }
+            try
+                {
+                selector.close();
+                }
+            catch (IOException e) {}
+            }
+
+        /**
+         * Start serving the specified connection; called on this loop's thread.
+         */
+        private void register(SocketChannel channel)
+            {
+            HttpConnection connection = new HttpConnection(this, channel);
+            try
+                {
+                connection.setKey(channel.register(f_selector, SelectionKey.OP_READ, connection));
+                }
+            catch (ClosedChannelException e)
+                {
+                connection.close();
+                }
+            }
+
+        /**
+         * Close the connections that have been idle for too long.
+         */
+        private void closeIdle(long ldtNow)
+            {
+            for (SelectionKey key : f_selector.keys())
+                {
+                Object oAttachment = key.attachment();
+                if (oAttachment instanceof HttpConnection)
+                    {
+                    HttpConnection connection = (HttpConnection) oAttachment;
+                    if (connection.isIdle(ldtNow, IDLE_TIMEOUT_MILLIS))
+                        {
+                        connection.close();
+                        }
+                    }
+                }
+            }
+
+        /**
+         * The underlying selector.
+         */
+        private final Selector f_selector;
+
+        /**
+         * The tasks to be run by the loop's thread.
+         */
+        private final Queue<Runnable> f_queueTasks = new ConcurrentLinkedQueue<>();
+
+        /**
+         * True iff the selector has been woken up to run the tasks.
+         */
+        private final AtomicBoolean f_fWakeup = new AtomicBoolean();
+        }
+
+
+    // ----- Dispatcher ----------------------------------------------------------------------------
+
+    /**
+     * The recipient of the parsed requests.
+     */
+    public interface Dispatcher
+        {
+        /**
+         * Process the specified request; called on the connection's I/O loop thread, so the
+         * processing itself must be done asynchronously. The result is reported by calling
+         * {@link HttpConnection.Exchange#respond}.
+         *
+         * @param exchange  the exchange to respond to
+         * @param sMethod   the request method
+         * @param sUri      the request target
+         * @param sVersion  the protocol version
+         * @param asName    the (lower case) header names
+         * @param asValue   the header values
+         * @param abBody    the request body
+         */
+        void dispatch(HttpConnection.Exchange exchange, String sMethod, String sUri,
+                      String sVersion, String[] asName, String[] asValue, byte[] abBody);
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The number of the I/O loops per server; could be set using the "xvm.http.loops" system
+     * property.
+     */
+    public static final int LOOP_COUNT = Math.max(1, Integer.getInteger("xvm.http.loops",
+            Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+    /**
+     * The time after which an idle connection is closed; could be set using the
+     * "xvm.http.idleTimeout" system property.
+     */
+    public static final long IDLE_TIMEOUT_MILLIS = Long.getLong("xvm.http.idleTimeout", 60_000L);
+
+    /**
+     * How often the loops look for the idle connections.
+     */
+    private static final long IDLE_CHECK_MILLIS = 1000L;
+
+    /**
+     * The server channel.
+     */
+    private final ServerSocketChannel f_channel;
+
+    /**
+     * The dispatcher for the parsed requests.
+     */
+    private final Dispatcher f_dispatcher;
+
+    /**
+     * The I/O loops.
+     */
+    private final Loop[] f_aLoop;
+
+    /**
+     * True once the engine has been closed.
+     */
+    private final AtomicBoolean f_fClosed = new AtomicBoolean();
+
+    /**
+     * The number of connections accepted so far; only accessed by the first loop.
+     */
+    private int m_cAccepted;
+    }
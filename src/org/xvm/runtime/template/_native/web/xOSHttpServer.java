@@ -0,0 +1,452 @@
+package org.xvm.runtime.template._native.web;
+
+
+import java.io.IOException;
+
+import java.net.InetSocketAddress;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.ServerSocketChannel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ArrayHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.collections.xArray;
+import org.xvm.runtime.template.collections.xArray.GenericArrayHandle;
+
+import org.xvm.runtime.template.io.xByteBuffer;
+import org.xvm.runtime.template.io.xByteBuffer.ByteBufferHandle;
+
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xFunction;
+import org.xvm.runtime.template.xFunction.FunctionHandle;
+import org.xvm.runtime.template.xInt64;
+import org.xvm.runtime.template.xService.ServiceHandle;
+import org.xvm.runtime.template.xString;
+import org.xvm.runtime.template.xString.StringHandle;
+
+import org.xvm.runtime.template._native.net.SelectableHandle;
+
+
+/**
+ * Native OSHttpServer implementation.
+ *
+ * The connections are served by an {@link HttpEngine}; each parsed request is sent as a message
+ * to the service of the handler it is dispatched to (see {@link ServiceContext#sendNativeCallRequest}),
+ * where the natural "dispatch" function calls the handler. The response values are then encoded
+ * on the handler's service thread and handed back to the connection's I/O loop.
+ */
+public class xOSHttpServer
+        extends ClassTemplate
+    {
+    public static xOSHttpServer INSTANCE;
+
+    public xOSHttpServer(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        ClassTemplate templateServer = f_templates.getTemplate("web.HttpServer");
+
+        s_clzServer      = ensureClass(getCanonicalType(), templateServer.getCanonicalType());
+        s_methodDispatch = f_struct.findMethod("dispatch", 7);
+
+        markNativeProperty("localAddress");
+        markNativeProperty("port");
+
+        markNativeMethod("start", null, VOID);
+        markNativeMethod("close", VOID, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    /**
+     * Create a new (not yet started) server owned by the specified service.
+     *
+     * @param context  the owning service context
+     *
+     * @return the HttpServer handle
+     */
+    public ObjectHandle createServer(ServiceContext context)
+        {
+        return new HttpServerHandle(s_clzServer, context);
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        HttpServerHandle hServer = (HttpServerHandle) hTarget;
+
+        switch (sPropName)
+            {
+            case "localAddress":
+            case "port":
+                {
+                ServerSocketChannel channel = hServer.m_channel;
+                if (channel == null)
+                    {
+                    return frame.raiseException(
+                        xException.illegalState(frame, "The server has not been started"));
+                    }
+
+                try
+                    {
+                    InetSocketAddress address = (InetSocketAddress) channel.getLocalAddress();
+                    return frame.assignValue(iReturn, sPropName.equals("port")
+                            ? xInt64.makeHandle(address.getPort())
+                            : xString.makeHandle(SelectableHandle.formatAddress(address)));
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                    }
+                }
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        HttpServerHandle hServer = (HttpServerHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "start": // void start(String host, Int port, Handler[] handlers)
+                {
+                String      sHost     = ((StringHandle) ahArg[0]).getStringValue();
+                long        lPort     = ((JavaLong) ahArg[1]).getValue();
+                ArrayHandle hHandlers = (ArrayHandle) ahArg[2];
+
+                if (hServer.m_engine != null)
+                    {
+                    return frame.raiseException(
+                        xException.illegalState(frame, "The server has already been started"));
+                    }
+                if (lPort < 0 || lPort > 0xFFFF)
+                    {
+                    return frame.raiseException(
+                        xException.illegalArgument(frame, "Invalid port: " + lPort));
+                    }
+                if (!(hHandlers instanceof GenericArrayHandle) || hHandlers.m_cSize == 0)
+                    {
+                    return frame.raiseException(
+                        xException.illegalArgument(frame, "No handlers"));
+                    }
+
+                GenericArrayHandle hArray    = (GenericArrayHandle) hHandlers;
+                int                cHandlers = hArray.m_cSize;
+                ObjectHandle[]     ahHandler = new ObjectHandle[cHandlers];
+                System.arraycopy(hArray.m_ahValue, hArray.m_ofStart, ahHandler, 0, cHandlers);
+
+                try
+                    {
+                    hServer.start(sHost.isEmpty()
+                            ? new InetSocketAddress((int) lPort)
+                            : new InetSocketAddress(sHost, (int) lPort),
+                        ahHandler);
+                    return Op.R_NEXT;
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(SelectableHandle.makeIOException(frame, e));
+                    }
+                }
+
+            case "close":
+                hServer.close();
+                return Op.R_NEXT;
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The HttpServer handle.
+     */
+    public static class HttpServerHandle
+            extends ObjectHandle
+            implements HttpEngine.Dispatcher
+        {
+        protected HttpServerHandle(TypeComposition clazz, ServiceContext context)
+            {
+            super(clazz);
+
+            m_fMutable = true;
+            f_context  = context;
+            }
+
+        /**
+         * Bind the server and start serving the connections.
+         */
+        protected void start(InetSocketAddress address, ObjectHandle[] ahHandler)
+                throws IOException
+            {
+            int              cHandlers = ahHandler.length;
+            ServiceContext[] aContext  = new ServiceContext[cHandlers];
+            for (int i = 0; i < cHandlers; i++)
+                {
+                ObjectHandle hHandler = ahHandler[i];
+                aContext[i] = hHandler instanceof ServiceHandle
+                        ? ((ServiceHandle) hHandler).m_context
+                        : f_context;
+                }
+
+            ServerSocketChannel channel = ServerSocketChannel.open();
+            try
+                {
+                channel.bind(address);
+
+                HttpEngine engine = new HttpEngine(channel, this);
+
+                m_ahHandler = ahHandler;
+                m_aContext  = aContext;
+                m_acPending = new AtomicIntegerArray(cHandlers);
+                m_channel   = channel;
+                m_engine    = engine;
+
+                engine.start();
+                }
+            catch (IOException | RuntimeException e)
+                {
+                channel.close();
+                m_channel = null;
+                m_engine  = null;
+                throw e;
+                }
+            }
+
+        /**
+         * Stop the server.
+         */
+        protected void close()
+            {
+            HttpEngine engine = m_engine;
+            if (engine != null)
+                {
+                engine.close();
+                }
+            }
+
+        @Override
+        public void dispatch(HttpConnection.Exchange exchange, String sMethod, String sUri,
+                             String sVersion, String[] asName, String[] asValue, byte[] abBody)
+            {
+            int                iHandler  = selectHandler();
+            AtomicIntegerArray acPending = m_acPending;
+
+            ObjectHandle[] ahArg = new ObjectHandle[]
+                {
+                m_ahHandler[iHandler],
+                xString.makeHandle(sMethod),
+                xString.makeHandle(sUri),
+                xString.makeHandle(sVersion),
+                makeStringArray(asName),
+                makeStringArray(asValue),
+                xByteBuffer.makeHandle(ByteBuffer.wrap(abBody).asReadOnlyBuffer()),
+                };
+
+            acPending.incrementAndGet(iHandler);
+
+            CompletableFuture<ObjectHandle[]> cfResult =
+                m_aContext[iHandler].sendNativeCallRequest(getDispatchFunction(), ahArg, 4);
+
+            // this runs on the handler's service thread
+            cfResult.whenComplete((ahResult, ex) ->
+                {
+                acPending.decrementAndGet(iHandler);
+
+                if (ex == null)
+                    {
+                    respond(exchange, ahResult);
+                    }
+                else
+                    {
+                    exchange.respond(500, null, null, null);
+                    }
+                });
+            }
+
+        /**
+         * @return the index of the handler to dispatch the next request to: the first handler
+         *         that is not busy starting with the next one in the round-robin order or, if all
+         *         handlers are busy, the least busy one
+         */
+        private int selectHandler()
+            {
+            AtomicIntegerArray acPending = m_acPending;
+            int                cHandlers = acPending.length();
+            int                iStart    = (f_cDispatched.getAndIncrement() & Integer.MAX_VALUE) % cHandlers;
+            int                iBest     = iStart;
+            int                cBest     = Integer.MAX_VALUE;
+            for (int i = 0; i < cHandlers; i++)
+                {
+                int iHandler = (iStart + i) % cHandlers;
+                int cPending = acPending.get(iHandler);
+                if (cPending == 0)
+                    {
+                    return iHandler;
+                    }
+                if (cPending < cBest)
+                    {
+                    iBest = iHandler;
+                    cBest = cPending;
+                    }
+                }
+            return iBest;
+            }
+
+        /**
+         * Send the response produced by the "dispatch" function.
+         */
+        private static void respond(HttpConnection.Exchange exchange, ObjectHandle[] ahResult)
+            {
+            long     lStatus = ((JavaLong) ahResult[0]).getValue();
+            String[] asName  = getStrings(ahResult[1]);
+            String[] asValue = getStrings(ahResult[2]);
+
+            ObjectHandle hBody   = ahResult[3];
+            ByteBuffer   bufBody = hBody instanceof ByteBufferHandle
+                    ? ((ByteBufferHandle) hBody).getBuffer()
+                    : null;
+
+            if (lStatus < 100 || lStatus > 999 || asName == null || asValue == null
+                    || asName.length != asValue.length)
+                {
+                exchange.respond(500, null, null, null);
+                }
+            else
+                {
+                exchange.respond((int) lStatus, asName, asValue, bufBody);
+                }
+            }
+
+        /**
+         * The owning service context.
+         */
+        protected final ServiceContext f_context;
+
+        /**
+         * The handlers and the contexts to call them on.
+         */
+        private ObjectHandle[]   m_ahHandler;
+        private ServiceContext[] m_aContext;
+
+        /**
+         * The number of requests being processed by each of the handlers.
+         */
+        private AtomicIntegerArray m_acPending;
+
+        /**
+         * The number of requests dispatched so far.
+         */
+        private final AtomicInteger f_cDispatched = new AtomicInteger();
+
+        /**
+         * The server channel; null until the server is started.
+         */
+        private ServerSocketChannel m_channel;
+
+        /**
+         * The engine; null until the server is started.
+         */
+        private HttpEngine m_engine;
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * @return the handle of the "dispatch" function
+     */
+    private static FunctionHandle getDispatchFunction()
+        {
+        FunctionHandle hfn = s_hfnDispatch;
+        if (hfn == null)
+            {
+            s_hfnDispatch = hfn = xFunction.makeHandle(s_methodDispatch);
+            }
+        return hfn;
+        }
+
+    private static ObjectHandle makeStringArray(String[] as)
+        {
+        int            c  = as.length;
+        StringHandle[] ah = new StringHandle[c];
+        for (int i = 0; i < c; i++)
+            {
+            ah[i] = xString.makeHandle(as[i]);
+            }
+        return xArray.makeStringArrayHandle(ah);
+        }
+
+    /**
+     * @return the Strings held by the specified String array handle; null if the handle is not
+     *         a String array
+     */
+    private static String[] getStrings(ObjectHandle hArray)
+        {
+        if (!(hArray instanceof GenericArrayHandle))
+            {
+            return null;
+            }
+
+        GenericArrayHandle hStrings = (GenericArrayHandle) hArray;
+        ObjectHandle[]     ahValue  = hStrings.m_ahValue;
+        int                ofStart  = hStrings.m_ofStart;
+        int                c        = hStrings.m_cSize;
+        String[]           as       = new String[c];
+        for (int i = 0; i < c; i++)
+            {
+            ObjectHandle hValue = ahValue[ofStart + i];
+            if (!(hValue instanceof StringHandle))
+                {
+                return null;
+                }
+            as[i] = ((StringHandle) hValue).getStringValue();
+            }
+        return as;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    private static ClassComposition s_clzServer;
+    private static MethodStructure  s_methodDispatch;
+    private static FunctionHandle   s_hfnDispatch;
+    }
@@ -5,19 +5,27 @@ import java.io.BufferedReader;
 import java.io.Console;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.MethodStructure;
 import org.xvm.asm.Op;
 
+import org.xvm.runtime.Fiber;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.ServiceContext.Response;
 import org.xvm.runtime.TemplateRegistry;
 import org.xvm.runtime.Utils;
 
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xBoolean.BooleanHandle;
+import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xService;
 import org.xvm.runtime.template.xString;
 import org.xvm.runtime.template.xString.StringHandle;
@@ -25,21 +33,37 @@ import org.xvm.runtime.template.xString.StringHandle;
 
 /**
  * The injectable "Console" that prints to the screen / terminal.
+ *
+ * The printed text is handed over to the {@link ConsoleWriter} thread, and the lines are read by a
+ * dedicated reader thread, so the service thread never waits for the terminal; only the fiber
+ * calling readLine() does.
  */
 public class xTerminalConsole
         extends xService
     {
     private static final Console        CONSOLE     = System.console();
     private static final BufferedReader CONSOLE_IN;
-    private static final PrintWriter    CONSOLE_OUT;
+    private static final ConsoleWriter  CONSOLE_OUT;
     static
         {
         CONSOLE_IN  = CONSOLE == null || CONSOLE.reader() == null
                 ? new BufferedReader(new InputStreamReader(System.in))
                 : new BufferedReader(CONSOLE.reader());
-        CONSOLE_OUT = CONSOLE == null || CONSOLE.writer() == null
-                ? new PrintWriter(System.out, true)
-                : CONSOLE.writer();
+        CONSOLE_OUT = new ConsoleWriter(CONSOLE == null || CONSOLE.writer() == null
+                ? new OutputStreamWriter(System.out)
+                : CONSOLE.writer());
+        }
+
+    /**
+     * Append the specified text to the console output without waiting for it to be written; this
+     * allows the output that bypasses the console service (e.g. the runtime's log) to appear in
+     * order with the printed text.
+     *
+     * @param sText  the text
+     */
+    public static void writeOutput(String sText)
+        {
+        CONSOLE_OUT.write(sText);
         }
 
     public xTerminalConsole(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
@@ -114,37 +138,79 @@ public class xTerminalConsole
             {
             case "readLine": // String format, Sequence<Object> args
                 {
-                StringHandle hLine;
-                try
-                    {
-                    hLine = m_fEcho || CONSOLE == null
-                            ? xString.makeHandle(CONSOLE_IN.readLine())
-                            : xString.makeHandle(CONSOLE.readPassword());
-                    }
-                catch (IOException e)
-                    {
-                    hLine = xString.makeHandle(e.getMessage());
-                    }
+                ServiceContext                  context = frame.f_context;
+                Fiber                           fiber   = frame.f_fiber;
+                boolean                         fEcho   = m_fEcho;
+                CompletableFuture<ObjectHandle> cfLine  = new CompletableFuture<>();
 
-                return frame.assignValue(iReturn, hLine);
+                READER.execute(() ->
+                    {
+                    // make sure the prompt is visible
+                    CONSOLE_OUT.flush(FLUSH_MILLIS);
+
+                    String sLine;
+                    try
+                        {
+                        if (fEcho || CONSOLE == null)
+                            {
+                            sLine = CONSOLE_IN.readLine();
+                            }
+                        else
+                            {
+                            char[] achLine = CONSOLE.readPassword();
+                            sLine = achLine == null ? null : new String(achLine);
+                            }
+                        }
+                    catch (IOException e)
+                        {
+                        sLine = e.getMessage();
+                        }
+
+                    // the end of the input is reported as an EndOfFile exception
+                    Response<ObjectHandle> response = sLine == null
+                        ? new Response<>(fiber, null, xException.endOfFile(frame), cfLine)
+                        : new Response<>(fiber, xString.makeHandle(sLine), null, cfLine);
+
+                    context.respond(response);
+                    context.f_container.f_runtime.f_daemons.signal();
+                    });
+
+                return frame.assignFutureResult(iReturn, cfLine);
                 }
             }
 
         return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
         }
 
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     private static Frame.Continuation PRINT = frameCaller ->
         {
-        CONSOLE_OUT.print(((StringHandle) frameCaller.popStack()).getValue());
-        CONSOLE_OUT.flush();
+        CONSOLE_OUT.write(((StringHandle) frameCaller.popStack()).getStringValue());
         return Op.R_NEXT;
         };
 
     private static Frame.Continuation PRINTLN = frameCaller ->
         {
-        CONSOLE_OUT.println(((StringHandle) frameCaller.popStack()).getValue());
+        CONSOLE_OUT.write(
+            ((StringHandle) frameCaller.popStack()).getStringValue() + LINE_SEPARATOR);
         return Op.R_NEXT;
         };
 
+    /**
+     * The maximum time to wait for the printed text to be written out before proceeding anyway.
+     */
+    private static final long FLUSH_MILLIS = 1000;
+
+    /**
+     * The thread that reads the console input; a single thread keeps the lines in order.
+     */
+    private static final ExecutorService READER = Executors.newSingleThreadExecutor(runnable ->
+        {
+        Thread thread = new Thread(runnable, "ConsoleReader");
+        thread.setDaemon(true);
+        return thread;
+        });
+
     private boolean m_fEcho;
     }
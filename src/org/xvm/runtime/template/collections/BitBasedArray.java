@@ -65,7 +65,30 @@ public abstract class BitBasedArray
         int            cBits = hSrc.m_cSize;
 
         return new BitArrayHandle(hSrc.getComposition(),
-            Arrays.copyOfRange(hSrc.m_abValue, 0, storage(cBits)), cBits, mutability);
+            copyBits(hSrc.m_abValue, hSrc.m_ofStart, cBits, storage(cBits)), cBits, mutability);
+        }
+
+    @Override
+    protected ArrayHandle createSlice(ArrayHandle hArray, int ofStart, int cSize)
+        {
+        BitArrayHandle hSrc = (BitArrayHandle) hArray;
+
+        BitArrayHandle hSlice = new BitArrayHandle(hSrc.getComposition(),
+            hSrc.m_abValue, cSize, Mutability.Mutable);
+        hSlice.m_ofStart = hSrc.m_ofStart + ofStart;
+        return hSlice;
+        }
+
+    @Override
+    protected void reverse(ArrayHandle hArray)
+        {
+        byte[] abValue = ((BitArrayHandle) hArray).m_abValue;
+        for (int i = 0, j = hArray.m_cSize - 1; i < j; i++, j--)
+            {
+            boolean f = getBit(abValue, i);
+            setBit(abValue, i, getBit(abValue, j));
+            setBit(abValue, j, f);
+            }
         }
 
     @Override
@@ -108,7 +131,8 @@ public abstract class BitBasedArray
             {
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
-        return frame.assignValue(iReturn, makeBitHandle(getBit(hArray.m_abValue, (int) lIndex)));
+        return frame.assignValue(iReturn,
+                makeBitHandle(getBit(hArray.m_abValue, hArray.m_ofStart + (int) lIndex)));
         }
 
     @Override
@@ -132,17 +156,19 @@ public abstract class BitBasedArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         byte[] abValue = hArray.m_abValue;
         if (lIndex == cSize)
             {
-            if (hArray.m_mutability == Mutability.FixedSize)
-                {
-                return frame.raiseException(xException.readOnly(frame));
-                }
-
             // an array can only grow without any "holes"
-            if (storage(cSize) == abValue.length)
+            if (storage(cSize + 1) > abValue.length)
                 {
+                if (hArray.m_mutability == Mutability.FixedSize)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
                 abValue = hArray.m_abValue = grow(abValue, storage(cSize) + 1);
                 }
 
@@ -160,8 +186,7 @@ public abstract class BitBasedArray
         BitArrayHandle h1 = (BitArrayHandle) hValue1;
         BitArrayHandle h2 = (BitArrayHandle) hValue2;
 
-        return frame.assignValue(iReturn,
-                xBoolean.makeHandle(Arrays.equals(h1.m_abValue, h2.m_abValue)));
+        return frame.assignValue(iReturn, xBoolean.makeHandle(h1.equals(h2)));
         }
 
     @Override
@@ -175,7 +200,7 @@ public abstract class BitBasedArray
             return false;
             }
 
-        return Arrays.equals(hArray1.m_abValue, hArray2.m_abValue);
+        return hArray1.equals(hArray2);
         }
 
     @Override
@@ -197,6 +222,8 @@ public abstract class BitBasedArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         byte[] abValue = hArray.m_abValue;
         if (ixNext == abValue.length)
             {
@@ -231,6 +258,11 @@ public abstract class BitBasedArray
         int cAdd = hArrayAdd.m_cSize;
         if (cAdd > 0)
             {
+            byte[] abAdd = hArrayAdd.m_abValue;
+            int    ofAdd = hArrayAdd.m_ofStart;
+
+            hArray.ensureExclusive();
+
             byte[] abThis = hArray.m_abValue;
             int    cThis  = hArray.m_cSize;
             int    cNew   = cThis + cAdd;
@@ -240,44 +272,14 @@ public abstract class BitBasedArray
                 }
             hArray.m_cSize = cNew;
 
-            byte[] abAdd = hArrayAdd.m_abValue;
             for (int iBit = 0; iBit < cAdd; iBit++)
                 {
-                setBit(abThis, cThis + iBit, getBit(abAdd, iBit));
+                setBit(abThis, cThis + iBit, getBit(abAdd, ofAdd + iBit));
                 }
             }
         return frame.assignValue(iReturn, hArray);
         }
 
-    @Override
-    protected int slice(Frame frame, ObjectHandle hTarget, long ixFrom, long ixTo, int iReturn)
-        {
-        BitArrayHandle hArray = (BitArrayHandle) hTarget;
-
-        byte[] abValue = hArray.m_abValue;
-        try
-            {
-            int    cBits = (int) (ixTo - ixFrom + 1);
-            byte[] abNew = new byte[storage(cBits)];
-
-            for (int iBit = 0; iBit <= cBits; iBit++)
-                {
-                setBit(abNew, iBit, getBit(abValue, (int) ixFrom + iBit));
-                }
-
-            BitArrayHandle hArrayNew = new BitArrayHandle(hTarget.getComposition(),
-                abNew, cBits, Mutability.Mutable);
-
-            return frame.assignValue(iReturn, hArrayNew);
-            }
-        catch (ArrayIndexOutOfBoundsException e)
-            {
-            long c = abValue.length;
-            return frame.raiseException(
-                xException.outOfBounds(frame, ixFrom < 0 || ixFrom >= c ? ixFrom : ixTo, c));
-            }
-        }
-
     /**
      * @return true iff the specified value represents a "set" bit
      */
@@ -300,6 +302,37 @@ public abstract class BitBasedArray
         return abNew;
         }
 
+    /**
+     * Copy the specified range of bits into a new byte array.
+     *
+     * @param abValue  the byte array
+     * @param ofStart  the index of the first bit to copy
+     * @param cBits    the number of bits to copy
+     * @param cLength  the length of the new byte array
+     *
+     * @return the new byte array
+     */
+    public static byte[] copyBits(byte[] abValue, int ofStart, int cBits, int cLength)
+        {
+        if (ofStart % 8 == 0)
+            {
+            int    of    = index(ofStart);
+            byte[] abNew = new byte[cLength];
+            System.arraycopy(abValue, of, abNew, 0, Math.min(storage(cBits), abValue.length - of));
+            return abNew;
+            }
+
+        byte[] abNew = new byte[cLength];
+        for (int iBit = 0; iBit < cBits; iBit++)
+            {
+            if (getBit(abValue, ofStart + iBit))
+                {
+                abNew[index(iBit)] |= bitMask(iBit);
+                }
+            }
+        return abNew;
+        }
+
     /**
      * Calculate the size of a byte array to represent a bit array.
      *
@@ -406,7 +439,14 @@ public abstract class BitBasedArray
         @Override
         public int getCapacity()
             {
-            return m_abValue.length;
+            return m_abValue.length - index(m_ofStart);
+            }
+
+        @Override
+        protected void copyStorage()
+            {
+            m_abValue = copyBits(m_abValue, m_ofStart, m_cSize,
+                storage(getExclusiveCapacity(m_abValue.length * 8)));
             }
 
         @Override
@@ -414,10 +454,10 @@ public abstract class BitBasedArray
             {
             if (isMutable())
                 {
-                // purge the unused space
+                // purge the unused space (unless the storage is shared)
                 byte[] ab = m_abValue;
                 int    c  = storage(m_cSize);
-                if (ab.length != c)
+                if (!m_fShared && ab.length != c)
                     {
                     byte[] abNew = new byte[c];
                     System.arraycopy(ab, 0, abNew, 0, c);
@@ -436,22 +476,26 @@ public abstract class BitBasedArray
         @Override
         public int compareTo(ObjectHandle that)
             {
+            BitArrayHandle hThat = (BitArrayHandle) that;
+
             byte[] abThis = m_abValue;
+            int    ofThis = m_ofStart;
             int    cThis  = m_cSize;
-            byte[] abThat = ((BitArrayHandle) that).m_abValue;
-            int    cThat  = ((BitArrayHandle) that).m_cSize;
+            byte[] abThat = hThat.m_abValue;
+            int    ofThat = hThat.m_ofStart;
+            int    cThat  = hThat.m_cSize;
 
             if (cThis != cThat)
                 {
                 return cThis - cThat;
                 }
 
-            for (int i = 0, c = storage(cThis); i < c; i++)
+            for (int i = 0; i < cThis; i++)
                 {
-                int iDiff = abThis[i] - abThat[i];
-                if (iDiff != 0)
+                boolean fThis = getBit(abThis, ofThis + i);
+                if (fThis != getBit(abThat, ofThat + i))
                     {
-                    return iDiff < 0 ? -1 : 1;
+                    return fThis ? 1 : -1;
                     }
                 }
             return 0;
@@ -460,14 +504,20 @@ public abstract class BitBasedArray
         @Override
         public int hashCode()
             {
-            return Arrays.hashCode(m_abValue);
+            byte[] abValue = m_abValue;
+            int    nHash   = 1;
+            for (int i = m_ofStart, iEnd = i + m_cSize; i < iEnd; i++)
+                {
+                nHash = 31 * nHash + (getBit(abValue, i) ? 1 : 0);
+                }
+            return nHash;
             }
 
         @Override
         public boolean equals(Object obj)
             {
             return obj instanceof BitArrayHandle
-                && Arrays.equals(m_abValue, ((BitArrayHandle) obj).m_abValue);
+                && compareTo((BitArrayHandle) obj) == 0;
             }
         }
     }
@@ -0,0 +1,87 @@
+package org.xvm.runtime.template.collections;
+
+
+import java.util.Arrays;
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xConstrainedInteger;
+import org.xvm.runtime.template.xUnsignedConstrainedInt;
+
+
+/**
+ * Native Array implementation for the 8-bit integer types (Int8), holding the elements in a byte[].
+ */
+public class ByteBasedArray
+        extends PrimitiveArray
+    {
+    public ByteBasedArray(TemplateRegistry templates, ClassStructure structure, xConstrainedInteger template)
+        {
+        super(templates, structure, template, 1);
+
+        f_templateInt = template;
+        f_fUnsigned   = template instanceof xUnsignedConstrainedInt;
+        }
+
+    @Override
+    protected Object allocate(int cCapacity)
+        {
+        return new byte[cCapacity];
+        }
+
+    @Override
+    protected ObjectHandle getElement(Object oStorage, int iIndex)
+        {
+        return f_templateInt.makeJavaLong(toLong(((byte[]) oStorage)[iIndex]));
+        }
+
+    @Override
+    protected void setElement(Object oStorage, int iIndex, ObjectHandle hValue)
+        {
+        ((byte[]) oStorage)[iIndex] = (byte) ((JavaLong) hValue).getValue();
+        }
+
+    @Override
+    protected void fill(Object oStorage, int cSize, ObjectHandle hValue)
+        {
+        Arrays.fill((byte[]) oStorage, 0, cSize, (byte) ((JavaLong) hValue).getValue());
+        }
+
+    @Override
+    protected int compareElements(Object oStorage1, int iIndex1, Object oStorage2, int iIndex2)
+        {
+        return Long.compare(toLong(((byte[]) oStorage1)[iIndex1]),
+                            toLong(((byte[]) oStorage2)[iIndex2]));
+        }
+
+    @Override
+    protected int hashElement(Object oStorage, int iIndex)
+        {
+        return Long.hashCode(toLong(((byte[]) oStorage)[iIndex]));
+        }
+
+    /**
+     * @return the value of the specified storage element
+     */
+    private long toLong(byte n)
+        {
+        return f_fUnsigned ? n & 0xFFL : n;
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The element template.
+     */
+    private final xConstrainedInteger f_templateInt;
+
+    /**
+     * True iff the elements are unsigned.
+     */
+    private final boolean f_fUnsigned;
+    }
@@ -0,0 +1,424 @@
+package org.xvm.runtime.template.collections;
+
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+
+import org.xvm.runtime.template.xEnum.EnumHandle;
+import org.xvm.runtime.template.xString.StringHandle;
+
+
+/**
+ * The storage for the native HashMap and HashSet implementations: an open-addressing hash table
+ * with linear probing over the parallel arrays of keys, values and hashes.
+ *
+ * Removing an entry leaves a "deleted" marker in its slot, so no other entry is ever moved by a
+ * removal; this allows the Ecstasy code to iterate over the slots while removing entries. Only an
+ * insertion can re-hash the table, and each insertion increments the {@link #getAddCount add count}
+ * that the iterators use to detect a concurrent modification.
+ */
+public class HashTable
+    {
+    /**
+     * Construct an empty HashTable.
+     *
+     * @param fValues  true iff the table needs to hold values in addition to the keys
+     */
+    public HashTable(boolean fValues)
+        {
+        f_fValues = fValues;
+        allocate(MIN_CAPACITY);
+        }
+
+
+    // ----- native keys ---------------------------------------------------------------------------
+
+    /**
+     * Check whether the specified key is known to the runtime to be hashed and compared by its
+     * natural Hasher the same way as {@link #hashOf(ObjectHandle)} and {@link #areEqual} do it.
+     *
+     * @param hKey  the key
+     *
+     * @return true iff the key can be hashed and compared natively
+     */
+    public static boolean isNativeKey(ObjectHandle hKey)
+        {
+        return hKey instanceof JavaLong
+            || hKey instanceof StringHandle
+            || hKey instanceof EnumHandle;
+        }
+
+    /**
+     * Calculate the hash of a {@link #isNativeKey native} key. The result is the same as the one
+     * {@link #hashOf(long)} produces for the hash value the natural Hasher computes for the key,
+     * so an entry added natively can be found by the Ecstasy code and vice versa.
+     *
+     * @return the hash of a native key
+     */
+    public static int hashOf(ObjectHandle hKey)
+        {
+        // the natural hash of an integer is its value, of an enum its ordinal, and of a String its
+        // (sign-extended) Java hash code
+        return hKey instanceof JavaLong
+            ? hashOf(((JavaLong) hKey).getValue())
+            : hashOf((long) hKey.hashCode());
+        }
+
+    /**
+     * @return the hash for the specified hash value computed by an Ecstasy Hasher
+     */
+    public static int hashOf(long lHash)
+        {
+        return spread(Long.hashCode(lHash));
+        }
+
+    /**
+     * Compare a {@link #isNativeKey native} key with another key for equality.
+     */
+    public static boolean areEqual(ObjectHandle hKey, ObjectHandle hThat)
+        {
+        if (hKey == hThat)
+            {
+            return true;
+            }
+
+        // Int and Char are both JavaLong handles, so the templates must match as well; a String
+        // is equal to any StringHandle (plain, slice or rope) that holds the same characters
+        return hKey instanceof JavaLong
+            ? hThat instanceof JavaLong
+                && hKey.getTemplate() == hThat.getTemplate()
+                && hKey.equals(hThat)
+            : hKey.equals(hThat);
+        }
+
+    /**
+     * @return the handle to hold on to in place of the specified one
+     */
+    private static ObjectHandle retain(ObjectHandle h)
+        {
+        // don't let a String slice pin a large array (or a rope hold on to its parts) for the
+        // lifetime of the table
+        return h instanceof StringHandle ? ((StringHandle) h).compact() : h;
+        }
+
+    private static int spread(int nHash)
+        {
+        return nHash ^ (nHash >>> 16);
+        }
+
+
+    // ----- accessors -----------------------------------------------------------------------------
+
+    /**
+     * @return the number of entries in the table
+     */
+    public int size()
+        {
+        return m_cSize;
+        }
+
+    /**
+     * @return the number of entries that have ever been added to the table
+     */
+    public long getAddCount()
+        {
+        return m_cAdds;
+        }
+
+    /**
+     * @return the key in the specified slot, or null if the slot is not occupied
+     */
+    public ObjectHandle getKey(int iSlot)
+        {
+        if (iSlot >= 0 && iSlot < m_ahKey.length)
+            {
+            ObjectHandle hKey = m_ahKey[iSlot];
+            return hKey == DELETED ? null : hKey;
+            }
+        return null;
+        }
+
+    /**
+     * @return the value in the specified occupied slot
+     */
+    public ObjectHandle getValue(int iSlot)
+        {
+        return m_ahValue[iSlot];
+        }
+
+    /**
+     * Replace the value in the specified occupied slot.
+     */
+    public void setValue(int iSlot, ObjectHandle hValue)
+        {
+        m_ahValue[iSlot] = retain(hValue);
+        }
+
+
+    // ----- operations ----------------------------------------------------------------------------
+
+    /**
+     * Find the slot for a {@link #isNativeKey native} key.
+     *
+     * @param hKey   the key
+     * @param nHash  the key hash as computed by {@link #hashOf(ObjectHandle)}
+     *
+     * @return the slot holding the key or -1 if the key is not in the table
+     */
+    public int find(ObjectHandle hKey, int nHash)
+        {
+        ObjectHandle[] ahKey  = m_ahKey;
+        int[]          anHash = m_anHash;
+        int            nMask  = ahKey.length - 1;
+
+        for (int iSlot = nHash & nMask; ; iSlot = (iSlot + 1) & nMask)
+            {
+            ObjectHandle hThat = ahKey[iSlot];
+            if (hThat == null)
+                {
+                return -1;
+                }
+
+            if (anHash[iSlot] == nHash && hThat != DELETED && areEqual(hKey, hThat))
+                {
+                return iSlot;
+                }
+            }
+        }
+
+    /**
+     * Find the next slot in the probe sequence for the specified hash that holds a key with that
+     * same hash.
+     *
+     * @param nHash  the key hash
+     * @param iSlot  the slot returned by the previous call or -1 to start the search
+     *
+     * @return the next matching slot or -1 if there are no more matches
+     */
+    public int nextMatch(int nHash, int iSlot)
+        {
+        ObjectHandle[] ahKey  = m_ahKey;
+        int[]          anHash = m_anHash;
+        int            nMask  = ahKey.length - 1;
+
+        iSlot = iSlot < 0 ? nHash & nMask : (iSlot + 1) & nMask;
+        for (; ; iSlot = (iSlot + 1) & nMask)
+            {
+            ObjectHandle hThat = ahKey[iSlot];
+            if (hThat == null)
+                {
+                return -1;
+                }
+
+            if (anHash[iSlot] == nHash && hThat != DELETED)
+                {
+                return iSlot;
+                }
+            }
+        }
+
+    /**
+     * Find the next occupied slot.
+     *
+     * @param iSlot  the slot returned by the previous call or -1 to start the iteration
+     *
+     * @return the next occupied slot or -1 if there are no more occupied slots
+     */
+    public int nextSlot(int iSlot)
+        {
+        ObjectHandle[] ahKey = m_ahKey;
+        for (int i = Math.max(iSlot + 1, 0), c = ahKey.length; i < c; i++)
+            {
+            ObjectHandle hKey = ahKey[i];
+            if (hKey != null && hKey != DELETED)
+                {
+                return i;
+                }
+            }
+        return -1;
+        }
+
+    /**
+     * Add an entry for a key that is known not to be in the table.
+     *
+     * @param hKey    the key
+     * @param nHash   the key hash
+     * @param hValue  the value (ignored if the table holds no values)
+     */
+    public void insert(ObjectHandle hKey, int nHash, ObjectHandle hValue)
+        {
+        if (m_cUsed >= m_cGrowAt)
+            {
+            // this drops all the "deleted" markers, so the table only grows if it has to
+            resize(m_cSize + 1);
+            }
+
+        ObjectHandle[] ahKey = m_ahKey;
+        int            nMask = ahKey.length - 1;
+        int            iSlot = nHash & nMask;
+        ObjectHandle   hThat;
+        while ((hThat = ahKey[iSlot]) != null && hThat != DELETED)
+            {
+            iSlot = (iSlot + 1) & nMask;
+            }
+
+        if (hThat == null)
+            {
+            m_cUsed++;
+            }
+
+        ahKey[iSlot]    = retain(hKey);
+        m_anHash[iSlot] = nHash;
+        if (f_fValues)
+            {
+            m_ahValue[iSlot] = retain(hValue);
+            }
+        m_cSize++;
+        m_cAdds++;
+        }
+
+    /**
+     * Remove the entry in the specified occupied slot.
+     */
+    public void removeAt(int iSlot)
+        {
+        m_ahKey[iSlot] = DELETED;
+        if (f_fValues)
+            {
+            m_ahValue[iSlot] = null;
+            }
+        m_cSize--;
+        }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear()
+        {
+        allocate(MIN_CAPACITY);
+        m_cSize = 0;
+        m_cUsed = 0;
+        }
+
+    /**
+     * Make sure the table can hold the specified number of entries without growing.
+     */
+    public void ensureCapacity(int cEntries)
+        {
+        if (cEntries >= m_cGrowAt)
+            {
+            resize(cEntries);
+            }
+        }
+
+
+    // ----- internal ------------------------------------------------------------------------------
+
+    /**
+     * Re-hash all entries into a table that can hold the specified number of entries.
+     */
+    private void resize(int cEntries)
+        {
+        ObjectHandle[] ahKeyOld   = m_ahKey;
+        ObjectHandle[] ahValueOld = m_ahValue;
+        int[]          anHashOld  = m_anHash;
+
+        int cCapacity = MIN_CAPACITY;
+        while (cCapacity - (cCapacity >>> 2) <= cEntries)
+            {
+            cCapacity <<= 1;
+            }
+        allocate(cCapacity);
+
+        ObjectHandle[] ahKey   = m_ahKey;
+        ObjectHandle[] ahValue = m_ahValue;
+        int[]          anHash  = m_anHash;
+        int            nMask   = cCapacity - 1;
+        for (int i = 0, c = ahKeyOld.length; i < c; i++)
+            {
+            ObjectHandle hKey = ahKeyOld[i];
+            if (hKey != null && hKey != DELETED)
+                {
+                int nHash = anHashOld[i];
+                int iSlot = nHash & nMask;
+                while (ahKey[iSlot] != null)
+                    {
+                    iSlot = (iSlot + 1) & nMask;
+                    }
+                ahKey[iSlot]  = hKey;
+                anHash[iSlot] = nHash;
+                if (f_fValues)
+                    {
+                    ahValue[iSlot] = ahValueOld[i];
+                    }
+                }
+            }
+        m_cUsed = m_cSize;
+        }
+
+    /**
+     * Allocate empty arrays of the specified power-of-two capacity.
+     */
+    private void allocate(int cCapacity)
+        {
+        m_ahKey   = new ObjectHandle[cCapacity];
+        m_ahValue = f_fValues ? new ObjectHandle[cCapacity] : null;
+        m_anHash  = new int[cCapacity];
+
+        // grow at 75% occupancy (counting the "deleted" markers)
+        m_cGrowAt = cCapacity - (cCapacity >>> 2);
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The marker for a slot whose entry has been removed.
+     */
+    private static final ObjectHandle DELETED = new ObjectHandle(null) {};
+
+    /**
+     * The smallest table capacity (must be a power of two).
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * True iff the table holds values.
+     */
+    private final boolean f_fValues;
+
+    /**
+     * The keys; null for an empty slot.
+     */
+    private ObjectHandle[] m_ahKey;
+
+    /**
+     * The values (null if the table doesn't hold values).
+     */
+    private ObjectHandle[] m_ahValue;
+
+    /**
+     * The key hashes.
+     */
+    private int[] m_anHash;
+
+    /**
+     * The number of entries.
+     */
+    private int m_cSize;
+
+    /**
+     * The number of slots that are not empty (the entries plus the "deleted" markers).
+     */
+    private int m_cUsed;
+
+    /**
+     * The number of used slots at which the table must be re-hashed.
+     */
+    private int m_cGrowAt;
+
+    /**
+     * The number of entries ever added.
+     */
+    private long m_cAdds;
+    }
@@ -0,0 +1,87 @@
+package org.xvm.runtime.template.collections;
+
+
+import java.util.Arrays;
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xConstrainedInteger;
+import org.xvm.runtime.template.xUnsignedConstrainedInt;
+
+
+/**
+ * Native Array implementation for the 32-bit integer types (Int32 and UInt32), holding the elements in a int[].
+ */
+public class IntBasedArray
+        extends PrimitiveArray
+    {
+    public IntBasedArray(TemplateRegistry templates, ClassStructure structure, xConstrainedInteger template)
+        {
+        super(templates, structure, template, 1);
+
+        f_templateInt = template;
+        f_fUnsigned   = template instanceof xUnsignedConstrainedInt;
+        }
+
+    @Override
+    protected Object allocate(int cCapacity)
+        {
+        return new int[cCapacity];
+        }
+
+    @Override
+    protected ObjectHandle getElement(Object oStorage, int iIndex)
+        {
+        return f_templateInt.makeJavaLong(toLong(((int[]) oStorage)[iIndex]));
+        }
+
+    @Override
+    protected void setElement(Object oStorage, int iIndex, ObjectHandle hValue)
+        {
+        ((int[]) oStorage)[iIndex] = (int) ((JavaLong) hValue).getValue();
+        }
+
+    @Override
+    protected void fill(Object oStorage, int cSize, ObjectHandle hValue)
+        {
+        Arrays.fill((int[]) oStorage, 0, cSize, (int) ((JavaLong) hValue).getValue());
+        }
+
+    @Override
+    protected int compareElements(Object oStorage1, int iIndex1, Object oStorage2, int iIndex2)
+        {
+        return Long.compare(toLong(((int[]) oStorage1)[iIndex1]),
+                            toLong(((int[]) oStorage2)[iIndex2]));
+        }
+
+    @Override
+    protected int hashElement(Object oStorage, int iIndex)
+        {
+        return Long.hashCode(toLong(((int[]) oStorage)[iIndex]));
+        }
+
+    /**
+     * @return the value of the specified storage element
+     */
+    private long toLong(int n)
+        {
+        return f_fUnsigned ? n & 0xFFFFFFFFL : n;
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The element template.
+     */
+    private final xConstrainedInteger f_templateInt;
+
+    /**
+     * True iff the elements are unsigned.
+     */
+    private final boolean f_fUnsigned;
+    }
@@ -0,0 +1,81 @@
+package org.xvm.runtime.template.collections;
+
+
+import java.util.Arrays;
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xConstrainedInteger;
+import org.xvm.runtime.template.xUnsignedConstrainedInt;
+
+
+/**
+ * Native Array implementation for the 64-bit integer types that don't have their own
+ * specialization (UInt64), holding the elements in a long[].
+ */
+public class LongBasedArray
+        extends PrimitiveArray
+    {
+    public LongBasedArray(TemplateRegistry templates, ClassStructure structure, xConstrainedInteger template)
+        {
+        super(templates, structure, template, 1);
+
+        f_templateInt = template;
+        f_fUnsigned   = template instanceof xUnsignedConstrainedInt;
+        }
+
+    @Override
+    protected Object allocate(int cCapacity)
+        {
+        return new long[cCapacity];
+        }
+
+    @Override
+    protected ObjectHandle getElement(Object oStorage, int iIndex)
+        {
+        return f_templateInt.makeJavaLong(((long[]) oStorage)[iIndex]);
+        }
+
+    @Override
+    protected void setElement(Object oStorage, int iIndex, ObjectHandle hValue)
+        {
+        ((long[]) oStorage)[iIndex] = ((JavaLong) hValue).getValue();
+        }
+
+    @Override
+    protected void fill(Object oStorage, int cSize, ObjectHandle hValue)
+        {
+        Arrays.fill((long[]) oStorage, 0, cSize, ((JavaLong) hValue).getValue());
+        }
+
+    @Override
+    protected int compareElements(Object oStorage1, int iIndex1, Object oStorage2, int iIndex2)
+        {
+        long l1 = ((long[]) oStorage1)[iIndex1];
+        long l2 = ((long[]) oStorage2)[iIndex2];
+        return f_fUnsigned ? Long.compareUnsigned(l1, l2) : Long.compare(l1, l2);
+        }
+
+    @Override
+    protected int hashElement(Object oStorage, int iIndex)
+        {
+        return Long.hashCode(((long[]) oStorage)[iIndex]);
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The element template.
+     */
+    private final xConstrainedInteger f_templateInt;
+
+    /**
+     * True iff the elements are unsigned.
+     */
+    private final boolean f_fUnsigned;
+    }
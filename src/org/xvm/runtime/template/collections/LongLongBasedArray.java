@@ -0,0 +1,102 @@
+package org.xvm.runtime.template.collections;
+
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.LongLong;
+import org.xvm.runtime.template.xBaseInt128;
+import org.xvm.runtime.template.xBaseInt128.LongLongHandle;
+
+
+/**
+ * Native Array implementation for the 128-bit integer types (Int128 and UInt128), holding the
+ * elements in a long[] as the (low, high) pairs.
+ */
+public class LongLongBasedArray
+        extends PrimitiveArray
+    {
+    public LongLongBasedArray(TemplateRegistry templates, ClassStructure structure, xBaseInt128 template)
+        {
+        super(templates, structure, template, 2);
+
+        f_templateInt = template;
+        }
+
+    @Override
+    protected Object allocate(int cCapacity)
+        {
+        return new long[2 * cCapacity];
+        }
+
+    @Override
+    protected ObjectHandle getElement(Object oStorage, int iIndex)
+        {
+        long[] al = (long[]) oStorage;
+        int    of = 2 * iIndex;
+        return f_templateInt.makeLongLong(new LongLong(al[of], al[of + 1]));
+        }
+
+    @Override
+    protected void setElement(Object oStorage, int iIndex, ObjectHandle hValue)
+        {
+        long[]   al = (long[]) oStorage;
+        int      of = 2 * iIndex;
+        LongLong ll = ((LongLongHandle) hValue).getValue();
+
+        al[of]     = ll.getLowValue();
+        al[of + 1] = ll.getHighValue();
+        }
+
+    @Override
+    protected void fill(Object oStorage, int cSize, ObjectHandle hValue)
+        {
+        long[]   al    = (long[]) oStorage;
+        LongLong ll    = ((LongLongHandle) hValue).getValue();
+        long     lLow  = ll.getLowValue();
+        long     lHigh = ll.getHighValue();
+
+        for (int of = 0, ofEnd = 2 * cSize; of < ofEnd; of += 2)
+            {
+            al[of]     = lLow;
+            al[of + 1] = lHigh;
+            }
+        }
+
+    @Override
+    protected int compareElements(Object oStorage1, int iIndex1, Object oStorage2, int iIndex2)
+        {
+        long[] al1 = (long[]) oStorage1;
+        long[] al2 = (long[]) oStorage2;
+        int    of1 = 2 * iIndex1;
+        int    of2 = 2 * iIndex2;
+
+        long lHigh1 = al1[of1 + 1];
+        long lHigh2 = al2[of2 + 1];
+        if (lHigh1 != lHigh2)
+            {
+            return f_templateInt.f_fSigned
+                    ? Long.compare(lHigh1, lHigh2)
+                    : Long.compareUnsigned(lHigh1, lHigh2);
+            }
+        return Long.compareUnsigned(al1[of1], al2[of2]);
+        }
+
+    @Override
+    protected int hashElement(Object oStorage, int iIndex)
+        {
+        long[] al = (long[]) oStorage;
+        int    of = 2 * iIndex;
+        return Long.hashCode(al[of]) ^ 31 * Long.hashCode(al[of + 1]);
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The element template.
+     */
+    private final xBaseInt128 f_templateInt;
+    }
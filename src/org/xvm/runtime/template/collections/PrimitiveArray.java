@@ -0,0 +1,521 @@
+package org.xvm.runtime.template.collections;
+
+
+import java.lang.reflect.Array;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ArrayHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
+
+import org.xvm.runtime.template.collections.xArray.GenericArrayHandle;
+
+
+/**
+ * A base class for native Array implementations that hold the elements in a Java array of
+ * primitives (the "storage") rather than in an array of handles. The elements are unboxed when
+ * stored and boxed only when they are extracted from the array.
+ *
+ * All the array operations are implemented here; the subclasses only need to know how to
+ * allocate the storage and how to move a single element between a handle and the storage. One
+ * instance of a subclass is created for each element type (e.g. Int32 and UInt32 both use the
+ * {@link IntBasedArray int[] storage}).
+ */
+public abstract class PrimitiveArray
+        extends xArray
+    {
+    /**
+     * Construct a template for the arrays of the specified element type.
+     *
+     * @param templates  the template registry
+     * @param structure  the Array class structure
+     * @param template   the element template
+     * @param cUnits     the number of storage slots used by each element
+     */
+    protected PrimitiveArray(TemplateRegistry templates, ClassStructure structure,
+                             ClassTemplate template, int cUnits)
+        {
+        super(templates, structure, false);
+
+        f_templateElement = template;
+        f_cUnits          = cUnits;
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        }
+
+    @Override
+    public TypeConstant getCanonicalType()
+        {
+        ConstantPool pool = pool();
+        return pool.ensureParameterizedTypeConstant(pool.typeArray(),
+                f_templateElement.getCanonicalType());
+        }
+
+    /**
+     * @return the element template
+     */
+    public ClassTemplate getElementTemplate()
+        {
+        return f_templateElement;
+        }
+
+
+    // ----- storage -------------------------------------------------------------------------------
+
+    /**
+     * @return a new storage for the specified number of elements
+     */
+    protected abstract Object allocate(int cCapacity);
+
+    /**
+     * @return a (boxed) handle for the element at the specified index
+     */
+    protected abstract ObjectHandle getElement(Object oStorage, int iIndex);
+
+    /**
+     * Store the (unboxed) value of the specified handle at the specified index.
+     */
+    protected abstract void setElement(Object oStorage, int iIndex, ObjectHandle hValue);
+
+    /**
+     * Compare the elements at the specified indexes of two storages.
+     *
+     * @return a negative integer, zero, or a positive integer as the first element is less than,
+     *         equal to, or greater than the second one
+     */
+    protected abstract int compareElements(Object oStorage1, int iIndex1, Object oStorage2, int iIndex2);
+
+    /**
+     * @return the hash of the element at the specified index
+     */
+    protected abstract int hashElement(Object oStorage, int iIndex);
+
+    /**
+     * Fill the storage with the specified value. The subclasses could override this to avoid
+     * unboxing the value for each element.
+     */
+    protected void fill(Object oStorage, int cSize, ObjectHandle hValue)
+        {
+        for (int i = 0; i < cSize; i++)
+            {
+            setElement(oStorage, i, hValue);
+            }
+        }
+
+    /**
+     * @return the number of elements that the specified storage can hold
+     */
+    protected int capacity(Object oStorage)
+        {
+        return Array.getLength(oStorage) / f_cUnits;
+        }
+
+    /**
+     * Copy the specified range of elements from one storage into another.
+     */
+    protected void copy(Object oSrc, int ofSrc, Object oDst, int ofDst, int cElements)
+        {
+        int cUnits = f_cUnits;
+        System.arraycopy(oSrc, ofSrc * cUnits, oDst, ofDst * cUnits, cElements * cUnits);
+        }
+
+    /**
+     * @return a new storage holding the specified range of elements of the specified storage
+     */
+    protected Object copyOfRange(Object oStorage, int ofFrom, int ofTo)
+        {
+        int    cElements = ofTo - ofFrom;
+        Object oNew      = allocate(cElements);
+        copy(oStorage, ofFrom, oNew, 0, cElements);
+        return oNew;
+        }
+
+    /**
+     * @return a storage for at least the specified number of elements holding the content of the
+     *         specified storage
+     */
+    private Object grow(Object oStorage, int cSize)
+        {
+        int cOld = capacity(oStorage);
+
+        Object oNew = allocate(calculateCapacity(cOld, cSize));
+        copy(oStorage, 0, oNew, 0, cOld);
+        return oNew;
+        }
+
+
+    // ----- xArray --------------------------------------------------------------------------------
+
+    @Override
+    public ArrayHandle createArrayHandle(ClassComposition clzArray, ObjectHandle[] ahArg)
+        {
+        int    c        = ahArg.length;
+        Object oStorage = allocate(c);
+        for (int i = 0; i < c; i++)
+            {
+            setElement(oStorage, i, ahArg[i]);
+            }
+        return new PrimitiveArrayHandle(clzArray, this, oStorage, c, Mutability.Constant);
+        }
+
+    @Override
+    public ArrayHandle createArrayHandle(ClassComposition clzArray, int cCapacity, Mutability mutability)
+        {
+        return new PrimitiveArrayHandle(clzArray, this, allocate(cCapacity), 0, mutability);
+        }
+
+    @Override
+    protected ArrayHandle createCopy(ArrayHandle hArray, Mutability mutability)
+        {
+        PrimitiveArrayHandle hSrc  = (PrimitiveArrayHandle) hArray;
+        int                  ofSrc = hSrc.m_ofStart;
+
+        return new PrimitiveArrayHandle(hSrc.getComposition(), this,
+            copyOfRange(hSrc.m_oStorage, ofSrc, ofSrc + hSrc.m_cSize), hSrc.m_cSize, mutability);
+        }
+
+    @Override
+    protected ArrayHandle createSlice(ArrayHandle hArray, int ofStart, int cSize)
+        {
+        PrimitiveArrayHandle hSrc = (PrimitiveArrayHandle) hArray;
+
+        PrimitiveArrayHandle hSlice = new PrimitiveArrayHandle(hSrc.getComposition(), this,
+            hSrc.m_oStorage, cSize, Mutability.Mutable);
+        hSlice.m_ofStart = hSrc.m_ofStart + ofStart;
+        return hSlice;
+        }
+
+    @Override
+    protected void reverse(ArrayHandle hArray)
+        {
+        Object oStorage = ((PrimitiveArrayHandle) hArray).m_oStorage;
+        Object oTemp    = allocate(1);
+        for (int i = 0, j = hArray.m_cSize - 1; i < j; i++, j--)
+            {
+            copy(oStorage, i, oTemp, 0, 1);
+            copy(oStorage, j, oStorage, i, 1);
+            copy(oTemp, 0, oStorage, j, 1);
+            }
+        }
+
+    @Override
+    protected void fill(ArrayHandle hArray, int cSize, ObjectHandle hValue)
+        {
+        PrimitiveArrayHandle ha = (PrimitiveArrayHandle) hArray;
+
+        fill(ha.m_oStorage, cSize, hValue);
+        ha.m_cSize = cSize;
+        }
+
+    @Override
+    protected void copyInto(Frame frame, ArrayHandle hSrc, int ixSrc,
+                            ArrayHandle hDst, int ixDst, int cCopy)
+        {
+        if (hDst.getTemplate() == this)
+            {
+            hDst.ensureExclusive();
+            copy(((PrimitiveArrayHandle) hSrc).m_oStorage, hSrc.m_ofStart + ixSrc,
+                 ((PrimitiveArrayHandle) hDst).m_oStorage, hDst.m_ofStart + ixDst, cCopy);
+            }
+        else
+            {
+            super.copyInto(frame, hSrc, ixSrc, hDst, ixDst, cCopy);
+            }
+        }
+
+    @Override
+    public int extractArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, int iReturn)
+        {
+        PrimitiveArrayHandle hArray = (PrimitiveArrayHandle) hTarget;
+
+        if (lIndex < 0 || lIndex >= hArray.m_cSize)
+            {
+            return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
+            }
+        return frame.assignValue(iReturn,
+                getElement(hArray.m_oStorage, hArray.m_ofStart + (int) lIndex));
+        }
+
+    @Override
+    public int assignArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, ObjectHandle hValue)
+        {
+        PrimitiveArrayHandle hArray = (PrimitiveArrayHandle) hTarget;
+
+        int cSize = hArray.m_cSize;
+
+        if (lIndex < 0 || lIndex > cSize)
+            {
+            return frame.raiseException(xException.outOfBounds(frame, lIndex, cSize));
+            }
+
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case Persistent:
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        hArray.ensureExclusive();
+
+        Object oStorage = hArray.m_oStorage;
+        if (lIndex == cSize)
+            {
+            // an array can only grow without any "holes"
+            if (cSize == capacity(oStorage))
+                {
+                if (hArray.m_mutability == Mutability.FixedSize)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
+                oStorage = hArray.m_oStorage = grow(oStorage, cSize + 1);
+                }
+            hArray.m_cSize++;
+            }
+
+        setElement(oStorage, (int) lIndex, hValue);
+        return Op.R_NEXT;
+        }
+
+    @Override
+    public int callEquals(Frame frame, ClassComposition clazz,
+                          ObjectHandle hValue1, ObjectHandle hValue2, int iReturn)
+        {
+        return frame.assignValue(iReturn, xBoolean.makeHandle(hValue1.equals(hValue2)));
+        }
+
+    @Override
+    public boolean compareIdentity(ObjectHandle hValue1, ObjectHandle hValue2)
+        {
+        PrimitiveArrayHandle hArray1 = (PrimitiveArrayHandle) hValue1;
+        PrimitiveArrayHandle hArray2 = (PrimitiveArrayHandle) hValue2;
+
+        return !hArray1.isMutable() && !hArray2.isMutable() && hArray1.equals(hArray2);
+        }
+
+    @Override
+    protected int addElement(Frame frame, ObjectHandle hTarget, ObjectHandle hValue, int iReturn)
+        {
+        PrimitiveArrayHandle hArray = (PrimitiveArrayHandle) hTarget;
+        int                  ixNext = hArray.m_cSize;
+
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case FixedSize:
+                return frame.raiseException(xException.readOnly(frame));
+
+            case Persistent:
+                // TODO: implement
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        hArray.ensureExclusive();
+
+        Object oStorage = hArray.m_oStorage;
+        if (ixNext == capacity(oStorage))
+            {
+            oStorage = hArray.m_oStorage = grow(oStorage, ixNext + 1);
+            }
+        hArray.m_cSize++;
+
+        setElement(oStorage, ixNext, hValue);
+        return frame.assignValue(iReturn, hArray); // return this
+        }
+
+    @Override
+    protected int addElements(Frame frame, ObjectHandle hTarget, ObjectHandle hValue, int iReturn)
+        {
+        PrimitiveArrayHandle hArray = (PrimitiveArrayHandle) hTarget;
+
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case FixedSize:
+                return frame.raiseException(xException.readOnly(frame));
+
+            case Persistent:
+                // TODO: implement
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        int cAdd;
+        if (hValue instanceof PrimitiveArrayHandle
+                && ((PrimitiveArrayHandle) hValue).f_template == this)
+            {
+            cAdd = ((PrimitiveArrayHandle) hValue).m_cSize;
+            }
+        else if (hValue instanceof GenericArrayHandle)
+            {
+            cAdd = ((GenericArrayHandle) hValue).m_cSize;
+            }
+        else
+            {
+            return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        if (cAdd > 0)
+            {
+            // the source is read before this array's storage could be replaced, since they may
+            // be the same
+            ArrayHandle hArrayAdd = (ArrayHandle) hValue;
+            int         ofAdd     = hArrayAdd.m_ofStart;
+            Object      oAdd      = hValue instanceof PrimitiveArrayHandle
+                    ? ((PrimitiveArrayHandle) hValue).m_oStorage
+                    : ((GenericArrayHandle) hValue).m_ahValue;
+
+            hArray.ensureExclusive();
+
+            Object oThis = hArray.m_oStorage;
+            int    cThis = hArray.m_cSize;
+            int    cNew  = cThis + cAdd;
+            if (cNew > capacity(oThis))
+                {
+                oThis = hArray.m_oStorage = grow(oThis, cNew);
+                }
+
+            if (hValue instanceof PrimitiveArrayHandle)
+                {
+                copy(oAdd, ofAdd, oThis, cThis, cAdd);
+                }
+            else
+                {
+                ObjectHandle[] ahAdd = (ObjectHandle[]) oAdd;
+                for (int i = 0; i < cAdd; i++)
+                    {
+                    setElement(oThis, cThis + i, ahAdd[ofAdd + i]);
+                    }
+                }
+            hArray.m_cSize = cNew;
+            }
+        return frame.assignValue(iReturn, hArray);
+        }
+
+    // ----- handle --------------------------------------------------------------------------------
+
+    public static class PrimitiveArrayHandle
+            extends ArrayHandle
+        {
+        /**
+         * The storage; a Java array of primitives as allocated by the template.
+         */
+        public Object m_oStorage;
+
+        protected PrimitiveArrayHandle(TypeComposition clzArray, PrimitiveArray template,
+                                       Object oStorage, int cSize, Mutability mutability)
+            {
+            super(clzArray, mutability);
+
+            f_template = template;
+            m_oStorage = oStorage;
+            m_cSize    = cSize;
+            }
+
+        @Override
+        public int getCapacity()
+            {
+            return f_template.capacity(m_oStorage) - m_ofStart;
+            }
+
+        @Override
+        protected void copyStorage()
+            {
+            PrimitiveArray template = f_template;
+
+            Object oNew = template.allocate(getExclusiveCapacity(template.capacity(m_oStorage)));
+            template.copy(m_oStorage, m_ofStart, oNew, 0, m_cSize);
+            m_oStorage = oNew;
+            }
+
+        @Override
+        public boolean isNativeEqual()
+            {
+            return true;
+            }
+
+        @Override
+        public int compareTo(ObjectHandle that)
+            {
+            PrimitiveArrayHandle hThat = (PrimitiveArrayHandle) that;
+
+            int cThis = m_cSize;
+            int cThat = hThat.m_cSize;
+            if (cThis != cThat)
+                {
+                return cThis - cThat;
+                }
+
+            PrimitiveArray template = f_template;
+            int            ofThis   = m_ofStart;
+            int            ofThat   = hThat.m_ofStart;
+            for (int i = 0; i < cThis; i++)
+                {
+                int iDiff = template.compareElements(m_oStorage, ofThis + i, hThat.m_oStorage, ofThat + i);
+                if (iDiff != 0)
+                    {
+                    return iDiff;
+                    }
+                }
+            return 0;
+            }
+
+        @Override
+        public int hashCode()
+            {
+            PrimitiveArray template = f_template;
+            int            nHash    = 1;
+            for (int i = m_ofStart, iEnd = i + m_cSize; i < iEnd; i++)
+                {
+                nHash = 31 * nHash + template.hashElement(m_oStorage, i);
+                }
+            return nHash;
+            }
+
+        @Override
+        public boolean equals(Object obj)
+            {
+            return obj instanceof PrimitiveArrayHandle
+                && ((PrimitiveArrayHandle) obj).f_template == f_template
+                && compareTo((PrimitiveArrayHandle) obj) == 0;
+            }
+
+        /**
+         * The template that knows the storage format.
+         */
+        protected final PrimitiveArray f_template;
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The element template.
+     */
+    protected final ClassTemplate f_templateElement;
+
+    /**
+     * The number of storage slots used by each element.
+     */
+    protected final int f_cUnits;
+    }
@@ -0,0 +1,87 @@
+package org.xvm.runtime.template.collections;
+
+
+import java.util.Arrays;
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xConstrainedInteger;
+import org.xvm.runtime.template.xUnsignedConstrainedInt;
+
+
+/**
+ * Native Array implementation for the 16-bit integer types (Int16 and UInt16), holding the elements in a short[].
+ */
+public class ShortBasedArray
+        extends PrimitiveArray
+    {
+    public ShortBasedArray(TemplateRegistry templates, ClassStructure structure, xConstrainedInteger template)
+        {
+        super(templates, structure, template, 1);
+
+        f_templateInt = template;
+        f_fUnsigned   = template instanceof xUnsignedConstrainedInt;
+        }
+
+    @Override
+    protected Object allocate(int cCapacity)
+        {
+        return new short[cCapacity];
+        }
+
+    @Override
+    protected ObjectHandle getElement(Object oStorage, int iIndex)
+        {
+        return f_templateInt.makeJavaLong(toLong(((short[]) oStorage)[iIndex]));
+        }
+
+    @Override
+    protected void setElement(Object oStorage, int iIndex, ObjectHandle hValue)
+        {
+        ((short[]) oStorage)[iIndex] = (short) ((JavaLong) hValue).getValue();
+        }
+
+    @Override
+    protected void fill(Object oStorage, int cSize, ObjectHandle hValue)
+        {
+        Arrays.fill((short[]) oStorage, 0, cSize, (short) ((JavaLong) hValue).getValue());
+        }
+
+    @Override
+    protected int compareElements(Object oStorage1, int iIndex1, Object oStorage2, int iIndex2)
+        {
+        return Long.compare(toLong(((short[]) oStorage1)[iIndex1]),
+                            toLong(((short[]) oStorage2)[iIndex2]));
+        }
+
+    @Override
+    protected int hashElement(Object oStorage, int iIndex)
+        {
+        return Long.hashCode(toLong(((short[]) oStorage)[iIndex]));
+        }
+
+    /**
+     * @return the value of the specified storage element
+     */
+    private long toLong(short n)
+        {
+        return f_fUnsigned ? n & 0xFFFFL : n;
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The element template.
+     */
+    private final xConstrainedInteger f_templateInt;
+
+    /**
+     * True iff the elements are unsigned.
+     */
+    private final boolean f_fUnsigned;
+    }
@@ -26,6 +26,7 @@ import org.xvm.runtime.ObjectHandle.JavaLong;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.ClassTemplate;
 import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeTestCache;
 
 import org.xvm.runtime.template.IndexSupport;
 import org.xvm.runtime.template.xBoolean;
@@ -34,9 +35,18 @@ import org.xvm.runtime.template.xEnum;
 import org.xvm.runtime.template.xEnum.EnumHandle;
 import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xFunction.FunctionHandle;
+import org.xvm.runtime.template.xInt128;
+import org.xvm.runtime.template.xInt16;
+import org.xvm.runtime.template.xInt32;
 import org.xvm.runtime.template.xInt64;
+import org.xvm.runtime.template.xInt8;
+import org.xvm.runtime.template.xNullable;
 import org.xvm.runtime.template.xString;
 import org.xvm.runtime.template.xString.StringHandle;
+import org.xvm.runtime.template.xUInt128;
+import org.xvm.runtime.template.xUInt16;
+import org.xvm.runtime.template.xUInt32;
+import org.xvm.runtime.template.xUInt64;
 
 
 /**
@@ -68,17 +78,37 @@ public class xArray
         Map<TypeConstant, xArray> mapTemplates = new HashMap<>();
 
         registerNative(new xIntArray(f_templates, f_struct, true));
+        registerNative(new xFloat64Array(f_templates, f_struct, true));
         registerNative(new xCharArray(f_templates, f_struct, true));
         registerNative(new xBooleanArray(f_templates, f_struct, true));
         registerNative(new xBitArray(f_templates, f_struct, true));
         registerNative(new xByteArray(f_templates, f_struct, true));
 
         mapTemplates.put(pool.typeInt(), xIntArray.INSTANCE);
+        mapTemplates.put(pool.ensureEcstasyTypeConstant("Float64"), xFloat64Array.INSTANCE);
         mapTemplates.put(pool.typeByte(), xByteArray.INSTANCE);
         mapTemplates.put(pool.typeChar(), xCharArray.INSTANCE);
         mapTemplates.put(pool.typeBoolean(), xBooleanArray.INSTANCE);
         mapTemplates.put(pool.ensureEcstasyTypeConstant("Bit"), xBitArray.INSTANCE);
 
+        // the integer types without a hand-written specialization use the primitive storage
+        PrimitiveArray[] aTemplatePrimitive = new PrimitiveArray[]
+            {
+            new ByteBasedArray    (f_templates, f_struct, xInt8.INSTANCE),
+            new ShortBasedArray   (f_templates, f_struct, xInt16.INSTANCE),
+            new ShortBasedArray   (f_templates, f_struct, xUInt16.INSTANCE),
+            new IntBasedArray     (f_templates, f_struct, xInt32.INSTANCE),
+            new IntBasedArray     (f_templates, f_struct, xUInt32.INSTANCE),
+            new LongBasedArray    (f_templates, f_struct, xUInt64.INSTANCE),
+            new LongLongBasedArray(f_templates, f_struct, xInt128.INSTANCE),
+            new LongLongBasedArray(f_templates, f_struct, xUInt128.INSTANCE),
+            };
+        for (PrimitiveArray template : aTemplatePrimitive)
+            {
+            registerNative(template);
+            mapTemplates.put(template.getElementTemplate().getCanonicalType(), template);
+            }
+
         ARRAY_TEMPLATES = mapTemplates;
 
         // cache the constructors
@@ -138,6 +168,13 @@ public class xArray
         markNativeMethod("addAll", new String[] {"Iterable<ElementType>"}, ARRAY);
         markNativeMethod("slice", new String[] {"Range<Int64>"}, ARRAY);
         markNativeMethod("ensureConst", BOOLEAN, null);
+        markNativeMethod("fill", null, ARRAY);
+        markNativeMethod("reverse", VOID, ARRAY);
+        markNativeMethod("copyInto", null, null);
+        markNativeMethod("binarySearch", null, null);
+        markNativeMethod("indexOf", new String[] {"ElementType", "Int64"}, null);
+        markNativeMethod("contains", ELEMENT_TYPE, BOOLEAN);
+        markNativeMethod("sort", null, ARRAY);
 
         getCanonicalType().invalidateTypeInfo();
         }
@@ -329,12 +366,13 @@ public class xArray
                 JavaLong      hLower = (JavaLong) hRange.getField("lowerBound");
                 JavaLong      hUpper = (JavaLong) hRange.getField("upperBound");
 
-                long lLower = hLower.getValue();
-                long lUpper = hUpper.getValue();
+                long    lLower    = hLower.getValue();
+                long    lUpper    = hUpper.getValue();
+                boolean fReversed = hRange.getField("reversed") == xBoolean.TRUE;
 
                 return lLower <= lUpper
-                    ? slice(frame, hArray, lLower, lUpper, iReturn)
-                    : slice(frame, hArray, lUpper, lLower, iReturn);
+                    ? slice(frame, hArray, lLower, lUpper, fReversed, iReturn)
+                    : slice(frame, hArray, lUpper, lLower, !fReversed, iReturn);
                 }
 
             default:
@@ -353,9 +391,47 @@ public class xArray
     protected ArrayHandle createCopy(ArrayHandle hArray, Mutability mutability)
         {
         GenericArrayHandle hSrc = (GenericArrayHandle) hArray;
+        int                ofSrc = hSrc.m_ofStart;
 
         return new GenericArrayHandle(hSrc.getComposition(),
-            Arrays.copyOfRange(hSrc.m_ahValue, 0, hSrc.m_cSize), mutability);
+            Arrays.copyOfRange(hSrc.m_ahValue, ofSrc, ofSrc + hSrc.m_cSize), mutability);
+        }
+
+    /**
+     * Create a slice of the specified array that shares the array's storage. The caller is
+     * responsible for marking the storage as shared.
+     *
+     * @param hArray   the array
+     * @param ofStart  the index (in the array) of the first element of the slice
+     * @param cSize    the number of elements in the slice
+     *
+     * @return a new array handle
+     */
+    protected ArrayHandle createSlice(ArrayHandle hArray, int ofStart, int cSize)
+        {
+        GenericArrayHandle hSrc = (GenericArrayHandle) hArray;
+
+        GenericArrayHandle hSlice = new GenericArrayHandle(hSrc.getComposition(),
+            hSrc.m_ahValue, cSize, hSrc.m_mutability);
+        hSlice.m_ofStart = hSrc.m_ofStart + ofStart;
+        return hSlice;
+        }
+
+    /**
+     * Reverse the order of the elements of the specified array, which storage is known not to be
+     * shared.
+     *
+     * @param hArray  the array
+     */
+    protected void reverse(ArrayHandle hArray)
+        {
+        ObjectHandle[] ahValue = ((GenericArrayHandle) hArray).m_ahValue;
+        for (int i = 0, j = hArray.m_cSize - 1; i < j; i++, j--)
+            {
+            ObjectHandle h = ahValue[i];
+            ahValue[i] = ahValue[j];
+            ahValue[j] = h;
+            }
         }
 
     /**
@@ -377,7 +453,7 @@ public class xArray
     public int invokeAdd(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
         {
         // hArg is either Iterable<ElementType> or ElementType
-        return hArg.getType().isA(hTarget.getType().getParamTypesArray()[0])
+        return f_cacheAdd.isA(hArg, hTarget.getType().getParamTypesArray()[0])
                 ? addElement(frame, hTarget, hArg, iReturn)
                 : addElements(frame, hTarget, hArg, iReturn);
         }
@@ -437,11 +513,12 @@ public class xArray
 
             case "slice":
                 {
-                GenericHandle hRange = (GenericHandle) hArg;
-                long ixFrom = ((JavaLong) hRange.getField("lowerBound")).getValue();
-                long ixTo   = ((JavaLong) hRange.getField("upperBound")).getValue();
+                GenericHandle hRange    = (GenericHandle) hArg;
+                long          ixFrom    = ((JavaLong) hRange.getField("lowerBound")).getValue();
+                long          ixTo      = ((JavaLong) hRange.getField("upperBound")).getValue();
+                boolean       fReversed = hRange.getField("reversed") == xBoolean.TRUE;
 
-                return slice(frame, hTarget, ixFrom, ixTo, iReturn);
+                return slice(frame, hTarget, ixFrom, ixTo, fReversed, iReturn);
                 }
 
             case "ensureConst": // immutable Array ensureConst(Boolean inPlace = False)
@@ -452,12 +529,19 @@ public class xArray
                     {
                     hArray.makeImmutable();
                     }
-                else
+                else if (hArray.isMutable())
                     {
                     hArray = createCopy(hArray, Mutability.Constant);
                     }
                 return frame.assignValue(iReturn, hArray);
                 }
+
+            case "contains":
+                return completeIndexOf(frame,
+                    indexOf(frame, (ArrayHandle) hTarget, hArg, 0, Op.A_STACK), iReturn, null);
+
+            case "sort": // Array sort(Comparator<ElementType>? comparator = Null)
+                return sort(frame, (ArrayHandle) hTarget, getCompareFunction(hArg), iReturn);
             }
 
         return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
@@ -470,10 +554,117 @@ public class xArray
             {
             case "setElement":
                 return assignArrayValue(frame, hTarget, ((JavaLong) ahArg[0]).getValue(), ahArg[1]);
+
+            case "fill": // Array fill(ElementType value, Range<Int>? range = Null)
+                {
+                ArrayHandle hArray  = (ArrayHandle) hTarget;
+                long[]      alRange = getRange(hArray, ahArg[1]);
+
+                if (alRange == null)
+                    {
+                    return frame.assignValue(iReturn, hArray);
+                    }
+
+                if (!checkRange(hArray, alRange))
+                    {
+                    return frame.raiseException(xException.outOfBounds(frame,
+                        alRange[0] < 0 ? alRange[0] : alRange[1], hArray.m_cSize));
+                    }
+
+                Mutability mutability = hArray.m_mutability;
+
+                hArray = prepareModification(hArray);
+                fill(frame, hArray, (int) alRange[0], (int) alRange[1] + 1, ahArg[0]);
+                return frame.assignValue(iReturn, completeModification(hArray, mutability));
+                }
+
+            case "reverse": // Array reverse()
+                {
+                ArrayHandle hArray = (ArrayHandle) hTarget;
+                if (hArray.m_cSize > 1)
+                    {
+                    ArrayHandle hReversed = createCopy(hArray, Mutability.FixedSize);
+                    reverse(hReversed);
+                    hArray = completeModification(hReversed, hArray.m_mutability);
+                    }
+                return frame.assignValue(iReturn, hArray);
+                }
+
+            case "copyInto": // Array copyInto(Array target, Int targetIndex = 0, Range<Int>? range)
+                {
+                ArrayHandle  hArray   = (ArrayHandle) hTarget;
+                ArrayHandle  hArrayTo = (ArrayHandle) ahArg[0];
+                ObjectHandle hIndex   = ahArg[1];
+                long[]       alRange  = getRange(hArray, ahArg[2]);
+
+                if (alRange == null)
+                    {
+                    return frame.assignValue(iReturn, hArrayTo);
+                    }
+
+                if (!checkRange(hArray, alRange))
+                    {
+                    return frame.raiseException(xException.outOfBounds(frame,
+                        alRange[0] < 0 ? alRange[0] : alRange[1], hArray.m_cSize));
+                    }
+
+                switch (hArrayTo.m_mutability)
+                    {
+                    case Constant:
+                        return frame.raiseException(xException.immutableObject(frame));
+
+                    case Persistent:
+                        return frame.raiseException(xException.readOnly(frame));
+                    }
+
+                long ixTarget = hIndex == ObjectHandle.DEFAULT ? 0 : ((JavaLong) hIndex).getValue();
+                long cCopy    = alRange[1] - alRange[0] + 1;
+                if (ixTarget < 0 || ixTarget + cCopy > hArrayTo.m_cSize)
+                    {
+                    return frame.raiseException(xException.outOfBounds(frame,
+                        ixTarget < 0 ? ixTarget : ixTarget + cCopy - 1, hArrayTo.m_cSize));
+                    }
+
+                copyInto(frame, hArray, (int) alRange[0], hArrayTo, (int) ixTarget, (int) cCopy);
+                return frame.assignValue(iReturn, hArrayTo);
+                }
             }
         return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
         }
 
+    @Override
+    public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                              ObjectHandle[] ahArg, int[] aiReturn)
+        {
+        ArrayHandle hArray = (ArrayHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "indexOf": // conditional Int indexOf(ElementType value, Int startAt = 0)
+                {
+                ObjectHandle hStart = ahArg[1];
+                long         lStart = hStart == ObjectHandle.DEFAULT
+                        ? 0
+                        : Math.max(0, ((JavaLong) hStart).getValue());
+
+                if (lStart >= hArray.m_cSize)
+                    {
+                    return frame.assignValues(aiReturn, xBoolean.FALSE, null);
+                    }
+
+                return completeIndexOf(frame,
+                    indexOf(frame, hArray, ahArg[0], (int) lStart, Op.A_STACK), Op.A_IGNORE, aiReturn);
+                }
+
+            case "binarySearch": // (Boolean, Int) binarySearch(ElementType value, Comparator? comparator)
+                return completeBinarySearch(frame,
+                    binarySearch(frame, hArray, ahArg[0], getCompareFunction(ahArg[1]), Op.A_STACK),
+                    aiReturn);
+            }
+
+        return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
+        }
+
     @Override
     public int callEquals(Frame frame, ClassComposition clazz,
                           ObjectHandle hValue1, ObjectHandle hValue2, int iReturn)
@@ -481,12 +672,9 @@ public class xArray
         GenericArrayHandle hArray1 = (GenericArrayHandle) hValue1;
         GenericArrayHandle hArray2 = (GenericArrayHandle) hValue2;
 
-        ObjectHandle[] ah1 = hArray1.m_ahValue;
-        ObjectHandle[] ah2 = hArray2.m_ahValue;
-
         // compare the array dimensions
-        int cElements = ah1.length;
-        if (cElements != ah2.length)
+        int cElements = hArray1.m_cSize;
+        if (cElements != hArray2.m_cSize)
             {
             return frame.assignValue(iReturn, xBoolean.FALSE);
             }
@@ -496,7 +684,8 @@ public class xArray
         TypeConstant typeEl = clazz.getType().getParamTypesArray()[0];
 
         int[] holder = new int[] {0}; // the index holder
-        return new Equals(ah1, ah2, typeEl, cElements, holder, iReturn).doNext(frame);
+        return new Equals(hArray1.m_ahValue, hArray1.m_ofStart, hArray2.m_ahValue, hArray2.m_ofStart,
+                typeEl, cElements, holder, iReturn).doNext(frame);
         }
 
     @Override
@@ -512,16 +701,18 @@ public class xArray
 
         ObjectHandle[] ah1 = hArray1.m_ahValue;
         ObjectHandle[] ah2 = hArray2.m_ahValue;
+        int            of1 = hArray1.m_ofStart;
+        int            of2 = hArray2.m_ofStart;
 
-        if (ah1 == ah2)
+        if (ah1 == ah2 && of1 == of2)
             {
             return true;
             }
 
         for (int i = 0, c = hArray1.m_cSize; i < c; i++)
             {
-            ObjectHandle hV1 = ah1[i];
-            ObjectHandle hV2 = ah2[i];
+            ObjectHandle hV1 = ah1[of1 + i];
+            ObjectHandle hV2 = ah2[of2 + i];
 
             ClassTemplate template = hV1.getTemplate();
             if (template != hV2.getTemplate() || !template.compareIdentity(hV1, hV2))
@@ -553,6 +744,8 @@ public class xArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         ObjectHandle[] ahValue = hArray.m_ahValue;
         if (ixNext == ahValue.length)
             {
@@ -589,6 +782,13 @@ public class xArray
         int cThat = hArrayAdd.m_cSize;
         if (cThat > 0)
             {
+            // the source is read before this array's storage could be replaced, since they may
+            // be the same
+            ObjectHandle[] ahThat = hArrayAdd.m_ahValue;
+            int            ofThat = hArrayAdd.m_ofStart;
+
+            hArray.ensureExclusive();
+
             ObjectHandle[] ahThis = hArray.m_ahValue;
             int            cThis  = hArray.m_cSize;
 
@@ -597,41 +797,296 @@ public class xArray
                 ahThis = hArray.m_ahValue = grow(ahThis, cThis + cThat);
                 }
             hArray.m_cSize += cThat;
-            System.arraycopy(hArrayAdd.m_ahValue, 0, ahThis, cThis, cThat);
+            System.arraycopy(ahThat, ofThat, ahThis, cThis, cThat);
             }
         return frame.assignValue(iReturn, hArray); // return this
         }
 
     /**
      * slice(Range<Int>) implementation
+     *
+     * Unless the range is reversed, the slice shares the storage with the array; the storage is
+     * copied only when (and if) either of them is modified. The reversed slices are copied
+     * right away.
      */
-    protected int slice(Frame frame, ObjectHandle hTarget, long ixFrom, long ixTo, int iReturn)
+    protected int slice(Frame frame, ObjectHandle hTarget, long ixFrom, long ixTo,
+                        boolean fReverse, int iReturn)
         {
-        GenericArrayHandle hArray = (GenericArrayHandle) hTarget;
+        ArrayHandle hArray = (ArrayHandle) hTarget;
 
-        ObjectHandle[] ahValue = hArray.m_ahValue;
-        try
+        long c = hArray.m_cSize;
+        if (ixFrom < 0 || ixFrom >= c || ixTo < ixFrom || ixTo >= c)
+            {
+            return frame.raiseException(
+                xException.outOfBounds(frame, ixFrom < 0 || ixFrom >= c ? ixFrom : ixTo, c));
+            }
+
+        ArrayHandle hSlice = createSlice(hArray, (int) ixFrom, (int) (ixTo - ixFrom + 1));
+
+        hArray.m_fShared = true;
+        hSlice.m_fShared = true;
+
+        if (fReverse)
+            {
+            hSlice.ensureExclusive();
+            reverse(hSlice);
+            }
+        return frame.assignValue(iReturn, hSlice);
+        }
+
+
+    // ----- bulk operations -----
+
+    /**
+     * Prepare the specified array for an in-place bulk modification. A persistent array is never
+     * modified; instead, a fixed-size copy of it is modified, and then given the original
+     * mutability by {@link #completeModification}.
+     *
+     * @param hArray  the array
+     *
+     * @return the array handle to modify, which storage is known not to be shared
+     */
+    protected ArrayHandle prepareModification(ArrayHandle hArray)
+        {
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+            case Persistent:
+                return createCopy(hArray, Mutability.FixedSize);
+
+            default:
+                hArray.ensureExclusive();
+                return hArray;
+            }
+        }
+
+    /**
+     * Complete the bulk modification of an array.
+     *
+     * @param hArray      the array returned by {@link #prepareModification}
+     * @param mutability  the mutability of the original array
+     *
+     * @return the array handle
+     */
+    protected static ArrayHandle completeModification(ArrayHandle hArray, Mutability mutability)
+        {
+        if (mutability == Mutability.Constant)
+            {
+            hArray.makeImmutable();
+            }
+        else
             {
-            ObjectHandle[] ahNew     = Arrays.copyOfRange(ahValue, (int) ixFrom, (int) ixTo + 1);
-            ArrayHandle    hArrayNew = new GenericArrayHandle(hTarget.getComposition(), ahNew, hArray.m_mutability);
+            hArray.m_mutability = mutability;
+            }
+        return hArray;
+        }
 
-            if (false) // TODO: add a parameter
+    /**
+     * Fill the specified range of the array, which storage is known not to be shared, with the
+     * specified value.
+     *
+     * @param frame   the current frame
+     * @param hArray  the array
+     * @param ixFrom  the index of the first element to fill
+     * @param ixTo    the index following the last element to fill
+     * @param hValue  the value
+     */
+    protected void fill(Frame frame, ArrayHandle hArray, int ixFrom, int ixTo, ObjectHandle hValue)
+        {
+        if (hArray instanceof GenericArrayHandle)
+            {
+            int of = hArray.m_ofStart;
+            Arrays.fill(((GenericArrayHandle) hArray).m_ahValue, of + ixFrom, of + ixTo, hValue);
+            }
+        else
+            {
+            for (int i = ixFrom; i < ixTo; i++)
                 {
-                if (!hArray.isMutable())
+                assignElement(frame, hArray, i, hValue);
+                }
+            }
+        }
+
+    /**
+     * Copy the elements of the source array into the (Mutable or FixedSize) target array; the
+     * indexes are known to be in bounds, and the arrays could be the same.
+     *
+     * @param frame   the current frame
+     * @param hSrc    the source array
+     * @param ixSrc   the index of the first element to copy
+     * @param hDst    the target array
+     * @param ixDst   the index in the target array to copy the first element to
+     * @param cCopy   the number of elements to copy
+     */
+    protected void copyInto(Frame frame, ArrayHandle hSrc, int ixSrc,
+                            ArrayHandle hDst, int ixDst, int cCopy)
+        {
+        hDst.ensureExclusive();
+
+        if (hSrc instanceof GenericArrayHandle && hDst instanceof GenericArrayHandle)
+            {
+            System.arraycopy(((GenericArrayHandle) hSrc).m_ahValue, hSrc.m_ofStart + ixSrc,
+                             ((GenericArrayHandle) hDst).m_ahValue, hDst.m_ofStart + ixDst, cCopy);
+            }
+        else
+            {
+            xArray templateDst = (xArray) hDst.getTemplate();
+            if (hSrc == hDst && ixSrc < ixDst)
+                {
+                for (int i = cCopy - 1; i >= 0; i--)
                     {
-                    hArrayNew.makeImmutable();
+                    ObjectHandle hValue = extractElement(frame, hSrc, ixSrc + i);
+                    templateDst.assignElement(frame, hDst, ixDst + i, hValue);
+                    }
+                }
+            else
+                {
+                for (int i = 0; i < cCopy; i++)
+                    {
+                    ObjectHandle hValue = extractElement(frame, hSrc, ixSrc + i);
+                    templateDst.assignElement(frame, hDst, ixDst + i, hValue);
                     }
                 }
-            return frame.assignValue(iReturn, hArrayNew);
             }
-        catch (ArrayIndexOutOfBoundsException e)
+        }
+
+    /**
+     * Find the first element of the array that is equal to the specified value, starting at the
+     * specified index, and place the index of that element (or -1 if there is none) as an Int into
+     * the specified register.
+     *
+     * @param frame    the current frame
+     * @param hArray   the array
+     * @param hValue   the value to look for
+     * @param ixFrom   the index to start at; known to be in bounds
+     * @param iReturn  the register to place the resulting index into
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION} values
+     */
+    protected int indexOf(Frame frame, ArrayHandle hArray, ObjectHandle hValue, int ixFrom,
+                          int iReturn)
+        {
+        TypeConstant typeEl = getElementType(frame, hArray, 0);
+
+        return new IndexOf(this, hArray, typeEl, hValue, ixFrom, iReturn).doNext(frame);
+        }
+
+    /**
+     * Search the sorted array for the specified value and place the search result as an Int
+     * into the specified register; the result follows the {@link Arrays#binarySearch} convention.
+     *
+     * @param frame     the current frame
+     * @param hArray    the array
+     * @param hValue    the value to look for
+     * @param hCompare  the "compareForOrder" function, or null for the natural order
+     * @param iReturn   the register to place the result into
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION} values
+     */
+    protected int binarySearch(Frame frame, ArrayHandle hArray, ObjectHandle hValue,
+                               FunctionHandle hCompare, int iReturn)
+        {
+        TypeConstant typeEl = getElementType(frame, hArray, 0);
+
+        return new BinarySearch(this, hArray, typeEl, hCompare, hValue, iReturn).doNext(frame);
+        }
+
+    /**
+     * sort(Comparator?) implementation
+     *
+     * @param hCompare  the "compareForOrder" function, or null for the natural order
+     */
+    protected int sort(Frame frame, ArrayHandle hArray, FunctionHandle hCompare, int iReturn)
+        {
+        int cSize = hArray.m_cSize;
+        if (cSize <= 1)
             {
-            long c = ahValue.length;
-            return frame.raiseException(
-                xException.outOfBounds(frame, ixFrom < 0 || ixFrom >= c ? ixFrom : ixTo, c));
+            return frame.assignValue(iReturn, hArray);
+            }
+
+        Mutability mutability = hArray.m_mutability;
+
+        hArray = prepareModification(hArray);
+
+        if (hCompare == null && sortNatural(hArray))
+            {
+            return frame.assignValue(iReturn, completeModification(hArray, mutability));
+            }
+
+        TypeConstant   typeEl = getElementType(frame, hArray, 0);
+        ObjectHandle[] ahValue;
+        int            ofValue;
+        if (hArray instanceof GenericArrayHandle)
+            {
+            ahValue = ((GenericArrayHandle) hArray).m_ahValue;
+            ofValue = hArray.m_ofStart;
+            }
+        else
+            {
+            // sort the boxed elements and then store them back
+            ahValue = new ObjectHandle[cSize];
+            ofValue = 0;
+            for (int i = 0; i < cSize; i++)
+                {
+                ahValue[i] = extractElement(frame, hArray, i);
+                }
             }
+
+        return new Sort(this, hArray, mutability, typeEl, hCompare,
+                ahValue, ofValue, iReturn).doNext(frame);
         }
 
+    /**
+     * Sort the elements of the specified array, which storage is known not to be shared, in their
+     * natural order without calling any Ecstasy code.
+     *
+     * @param hArray  the array
+     *
+     * @return true iff the array has been sorted; false if the generic algorithm must be used
+     */
+    protected boolean sortNatural(ArrayHandle hArray)
+        {
+        if (hArray instanceof GenericArrayHandle &&
+                hArray.getType().resolveGenericType("ElementType").equals(pool().typeString()))
+            {
+            int of = hArray.m_ofStart;
+            Arrays.sort(((GenericArrayHandle) hArray).m_ahValue, of, of + hArray.m_cSize,
+                (h1, h2) -> xString.compare((StringHandle) h1, (StringHandle) h2));
+            return true;
+            }
+        return false;
+        }
+
+    /**
+     * @return the specified element of the array; the index is known to be in bounds
+     */
+    protected ObjectHandle extractElement(Frame frame, ArrayHandle hArray, int index)
+        {
+        if (hArray instanceof GenericArrayHandle)
+            {
+            return ((GenericArrayHandle) hArray).m_ahValue[hArray.m_ofStart + index];
+            }
+
+        extractArrayValue(frame, hArray, index, Op.A_STACK);
+        return frame.popStack();
+        }
+
+    /**
+     * Store the specified element of a Mutable or FixedSize array, which storage is known not to
+     * be shared; the index is known to be in bounds.
+     */
+    protected void assignElement(Frame frame, ArrayHandle hArray, int index, ObjectHandle hValue)
+        {
+        if (hArray instanceof GenericArrayHandle)
+            {
+            ((GenericArrayHandle) hArray).m_ahValue[hArray.m_ofStart + index] = hValue;
+            }
+        else
+            {
+            int iResult = assignArrayValue(frame, hArray, index, hValue);
+            assert iResult == Op.R_NEXT;
+            }
+        }
 
     // ----- IndexSupport methods -----
 
@@ -645,7 +1100,7 @@ public class xArray
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
 
-        return frame.assignValue(iReturn, hArray.m_ahValue[(int) lIndex]);
+        return frame.assignValue(iReturn, hArray.m_ahValue[hArray.m_ofStart + (int) lIndex]);
         }
 
     @Override
@@ -668,6 +1123,8 @@ public class xArray
                 return frame.raiseException(xException.readOnly(frame));
             }
 
+        hArray.ensureExclusive();
+
         ObjectHandle[] ahValue = hArray.m_ahValue;
         if (lIndex == cSize)
             {
@@ -704,6 +1161,121 @@ public class xArray
 
     // ----- helper methods -----
 
+    /**
+     * Obtain the bounds of the optional range argument of a bulk operation.
+     *
+     * @param hArray  the array
+     * @param hRange  the Range<Int> handle, or {@link ObjectHandle#DEFAULT} or Null for the
+     *                entire array
+     *
+     * @return the lower and upper (inclusive) bounds, or null if the range is not specified and
+     *         the array is empty
+     */
+    protected static long[] getRange(ArrayHandle hArray, ObjectHandle hRange)
+        {
+        if (hRange == ObjectHandle.DEFAULT || hRange == xNullable.NULL)
+            {
+            return hArray.m_cSize == 0 ? null : new long[] {0, hArray.m_cSize - 1};
+            }
+
+        GenericHandle hR = (GenericHandle) hRange;
+        return new long[]
+            {
+            ((JavaLong) hR.getField("lowerBound")).getValue(),
+            ((JavaLong) hR.getField("upperBound")).getValue()
+            };
+        }
+
+    /**
+     * @return true iff the specified bounds are within the array
+     */
+    protected static boolean checkRange(ArrayHandle hArray, long[] alRange)
+        {
+        return alRange[0] >= 0 && alRange[1] < hArray.m_cSize;
+        }
+
+    /**
+     * @return the "compareForOrder" function of the specified Comparator, or null if the
+     *         argument is not specified
+     */
+    protected static FunctionHandle getCompareFunction(ObjectHandle hComparator)
+        {
+        return hComparator == ObjectHandle.DEFAULT || hComparator == xNullable.NULL
+                ? null
+                : (FunctionHandle) ((GenericHandle) hComparator).getField("compareForOrder");
+        }
+
+    /**
+     * Complete the "indexOf" or "contains" call based on the result of the {@link #indexOf} call
+     * that placed the index on the frame's stack.
+     *
+     * @param iReturn   the register for the "contains" result
+     * @param aiReturn  the registers for the "indexOf" result, or null for "contains"
+     */
+    private static int completeIndexOf(Frame frame, int iResult, int iReturn, int[] aiReturn)
+        {
+        switch (iResult)
+            {
+            case Op.R_NEXT:
+                return assignIndexOf(frame, frame.popStack(), iReturn, aiReturn);
+
+            case Op.R_CALL:
+                frame.m_frameNext.addContinuation(frameCaller ->
+                    assignIndexOf(frameCaller, frameCaller.popStack(), iReturn, aiReturn));
+                return Op.R_CALL;
+
+            case Op.R_EXCEPTION:
+                return Op.R_EXCEPTION;
+
+            default:
+                throw new IllegalStateException();
+            }
+        }
+
+    private static int assignIndexOf(Frame frame, ObjectHandle hIndex, int iReturn, int[] aiReturn)
+        {
+        boolean fFound = ((JavaLong) hIndex).getValue() >= 0;
+
+        return aiReturn == null
+            ? frame.assignValue(iReturn, xBoolean.makeHandle(fFound))
+            : fFound
+                ? frame.assignValues(aiReturn, xBoolean.TRUE, hIndex)
+                : frame.assignValues(aiReturn, xBoolean.FALSE, null);
+        }
+
+    /**
+     * Complete the "binarySearch" call based on the result of the {@link #binarySearch} call that
+     * placed the search result on the frame's stack.
+     */
+    private static int completeBinarySearch(Frame frame, int iResult, int[] aiReturn)
+        {
+        switch (iResult)
+            {
+            case Op.R_NEXT:
+                return assignBinarySearch(frame, frame.popStack(), aiReturn);
+
+            case Op.R_CALL:
+                frame.m_frameNext.addContinuation(frameCaller ->
+                    assignBinarySearch(frameCaller, frameCaller.popStack(), aiReturn));
+                return Op.R_CALL;
+
+            case Op.R_EXCEPTION:
+                return Op.R_EXCEPTION;
+
+            default:
+                throw new IllegalStateException();
+            }
+        }
+
+    private static int assignBinarySearch(Frame frame, ObjectHandle hResult, int[] aiReturn)
+        {
+        long lResult = ((JavaLong) hResult).getValue();
+
+        return lResult >= 0
+            ? frame.assignValues(aiReturn, xBoolean.TRUE, hResult)
+            : frame.assignValues(aiReturn, xBoolean.FALSE, xInt64.makeHandle(-(lResult + 1)));
+        }
+
     private xArray getArrayTemplate(TypeConstant typeParam)
         {
         xArray template = ARRAY_TEMPLATES.get(typeParam);
@@ -802,17 +1374,21 @@ public class xArray
             implements Frame.Continuation
         {
         final private ObjectHandle[] ah1;
+        final private int of1;
         final private ObjectHandle[] ah2;
+        final private int of2;
         final private TypeConstant typeEl;
         final private int cElements;
         final private int[] holder;
         final private int iReturn;
 
-        public Equals(ObjectHandle[] ah1, ObjectHandle[] ah2, TypeConstant typeEl,
+        public Equals(ObjectHandle[] ah1, int of1, ObjectHandle[] ah2, int of2, TypeConstant typeEl,
                       int cElements, int[] holder, int iReturn)
             {
             this.ah1 = ah1;
+            this.of1 = of1;
             this.ah2 = ah2;
+            this.of2 = of2;
             this.typeEl = typeEl;
             this.cElements = cElements;
             this.holder = holder;
@@ -835,7 +1411,7 @@ public class xArray
             int iEl;
             while ((iEl = holder[0]++) < cElements)
                 {
-                switch (typeEl.callEquals(frameCaller, ah1[iEl], ah2[iEl], Op.A_STACK))
+                switch (typeEl.callEquals(frameCaller, ah1[of1 + iEl], ah2[of2 + iEl], Op.A_STACK))
                     {
                     case Op.R_NEXT:
                         ObjectHandle hResult = frameCaller.popStack();
@@ -861,6 +1437,420 @@ public class xArray
         }
 
 
+    /**
+     * Helper class for indexOf() implementation.
+     */
+    protected static class IndexOf
+            implements Frame.Continuation
+        {
+        final private xArray template;
+        final private ArrayHandle hArray;
+        final private TypeConstant typeEl;
+        final private ObjectHandle hValue;
+        final private int iReturn;
+
+        private int index;
+
+        public IndexOf(xArray template, ArrayHandle hArray, TypeConstant typeEl,
+                       ObjectHandle hValue, int ixFrom, int iReturn)
+            {
+            this.template = template;
+            this.hArray = hArray;
+            this.typeEl = typeEl;
+            this.hValue = hValue;
+            this.index = ixFrom;
+            this.iReturn = iReturn;
+            }
+
+        @Override
+        public int proceed(Frame frameCaller)
+            {
+            if (frameCaller.popStack() == xBoolean.TRUE)
+                {
+                return frameCaller.assignValue(iReturn, xInt64.makeHandle(index));
+                }
+            index++;
+            return doNext(frameCaller);
+            }
+
+        public int doNext(Frame frameCaller)
+            {
+            for (; index < hArray.m_cSize; index++)
+                {
+                ObjectHandle hElement = template.extractElement(frameCaller, hArray, index);
+                if (hElement == hValue)
+                    {
+                    return frameCaller.assignValue(iReturn, xInt64.makeHandle(index));
+                    }
+
+                switch (typeEl.callEquals(frameCaller, hElement, hValue, Op.A_STACK))
+                    {
+                    case Op.R_NEXT:
+                        if (frameCaller.popStack() == xBoolean.TRUE)
+                            {
+                            return frameCaller.assignValue(iReturn, xInt64.makeHandle(index));
+                            }
+                        break;
+
+                    case Op.R_CALL:
+                        frameCaller.m_frameNext.addContinuation(this);
+                        return Op.R_CALL;
+
+                    case Op.R_EXCEPTION:
+                        return Op.R_EXCEPTION;
+
+                    default:
+                        throw new IllegalStateException();
+                    }
+                }
+            return frameCaller.assignValue(iReturn, xInt64.makeHandle(-1));
+            }
+        }
+
+    /**
+     * Base class for the helpers that compare the array elements for order, either in their
+     * natural order or using a Comparator's function; each comparison may need to call into the
+     * Ecstasy code.
+     */
+    protected abstract static class OrderedComparison
+            implements Frame.Continuation
+        {
+        protected OrderedComparison(TypeConstant typeEl, FunctionHandle hCompare)
+            {
+            this.typeEl = typeEl;
+            this.hCompare = hCompare;
+            }
+
+        /**
+         * Prepare the next comparison by assigning the {@link #h1} and {@link #h2} values.
+         *
+         * @return false iff there is nothing more to compare
+         */
+        abstract protected boolean prepareNext(Frame frameCaller);
+
+        /**
+         * Apply the result of the prepared comparison.
+         *
+         * @param nOrder  a negative integer, zero, or a positive integer as h1 is less than,
+         *                equal to, or greater than h2
+         */
+        abstract protected void apply(int nOrder);
+
+        /**
+         * Assign the result of the operation.
+         */
+        abstract protected int complete(Frame frameCaller);
+
+        @Override
+        public int proceed(Frame frameCaller)
+            {
+            apply(popOrder(frameCaller));
+            return doNext(frameCaller);
+            }
+
+        public int doNext(Frame frameCaller)
+            {
+            while (prepareNext(frameCaller))
+                {
+                int iResult = hCompare == null
+                    ? typeEl.callCompare(frameCaller, h1, h2, Op.A_STACK)
+                    : hCompare.call1(frameCaller, null, new ObjectHandle[] {h1, h2}, Op.A_STACK);
+
+                switch (iResult)
+                    {
+                    case Op.R_NEXT:
+                        apply(popOrder(frameCaller));
+                        break;
+
+                    case Op.R_CALL:
+                        frameCaller.m_frameNext.addContinuation(this);
+                        return Op.R_CALL;
+
+                    case Op.R_EXCEPTION:
+                        return Op.R_EXCEPTION;
+
+                    default:
+                        throw new IllegalStateException();
+                    }
+                }
+            return complete(frameCaller);
+            }
+
+        /**
+         * @return the Ordered value popped from the stack as -1, 0 or 1
+         */
+        private static int popOrder(Frame frame)
+            {
+            return ((EnumHandle) frame.popStack()).getValue() - 1;
+            }
+
+        final private TypeConstant typeEl;
+        final private FunctionHandle hCompare;
+
+        protected ObjectHandle h1;
+        protected ObjectHandle h2;
+        }
+
+    /**
+     * Helper class for binarySearch() implementation.
+     */
+    protected static class BinarySearch
+            extends OrderedComparison
+        {
+        final private xArray template;
+        final private ArrayHandle hArray;
+        final private ObjectHandle hValue;
+        final private int iReturn;
+
+        private int lo;
+        private int hi;
+        private int mid;
+        private boolean fFound;
+
+        public BinarySearch(xArray template, ArrayHandle hArray, TypeConstant typeEl,
+                            FunctionHandle hCompare, ObjectHandle hValue, int iReturn)
+            {
+            super(typeEl, hCompare);
+
+            this.template = template;
+            this.hArray = hArray;
+            this.hValue = hValue;
+            this.iReturn = iReturn;
+            this.hi = hArray.m_cSize - 1;
+            }
+
+        @Override
+        protected boolean prepareNext(Frame frameCaller)
+            {
+            if (fFound || lo > hi)
+                {
+                return false;
+                }
+
+            mid = (lo + hi) >>> 1;
+            h1  = template.extractElement(frameCaller, hArray, mid);
+            h2  = hValue;
+            return true;
+            }
+
+        @Override
+        protected void apply(int nOrder)
+            {
+            if (nOrder < 0)
+                {
+                lo = mid + 1;
+                }
+            else if (nOrder > 0)
+                {
+                hi = mid - 1;
+                }
+            else
+                {
+                fFound = true;
+                }
+            }
+
+        @Override
+        protected int complete(Frame frameCaller)
+            {
+            return frameCaller.assignValue(iReturn, xInt64.makeHandle(fFound ? mid : -(lo + 1)));
+            }
+        }
+
+    /**
+     * Helper class for sort() implementation.
+     *
+     * This is a stable merge sort that takes advantage of the existing order of the elements (in
+     * the spirit of TimSort): the elements are first split into "runs" that are either ascending
+     * or strictly descending (the latter are reversed in place), and then the adjacent runs are
+     * merged pair by pair until there is only one run left. A merge is done into a separate
+     * buffer, and copied back only when it is complete, so the array always holds all of its
+     * elements, even if a comparison throws.
+     */
+    protected static class Sort
+            extends OrderedComparison
+        {
+        final private xArray template;
+        final private ArrayHandle hArray;
+        final private Mutability mutability;
+        final private ObjectHandle[] ahValue;
+        final private int of;
+        final private int cSize;
+        final private int iReturn;
+
+        /**
+         * The boundaries of the runs; the run "n" spans [aiBound[n], aiBound[n+1]).
+         */
+        final private int[] aiBound;
+        private int cBounds;
+
+        // the state of the run detection
+        private boolean fMerging;
+        private int ixRun;
+        private int ix;
+        private int nDir;
+
+        // the state of the merging
+        private ObjectHandle[] ahMerge;
+        private boolean fInMerge;
+        private int iPair;
+        private int cMerged;
+        private int lo;
+        private int mid;
+        private int hi;
+        private int i;
+        private int j;
+        private int k;
+
+        public Sort(xArray template, ArrayHandle hArray, Mutability mutability,
+                    TypeConstant typeEl, FunctionHandle hCompare,
+                    ObjectHandle[] ahValue, int of, int iReturn)
+            {
+            super(typeEl, hCompare);
+
+            this.template = template;
+            this.hArray = hArray;
+            this.mutability = mutability;
+            this.ahValue = ahValue;
+            this.of = of;
+            this.cSize = hArray.m_cSize;
+            this.iReturn = iReturn;
+
+            this.aiBound = new int[cSize + 1];
+            this.cBounds = 1;
+            this.ix = 1;
+            }
+
+        @Override
+        protected boolean prepareNext(Frame frameCaller)
+            {
+            if (!fMerging)
+                {
+                if (ix < cSize)
+                    {
+                    h1 = ahValue[of + ix - 1];
+                    h2 = ahValue[of + ix];
+                    return true;
+                    }
+                closeRun(cSize);
+                fMerging = true;
+                }
+
+            while (true)
+                {
+                if (fInMerge)
+                    {
+                    if (i < mid && j < hi)
+                        {
+                        h1 = ahValue[of + j];
+                        h2 = ahValue[of + i];
+                        return true;
+                        }
+
+                    while (i < mid)
+                        {
+                        ahMerge[k++] = ahValue[of + i++];
+                        }
+                    while (j < hi)
+                        {
+                        ahMerge[k++] = ahValue[of + j++];
+                        }
+                    System.arraycopy(ahMerge, lo, ahValue, of + lo, hi - lo);
+                    fInMerge = false;
+                    }
+
+                int cRuns = cBounds - 1;
+                if (cRuns <= 1)
+                    {
+                    return false;
+                    }
+
+                if (iPair + 2 <= cRuns)
+                    {
+                    lo = aiBound[iPair];
+                    mid = aiBound[iPair + 1];
+                    hi = aiBound[iPair + 2];
+                    aiBound[cMerged++] = lo;
+                    iPair += 2;
+
+                    if (ahMerge == null)
+                        {
+                        ahMerge = new ObjectHandle[cSize];
+                        }
+                    i = lo;
+                    j = mid;
+                    k = lo;
+                    fInMerge = true;
+                    }
+                else
+                    {
+                    // the pass is over; an odd run is carried over to the next pass as is
+                    if (iPair < cRuns)
+                        {
+                        aiBound[cMerged++] = aiBound[iPair];
+                        }
+                    aiBound[cMerged++] = cSize;
+                    cBounds = cMerged;
+                    cMerged = 0;
+                    iPair = 0;
+                    }
+                }
+            }
+
+        @Override
+        protected void apply(int nOrder)
+            {
+            if (fMerging)
+                {
+                // h1 is from the right run; taking it only if it's less keeps the sort stable
+                ahMerge[k++] = nOrder < 0 ? ahValue[of + j++] : ahValue[of + i++];
+                }
+            else if (nDir == 0)
+                {
+                nDir = nOrder > 0 ? -1 : 1;
+                ix++;
+                }
+            else if (nDir > 0 ? nOrder <= 0 : nOrder > 0)
+                {
+                ix++;
+                }
+            else
+                {
+                closeRun(ix);
+                ixRun = ix++;
+                nDir = 0;
+                }
+            }
+
+        private void closeRun(int ixEnd)
+            {
+            if (nDir < 0)
+                {
+                for (int iL = of + ixRun, iR = of + ixEnd - 1; iL < iR; iL++, iR--)
+                    {
+                    ObjectHandle h = ahValue[iL];
+                    ahValue[iL] = ahValue[iR];
+                    ahValue[iR] = h;
+                    }
+                }
+            aiBound[cBounds++] = ixEnd;
+            }
+
+        @Override
+        protected int complete(Frame frameCaller)
+            {
+            if (!(hArray instanceof GenericArrayHandle))
+                {
+                for (int iEl = 0; iEl < cSize; iEl++)
+                    {
+                    template.assignElement(frameCaller, hArray, iEl, ahValue[iEl]);
+                    }
+                }
+            return frameCaller.assignValue(iReturn, completeModification(hArray, mutability));
+            }
+        }
+
+
     // ----- ObjectHandle helpers -----
 
     /**
@@ -925,7 +1915,15 @@ public class xArray
         @Override
         public int getCapacity()
             {
-            return m_ahValue.length;
+            return m_ahValue.length - m_ofStart;
+            }
+
+        @Override
+        protected void copyStorage()
+            {
+            ObjectHandle[] ahNew = new ObjectHandle[getExclusiveCapacity(m_ahValue.length)];
+            System.arraycopy(m_ahValue, m_ofStart, ahNew, 0, m_cSize);
+            m_ahValue = ahNew;
             }
 
         @Override
@@ -945,4 +1943,9 @@ public class xArray
     private static ClassComposition s_clzStringArray;
     private static ClassComposition s_clzObjectArray;
     private static Map<TypeConstant, xArray> ARRAY_TEMPLATES;
+
+    /**
+     * Cached element type test for {@link #invokeAdd}.
+     */
+    private final TypeTestCache f_cacheAdd = new TypeTestCache();
     }
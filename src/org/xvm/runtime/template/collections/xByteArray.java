@@ -22,6 +22,8 @@ import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xChar;
 import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xFunction.FunctionHandle;
+import org.xvm.runtime.template.xInt64;
 import org.xvm.runtime.template.xString;
 import org.xvm.runtime.template.xUInt8;
 
@@ -85,10 +87,34 @@ public class xByteArray
     @Override
     protected ArrayHandle createCopy(ArrayHandle hArray, Mutability mutability)
         {
-        ByteArrayHandle hSrc = (ByteArrayHandle) hArray;
+        ByteArrayHandle hSrc  = (ByteArrayHandle) hArray;
+        int             ofSrc = hSrc.m_ofStart;
 
         return new ByteArrayHandle(hSrc.getComposition(),
-            Arrays.copyOfRange(hSrc.m_abValue, 0, hSrc.m_cSize), mutability);
+            Arrays.copyOfRange(hSrc.m_abValue, ofSrc, ofSrc + hSrc.m_cSize), mutability);
+        }
+
+    @Override
+    protected ArrayHandle createSlice(ArrayHandle hArray, int ofStart, int cSize)
+        {
+        ByteArrayHandle hSrc = (ByteArrayHandle) hArray;
+
+        ByteArrayHandle hSlice = new ByteArrayHandle(hSrc.getComposition(), hSrc.m_abValue, Mutability.Mutable);
+        hSlice.m_ofStart = hSrc.m_ofStart + ofStart;
+        hSlice.m_cSize   = cSize;
+        return hSlice;
+        }
+
+    @Override
+    protected void reverse(ArrayHandle hArray)
+        {
+        byte[] abValue = ((ByteArrayHandle) hArray).m_abValue;
+        for (int i = 0, j = hArray.m_cSize - 1; i < j; i++, j--)
+            {
+            byte b = abValue[i];
+            abValue[i] = abValue[j];
+            abValue[j] = b;
+            }
         }
 
     @Override
@@ -100,6 +126,103 @@ public class xByteArray
         ha.m_cSize = cSize;
         }
 
+    @Override
+    protected void fill(Frame frame, ArrayHandle hArray, int ixFrom, int ixTo, ObjectHandle hValue)
+        {
+        int of = hArray.m_ofStart;
+        Arrays.fill(((ByteArrayHandle) hArray).m_abValue, of + ixFrom, of + ixTo, (byte) ((JavaLong) hValue).getValue());
+        }
+
+    @Override
+    protected void copyInto(Frame frame, ArrayHandle hSrc, int ixSrc,
+                            ArrayHandle hDst, int ixDst, int cCopy)
+        {
+        if (hDst instanceof ByteArrayHandle)
+            {
+            hDst.ensureExclusive();
+            System.arraycopy(((ByteArrayHandle) hSrc).m_abValue, hSrc.m_ofStart + ixSrc,
+                             ((ByteArrayHandle) hDst).m_abValue, hDst.m_ofStart + ixDst, cCopy);
+            }
+        else
+            {
+            super.copyInto(frame, hSrc, ixSrc, hDst, ixDst, cCopy);
+            }
+        }
+
+    @Override
+    protected int indexOf(Frame frame, ArrayHandle hArray, ObjectHandle hValue, int ixFrom,
+                          int iReturn)
+        {
+        byte[] abValue = ((ByteArrayHandle) hArray).m_abValue;
+        byte   bValue = (byte) ((JavaLong) hValue).getValue();
+        int    of     = hArray.m_ofStart;
+
+        for (int i = ixFrom, c = hArray.m_cSize; i < c; i++)
+            {
+            if (abValue[of + i] == bValue)
+                {
+                return frame.assignValue(iReturn, xInt64.makeHandle(i));
+                }
+            }
+        return frame.assignValue(iReturn, xInt64.makeHandle(-1));
+        }
+
+    @Override
+    protected int binarySearch(Frame frame, ArrayHandle hArray, ObjectHandle hValue,
+                               FunctionHandle hCompare, int iReturn)
+        {
+        if (hCompare != null)
+            {
+            return super.binarySearch(frame, hArray, hValue, hCompare, iReturn);
+            }
+
+        // the bytes are unsigned
+        byte[] abValue = ((ByteArrayHandle) hArray).m_abValue;
+        int    nValue  = (int) ((JavaLong) hValue).getValue();
+        int    of      = hArray.m_ofStart;
+        int    lo      = 0;
+        int    hi      = hArray.m_cSize - 1;
+        while (lo <= hi)
+            {
+            int mid = (lo + hi) >>> 1;
+            int n   = abValue[of + mid] & 0xFF;
+            if (n < nValue)
+                {
+                lo = mid + 1;
+                }
+            else if (n > nValue)
+                {
+                hi = mid - 1;
+                }
+            else
+                {
+                return frame.assignValue(iReturn, xInt64.makeHandle(mid));
+                }
+            }
+        return frame.assignValue(iReturn, xInt64.makeHandle(-(lo + 1)));
+        }
+
+    @Override
+    protected boolean sortNatural(ArrayHandle hArray)
+        {
+        // the bytes are unsigned, so Arrays.sort() is of no use; a counting sort is even faster
+        byte[] abValue = ((ByteArrayHandle) hArray).m_abValue;
+        int    of      = hArray.m_ofStart;
+        int[]  acCount = new int[256];
+        for (int i = of, iEnd = of + hArray.m_cSize; i < iEnd; i++)
+            {
+            acCount[abValue[i] & 0xFF]++;
+            }
+
+        for (int n = 0, i = of; n < 256; n++)
+            {
+            int c = acCount[n];
+            Arrays.fill(abValue, i, i + c, (byte) n);
+            i += c;
+            }
+        return true;
+        }
+
     @Override
     public ArrayHandle createArrayHandle(ClassComposition clzArray, int cCapacity, Mutability mutability)
         {
@@ -116,7 +239,7 @@ public class xByteArray
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
 
-        byte b = hArray.m_abValue[(int) lIndex];
+        byte b = hArray.m_abValue[hArray.m_ofStart + (int) lIndex];
         return frame.assignValue(iReturn, xUInt8.makeHandle(((long) b) & 0xFF));
         }
 
@@ -141,17 +264,19 @@ public class xByteArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         byte[] abValue = hArray.m_abValue;
         if (lIndex == cSize)
             {
-            if (hArray.m_mutability == Mutability.FixedSize)
-                {
-                return frame.raiseException(xException.readOnly(frame));
-                }
-
             // an array can only grow without any "holes"
             if (cSize == abValue.length)
                 {
+                if (hArray.m_mutability == Mutability.FixedSize)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
                 abValue = hArray.m_abValue = grow(abValue, cSize + 1);
                 }
 
@@ -171,6 +296,17 @@ public class xByteArray
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
 
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case Persistent:
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        hArray.ensureExclusive();
+
         return frame.assignValue(iReturn,
                 xChar.makeHandle(++hArray.m_abValue[(int) lIndex]));
         }
@@ -182,8 +318,7 @@ public class xByteArray
         ByteArrayHandle h1 = (ByteArrayHandle) hValue1;
         ByteArrayHandle h2 = (ByteArrayHandle) hValue2;
 
-        return frame.assignValue(iReturn,
-                xBoolean.makeHandle(Arrays.equals(h1.m_abValue, h2.m_abValue)));
+        return frame.assignValue(iReturn, xBoolean.makeHandle(h1.equals(h2)));
         }
 
     @Override
@@ -197,7 +332,7 @@ public class xByteArray
             return false;
             }
 
-        return Arrays.equals(hArray1.m_abValue, hArray2.m_abValue);
+        return hArray1.equals(hArray2);
         }
 
     @Override
@@ -219,6 +354,8 @@ public class xByteArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         byte[] abValue = hArray.m_abValue;
         if (ixNext == abValue.length)
             {
@@ -251,9 +388,12 @@ public class xByteArray
         ByteArrayHandle hArrayAdd = (ByteArrayHandle) hValue;
         int    cNew  = hArrayAdd.m_cSize;
         byte[] abNew = hArrayAdd.m_abValue;
+        int    ofNew = hArrayAdd.m_ofStart;
 
         if (cNew > 0)
             {
+            hArray.ensureExclusive();
+
             byte[] abArray = hArray.m_abValue;
             int    cArray   = hArray.m_cSize;
 
@@ -262,34 +402,12 @@ public class xByteArray
                 abArray = hArray.m_abValue = grow(abArray, cArray + cNew);
                 }
             hArray.m_cSize += cNew;
-            System.arraycopy(abNew, 0, abArray, cArray, cNew);
+            System.arraycopy(abNew, ofNew, abArray, cArray, cNew);
             }
 
         return frame.assignValue(iReturn, hArray);
         }
 
-    @Override
-    protected int slice(Frame frame, ObjectHandle hTarget, long ixFrom, long ixTo, int iReturn)
-        {
-        ByteArrayHandle hArray = (ByteArrayHandle) hTarget;
-
-        byte[] abValue = hArray.m_abValue;
-        try
-            {
-            byte[]           abNew    = Arrays.copyOfRange(abValue, (int) ixFrom, (int) ixTo + 1);
-            ByteArrayHandle hArrayNew = new ByteArrayHandle(hTarget.getComposition(), abNew, Mutability.Mutable);
-
-            return frame.assignValue(iReturn, hArrayNew);
-            }
-        catch (ArrayIndexOutOfBoundsException e)
-            {
-            long c = abValue.length;
-            return frame.raiseException(
-                xException.outOfBounds(frame, ixFrom < 0 || ixFrom >= c ? ixFrom : ixTo, c));
-            }
-        }
-
-
     // ----- helper methods -----
 
     private byte[] grow(byte[] abValue, int cSize)
@@ -324,7 +442,15 @@ public class xByteArray
         @Override
         public int getCapacity()
             {
-            return m_abValue.length;
+            return m_abValue.length - m_ofStart;
+            }
+
+        @Override
+        protected void copyStorage()
+            {
+            byte[] abNew = new byte[getExclusiveCapacity(m_abValue.length)];
+            System.arraycopy(m_abValue, m_ofStart, abNew, 0, m_cSize);
+            m_abValue = abNew;
             }
 
         @Override
@@ -332,10 +458,10 @@ public class xByteArray
             {
             if (isMutable())
                 {
-                // purge the unused space
+                // purge the unused space (unless the storage is shared)
                 byte[] ab = m_abValue;
                 int    c  = m_cSize;
-                if (ab.length != c)
+                if (!m_fShared && ab.length != c)
                     {
                     byte[] abNew = new byte[c];
                     System.arraycopy(ab, 0, abNew, 0, c);
@@ -354,10 +480,14 @@ public class xByteArray
         @Override
         public int compareTo(ObjectHandle that)
             {
+            ByteArrayHandle hThat = (ByteArrayHandle) that;
+
             byte[] abThis = m_abValue;
+            int    ofThis = m_ofStart;
             int    cThis  = m_cSize;
-            byte[] abThat = ((ByteArrayHandle) that).m_abValue;
-            int    cThat  = ((ByteArrayHandle) that).m_cSize;
+            byte[] abThat = hThat.m_abValue;
+            int    ofThat = hThat.m_ofStart;
+            int    cThat  = hThat.m_cSize;
 
             if (cThis != cThat)
                 {
@@ -366,7 +496,7 @@ public class xByteArray
 
             for (int i = 0; i < cThis; i++)
                 {
-                int iDiff = abThis[i] - abThat[i];
+                int iDiff = abThis[ofThis + i] - abThat[ofThat + i];
                 if (iDiff != 0)
                     {
                     return iDiff;
@@ -378,14 +508,20 @@ public class xByteArray
         @Override
         public int hashCode()
             {
-            return Arrays.hashCode(m_abValue);
+            byte[] abValue = m_abValue;
+            int    nHash   = 1;
+            for (int i = m_ofStart, iEnd = i + m_cSize; i < iEnd; i++)
+                {
+                nHash = 31 * nHash + abValue[i];
+                }
+            return nHash;
             }
 
         @Override
         public boolean equals(Object obj)
             {
             return obj instanceof ByteArrayHandle
-                && Arrays.equals(m_abValue, ((ByteArrayHandle) obj).m_abValue);
+                && compareTo((ByteArrayHandle) obj) == 0;
             }
         }
 
@@ -20,6 +20,8 @@ import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xChar;
 import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xFunction.FunctionHandle;
+import org.xvm.runtime.template.xInt64;
 import org.xvm.runtime.template.xString;
 import org.xvm.runtime.template.xString.StringHandle;
 
@@ -69,10 +71,34 @@ public class xCharArray
     @Override
     protected ArrayHandle createCopy(ArrayHandle hArray, Mutability mutability)
         {
-        CharArrayHandle hSrc = (CharArrayHandle) hArray;
+        CharArrayHandle hSrc  = (CharArrayHandle) hArray;
+        int             ofSrc = hSrc.m_ofStart;
 
         return new CharArrayHandle(hSrc.getComposition(),
-            Arrays.copyOfRange(hSrc.m_achValue, 0, hSrc.m_cSize), mutability);
+            Arrays.copyOfRange(hSrc.m_achValue, ofSrc, ofSrc + hSrc.m_cSize), mutability);
+        }
+
+    @Override
+    protected ArrayHandle createSlice(ArrayHandle hArray, int ofStart, int cSize)
+        {
+        CharArrayHandle hSrc = (CharArrayHandle) hArray;
+
+        CharArrayHandle hSlice = new CharArrayHandle(hSrc.getComposition(), hSrc.m_achValue, Mutability.Mutable);
+        hSlice.m_ofStart = hSrc.m_ofStart + ofStart;
+        hSlice.m_cSize   = cSize;
+        return hSlice;
+        }
+
+    @Override
+    protected void reverse(ArrayHandle hArray)
+        {
+        char[] achValue = ((CharArrayHandle) hArray).m_achValue;
+        for (int i = 0, j = hArray.m_cSize - 1; i < j; i++, j--)
+            {
+            char ch = achValue[i];
+            achValue[i] = achValue[j];
+            achValue[j] = ch;
+            }
         }
 
     @Override
@@ -84,6 +110,70 @@ public class xCharArray
         ha.m_cSize = cSize;
         }
 
+    @Override
+    protected void fill(Frame frame, ArrayHandle hArray, int ixFrom, int ixTo, ObjectHandle hValue)
+        {
+        int of = hArray.m_ofStart;
+        Arrays.fill(((CharArrayHandle) hArray).m_achValue, of + ixFrom, of + ixTo, (char) ((JavaLong) hValue).getValue());
+        }
+
+    @Override
+    protected void copyInto(Frame frame, ArrayHandle hSrc, int ixSrc,
+                            ArrayHandle hDst, int ixDst, int cCopy)
+        {
+        if (hDst instanceof CharArrayHandle)
+            {
+            hDst.ensureExclusive();
+            System.arraycopy(((CharArrayHandle) hSrc).m_achValue, hSrc.m_ofStart + ixSrc,
+                             ((CharArrayHandle) hDst).m_achValue, hDst.m_ofStart + ixDst, cCopy);
+            }
+        else
+            {
+            super.copyInto(frame, hSrc, ixSrc, hDst, ixDst, cCopy);
+            }
+        }
+
+    @Override
+    protected int indexOf(Frame frame, ArrayHandle hArray, ObjectHandle hValue, int ixFrom,
+                          int iReturn)
+        {
+        char[] achValue = ((CharArrayHandle) hArray).m_achValue;
+        char   chValue = (char) ((JavaLong) hValue).getValue();
+        int    of      = hArray.m_ofStart;
+
+        for (int i = ixFrom, c = hArray.m_cSize; i < c; i++)
+            {
+            if (achValue[of + i] == chValue)
+                {
+                return frame.assignValue(iReturn, xInt64.makeHandle(i));
+                }
+            }
+        return frame.assignValue(iReturn, xInt64.makeHandle(-1));
+        }
+
+    @Override
+    protected int binarySearch(Frame frame, ArrayHandle hArray, ObjectHandle hValue,
+                               FunctionHandle hCompare, int iReturn)
+        {
+        if (hCompare != null)
+            {
+            return super.binarySearch(frame, hArray, hValue, hCompare, iReturn);
+            }
+
+        int of = hArray.m_ofStart;
+        int ix = Arrays.binarySearch(((CharArrayHandle) hArray).m_achValue, of, of + hArray.m_cSize,
+                    (char) ((JavaLong) hValue).getValue());
+        return frame.assignValue(iReturn, xInt64.makeHandle(ix >= 0 ? ix - of : ix + of));
+        }
+
+    @Override
+    protected boolean sortNatural(ArrayHandle hArray)
+        {
+        int of = hArray.m_ofStart;
+        Arrays.sort(((CharArrayHandle) hArray).m_achValue, of, of + hArray.m_cSize);
+        return true;
+        }
+
     @Override
     public ArrayHandle createArrayHandle(ClassComposition clzArray, int cCapacity, Mutability mutability)
         {
@@ -99,7 +189,8 @@ public class xCharArray
             {
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
-        return frame.assignValue(iReturn, xChar.makeHandle(hArray.m_achValue[(int) lIndex]));
+        return frame.assignValue(iReturn,
+                xChar.makeHandle(hArray.m_achValue[hArray.m_ofStart + (int) lIndex]));
         }
 
     @Override
@@ -123,17 +214,19 @@ public class xCharArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         char[] achValue = hArray.m_achValue;
         if (lIndex == cSize)
             {
-            if (hArray.m_mutability == Mutability.FixedSize)
-                {
-                return frame.raiseException(xException.readOnly(frame));
-                }
-
             // an array can only grow without any "holes"
             if (cSize == achValue.length)
                 {
+                if (hArray.m_mutability == Mutability.FixedSize)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
                 achValue = hArray.m_achValue = grow(achValue, cSize + 1);
                 }
 
@@ -153,6 +246,17 @@ public class xCharArray
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
 
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case Persistent:
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        hArray.ensureExclusive();
+
         return frame.assignValue(iReturn,
                 xChar.makeHandle(++hArray.m_achValue[(int) lIndex]));
         }
@@ -164,8 +268,7 @@ public class xCharArray
         CharArrayHandle h1 = (CharArrayHandle) hValue1;
         CharArrayHandle h2 = (CharArrayHandle) hValue2;
 
-        return frame.assignValue(iReturn,
-                xBoolean.makeHandle(Arrays.equals(h1.m_achValue, h2.m_achValue)));
+        return frame.assignValue(iReturn, xBoolean.makeHandle(h1.equals(h2)));
         }
 
     @Override
@@ -179,7 +282,7 @@ public class xCharArray
             return false;
             }
 
-        return Arrays.equals(hArray1.m_achValue, hArray2.m_achValue);
+        return hArray1.equals(hArray2);
         }
 
     @Override
@@ -201,6 +304,8 @@ public class xCharArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         char[] achValue = hArray.m_achValue;
         if (ixNext == achValue.length)
             {
@@ -231,16 +336,19 @@ public class xCharArray
             }
 
         int    cNew;
+        int    ofNew;
         char[] achNew;
         if (hValue instanceof StringHandle)
             {
             achNew = ((StringHandle) hValue).getValue();
+            ofNew  = 0;
             cNew   = achNew.length;
             }
         else if (hValue instanceof CharArrayHandle)
             {
             CharArrayHandle hArrayAdd = (CharArrayHandle) hValue;
             cNew   = hArrayAdd.m_cSize;
+            ofNew  = hArrayAdd.m_ofStart;
             achNew = hArrayAdd.m_achValue;
             }
         else
@@ -251,6 +359,8 @@ public class xCharArray
 
         if (cNew > 0)
             {
+            hArray.ensureExclusive();
+
             char[] achArray = hArray.m_achValue;
             int    cArray   = hArray.m_cSize;
 
@@ -259,34 +369,12 @@ public class xCharArray
                 achArray = hArray.m_achValue = grow(achArray, cArray + cNew);
                 }
             hArray.m_cSize += cNew;
-            System.arraycopy(achNew, 0, achArray, cArray, cNew);
+            System.arraycopy(achNew, ofNew, achArray, cArray, cNew);
             }
 
         return frame.assignValue(iReturn, hArray);
         }
 
-    @Override
-    protected int slice(Frame frame, ObjectHandle hTarget, long ixFrom, long ixTo, int iReturn)
-        {
-        CharArrayHandle hArray = (CharArrayHandle) hTarget;
-
-        char[] achValue = hArray.m_achValue;
-        try
-            {
-            char[]           achNew    = Arrays.copyOfRange(achValue, (int) ixFrom, (int) ixTo + 1);
-            CharArrayHandle  hArrayNew = new CharArrayHandle(hTarget.getComposition(), achNew, Mutability.Mutable);
-
-            return frame.assignValue(iReturn, hArrayNew);
-            }
-        catch (ArrayIndexOutOfBoundsException e)
-            {
-            long c = achValue.length;
-            return frame.raiseException(
-                xException.outOfBounds(frame, ixFrom < 0 || ixFrom >= c ? ixFrom : ixTo, c));
-            }
-        }
-
-
     // ----- helper methods -----
 
     private char[] grow(char[] achValue, int cSize)
@@ -321,7 +409,15 @@ public class xCharArray
         @Override
         public int getCapacity()
             {
-            return m_achValue.length;
+            return m_achValue.length - m_ofStart;
+            }
+
+        @Override
+        protected void copyStorage()
+            {
+            char[] achNew = new char[getExclusiveCapacity(m_achValue.length)];
+            System.arraycopy(m_achValue, m_ofStart, achNew, 0, m_cSize);
+            m_achValue = achNew;
             }
 
         @Override
@@ -329,10 +425,10 @@ public class xCharArray
             {
             if (isMutable())
                 {
-                // purge the unused space
+                // purge the unused space (unless the storage is shared)
                 char[] ach = m_achValue;
                 int    c   = m_cSize;
-                if (ach.length != c)
+                if (!m_fShared && ach.length != c)
                     {
                     char[] achNew = new char[c];
                     System.arraycopy(ach, 0, achNew, 0, c);
@@ -351,10 +447,14 @@ public class xCharArray
         @Override
         public int compareTo(ObjectHandle that)
             {
+            CharArrayHandle hThat = (CharArrayHandle) that;
+
             char[] achThis = m_achValue;
+            int    ofThis  = m_ofStart;
             int    cThis   = m_cSize;
-            char[] achThat = ((CharArrayHandle) that).m_achValue;
-            int    cThat   = ((CharArrayHandle) that).m_cSize;
+            char[] achThat = hThat.m_achValue;
+            int    ofThat  = hThat.m_ofStart;
+            int    cThat   = hThat.m_cSize;
 
             if (cThis != cThat)
                 {
@@ -363,7 +463,7 @@ public class xCharArray
 
             for (int i = 0; i < cThis; i++)
                 {
-                int iDiff = achThis[i] - achThat[i];
+                int iDiff = achThis[ofThis + i] - achThat[ofThat + i];
                 if (iDiff != 0)
                     {
                     return iDiff;
@@ -375,21 +475,27 @@ public class xCharArray
         @Override
         public int hashCode()
             {
-            return Arrays.hashCode(m_achValue);
+            char[] achValue = m_achValue;
+            int    nHash    = 1;
+            for (int i = m_ofStart, iEnd = i + m_cSize; i < iEnd; i++)
+                {
+                nHash = 31 * nHash + achValue[i];
+                }
+            return nHash;
             }
 
         @Override
         public boolean equals(Object obj)
             {
             return obj instanceof CharArrayHandle
-                && Arrays.equals(m_achValue, ((CharArrayHandle) obj).m_achValue);
+                && compareTo((CharArrayHandle) obj) == 0;
             }
 
         @Override
         public String toString()
             {
             // for debugging only
-            return String.copyValueOf(m_achValue, 0, m_cSize);
+            return String.copyValueOf(m_achValue, m_ofStart, m_cSize);
             }
         }
 
@@ -0,0 +1,389 @@
+package org.xvm.runtime.template.collections;
+
+
+import java.util.Arrays;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ArrayHandle;
+import org.xvm.runtime.TypeComposition;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xBaseFP.FloatHandle;
+import org.xvm.runtime.template.xFloat64;
+import org.xvm.runtime.template.xString;
+
+
+/**
+ * Native Array<Float64> implementation.
+ */
+public class xFloat64Array
+        extends xArray
+    {
+    public static xFloat64Array INSTANCE;
+
+    public xFloat64Array(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure, false);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        }
+
+    @Override
+    public TypeConstant getCanonicalType()
+        {
+        ConstantPool pool = pool();
+        return pool.ensureParameterizedTypeConstant(pool.typeArray(),
+                pool.ensureEcstasyTypeConstant("Float64"));
+        }
+
+    @Override
+    public ArrayHandle createArrayHandle(ClassComposition clzArray, ObjectHandle[] ahArg)
+        {
+        int      c    = ahArg.length;
+        double[] adfl = new double[c];
+        for (int i = 0; i < c; i++)
+            {
+            adfl[i] = ((FloatHandle) ahArg[i]).getValue();
+            }
+        return new Float64ArrayHandle(clzArray, adfl, Mutability.Constant);
+        }
+
+    @Override
+    protected ArrayHandle createCopy(ArrayHandle hArray, Mutability mutability)
+        {
+        Float64ArrayHandle hSrc  = (Float64ArrayHandle) hArray;
+        int                ofSrc = hSrc.m_ofStart;
+
+        return new Float64ArrayHandle(hSrc.getComposition(),
+            Arrays.copyOfRange(hSrc.m_adflValue, ofSrc, ofSrc + hSrc.m_cSize), mutability);
+        }
+
+    @Override
+    protected ArrayHandle createSlice(ArrayHandle hArray, int ofStart, int cSize)
+        {
+        Float64ArrayHandle hSrc = (Float64ArrayHandle) hArray;
+
+        Float64ArrayHandle hSlice = new Float64ArrayHandle(hSrc.getComposition(), hSrc.m_adflValue, Mutability.Mutable);
+        hSlice.m_ofStart = hSrc.m_ofStart + ofStart;
+        hSlice.m_cSize   = cSize;
+        return hSlice;
+        }
+
+    @Override
+    protected void reverse(ArrayHandle hArray)
+        {
+        double[] adflValue = ((Float64ArrayHandle) hArray).m_adflValue;
+        for (int i = 0, j = hArray.m_cSize - 1; i < j; i++, j--)
+            {
+            double dfl = adflValue[i];
+            adflValue[i] = adflValue[j];
+            adflValue[j] = dfl;
+            }
+        }
+
+    @Override
+    protected void fill(ArrayHandle hArray, int cSize, ObjectHandle hValue)
+        {
+        Float64ArrayHandle ha = (Float64ArrayHandle) hArray;
+
+        Arrays.fill(ha.m_adflValue, 0, cSize, ((FloatHandle) hValue).getValue());
+        ha.m_cSize = cSize;
+        }
+
+    @Override
+    public ArrayHandle createArrayHandle(ClassComposition clzArray, int cCapacity, Mutability mutability)
+        {
+        return new Float64ArrayHandle(clzArray, cCapacity, mutability);
+        }
+
+    @Override
+    public int extractArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, int iReturn)
+        {
+        Float64ArrayHandle hArray = (Float64ArrayHandle) hTarget;
+
+        if (lIndex < 0 || lIndex >= hArray.m_cSize)
+            {
+            return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
+            }
+        return frame.assignValue(iReturn,
+                xFloat64.makeHandle(hArray.m_adflValue[hArray.m_ofStart + (int) lIndex]));
+        }
+
+    @Override
+    public int assignArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, ObjectHandle hValue)
+        {
+        Float64ArrayHandle hArray = (Float64ArrayHandle) hTarget;
+
+        int cSize = hArray.m_cSize;
+
+        if (lIndex < 0 || lIndex > cSize)
+            {
+            return frame.raiseException(xException.outOfBounds(frame, lIndex, cSize));
+            }
+
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case Persistent:
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        hArray.ensureExclusive();
+
+        double[] adflValue = hArray.m_adflValue;
+        if (lIndex == cSize)
+            {
+            // an array can only grow without any "holes"
+            if (cSize == adflValue.length)
+                {
+                if (hArray.m_mutability == Mutability.FixedSize)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
+                adflValue = hArray.m_adflValue = grow(adflValue, cSize + 1);
+                }
+
+            hArray.m_cSize++;
+            }
+
+        adflValue[(int) lIndex] = ((FloatHandle) hValue).getValue();
+        return Op.R_NEXT;
+        }
+
+    @Override
+    public int callEquals(Frame frame, ClassComposition clazz,
+                          ObjectHandle hValue1, ObjectHandle hValue2, int iReturn)
+        {
+        Float64ArrayHandle h1 = (Float64ArrayHandle) hValue1;
+        Float64ArrayHandle h2 = (Float64ArrayHandle) hValue2;
+
+        return frame.assignValue(iReturn,
+                xBoolean.makeHandle(h1.equals(h2)));
+        }
+
+    @Override
+    public boolean compareIdentity(ObjectHandle hValue1, ObjectHandle hValue2)
+        {
+        Float64ArrayHandle hArray1 = (Float64ArrayHandle) hValue1;
+        Float64ArrayHandle hArray2 = (Float64ArrayHandle) hValue2;
+
+        return !hArray1.isMutable() && !hArray2.isMutable() && hArray1.equals(hArray2);
+        }
+
+    @Override
+    protected int addElement(Frame frame, ObjectHandle hTarget, ObjectHandle hValue, int iReturn)
+        {
+        Float64ArrayHandle hArray = (Float64ArrayHandle) hTarget;
+        int                ixNext = hArray.m_cSize;
+
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case FixedSize:
+                return frame.raiseException(xException.readOnly(frame));
+
+            case Persistent:
+                // TODO: implement
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        hArray.ensureExclusive();
+
+        double[] adflValue = hArray.m_adflValue;
+        if (ixNext == adflValue.length)
+            {
+            adflValue = hArray.m_adflValue = grow(hArray.m_adflValue, ixNext + 1);
+            }
+        hArray.m_cSize++;
+
+        adflValue[ixNext] = ((FloatHandle) hValue).getValue();
+        return frame.assignValue(iReturn, hArray); // return this
+        }
+
+    @Override
+    protected int addElements(Frame frame, ObjectHandle hTarget, ObjectHandle hValue, int iReturn)
+        {
+        Float64ArrayHandle hArray = (Float64ArrayHandle) hTarget;
+
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case FixedSize:
+                return frame.raiseException(xException.readOnly(frame));
+
+            case Persistent:
+                // TODO: implement
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        Float64ArrayHandle hArrayAdd = (Float64ArrayHandle) hValue;
+
+        int cAdd = hArrayAdd.m_cSize;
+        if (cAdd > 0)
+            {
+            double[] adflAdd = hArrayAdd.m_adflValue;
+            int      ofAdd   = hArrayAdd.m_ofStart;
+
+            hArray.ensureExclusive();
+
+            double[] adflThis = hArray.m_adflValue;
+            int      cThis    = hArray.m_cSize;
+            int      cNew     = cThis + cAdd;
+            if (cNew > adflThis.length)
+                {
+                adflThis = hArray.m_adflValue = grow(adflThis, cNew);
+                }
+            hArray.m_cSize = cNew;
+            System.arraycopy(adflAdd, ofAdd, adflThis, cThis, cAdd);
+            }
+        return frame.assignValue(iReturn, hArray);
+        }
+
+    // ----- helper methods -----
+
+    private double[] grow(double[] adflValue, int cSize)
+        {
+        int cCapacity = calculateCapacity(adflValue.length, cSize);
+
+        double[] adflNew = new double[cCapacity];
+        System.arraycopy(adflValue, 0, adflNew, 0, adflValue.length);
+        return adflNew;
+        }
+
+    public static class Float64ArrayHandle
+            extends ArrayHandle
+        {
+        public double[] m_adflValue;
+
+        protected Float64ArrayHandle(TypeComposition clzArray, double[] adflValue, Mutability mutability)
+            {
+            super(clzArray, mutability);
+
+            m_adflValue = adflValue;
+            m_cSize   = adflValue.length;
+            }
+
+        protected Float64ArrayHandle(TypeComposition clzArray, int cCapacity, Mutability mutability)
+            {
+            super(clzArray, mutability);
+
+            m_adflValue = new double[cCapacity];
+            }
+
+        @Override
+        public int getCapacity()
+            {
+            return m_adflValue.length - m_ofStart;
+            }
+
+        @Override
+        protected void copyStorage()
+            {
+            double[] adflNew = new double[getExclusiveCapacity(m_adflValue.length)];
+            System.arraycopy(m_adflValue, m_ofStart, adflNew, 0, m_cSize);
+            m_adflValue = adflNew;
+            }
+
+        @Override
+        public boolean isNativeEqual()
+            {
+            return true;
+            }
+
+        @Override
+        public int compareTo(ObjectHandle that)
+            {
+            Float64ArrayHandle hThat = (Float64ArrayHandle) that;
+
+            double[] adflThis = m_adflValue;
+            int      ofThis   = m_ofStart;
+            int      cThis    = m_cSize;
+            double[] adflThat = hThat.m_adflValue;
+            int      ofThat   = hThat.m_ofStart;
+            int      cThat    = hThat.m_cSize;
+
+            if (cThis != cThat)
+                {
+                return cThis - cThat;
+                }
+
+            for (int i = 0; i < cThis; i++)
+                {
+                int nDiff = Double.compare(adflThis[ofThis + i], adflThat[ofThat + i]);
+                if (nDiff != 0)
+                    {
+                    return nDiff;
+                    }
+                }
+            return 0;
+            }
+
+        @Override
+        public int hashCode()
+            {
+            double[] adflValue = m_adflValue;
+            int      nHash     = 1;
+            for (int i = m_ofStart, iEnd = i + m_cSize; i < iEnd; i++)
+                {
+                nHash = 31 * nHash + Double.hashCode(adflValue[i]);
+                }
+            return nHash;
+            }
+
+        @Override
+        public boolean equals(Object obj)
+            {
+            if (!(obj instanceof Float64ArrayHandle))
+                {
+                return false;
+                }
+
+            // compare the bits, so that the equality is consistent with the hash code
+            Float64ArrayHandle that  = (Float64ArrayHandle) obj;
+            int                cSize = m_cSize;
+            if (cSize != that.m_cSize)
+                {
+                return false;
+                }
+
+            double[] adflThis = m_adflValue;
+            int      ofThis   = m_ofStart;
+            double[] adflThat = that.m_adflValue;
+            int      ofThat   = that.m_ofStart;
+            for (int i = 0; i < cSize; i++)
+                {
+                if (Double.doubleToLongBits(adflThis[ofThis + i])
+                        != Double.doubleToLongBits(adflThat[ofThat + i]))
+                    {
+                    return false;
+                    }
+                }
+            return true;
+            }
+        }
+    }
@@ -0,0 +1,425 @@
+package org.xvm.runtime.template.collections;
+
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Constants.Access;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.GenericHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xEnum.EnumHandle;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xInt64;
+
+
+/**
+ * Native HashMap implementation.
+ *
+ * The entries are kept in a {@link HashTable} that is shared by all the access views of a map. The
+ * keys of the natural hasher that the runtime knows how to hash and compare (see
+ * {@link HashTable#isNativeKey}) are handled entirely by the native code; for all other keys the
+ * public operations are delegated to their Ecstasy counterparts, which use the map's Hasher and
+ * access the table via the native "slot" primitives.
+ *
+ * The Ecstasy subclasses of HashMap are given their own instances of this template by the
+ * {@link org.xvm.runtime.TemplateRegistry}, so their objects carry the same native storage.
+ */
+public class xHashMap
+        extends ClassTemplate
+    {
+    public static xHashMap INSTANCE;
+
+    public xHashMap(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        NATURAL_HASHER = f_templates.getClassStructure("collections.NaturalHasher");
+
+        HASHED_CONTAINS = f_struct.findMethod("hashedContains", 1);
+        HASHED_GET      = f_struct.findMethod("hashedGet", 1);
+        HASHED_PUT      = f_struct.findMethod("hashedPut", 2);
+        HASHED_REMOVE   = f_struct.findMethod("hashedRemove", 1);
+
+        markNativeProperty("size");
+        markNativeProperty("addCount");
+
+        markNativeMethod("ensureCapacity", INT, VOID);
+        markNativeMethod("nextMatch", new String[] {"Int64", "Int64"}, INT);
+        markNativeMethod("nextSlot", INT, INT);
+        markNativeMethod("keyAt", INT, KEY);
+        markNativeMethod("valueAt", INT, VALUE);
+        markNativeMethod("setValueAt", new String[] {"Int64", "ValueType"}, VOID);
+        markNativeMethod("insert", new String[] {"Int64", "KeyType", "ValueType"}, VOID);
+        markNativeMethod("removeAt", INT, VOID);
+
+        markNativeMethod("contains", KEY, BOOLEAN);
+        markNativeMethod("get", KEY, null);
+        markNativeMethod("put", new String[] {"KeyType", "ValueType"}, null);
+        markNativeMethod("remove", KEY, null);
+        markNativeMethod("clear", VOID, null);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    protected ObjectHandle createStruct(Frame frame, ClassComposition clazz)
+        {
+        return new HashMapHandle(clazz.ensureAccess(Access.STRUCT), true);
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        HashTable table = ((HashMapHandle) hTarget).f_table;
+
+        switch (sPropName)
+            {
+            case "size":
+                return frame.assignValue(iReturn, xInt64.makeHandle(table.size()));
+
+            case "addCount":
+                return frame.assignValue(iReturn, xInt64.makeHandle(table.getAddCount()));
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        HashMapHandle hMap  = (HashMapHandle) hTarget;
+        HashTable     table = hMap.f_table;
+
+        switch (method.getName())
+            {
+            case "contains": // Boolean contains(KeyType key)
+                {
+                if (isNativeKey(hMap, hArg))
+                    {
+                    return frame.assignValue(iReturn, xBoolean.makeHandle(
+                        table.find(hArg, HashTable.hashOf(hArg)) >= 0));
+                    }
+                return callHashed(frame, HASHED_CONTAINS, hMap, new ObjectHandle[] {hArg}, iReturn);
+                }
+
+            case "remove": // HashMap remove(KeyType key)
+                {
+                int iResult = checkMutable(frame, hMap, true);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                if (isNativeKey(hMap, hArg))
+                    {
+                    int iSlot = table.find(hArg, HashTable.hashOf(hArg));
+                    if (iSlot >= 0)
+                        {
+                        table.removeAt(iSlot);
+                        }
+                    return frame.assignValue(iReturn, hTarget);
+                    }
+                return callHashed(frame, HASHED_REMOVE, hMap, new ObjectHandle[] {hArg}, iReturn);
+                }
+
+            case "ensureCapacity": // void ensureCapacity(Int capacity)
+                table.ensureCapacity((int) Math.min(((JavaLong) hArg).getValue(), MAX_CAPACITY));
+                return Op.R_NEXT;
+
+            case "nextSlot": // Int nextSlot(Int slot)
+                return frame.assignValue(iReturn, xInt64.makeHandle(
+                    table.nextSlot(toSlot(hArg))));
+
+            case "keyAt": // KeyType keyAt(Int slot)
+                {
+                int          iSlot = toSlot(hArg);
+                ObjectHandle hKey  = table.getKey(iSlot);
+                return hKey == null
+                    ? frame.raiseException(xException.outOfBounds(frame, "slot " + iSlot))
+                    : frame.assignValue(iReturn, hKey);
+                }
+
+            case "valueAt": // ValueType valueAt(Int slot)
+                {
+                int iSlot = toSlot(hArg);
+                return table.getKey(iSlot) == null
+                    ? frame.raiseException(xException.outOfBounds(frame, "slot " + iSlot))
+                    : frame.assignValue(iReturn, table.getValue(iSlot));
+                }
+
+            case "removeAt": // void removeAt(Int slot)
+                {
+                int iSlot   = toSlot(hArg);
+                int iResult = checkMutable(frame, hMap, true);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                if (table.getKey(iSlot) == null)
+                    {
+                    return frame.raiseException(xException.outOfBounds(frame, "slot " + iSlot));
+                    }
+                table.removeAt(iSlot);
+                return Op.R_NEXT;
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        HashMapHandle hMap  = (HashMapHandle) hTarget;
+        HashTable     table = hMap.f_table;
+
+        switch (method.getName())
+            {
+            case "put": // HashMap put(KeyType key, ValueType value)
+                {
+                ObjectHandle hKey   = ahArg[0];
+                ObjectHandle hValue = ahArg[1];
+
+                int iResult = checkMutable(frame, hMap, false);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                if (isNativeKey(hMap, hKey))
+                    {
+                    int nHash = HashTable.hashOf(hKey);
+                    int iSlot = table.find(hKey, nHash);
+                    if (iSlot >= 0)
+                        {
+                        table.setValue(iSlot, hValue);
+                        }
+                    else
+                        {
+                        // adding a key requires the map to be Mutable (not just Fixed)
+                        iResult = checkMutable(frame, hMap, true);
+                        if (iResult != Op.R_NEXT)
+                            {
+                            return iResult;
+                            }
+                        table.insert(hKey, nHash, hValue);
+                        }
+                    return frame.assignValue(iReturn, hTarget);
+                    }
+                return callHashed(frame, HASHED_PUT, hMap, ahArg, iReturn);
+                }
+
+            case "clear": // HashMap clear()
+                {
+                if (table.size() > 0)
+                    {
+                    int iResult = checkMutable(frame, hMap, true);
+                    if (iResult != Op.R_NEXT)
+                        {
+                        return iResult;
+                        }
+                    table.clear();
+                    }
+                return frame.assignValue(iReturn, hTarget);
+                }
+
+            case "nextMatch": // Int nextMatch(Int keyhash, Int slot)
+                {
+                int nHash = HashTable.hashOf(((JavaLong) ahArg[0]).getValue());
+                return frame.assignValue(iReturn, xInt64.makeHandle(
+                    table.nextMatch(nHash, toSlot(ahArg[1]))));
+                }
+
+            case "setValueAt": // void setValueAt(Int slot, ValueType value)
+                {
+                int iSlot   = toSlot(ahArg[0]);
+                int iResult = checkMutable(frame, hMap, false);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                if (table.getKey(iSlot) == null)
+                    {
+                    return frame.raiseException(xException.outOfBounds(frame, "slot " + iSlot));
+                    }
+                table.setValue(iSlot, ahArg[1]);
+                return Op.R_NEXT;
+                }
+
+            case "insert": // void insert(Int keyhash, KeyType key, ValueType value)
+                {
+                int iResult = checkMutable(frame, hMap, true);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                int nHash = HashTable.hashOf(((JavaLong) ahArg[0]).getValue());
+                table.insert(ahArg[1], nHash, ahArg[2]);
+                return Op.R_NEXT;
+                }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                              ObjectHandle[] ahArg, int[] aiReturn)
+        {
+        HashMapHandle hMap = (HashMapHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "get": // conditional ValueType get(KeyType key)
+                {
+                ObjectHandle hKey = ahArg[0];
+                if (isNativeKey(hMap, hKey))
+                    {
+                    HashTable table = hMap.f_table;
+                    int       iSlot = table.find(hKey, HashTable.hashOf(hKey));
+                    return iSlot < 0
+                        ? frame.assignValues(aiReturn, xBoolean.FALSE, null)
+                        : frame.assignValues(aiReturn, xBoolean.TRUE, table.getValue(iSlot));
+                    }
+
+                ObjectHandle[] ahVar = new ObjectHandle[HASHED_GET.getMaxVars()];
+                ahVar[0] = hKey;
+                return frame.callN(HASHED_GET, hMap.ensureAccess(Access.PRIVATE), ahVar, aiReturn);
+                }
+            }
+
+        return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Check whether the specified key can be handled without calling the Ecstasy hasher.
+     *
+     * @param hMap  the map handle
+     * @param hKey  the key
+     *
+     * @return true iff the map uses the NaturalHasher and the key is a native one
+     */
+    protected static boolean isNativeKey(GenericHandle hMap, ObjectHandle hKey)
+        {
+        return HashTable.isNativeKey(hKey) &&
+               hMap.getField("hasher").getTemplate().f_struct == NATURAL_HASHER;
+        }
+
+    /**
+     * Verify that the map allows the modification.
+     *
+     * @param frame     the current frame
+     * @param hMap      the map handle
+     * @param fResize   true if the modification adds or removes entries, which requires the
+     *                  mutability to be Mutable; otherwise the Fixed mutability is also allowed
+     *
+     * @return {@link Op#R_NEXT} if the modification is allowed, {@link Op#R_EXCEPTION} otherwise
+     */
+    protected static int checkMutable(Frame frame, GenericHandle hMap, boolean fResize)
+        {
+        if (!hMap.isMutable())
+            {
+            return frame.raiseException(xException.immutableObject(frame));
+            }
+
+        // Mutable=0, Fixed=1, Persistent=2, Constant=3
+        int nMutability = ((EnumHandle) hMap.getField("mutability")).getValue();
+        return nMutability == 0 || nMutability == 1 && !fResize
+            ? Op.R_NEXT
+            : frame.raiseException(xException.readOnly(frame));
+        }
+
+    /**
+     * Call the specified Ecstasy implementation of a map operation.
+     */
+    protected static int callHashed(Frame frame, MethodStructure method, GenericHandle hMap,
+                                    ObjectHandle[] ahArg, int iReturn)
+        {
+        ObjectHandle[] ahVar = new ObjectHandle[method.getMaxVars()];
+        System.arraycopy(ahArg, 0, ahVar, 0, ahArg.length);
+        return frame.call1(method, hMap.ensureAccess(Access.PRIVATE), ahVar, iReturn);
+        }
+
+    /**
+     * @return the slot index for the specified Int handle (-1 for any negative value)
+     */
+    protected static int toSlot(ObjectHandle hSlot)
+        {
+        long lSlot = ((JavaLong) hSlot).getValue();
+        return lSlot < 0 ? -1 : (int) Math.min(lSlot, Integer.MAX_VALUE);
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The HashMap (and HashSet) handle. All the access views of a map share the same hash table.
+     */
+    public static class HashMapHandle
+            extends GenericHandle
+        {
+        protected HashMapHandle(TypeComposition clazz, boolean fValues)
+            {
+            super(clazz);
+
+            f_table = new HashTable(fValues);
+            }
+
+        public HashTable getTable()
+            {
+            return f_table;
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + "size=" + f_table.size();
+            }
+
+        protected final HashTable f_table;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The largest supported table capacity.
+     */
+    static final int MAX_CAPACITY = 1 << 28;
+
+    private static final String[] KEY   = new String[] {"KeyType"};
+    private static final String[] VALUE = new String[] {"ValueType"};
+
+    private static ClassStructure NATURAL_HASHER;
+
+    private static MethodStructure HASHED_CONTAINS;
+    private static MethodStructure HASHED_GET;
+    private static MethodStructure HASHED_PUT;
+    private static MethodStructure HASHED_REMOVE;
+    }
@@ -0,0 +1,245 @@
+package org.xvm.runtime.template.collections;
+
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Constants.Access;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xInt64;
+
+import org.xvm.runtime.template.collections.xHashMap.HashMapHandle;
+
+
+/**
+ * Native HashSet implementation. The elements are stored the same way as the keys of the
+ * {@link xHashMap native HashMap}.
+ */
+public class xHashSet
+        extends ClassTemplate
+    {
+    public static xHashSet INSTANCE;
+
+    public xHashSet(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        HASHED_CONTAINS = f_struct.findMethod("hashedContains", 1);
+        HASHED_ADD      = f_struct.findMethod("hashedAdd", 1);
+        HASHED_REMOVE   = f_struct.findMethod("hashedRemove", 1);
+
+        markNativeProperty("size");
+        markNativeProperty("addCount");
+
+        markNativeMethod("ensureCapacity", INT, VOID);
+        markNativeMethod("nextMatch", new String[] {"Int64", "Int64"}, INT);
+        markNativeMethod("nextSlot", INT, INT);
+        markNativeMethod("elementAt", INT, ELEMENT);
+        markNativeMethod("insert", new String[] {"Int64", "ElementType"}, VOID);
+        markNativeMethod("removeAt", INT, VOID);
+
+        markNativeMethod("contains", ELEMENT, BOOLEAN);
+        markNativeMethod("add", ELEMENT, null);
+        markNativeMethod("remove", ELEMENT, null);
+        markNativeMethod("clear", VOID, null);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    protected ObjectHandle createStruct(Frame frame, ClassComposition clazz)
+        {
+        return new HashMapHandle(clazz.ensureAccess(Access.STRUCT), false);
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        HashTable table = ((HashMapHandle) hTarget).f_table;
+
+        switch (sPropName)
+            {
+            case "size":
+                return frame.assignValue(iReturn, xInt64.makeHandle(table.size()));
+
+            case "addCount":
+                return frame.assignValue(iReturn, xInt64.makeHandle(table.getAddCount()));
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        HashMapHandle hSet  = (HashMapHandle) hTarget;
+        HashTable     table = hSet.f_table;
+
+        switch (method.getName())
+            {
+            case "contains": // Boolean contains(ElementType value)
+                {
+                if (xHashMap.isNativeKey(hSet, hArg))
+                    {
+                    return frame.assignValue(iReturn, xBoolean.makeHandle(
+                        table.find(hArg, HashTable.hashOf(hArg)) >= 0));
+                    }
+                return xHashMap.callHashed(frame, HASHED_CONTAINS, hSet,
+                        new ObjectHandle[] {hArg}, iReturn);
+                }
+
+            case "add": // HashSet add(ElementType value)
+                {
+                if (xHashMap.isNativeKey(hSet, hArg))
+                    {
+                    int nHash = HashTable.hashOf(hArg);
+                    if (table.find(hArg, nHash) < 0)
+                        {
+                        int iResult = xHashMap.checkMutable(frame, hSet, true);
+                        if (iResult != Op.R_NEXT)
+                            {
+                            return iResult;
+                            }
+                        table.insert(hArg, nHash, null);
+                        }
+                    return frame.assignValue(iReturn, hTarget);
+                    }
+                return xHashMap.callHashed(frame, HASHED_ADD, hSet,
+                        new ObjectHandle[] {hArg}, iReturn);
+                }
+
+            case "remove": // HashSet remove(ElementType value)
+                {
+                int iResult = xHashMap.checkMutable(frame, hSet, true);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                if (xHashMap.isNativeKey(hSet, hArg))
+                    {
+                    int iSlot = table.find(hArg, HashTable.hashOf(hArg));
+                    if (iSlot >= 0)
+                        {
+                        table.removeAt(iSlot);
+                        }
+                    return frame.assignValue(iReturn, hTarget);
+                    }
+                return xHashMap.callHashed(frame, HASHED_REMOVE, hSet,
+                        new ObjectHandle[] {hArg}, iReturn);
+                }
+
+            case "ensureCapacity": // void ensureCapacity(Int capacity)
+                table.ensureCapacity((int) Math.min(((JavaLong) hArg).getValue(),
+                        xHashMap.MAX_CAPACITY));
+                return Op.R_NEXT;
+
+            case "nextSlot": // Int nextSlot(Int slot)
+                return frame.assignValue(iReturn, xInt64.makeHandle(
+                    table.nextSlot(xHashMap.toSlot(hArg))));
+
+            case "elementAt": // ElementType elementAt(Int slot)
+                {
+                int          iSlot  = xHashMap.toSlot(hArg);
+                ObjectHandle hValue = table.getKey(iSlot);
+                return hValue == null
+                    ? frame.raiseException(xException.outOfBounds(frame, "slot " + iSlot))
+                    : frame.assignValue(iReturn, hValue);
+                }
+
+            case "removeAt": // void removeAt(Int slot)
+                {
+                int iSlot   = xHashMap.toSlot(hArg);
+                int iResult = xHashMap.checkMutable(frame, hSet, true);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                if (table.getKey(iSlot) == null)
+                    {
+                    return frame.raiseException(xException.outOfBounds(frame, "slot " + iSlot));
+                    }
+                table.removeAt(iSlot);
+                return Op.R_NEXT;
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        HashMapHandle hSet  = (HashMapHandle) hTarget;
+        HashTable     table = hSet.f_table;
+
+        switch (method.getName())
+            {
+            case "clear": // HashSet clear()
+                {
+                if (table.size() > 0)
+                    {
+                    int iResult = xHashMap.checkMutable(frame, hSet, true);
+                    if (iResult != Op.R_NEXT)
+                        {
+                        return iResult;
+                        }
+                    table.clear();
+                    }
+                return frame.assignValue(iReturn, hTarget);
+                }
+
+            case "nextMatch": // Int nextMatch(Int hash, Int slot)
+                {
+                int nHash = HashTable.hashOf(((JavaLong) ahArg[0]).getValue());
+                return frame.assignValue(iReturn, xInt64.makeHandle(
+                    table.nextMatch(nHash, xHashMap.toSlot(ahArg[1]))));
+                }
+
+            case "insert": // void insert(Int hash, ElementType value)
+                {
+                int iResult = xHashMap.checkMutable(frame, hSet, true);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                int nHash = HashTable.hashOf(((JavaLong) ahArg[0]).getValue());
+                table.insert(ahArg[1], nHash, null);
+                return Op.R_NEXT;
+                }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    private static final String[] ELEMENT = new String[] {"ElementType"};
+
+    private static MethodStructure HASHED_CONTAINS;
+    private static MethodStructure HASHED_ADD;
+    private static MethodStructure HASHED_REMOVE;
+    }
@@ -19,6 +19,7 @@ import org.xvm.runtime.TemplateRegistry;
 
 import org.xvm.runtime.template.xBoolean;
 import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xFunction.FunctionHandle;
 import org.xvm.runtime.template.xInt64;
 import org.xvm.runtime.template.xString;
 
@@ -68,10 +69,34 @@ public class xIntArray
     @Override
     protected ArrayHandle createCopy(ArrayHandle hArray, Mutability mutability)
         {
-        IntArrayHandle hSrc = (IntArrayHandle) hArray;
+        IntArrayHandle hSrc  = (IntArrayHandle) hArray;
+        int            ofSrc = hSrc.m_ofStart;
 
         return new IntArrayHandle(hSrc.getComposition(),
-            Arrays.copyOfRange(hSrc.m_alValue, 0, hSrc.m_cSize), mutability);
+            Arrays.copyOfRange(hSrc.m_alValue, ofSrc, ofSrc + hSrc.m_cSize), mutability);
+        }
+
+    @Override
+    protected ArrayHandle createSlice(ArrayHandle hArray, int ofStart, int cSize)
+        {
+        IntArrayHandle hSrc = (IntArrayHandle) hArray;
+
+        IntArrayHandle hSlice = new IntArrayHandle(hSrc.getComposition(), hSrc.m_alValue, Mutability.Mutable);
+        hSlice.m_ofStart = hSrc.m_ofStart + ofStart;
+        hSlice.m_cSize   = cSize;
+        return hSlice;
+        }
+
+    @Override
+    protected void reverse(ArrayHandle hArray)
+        {
+        long[] alValue = ((IntArrayHandle) hArray).m_alValue;
+        for (int i = 0, j = hArray.m_cSize - 1; i < j; i++, j--)
+            {
+            long l = alValue[i];
+            alValue[i] = alValue[j];
+            alValue[j] = l;
+            }
         }
 
     @Override
@@ -83,6 +108,70 @@ public class xIntArray
         ha.m_cSize = cSize;
         }
 
+    @Override
+    protected void fill(Frame frame, ArrayHandle hArray, int ixFrom, int ixTo, ObjectHandle hValue)
+        {
+        int of = hArray.m_ofStart;
+        Arrays.fill(((IntArrayHandle) hArray).m_alValue, of + ixFrom, of + ixTo, ((JavaLong) hValue).getValue());
+        }
+
+    @Override
+    protected void copyInto(Frame frame, ArrayHandle hSrc, int ixSrc,
+                            ArrayHandle hDst, int ixDst, int cCopy)
+        {
+        if (hDst instanceof IntArrayHandle)
+            {
+            hDst.ensureExclusive();
+            System.arraycopy(((IntArrayHandle) hSrc).m_alValue, hSrc.m_ofStart + ixSrc,
+                             ((IntArrayHandle) hDst).m_alValue, hDst.m_ofStart + ixDst, cCopy);
+            }
+        else
+            {
+            super.copyInto(frame, hSrc, ixSrc, hDst, ixDst, cCopy);
+            }
+        }
+
+    @Override
+    protected int indexOf(Frame frame, ArrayHandle hArray, ObjectHandle hValue, int ixFrom,
+                          int iReturn)
+        {
+        long[] alValue = ((IntArrayHandle) hArray).m_alValue;
+        long   lValue = ((JavaLong) hValue).getValue();
+        int    of     = hArray.m_ofStart;
+
+        for (int i = ixFrom, c = hArray.m_cSize; i < c; i++)
+            {
+            if (alValue[of + i] == lValue)
+                {
+                return frame.assignValue(iReturn, xInt64.makeHandle(i));
+                }
+            }
+        return frame.assignValue(iReturn, xInt64.makeHandle(-1));
+        }
+
+    @Override
+    protected int binarySearch(Frame frame, ArrayHandle hArray, ObjectHandle hValue,
+                               FunctionHandle hCompare, int iReturn)
+        {
+        if (hCompare != null)
+            {
+            return super.binarySearch(frame, hArray, hValue, hCompare, iReturn);
+            }
+
+        int of = hArray.m_ofStart;
+        int ix = Arrays.binarySearch(((IntArrayHandle) hArray).m_alValue, of, of + hArray.m_cSize,
+                    ((JavaLong) hValue).getValue());
+        return frame.assignValue(iReturn, xInt64.makeHandle(ix >= 0 ? ix - of : ix + of));
+        }
+
+    @Override
+    protected boolean sortNatural(ArrayHandle hArray)
+        {
+        int of = hArray.m_ofStart;
+        Arrays.sort(((IntArrayHandle) hArray).m_alValue, of, of + hArray.m_cSize);
+        return true;
+        }
+
     @Override
     public ArrayHandle createArrayHandle(ClassComposition clzArray, int cCapacity, Mutability mutability)
         {
@@ -98,7 +187,8 @@ public class xIntArray
             {
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
-        return frame.assignValue(iReturn, xInt64.makeHandle(hArray.m_alValue[(int) lIndex]));
+        return frame.assignValue(iReturn,
+                xInt64.makeHandle(hArray.m_alValue[hArray.m_ofStart + (int) lIndex]));
         }
 
     @Override
@@ -122,17 +212,19 @@ public class xIntArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         long[] alValue = hArray.m_alValue;
         if (lIndex == cSize)
             {
-            if (hArray.m_mutability == Mutability.FixedSize)
-                {
-                return frame.raiseException(xException.readOnly(frame));
-                }
-
             // an array can only grow without any "holes"
             if (cSize == alValue.length)
                 {
+                if (hArray.m_mutability == Mutability.FixedSize)
+                    {
+                    return frame.raiseException(xException.readOnly(frame));
+                    }
+
                 alValue = hArray.m_alValue = grow(alValue, cSize + 1);
                 }
 
@@ -152,6 +244,17 @@ public class xIntArray
             return frame.raiseException(xException.outOfBounds(frame, lIndex, hArray.m_cSize));
             }
 
+        switch (hArray.m_mutability)
+            {
+            case Constant:
+                return frame.raiseException(xException.immutableObject(frame));
+
+            case Persistent:
+                return frame.raiseException(xException.unsupportedOperation(frame));
+            }
+
+        hArray.ensureExclusive();
+
         return frame.assignValue(iReturn,
                 xInt64.makeHandle(++hArray.m_alValue[(int) lIndex]));
         }
@@ -163,8 +266,7 @@ public class xIntArray
         IntArrayHandle h1 = (IntArrayHandle) hValue1;
         IntArrayHandle h2 = (IntArrayHandle) hValue2;
 
-        return frame.assignValue(iReturn,
-                xBoolean.makeHandle(Arrays.equals(h1.m_alValue, h2.m_alValue)));
+        return frame.assignValue(iReturn, xBoolean.makeHandle(h1.equals(h2)));
         }
 
     @Override
@@ -178,7 +280,7 @@ public class xIntArray
             return false;
             }
 
-        return Arrays.equals(hArray1.m_alValue, hArray2.m_alValue);
+        return hArray1.equals(hArray2);
         }
 
     @Override
@@ -200,6 +302,8 @@ public class xIntArray
                 return frame.raiseException(xException.unsupportedOperation(frame));
             }
 
+        hArray.ensureExclusive();
+
         long[] alValue = hArray.m_alValue;
         if (ixNext == alValue.length)
             {
@@ -234,6 +338,11 @@ public class xIntArray
         int cAdd = hArrayAdd.m_cSize;
         if (cAdd > 0)
             {
+            long[] alAdd = hArrayAdd.m_alValue;
+            int    ofAdd = hArrayAdd.m_ofStart;
+
+            hArray.ensureExclusive();
+
             long[] alThis = hArray.m_alValue;
             int    cThis  = hArray.m_cSize;
             int    cNew   = cThis + cAdd;
@@ -242,33 +351,11 @@ public class xIntArray
                 alThis = hArray.m_alValue = grow(alThis, cNew);
                 }
             hArray.m_cSize = cNew;
-            System.arraycopy(hArrayAdd.m_alValue, 0, alThis, cThis, cAdd);
+            System.arraycopy(alAdd, ofAdd, alThis, cThis, cAdd);
             }
         return frame.assignValue(iReturn, hArray);
         }
 
-    @Override
-    protected int slice(Frame frame, ObjectHandle hTarget, long ixFrom, long ixTo, int iReturn)
-        {
-        IntArrayHandle hArray = (IntArrayHandle) hTarget;
-
-        long[] alValue = hArray.m_alValue;
-        try
-            {
-            long[]          alNew     = Arrays.copyOfRange(alValue, (int) ixFrom, (int) ixTo + 1);
-            IntArrayHandle  hArrayNew = new IntArrayHandle(hTarget.getComposition(), alNew, Mutability.Mutable);
-
-            return frame.assignValue(iReturn, hArrayNew);
-            }
-        catch (ArrayIndexOutOfBoundsException e)
-            {
-            long c = alValue.length;
-            return frame.raiseException(
-                xException.outOfBounds(frame, ixFrom < 0 || ixFrom >= c ? ixFrom : ixTo, c));
-            }
-        }
-
-
     // ----- helper methods -----
 
     private long[] grow(long[] alValue, int cSize)
@@ -303,7 +390,15 @@ public class xIntArray
         @Override
         public int getCapacity()
             {
-            return m_alValue.length;
+            return m_alValue.length - m_ofStart;
+            }
+
+        @Override
+        protected void copyStorage()
+            {
+            long[] alNew = new long[getExclusiveCapacity(m_alValue.length)];
+            System.arraycopy(m_alValue, m_ofStart, alNew, 0, m_cSize);
+            m_alValue = alNew;
             }
 
         @Override
@@ -315,10 +410,14 @@ public class xIntArray
         @Override
         public int compareTo(ObjectHandle that)
             {
+            IntArrayHandle hThat = (IntArrayHandle) that;
+
             long[] alThis = m_alValue;
+            int    ofThis = m_ofStart;
             int    cThis  = m_cSize;
-            long[] alThat = ((IntArrayHandle) that).m_alValue;
-            int    cThat  = ((IntArrayHandle) that).m_cSize;
+            long[] alThat = hThat.m_alValue;
+            int    ofThat = hThat.m_ofStart;
+            int    cThat  = hThat.m_cSize;
 
             if (cThis != cThat)
                 {
@@ -327,7 +426,7 @@ public class xIntArray
 
             for (int i = 0; i < cThis; i++)
                 {
-                long lDiff = alThis[i] - alThat[i];
+                long lDiff = alThis[ofThis + i] - alThat[ofThat + i];
                 if (lDiff != 0)
                     {
                     return lDiff < 0 ? -1 : 1;
@@ -339,14 +438,28 @@ public class xIntArray
         @Override
         public int hashCode()
             {
-            return Arrays.hashCode(m_alValue);
+            long[] alValue = m_alValue;
+            int    nHash   = 1;
+            for (int i = m_ofStart, iEnd = i + m_cSize; i < iEnd; i++)
+                {
+                nHash = 31 * nHash + Long.hashCode(alValue[i]);
+                }
+            return nHash;
             }
 
         @Override
         public boolean equals(Object obj)
             {
             return obj instanceof IntArrayHandle
-                && Arrays.equals(m_alValue, ((IntArrayHandle) obj).m_alValue);
+                && compareTo((IntArrayHandle) obj) == 0;
             }
         }
+
+    /**
+     * @return an Int array handle for the specified values
+     */
+    public static IntArrayHandle makeHandle(long[] al, Mutability mutability)
+        {
+        return new IntArrayHandle(INSTANCE.getCanonicalClass(), al, mutability);
+        }
     }
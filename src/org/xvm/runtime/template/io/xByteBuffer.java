@@ -0,0 +1,721 @@
+package org.xvm.runtime.template.io;
+
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ArrayHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.IndexSupport;
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xBoolean.BooleanHandle;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xInt16;
+import org.xvm.runtime.template.xInt32;
+import org.xvm.runtime.template.xInt64;
+import org.xvm.runtime.template.xUInt8;
+
+import org.xvm.runtime.template.collections.PrimitiveArray.PrimitiveArrayHandle;
+import org.xvm.runtime.template.collections.xArray;
+import org.xvm.runtime.template.collections.xArray.Mutability;
+import org.xvm.runtime.template.collections.xByteArray;
+import org.xvm.runtime.template.collections.xByteArray.ByteArrayHandle;
+import org.xvm.runtime.template.collections.xIntArray.IntArrayHandle;
+
+
+/**
+ * Native ByteBuffer implementation.
+ *
+ * The bytes are held by a java.nio.ByteBuffer (either a heap or a direct one), which the native
+ * channels read into and write from without any intermediate copying. The buffer's position and
+ * limit are the ones of the underlying ByteBuffer; the mark is kept by the handle, since the
+ * ByteBuffer doesn't expose its own.
+ *
+ * The conversions between the buffers and the immutable Byte arrays share the storage: a buffer
+ * constructed for an immutable array is a read-only view of the array's bytes, and the array
+ * produced by "toArray()" of a heap buffer is a view of the buffer's storage, which the buffer
+ * stops sharing (by making its own copy) the first time it's written to.
+ */
+public class xByteBuffer
+        extends ClassTemplate
+        implements IndexSupport
+    {
+    public static xByteBuffer INSTANCE;
+
+    public xByteBuffer(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        markNativeProperty("readOnly");
+        markNativeProperty("capacity");
+        markNativeProperty("limit");
+        markNativeProperty("position");
+        markNativeProperty("mark");
+        markNativeProperty("littleEndian");
+
+        markNativeMethod("construct", new String[] {"Int64", "Boolean"}, VOID);
+        markNativeMethod("construct", new String[] {"collections.Array<UInt8>"}, VOID);
+        markNativeMethod("get", VOID, null);
+        markNativeMethod("getElement", INT, null);
+        markNativeMethod("put", new String[] {"UInt8"}, VOID);
+        markNativeMethod("put", new String[] {"Int64", "UInt8"}, VOID);
+        markNativeMethod("clear", VOID, null);
+        markNativeMethod("rewind", VOID, null);
+        markNativeMethod("flip", VOID, null);
+        markNativeMethod("toArray", VOID, null);
+        markNativeMethod("getBytes", INT, null);
+        markNativeMethod("putBytes", null, VOID);
+        markNativeMethod("getInt16", VOID, null);
+        markNativeMethod("getInt32", VOID, null);
+        markNativeMethod("getInt64", VOID, null);
+        markNativeMethod("putInt16", null, VOID);
+        markNativeMethod("putInt32", null, VOID);
+        markNativeMethod("putInt64", null, VOID);
+        markNativeMethod("getInt16Array", INT, null);
+        markNativeMethod("getInt32Array", INT, null);
+        markNativeMethod("getInt64Array", INT, null);
+        markNativeMethod("putInt16Array", null, VOID);
+        markNativeMethod("putInt32Array", null, VOID);
+        markNativeMethod("putInt64Array", null, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int construct(Frame frame, MethodStructure constructor, ClassComposition clazz,
+                         ObjectHandle hParent, ObjectHandle[] ahVar, int iReturn)
+        {
+        if (ahVar[0] instanceof ByteArrayHandle)
+            {
+            // construct(Byte[] bytes)
+            ByteArrayHandle  hBytes  = (ByteArrayHandle) ahVar[0];
+            byte[]           abValue = hBytes.m_abValue;
+            int              ofStart = hBytes.m_ofStart;
+            int              cSize   = hBytes.m_cSize;
+            ByteBufferHandle hBuffer;
+
+            if (hBytes.isMutable())
+                {
+                ByteBuffer buffer = ByteBuffer.allocate(cSize);
+                buffer.put(abValue, ofStart, cSize).flip();
+                hBuffer = new ByteBufferHandle(clazz, buffer);
+                }
+            else
+                {
+                ByteBuffer buffer = ByteBuffer.wrap(abValue, ofStart, cSize).slice();
+                hBuffer = new ByteBufferHandle(clazz, buffer.asReadOnlyBuffer());
+                hBuffer.m_abShared = abValue;
+                hBuffer.m_ofShared = ofStart;
+                }
+            return frame.assignValue(iReturn, hBuffer);
+            }
+
+        // construct(Int capacity, Boolean direct = False)
+        long    cCapacity = ((JavaLong) ahVar[0]).getValue();
+        boolean fDirect   = ahVar[1] instanceof BooleanHandle && ((BooleanHandle) ahVar[1]).get();
+
+        if (cCapacity < 0 || cCapacity > Integer.MAX_VALUE)
+            {
+            return frame.raiseException(
+                xException.illegalArgument(frame, "Invalid capacity: " + cCapacity));
+            }
+
+        ByteBuffer buffer = fDirect
+                ? ByteBuffer.allocateDirect((int) cCapacity)
+                : ByteBuffer.allocate((int) cCapacity);
+
+        return frame.assignValue(iReturn, new ByteBufferHandle(clazz, buffer));
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        ByteBufferHandle hBuffer = (ByteBufferHandle) hTarget;
+        ByteBuffer       buffer  = hBuffer.m_buffer;
+
+        switch (sPropName)
+            {
+            case "readOnly":
+                return frame.assignValue(iReturn, xBoolean.makeHandle(buffer.isReadOnly()));
+
+            case "capacity":
+                return frame.assignValue(iReturn, xInt64.makeHandle(buffer.capacity()));
+
+            case "limit":
+                return frame.assignValue(iReturn, xInt64.makeHandle(buffer.limit()));
+
+            case "position":
+                return frame.assignValue(iReturn, xInt64.makeHandle(buffer.position()));
+
+            case "mark":
+                return frame.assignValue(iReturn, xInt64.makeHandle(hBuffer.m_iMark));
+
+            case "littleEndian":
+                return frame.assignValue(iReturn,
+                        xBoolean.makeHandle(buffer.order() == ByteOrder.LITTLE_ENDIAN));
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNativeSet(Frame frame, ObjectHandle hTarget, String sPropName, ObjectHandle hValue)
+        {
+        ByteBufferHandle hBuffer = (ByteBufferHandle) hTarget;
+        ByteBuffer       buffer  = hBuffer.m_buffer;
+
+        if (sPropName.equals("littleEndian"))
+            {
+            buffer.order(((BooleanHandle) hValue).get() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            return Op.R_NEXT;
+            }
+
+        long lValue = ((JavaLong) hValue).getValue();
+        switch (sPropName)
+            {
+            case "limit":
+                if (lValue < 0 || lValue > buffer.capacity())
+                    {
+                    return frame.raiseException(
+                        xException.outOfBounds(frame, "Invalid limit: " + lValue));
+                    }
+                buffer.limit((int) lValue);
+                if (hBuffer.m_iMark > lValue)
+                    {
+                    hBuffer.m_iMark = -1;
+                    }
+                return Op.R_NEXT;
+
+            case "position":
+                if (lValue < 0 || lValue > buffer.limit())
+                    {
+                    return frame.raiseException(
+                        xException.outOfBounds(frame, "Invalid position: " + lValue));
+                    }
+                buffer.position((int) lValue);
+                if (hBuffer.m_iMark > lValue)
+                    {
+                    hBuffer.m_iMark = -1;
+                    }
+                return Op.R_NEXT;
+
+            case "mark":
+                if (lValue < -1 || lValue > buffer.limit())
+                    {
+                    return frame.raiseException(
+                        xException.outOfBounds(frame, "Invalid mark: " + lValue));
+                    }
+                hBuffer.m_iMark = (int) lValue;
+                return Op.R_NEXT;
+            }
+
+        return super.invokeNativeSet(frame, hTarget, sPropName, hValue);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        ByteBufferHandle hBuffer = (ByteBufferHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "getElement": // Byte getElement(Int ix)
+                return extractArrayValue(frame, hBuffer, ((JavaLong) hArg).getValue(), iReturn);
+
+            case "put": // void put(Byte el)
+                {
+                int iResult = checkWrite(frame, hBuffer, 1);
+                if (iResult == Op.R_NEXT)
+                    {
+                    hBuffer.m_buffer.put((byte) ((JavaLong) hArg).getValue());
+                    }
+                return iResult;
+                }
+
+            case "putInt16": // void putInt16(Int16 value)
+                {
+                int iResult = checkWrite(frame, hBuffer, 2);
+                if (iResult == Op.R_NEXT)
+                    {
+                    hBuffer.m_buffer.putShort((short) ((JavaLong) hArg).getValue());
+                    }
+                return iResult;
+                }
+
+            case "putInt32": // void putInt32(Int32 value)
+                {
+                int iResult = checkWrite(frame, hBuffer, 4);
+                if (iResult == Op.R_NEXT)
+                    {
+                    hBuffer.m_buffer.putInt((int) ((JavaLong) hArg).getValue());
+                    }
+                return iResult;
+                }
+
+            case "putInt64": // void putInt64(Int64 value)
+                {
+                int iResult = checkWrite(frame, hBuffer, 8);
+                if (iResult == Op.R_NEXT)
+                    {
+                    hBuffer.m_buffer.putLong(((JavaLong) hArg).getValue());
+                    }
+                return iResult;
+                }
+
+            case "getBytes": // Byte[] getBytes(Int count)
+                {
+                long cValues = ((JavaLong) hArg).getValue();
+                int  iResult = checkRead(frame, hBuffer, cValues, 1);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                byte[] ab = new byte[(int) cValues];
+                hBuffer.m_buffer.get(ab);
+                return frame.assignValue(iReturn, xByteArray.makeHandle(ab, Mutability.Mutable));
+                }
+
+            case "getInt16Array": // Int16[] getInt16Array(Int count)
+                {
+                long cValues = ((JavaLong) hArg).getValue();
+                int  iResult = checkRead(frame, hBuffer, cValues, 2);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                int                  c      = (int) cValues;
+                ByteBuffer           buffer = hBuffer.m_buffer;
+                PrimitiveArrayHandle hArray = (PrimitiveArrayHandle)
+                        makeArrayHandle(xInt16.INSTANCE.getCanonicalType(), c);
+
+                buffer.asShortBuffer().get((short[]) hArray.m_oStorage, 0, c);
+                buffer.position(buffer.position() + 2 * c);
+                return frame.assignValue(iReturn, hArray);
+                }
+
+            case "getInt32Array": // Int32[] getInt32Array(Int count)
+                {
+                long cValues = ((JavaLong) hArg).getValue();
+                int  iResult = checkRead(frame, hBuffer, cValues, 4);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                int                  c      = (int) cValues;
+                ByteBuffer           buffer = hBuffer.m_buffer;
+                PrimitiveArrayHandle hArray = (PrimitiveArrayHandle)
+                        makeArrayHandle(xInt32.INSTANCE.getCanonicalType(), c);
+
+                buffer.asIntBuffer().get((int[]) hArray.m_oStorage, 0, c);
+                buffer.position(buffer.position() + 4 * c);
+                return frame.assignValue(iReturn, hArray);
+                }
+
+            case "getInt64Array": // Int64[] getInt64Array(Int count)
+                {
+                long cValues = ((JavaLong) hArg).getValue();
+                int  iResult = checkRead(frame, hBuffer, cValues, 8);
+                if (iResult != Op.R_NEXT)
+                    {
+                    return iResult;
+                    }
+
+                int            c      = (int) cValues;
+                ByteBuffer     buffer = hBuffer.m_buffer;
+                IntArrayHandle hArray = (IntArrayHandle) makeArrayHandle(pool().typeInt(), c);
+
+                buffer.asLongBuffer().get(hArray.m_alValue, 0, c);
+                buffer.position(buffer.position() + 8 * c);
+                return frame.assignValue(iReturn, hArray);
+                }
+
+            case "putBytes": // void putBytes(Byte[] bytes)
+                {
+                ByteArrayHandle hArray  = (ByteArrayHandle) hArg;
+                int             c       = hArray.m_cSize;
+                int             iResult = checkWrite(frame, hBuffer, c);
+                if (iResult == Op.R_NEXT)
+                    {
+                    hBuffer.m_buffer.put(hArray.m_abValue, hArray.m_ofStart, c);
+                    }
+                return iResult;
+                }
+
+            case "putInt16Array": // void putInt16Array(Int16[] values)
+                {
+                PrimitiveArrayHandle hArray  = (PrimitiveArrayHandle) hArg;
+                int                  c       = hArray.m_cSize;
+                int                  iResult = checkWrite(frame, hBuffer, 2L * c);
+                if (iResult == Op.R_NEXT)
+                    {
+                    ByteBuffer buffer = hBuffer.m_buffer;
+                    buffer.asShortBuffer().put((short[]) hArray.m_oStorage, hArray.m_ofStart, c);
+                    buffer.position(buffer.position() + 2 * c);
+                    }
+                return iResult;
+                }
+
+            case "putInt32Array": // void putInt32Array(Int32[] values)
+                {
+                PrimitiveArrayHandle hArray  = (PrimitiveArrayHandle) hArg;
+                int                  c       = hArray.m_cSize;
+                int                  iResult = checkWrite(frame, hBuffer, 4L * c);
+                if (iResult == Op.R_NEXT)
+                    {
+                    ByteBuffer buffer = hBuffer.m_buffer;
+                    buffer.asIntBuffer().put((int[]) hArray.m_oStorage, hArray.m_ofStart, c);
+                    buffer.position(buffer.position() + 4 * c);
+                    }
+                return iResult;
+                }
+
+            case "putInt64Array": // void putInt64Array(Int64[] values)
+                {
+                IntArrayHandle hArray  = (IntArrayHandle) hArg;
+                int            c       = hArray.m_cSize;
+                int            iResult = checkWrite(frame, hBuffer, 8L * c);
+                if (iResult == Op.R_NEXT)
+                    {
+                    ByteBuffer buffer = hBuffer.m_buffer;
+                    buffer.asLongBuffer().put(hArray.m_alValue, hArray.m_ofStart, c);
+                    buffer.position(buffer.position() + 8 * c);
+                    }
+                return iResult;
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        ByteBufferHandle hBuffer = (ByteBufferHandle) hTarget;
+        ByteBuffer       buffer  = hBuffer.m_buffer;
+
+        switch (method.getName())
+            {
+            case "get": // Byte get()
+                {
+                int iResult = checkRead(frame, hBuffer, 1, 1);
+                return iResult == Op.R_NEXT
+                        ? frame.assignValue(iReturn, makeByte(buffer.get()))
+                        : iResult;
+                }
+
+            case "getInt16": // Int16 getInt16()
+                {
+                int iResult = checkRead(frame, hBuffer, 1, 2);
+                return iResult == Op.R_NEXT
+                        ? frame.assignValue(iReturn, xInt16.INSTANCE.makeJavaLong(buffer.getShort()))
+                        : iResult;
+                }
+
+            case "getInt32": // Int32 getInt32()
+                {
+                int iResult = checkRead(frame, hBuffer, 1, 4);
+                return iResult == Op.R_NEXT
+                        ? frame.assignValue(iReturn, xInt32.INSTANCE.makeJavaLong(buffer.getInt()))
+                        : iResult;
+                }
+
+            case "getInt64": // Int64 getInt64()
+                {
+                int iResult = checkRead(frame, hBuffer, 1, 8);
+                return iResult == Op.R_NEXT
+                        ? frame.assignValue(iReturn, xInt64.makeHandle(buffer.getLong()))
+                        : iResult;
+                }
+
+            case "put": // void put(Int ix, Byte el)
+                return assignArrayValue(frame, hBuffer, ((JavaLong) ahArg[0]).getValue(), ahArg[1]);
+
+            case "clear":
+                buffer.clear();
+                hBuffer.m_iMark = -1;
+                return frame.assignValue(iReturn, hBuffer);
+
+            case "rewind":
+                buffer.rewind();
+                hBuffer.m_iMark = -1;
+                return frame.assignValue(iReturn, hBuffer);
+
+            case "flip":
+                buffer.flip();
+                hBuffer.m_iMark = -1;
+                return frame.assignValue(iReturn, hBuffer);
+
+            case "toArray": // immutable Byte[] toArray()
+                return frame.assignValue(iReturn, hBuffer.toByteArray());
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+
+    // ----- IndexSupport --------------------------------------------------------------------------
+
+    @Override
+    public int extractArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, int iReturn)
+        {
+        ByteBuffer buffer = ((ByteBufferHandle) hTarget).m_buffer;
+
+        if (lIndex < 0 || lIndex >= buffer.limit())
+            {
+            return frame.raiseException(xException.outOfBounds(frame, lIndex, buffer.limit()));
+            }
+        return frame.assignValue(iReturn, makeByte(buffer.get((int) lIndex)));
+        }
+
+    @Override
+    public int assignArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, ObjectHandle hValue)
+        {
+        ByteBufferHandle hBuffer = (ByteBufferHandle) hTarget;
+        ByteBuffer       buffer  = hBuffer.m_buffer;
+
+        if (buffer.isReadOnly())
+            {
+            return frame.raiseException(xException.readOnly(frame));
+            }
+        if (lIndex < 0 || lIndex >= buffer.limit())
+            {
+            return frame.raiseException(xException.outOfBounds(frame, lIndex, buffer.limit()));
+            }
+        hBuffer.getWritableBuffer().put((int) lIndex, (byte) ((JavaLong) hValue).getValue());
+        return Op.R_NEXT;
+        }
+
+    @Override
+    public TypeConstant getElementType(Frame frame, ObjectHandle hTarget, long lIndex)
+        {
+        return pool().typeByte();
+        }
+
+    @Override
+    public long size(ObjectHandle hTarget)
+        {
+        return ((ByteBufferHandle) hTarget).m_buffer.limit();
+        }
+
+
+    // ----- helper methods ------------------------------------------------------------------------
+
+    /**
+     * Check that the specified number of values of the specified size could be read.
+     *
+     * @return R_NEXT or R_EXCEPTION
+     */
+    private int checkRead(Frame frame, ByteBufferHandle hBuffer, long cValues, int cbValue)
+        {
+        int cbRemaining = hBuffer.m_buffer.remaining();
+        if (cValues < 0 || cValues * cbValue > cbRemaining)
+            {
+            return frame.raiseException(xException.outOfBounds(frame,
+                "Requested " + cValues * cbValue + " bytes; remaining " + cbRemaining));
+            }
+        return Op.R_NEXT;
+        }
+
+    /**
+     * Check that the specified number of bytes could be written and make sure the buffer's storage
+     * is not shared with any array.
+     *
+     * @return R_NEXT or R_EXCEPTION
+     */
+    private int checkWrite(Frame frame, ByteBufferHandle hBuffer, long cb)
+        {
+        ByteBuffer buffer = hBuffer.m_buffer;
+        if (buffer.isReadOnly())
+            {
+            return frame.raiseException(xException.readOnly(frame));
+            }
+
+        int cbRemaining = buffer.remaining();
+        if (cb > cbRemaining)
+            {
+            return frame.raiseException(xException.outOfBounds(frame,
+                "Requested " + cb + " bytes; remaining " + cbRemaining));
+            }
+
+        hBuffer.getWritableBuffer();
+        return Op.R_NEXT;
+        }
+
+    /**
+     * @return a new mutable array of the specified element type and size
+     */
+    private ArrayHandle makeArrayHandle(TypeConstant typeElement, int cSize)
+        {
+        ConstantPool     pool     = pool();
+        ClassComposition clzArray = f_templates.resolveClass(
+                pool.ensureParameterizedTypeConstant(pool.typeArray(), typeElement));
+
+        ArrayHandle hArray = ((xArray) clzArray.getTemplate()).
+                createArrayHandle(clzArray, cSize, Mutability.Mutable);
+        hArray.m_cSize = cSize;
+        return hArray;
+        }
+
+    private static JavaLong makeByte(byte b)
+        {
+        return xUInt8.makeHandle(((long) b) & 0xFF);
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * Create a ByteBuffer handle for the specified java.nio.ByteBuffer.
+     *
+     * @param buffer  the underlying ByteBuffer
+     *
+     * @return the ByteBuffer handle
+     */
+    public static ByteBufferHandle makeHandle(ByteBuffer buffer)
+        {
+        return new ByteBufferHandle(INSTANCE.getCanonicalClass(), buffer);
+        }
+
+    /**
+     * The ByteBuffer handle.
+     */
+    public static class ByteBufferHandle
+            extends ObjectHandle
+        {
+        protected ByteBufferHandle(TypeComposition clazz, ByteBuffer buffer)
+            {
+            super(clazz);
+
+            m_fMutable = true;
+            m_buffer   = buffer;
+            }
+
+        /**
+         * @return the underlying ByteBuffer to read from
+         */
+        public ByteBuffer getBuffer()
+            {
+            return m_buffer;
+            }
+
+        /**
+         * @return the underlying ByteBuffer to write into; its storage is not shared with any
+         *         array
+         */
+        public ByteBuffer getWritableBuffer()
+            {
+            ByteBuffer buffer = m_buffer;
+            if (m_fShared)
+                {
+                ByteBuffer bufferNew = ByteBuffer.allocate(buffer.capacity());
+
+                bufferNew.put(buffer.duplicate().clear());
+                bufferNew.order(buffer.order());
+                bufferNew.limit(buffer.limit());
+                bufferNew.position(buffer.position());
+
+                m_buffer  = buffer = bufferNew;
+                m_fShared = false;
+                }
+            return buffer;
+            }
+
+        /**
+         * @return an immutable array of the bytes between the buffer's position and limit
+         */
+        public ByteArrayHandle toByteArray()
+            {
+            ByteBuffer buffer = m_buffer;
+            int        cb     = buffer.remaining();
+
+            ByteArrayHandle hArray;
+            if (m_abShared != null)
+                {
+                // a read-only view of an immutable array; share it
+                hArray = xByteArray.makeHandle(m_abShared, Mutability.Constant);
+                hArray.m_ofStart = m_ofShared + buffer.position();
+                hArray.m_fShared = true;
+                }
+            else if (buffer.hasArray())
+                {
+                // share the storage until the buffer is written to
+                hArray = xByteArray.makeHandle(buffer.array(), Mutability.Constant);
+                hArray.m_ofStart = buffer.arrayOffset() + buffer.position();
+                hArray.m_fShared = true;
+                m_fShared        = true;
+                }
+            else
+                {
+                byte[] ab = new byte[cb];
+                buffer.duplicate().get(ab);
+                hArray = xByteArray.makeHandle(ab, Mutability.Constant);
+                }
+
+            hArray.m_cSize = cb;
+            hArray.makeImmutable();
+            return hArray;
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + m_buffer;
+            }
+
+        /**
+         * The underlying ByteBuffer; replaced by a copy when a shared storage is written to.
+         */
+        protected ByteBuffer m_buffer;
+
+        /**
+         * True iff the storage of the buffer is shared with an immutable array.
+         */
+        protected boolean m_fShared;
+
+        /**
+         * The immutable array storage viewed by a read-only buffer (null for all other buffers)
+         * and the offset of the buffer's first byte in it.
+         */
+        protected byte[] m_abShared;
+        protected int    m_ofShared;
+
+        /**
+         * The buffer's mark; -1 if there is none.
+         */
+        protected int m_iMark = -1;
+        }
+    }
@@ -0,0 +1,673 @@
+package org.xvm.runtime.template.web.json;
+
+
+import java.io.IOException;
+
+import java.util.Arrays;
+
+
+/**
+ * A pull parser for a JSON document held by a char array. The parser reports the structure of the
+ * document one event at a time (see {@link #next}); the primitive values and the field names are
+ * then available via {@link #getKind} and {@link #getValue}.
+ *
+ * The parser has no knowledge of the runtime handles; the templates build those out of the events.
+ */
+public class JsonParser
+    {
+    /**
+     * Construct a JsonParser.
+     *
+     * @param ach    the document text
+     * @param of     the offset of the first char of the document
+     * @param ofEnd  the offset following the last char of the document
+     */
+    public JsonParser(char[] ach, int of, int ofEnd)
+        {
+        // a leading byte order mark is allowed (but not required) to be ignored
+        if (of < ofEnd && ach[of] == '\uFEFF')
+            {
+            ++of;
+            }
+
+        f_ach     = ach;
+        f_ofStart = of;
+        f_ofEnd   = ofEnd;
+        m_of      = of;
+        }
+
+
+    // ----- accessors -----------------------------------------------------------------------------
+
+    /**
+     * @return the number of the objects and arrays entered, but not exited yet
+     */
+    public int getDepth()
+        {
+        return m_cDepth;
+        }
+
+    /**
+     * @return the last event reported by {@link #next}, or {@link #EVENT_NONE}
+     */
+    public int getEvent()
+        {
+        return m_nEvent;
+        }
+
+    /**
+     * @return the kind of the value of the last {@link #EVENT_VALUE} event (one of the KIND_*
+     *         constants)
+     */
+    public int getKind()
+        {
+        return m_nKind;
+        }
+
+    /**
+     * @return the field name for the last {@link #EVENT_NAME} event; the String value, the
+     *         number text, or the Boolean for the last {@link #EVENT_VALUE} event; null otherwise
+     */
+    public Object getValue()
+        {
+        return m_oValue;
+        }
+
+
+    // ----- parsing -------------------------------------------------------------------------------
+
+    /**
+     * Advance to the next event.
+     *
+     * @return the next event, or {@link #EVENT_NONE} if the entire document has been consumed
+     *
+     * @throws IOException if the document is malformed
+     */
+    public int next()
+            throws IOException
+        {
+        return next(true);
+        }
+
+    /**
+     * Skip over the value that the last event started; see {@link #next}.
+     *
+     * @throws IOException if the document is malformed
+     */
+    public void skip()
+            throws IOException
+        {
+        int nEvent = m_nEvent;
+        if (nEvent == EVENT_NAME)
+            {
+            nEvent = next(false);
+            }
+
+        if (nEvent == EVENT_OBJECT_ENTER || nEvent == EVENT_ARRAY_ENTER)
+            {
+            int cDepth = m_cDepth - 1;
+            while (m_cDepth > cDepth)
+                {
+                next(false);
+                }
+            }
+        m_oValue = null;
+        }
+
+    /**
+     * Advance to the next event.
+     *
+     * @param fMaterialize  false iff the String values and the names are not going to be used
+     *
+     * @return the next event, or {@link #EVENT_NONE} if the entire document has been consumed
+     */
+    private int next(boolean fMaterialize)
+            throws IOException
+        {
+        m_oValue = null;
+
+        int ch = skipWhitespace();
+        switch (m_nState)
+            {
+            case STATE_DONE:
+                return m_nEvent = EVENT_NONE;
+
+            case STATE_FIRST_NAME:
+                if (ch == '}')
+                    {
+                    return exit(EVENT_OBJECT_EXIT);
+                    }
+                return name(ch, fMaterialize);
+
+            case STATE_FIRST_VALUE:
+                if (ch == ']')
+                    {
+                    return exit(EVENT_ARRAY_EXIT);
+                    }
+                return value(ch, fMaterialize);
+
+            case STATE_VALUE:
+                return value(ch, fMaterialize);
+
+            case STATE_AFTER:
+                {
+                if (m_cDepth == 0)
+                    {
+                    if (ch == EOF)
+                        {
+                        m_nState = STATE_DONE;
+                        return m_nEvent = EVENT_NONE;
+                        }
+                    throw unexpected(ch);
+                    }
+
+                boolean fObject = m_afObject[m_cDepth - 1];
+                if (ch == ',')
+                    {
+                    ++m_of;
+                    ch = skipWhitespace();
+                    return fObject ? name(ch, fMaterialize) : value(ch, fMaterialize);
+                    }
+                if (ch == (fObject ? '}' : ']'))
+                    {
+                    return exit(fObject ? EVENT_OBJECT_EXIT : EVENT_ARRAY_EXIT);
+                    }
+                throw unexpected(ch);
+                }
+
+            default:
+                throw new IllegalStateException();
+            }
+        }
+
+    /**
+     * Process a field name.
+     */
+    private int name(int ch, boolean fMaterialize)
+            throws IOException
+        {
+        if (ch != '"')
+            {
+            throw unexpected(ch);
+            }
+        ++m_of;
+        m_oValue = readString(fMaterialize);
+
+        if (skipWhitespace() != ':')
+            {
+            throw expected(':');
+            }
+        ++m_of;
+
+        m_nState = STATE_VALUE;
+        return m_nEvent = EVENT_NAME;
+        }
+
+    /**
+     * Process a value.
+     */
+    private int value(int ch, boolean fMaterialize)
+            throws IOException
+        {
+        switch (ch)
+            {
+            case '{':
+                ++m_of;
+                enter(true);
+                m_nState = STATE_FIRST_NAME;
+                return m_nEvent = EVENT_OBJECT_ENTER;
+
+            case '[':
+                ++m_of;
+                enter(false);
+                m_nState = STATE_FIRST_VALUE;
+                return m_nEvent = EVENT_ARRAY_ENTER;
+
+            case '"':
+                ++m_of;
+                m_oValue = readString(fMaterialize);
+                m_nKind  = KIND_STRING;
+                break;
+
+            case 'n':
+                require("null");
+                m_nKind = KIND_NULL;
+                break;
+
+            case 't':
+                require("true");
+                m_oValue = Boolean.TRUE;
+                m_nKind  = KIND_BOOLEAN;
+                break;
+
+            case 'f':
+                require("false");
+                m_oValue = Boolean.FALSE;
+                m_nKind  = KIND_BOOLEAN;
+                break;
+
+            case '-':
+            case '0': case '1': case '2': case '3': case '4':
+            case '5': case '6': case '7': case '8': case '9':
+                m_nKind  = readNumber();
+                m_oValue = fMaterialize ? new String(f_ach, m_ofToken, m_of - m_ofToken) : null;
+                break;
+
+            default:
+                throw unexpected(ch);
+            }
+
+        m_nState = STATE_AFTER;
+        return m_nEvent = EVENT_VALUE;
+        }
+
+    /**
+     * Enter an object or an array.
+     */
+    private void enter(boolean fObject)
+            throws IOException
+        {
+        boolean[] afObject = m_afObject;
+        int       cDepth   = m_cDepth;
+        if (cDepth == afObject.length)
+            {
+            if (cDepth >= MAX_DEPTH)
+                {
+                throw error("the document is nested too deeply");
+                }
+            m_afObject = afObject = Arrays.copyOf(afObject, cDepth * 2);
+            }
+        afObject[cDepth] = fObject;
+        m_cDepth         = cDepth + 1;
+        }
+
+    /**
+     * Exit the current object or array.
+     */
+    private int exit(int nEvent)
+        {
+        ++m_of;
+        --m_cDepth;
+        m_nState = STATE_AFTER;
+        return m_nEvent = nEvent;
+        }
+
+    /**
+     * Skip over any white space.
+     *
+     * @return the next char, or {@link #EOF}
+     */
+    private int skipWhitespace()
+        {
+        char[] ach   = f_ach;
+        int    of    = m_of;
+        int    ofEnd = f_ofEnd;
+        while (of < ofEnd)
+            {
+            char ch = ach[of];
+            switch (ch)
+                {
+                case ' ':
+                case '\r':
+                case '\n':
+                case '\t':
+                    ++of;
+                    break;
+
+                default:
+                    m_of = of;
+                    return ch;
+                }
+            }
+        m_of = of;
+        return EOF;
+        }
+
+    /**
+     * Read a quoted String; the opening quote has already been read.
+     *
+     * @param fMaterialize  false iff the String is not going to be used
+     *
+     * @return the String, or null if not materialized
+     */
+    private String readString(boolean fMaterialize)
+            throws IOException
+        {
+        char[] ach     = f_ach;
+        int    ofEnd   = f_ofEnd;
+        int    ofStart = m_of;
+        int    of      = ofStart;
+
+        // the fast path: no escapes
+        while (of < ofEnd)
+            {
+            char ch = ach[of];
+            if (ch == '"')
+                {
+                m_of = of + 1;
+                return fMaterialize ? new String(ach, ofStart, of - ofStart) : null;
+                }
+            if (ch == '\\')
+                {
+                break;
+                }
+            if (ch < 0x20)
+                {
+                m_of = of;
+                throw error("unescaped control character in a string");
+                }
+            ++of;
+            }
+
+        StringBuilder sb = new StringBuilder(of - ofStart + 16);
+        sb.append(ach, ofStart, of - ofStart);
+        while (of < ofEnd)
+            {
+            char ch = ach[of++];
+            switch (ch)
+                {
+                case '"':
+                    m_of = of;
+                    return fMaterialize ? sb.toString() : null;
+
+                case '\\':
+                    if (of == ofEnd)
+                        {
+                        break;
+                        }
+                    switch (ch = ach[of++])
+                        {
+                        case '"':
+                        case '\\':
+                        case '/':
+                            sb.append(ch);
+                            break;
+
+                        case 'b':
+                            sb.append('\b');
+                            break;
+
+                        case 'f':
+                            sb.append('\f');
+                            break;
+
+                        case 'n':
+                            sb.append('\n');
+                            break;
+
+                        case 'r':
+                            sb.append('\r');
+                            break;
+
+                        case 't':
+                            sb.append('\t');
+                            break;
+
+                        case 'u':
+                            {
+                            // 'u' hex hex hex hex; the surrogate pairs simply follow one another
+                            int nCode = 0;
+                            for (int i = 0; i < 4; i++)
+                                {
+                                int nHex = of < ofEnd ? Character.digit(ach[of], 16) : -1;
+                                if (nHex < 0)
+                                    {
+                                    m_of = of;
+                                    throw error("invalid unicode escape");
+                                    }
+                                nCode = nCode << 4 | nHex;
+                                ++of;
+                                }
+                            sb.append((char) nCode);
+                            break;
+                            }
+
+                        default:
+                            m_of = of - 1;
+                            throw error("invalid escape '\\" + ch + '\'');
+                        }
+                    break;
+
+                default:
+                    if (ch < 0x20)
+                        {
+                        m_of = of - 1;
+                        throw error("unescaped control character in a string");
+                        }
+                    sb.append(ch);
+                    break;
+                }
+            }
+
+        m_of = ofEnd;
+        throw error("unterminated string");
+        }
+
+    /**
+     * Read a number, which starts at the current offset with either '-' or a digit.
+     *
+     * @return {@link #KIND_INT} or {@link #KIND_FP}
+     */
+    private int readNumber()
+            throws IOException
+        {
+        char[] ach   = f_ach;
+        int    of    = m_ofToken = m_of;
+        int    ofEnd = f_ofEnd;
+        int    nKind = KIND_INT;
+
+        if (ach[of] == '-')
+            {
+            ++of;
+            }
+
+        // the whole part: either a single '0' or a non-zero digit followed by any digits
+        if (of < ofEnd && ach[of] == '0')
+            {
+            ++of;
+            }
+        else
+            {
+            of = requireDigits(of);
+            }
+
+        if (of < ofEnd && ach[of] == '.')
+            {
+            nKind = KIND_FP;
+            of    = requireDigits(of + 1);
+            }
+
+        if (of < ofEnd && (ach[of] == 'e' || ach[of] == 'E'))
+            {
+            nKind = KIND_FP;
+            ++of;
+            if (of < ofEnd && (ach[of] == '+' || ach[of] == '-'))
+                {
+                ++of;
+                }
+            of = requireDigits(of);
+            }
+
+        m_of = of;
+        return nKind;
+        }
+
+    /**
+     * Require one or more digits at the specified offset.
+     *
+     * @return the offset following the digits
+     */
+    private int requireDigits(int of)
+            throws IOException
+        {
+        char[] ach     = f_ach;
+        int    ofEnd   = f_ofEnd;
+        int    ofStart = of;
+        while (of < ofEnd && ach[of] >= '0' && ach[of] <= '9')
+            {
+            ++of;
+            }
+        if (of == ofStart)
+            {
+            m_of = of;
+            throw of < ofEnd ? unexpected(ach[of]) : unexpected(EOF);
+            }
+        return of;
+        }
+
+    /**
+     * Require the specified keyword at the current offset.
+     */
+    private void require(String sWord)
+            throws IOException
+        {
+        char[] ach = f_ach;
+        int    of  = m_of;
+        for (int i = 0, c = sWord.length(); i < c; i++, of++)
+            {
+            if (of == f_ofEnd || ach[of] != sWord.charAt(i))
+                {
+                m_of = of;
+                throw expected(sWord.charAt(i));
+                }
+            }
+        m_of = of;
+        }
+
+
+    // ----- errors --------------------------------------------------------------------------------
+
+    private IOException unexpected(int ch)
+        {
+        return ch == EOF
+                ? error("unexpected end of the document")
+                : error("unexpected '" + (char) ch + '\'');
+        }
+
+    private IOException expected(char ch)
+        {
+        return error("expected '" + ch + '\'');
+        }
+
+    /**
+     * Create an IOException for the current offset; the location is reported the same way the
+     * Reader positions are: (line:offset), both zero-based.
+     */
+    private IOException error(String sMsg)
+        {
+        char[] ach    = f_ach;
+        int    of     = Math.min(m_of, f_ofEnd);
+        int    nLine  = 0;
+        int    ofLine = f_ofStart;
+        for (int i = f_ofStart; i < of; i++)
+            {
+            if (ach[i] == '\n')
+                {
+                ++nLine;
+                ofLine = i + 1;
+                }
+            }
+        return new IOException(sMsg + " at (" + nLine + ':' + (of - ofLine) + ')');
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The events; the values correspond to the ordinals of the Parser.Event enum.
+     */
+    public static final int EVENT_NONE         = -1;
+    public static final int EVENT_OBJECT_ENTER = 0;
+    public static final int EVENT_OBJECT_EXIT  = 1;
+    public static final int EVENT_ARRAY_ENTER  = 2;
+    public static final int EVENT_ARRAY_EXIT   = 3;
+    public static final int EVENT_NAME         = 4;
+    public static final int EVENT_VALUE        = 5;
+
+    /**
+     * The kinds of the primitive values.
+     */
+    public static final int KIND_NULL    = 0;
+    public static final int KIND_BOOLEAN = 1;
+    public static final int KIND_INT     = 2;
+    public static final int KIND_FP      = 3;
+    public static final int KIND_STRING  = 4;
+
+    /**
+     * The maximum nesting depth of the objects and arrays; could be set using the
+     * "xvm.json.maxDepth" system property.
+     */
+    public static final int MAX_DEPTH = Integer.getInteger("xvm.json.maxDepth", 1000);
+
+    /**
+     * The parser states.
+     */
+    private static final int STATE_VALUE       = 0; // a value is expected
+    private static final int STATE_FIRST_NAME  = 1; // a name or '}' is expected
+    private static final int STATE_FIRST_VALUE = 2; // a value or ']' is expected
+    private static final int STATE_AFTER       = 3; // ',' or the exit is expected
+    private static final int STATE_DONE        = 4; // the document has been consumed
+
+    /**
+     * The "char" indicating the end of the document.
+     */
+    private static final int EOF = -1;
+
+
+    // ----- data fields ---------------------------------------------------------------------------
+
+    /**
+     * The document text.
+     */
+    private final char[] f_ach;
+
+    /**
+     * The offset of the first char of the document.
+     */
+    private final int f_ofStart;
+
+    /**
+     * The offset following the last char of the document.
+     */
+    private final int f_ofEnd;
+
+    /**
+     * The current offset.
+     */
+    private int m_of;
+
+    /**
+     * The offset of the last number.
+     */
+    private int m_ofToken;
+
+    /**
+     * The current state (one of the STATE_* constants).
+     */
+    private int m_nState = STATE_VALUE;
+
+    /**
+     * The last event.
+     */
+    private int m_nEvent = EVENT_NONE;
+
+    /**
+     * The kind of the last value.
+     */
+    private int m_nKind;
+
+    /**
+     * The last name or value.
+     */
+    private Object m_oValue;
+
+    /**
+     * The current nesting depth.
+     */
+    private int m_cDepth;
+
+    /**
+     * For each nesting level, true for an object and false for an array.
+     */
+    private boolean[] m_afObject = new boolean[16];
+    }
@@ -0,0 +1,585 @@
+package org.xvm.runtime.template.web.json;
+
+
+import java.io.IOException;
+
+import java.math.BigInteger;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.Constants.Access;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.GenericHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xEnum;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xInt64;
+import org.xvm.runtime.template.xIntLiteral;
+import org.xvm.runtime.template.xIntLiteral.VarIntHandle;
+import org.xvm.runtime.template.xNullable;
+import org.xvm.runtime.template.xString;
+import org.xvm.runtime.template.xString.StringHandle;
+
+import org.xvm.runtime.template.collections.xArray;
+
+import org.xvm.runtime.template.io.xByteBuffer.ByteBufferHandle;
+
+import org.xvm.util.PackedInteger;
+
+
+/**
+ * Native web.json.Parser implementation.
+ *
+ * The parsing itself is done by the {@link JsonParser}; this template turns the parser's events
+ * into the runtime handles. The JSON arrays and primitive values are created natively, while each
+ * JSON object is an Ecstasy Doc, which is constructed (by the Doc's constructor) once all of its
+ * fields have been parsed.
+ */
+public class xParser
+        extends ClassTemplate
+    {
+    public static xParser INSTANCE;
+
+    public xParser(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        s_templateEvent = (xEnum) f_templates.getTemplate("web.json.Parser.Event");
+
+        ClassTemplate templateDoc = f_templates.getTemplate("web.json.Doc");
+        s_templateDoc    = templateDoc;
+        s_clzDoc         = templateDoc.getCanonicalClass();
+        s_constructorDoc = templateDoc.f_struct.findMethod("construct", 2);
+
+        // the type of the constructor's "values" parameter is the FieldType array type
+        s_typeValueArray = s_constructorDoc.getParam(1).getType().resolveTypedefs();
+
+        s_clzFPLiteralStruct = f_templates.getTemplate("FPLiteral").getCanonicalClass().
+                ensureAccess(Access.STRUCT);
+
+        markNativeProperty("value");
+        markNativeProperty("depth");
+
+        markNativeMethod("construct", new String[] {"String"}, VOID);
+        markNativeMethod("construct", new String[] {"io.ByteBuffer"}, VOID);
+        markNativeMethod("next", VOID, null);
+        markNativeMethod("parseValue", VOID, null);
+        markNativeMethod("skip", VOID, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int construct(Frame frame, MethodStructure constructor, ClassComposition clazz,
+                         ObjectHandle hParent, ObjectHandle[] ahVar, int iReturn)
+        {
+        ObjectHandle hSource = ahVar[0];
+        if (hSource instanceof StringHandle)
+            {
+            // construct(String text)
+            char[] ach = ((StringHandle) hSource).getValue();
+            return frame.assignValue(iReturn,
+                    new ParserHandle(clazz, new JsonParser(ach, 0, ach.length)));
+            }
+
+        // construct(ByteBuffer buffer)
+        ByteBuffer buffer = ((ByteBufferHandle) hSource).getBuffer().duplicate();
+        CharBuffer bufChars;
+        try
+            {
+            bufChars = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(buffer);
+            }
+        catch (CharacterCodingException e)
+            {
+            return frame.raiseException(xException.ioException(frame, "invalid UTF-8 text"));
+            }
+
+        int of = bufChars.arrayOffset() + bufChars.position();
+        return frame.assignValue(iReturn, new ParserHandle(clazz,
+                new JsonParser(bufChars.array(), of, of + bufChars.remaining())));
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        ParserHandle hParser = (ParserHandle) hTarget;
+        JsonParser   parser  = hParser.f_parser;
+
+        switch (sPropName)
+            {
+            case "value":
+                switch (parser.getEvent())
+                    {
+                    case JsonParser.EVENT_NAME:
+                        return frame.assignValue(iReturn, hParser.makeName());
+
+                    case JsonParser.EVENT_VALUE:
+                        return frame.assignValue(iReturn, hParser.makePrimitive());
+
+                    default:
+                        return frame.assignValue(iReturn, xNullable.NULL);
+                    }
+
+            case "depth":
+                return frame.assignValue(iReturn, xInt64.makeHandle(parser.getDepth()));
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        ParserHandle hParser = (ParserHandle) hTarget;
+        JsonParser   parser  = hParser.f_parser;
+
+        try
+            {
+            switch (method.getName())
+                {
+                case "parseValue":
+                    {
+                    int nEvent = parser.getEvent();
+                    if (nEvent == JsonParser.EVENT_NAME)
+                        {
+                        nEvent = parser.next();
+                        }
+
+                    switch (nEvent)
+                        {
+                        case JsonParser.EVENT_OBJECT_ENTER:
+                        case JsonParser.EVENT_ARRAY_ENTER:
+                        case JsonParser.EVENT_VALUE:
+                            return new TreeBuilder(hParser, iReturn).build(frame, nEvent);
+
+                        default:
+                            return frame.raiseException(
+                                xException.illegalState(frame, "no value to parse"));
+                        }
+                    }
+
+                case "skip":
+                    parser.skip();
+                    return Op.R_NEXT;
+                }
+            }
+        catch (IOException e)
+            {
+            return frame.raiseException(xException.ioException(frame, e.getMessage()));
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeNN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                              ObjectHandle[] ahArg, int[] aiReturn)
+        {
+        ParserHandle hParser = (ParserHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "next": // conditional Event next()
+                {
+                int nEvent;
+                try
+                    {
+                    nEvent = hParser.f_parser.next();
+                    }
+                catch (IOException e)
+                    {
+                    return frame.raiseException(xException.ioException(frame, e.getMessage()));
+                    }
+
+                return nEvent == JsonParser.EVENT_NONE
+                        ? frame.assignValues(aiReturn, xBoolean.FALSE, null)
+                        : frame.assignValues(aiReturn, xBoolean.TRUE, getEvent(nEvent));
+                }
+            }
+
+        return super.invokeNativeNN(frame, method, hTarget, ahArg, aiReturn);
+        }
+
+
+    /**
+     * @return the Event handle for the specified ordinal
+     */
+    private static ObjectHandle getEvent(int nEvent)
+        {
+        ObjectHandle[] ahEvent = s_ahEvent;
+        if (ahEvent == null)
+            {
+            // the enum template holds the values as uninitialized structs (see xEnum); since the
+            // Event values have no state, their public handles can be used right away
+            ahEvent = new ObjectHandle[JsonParser.EVENT_VALUE + 1];
+            for (int i = 0; i < ahEvent.length; i++)
+                {
+                ahEvent[i] = s_templateEvent.getEnumByOrdinal(i).ensureAccess(Access.PUBLIC);
+                }
+            s_ahEvent = ahEvent;
+            }
+        return ahEvent[nEvent];
+        }
+
+    /**
+     * @return the class of the FieldType arrays
+     */
+    private static ClassComposition getValueArrayClass()
+        {
+        ClassComposition clzArray = s_clzValueArray;
+        if (clzArray == null)
+            {
+            s_clzValueArray = clzArray = INSTANCE.f_templates.resolveClass(s_typeValueArray);
+            }
+        return clzArray;
+        }
+
+
+    // ----- TreeBuilder ---------------------------------------------------------------------------
+
+    /**
+     * Helper class that materializes a JSON value. The value is parsed natively in its entirety
+     * first; the objects found along the way are recorded as {@link PendingDoc}s in the order of
+     * their completion, so that by the time a Doc is constructed all the Docs it contains have
+     * already been constructed as well.
+     */
+    private static class TreeBuilder
+            implements Frame.Continuation
+        {
+        TreeBuilder(ParserHandle hParser, int iReturn)
+            {
+            f_hParser = hParser;
+            f_iReturn = iReturn;
+            }
+
+        /**
+         * Parse the value that the specified event starts and assign it to the return register.
+         *
+         * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION}
+         */
+        int build(Frame frame, int nEvent)
+                throws IOException
+            {
+            Object oValue = parse(nEvent);
+            if (oValue instanceof PendingDoc)
+                {
+                ((PendingDoc) oValue).setSlot(f_ahResult, 0);
+                }
+            else
+                {
+                f_ahResult[0] = (ObjectHandle) oValue;
+                }
+            return doNext(frame);
+            }
+
+        /**
+         * Parse the value that the specified event starts.
+         *
+         * @return the value handle or a PendingDoc
+         */
+        private Object parse(int nEvent)
+                throws IOException
+            {
+            ParserHandle hParser = f_hParser;
+            JsonParser   parser  = hParser.f_parser;
+            switch (nEvent)
+                {
+                case JsonParser.EVENT_VALUE:
+                    return hParser.makePrimitive();
+
+                case JsonParser.EVENT_ARRAY_ENTER:
+                    {
+                    List<Object> listValue = new ArrayList<>();
+                    while ((nEvent = parser.next()) != JsonParser.EVENT_ARRAY_EXIT)
+                        {
+                        listValue.add(parse(nEvent));
+                        }
+                    return xArray.INSTANCE.createArrayHandle(getValueArrayClass(),
+                            collect(listValue));
+                    }
+
+                case JsonParser.EVENT_OBJECT_ENTER:
+                    {
+                    List<StringHandle> listName  = new ArrayList<>();
+                    List<Object>       listValue = new ArrayList<>();
+                    while (parser.next() != JsonParser.EVENT_OBJECT_EXIT)
+                        {
+                        listName.add(hParser.makeName());
+                        listValue.add(parse(parser.next()));
+                        }
+
+                    PendingDoc doc = new PendingDoc(
+                            listName.toArray(new StringHandle[listName.size()]),
+                            collect(listValue));
+                    f_listPending.add(doc);
+                    return doc;
+                    }
+
+                default:
+                    // the parser guarantees the events' order
+                    throw new IllegalStateException();
+                }
+            }
+
+        /**
+         * Collect the specified values into an array; the pending Docs are given the array slots
+         * to be placed into once they are constructed.
+         */
+        private static ObjectHandle[] collect(List<Object> listValue)
+            {
+            int            cValues = listValue.size();
+            ObjectHandle[] ahValue = new ObjectHandle[cValues];
+            for (int i = 0; i < cValues; i++)
+                {
+                Object oValue = listValue.get(i);
+                if (oValue instanceof PendingDoc)
+                    {
+                    ((PendingDoc) oValue).setSlot(ahValue, i);
+                    }
+                else
+                    {
+                    ahValue[i] = (ObjectHandle) oValue;
+                    }
+                }
+            return ahValue;
+            }
+
+        @Override
+        public int proceed(Frame frameCaller)
+            {
+            f_listPending.get(m_iDoc).place(frameCaller.popStack());
+            return doNext(frameCaller);
+            }
+
+        /**
+         * Construct the remaining pending Docs and then return the result.
+         */
+        public int doNext(Frame frameCaller)
+            {
+            List<PendingDoc> listPending = f_listPending;
+            while (++m_iDoc < listPending.size())
+                {
+                PendingDoc     doc   = listPending.get(m_iDoc);
+                ObjectHandle[] ahArg = new ObjectHandle[]
+                    {
+                    xArray.makeStringArrayHandle(doc.f_ahName),
+                    xArray.INSTANCE.createArrayHandle(getValueArrayClass(), doc.f_ahValue),
+                    };
+
+                switch (s_templateDoc.construct(frameCaller, s_constructorDoc, s_clzDoc, null,
+                            ahArg, Op.A_STACK))
+                    {
+                    case Op.R_NEXT:
+                        doc.place(frameCaller.popStack());
+                        break;
+
+                    case Op.R_CALL:
+                        frameCaller.m_frameNext.addContinuation(this);
+                        return Op.R_CALL;
+
+                    case Op.R_EXCEPTION:
+                        return Op.R_EXCEPTION;
+
+                    default:
+                        throw new IllegalStateException();
+                    }
+                }
+
+            return frameCaller.assignValue(f_iReturn, f_ahResult[0]);
+            }
+
+        private final ParserHandle     f_hParser;
+        private final int              f_iReturn;
+        private final ObjectHandle[]   f_ahResult    = new ObjectHandle[1];
+        private final List<PendingDoc> f_listPending = new ArrayList<>();
+
+        private int m_iDoc = -1;
+        }
+
+    /**
+     * A parsed JSON object, which is yet to be constructed as a Doc.
+     */
+    private static class PendingDoc
+        {
+        PendingDoc(StringHandle[] ahName, ObjectHandle[] ahValue)
+            {
+            f_ahName  = ahName;
+            f_ahValue = ahValue;
+            }
+
+        /**
+         * Specify the array slot the constructed Doc is to be placed into.
+         */
+        void setSlot(ObjectHandle[] ahSlot, int iSlot)
+            {
+            m_ahSlot = ahSlot;
+            m_iSlot  = iSlot;
+            }
+
+        /**
+         * Place the constructed Doc into its slot.
+         */
+        void place(ObjectHandle hDoc)
+            {
+            m_ahSlot[m_iSlot] = hDoc;
+            }
+
+        final StringHandle[] f_ahName;
+        final ObjectHandle[] f_ahValue;
+
+        private ObjectHandle[] m_ahSlot;
+        private int            m_iSlot;
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The Parser handle.
+     */
+    public static class ParserHandle
+            extends ObjectHandle
+        {
+        protected ParserHandle(TypeComposition clazz, JsonParser parser)
+            {
+            super(clazz);
+
+            m_fMutable = true;
+            f_parser   = parser;
+            }
+
+        /**
+         * @return the handle for the current name; the names are cached, since the same names
+         *         tend to repeat throughout a document
+         */
+        protected StringHandle makeName()
+            {
+            String       sName = (String) f_parser.getValue();
+            StringHandle hName = f_mapNames.get(sName);
+            if (hName == null)
+                {
+                hName = xString.makeHandle(sName);
+                if (f_mapNames.size() < MAX_CACHED_NAMES)
+                    {
+                    f_mapNames.put(sName, hName);
+                    }
+                }
+            return hName;
+            }
+
+        /**
+         * @return the handle for the current primitive value
+         */
+        protected ObjectHandle makePrimitive()
+            {
+            JsonParser parser = f_parser;
+            Object     oValue = parser.getValue();
+            switch (parser.getKind())
+                {
+                case JsonParser.KIND_NULL:
+                    return xNullable.NULL;
+
+                case JsonParser.KIND_BOOLEAN:
+                    return xBoolean.makeHandle((Boolean) oValue);
+
+                case JsonParser.KIND_STRING:
+                    return xString.makeHandle((String) oValue);
+
+                case JsonParser.KIND_INT:
+                    {
+                    String        sText = (String) oValue;
+                    PackedInteger piValue;
+                    try
+                        {
+                        piValue = new PackedInteger(Long.parseLong(sText));
+                        }
+                    catch (NumberFormatException e)
+                        {
+                        piValue = new PackedInteger(new BigInteger(sText));
+                        }
+                    return new VarIntHandle(xIntLiteral.INSTANCE.getCanonicalClass(), piValue, null);
+                    }
+
+                case JsonParser.KIND_FP:
+                    {
+                    GenericHandle hLiteral = new GenericHandle(s_clzFPLiteralStruct);
+                    hLiteral.setField("text", xString.makeHandle((String) oValue));
+                    hLiteral.makeImmutable();
+                    return hLiteral.ensureAccess(Access.PUBLIC);
+                    }
+
+                default:
+                    throw new IllegalStateException();
+                }
+            }
+
+        /**
+         * The underlying parser.
+         */
+        protected final JsonParser f_parser;
+
+        /**
+         * The name handles by name.
+         */
+        private final Map<String, StringHandle> f_mapNames = new HashMap<>();
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The maximum number of the cached name handles per parser.
+     */
+    private static final int MAX_CACHED_NAMES = 1024;
+
+    private static xEnum            s_templateEvent;
+    private static ObjectHandle[]   s_ahEvent;
+    private static ClassTemplate    s_templateDoc;
+    private static ClassComposition s_clzDoc;
+    private static MethodStructure  s_constructorDoc;
+    private static TypeConstant     s_typeValueArray;
+    private static ClassComposition s_clzValueArray;
+    private static ClassComposition s_clzFPLiteralStruct;
+    }
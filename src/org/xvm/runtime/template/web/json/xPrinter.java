@@ -0,0 +1,293 @@
+package org.xvm.runtime.template.web.json;
+
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.GenericHandle;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xBoolean;
+import org.xvm.runtime.template.xBoolean.BooleanHandle;
+import org.xvm.runtime.template.xException;
+import org.xvm.runtime.template.xIntLiteral.VarIntHandle;
+import org.xvm.runtime.template.xNullable;
+import org.xvm.runtime.template.xString;
+import org.xvm.runtime.template.xString.StringHandle;
+
+import org.xvm.runtime.template.collections.xArray.GenericArrayHandle;
+
+
+/**
+ * Native web.json.Printer implementation.
+ *
+ * The JSON text is produced by walking the value handles directly; a Doc's fields are read from the
+ * key and value arrays of its "contents" ListMap.
+ */
+public class xPrinter
+        extends ClassTemplate
+    {
+    public static xPrinter INSTANCE;
+
+    public xPrinter(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        s_typeDoc       = f_templates.getTemplate("web.json.Doc").getCanonicalType();
+        s_typeFPLiteral = f_templates.getTemplate("FPLiteral").getCanonicalType();
+
+        markNativeMethod("print", null, STRING);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        switch (method.getName())
+            {
+            case "print": // static String print(FieldType value, Boolean pretty = False)
+                {
+                ObjectHandle  hPretty = ahArg[1];
+                boolean       fPretty = hPretty instanceof BooleanHandle && ((BooleanHandle) hPretty).get();
+                StringBuilder sb      = new StringBuilder();
+
+                String sError = print(sb, ahArg[0], fPretty, 0);
+                return sError == null
+                        ? frame.assignValue(iReturn, xString.makeHandle(sb.toString()))
+                        : frame.raiseException(xException.illegalArgument(frame, sError));
+                }
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    /**
+     * Print the specified value.
+     *
+     * @param sb       the StringBuilder to print into
+     * @param hValue   the value
+     * @param fPretty  true to place each field and array element on its own indented line
+     * @param cDepth   the current nesting depth
+     *
+     * @return null if the value has been printed; otherwise the error description
+     */
+    private static String print(StringBuilder sb, ObjectHandle hValue, boolean fPretty, int cDepth)
+        {
+        if (hValue == xNullable.NULL)
+            {
+            sb.append("null");
+            return null;
+            }
+
+        if (hValue instanceof BooleanHandle)
+            {
+            sb.append(hValue == xBoolean.TRUE ? "true" : "false");
+            return null;
+            }
+
+        if (hValue instanceof StringHandle)
+            {
+            printString(sb, (StringHandle) hValue);
+            return null;
+            }
+
+        if (hValue instanceof VarIntHandle)
+            {
+            sb.append(((VarIntHandle) hValue).getValue().toString());
+            return null;
+            }
+
+        if (cDepth >= JsonParser.MAX_DEPTH)
+            {
+            return "the value is nested too deeply";
+            }
+
+        if (hValue instanceof GenericArrayHandle)
+            {
+            GenericArrayHandle hArray  = (GenericArrayHandle) hValue;
+            ObjectHandle[]     ahValue = hArray.m_ahValue;
+            int                ofStart = hArray.m_ofStart;
+            int                cValues = hArray.m_cSize;
+
+            sb.append('[');
+            for (int i = 0; i < cValues; i++)
+                {
+                if (i > 0)
+                    {
+                    sb.append(',');
+                    }
+                newLine(sb, fPretty, cDepth + 1);
+
+                String sError = print(sb, ahValue[ofStart + i], fPretty, cDepth + 1);
+                if (sError != null)
+                    {
+                    return sError;
+                    }
+                }
+            if (cValues > 0)
+                {
+                newLine(sb, fPretty, cDepth);
+                }
+            sb.append(']');
+            return null;
+            }
+
+        if (hValue instanceof GenericHandle)
+            {
+            GenericHandle hGeneric = (GenericHandle) hValue;
+            TypeConstant  type     = hGeneric.getType();
+
+            if (type.isA(s_typeFPLiteral))
+                {
+                sb.append(((StringHandle) hGeneric.getField("text")).getStringValue());
+                return null;
+                }
+
+            if (type.isA(s_typeDoc))
+                {
+                ObjectHandle hContents = hGeneric.getField("contents");
+                if (!(hContents instanceof GenericHandle))
+                    {
+                    // an empty Doc
+                    sb.append("{}");
+                    return null;
+                    }
+
+                GenericHandle hMap  = (GenericHandle) hContents;
+                ObjectHandle  hKeys = hMap.getField("listKeys");
+                ObjectHandle  hVals = hMap.getField("listVals");
+                if (!(hKeys instanceof GenericArrayHandle && hVals instanceof GenericArrayHandle))
+                    {
+                    return "unsupported Doc contents";
+                    }
+
+                GenericArrayHandle hKeyArray = (GenericArrayHandle) hKeys;
+                GenericArrayHandle hValArray = (GenericArrayHandle) hVals;
+                int                cFields   = hKeyArray.m_cSize;
+
+                sb.append('{');
+                for (int i = 0; i < cFields; i++)
+                    {
+                    if (i > 0)
+                        {
+                        sb.append(',');
+                        }
+                    newLine(sb, fPretty, cDepth + 1);
+
+                    printString(sb, (StringHandle) hKeyArray.m_ahValue[hKeyArray.m_ofStart + i]);
+                    sb.append(fPretty ? ": " : ":");
+
+                    String sError = print(sb, hValArray.m_ahValue[hValArray.m_ofStart + i],
+                                          fPretty, cDepth + 1);
+                    if (sError != null)
+                        {
+                        return sError;
+                        }
+                    }
+                if (cFields > 0)
+                    {
+                    newLine(sb, fPretty, cDepth);
+                    }
+                sb.append('}');
+                return null;
+                }
+            }
+
+        return "not a JSON value: " + hValue.getType().getValueString();
+        }
+
+    /**
+     * Print the specified String as a quoted and escaped JSON string.
+     */
+    private static void printString(StringBuilder sb, StringHandle hString)
+        {
+        sb.append('"');
+        for (int i = 0, c = hString.length(); i < c; i++)
+            {
+            char ch = hString.charAt(i);
+            switch (ch)
+                {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+
+                case '\b':
+                    sb.append("\\b");
+                    break;
+
+                case '\f':
+                    sb.append("\\f");
+                    break;
+
+                case '\n':
+                    sb.append("\\n");
+                    break;
+
+                case '\r':
+                    sb.append("\\r");
+                    break;
+
+                case '\t':
+                    sb.append("\\t");
+                    break;
+
+                default:
+                    if (ch < 0x20)
+                        {
+                        sb.append("\\u00")
+                          .append(HEX[ch >> 4])
+                          .append(HEX[ch & 0xF]);
+                        }
+                    else
+                        {
+                        sb.append(ch);
+                        }
+                    break;
+                }
+            }
+        sb.append('"');
+        }
+
+    /**
+     * Start a new indented line if printing "pretty".
+     */
+    private static void newLine(StringBuilder sb, boolean fPretty, int cDepth)
+        {
+        if (fPretty)
+            {
+            sb.append('\n');
+            for (int i = 0; i < cDepth; i++)
+                {
+                sb.append(INDENT);
+                }
+            }
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final String INDENT = "  ";
+
+    private static TypeConstant s_typeDoc;
+    private static TypeConstant s_typeFPLiteral;
+    }
@@ -0,0 +1,493 @@
+package org.xvm.runtime.template;
+
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Constant;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.constants.DecimalConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+
+import org.xvm.runtime.template.xEnum.EnumHandle;
+
+import org.xvm.type.Decimal;
+
+
+/**
+ * Abstract base for Dec32, Dec64 and Dec128.
+ * <p/>
+ * The arithmetic is performed on the IEEE-754-2008 encoded values by the Decimal32, Decimal64 and
+ * Decimal128 classes, which only resort to BigDecimal for the uncommon cases (such as a 128-bit
+ * value with more than 16 significant digits). Values compare (and hash) numerically, so that e.g.
+ * 1.0 and 1.00 are equal.
+ */
+public abstract class xBaseDecFP
+        extends xConst
+    {
+    public final int f_cBits;
+
+    public xBaseDecFP(TemplateRegistry templates, ClassStructure structure, int cBits)
+        {
+        super(templates, structure, false);
+
+        f_cBits = cBits;
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        markNativeMethod("toString", VOID, STRING);
+
+        // @Op methods
+        markNativeMethod("abs", VOID, THIS);
+        markNativeMethod("add", THIS, THIS);
+        markNativeMethod("sub", THIS, THIS);
+        markNativeMethod("mul", THIS, THIS);
+        markNativeMethod("div", THIS, THIS);
+        markNativeMethod("mod", THIS, THIS);
+        markNativeMethod("neg", VOID, THIS);
+
+        // FPNumber methods
+        markNativeMethod("round", new String[]{"FPNumber.Rounding"}, THIS);
+        markNativeMethod("floor", VOID, THIS);
+        markNativeMethod("ceil" , VOID, THIS);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int createConstHandle(Frame frame, Constant constant)
+        {
+        if (constant instanceof DecimalConstant)
+            {
+            frame.pushStack(makeHandle(((DecimalConstant) constant).getValue()));
+            return Op.R_NEXT;
+            }
+
+        return super.createConstHandle(frame, constant);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        switch (method.getName())
+            {
+            case "add":
+                return invokeAdd(frame, hTarget, hArg, iReturn);
+
+            case "sub":
+                return invokeSub(frame, hTarget, hArg, iReturn);
+
+            case "mul":
+                return invokeMul(frame, hTarget, hArg, iReturn);
+
+            case "div":
+                return invokeDiv(frame, hTarget, hArg, iReturn);
+
+            case "mod":
+                return invokeMod(frame, hTarget, hArg, iReturn);
+
+            case "round":
+                {
+                int nRounding = hArg == ObjectHandle.DEFAULT
+                        ? ROUNDING_TIES_TO_AWAY
+                        : ((EnumHandle) hArg).getValue();
+                return frame.assignValue(iReturn, round(hTarget, toRoundingMode(nRounding)));
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        switch (method.getName())
+            {
+            case "abs":
+                return frame.assignValue(iReturn,
+                    getDecimal(hTarget).isSigned() ? neg(hTarget) : hTarget);
+
+            case "neg":
+                return invokeNeg(frame, hTarget, iReturn);
+
+            case "floor":
+                return frame.assignValue(iReturn, round(hTarget, RoundingMode.FLOOR));
+
+            case "ceil":
+                return frame.assignValue(iReturn, round(hTarget, RoundingMode.CEILING));
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    @Override
+    public int invokeAdd(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        try
+            {
+            return frame.assignValue(iReturn, add(hTarget, hArg));
+            }
+        catch (ArithmeticException e)
+            {
+            BigDecimal bigdec1 = getDecimal(hTarget).toBigDecimal();
+            BigDecimal bigdec2 = getDecimal(hArg).toBigDecimal();
+            return outOfRange(frame, bigdec1.add(bigdec2), iReturn);
+            }
+        }
+
+    @Override
+    public int invokeSub(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        try
+            {
+            return frame.assignValue(iReturn, subtract(hTarget, hArg));
+            }
+        catch (ArithmeticException e)
+            {
+            BigDecimal bigdec1 = getDecimal(hTarget).toBigDecimal();
+            BigDecimal bigdec2 = getDecimal(hArg).toBigDecimal();
+            return outOfRange(frame, bigdec1.subtract(bigdec2), iReturn);
+            }
+        }
+
+    @Override
+    public int invokeMul(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        try
+            {
+            return frame.assignValue(iReturn, multiply(hTarget, hArg));
+            }
+        catch (ArithmeticException e)
+            {
+            BigDecimal bigdec1 = getDecimal(hTarget).toBigDecimal();
+            BigDecimal bigdec2 = getDecimal(hArg).toBigDecimal();
+            return outOfRange(frame, bigdec1.multiply(bigdec2), iReturn);
+            }
+        }
+
+    @Override
+    public int invokeDiv(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        try
+            {
+            return frame.assignValue(iReturn, divide(hTarget, hArg));
+            }
+        catch (ArithmeticException e)
+            {
+            BigDecimal bigdec1 = getDecimal(hTarget).toBigDecimal();
+            BigDecimal bigdec2 = getDecimal(hArg).toBigDecimal();
+            return outOfRange(frame, bigdec1.divide(bigdec2, MathContext.DECIMAL128), iReturn);
+            }
+        }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The modulo is calculated the same way that the integer types do it, i.e. the result is never
+     * negative.
+     */
+    @Override
+    public int invokeMod(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        Decimal dec1 = getDecimal(hTarget);
+        Decimal dec2 = getDecimal(hArg);
+
+        if (!dec1.isFinite() || !dec2.isFinite())
+            {
+            return frame.assignValue(iReturn, makeHandle(getNaN()));
+            }
+
+        if (dec2.isZero())
+            {
+            return frame.raiseException(xException.divisionByZero(frame));
+            }
+
+        BigDecimal bigdec1 = dec1.toBigDecimal();
+        BigDecimal bigdec2 = dec2.toBigDecimal();
+        BigDecimal bigdecR = bigdec1.remainder(bigdec2);
+        if (bigdecR.signum() < 0)
+            {
+            bigdecR = bigdecR.add(bigdec2.abs());
+            }
+
+        try
+            {
+            return frame.assignValue(iReturn, makeHandle(bigdecR));
+            }
+        catch (ArithmeticException e)
+            {
+            return outOfRange(frame, bigdecR, iReturn);
+            }
+        }
+
+    @Override
+    public int invokeNeg(Frame frame, ObjectHandle hTarget, int iReturn)
+        {
+        return frame.assignValue(iReturn, neg(hTarget));
+        }
+
+    @Override
+    public int buildHashCode(Frame frame, ClassComposition clazz, ObjectHandle hTarget, int iReturn)
+        {
+        return frame.assignValue(iReturn, xInt64.makeHandle(hTarget.hashCode()));
+        }
+
+    // ----- comparison support -----
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The decimal values are compared numerically, i.e. the members of a cohort (such as 1.0 and
+     * 1.00) are equal, and -0 is equal to 0. NaN is equal to itself.
+     */
+    @Override
+    public int callEquals(Frame frame, ClassComposition clazz,
+                          ObjectHandle hValue1, ObjectHandle hValue2, int iReturn)
+        {
+        return frame.assignValue(iReturn, xBoolean.makeHandle(hValue1.equals(hValue2)));
+        }
+
+    @Override
+    public int callCompare(Frame frame, ClassComposition clazz,
+                           ObjectHandle hValue1, ObjectHandle hValue2, int iReturn)
+        {
+        return frame.assignValue(iReturn, xOrdered.makeHandle(hValue1.compareTo(hValue2)));
+        }
+
+    // ----- Object methods -----
+
+    @Override
+    protected int buildStringValue(Frame frame, ObjectHandle hTarget, int iReturn)
+        {
+        return frame.assignValue(iReturn, xString.makeHandle(getDecimal(hTarget).toString()));
+        }
+
+    // ----- abstract operations -----
+
+    /**
+     * @return the sum of the two values
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    protected abstract ObjectHandle add(ObjectHandle h1, ObjectHandle h2);
+
+    /**
+     * @return the difference of the two values
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    protected abstract ObjectHandle subtract(ObjectHandle h1, ObjectHandle h2);
+
+    /**
+     * @return the product of the two values
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    protected abstract ObjectHandle multiply(ObjectHandle h1, ObjectHandle h2);
+
+    /**
+     * @return the quotient of the two values
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    protected abstract ObjectHandle divide(ObjectHandle h1, ObjectHandle h2);
+
+    /**
+     * @return the negated value
+     */
+    protected abstract ObjectHandle neg(ObjectHandle h);
+
+    /**
+     * @return the value held by the specified handle as a Decimal
+     */
+    protected abstract Decimal getDecimal(ObjectHandle h);
+
+    /**
+     * @return the NaN value of the type represented by this template
+     */
+    protected abstract Decimal getNaN();
+
+    /**
+     * @param fNeg  true for the negative Infinity
+     *
+     * @return the positive or negative Infinity value of the type represented by this template
+     */
+    protected abstract Decimal getInfinity(boolean fNeg);
+
+    /**
+     * @param fNeg  true for the negative zero
+     *
+     * @return the positive or negative zero value of the type represented by this template
+     */
+    protected abstract Decimal getZero(boolean fNeg);
+
+    /**
+     * Create a handle for the specified value.
+     *
+     * @param dec  a Decimal of the size represented by this template
+     *
+     * @return the handle
+     */
+    public abstract ObjectHandle makeHandle(Decimal dec);
+
+    /**
+     * Create a handle for the specified value, rounding the value to the precision of the type
+     * represented by this template.
+     *
+     * @param bigdec  the value
+     *
+     * @return the handle
+     *
+     * @throws ArithmeticException if the value is out of range
+     */
+    protected abstract ObjectHandle makeHandle(BigDecimal bigdec);
+
+    // ----- helpers -----
+
+    /**
+     * Round the specified value to an integer value.
+     *
+     * @param h     the handle for the value to round
+     * @param mode  the rounding mode
+     *
+     * @return the handle for the rounded value
+     */
+    protected ObjectHandle round(ObjectHandle h, RoundingMode mode)
+        {
+        Decimal dec = getDecimal(h);
+        if (!dec.isFinite())
+            {
+            return h;
+            }
+
+        BigDecimal bigdec = dec.toBigDecimal();
+        return bigdec.scale() <= 0
+                ? h
+                : makeHandle(bigdec.setScale(0, mode));
+        }
+
+    /**
+     * @param nRounding  the ordinal of the FPNumber.Rounding value
+     *
+     * @return the corresponding RoundingMode
+     */
+    protected static RoundingMode toRoundingMode(int nRounding)
+        {
+        switch (nRounding)
+            {
+            case 0: // TiesToEven
+                return RoundingMode.HALF_EVEN;
+
+            case 1: // TiesToAway
+                return RoundingMode.HALF_UP;
+
+            case 2: // TowardPositive
+                return RoundingMode.CEILING;
+
+            case 3: // TowardZero
+                return RoundingMode.DOWN;
+
+            case 4: // TowardNegative
+                return RoundingMode.FLOOR;
+
+            default:
+                throw new IllegalArgumentException("rounding=" + nRounding);
+            }
+        }
+
+    /**
+     * Assign the result of an operation whose value cannot be represented by the type of this
+     * template. As specified by IEEE 754, a result that overflows is an Infinity, and a result that
+     * underflows is a zero, in both cases carrying the sign of the exact result.
+     *
+     * @param frame    the current frame
+     * @param bigdec   the (unrounded) result of the operation
+     * @param iReturn  the register to assign the result to
+     *
+     * @return one of the {@link Op#R_NEXT}, {@link Op#R_CALL} or {@link Op#R_EXCEPTION} values
+     */
+    protected int outOfRange(Frame frame, BigDecimal bigdec, int iReturn)
+        {
+        boolean fNeg = bigdec.signum() < 0;
+        boolean fBig = bigdec.precision() - bigdec.scale() > 0;
+        return frame.assignValue(iReturn, makeHandle(fBig ? getInfinity(fNeg) : getZero(fNeg)));
+        }
+
+    /**
+     * Calculate a hash code that is the same for all members of a cohort, i.e. the hash code is
+     * consistent with the numeric equality.
+     *
+     * @param fNeg  true iff the value is negative
+     * @param nSig  the significand (magnitude)
+     * @param nExp  the exponent
+     *
+     * @return the hash code
+     */
+    protected static int hashCode(boolean fNeg, long nSig, int nExp)
+        {
+        if (nSig == 0)
+            {
+            return 0;
+            }
+
+        while (nSig % 10 == 0)
+            {
+            nSig /= 10;
+            ++nExp;
+            }
+        return Long.hashCode(fNeg ? -nSig : nSig) * 31 + nExp;
+        }
+
+    /**
+     * Calculate a hash code for a NaN or Infinity value that is consistent with the numeric
+     * equality, i.e. all NaN values have the same hash code.
+     *
+     * @param dec  a decimal value that is not finite
+     *
+     * @return the hash code
+     */
+    protected static int hashNonFinite(Decimal dec)
+        {
+        return dec.isNaN() ? 0x7C000000 : dec.isSigned() ? 0xF8000000 : 0x78000000;
+        }
+
+    /**
+     * Calculate a hash code for a BigDecimal value that is consistent with
+     * {@link #hashCode(boolean, long, int)}.
+     */
+    protected static int hashCode(BigDecimal bigdec)
+        {
+        if (bigdec.signum() == 0)
+            {
+            return 0;
+            }
+
+        bigdec = bigdec.stripTrailingZeros();
+        return bigdec.precision() <= 18
+                ? Long.hashCode(bigdec.unscaledValue().longValue()) * 31 - bigdec.scale()
+                : bigdec.hashCode();
+        }
+
+    /**
+     * The ordinal of the default FPNumber.Rounding value.
+     */
+    private static final int ROUNDING_TIES_TO_AWAY = 1;
+    }
@@ -0,0 +1,565 @@
+package org.xvm.runtime.template;
+
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Constant;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.constants.Float32Constant;
+import org.xvm.asm.constants.Float64Constant;
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.xEnum.EnumHandle;
+
+
+/**
+ * Abstract base for Float32 and Float64.
+ * <p/>
+ * The values of both types are held as a Java double; the results of Float32 operations are
+ * rounded to the nearest float. (Since a double has more than twice the precision of a float, the
+ * double rounding of the basic operations produces the correctly rounded float result.)
+ */
+public abstract class xBaseFP
+        extends xConst
+    {
+    public final int f_cBits;
+
+    public xBaseFP(TemplateRegistry templates, ClassStructure structure, int cBits)
+        {
+        super(templates, structure, false);
+
+        f_cBits = cBits;
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        String sName = f_struct.getName();
+
+        markNativeMethod("toInt8"   , VOID, new String[]{"Int8"});
+        markNativeMethod("toInt16"  , VOID, new String[]{"Int16"});
+        markNativeMethod("toInt32"  , VOID, new String[]{"Int32"});
+        markNativeMethod("toInt"    , VOID, new String[]{"Int64"});
+        markNativeMethod("toByte"   , VOID, new String[]{"UInt8"});
+        markNativeMethod("toUInt16" , VOID, new String[]{"UInt16"});
+        markNativeMethod("toUInt32" , VOID, new String[]{"UInt32"});
+        markNativeMethod("toUInt"   , VOID, new String[]{"UInt64"});
+        markNativeMethod("toFloat32", VOID, sName.equals("Float32") ? THIS : new String[]{"Float32"});
+        markNativeMethod("toFloat64", VOID, sName.equals("Float64") ? THIS : new String[]{"Float64"});
+        markNativeMethod("toString" , VOID, STRING);
+
+        // @Op methods
+        markNativeMethod("abs", VOID, THIS);
+        markNativeMethod("add", THIS, THIS);
+        markNativeMethod("sub", THIS, THIS);
+        markNativeMethod("mul", THIS, THIS);
+        markNativeMethod("div", THIS, THIS);
+        markNativeMethod("mod", THIS, THIS);
+        markNativeMethod("neg", VOID, THIS);
+        markNativeMethod("pow", THIS, THIS);
+
+        // FPNumber methods
+        markNativeMethod("round"     , new String[]{"FPNumber.Rounding"}, THIS);
+        markNativeMethod("scaleByPow", INT , THIS);
+        markNativeMethod("atan2"     , THIS, THIS);
+        for (String sMethod : MATH_FUNCTIONS)
+            {
+            markNativeMethod(sMethod, VOID, THIS);
+            }
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int createConstHandle(Frame frame, Constant constant)
+        {
+        if (constant instanceof Float64Constant)
+            {
+            frame.pushStack(makeFloat(((Float64Constant) constant).getValue()));
+            return Op.R_NEXT;
+            }
+
+        if (constant instanceof Float32Constant)
+            {
+            frame.pushStack(makeFloat(((Float32Constant) constant).getValue()));
+            return Op.R_NEXT;
+            }
+
+        return super.createConstHandle(frame, constant);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        switch (method.getName())
+            {
+            case "add":
+                return invokeAdd(frame, hTarget, hArg, iReturn);
+
+            case "sub":
+                return invokeSub(frame, hTarget, hArg, iReturn);
+
+            case "mul":
+                return invokeMul(frame, hTarget, hArg, iReturn);
+
+            case "div":
+                return invokeDiv(frame, hTarget, hArg, iReturn);
+
+            case "mod":
+                return invokeMod(frame, hTarget, hArg, iReturn);
+
+            case "pow":
+                {
+                double dfl1 = ((FloatHandle) hTarget).getValue();
+                double dfl2 = ((FloatHandle) hArg).getValue();
+                return frame.assignValue(iReturn, makeFloat(Math.pow(dfl1, dfl2)));
+                }
+
+            case "atan2":
+                {
+                double dflX = ((FloatHandle) hTarget).getValue();
+                double dflY = ((FloatHandle) hArg).getValue();
+                return frame.assignValue(iReturn, makeFloat(Math.atan2(dflY, dflX)));
+                }
+
+            case "scaleByPow":
+                {
+                double dfl = ((FloatHandle) hTarget).getValue();
+                long   lPow = ((JavaLong) hArg).getValue();
+                int    nPow = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, lPow));
+                return frame.assignValue(iReturn, makeFloat(Math.scalb(dfl, nPow)));
+                }
+
+            case "round":
+                {
+                double dfl       = ((FloatHandle) hTarget).getValue();
+                int    nRounding = hArg == ObjectHandle.DEFAULT
+                        ? ROUNDING_TIES_TO_AWAY
+                        : ((EnumHandle) hArg).getValue();
+                return frame.assignValue(iReturn, makeFloat(round(dfl, nRounding)));
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        String sMethod = method.getName();
+        switch (sMethod)
+            {
+            case "abs":
+                {
+                double dfl = ((FloatHandle) hTarget).getValue();
+                return frame.assignValue(iReturn, makeFloat(Math.abs(dfl)));
+                }
+
+            case "neg":
+                return invokeNeg(frame, hTarget, iReturn);
+
+            case "toInt8":
+            case "toInt16":
+            case "toInt32":
+            case "toInt":
+            case "toByte":
+            case "toUInt16":
+            case "toUInt32":
+            case "toUInt":
+            case "toFloat32":
+            case "toFloat64":
+                {
+                TypeConstant  typeRet  = method.getReturn(0).getType();
+                ClassTemplate template = f_templates.getTemplate(typeRet);
+
+                if (template == this)
+                    {
+                    return frame.assignValue(iReturn, hTarget);
+                    }
+
+                double dfl = ((FloatHandle) hTarget).getValue();
+
+                if (template instanceof xBaseFP)
+                    {
+                    return frame.assignValue(iReturn, ((xBaseFP) template).makeFloat(dfl));
+                    }
+
+                if (template instanceof xConstrainedInteger)
+                    {
+                    return convertToConstrainedType(frame, (xConstrainedInteger) template, dfl, iReturn);
+                    }
+                break;
+                }
+
+            default:
+                if (ahArg.length == 0)
+                    {
+                    double dfl = ((FloatHandle) hTarget).getValue();
+                    double dflR;
+                    switch (sMethod)
+                        {
+                        case "floor":    dflR = Math.floor(dfl);     break;
+                        case "ceil":     dflR = Math.ceil(dfl);      break;
+                        case "exp":      dflR = Math.exp(dfl);       break;
+                        case "log":      dflR = Math.log(dfl);       break;
+                        case "log2":     dflR = Math.log(dfl) / LN_2; break;
+                        case "log10":    dflR = Math.log10(dfl);     break;
+                        case "sqrt":     dflR = Math.sqrt(dfl);      break;
+                        case "cbrt":     dflR = Math.cbrt(dfl);      break;
+                        case "sin":      dflR = Math.sin(dfl);       break;
+                        case "cos":      dflR = Math.cos(dfl);       break;
+                        case "tan":      dflR = Math.tan(dfl);       break;
+                        case "asin":     dflR = Math.asin(dfl);      break;
+                        case "acos":     dflR = Math.acos(dfl);      break;
+                        case "atan":     dflR = Math.atan(dfl);      break;
+                        case "sinh":     dflR = Math.sinh(dfl);      break;
+                        case "cosh":     dflR = Math.cosh(dfl);      break;
+                        case "tanh":     dflR = Math.tanh(dfl);      break;
+                        case "asinh":    dflR = asinh(dfl);          break;
+                        case "acosh":    dflR = Math.log(dfl + Math.sqrt(dfl * dfl - 1.0)); break;
+                        case "atanh":    dflR = 0.5 * Math.log((1.0 + dfl) / (1.0 - dfl));  break;
+                        case "deg2rad":  dflR = Math.toRadians(dfl); break;
+                        case "rad2deg":  dflR = Math.toDegrees(dfl); break;
+                        case "nextUp":   return frame.assignValue(iReturn, makeFloat(nextUp(dfl)));
+                        case "nextDown": return frame.assignValue(iReturn, makeFloat(nextDown(dfl)));
+                        default:
+                            return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+                        }
+                    return frame.assignValue(iReturn, makeFloat(dflR));
+                    }
+                break;
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    @Override
+    public int invokeAdd(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        double dfl1 = ((FloatHandle) hTarget).getValue();
+        double dfl2 = ((FloatHandle) hArg).getValue();
+
+        return frame.assignValue(iReturn, makeFloat(dfl1 + dfl2));
+        }
+
+    @Override
+    public int invokeSub(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        double dfl1 = ((FloatHandle) hTarget).getValue();
+        double dfl2 = ((FloatHandle) hArg).getValue();
+
+        return frame.assignValue(iReturn, makeFloat(dfl1 - dfl2));
+        }
+
+    @Override
+    public int invokeMul(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        double dfl1 = ((FloatHandle) hTarget).getValue();
+        double dfl2 = ((FloatHandle) hArg).getValue();
+
+        return frame.assignValue(iReturn, makeFloat(dfl1 * dfl2));
+        }
+
+    @Override
+    public int invokeDiv(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        double dfl1 = ((FloatHandle) hTarget).getValue();
+        double dfl2 = ((FloatHandle) hArg).getValue();
+
+        return frame.assignValue(iReturn, makeFloat(dfl1 / dfl2));
+        }
+
+    @Override
+    public int invokeMod(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int iReturn)
+        {
+        double dfl1 = ((FloatHandle) hTarget).getValue();
+        double dfl2 = ((FloatHandle) hArg).getValue();
+
+        return frame.assignValue(iReturn, makeFloat(mod(dfl1, dfl2)));
+        }
+
+    @Override
+    public int invokeDivMod(Frame frame, ObjectHandle hTarget, ObjectHandle hArg, int[] aiReturn)
+        {
+        double dfl1 = ((FloatHandle) hTarget).getValue();
+        double dfl2 = ((FloatHandle) hArg).getValue();
+
+        // the quotient is the integer value that is consistent with the modulo, i.e.
+        // "dfl1 == quotient * dfl2 + modulo"
+        double dflMod = mod(dfl1, dfl2);
+        double dflQuo = Math.rint((dfl1 - dflMod) / dfl2);
+
+        return frame.assignValues(aiReturn, makeFloat(dflQuo), makeFloat(dflMod));
+        }
+
+    @Override
+    public int invokeNeg(Frame frame, ObjectHandle hTarget, int iReturn)
+        {
+        double dfl = ((FloatHandle) hTarget).getValue();
+
+        return frame.assignValue(iReturn, makeFloat(-dfl));
+        }
+
+    @Override
+    public int buildHashCode(Frame frame, ClassComposition clazz, ObjectHandle hTarget, int iReturn)
+        {
+        double dfl = ((FloatHandle) hTarget).getValue();
+
+        return frame.assignValue(iReturn, xInt64.makeHandle(Double.hashCode(dfl)));
+        }
+
+    // ----- comparison support -----
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Like Java's Double.equals(), the floating point values are compared by their bits, so that
+     * the equality is consistent with the hash code: NaN is equal to itself, and -0 is not equal
+     * to 0. This deliberately differs from the IEEE 754 comparison (which the "==" operator of
+     * Java uses): the runtime treats any handle as equal to itself without asking the template
+     * (see {@link TypeConstant#callEquals}), so "NaN != NaN" could not be applied consistently
+     * anyway, and a Float used as a key in a Map or a member of a Set has to be equal to itself.
+     */
+    @Override
+    public int callEquals(Frame frame, ClassComposition clazz,
+                          ObjectHandle hValue1, ObjectHandle hValue2, int iReturn)
+        {
+        FloatHandle h1 = (FloatHandle) hValue1;
+        FloatHandle h2 = (FloatHandle) hValue2;
+
+        return frame.assignValue(iReturn,
+            xBoolean.makeHandle(Double.compare(h1.getValue(), h2.getValue()) == 0));
+        }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The order is consistent with {@link #callEquals}: -0 is ordered before 0, and NaN is
+     * ordered after all other values (as by Double.compare()).
+     */
+    @Override
+    public int callCompare(Frame frame, ClassComposition clazz,
+                           ObjectHandle hValue1, ObjectHandle hValue2, int iReturn)
+        {
+        FloatHandle h1 = (FloatHandle) hValue1;
+        FloatHandle h2 = (FloatHandle) hValue2;
+
+        return frame.assignValue(iReturn,
+            xOrdered.makeHandle(Double.compare(h1.getValue(), h2.getValue())));
+        }
+
+    // ----- Object methods -----
+
+    @Override
+    protected int buildStringValue(Frame frame, ObjectHandle hTarget, int iReturn)
+        {
+        double dfl = ((FloatHandle) hTarget).getValue();
+
+        return frame.assignValue(iReturn, xString.makeHandle(
+            f_cBits == 32
+                ? String.valueOf((float) dfl)
+                : String.valueOf(dfl)));
+        }
+
+    // ----- helpers -----
+
+    /**
+     * Converts a floating point value to the integer type represented by the template; the
+     * fractional part is truncated.
+     *
+     * @return one of the {@link Op#R_NEXT} or {@link Op#R_EXCEPTION} values
+     */
+    protected int convertToConstrainedType(Frame frame, xConstrainedInteger template,
+                                           double dfl, int iReturn)
+        {
+        int    cBits = template.f_cNumBits;
+        double dflLo = template.f_fSigned ? -Math.scalb(1.0, cBits - 1) : 0.0;
+        double dflHi = template.f_fSigned ?  Math.scalb(1.0, cBits - 1) : Math.scalb(1.0, cBits);
+
+        // note: NaN fails both comparisons
+        double dflInt = dfl < 0 ? Math.ceil(dfl) : Math.floor(dfl);
+        if (!(dflInt >= dflLo && dflInt < dflHi))
+            {
+            return template.overflow(frame);
+            }
+
+        long lValue = dflInt < 0x1p63
+                ? (long) dflInt
+                : (long) (dflInt - 0x1p63) + Long.MIN_VALUE; // UInt64 values past Int64.maxvalue
+        return frame.assignValue(iReturn, template.makeJavaLong(lValue));
+        }
+
+    /**
+     * Round the specified value to an integer value.
+     *
+     * @param dfl        the value to round
+     * @param nRounding  the ordinal of the FPNumber.Rounding value
+     *
+     * @return the rounded value
+     */
+    protected static double round(double dfl, int nRounding)
+        {
+        switch (nRounding)
+            {
+            case 0: // TiesToEven
+                return Math.rint(dfl);
+
+            case 1: // TiesToAway
+                {
+                // adding 0.5 before taking the floor would itself round, e.g. for the largest
+                // value below 0.5, or for the odd values of 2^52 and above
+                double dflAbs   = Math.abs(dfl);
+                double dflFloor = Math.floor(dflAbs);
+                return Math.copySign(dflAbs - dflFloor >= 0.5 ? dflFloor + 1 : dflFloor, dfl);
+                }
+
+            case 2: // TowardPositive
+                return Math.ceil(dfl);
+
+            case 3: // TowardZero
+                return dfl < 0 ? Math.ceil(dfl) : Math.floor(dfl);
+
+            case 4: // TowardNegative
+                return Math.floor(dfl);
+
+            default:
+                throw new IllegalArgumentException("rounding=" + nRounding);
+            }
+        }
+
+    /**
+     * Calculate the modulo the same way that the integer types do, i.e. the result is never
+     * negative.
+     */
+    protected static double mod(double dfl1, double dfl2)
+        {
+        double dflMod = dfl1 % dfl2;
+        if (dflMod < 0)
+            {
+            dflMod += Math.abs(dfl2);
+            }
+        return dflMod;
+        }
+
+    private static double asinh(double dfl)
+        {
+        return dfl == Double.NEGATIVE_INFINITY
+                ? dfl
+                : Math.log(dfl + Math.sqrt(dfl * dfl + 1.0));
+        }
+
+    /**
+     * @return the least value of this type that is greater than the specified value
+     */
+    protected double nextUp(double dfl)
+        {
+        return f_cBits == 32 ? Math.nextUp((float) dfl) : Math.nextUp(dfl);
+        }
+
+    /**
+     * @return the greatest value of this type that is less than the specified value
+     */
+    protected double nextDown(double dfl)
+        {
+        return f_cBits == 32 ? Math.nextDown((float) dfl) : Math.nextDown(dfl);
+        }
+
+    /**
+     * Create a handle for the specified value, rounding the value to the precision of the type
+     * represented by this template.
+     *
+     * @param dfl  the floating point value
+     *
+     * @return the handle
+     */
+    public FloatHandle makeFloat(double dfl)
+        {
+        return new FloatHandle(getCanonicalClass(), f_cBits == 32 ? (double) (float) dfl : dfl);
+        }
+
+    /**
+     * The ordinal of the default FPNumber.Rounding value.
+     */
+    private static final int ROUNDING_TIES_TO_AWAY = 1;
+
+    /**
+     * The natural log of 2.
+     */
+    private static final double LN_2 = Math.log(2.0);
+
+    /**
+     * The no-argument math functions.
+     */
+    private static final String[] MATH_FUNCTIONS =
+        {
+        "floor", "ceil", "exp", "log", "log2", "log10", "sqrt", "cbrt",
+        "sin", "cos", "tan", "asin", "acos", "atan",
+        "sinh", "cosh", "tanh", "asinh", "acosh", "atanh",
+        "deg2rad", "rad2deg", "nextUp", "nextDown",
+        };
+
+    public static class FloatHandle
+            extends ObjectHandle
+        {
+        protected double m_dflValue;
+
+        public FloatHandle(TypeComposition clazz, double dfl)
+            {
+            super(clazz);
+            m_dflValue = dfl;
+            }
+
+        public double getValue()
+            {
+            return m_dflValue;
+            }
+
+        @Override
+        public boolean isNativeEqual()
+            {
+            return true;
+            }
+
+        @Override
+        public int compareTo(ObjectHandle that)
+            {
+            return Double.compare(m_dflValue, ((FloatHandle) that).getValue());
+            }
+
+        @Override
+        public int hashCode()
+            {
+            return Double.hashCode(m_dflValue);
+            }
+
+        @Override
+        public boolean equals(Object obj)
+            {
+            return obj instanceof FloatHandle &&
+                Double.compare(m_dflValue, ((FloatHandle) obj).getValue()) == 0;
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + m_dflValue;
+            }
+        }
+    }
@@ -98,7 +98,8 @@ public abstract class xBaseInt128
                     LongLong ll = ((LongLongHandle) hTarget).getValue();
                     if (ll.signum() < 0)
                         {
-                        ll = new LongLong(ll.getLowValue(), -ll.getHighValue());
+                        // the two's complement negation; Int128.minvalue becomes 2^127
+                        ll = ll.complement().next(false);
                         }
 
                     return frame.assignValue(iReturn, xUInt128.INSTANCE.makeLongLong(ll));
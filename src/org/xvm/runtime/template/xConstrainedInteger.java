@@ -63,6 +63,7 @@ public abstract class xConstrainedInteger
         markNativeProperty("trailingZeroCount");
 
         markNativeMethod("toUnchecked", VOID, null);
+        markNativeMethod("toString"   , VOID, STRING);
 
         markNativeMethod("toInt8"  , VOID, sName.equals("Int8")   ? THIS : new String[]{"Int8"});
         markNativeMethod("toInt16" , VOID, sName.equals("Int16")  ? THIS : new String[]{"Int16"});
@@ -158,8 +159,9 @@ public abstract class xConstrainedInteger
             {
             ByteArrayHandle hBytes = (ByteArrayHandle) ahVar[0];
             byte[]          abVal  = hBytes.m_abValue;
+            int             ofVal  = hBytes.m_ofStart;
 
-            int cBytes = abVal.length;
+            int cBytes = hBytes.m_cSize;
             if (cBytes != f_cNumBits / 8)
                 {
                 return frame.raiseException(xException.illegalArgument(frame, "Invalid byte count: " + cBytes));
@@ -168,7 +170,7 @@ public abstract class xConstrainedInteger
             long lResult = 0;
             for (int i = 0; i < cBytes; i++)
                 {
-                lResult = lResult << 8 | abVal[i];
+                lResult = lResult << 8 | abVal[ofVal + i];
                 }
 
             return convertLong(frame, lResult, iReturn);
@@ -339,6 +341,7 @@ public abstract class xConstrainedInteger
             case "toChar":
             case "toBooleanArray":
             case "toBitArray":
+            case "toFloat64":
                 {
                 TypeConstant  typeRet  = method.getReturn(0).getType();
                 ClassTemplate template = f_templates.getTemplate(typeRet);
@@ -376,6 +379,15 @@ public abstract class xConstrainedInteger
                     return templateTo.convertLong(frame, lValue, iReturn);
                     }
 
+                if (template instanceof xBaseFP)
+                    {
+                    long   l   = ((JavaLong) hTarget).getValue();
+                    double dfl = f_fSigned || l >= 0
+                            ? (double) l
+                            : (double) (l >>> 1 | l & 1) * 2.0; // UInt64 values past Int64.maxvalue
+                    return frame.assignValue(iReturn, ((xBaseFP) template).makeFloat(dfl));
+                    }
+
                 if (template instanceof xChar)
                     {
                     long l = ((JavaLong) hTarget).getValue();
@@ -707,7 +719,8 @@ public abstract class xConstrainedInteger
         {
         long l = ((JavaLong) hTarget).getValue();
 
-        return frame.assignValue(iReturn, xString.makeHandle(String.valueOf(l)));
+        return frame.assignValue(iReturn, xString.makeHandle(
+                f_fSigned ? String.valueOf(l) : Long.toUnsignedString(l)));
         }
 
     /**
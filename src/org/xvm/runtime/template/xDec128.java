@@ -0,0 +1,203 @@
+package org.xvm.runtime.template;
+
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.type.Decimal;
+import org.xvm.type.Decimal128;
+import org.xvm.type.Decimal64;
+
+
+/**
+ * Native Dec128 support.
+ */
+public class xDec128
+        extends xBaseDecFP
+    {
+    public static xDec128 INSTANCE;
+
+    public xDec128(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure, 128);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    protected ObjectHandle add(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal128.add(((DecHandle) h1).getValue(), ((DecHandle) h2).getValue()));
+        }
+
+    @Override
+    protected ObjectHandle subtract(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal128.subtract(((DecHandle) h1).getValue(), ((DecHandle) h2).getValue()));
+        }
+
+    @Override
+    protected ObjectHandle multiply(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal128.multiply(((DecHandle) h1).getValue(), ((DecHandle) h2).getValue()));
+        }
+
+    @Override
+    protected ObjectHandle divide(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal128.divide(((DecHandle) h1).getValue(), ((DecHandle) h2).getValue()));
+        }
+
+    @Override
+    protected ObjectHandle neg(ObjectHandle h)
+        {
+        return makeDec(((DecHandle) h).getValue().negate());
+        }
+
+    @Override
+    protected Decimal getDecimal(ObjectHandle h)
+        {
+        return ((DecHandle) h).getValue();
+        }
+
+    @Override
+    protected Decimal getNaN()
+        {
+        return Decimal128.NaN;
+        }
+
+    @Override
+    protected Decimal getInfinity(boolean fNeg)
+        {
+        return fNeg ? Decimal128.NEG_INFINITY : Decimal128.POS_INFINITY;
+        }
+
+    @Override
+    protected Decimal getZero(boolean fNeg)
+        {
+        return fNeg ? Decimal128.NEG_ZERO : Decimal128.POS_ZERO;
+        }
+
+    @Override
+    public ObjectHandle makeHandle(Decimal dec)
+        {
+        return makeDec((Decimal128) dec);
+        }
+
+    @Override
+    protected ObjectHandle makeHandle(BigDecimal bigdec)
+        {
+        return makeDec(new Decimal128(bigdec.round(MathContext.DECIMAL128)));
+        }
+
+    /**
+     * Obtain a handle for the specified 128-bit decimal value. The handles for the small integer
+     * values (0..999 with a zero exponent) are cached.
+     *
+     * @param dec  the 128-bit decimal value
+     *
+     * @return the handle
+     */
+    public DecHandle makeDec(Decimal128 dec)
+        {
+        long nLBits = dec.getLowBits();
+        if (dec.getHighBits() == SMALL_HBITS && (nLBits & ~0x3FFL) == 0)
+            {
+            DecHandle[] ahCache = m_ahCache;
+            int         nDeclet = (int) nLBits;
+            DecHandle   hDec    = ahCache[nDeclet];
+            if (hDec == null)
+                {
+                ahCache[nDeclet] = hDec = new DecHandle(getCanonicalClass(), dec);
+                }
+            return hDec;
+            }
+
+        return new DecHandle(getCanonicalClass(), dec);
+        }
+
+    /**
+     * Trivial helper.
+     */
+    public static DecHandle makeHandle(Decimal128 dec)
+        {
+        return INSTANCE.makeDec(dec);
+        }
+
+    /**
+     * The high bits of a positive value with a zero exponent.
+     */
+    private static final long SMALL_HBITS = 0x2208000000000000L;
+
+    /**
+     * The cached handles for the small values, indexed by the declet.
+     */
+    private final DecHandle[] m_ahCache = new DecHandle[1024];
+
+    public static class DecHandle
+            extends ObjectHandle
+        {
+        protected final Decimal128 m_decValue;
+
+        public DecHandle(TypeComposition clazz, Decimal128 dec)
+            {
+            super(clazz);
+            m_decValue = dec;
+            }
+
+        public Decimal128 getValue()
+            {
+            return m_decValue;
+            }
+
+        @Override
+        public boolean isNativeEqual()
+            {
+            return true;
+            }
+
+        @Override
+        public int compareTo(ObjectHandle that)
+            {
+            return Decimal128.compare(m_decValue, ((DecHandle) that).getValue());
+            }
+
+        @Override
+        public int hashCode()
+            {
+            Decimal128 dec = m_decValue;
+            if (!dec.isFinite())
+                {
+                return hashNonFinite(dec);
+                }
+
+            long nBits = dec.toDecimal64Bits();
+            return nBits == Decimal64.NOT_COMPUTED
+                    ? xBaseDecFP.hashCode(dec.toBigDecimal())
+                    : xBaseDecFP.hashCode(nBits < 0, Decimal64.getSignificand(nBits),
+                                          Decimal64.getExponent(nBits));
+            }
+
+        @Override
+        public boolean equals(Object obj)
+            {
+            return obj instanceof DecHandle &&
+                Decimal128.compare(m_decValue, ((DecHandle) obj).getValue()) == 0;
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + m_decValue;
+            }
+        }
+    }
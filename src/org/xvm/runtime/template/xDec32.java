@@ -0,0 +1,196 @@
+package org.xvm.runtime.template;
+
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.type.Decimal;
+import org.xvm.type.Decimal32;
+
+
+/**
+ * Native Dec32 support.
+ */
+public class xDec32
+        extends xBaseDecFP
+    {
+    public static xDec32 INSTANCE;
+
+    public xDec32(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure, 32);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    protected ObjectHandle add(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal32.add(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle subtract(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal32.subtract(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle multiply(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal32.multiply(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle divide(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal32.divide(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle neg(ObjectHandle h)
+        {
+        return makeDec(((DecHandle) h).getBits() ^ Integer.MIN_VALUE);
+        }
+
+    @Override
+    protected Decimal getDecimal(ObjectHandle h)
+        {
+        return new Decimal32(((DecHandle) h).getBits());
+        }
+
+    @Override
+    protected Decimal getNaN()
+        {
+        return Decimal32.NaN;
+        }
+
+    @Override
+    protected Decimal getInfinity(boolean fNeg)
+        {
+        return fNeg ? Decimal32.NEG_INFINITY : Decimal32.POS_INFINITY;
+        }
+
+    @Override
+    protected Decimal getZero(boolean fNeg)
+        {
+        return fNeg ? Decimal32.NEG_ZERO : Decimal32.POS_ZERO;
+        }
+
+    @Override
+    public ObjectHandle makeHandle(Decimal dec)
+        {
+        return makeDec(((Decimal32) dec).toIntBits());
+        }
+
+    @Override
+    protected ObjectHandle makeHandle(BigDecimal bigdec)
+        {
+        return makeDec(Decimal32.toIntBits(bigdec.round(MathContext.DECIMAL32)));
+        }
+
+    /**
+     * Obtain a handle for the specified 32-bit decimal value. The handles for the small integer
+     * values (0..999 with a zero exponent) are cached.
+     *
+     * @param nBits  the 32-bit IEEE-754-2008 decimal value
+     *
+     * @return the handle
+     */
+    public DecHandle makeDec(int nBits)
+        {
+        if ((nBits & ~0x3FF) == SMALL_BITS)
+            {
+            DecHandle[] ahCache = m_ahCache;
+            int         nDeclet = nBits & 0x3FF;
+            DecHandle   hDec    = ahCache[nDeclet];
+            if (hDec == null)
+                {
+                ahCache[nDeclet] = hDec = new DecHandle(getCanonicalClass(), nBits);
+                }
+            return hDec;
+            }
+
+        return new DecHandle(getCanonicalClass(), nBits);
+        }
+
+    /**
+     * Trivial helper.
+     */
+    public static DecHandle makeHandle(int nBits)
+        {
+        return INSTANCE.makeDec(nBits);
+        }
+
+    /**
+     * The bits of a positive value with a zero exponent and only the least significant declet of
+     * the significand in use.
+     */
+    private static final int SMALL_BITS = 0x22500000;
+
+    /**
+     * The cached handles for the small values, indexed by the declet.
+     */
+    private final DecHandle[] m_ahCache = new DecHandle[1024];
+
+    public static class DecHandle
+            extends ObjectHandle
+        {
+        protected final int m_nBits;
+
+        public DecHandle(TypeComposition clazz, int nBits)
+            {
+            super(clazz);
+            m_nBits = nBits;
+            }
+
+        public int getBits()
+            {
+            return m_nBits;
+            }
+
+        @Override
+        public boolean isNativeEqual()
+            {
+            return true;
+            }
+
+        @Override
+        public int compareTo(ObjectHandle that)
+            {
+            return Decimal32.compare(m_nBits, ((DecHandle) that).getBits());
+            }
+
+        @Override
+        public int hashCode()
+            {
+            int nBits = m_nBits;
+            return Decimal32.isFinite(nBits)
+                    ? xBaseDecFP.hashCode(nBits < 0, Decimal32.getSignificand(nBits),
+                                          Decimal32.getExponent(nBits))
+                    : hashNonFinite(new Decimal32(nBits));
+            }
+
+        @Override
+        public boolean equals(Object obj)
+            {
+            return obj instanceof DecHandle &&
+                Decimal32.compare(m_nBits, ((DecHandle) obj).getBits()) == 0;
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + new Decimal32(m_nBits);
+            }
+        }
+    }
@@ -0,0 +1,196 @@
+package org.xvm.runtime.template;
+
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.type.Decimal;
+import org.xvm.type.Decimal64;
+
+
+/**
+ * Native Dec64 support.
+ */
+public class xDec64
+        extends xBaseDecFP
+    {
+    public static xDec64 INSTANCE;
+
+    public xDec64(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure, 64);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    protected ObjectHandle add(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal64.add(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle subtract(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal64.subtract(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle multiply(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal64.multiply(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle divide(ObjectHandle h1, ObjectHandle h2)
+        {
+        return makeDec(Decimal64.divide(((DecHandle) h1).getBits(), ((DecHandle) h2).getBits()));
+        }
+
+    @Override
+    protected ObjectHandle neg(ObjectHandle h)
+        {
+        return makeDec(((DecHandle) h).getBits() ^ Long.MIN_VALUE);
+        }
+
+    @Override
+    protected Decimal getDecimal(ObjectHandle h)
+        {
+        return new Decimal64(((DecHandle) h).getBits());
+        }
+
+    @Override
+    protected Decimal getNaN()
+        {
+        return Decimal64.NaN;
+        }
+
+    @Override
+    protected Decimal getInfinity(boolean fNeg)
+        {
+        return fNeg ? Decimal64.NEG_INFINITY : Decimal64.POS_INFINITY;
+        }
+
+    @Override
+    protected Decimal getZero(boolean fNeg)
+        {
+        return fNeg ? Decimal64.NEG_ZERO : Decimal64.POS_ZERO;
+        }
+
+    @Override
+    public ObjectHandle makeHandle(Decimal dec)
+        {
+        return makeDec(((Decimal64) dec).toLongBits());
+        }
+
+    @Override
+    protected ObjectHandle makeHandle(BigDecimal bigdec)
+        {
+        return makeDec(Decimal64.toLongBits(bigdec.round(MathContext.DECIMAL64)));
+        }
+
+    /**
+     * Obtain a handle for the specified 64-bit decimal value. The handles for the small integer
+     * values (0..999 with a zero exponent) are cached.
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value
+     *
+     * @return the handle
+     */
+    public DecHandle makeDec(long nBits)
+        {
+        if ((nBits & ~0x3FFL) == SMALL_BITS)
+            {
+            DecHandle[] ahCache = m_ahCache;
+            int         nDeclet = (int) nBits & 0x3FF;
+            DecHandle   hDec    = ahCache[nDeclet];
+            if (hDec == null)
+                {
+                ahCache[nDeclet] = hDec = new DecHandle(getCanonicalClass(), nBits);
+                }
+            return hDec;
+            }
+
+        return new DecHandle(getCanonicalClass(), nBits);
+        }
+
+    /**
+     * Trivial helper.
+     */
+    public static DecHandle makeHandle(long nBits)
+        {
+        return INSTANCE.makeDec(nBits);
+        }
+
+    /**
+     * The bits of a positive value with a zero exponent and only the least significant declet of
+     * the significand in use.
+     */
+    private static final long SMALL_BITS = 0x2238000000000000L;
+
+    /**
+     * The cached handles for the small values, indexed by the declet.
+     */
+    private final DecHandle[] m_ahCache = new DecHandle[1024];
+
+    public static class DecHandle
+            extends ObjectHandle
+        {
+        protected final long m_nBits;
+
+        public DecHandle(TypeComposition clazz, long nBits)
+            {
+            super(clazz);
+            m_nBits = nBits;
+            }
+
+        public long getBits()
+            {
+            return m_nBits;
+            }
+
+        @Override
+        public boolean isNativeEqual()
+            {
+            return true;
+            }
+
+        @Override
+        public int compareTo(ObjectHandle that)
+            {
+            return Decimal64.compare(m_nBits, ((DecHandle) that).getBits());
+            }
+
+        @Override
+        public int hashCode()
+            {
+            long nBits = m_nBits;
+            return Decimal64.isFinite(nBits)
+                    ? xBaseDecFP.hashCode(nBits < 0, Decimal64.getSignificand(nBits),
+                                          Decimal64.getExponent(nBits))
+                    : hashNonFinite(new Decimal64(nBits));
+            }
+
+        @Override
+        public boolean equals(Object obj)
+            {
+            return obj instanceof DecHandle &&
+                Decimal64.compare(m_nBits, ((DecHandle) obj).getBits()) == 0;
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + new Decimal64(m_nBits);
+            }
+        }
+    }
@@ -46,6 +46,8 @@ public class xException
         s_clzUnsupportedOperation = f_templates.getTemplate("UnsupportedOperation").getCanonicalClass();
         s_clzDivisionByZero       = f_templates.getTemplate("Number.DivisionByZero").getCanonicalClass();
         s_clzPathException        = f_templates.getTemplate("fs.PathException").getCanonicalClass();
+        s_clzIOException          = f_templates.getTemplate("io.IOException").getCanonicalClass();
+        s_clzEndOfFile            = f_templates.getTemplate("io.EndOfFile").getCanonicalClass();
 
         METHOD_FORMAT_EXCEPTION = f_struct.findMethod("formatExceptionString", 2);
 
@@ -158,6 +160,16 @@ public class xException
         return hException;
         }
 
+    public static ExceptionHandle ioException(Frame frame, String sMsg)
+        {
+        return makeHandle(frame, s_clzIOException, sMsg);
+        }
+
+    public static ExceptionHandle endOfFile(Frame frame)
+        {
+        return makeHandle(frame, s_clzEndOfFile, null);
+        }
+
     // ---- ObjectHandle helpers -----
 
     public static ExceptionHandle makeHandle(Frame frame, String sMessage)
@@ -169,7 +181,7 @@ public class xException
         {
         ExceptionHandle hException = makeMutableStruct(frame, clzEx, null, null);
 
-        hException.setField("text", xString.makeHandle(sMessage));
+        hException.setField("text", sMessage == null ? xNullable.NULL : xString.makeHandle(sMessage));
         hException.setField("cause", xNullable.NULL);
         hException.makeImmutable();
 
@@ -201,6 +213,8 @@ public class xException
     private static ClassComposition s_clzUnsupportedOperation;
     private static ClassComposition s_clzDivisionByZero;
     private static ClassComposition s_clzPathException;
+    private static ClassComposition s_clzIOException;
+    private static ClassComposition s_clzEndOfFile;
 
     private static MethodStructure METHOD_FORMAT_EXCEPTION;
     }
@@ -0,0 +1,34 @@
+package org.xvm.runtime.template;
+
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.TemplateRegistry;
+
+
+/**
+ * Native Float32 support.
+ */
+public class xFloat32
+        extends xBaseFP
+    {
+    public static xFloat32 INSTANCE;
+
+    public xFloat32(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure, 32);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    /**
+     * Trivial helper.
+     */
+    public static FloatHandle makeHandle(double dfl)
+        {
+        return INSTANCE.makeFloat(dfl);
+        }
+    }
@@ -0,0 +1,34 @@
+package org.xvm.runtime.template;
+
+
+import org.xvm.asm.ClassStructure;
+
+import org.xvm.runtime.TemplateRegistry;
+
+
+/**
+ * Native Float64 support.
+ */
+public class xFloat64
+        extends xBaseFP
+    {
+    public static xFloat64 INSTANCE;
+
+    public xFloat64(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure, 64);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    /**
+     * Trivial helper.
+     */
+    public static FloatHandle makeHandle(double dfl)
+        {
+        return INSTANCE.makeFloat(dfl);
+        }
+    }
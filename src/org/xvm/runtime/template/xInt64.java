@@ -40,6 +40,16 @@ public class xInt64
             }
         }
 
+    @Override
+    public void initDeclared()
+        {
+        super.initDeclared();
+
+        markNativeMethod("toFloat64", VOID, new String[]{"Float64"});
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
     @Override
     protected xConstrainedInteger getComplimentaryTemplate()
         {
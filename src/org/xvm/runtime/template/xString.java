@@ -1,7 +1,11 @@
 package org.xvm.runtime.template;
 
 
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.Constant;
@@ -14,6 +18,7 @@ import org.xvm.asm.constants.TypeConstant;
 import org.xvm.runtime.ClassComposition;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.GenericHandle;
 import org.xvm.runtime.ObjectHandle.JavaLong;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.TemplateRegistry;
@@ -23,6 +28,8 @@ import org.xvm.runtime.template.collections.xArray;
 import org.xvm.runtime.template.collections.xCharArray;
 import org.xvm.runtime.template.collections.xCharArray.CharArrayHandle;
 
+import org.xvm.runtime.template.xBoolean.BooleanHandle;
+
 /**
  * Native String implementation.
  */
@@ -55,6 +62,9 @@ public class xString
         markNativeMethod("construct", new String[]{"collections.Array<Char>"}, VOID);
         markNativeMethod("indexOf", new String[]{"Char", "Int64"}, new String[]{"Boolean", "Int64"});
         markNativeMethod("substring", INT, STRING);
+        markNativeMethod("slice", new String[]{"Range<Int64>"}, STRING);
+        markNativeMethod("getElement", INT, new String[]{"Char"});
+        markNativeMethod("append", new String[]{"Object"}, STRING);
 
         getCanonicalType().invalidateTypeInfo();
         }
@@ -85,7 +95,15 @@ public class xString
         CharArrayHandle hCharArray = (CharArrayHandle) ahVar[0];
         hCharArray.makeImmutable();
 
-        return frame.assignValue(iReturn, makeHandle(hCharArray.m_achValue));
+        // the char array could be a slice sharing a bigger storage
+        char[] ach = hCharArray.m_achValue;
+        int    of  = hCharArray.m_ofStart;
+        int    cch = hCharArray.m_cSize;
+        if (of != 0 || cch != ach.length)
+            {
+            ach = Arrays.copyOfRange(ach, of, of + cch);
+            }
+        return frame.assignValue(iReturn, makeHandle(ach));
         }
 
     @Override
@@ -119,11 +137,11 @@ public class xString
         switch (sPropName)
             {
             case "size":
-                return frame.assignValue(iReturn, xInt64.makeHandle(hThis.m_achValue.length));
+                return frame.assignValue(iReturn, xInt64.makeHandle(hThis.length()));
 
             case "chars":
                 return frame.assignValue(iReturn,
-                        xCharArray.makeHandle(hThis.m_achValue, xArray.Mutability.Constant));
+                        xCharArray.makeHandle(hThis.getValue(), xArray.Mutability.Constant));
             }
 
         return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
@@ -157,25 +175,46 @@ public class xString
             {
             case "substring": // (Int starAt)
                 {
-                int    ofStart = (int) ((JavaLong) hArg).getValue();
-                char[] ach     = hThis.m_achValue;
-                int    cch     = ach.length;
+                int ofStart = (int) ((JavaLong) hArg).getValue();
+                int cch     = hThis.length();
 
-                if (ofStart <= 0)
+                return frame.assignValue(iReturn,
+                    substring(hThis, Math.max(0, Math.min(ofStart, cch)), cch));
+                }
+
+            case "slice": // String slice(Range<Int> range)
+                {
+                GenericHandle hRange   = (GenericHandle) hArg;
+                long          ixFrom   = ((JavaLong) hRange.getField("lowerBound")).getValue();
+                long          ixTo     = ((JavaLong) hRange.getField("upperBound")).getValue();
+                boolean       fReverse = ((BooleanHandle) hRange.getField("reversed")).get();
+                int           cch      = hThis.length();
+
+                if (ixFrom < 0 || ixTo >= cch)
                     {
-                    return frame.assignValue(iReturn, hThis);
+                    return frame.raiseException(
+                        xException.outOfBounds(frame, ixFrom < 0 ? ixFrom : ixTo, cch));
                     }
 
-                if (ofStart >= cch)
+                if (fReverse)
                     {
-                    return frame.assignValue(iReturn, EMPTY_STRING);
+                    int    cchNew = (int) (ixTo - ixFrom + 1);
+                    char[] achNew = new char[cchNew];
+                    for (int i = 0; i < cchNew; i++)
+                        {
+                        achNew[i] = hThis.charAt((int) ixTo - i);
+                        }
+                    return frame.assignValue(iReturn, makeHandle(achNew));
                     }
 
-                int    cchNew = cch - ofStart;
-                char[] achNew = new char[cchNew];
-                System.arraycopy(ach, ofStart, achNew, 0, cchNew);
-                return frame.assignValue(iReturn, makeHandle(achNew));
+                return frame.assignValue(iReturn, substring(hThis, (int) ixFrom, (int) ixTo + 1));
                 }
+
+            case "getElement": // Char getElement(Int index)
+                return extractArrayValue(frame, hThis, ((JavaLong) hArg).getValue(), iReturn);
+
+            case "append": // String append(Object o)
+                return invokeAdd(frame, hThis, hArg, iReturn);
             }
 
         return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
@@ -202,7 +241,7 @@ public class xString
                             ? 0
                             : (int) ((JavaLong) hStart).getValue();
 
-                        int  ofResult = indexOf(hThis.m_achValue, chValue, ofStart);
+                        int  ofResult = indexOf(hThis, chValue, ofStart);
                         return ofResult < 0
                             ? frame.assignValues(aiReturn, xBoolean.FALSE, null)
                             : frame.assignValues(aiReturn, xBoolean.TRUE, xInt64.makeHandle(ofResult));
@@ -219,15 +258,12 @@ public class xString
     @Override
     public int extractArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, int iReturn)
         {
-        char[] ach = ((StringHandle) hTarget).getValue();
-        try
-            {
-            return frame.assignValue(iReturn, xChar.makeHandle(ach[(int) lIndex]));
-            }
-        catch (ArrayIndexOutOfBoundsException e)
-            {
-            return frame.raiseException(xException.outOfBounds(frame, lIndex, ach.length));
-            }
+        StringHandle hString = (StringHandle) hTarget;
+        int          cch     = hString.length();
+
+        return lIndex < 0 || lIndex >= cch
+            ? frame.raiseException(xException.outOfBounds(frame, lIndex, cch))
+            : frame.assignValue(iReturn, xChar.makeHandle(hString.charAt((int) lIndex)));
         }
 
     @Override
@@ -245,7 +281,7 @@ public class xString
     @Override
     public long size(ObjectHandle hTarget)
         {
-        return ((StringHandle) hTarget).getValue().length;
+        return ((StringHandle) hTarget).length();
         }
 
 
@@ -282,11 +318,8 @@ public class xString
 
     protected StringHandle add(StringHandle h1, StringHandle h2)
         {
-        char[] ach1 = h1.m_achValue;
-        char[] ach2 = h2.m_achValue;
-
-        int c1 = ach1.length;
-        int c2 = ach2.length;
+        int c1 = h1.length();
+        int c2 = h2.length();
 
         if (c1 == 0)
             {
@@ -297,10 +330,95 @@ public class xString
             return h1;
             }
 
+        if (c1 + c2 >= ROPE_MIN)
+            {
+            return new RopeHandle(getCanonicalClass(), h1, h2);
+            }
+
+        if (h1.isLatin1() && h2.isLatin1())
+            {
+            byte[] ab = new byte[c1 + c2];
+            h1.getLatin1(ab, 0);
+            h2.getLatin1(ab, c1);
+            return makeHandle(ab);
+            }
+
+        // at least one of the strings is held in a char[]
         char[] ach = new char[c1 + c2];
-        System.arraycopy(ach1, 0, ach, 0, c1);
-        System.arraycopy(ach2, 0, ach, c1, c2);
-        return makeHandle(ach);
+        h1.getChars(ach, 0);
+        h2.getChars(ach, c1);
+        return new StringHandle(getCanonicalClass(), null, ach);
+        }
+
+    /**
+     * Obtain a String for the specified range of characters of another String. A substring that
+     * is a large enough portion of the array that holds the characters is a slice of that array;
+     * a smaller one is a copy, so that a small String doesn't pin a large array.
+     *
+     * @param hSource  the source String
+     * @param ofStart  the index of the first character (inclusive)
+     * @param ofEnd    the index of the last character (exclusive)
+     */
+    protected StringHandle substring(StringHandle hSource, int ofStart, int ofEnd)
+        {
+        int cchNew = ofEnd - ofStart;
+        if (cchNew == hSource.length())
+            {
+            return hSource;
+            }
+
+        if (cchNew <= 0)
+            {
+            return EMPTY_STRING;
+            }
+
+        if (cchNew >= SLICE_MIN && cchNew >= hSource.getBackingSize() / 4)
+            {
+            return new SliceHandle(getCanonicalClass(), hSource, ofStart, cchNew);
+            }
+
+        // a substring of a Latin-1 string is Latin-1 as well, but a substring of any other
+        // string may be
+        byte[] ab = hSource.getLatin1Array();
+        int    of = hSource.getOffset();
+        return ab == null
+                ? makeHandle(Arrays.copyOfRange(hSource.getCharArray(), of + ofStart, of + ofEnd))
+                : makeHandle(Arrays.copyOfRange(ab, of + ofStart, of + ofEnd));
+        }
+
+    protected int indexOf(StringHandle hSource, char chTarget, int ofStart)
+        {
+        byte[] abSource = hSource.getLatin1Array();
+        int    ofBase   = hSource.getOffset();
+        int    cch      = hSource.length();
+
+        if (abSource == null)
+            {
+            char[] achSource = hSource.getCharArray();
+            for (int of = Math.max(ofStart, 0); of < cch; of++)
+                {
+                if (achSource[ofBase + of] == chTarget)
+                    {
+                    return of;
+                    }
+                }
+            return -1;
+            }
+
+        if (chTarget > 0xFF)
+            {
+            return -1;
+            }
+
+        byte bTarget = (byte) chTarget;
+        for (int of = Math.max(ofStart, 0); of < cch; of++)
+            {
+            if (abSource[ofBase + of] == bTarget)
+                {
+                return of;
+                }
+            }
+        return -1;
         }
 
     protected int indexOf(char[] achSource, char chTarget, int ofStart)
@@ -392,21 +510,38 @@ public class xString
         return -1;
         }
 
-    protected int compare(StringHandle h1, StringHandle h2)
+    public static int compare(StringHandle h1, StringHandle h2)
         {
-        char[] ach1 = h1.m_achValue;
-        char[] ash2 = h2.m_achValue;
-        int    c1   = ach1.length;
-        int    c2   = ash2.length;
-        int    c    = Math.min(c1, c2);
+        int c1 = h1.length();
+        int c2 = h2.length();
+        int c  = Math.min(c1, c2);
 
-        for (int i = 0; i < c; i++)
+        byte[] ab1 = h1.getLatin1Array();
+        byte[] ab2 = h2.getLatin1Array();
+        if (ab1 != null && ab2 != null)
             {
-            char ch1 = ach1[i];
-            char ch2 = ash2[i];
-            if (ch1 != ch2)
+            int of1 = h1.getOffset();
+            int of2 = h2.getOffset();
+            for (int i = 0; i < c; i++)
                 {
-                return ch1 - ch2;
+                byte b1 = ab1[of1 + i];
+                byte b2 = ab2[of2 + i];
+                if (b1 != b2)
+                    {
+                    return (b1 & 0xFF) - (b2 & 0xFF);
+                    }
+                }
+            }
+        else
+            {
+            for (int i = 0; i < c; i++)
+                {
+                char ch1 = h1.charAt(i);
+                char ch2 = h2.charAt(i);
+                if (ch1 != ch2)
+                    {
+                    return ch1 - ch2;
+                    }
                 }
             }
         return c1 - c2;
@@ -414,54 +549,263 @@ public class xString
 
     // --=-- handle -----
 
+    /**
+     * The String handle.
+     *
+     * The characters are held in one of two forms: if all of them fit into a single byte (the
+     * Latin-1 range), they are held in a byte[]; otherwise they are held in a char[]. A plain
+     * handle owns the entire array; a {@link SliceHandle} is a view of a range of the array owned
+     * by another handle, and a {@link RopeHandle} is a lazy concatenation of two other handles.
+     * Since the slices and ropes don't compress their content, equal strings may be held in
+     * different forms.
+     */
     public static class StringHandle
             extends ObjectHandle
         {
-        private char[] m_achValue;
-        private transient JavaLong m_hash; // cached hash value
-        private transient String m_sValue; // cached String value
-
         protected StringHandle(TypeComposition clazz, char[] achValue)
             {
             super(clazz);
 
+            byte[] abValue = compress(achValue, achValue.length);
+
+            m_abValue  = abValue;
+            m_achValue = abValue == null ? achValue : null;
+            m_fMutable = false;
+            }
+
+        /**
+         * Construct a handle for the characters that are already in the form that they should be
+         * held in (at most one of the arrays is non-null).
+         */
+        protected StringHandle(TypeComposition clazz, byte[] abValue, char[] achValue)
+            {
+            super(clazz);
+
+            m_abValue  = abValue;
             m_achValue = achValue;
             m_fMutable = false;
             }
 
-        public char[] getValue()
+        /**
+         * @return true iff the characters are held in the compact (Latin-1) form
+         */
+        public boolean isLatin1()
+            {
+            return m_abValue != null;
+            }
+
+        /**
+         * @return the number of characters
+         */
+        public int length()
+            {
+            byte[] ab = m_abValue;
+            return ab == null ? m_achValue.length : ab.length;
+            }
+
+        /**
+         * @return the offset of the first character in the backing array
+         */
+        protected int getOffset()
+            {
+            return 0;
+            }
+
+        /**
+         * @return the backing Latin-1 array, or null if the characters are held in a char[]
+         */
+        protected byte[] getLatin1Array()
+            {
+            return m_abValue;
+            }
+
+        /**
+         * @return the backing char array, or null if the characters are held in a byte[]
+         */
+        protected char[] getCharArray()
             {
             return m_achValue;
             }
 
+        /**
+         * @return the size of the backing array
+         */
+        protected int getBackingSize()
+            {
+            byte[] ab = getLatin1Array();
+            return ab == null ? getCharArray().length : ab.length;
+            }
+
+        /**
+         * @return the character at the specified index
+         */
+        public char charAt(int of)
+            {
+            byte[] ab = getLatin1Array();
+            return ab == null
+                    ? getCharArray()[getOffset() + of]
+                    : (char) (ab[getOffset() + of] & 0xFF);
+            }
+
+        /**
+         * Copy the characters into the specified array.
+         *
+         * @param achDest  the array to copy the characters to
+         * @param ofDest   the offset in the array to copy the first character to
+         */
+        public void getChars(char[] achDest, int ofDest)
+            {
+            byte[] ab  = getLatin1Array();
+            int    of  = getOffset();
+            int    cch = length();
+            if (ab == null)
+                {
+                System.arraycopy(getCharArray(), of, achDest, ofDest, cch);
+                }
+            else
+                {
+                for (int i = 0; i < cch; i++)
+                    {
+                    achDest[ofDest + i] = (char) (ab[of + i] & 0xFF);
+                    }
+                }
+            }
+
+        /**
+         * Copy the characters of a Latin-1 string into the specified array.
+         *
+         * @param abDest  the array to copy the characters to
+         * @param ofDest  the offset in the array to copy the first character to
+         */
+        public void getLatin1(byte[] abDest, int ofDest)
+            {
+            System.arraycopy(getLatin1Array(), getOffset(), abDest, ofDest, length());
+            }
+
+        /**
+         * @return the characters as a char array; unless the handle owns the entire char array,
+         *         it is a new array, so the callers that only need to read the characters should
+         *         prefer {@link #charAt}, {@link #getChars} or {@link #getStringValue}
+         */
+        public char[] getValue()
+            {
+            char[] ach = getCharArray();
+            if (ach == null || getOffset() != 0 || length() != ach.length)
+                {
+                ach = new char[length()];
+                getChars(ach, 0);
+                }
+            return ach;
+            }
+
         public String getStringValue()
             {
             String sValue = m_sValue;
-            return sValue == null
-                    ? (m_sValue = new String(m_achValue))
-                    : sValue;
+            if (sValue == null)
+                {
+                byte[] ab = getLatin1Array();
+                m_sValue = sValue = ab == null
+                        ? new String(getCharArray(), getOffset(), length())
+                        : new String(ab, getOffset(), length(), StandardCharsets.ISO_8859_1);
+                }
+            return sValue;
+            }
+
+        /**
+         * Obtain a handle that is suitable to be held on to for a long time. A slice pins the
+         * entire array it is a view of, so it gets copied; a rope gets flattened.
+         *
+         * @return this handle or an equal handle that doesn't hold on to more than its content
+         */
+        public StringHandle compact()
+            {
+            return this;
             }
 
         public JavaLong getHashCode()
             {
-            JavaLong hHash = m_hash;
-            return hHash == null
-                    ? (m_hash = xInt64.makeHandle(Arrays.hashCode(m_achValue)))
-                    : hHash;
+            return xInt64.makeHandle(hashCode());
             }
 
+        /**
+         * The hash code is the same as {@link Arrays#hashCode(char[])} of the characters,
+         * regardless of the form they are held in.
+         */
         @Override
         public int hashCode()
             {
-            return (int) getHashCode().getValue();
+            int nHash = m_nHash;
+            if (nHash == 0)
+                {
+                byte[] ab  = getLatin1Array();
+                int    of  = getOffset();
+                int    cch = length();
+
+                nHash = 1;
+                if (ab == null)
+                    {
+                    char[] ach = getCharArray();
+                    for (int i = 0; i < cch; i++)
+                        {
+                        nHash = 31 * nHash + ach[of + i];
+                        }
+                    }
+                else
+                    {
+                    for (int i = 0; i < cch; i++)
+                        {
+                        nHash = 31 * nHash + (ab[of + i] & 0xFF);
+                        }
+                    }
+                m_nHash = nHash;
+                }
+            return nHash;
             }
 
         @Override
         public boolean equals(Object obj)
             {
+            if (obj == this)
+                {
+                return true;
+                }
+
             if (obj instanceof StringHandle)
                 {
-                return Arrays.equals(m_achValue, ((StringHandle) obj).m_achValue);
+                StringHandle that = (StringHandle) obj;
+
+                int cch = this.length();
+                if (cch != that.length()
+                        || m_nHash != 0 && that.m_nHash != 0 && m_nHash != that.m_nHash)
+                    {
+                    return false;
+                    }
+
+                byte[] ab1 = this.getLatin1Array();
+                byte[] ab2 = that.getLatin1Array();
+                int    of1 = this.getOffset();
+                int    of2 = that.getOffset();
+                if (ab1 != null && ab2 != null)
+                    {
+                    for (int i = 0; i < cch; i++)
+                        {
+                        if (ab1[of1 + i] != ab2[of2 + i])
+                            {
+                            return false;
+                            }
+                        }
+                    }
+                else
+                    {
+                    for (int i = 0; i < cch; i++)
+                        {
+                        if (this.charAt(i) != that.charAt(i))
+                            {
+                            return false;
+                            }
+                        }
+                    }
+                return true;
                 }
             return false;
             }
@@ -471,6 +815,245 @@ public class xString
             {
             return super.toString() + getStringValue();
             }
+
+        /**
+         * The characters if they are held in the Latin-1 form; otherwise null.
+         */
+        protected byte[] m_abValue;
+
+        /**
+         * The characters if they are held in a char[]; otherwise null.
+         */
+        protected char[] m_achValue;
+
+        /**
+         * The cached hash value (zero if not yet computed).
+         */
+        private transient int m_nHash;
+
+        /**
+         * The cached String value.
+         */
+        private transient String m_sValue;
+        }
+
+    /**
+     * A handle for a range of characters of another String. The slice shares the backing array
+     * with the String it was taken from.
+     */
+    public static class SliceHandle
+            extends StringHandle
+        {
+        protected SliceHandle(TypeComposition clazz, StringHandle hBase, int of, int cch)
+            {
+            super(clazz, hBase.getLatin1Array(), hBase.getCharArray());
+
+            f_of  = hBase.getOffset() + of;
+            f_cch = cch;
+            }
+
+        @Override
+        public int length()
+            {
+            return f_cch;
+            }
+
+        @Override
+        protected int getOffset()
+            {
+            return f_of;
+            }
+
+        @Override
+        public StringHandle compact()
+            {
+            int    of = f_of;
+            int    cch = f_cch;
+            byte[] ab  = m_abValue;
+            return ab == null
+                    ? makeHandle(Arrays.copyOfRange(m_achValue, of, of + cch))
+                    : makeHandle(Arrays.copyOfRange(ab, of, of + cch));
+            }
+
+        /**
+         * The offset of the first character in the backing array.
+         */
+        private final int f_of;
+
+        /**
+         * The number of characters.
+         */
+        private final int f_cch;
+        }
+
+    /**
+     * A handle for a concatenation of two other Strings. The characters are not copied until they
+     * are needed for the first time (with the exception of the size and the form); at that point
+     * the rope is flattened into a plain array and lets go of the Strings it was made of.
+     */
+    public static class RopeHandle
+            extends StringHandle
+        {
+        protected RopeHandle(TypeComposition clazz, StringHandle h1, StringHandle h2)
+            {
+            super(clazz, null, null);
+
+            m_h1      = h1;
+            m_h2      = h2;
+            f_cch     = h1.length() + h2.length();
+            f_fLatin1 = h1.isLatin1() && h2.isLatin1();
+            }
+
+        @Override
+        public boolean isLatin1()
+            {
+            return f_fLatin1;
+            }
+
+        @Override
+        public int length()
+            {
+            return f_cch;
+            }
+
+        @Override
+        protected byte[] getLatin1Array()
+            {
+            if (!m_fFlat)
+                {
+                flatten();
+                }
+            return m_abValue;
+            }
+
+        @Override
+        protected char[] getCharArray()
+            {
+            if (!m_fFlat)
+                {
+                flatten();
+                }
+            return m_achValue;
+            }
+
+        @Override
+        public StringHandle compact()
+            {
+            if (!m_fFlat)
+                {
+                flatten();
+                }
+            return this;
+            }
+
+        /**
+         * Copy the characters of all the parts of this rope into a new array. The parts are
+         * visited without recursion, since a String that is built by appending to it in a loop
+         * is a rope that is as deep as the number of appends.
+         */
+        private synchronized void flatten()
+            {
+            if (m_fFlat)
+                {
+                return;
+                }
+
+            int     cch     = f_cch;
+            boolean fLatin1 = f_fLatin1;
+            byte[]  ab      = fLatin1 ? new byte[cch] : null;
+            char[]  ach     = fLatin1 ? null : new char[cch];
+            int     of      = 0;
+
+            Deque<StringHandle> stack = new ArrayDeque<>();
+            stack.push(m_h2);
+            stack.push(m_h1);
+            while (!stack.isEmpty())
+                {
+                StringHandle hPart = stack.pop();
+                if (hPart instanceof RopeHandle)
+                    {
+                    RopeHandle hRope = (RopeHandle) hPart;
+                    StringHandle h1;
+                    StringHandle h2;
+                    synchronized (hRope)
+                        {
+                        h1 = hRope.m_h1;
+                        h2 = hRope.m_h2;
+                        }
+
+                    if (h1 != null)
+                        {
+                        stack.push(h2);
+                        stack.push(h1);
+                        continue;
+                        }
+                    // the part has been flattened already
+                    }
+
+                if (fLatin1)
+                    {
+                    hPart.getLatin1(ab, of);
+                    }
+                else
+                    {
+                    hPart.getChars(ach, of);
+                    }
+                of += hPart.length();
+                }
+
+            m_abValue  = ab;
+            m_achValue = ach;
+            m_h1       = null;
+            m_h2       = null;
+            m_fFlat    = true;
+            }
+
+        /**
+         * The number of characters.
+         */
+        private final int f_cch;
+
+        /**
+         * True iff both parts are held in the Latin-1 form.
+         */
+        private final boolean f_fLatin1;
+
+        /**
+         * The parts of the rope (null once the rope has been flattened).
+         */
+        private StringHandle m_h1;
+        private StringHandle m_h2;
+
+        /**
+         * True once the arrays have been filled in.
+         */
+        private volatile boolean m_fFlat;
+        }
+
+    /**
+     * Compress the specified characters into the Latin-1 form.
+     *
+     * @param ach  the characters
+     * @param cch  the number of characters to compress
+     *
+     * @return the Latin-1 bytes, or null if any of the characters is outside of the Latin-1 range
+     */
+    public static byte[] compress(char[] ach, int cch)
+        {
+        for (int of = 0; of < cch; of++)
+            {
+            if (ach[of] > 0xFF)
+                {
+                return null;
+                }
+            }
+
+        byte[] ab = new byte[cch];
+        for (int of = 0; of < cch; of++)
+            {
+            ab[of] = (byte) ach[of];
+            }
+        return ab;
         }
 
     public static StringHandle makeHandle(String sValue)
@@ -485,6 +1068,26 @@ public class xString
             : new StringHandle(INSTANCE.getCanonicalClass(), achValue);
         }
 
+    /**
+     * Make a handle for the characters that are known to be in the Latin-1 range.
+     */
+    public static StringHandle makeHandle(byte[] abValue)
+        {
+        return abValue.length == 0
+            ? EMPTY_STRING
+            : new StringHandle(INSTANCE.getCanonicalClass(), abValue, null);
+        }
+
+    /**
+     * The smallest concatenation that is made a {@link RopeHandle rope} rather than copied.
+     */
+    private static final int ROPE_MIN = 64;
+
+    /**
+     * The smallest substring that is made a {@link SliceHandle slice} rather than copied.
+     */
+    private static final int SLICE_MIN = 64;
+
     public static StringHandle EMPTY_STRING;
     public static StringHandle EMPTY_ARRAY;
     public static StringHandle ZERO;
@@ -0,0 +1,520 @@
+package org.xvm.runtime.template;
+
+
+import java.util.Arrays;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.ClassComposition;
+import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TemplateRegistry;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.collections.xCharArray.CharArrayHandle;
+
+import org.xvm.runtime.template.xString.StringHandle;
+
+
+/**
+ * Native StringBuffer implementation.
+ *
+ * The characters are held in a growable char[] that doubles in size as necessary. The toString()
+ * call compresses the content into a new Latin-1 String if it can; otherwise it trims the buffer to
+ * its size (if it isn't already) and hands that very array to the resulting String; the buffer then
+ * remembers that the array is shared and copies it only if it is subsequently modified.
+ */
+public class xStringBuffer
+        extends ClassTemplate
+        implements IndexSupport
+    {
+    public static xStringBuffer INSTANCE;
+
+    public xStringBuffer(TemplateRegistry templates, ClassStructure structure, boolean fInstance)
+        {
+        super(templates, structure);
+
+        if (fInstance)
+            {
+            INSTANCE = this;
+            }
+        }
+
+    @Override
+    public void initDeclared()
+        {
+        APPEND_OBJECT = f_struct.findMethod("appendObject", 1);
+        ADD_ITERABLE  = f_struct.findMethod("addIterable", 1);
+
+        markNativeProperty("size");
+
+        markNativeMethod("construct", INT, VOID);
+        markNativeMethod("append", OBJECT, null);
+        markNativeMethod("toString", VOID, STRING);
+        markNativeMethod("add", new String[] {"Char"}, null);
+        markNativeMethod("add", new String[] {"Iterable<Char>"}, null);
+        markNativeMethod("ensureCapacity", INT, null);
+        markNativeMethod("getElement", INT, new String[] {"Char"});
+        markNativeMethod("setElement", new String[] {"Int64", "Char"}, VOID);
+
+        getCanonicalType().invalidateTypeInfo();
+        }
+
+    @Override
+    public boolean isGenericHandle()
+        {
+        return false;
+        }
+
+    @Override
+    public int construct(Frame frame, MethodStructure constructor, ClassComposition clazz,
+                         ObjectHandle hParent, ObjectHandle[] ahVar, int iReturn)
+        {
+        ObjectHandle hCapacity = ahVar[0];
+        long         cCapacity = hCapacity instanceof JavaLong
+                ? ((JavaLong) hCapacity).getValue()
+                : 0;
+
+        if (cCapacity < 0 || cCapacity > Integer.MAX_VALUE)
+            {
+            return frame.raiseException(
+                xException.illegalArgument(frame, "Invalid capacity: " + cCapacity));
+            }
+
+        return frame.assignValue(iReturn, new StringBufferHandle(clazz, (int) cCapacity));
+        }
+
+    @Override
+    public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
+        {
+        StringBufferHandle hBuf = (StringBufferHandle) hTarget;
+
+        switch (sPropName)
+            {
+            case "size":
+                return frame.assignValue(iReturn, xInt64.makeHandle(hBuf.m_cSize));
+            }
+
+        return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        StringBufferHandle hBuf = (StringBufferHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "append": // StringBuffer append(Object o)
+                {
+                if (!hBuf.isMutable())
+                    {
+                    return frame.raiseException(xException.immutableObject(frame));
+                    }
+
+                if (!appendNative(hBuf, hArg))
+                    {
+                    ObjectHandle[] ahVar = new ObjectHandle[APPEND_OBJECT.getMaxVars()];
+                    ahVar[0] = hArg;
+                    return frame.call1(APPEND_OBJECT, hBuf, ahVar, iReturn);
+                    }
+                return frame.assignValue(iReturn, hBuf);
+                }
+
+            case "add": // StringBuffer add(Char v) or StringBuffer add(Iterable<Char> array)
+                {
+                if (!hBuf.isMutable())
+                    {
+                    return frame.raiseException(xException.immutableObject(frame));
+                    }
+
+                // a Char is the only JavaLong that either of the "add" methods could be passed
+                if (hArg instanceof JavaLong)
+                    {
+                    hBuf.append(((JavaLong) hArg).getValue());
+                    }
+                else if (!appendChars(hBuf, hArg))
+                    {
+                    ObjectHandle[] ahVar = new ObjectHandle[ADD_ITERABLE.getMaxVars()];
+                    ahVar[0] = hArg;
+                    return frame.call1(ADD_ITERABLE, hBuf, ahVar, iReturn);
+                    }
+                return frame.assignValue(iReturn, hBuf);
+                }
+
+            case "ensureCapacity": // StringBuffer ensureCapacity(Int count)
+                {
+                long cCapacity = ((JavaLong) hArg).getValue();
+                if (cCapacity > Integer.MAX_VALUE)
+                    {
+                    return frame.raiseException(
+                        xException.illegalArgument(frame, "Invalid capacity: " + cCapacity));
+                    }
+                hBuf.ensureCapacity((int) cCapacity);
+                return frame.assignValue(iReturn, hBuf);
+                }
+
+            case "getElement": // Char getElement(Int index)
+                return extractArrayValue(frame, hBuf, ((JavaLong) hArg).getValue(), iReturn);
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
+    @Override
+    public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle[] ahArg, int iReturn)
+        {
+        StringBufferHandle hBuf = (StringBufferHandle) hTarget;
+
+        switch (method.getName())
+            {
+            case "toString": // String toString()
+                return frame.assignValue(iReturn, hBuf.toStringHandle());
+
+            case "setElement": // void setElement(Int index, Char value)
+                return assignArrayValue(frame, hBuf, ((JavaLong) ahArg[0]).getValue(), ahArg[1]);
+            }
+
+        return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
+        }
+
+    /**
+     * Append the specified value to the buffer if it's one of the types that don't require
+     * calling into the Ecstasy code.
+     *
+     * @return true iff the value has been appended
+     */
+    protected static boolean appendNative(StringBufferHandle hBuf, ObjectHandle hValue)
+        {
+        if (hValue instanceof StringHandle)
+            {
+            hBuf.append((StringHandle) hValue);
+            return true;
+            }
+
+        if (hValue instanceof JavaLong)
+            {
+            ClassTemplate template = hValue.getTemplate();
+            if (template == xInt64.INSTANCE)
+                {
+                hBuf.appendLong(((JavaLong) hValue).getValue());
+                return true;
+                }
+            if (template == xChar.INSTANCE)
+                {
+                hBuf.append(((JavaLong) hValue).getValue());
+                return true;
+                }
+            return false;
+            }
+
+        if (hValue instanceof StringBufferHandle)
+            {
+            StringBufferHandle hThat = (StringBufferHandle) hValue;
+            hBuf.append(hThat.m_achValue, hThat.m_cSize);
+            return true;
+            }
+
+        return false;
+        }
+
+    /**
+     * Append the specified Iterable&lt;Char&gt; to the buffer if it's one of the types that don't
+     * need to be iterated over.
+     *
+     * @return true iff the value has been appended
+     */
+    protected static boolean appendChars(StringBufferHandle hBuf, ObjectHandle hValue)
+        {
+        if (hValue instanceof StringHandle)
+            {
+            hBuf.append((StringHandle) hValue);
+            return true;
+            }
+
+        if (hValue instanceof CharArrayHandle)
+            {
+            CharArrayHandle hArray = (CharArrayHandle) hValue;
+            hBuf.append(hArray.m_achValue, hArray.m_ofStart, hArray.m_cSize);
+            return true;
+            }
+
+        if (hValue instanceof StringBufferHandle)
+            {
+            StringBufferHandle hThat = (StringBufferHandle) hValue;
+            hBuf.append(hThat.m_achValue, hThat.m_cSize);
+            return true;
+            }
+
+        return false;
+        }
+
+
+    // ----- IndexSupport --------------------------------------------------------------------------
+
+    @Override
+    public int extractArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, int iReturn)
+        {
+        StringBufferHandle hBuf = (StringBufferHandle) hTarget;
+
+        return lIndex < 0 || lIndex >= hBuf.m_cSize
+            ? frame.raiseException(xException.outOfBounds(frame, lIndex, hBuf.m_cSize))
+            : frame.assignValue(iReturn, xChar.makeHandle(hBuf.m_achValue[(int) lIndex]));
+        }
+
+    @Override
+    public int assignArrayValue(Frame frame, ObjectHandle hTarget, long lIndex, ObjectHandle hValue)
+        {
+        StringBufferHandle hBuf = (StringBufferHandle) hTarget;
+
+        if (!hBuf.isMutable())
+            {
+            return frame.raiseException(xException.immutableObject(frame));
+            }
+
+        if (lIndex < 0 || lIndex >= hBuf.m_cSize)
+            {
+            return frame.raiseException(xException.outOfBounds(frame, lIndex, hBuf.m_cSize));
+            }
+
+        hBuf.ensureExclusive();
+        hBuf.m_achValue[(int) lIndex] = (char) ((JavaLong) hValue).getValue();
+        return Op.R_NEXT;
+        }
+
+    @Override
+    public TypeConstant getElementType(Frame frame, ObjectHandle hTarget, long lIndex)
+        {
+        return pool().typeChar();
+        }
+
+    @Override
+    public long size(ObjectHandle hTarget)
+        {
+        return ((StringBufferHandle) hTarget).m_cSize;
+        }
+
+
+    // ----- ObjectHandle --------------------------------------------------------------------------
+
+    /**
+     * The StringBuffer handle.
+     */
+    public static class StringBufferHandle
+            extends ObjectHandle
+        {
+        protected StringBufferHandle(TypeComposition clazz, int cCapacity)
+            {
+            super(clazz);
+
+            m_fMutable = true;
+            m_achValue = cCapacity == 0 ? EMPTY : new char[cCapacity];
+            }
+
+        /**
+         * @return the String for the current content of the buffer
+         */
+        public StringHandle toStringHandle()
+            {
+            StringHandle hString = m_hString;
+            if (hString == null)
+                {
+                char[] ach = m_achValue;
+                int    cch = m_cSize;
+                byte[] ab  = xString.compress(ach, cch);
+                if (ab == null)
+                    {
+                    if (ach.length != cch)
+                        {
+                        m_achValue = ach = Arrays.copyOf(ach, cch);
+                        }
+
+                    // from now on the array belongs to the String as well
+                    hString   = xString.makeHandle(ach);
+                    m_fShared = true;
+                    }
+                else
+                    {
+                    hString = xString.makeHandle(ab);
+                    }
+                m_hString = hString;
+                }
+            return hString;
+            }
+
+        /**
+         * Make sure that there is room for the specified number of chars and that the array is
+         * not shared with a String.
+         */
+        public void ensureCapacity(int cCapacity)
+            {
+            char[] ach = m_achValue;
+            if (cCapacity > ach.length)
+                {
+                m_achValue = Arrays.copyOf(ach, cCapacity);
+                m_hString  = null;
+                m_fShared  = false;
+                }
+            else
+                {
+                ensureExclusive();
+                }
+            }
+
+        /**
+         * Make sure that the array is not shared with a String, and forget the String that no
+         * longer reflects the content of the buffer once it's modified.
+         */
+        public void ensureExclusive()
+            {
+            if (m_fShared)
+                {
+                m_achValue = m_achValue.clone();
+                m_fShared  = false;
+                }
+            m_hString = null;
+            }
+
+        /**
+         * Make sure that the specified number of chars can be appended.
+         */
+        protected void ensureAppend(int cAdd)
+            {
+            int    cNew = m_cSize + cAdd;
+            char[] ach  = m_achValue;
+            if (cNew > ach.length)
+                {
+                // amortized growth
+                m_achValue = Arrays.copyOf(ach, Math.max(cNew, ach.length * 2 + 2));
+                m_hString  = null;
+                m_fShared  = false;
+                }
+            else
+                {
+                ensureExclusive();
+                }
+            }
+
+        public void append(long nChar)
+            {
+            if (nChar > Character.MAX_VALUE)
+                {
+                append(Character.toChars((int) nChar));
+                }
+            else
+                {
+                ensureAppend(1);
+                m_achValue[m_cSize++] = (char) nChar;
+                }
+            }
+
+        public void append(StringHandle hString)
+            {
+            int cch = hString.length();
+            ensureAppend(cch);
+            hString.getChars(m_achValue, m_cSize);
+            m_cSize += cch;
+            }
+
+        public void append(char[] ach)
+            {
+            append(ach, ach.length);
+            }
+
+        public void append(char[] ach, int cch)
+            {
+            append(ach, 0, cch);
+            }
+
+        public void append(char[] ach, int of, int cch)
+            {
+            ensureAppend(cch);
+            System.arraycopy(ach, of, m_achValue, m_cSize, cch);
+            m_cSize += cch;
+            }
+
+        /**
+         * Append the decimal representation of the specified value.
+         */
+        public void appendLong(long l)
+            {
+            if (l == Long.MIN_VALUE)
+                {
+                append(LONG_MIN);
+                return;
+                }
+
+            boolean fNeg = l < 0;
+            if (fNeg)
+                {
+                l = -l;
+                }
+
+            int cch = fNeg ? 2 : 1;
+            for (long lTest = l; lTest >= 10; lTest /= 10)
+                {
+                cch++;
+                }
+
+            ensureAppend(cch);
+
+            char[] ach = m_achValue;
+            int    of  = m_cSize + cch;
+            do
+                {
+                ach[--of] = (char) ('0' + l % 10);
+                l /= 10;
+                }
+            while (l != 0);
+
+            if (fNeg)
+                {
+                ach[--of] = '-';
+                }
+            m_cSize += cch;
+            }
+
+        @Override
+        public String toString()
+            {
+            return super.toString() + new String(m_achValue, 0, m_cSize);
+            }
+
+        private static final char[] EMPTY    = new char[0];
+        private static final char[] LONG_MIN = Long.toString(Long.MIN_VALUE).toCharArray();
+
+        /**
+         * The characters; only the first m_cSize are in use.
+         */
+        protected char[] m_achValue;
+
+        /**
+         * The number of characters in the buffer.
+         */
+        protected int m_cSize;
+
+        /**
+         * The String for the current content of the buffer (if it has been requested).
+         */
+        private StringHandle m_hString;
+
+        /**
+         * True iff the char array is shared with the String.
+         */
+        private boolean m_fShared;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    private static MethodStructure APPEND_OBJECT;
+    private static MethodStructure ADD_ITERABLE;
+    }
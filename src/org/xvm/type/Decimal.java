@@ -466,6 +466,109 @@ public abstract class Decimal
                              (8 + ((nBits & 0b0000000001)      ));    // d3 = 8 + b9
             }
         }
+
+
+    // ----- long arithmetic -----------------------------------------------------------------------
+
+    /**
+     * Determine the number of decimal digits in the passed value.
+     *
+     * @param nMag  a non-negative value
+     *
+     * @return the number of decimal digits, which is 0 for the value 0
+     */
+    public static int getDigitCount(long nMag)
+        {
+        assert nMag >= 0;
+
+        // 1233/4096 is slightly more than log10(2), so the estimate is either exact or one too low
+        int cDigits = (64 - Long.numberOfLeadingZeros(nMag)) * 1233 >>> 12;
+        return nMag >= POW10[cDigits] ? cDigits + 1 : cDigits;
+        }
+
+    /**
+     * Obtain a power of ten.
+     *
+     * @param nExp  the exponent, in the range <tt>0..18</tt>
+     *
+     * @return ten raised to the specified power
+     */
+    public static long pow10(int nExp)
+        {
+        return POW10[nExp];
+        }
+
+    /**
+     * Round the result of an integer division to the nearest integer, with ties going to the even
+     * integer, which is the IEEE-754 default (and the rounding used by the MathContext.DECIMAL*
+     * contexts).
+     *
+     * @param nQuotient   the non-negative truncated quotient
+     * @param nRemainder  the non-negative remainder
+     * @param nDivisor    the positive divisor
+     *
+     * @return the rounded quotient
+     */
+    public static long roundHalfEven(long nQuotient, long nRemainder, long nDivisor)
+        {
+        // comparing the remainder to (divisor - remainder) avoids overflowing on (2 * remainder)
+        long nRest = nDivisor - nRemainder;
+        return nRemainder > nRest || nRemainder == nRest && (nQuotient & 1) != 0
+                ? nQuotient + 1
+                : nQuotient;
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * The powers of ten that fit into a Java <tt>long</tt>, indexed by the exponent.
+     */
+    private static final long[] POW10 =
+        {
+        1L,
+        10L,
+        100L,
+        1_000L,
+        10_000L,
+        100_000L,
+        1_000_000L,
+        10_000_000L,
+        100_000_000L,
+        1_000_000_000L,
+        10_000_000_000L,
+        100_000_000_000L,
+        1_000_000_000_000L,
+        10_000_000_000_000L,
+        100_000_000_000_000L,
+        1_000_000_000_000_000L,
+        10_000_000_000_000_000L,
+        100_000_000_000_000_000L,
+        1_000_000_000_000_000_000L,
+        };
+
+    /**
+     * A lookup table from a declet (the index) to its three decimal digits as an int (000-999).
+     */
+    protected static final short[] DECLET_TO_INT = new short[1024];
+
+    /**
+     * A lookup table from three decimal digits as an int (the index, 000-999) to a declet.
+     */
+    protected static final short[] INT_TO_DECLET = new short[1000];
+
+    static
+        {
+        for (int i = 0; i < 1024; ++i)
+            {
+            DECLET_TO_INT[i] = (short) decletToInt(i);
+            }
+
+        for (int i = 0; i < 1000; ++i)
+            {
+            INT_TO_DECLET[i] = (short) intToDeclet(i);
+            }
+        }
     }
 
 
@@ -7,6 +7,7 @@ import java.io.IOException;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.MathContext;
 
 
 /**
@@ -289,12 +290,219 @@ public class Decimal128
             {
             Decimal128 that = (Decimal128) obj;
             return    this.m_nHBits == that.m_nHBits
-                    & that.m_nLBits == that.m_nLBits;
+                    & this.m_nLBits == that.m_nLBits;
             }
         return false;
         }
 
 
+    // ----- arithmetic ----------------------------------------------------------------------------
+
+    /**
+     * Add two 128-bit decimals, rounding the sum to 34 digits (ties to even) as necessary.
+     * <p/>
+     * When both operands and the exact sum can be represented as 64-bit decimals (up to 16 digits,
+     * which is the common case e.g. for monetary amounts), then the sum is calculated by the
+     * 64-bit decimal arithmetic, without the use of BigDecimal.
+     *
+     * @param dec1  the first decimal value
+     * @param dec2  the second decimal value
+     *
+     * @return the sum
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static Decimal128 add(Decimal128 dec1, Decimal128 dec2)
+        {
+        long nBits1 = dec1.toDecimal64Bits();
+        long nBits2 = dec2.toDecimal64Bits();
+        if (nBits1 != Decimal64.NOT_COMPUTED && nBits2 != Decimal64.NOT_COMPUTED)
+            {
+            long nBits = Decimal64.add(nBits1, nBits2, PRECISION);
+            if (nBits != Decimal64.NOT_COMPUTED)
+                {
+                return fromDecimal64Bits(nBits);
+                }
+            }
+
+        return new Decimal128(dec1.toBigDecimal().add(dec2.toBigDecimal(), MathContext.DECIMAL128));
+        }
+
+    /**
+     * Subtract one 128-bit decimal from another, rounding the difference to 34 digits (ties to
+     * even) as necessary.
+     *
+     * @param dec1  the decimal value to subtract from
+     * @param dec2  the decimal value to subtract
+     *
+     * @return the difference
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static Decimal128 subtract(Decimal128 dec1, Decimal128 dec2)
+        {
+        return add(dec1, dec2.negate());
+        }
+
+    /**
+     * Multiply two 128-bit decimals, rounding the product to 34 digits (ties to even) as
+     * necessary. See {@link #add} regarding the use of the 64-bit decimal arithmetic.
+     *
+     * @param dec1  the first decimal value
+     * @param dec2  the second decimal value
+     *
+     * @return the product
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static Decimal128 multiply(Decimal128 dec1, Decimal128 dec2)
+        {
+        long nBits1 = dec1.toDecimal64Bits();
+        long nBits2 = dec2.toDecimal64Bits();
+        if (nBits1 != Decimal64.NOT_COMPUTED && nBits2 != Decimal64.NOT_COMPUTED)
+            {
+            long nBits = Decimal64.multiply(nBits1, nBits2, PRECISION);
+            if (nBits != Decimal64.NOT_COMPUTED)
+                {
+                return fromDecimal64Bits(nBits);
+                }
+            }
+
+        return new Decimal128(dec1.toBigDecimal().multiply(dec2.toBigDecimal(), MathContext.DECIMAL128));
+        }
+
+    /**
+     * Divide one 128-bit decimal by another, rounding the quotient to 34 digits (ties to even) as
+     * necessary. Division of a non-zero value by zero results in an Infinity, and division of zero
+     * by zero results in a NaN. See {@link #add} regarding the use of the 64-bit decimal
+     * arithmetic.
+     *
+     * @param dec1  the dividend
+     * @param dec2  the divisor
+     *
+     * @return the quotient
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static Decimal128 divide(Decimal128 dec1, Decimal128 dec2)
+        {
+        long nBits1 = dec1.toDecimal64Bits();
+        long nBits2 = dec2.toDecimal64Bits();
+        if (nBits1 != Decimal64.NOT_COMPUTED && nBits2 != Decimal64.NOT_COMPUTED)
+            {
+            long nBits = Decimal64.divide(nBits1, nBits2, PRECISION);
+            if (nBits != Decimal64.NOT_COMPUTED)
+                {
+                return fromDecimal64Bits(nBits);
+                }
+            }
+
+        return new Decimal128(dec1.toBigDecimal().divide(dec2.toBigDecimal(), MathContext.DECIMAL128));
+        }
+
+    /**
+     * Compare the numeric values of two 128-bit decimals; see {@link Decimal64#compare}.
+     *
+     * @param dec1  the first decimal value
+     * @param dec2  the second decimal value
+     *
+     * @return a value that is negative, zero, or positive to indicate less than, equal, or greater
+     */
+    public static int compare(Decimal128 dec1, Decimal128 dec2)
+        {
+        long nBits1 = dec1.toDecimal64Bits();
+        long nBits2 = dec2.toDecimal64Bits();
+        if (nBits1 != Decimal64.NOT_COMPUTED && nBits2 != Decimal64.NOT_COMPUTED)
+            {
+            return Decimal64.compare(nBits1, nBits2);
+            }
+
+        // since all of the NaN and Infinity values can be converted, both values are finite here
+        return dec1.toBigDecimal().compareTo(dec2.toBigDecimal());
+        }
+
+    /**
+     * @return the decimal value with the opposite sign
+     */
+    public Decimal128 negate()
+        {
+        return new Decimal128(m_nHBits ^ SIGN_BIT, m_nLBits);
+        }
+
+    /**
+     * Convert this decimal to a 64-bit decimal, iff the value can be represented exactly as a
+     * 64-bit decimal (i.e. a significand of up to 16 digits, and an exponent within the 64-bit
+     * decimal range), or if this is a NaN or an Infinity.
+     *
+     * @return the 64-bit IEEE-754-2008 decimal value, or Decimal64.NOT_COMPUTED
+     */
+    public long toDecimal64Bits()
+        {
+        long nHBits = m_nHBits;
+        long nLBits = m_nLBits;
+        if ((nHBits & G0_G3_MASK) == G0_G3_MASK)
+            {
+            // S and G0-G5 identify the NaN/Infinity
+            return nHBits & SIGN_G5_MASK;
+            }
+
+        // the significand has no more than 18 digits iff the leading digit (which is encoded in
+        // the G bits), the trailing significand bits in the high long, and the leading 4 bits of
+        // the low long (which are part of the 7th declet) are all zero
+        int nToG4 = (int) (nHBits >>> G4_SHIFT);
+        if ((nToG4 & 0b011000) == 0b011000 || (nToG4 & 0b000111) != 0
+                || (nHBits & LS46BITS) != 0 || nLBits >>> 60 != 0)
+            {
+            return Decimal64.NOT_COMPUTED;
+            }
+
+        long nSig = 0;
+        for (int of = 50; of >= 0; of -= 10)
+            {
+            nSig = nSig * 1000 + DECLET_TO_INT[(int) (nLBits >>> of) & 0x3FF];
+            }
+
+        int nExp = getExponent();
+        return nSig > Decimal64.MAX_SIGNIFICAND
+                || nExp < Decimal64.MIN_EXPONENT || nExp > Decimal64.MAX_EXPONENT
+                ? Decimal64.NOT_COMPUTED
+                : Decimal64.toLongBits(nHBits < 0, nSig, nExp);
+        }
+
+    /**
+     * Convert a 64-bit decimal to a 128-bit decimal with the same value. This conversion is always
+     * exact.
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value
+     *
+     * @return the 128-bit decimal
+     */
+    public static Decimal128 fromDecimal64Bits(long nBits)
+        {
+        if (!Decimal64.isFinite(nBits))
+            {
+            return new Decimal128(nBits & SIGN_G5_MASK, 0L);
+            }
+
+        // the up-to 16 digits of the significand fit into the 6 declets in the low bits; the
+        // leading digit (which is encoded in the G bits) is zero, so the two most significant
+        // bits of the exponent are stored in G0-G1
+        long nSig   = Decimal64.getSignificand(nBits);
+        int  nExp   = Decimal64.getExponent(nBits) + 6176;
+        long nLBits = 0;
+        for (int of = 0; of < 60; of += 10)
+            {
+            nLBits |= ((long) INT_TO_DECLET[(int) (nSig % 1000)]) << of;
+            nSig   /= 1000;
+            }
+
+        long nHBits = (nBits & SIGN_BIT)
+                | ((long) (nExp & 0b110000000_00000)) << (G4_SHIFT - 9)
+                | (nExp & 0xFFFL) << 46;
+        return new Decimal128(nHBits, nLBits);
+        }
+
+
     // ----- helpers -------------------------------------------------------------------------------
 
     /**
@@ -333,12 +541,8 @@ public class Decimal128
                 break;
 
             case 0:
-                // this is cheating a little bit, but the value is zero, so just steal the bits from
-                // the well-known zero value
-                m_nHBits = POS_ZERO.m_nHBits;
-                m_nLBits = POS_ZERO.m_nLBits;
-                return;
-
+                // the value is zero, but the exponent still needs to be encoded (so that the value
+                // remains a member of the same cohort)
             case 1:
                 fNeg = false;
                 break;
@@ -446,6 +650,11 @@ public class Decimal128
      */
     private static final long       LS46BITS            = 0x3FFFFFFFFFFFL;
 
+    /**
+     * The precision of a 128-bit IEEE 754 decimal, in decimal digits.
+     */
+    public static final int         PRECISION           = 34;
+
     /**
      * The sign bit for the high 64 bits of a 128-bit IEEE 754 decimal.
      */
@@ -489,6 +698,12 @@ public class Decimal128
      */
     private static final long       G5_SIGNAL           = 1L << G5_SHIFT;
 
+    /**
+     * The bit mask for the sign bit and the G0-G5 bits of the high 64 bits of a 128-bit IEEE 754
+     * decimal.
+     */
+    private static final long       SIGN_G5_MASK        = 0xFE00000000000000L;
+
     /**
      * The decimal value for zero.
      */
@@ -6,7 +6,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.math.MathContext;
 
 
 /**
@@ -124,15 +124,7 @@ public class Decimal32
      */
     public int getSignificand()
         {
-        int nBits = ensureFiniteBits(m_nBits);
-        int nToG4 = nBits >>> G4_SHIFT;
-        int nSig  = (nToG4 & 0b011000) == 0b011000
-                ? (nToG4 & 0b000001) + 8
-                : (nToG4 & 0b000111);
-
-        // unpack the digits from most significant declet to least significant declet
-        nSig = nSig * 1000 + decletToInt(nBits >>> 10);
-        return nSig * 1000 + decletToInt(nBits);
+        return getSignificand(m_nBits);
         }
 
     /**
@@ -140,15 +132,7 @@ public class Decimal32
      */
     public int getExponent()
         {
-        // combination field is 11 bits (from bit 20 to bit 30), including 6 "pure" exponent bits
-        int nCombo = ensureFiniteBits(m_nBits) >>> 20;
-        int nExp   = (nCombo & 0b011000000000) == 0b011000000000
-                ? (nCombo & 0b000110000000) >>> 1
-                : (nCombo & 0b011000000000) >>> 3;
-
-        // pull the rest of the exponent bits out of "pure" exponent section of the combo bits
-        // section, and unbias the exponent
-        return (nExp | nCombo & 0b111111) - 101;
+        return getExponent(m_nBits);
         }
 
 
@@ -226,6 +210,61 @@ public class Decimal32
         return nBits;
         }
 
+    /**
+     * Test the passed bits to determine if they are finite.
+     *
+     * @param nBits  the 32-bit IEEE-754-2008 decimal value
+     *
+     * @return true iff the decimal is neither a NaN nor an Infinity value
+     */
+    public static boolean isFinite(int nBits)
+        {
+        return (nBits & G0_G3_MASK) != G0_G3_MASK;
+        }
+
+    /**
+     * Obtain the significand of a finite 32-bit decimal.
+     *
+     * @param nBits  the 32-bit IEEE-754-2008 decimal value
+     *
+     * @return the significand, which does not include the sign
+     *
+     * @throws NumberFormatException if the decimal is either a NaN or an Infinity value
+     */
+    public static int getSignificand(int nBits)
+        {
+        int nToG4 = ensureFiniteBits(nBits) >>> G4_SHIFT;
+        int nSig  = (nToG4 & 0b011000) == 0b011000
+                ? (nToG4 & 0b000001) + 8
+                : (nToG4 & 0b000111);
+
+        // unpack the digits from most significant declet to least significant declet
+        return (nSig * 1000 + DECLET_TO_INT[nBits >>> 10 & 0x3FF])
+                     * 1000 + DECLET_TO_INT[nBits        & 0x3FF];
+        }
+
+    /**
+     * Obtain the (unbiased) exponent of a finite 32-bit decimal.
+     *
+     * @param nBits  the 32-bit IEEE-754-2008 decimal value
+     *
+     * @return the exponent
+     *
+     * @throws NumberFormatException if the decimal is either a NaN or an Infinity value
+     */
+    public static int getExponent(int nBits)
+        {
+        // combination field is 11 bits (from bit 20 to bit 30), including 6 "pure" exponent bits
+        int nCombo = ensureFiniteBits(nBits) >>> 20;
+        int nExp   = (nCombo & 0b011000000000) == 0b011000000000
+                ? (nCombo & 0b000110000000) >>> 1
+                : (nCombo & 0b011000000000) >>> 3;
+
+        // pull the rest of the exponent bits out of "pure" exponent section of the combo bits
+        // section, and unbias the exponent
+        return (nExp | nCombo & 0b111111) - BIAS;
+        }
+
     /**
      * Convert a Java BigDecimal to an IEEE 754 32-bit decimal.
      *
@@ -239,30 +278,42 @@ public class Decimal32
         {
         // obtain the significand
         int nSig = dec.unscaledValue().intValueExact();
-        if (nSig < -9999999 || nSig > 9999999)
+        if (nSig < -MAX_SIGNIFICAND || nSig > MAX_SIGNIFICAND)
             {
             throw new ArithmeticException("significand is >7 digits: " + nSig);
             }
 
-        int nBits = 0;
-        if (nSig < 0)
-            {
-            nBits = SIGN_BIT;
-            nSig  = -nSig;
-            }
-
         // bias the exponent (the scale is basically a negative exponent)
-        int nExp = 101 - dec.scale();
+        int nExp = BIAS - dec.scale();
         if (nExp < 0 || nExp >= 192)
             {
             throw new ArithmeticException("biased exponent is out of range [0,192): " + nExp);
             }
 
+        return toIntBits(nSig < 0, Math.abs(nSig), -dec.scale());
+        }
+
+    /**
+     * Encode the sign, significand and exponent of a finite value as an IEEE 754 32-bit decimal.
+     *
+     * @param fNeg  true iff the sign bit is to be set
+     * @param nSig  the significand, in the range <tt>0..MAX_SIGNIFICAND</tt>
+     * @param nExp  the (unbiased) exponent, in the range <tt>MIN_EXPONENT..MAX_EXPONENT</tt>
+     *
+     * @return a Java <tt>int</tt> that contains a 32-bit IEEE 754 decimal value
+     */
+    public static int toIntBits(boolean fNeg, int nSig, int nExp)
+        {
+        assert nSig >= 0 && nSig <= MAX_SIGNIFICAND;
+        assert nExp >= MIN_EXPONENT && nExp <= MAX_EXPONENT;
+
         // store the least significant 6 bits of the exponent into the combo field starting at G5
         // store the least signficant 6 decimal digits of the significand in two 10-bit declets in T
-        nBits |=  ((nExp & 0b111111              ) << 20)
-                | (intToDeclet(nSig / 1000 % 1000) << 10)
-                | (intToDeclet(nSig        % 1000)      );
+        nExp += BIAS;
+        int nBits = (fNeg ? SIGN_BIT : 0)
+                | ((nExp & 0b111111                   ) << 20)
+                | (INT_TO_DECLET[nSig / 1000 % 1000] << 10)
+                | (INT_TO_DECLET[nSig        % 1000]      );
 
         // remaining significand of 8 or 9 is stored in G4 as 0 or 1, with remaining exponent stored
         // in G2-G3, and G0-G1 both set to 1; otherwise, remaining significand (3 bits) is stored in
@@ -284,47 +335,200 @@ public class Decimal32
      */
     public static BigDecimal toBigDecimal(int nBits)
         {
-        ensureFiniteBits(nBits);
+        int nSig = getSignificand(nBits);
+        return BigDecimal.valueOf(nBits < 0 ? -nSig : nSig, -getExponent(nBits));
+        }
 
-        // combination field is 11 bits (from bit 20 to bit 30), including 6 "pure" exponent bits
-        int nCombo = nBits >>> 20;
-        int nExp   = nCombo & 0b111111;
-        int nSig;
 
-        // test G0 and G1
-        if ((nCombo & 0b011000000000) == 0b011000000000)
+    // ----- arithmetic ----------------------------------------------------------------------------
+
+    /**
+     * Add two 32-bit decimals, rounding the sum to 7 digits (ties to even) as necessary.
+     * <p/>
+     * The calculation is done by the 64-bit decimal arithmetic, which is exact for the 32-bit
+     * values, and which rounds the result directly to the 32-bit precision.
+     *
+     * @param nBits1  the first 32-bit IEEE-754-2008 decimal value
+     * @param nBits2  the second 32-bit IEEE-754-2008 decimal value
+     *
+     * @return the sum as a 32-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static int add(int nBits1, int nBits2)
+        {
+        int nBits = fromDecimal64Bits(Decimal64.add(
+                toDecimal64Bits(nBits1), toDecimal64Bits(nBits2), PRECISION));
+        return nBits == NOT_COMPUTED
+                ? toIntBits(toBigDecimal(nBits1).add(toBigDecimal(nBits2), MathContext.DECIMAL32))
+                : nBits;
+        }
+
+    /**
+     * Subtract one 32-bit decimal from another, rounding the difference to 7 digits (ties to
+     * even) as necessary.
+     *
+     * @param nBits1  the 32-bit IEEE-754-2008 decimal value to subtract from
+     * @param nBits2  the 32-bit IEEE-754-2008 decimal value to subtract
+     *
+     * @return the difference as a 32-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static int subtract(int nBits1, int nBits2)
+        {
+        return add(nBits1, nBits2 ^ SIGN_BIT);
+        }
+
+    /**
+     * Multiply two 32-bit decimals, rounding the product to 7 digits (ties to even) as necessary.
+     *
+     * @param nBits1  the first 32-bit IEEE-754-2008 decimal value
+     * @param nBits2  the second 32-bit IEEE-754-2008 decimal value
+     *
+     * @return the product as a 32-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static int multiply(int nBits1, int nBits2)
+        {
+        int nBits = fromDecimal64Bits(Decimal64.multiply(
+                toDecimal64Bits(nBits1), toDecimal64Bits(nBits2), PRECISION));
+        return nBits == NOT_COMPUTED
+                ? toIntBits(toBigDecimal(nBits1).multiply(toBigDecimal(nBits2), MathContext.DECIMAL32))
+                : nBits;
+        }
+
+    /**
+     * Divide one 32-bit decimal by another, rounding the quotient to 7 digits (ties to even) as
+     * necessary. Division of a non-zero value by zero results in an Infinity, and division of zero
+     * by zero results in a NaN.
+     *
+     * @param nBits1  the 32-bit IEEE-754-2008 decimal dividend
+     * @param nBits2  the 32-bit IEEE-754-2008 decimal divisor
+     *
+     * @return the quotient as a 32-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static int divide(int nBits1, int nBits2)
+        {
+        int nBits = fromDecimal64Bits(Decimal64.divide(
+                toDecimal64Bits(nBits1), toDecimal64Bits(nBits2), PRECISION));
+        return nBits == NOT_COMPUTED
+                ? toIntBits(toBigDecimal(nBits1).divide(toBigDecimal(nBits2), MathContext.DECIMAL32))
+                : nBits;
+        }
+
+    /**
+     * Compare the numeric values of two 32-bit decimals; see {@link Decimal64#compare}.
+     *
+     * @param nBits1  the first 32-bit IEEE-754-2008 decimal value
+     * @param nBits2  the second 32-bit IEEE-754-2008 decimal value
+     *
+     * @return a value that is negative, zero, or positive to indicate less than, equal, or greater
+     */
+    public static int compare(int nBits1, int nBits2)
+        {
+        return Decimal64.compare(toDecimal64Bits(nBits1), toDecimal64Bits(nBits2));
+        }
+
+    /**
+     * Convert a 32-bit decimal to a 64-bit decimal with the same value. This conversion is always
+     * exact.
+     *
+     * @param nBits  the 32-bit IEEE-754-2008 decimal value
+     *
+     * @return the 64-bit IEEE-754-2008 decimal value
+     */
+    public static long toDecimal64Bits(int nBits)
+        {
+        return isFinite(nBits)
+                ? Decimal64.toLongBits(nBits < 0, getSignificand(nBits), getExponent(nBits))
+                : ((long) (nBits & SIGN_G5_MASK)) << 32;    // S and G0-G5 identify the NaN/Infinity
+        }
+
+    /**
+     * Convert a 64-bit decimal with no more than 7 significant digits to a 32-bit decimal.
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value, or Decimal64.NOT_COMPUTED
+     *
+     * @return the 32-bit IEEE-754-2008 decimal value, or {@link #NOT_COMPUTED} if the value cannot
+     *         be represented exactly as a 32-bit decimal
+     */
+    static int fromDecimal64Bits(long nBits)
+        {
+        if (nBits == Decimal64.NOT_COMPUTED)
             {
-            // when the most significant five bits of G are 110xx or 1110x, the leading significand
-            // digit d0 is 8+G4, a value 8 or 9, and the leading biased exponent bits are 2*G2 + G3,
-            // a value of 0, 1, or 2
-            nExp |= ((nCombo & 0b000110000000) >>> 1);    // shift right 7, but then shift left 6
-            nSig  = ((nCombo & 0b000001000000) >>> 6) + 8;
+            return NOT_COMPUTED;
             }
-        else
+
+        if (!Decimal64.isFinite(nBits))
             {
-            // when the most significant five bits of G are 0xxxx or 10xxx, the leading significand
-            // digit d0 is 4*G2 + 2*G3 + G4, a value in the range 0 through 7, and the leading
-            // biased exponent bits are 2*G0 + G1, a value 0, 1, or 2; consequently if T is 0 and
-            // the most significant five bits of G are 00000, 01000, or 10000, then the value is 0:
-            //      v = (−1) S * (+0)
-            nExp |= (nCombo & 0b011000000000) >>> 3;    // shift right 9, but then shift left 6
-            nSig  = (nCombo & 0b000111000000) >>> 6;
+            return (int) (nBits >>> 32) & SIGN_G5_MASK;
             }
 
-        // unbias the exponent
-        nExp -= 101;
+        long nSig = Decimal64.getSignificand(nBits);
+        int  nExp = Decimal64.getExponent(nBits);
+        if (nSig > MAX_SIGNIFICAND)
+            {
+            return NOT_COMPUTED;
+            }
 
-        // unpack the digits from most significant declet to least significan declet
-        nSig = ((nSig * 1000 + decletToInt(nBits >>> 10))
-                      * 1000 + decletToInt(nBits       ))
-                      * (((nBits & SIGN_BIT) >> 31) | 1);       // apply sign
+        if (nExp > MAX_EXPONENT)
+            {
+            // "clamp" the exponent by adding trailing zeros to the significand, if there is room
+            int cPad = nExp - MAX_EXPONENT;
+            if (nSig != 0)
+                {
+                if (getDigitCount(nSig) + cPad > PRECISION)
+                    {
+                    return NOT_COMPUTED;
+                    }
+                nSig *= pow10(cPad);
+                }
+            nExp = MAX_EXPONENT;
+            }
+        else if (nExp < MIN_EXPONENT)
+            {
+            if (nSig != 0)
+                {
+                return NOT_COMPUTED;
+                }
+            nExp = MIN_EXPONENT;
+            }
 
-        return new BigDecimal(BigInteger.valueOf(nSig), -nExp);
+        return toIntBits(nBits < 0, (int) nSig, nExp);
         }
 
 
     // ----- constants -----------------------------------------------------------------------------
 
+    /**
+     * The precision of a 32-bit IEEE 754 decimal, in decimal digits.
+     */
+    public static final int       PRECISION       = 7;
+
+    /**
+     * The largest significand of a 32-bit IEEE 754 decimal.
+     */
+    public static final int       MAX_SIGNIFICAND = 9999999;
+
+    /**
+     * The exponent bias of a 32-bit IEEE 754 decimal.
+     */
+    private static final int      BIAS            = 101;
+
+    /**
+     * The smallest (unbiased) exponent of a 32-bit IEEE 754 decimal.
+     */
+    public static final int       MIN_EXPONENT    = -BIAS;
+
+    /**
+     * The largest (unbiased) exponent of a 32-bit IEEE 754 decimal.
+     */
+    public static final int       MAX_EXPONENT    = 191 - BIAS;
+
     /**
      * The sign bit for a 32-bit IEEE 754 decimal.
      */
@@ -368,6 +572,17 @@ public class Decimal32
      */
     private static final int      G5_SIGNAL    = 1 << G5_SHIFT;
 
+    /**
+     * The bit mask for the sign bit and the G0-G5 bits of a 32-bit IEEE 754 decimal.
+     */
+    private static final int      SIGN_G5_MASK = 0xFE000000;
+
+    /**
+     * A NaN value with a payload that is never produced by the arithmetic operations, which is
+     * used internally to indicate that a result could not be calculated using long arithmetic.
+     */
+    public static final int       NOT_COMPUTED = G0_G4_NAN | 1;
+
     /**
      * The decimal value for zero.
      */
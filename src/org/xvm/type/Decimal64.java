@@ -6,7 +6,9 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.math.MathContext;
+
+import static org.xvm.util.Handy.divideUnsigned;
 
 
 /**
@@ -130,18 +132,7 @@ public class Decimal64
      */
     public long getSignificand()
         {
-        long nBits = ensureFiniteBits(m_nBits);
-        int  nToG4 = (int) (nBits >>> G4_SHIFT);
-        long nSig  = (nToG4 & 0b011000) == 0b011000
-                ? (nToG4 & 0b000001) + 8
-                : (nToG4 & 0b000111);
-
-        // unpack the digits from most significant declet to least significant declet
-        for (int cShift = 40; cShift >= 0; cShift -= 10)
-            {
-            nSig = nSig * 1000 + decletToInt((int) (nBits >>> cShift));
-            }
-        return nSig;
+        return getSignificand(m_nBits);
         }
 
     /**
@@ -149,15 +140,7 @@ public class Decimal64
      */
     public int getExponent()
         {
-        // combination field is 13 bits (from bit 50 to bit 62), including 8 "pure" exponent bits
-        int nCombo = (int) (ensureFiniteBits(m_nBits) >>> 50);
-        int nExp   = (nCombo & 0b01100000000000) == 0b01100000000000
-                ? (nCombo & 0b00011000000000) >>> 1
-                : (nCombo & 0b01100000000000) >>> 3;
-
-        // pull the rest of the exponent bits out of "pure" exponent section of the combo bits
-        // section, and unbias the exponent
-        return (nExp | nCombo & 0xFF) - 398;
+        return getExponent(m_nBits);
         }
 
 
@@ -221,6 +204,421 @@ public class Decimal64
         }
 
 
+    // ----- arithmetic ----------------------------------------------------------------------------
+
+    /**
+     * Add two 64-bit decimals, rounding the sum to 16 digits (ties to even) as necessary.
+     * <p/>
+     * Unless the exponents of the operands are too far apart for the aligned significands to fit
+     * into a Java <tt>long</tt>, the sum is calculated directly from the encoded values, without
+     * creating any objects.
+     *
+     * @param nBits1  the first 64-bit IEEE-754-2008 decimal value
+     * @param nBits2  the second 64-bit IEEE-754-2008 decimal value
+     *
+     * @return the sum as a 64-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static long add(long nBits1, long nBits2)
+        {
+        long nBits = add(nBits1, nBits2, PRECISION);
+        return nBits == NOT_COMPUTED
+                ? toLongBits(toBigDecimal(nBits1).add(toBigDecimal(nBits2), MathContext.DECIMAL64))
+                : nBits;
+        }
+
+    /**
+     * Subtract one 64-bit decimal from another, rounding the difference to 16 digits (ties to
+     * even) as necessary.
+     *
+     * @param nBits1  the 64-bit IEEE-754-2008 decimal value to subtract from
+     * @param nBits2  the 64-bit IEEE-754-2008 decimal value to subtract
+     *
+     * @return the difference as a 64-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static long subtract(long nBits1, long nBits2)
+        {
+        return add(nBits1, nBits2 ^ SIGN_BIT);
+        }
+
+    /**
+     * Multiply two 64-bit decimals, rounding the product to 16 digits (ties to even) as necessary.
+     * <p/>
+     * The product is calculated directly from the encoded values, without creating any objects.
+     *
+     * @param nBits1  the first 64-bit IEEE-754-2008 decimal value
+     * @param nBits2  the second 64-bit IEEE-754-2008 decimal value
+     *
+     * @return the product as a 64-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static long multiply(long nBits1, long nBits2)
+        {
+        long nBits = multiply(nBits1, nBits2, PRECISION);
+        return nBits == NOT_COMPUTED
+                ? toLongBits(toBigDecimal(nBits1).multiply(toBigDecimal(nBits2), MathContext.DECIMAL64))
+                : nBits;
+        }
+
+    /**
+     * Divide one 64-bit decimal by another, rounding the quotient to 16 digits (ties to even) as
+     * necessary. Division of a non-zero value by zero results in an Infinity, and division of zero
+     * by zero results in a NaN.
+     * <p/>
+     * The quotient is calculated directly from the encoded values, without creating any objects.
+     *
+     * @param nBits1  the 64-bit IEEE-754-2008 decimal dividend
+     * @param nBits2  the 64-bit IEEE-754-2008 decimal divisor
+     *
+     * @return the quotient as a 64-bit IEEE-754-2008 decimal value
+     *
+     * @throws ArithmeticException if the result is out of range
+     */
+    public static long divide(long nBits1, long nBits2)
+        {
+        long nBits = divide(nBits1, nBits2, PRECISION);
+        return nBits == NOT_COMPUTED
+                ? toLongBits(toBigDecimal(nBits1).divide(toBigDecimal(nBits2), MathContext.DECIMAL64))
+                : nBits;
+        }
+
+    /**
+     * Compare the numeric values of two 64-bit decimals. Members of the same cohort (such as 1.0
+     * and 1.00) are equal, as are positive and negative zero. NaN values are ordered after all
+     * other values, including positive infinity.
+     *
+     * @param nBits1  the first 64-bit IEEE-754-2008 decimal value
+     * @param nBits2  the second 64-bit IEEE-754-2008 decimal value
+     *
+     * @return a value that is negative, zero, or positive to indicate less than, equal, or greater
+     */
+    public static int compare(long nBits1, long nBits2)
+        {
+        if (nBits1 == nBits2)
+            {
+            return 0;
+            }
+
+        if (!isFinite(nBits1) || !isFinite(nBits2))
+            {
+            // sort -Infinity, finite, +Infinity, NaN
+            return Integer.compare(rankNonFinite(nBits1), rankNonFinite(nBits2));
+            }
+
+        long nSig1  = getSignificand(nBits1);
+        long nSig2  = getSignificand(nBits2);
+        int  nExp1  = getExponent(nBits1);
+        int  nExp2  = getExponent(nBits2);
+        if (nExp1 == nExp2)
+            {
+            // the common case, e.g. for monetary amounts
+            return Long.compare(nBits1 < 0 ? -nSig1 : nSig1, nBits2 < 0 ? -nSig2 : nSig2);
+            }
+
+        int  nSign1 = nSig1 == 0 ? 0 : nBits1 < 0 ? -1 : 1;
+        int  nSign2 = nSig2 == 0 ? 0 : nBits2 < 0 ? -1 : 1;
+        if (nSign1 != nSign2 || nSign1 == 0)
+            {
+            return Integer.compare(nSign1, nSign2);
+            }
+
+        // compare the magnitudes, first by the position of the most significant digit, and then
+        // (since both values are known to have the same adjusted exponent) by the aligned digits
+        int nAdj1 = nExp1 + getDigitCount(nSig1);
+        int nAdj2 = nExp2 + getDigitCount(nSig2);
+        int nCmp;
+        if (nAdj1 != nAdj2)
+            {
+            nCmp = Integer.compare(nAdj1, nAdj2);
+            }
+        else if (nExp1 > nExp2)
+            {
+            nCmp = Long.compare(nSig1 * pow10(nExp1 - nExp2), nSig2);
+            }
+        else
+            {
+            nCmp = Long.compare(nSig1, nSig2 * pow10(nExp2 - nExp1));
+            }
+
+        return nSign1 < 0 ? -nCmp : nCmp;
+        }
+
+    /**
+     * Add two decimals, rounding the result to the specified number of digits.
+     *
+     * @param nBits1   the first 64-bit IEEE-754-2008 decimal value
+     * @param nBits2   the second 64-bit IEEE-754-2008 decimal value
+     * @param cDigits  the precision of the result; if larger than 16, then only results that can
+     *                 be represented exactly by a 64-bit decimal are calculated
+     *
+     * @return the sum as a 64-bit IEEE-754-2008 decimal value, or {@link #NOT_COMPUTED} if the
+     *         result cannot be calculated using long arithmetic
+     */
+    static long add(long nBits1, long nBits2, int cDigits)
+        {
+        if (!isFinite(nBits1) || !isFinite(nBits2))
+            {
+            // NaN + x = NaN, Infinity + -Infinity = NaN, otherwise Infinity + x = Infinity
+            if (isNaN(nBits1) || isNaN(nBits2)
+                    || !isFinite(nBits1) && !isFinite(nBits2) && (nBits1 ^ nBits2) < 0)
+                {
+                return G0_G4_NAN;
+                }
+            return isFinite(nBits1) ? nBits2 : nBits1;
+            }
+
+        long nSig1 = getSignificand(nBits1);
+        long nSig2 = getSignificand(nBits2);
+        int  nExp1 = getExponent(nBits1);
+        int  nExp2 = getExponent(nBits2);
+        if (nBits1 < 0)
+            {
+            nSig1 = -nSig1;
+            }
+        if (nBits2 < 0)
+            {
+            nSig2 = -nSig2;
+            }
+
+        if (nExp1 == nExp2)
+            {
+            // the common case, e.g. for monetary amounts
+            return round(nSig1 + nSig2, nExp1, cDigits);
+            }
+
+        // align the significands by scaling the one that has the larger exponent
+        if (nExp1 < nExp2)
+            {
+            long nSig = nSig1;
+            nSig1 = nSig2;
+            nSig2 = nSig;
+
+            int nExp = nExp1;
+            nExp1 = nExp2;
+            nExp2 = nExp;
+            }
+
+        if (nSig1 != 0)
+            {
+            int cShift = nExp1 - nExp2;
+            if (cShift + getDigitCount(Math.abs(nSig1)) > 18)
+                {
+                return NOT_COMPUTED;
+                }
+            nSig1 *= pow10(cShift);
+            }
+
+        // the sum of two values of up to 18 digits each cannot overflow
+        return round(nSig1 + nSig2, nExp2, cDigits);
+        }
+
+    /**
+     * Multiply two decimals, rounding the result to the specified number of digits.
+     *
+     * @param nBits1   the first 64-bit IEEE-754-2008 decimal value
+     * @param nBits2   the second 64-bit IEEE-754-2008 decimal value
+     * @param cDigits  the precision of the result; if larger than 16, then only results that can
+     *                 be represented exactly by a 64-bit decimal are calculated
+     *
+     * @return the product as a 64-bit IEEE-754-2008 decimal value, or {@link #NOT_COMPUTED} if the
+     *         result cannot be calculated using long arithmetic
+     */
+    static long multiply(long nBits1, long nBits2, int cDigits)
+        {
+        long nSign = (nBits1 ^ nBits2) & SIGN_BIT;
+        if (!isFinite(nBits1) || !isFinite(nBits2))
+            {
+            // NaN * x = NaN, Infinity * 0 = NaN, otherwise Infinity * x = Infinity
+            return isNaN(nBits1) || isNaN(nBits2) || isZero(nBits1) || isZero(nBits2)
+                    ? G0_G4_NAN
+                    : G0_G4_INF | nSign;
+            }
+
+        long nSig1 = getSignificand(nBits1);
+        long nSig2 = getSignificand(nBits2);
+        int  nExp  = getExponent(nBits1) + getExponent(nBits2);
+
+        // the product of two 16-digit significands fits into 108 bits
+        long nLo = nSig1 * nSig2;
+        long nHi = Math.multiplyHigh(nSig1, nSig2);
+        if (nHi == 0 && nLo >= 0)
+            {
+            return round(nSign == 0 ? nLo : -nLo, nExp, cDigits);
+            }
+
+        if (cDigits > PRECISION)
+            {
+            return NOT_COMPUTED;
+            }
+
+        // the product has either (c1+c2) or (c1+c2-1) digits; divide it by the power of ten that
+        // leaves exactly the desired number of digits
+        int  cDrop = getDigitCount(nSig1) + getDigitCount(nSig2) - cDigits;
+        long nDiv  = pow10(cDrop);
+        long nQuo  = divideUnsigned(nHi, nLo, nDiv);
+        if (nQuo < pow10(cDigits - 1))
+            {
+            nDiv = pow10(--cDrop);
+            nQuo = divideUnsigned(nHi, nLo, nDiv);
+            }
+
+        nQuo = roundHalfEven(nQuo, nLo - nQuo * nDiv, nDiv);
+        return round(nSign == 0 ? nQuo : -nQuo, nExp + cDrop, cDigits);
+        }
+
+    /**
+     * Divide two decimals, rounding the result to the specified number of digits.
+     *
+     * @param nBits1   the 64-bit IEEE-754-2008 decimal dividend
+     * @param nBits2   the 64-bit IEEE-754-2008 decimal divisor
+     * @param cDigits  the precision of the result; if larger than 16, then only results that can
+     *                 be represented exactly by a 64-bit decimal are calculated
+     *
+     * @return the quotient as a 64-bit IEEE-754-2008 decimal value, or {@link #NOT_COMPUTED} if the
+     *         result cannot be calculated using long arithmetic
+     */
+    static long divide(long nBits1, long nBits2, int cDigits)
+        {
+        long nSign = (nBits1 ^ nBits2) & SIGN_BIT;
+        if (!isFinite(nBits1) || !isFinite(nBits2))
+            {
+            // NaN / x = NaN, Infinity / Infinity = NaN, Infinity / x = Infinity, x / Infinity = 0
+            return isNaN(nBits1) || isNaN(nBits2) || !isFinite(nBits1) && !isFinite(nBits2)
+                    ? G0_G4_NAN
+                    : isFinite(nBits1)
+                        ? POS_ZERO.m_nBits | nSign
+                        : G0_G4_INF | nSign;
+            }
+
+        long nSig1 = getSignificand(nBits1);
+        long nSig2 = getSignificand(nBits2);
+        if (nSig2 == 0)
+            {
+            // 0 / 0 = NaN, otherwise x / 0 = Infinity
+            return nSig1 == 0 ? G0_G4_NAN : G0_G4_INF | nSign;
+            }
+
+        // the "ideal" exponent of the quotient is the difference of the exponents
+        int nExpIdeal = getExponent(nBits1) - getExponent(nBits2);
+        if (nSig1 == 0)
+            {
+            return round(0, nExpIdeal, cDigits);
+            }
+
+        // scale both significands to exactly the precision, so that the quotient of the dividend
+        // scaled by either 10^(p-1) or 10^p and the divisor has exactly p digits
+        int  cPrecision = Math.min(cDigits, PRECISION);
+        int  cSig1      = getDigitCount(nSig1);
+        int  cSig2      = getDigitCount(nSig2);
+        long nNorm1     = nSig1 * pow10(cPrecision - cSig1);
+        long nNorm2     = nSig2 * pow10(cPrecision - cSig2);
+        int  cScale     = nNorm1 >= nNorm2 ? cPrecision - 1 : cPrecision;
+        long nLo        = nNorm1 * pow10(cScale);
+        long nHi        = Math.multiplyHigh(nNorm1, pow10(cScale));
+        long nQuo       = divideUnsigned(nHi, nLo, nNorm2);
+        long nRem       = nLo - nQuo * nNorm2;
+        int  nExp       = nExpIdeal + cSig1 - cSig2 - cScale;
+
+        if (nRem == 0)
+            {
+            // the quotient is exact; remove the trailing zeros down to the ideal exponent
+            while (nExp < nExpIdeal && nQuo % 10 == 0)
+                {
+                nQuo /= 10;
+                ++nExp;
+                }
+            }
+        else if (cDigits > PRECISION)
+            {
+            return NOT_COMPUTED;
+            }
+        else
+            {
+            nQuo = roundHalfEven(nQuo, nRem, nNorm2);
+            }
+
+        return round(nSign == 0 ? nQuo : -nQuo, nExp, cDigits);
+        }
+
+    /**
+     * Round the passed significand to the specified number of digits (ties to even), and encode
+     * the result.
+     *
+     * @param nSig     the signed significand
+     * @param nExp     the exponent
+     * @param cDigits  the precision of the result; if larger than 16, then the value is not rounded
+     *
+     * @return the 64-bit IEEE-754-2008 decimal value, or {@link #NOT_COMPUTED} if the result
+     *         cannot be encoded exactly as a 64-bit decimal
+     */
+    private static long round(long nSig, int nExp, int cDigits)
+        {
+        boolean fNeg = nSig < 0;
+        long    nMag = fNeg ? -nSig : nSig;
+        int     cSig = getDigitCount(nMag);
+
+        if (cSig > cDigits || cSig > PRECISION)
+            {
+            if (cDigits > PRECISION)
+                {
+                return NOT_COMPUTED;
+                }
+
+            int  cDrop = cSig - cDigits;
+            long nDiv  = pow10(cDrop);
+            long nQuo  = nMag / nDiv;
+
+            nMag  = roundHalfEven(nQuo, nMag - nQuo * nDiv, nDiv);
+            nExp += cDrop;
+            if (nMag == pow10(cDigits))
+                {
+                // rounding carried into an additional digit
+                nMag /= 10;
+                ++nExp;
+                }
+            cSig = cDigits;
+            }
+
+        if (nExp > MAX_EXPONENT)
+            {
+            // the exponent can be reduced by adding trailing zeros to the significand ("clamping"),
+            // as long as the significand has room for them
+            int cPad = nExp - MAX_EXPONENT;
+            if (nMag != 0)
+                {
+                if (cSig + cPad > Math.min(cDigits, PRECISION))
+                    {
+                    return NOT_COMPUTED;
+                    }
+                nMag *= pow10(cPad);
+                }
+            nExp = MAX_EXPONENT;
+            }
+        else if (nExp < MIN_EXPONENT)
+            {
+            if (nMag != 0)
+                {
+                return NOT_COMPUTED;
+                }
+            nExp = MIN_EXPONENT;
+            }
+
+        return toLongBits(fNeg, nMag, nExp);
+        }
+
+    /**
+     * @return the order of the passed value in the sequence: -Infinity, finite, +Infinity, NaN
+     */
+    private static int rankNonFinite(long nBits)
+        {
+        return isFinite(nBits) ? 0 : isNaN(nBits) ? 2 : nBits < 0 ? -1 : 1;
+        }
+
+
     // ----- helpers -------------------------------------------------------------------------------
 
     /**
@@ -241,6 +639,89 @@ public class Decimal64
         return nBits;
         }
 
+    /**
+     * Test the passed bits to determine if they are finite.
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value
+     *
+     * @return true iff the decimal is neither a NaN nor an Infinity value
+     */
+    public static boolean isFinite(long nBits)
+        {
+        return (nBits & G0_G3_MASK) != G0_G3_MASK;
+        }
+
+    /**
+     * Test the passed bits to determine if they are a NaN.
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value
+     *
+     * @return true iff the decimal is a NaN value
+     */
+    public static boolean isNaN(long nBits)
+        {
+        return (nBits & G0_G4_NAN) == G0_G4_NAN;
+        }
+
+    /**
+     * Test the passed bits to determine if they are zero (including negative zero).
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value
+     *
+     * @return true iff the decimal is zero
+     */
+    public static boolean isZero(long nBits)
+        {
+        // G0 and G1 must not both be 1, and G2-G4 must be 0, and T (rightmost 50 bits) must be 0
+        return (nBits & G0_G1_MASK) != G0_G1_MASK && (nBits & 0x1C03FFFFFFFFFFFFL) == 0;
+        }
+
+    /**
+     * Obtain the significand of a finite 64-bit decimal.
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value
+     *
+     * @return the significand, which does not include the sign
+     *
+     * @throws NumberFormatException if the decimal is either a NaN or an Infinity value
+     */
+    public static long getSignificand(long nBits)
+        {
+        int  nToG4 = (int) (ensureFiniteBits(nBits) >>> G4_SHIFT);
+        long nSig  = (nToG4 & 0b011000) == 0b011000
+                ? (nToG4 & 0b000001) + 8
+                : (nToG4 & 0b000111);
+
+        // unpack the digits from most significant declet to least significant declet
+        return ((((nSig * 1000 + DECLET_TO_INT[(int) (nBits >>> 40) & 0x3FF])
+                        * 1000 + DECLET_TO_INT[(int) (nBits >>> 30) & 0x3FF])
+                        * 1000 + DECLET_TO_INT[(int) (nBits >>> 20) & 0x3FF])
+                        * 1000 + DECLET_TO_INT[(int) (nBits >>> 10) & 0x3FF])
+                        * 1000 + DECLET_TO_INT[(int)  nBits         & 0x3FF];
+        }
+
+    /**
+     * Obtain the (unbiased) exponent of a finite 64-bit decimal.
+     *
+     * @param nBits  the 64-bit IEEE-754-2008 decimal value
+     *
+     * @return the exponent
+     *
+     * @throws NumberFormatException if the decimal is either a NaN or an Infinity value
+     */
+    public static int getExponent(long nBits)
+        {
+        // combination field is 13 bits (from bit 50 to bit 62), including 8 "pure" exponent bits
+        int nCombo = (int) (ensureFiniteBits(nBits) >>> 50);
+        int nExp   = (nCombo & 0b01100000000000) == 0b01100000000000
+                ? (nCombo & 0b00011000000000) >>> 1
+                : (nCombo & 0b01100000000000) >>> 3;
+
+        // pull the rest of the exponent bits out of "pure" exponent section of the combo bits
+        // section, and unbias the exponent
+        return (nExp | nCombo & 0xFF) - BIAS;
+        }
+
     /**
      * Convert a Java BigDecimal to an IEEE 754 64-bit decimal.
      *
@@ -254,39 +735,55 @@ public class Decimal64
         {
         // obtain the significand
         long nSig = dec.unscaledValue().longValueExact();
-        if (nSig < -9999999999999999L || nSig > 9999999999999999L)
+        if (nSig < -MAX_SIGNIFICAND || nSig > MAX_SIGNIFICAND)
             {
             throw new ArithmeticException("significand is >16 digits: " + nSig);
             }
 
-        long nBits = 0;
-        if (nSig < 0)
-            {
-            nBits = SIGN_BIT;
-            nSig  = -nSig;
-            }
-
         // bias the exponent (the scale is basically a negative exponent)
-        int nExp = 398 - dec.scale();
+        int nExp = BIAS - dec.scale();
         if (nExp < 0 || nExp >= 768)
             {
             throw new ArithmeticException("biased exponent is out of range [0,768): " + nExp);
             }
 
+        return toLongBits(nSig < 0, Math.abs(nSig), -dec.scale());
+        }
+
+    /**
+     * Encode the sign, significand and exponent of a finite value as an IEEE 754 64-bit decimal.
+     *
+     * @param fNeg  true iff the sign bit is to be set
+     * @param nSig  the significand, in the range <tt>0..MAX_SIGNIFICAND</tt>
+     * @param nExp  the (unbiased) exponent, in the range <tt>MIN_EXPONENT..MAX_EXPONENT</tt>
+     *
+     * @return a Java <tt>long</tt> that contains a 64-bit IEEE 754 decimal value
+     */
+    public static long toLongBits(boolean fNeg, long nSig, int nExp)
+        {
+        assert nSig >= 0 && nSig <= MAX_SIGNIFICAND;
+        assert nExp >= MIN_EXPONENT && nExp <= MAX_EXPONENT;
+
+        // split the significand into the leading 7 digits and the trailing 9 digits
+        int nHigh = (int) (nSig / 1_000_000_000L);
+        int nLow  = (int) (nSig - nHigh * 1_000_000_000L);
+
         // store the least significant 8 bits of the exponent into the combo field starting at G5
         // store the least signficant 15 decimal digits of the significand in 5 10-bit declets in T
-        nBits |=  (((long) (nExp & 0xFF                                          )) << 50)
-                | (((long) (intToDeclet((int) (nSig / 1_000_000_000_000L) % 1000))) << 40)
-                | (((long) (intToDeclet((int) (nSig / 1_000_000_000L    ) % 1000))) << 30)
-                | (((long) (intToDeclet((int) (nSig / 1_000_000L        ) % 1000))) << 20)
-                | (((long) (intToDeclet((int) (nSig / 1_000L            ) % 1000))) << 10)
-                | (((long) (intToDeclet((int) (nSig                     ) % 1000)))      );
+        nExp += BIAS;
+        long nBits = (fNeg ? SIGN_BIT : 0L)
+                | ((long) (nExp & 0xFF                         )) << 50
+                | ((long) INT_TO_DECLET[nHigh / 1_000   % 1000]) << 40
+                | ((long) INT_TO_DECLET[nHigh           % 1000]) << 30
+                | ((long) INT_TO_DECLET[nLow / 1_000_000      ]) << 20
+                | ((long) INT_TO_DECLET[nLow / 1_000    % 1000]) << 10
+                | ((long) INT_TO_DECLET[nLow            % 1000]);
 
         // remaining significand of 8 or 9 is stored in G4 as 0 or 1, with remaining exponent stored
         // in G2-G3, and G0-G1 both set to 1; otherwise, remaining significand (3 bits) is stored in
         // G2-G4 with remaining exponent stored in G0-G1
-        int nSigRem = (int) (nSig / 1_000_000_000_000_000L);
-        int nGBits = nSigRem >= 8                               // G01234
+        int nSigRem = nHigh / 1_000_000;
+        int nGBits  = nSigRem >= 8                              // G01234
                 ? (0b11000 | (nSigRem & 0b00001) | ((nExp & 0b11000_00000) >>> 7))
                 : (          (nSigRem & 0b00111) | ((nExp & 0b11000_00000) >>> 5));
 
@@ -302,49 +799,37 @@ public class Decimal64
      */
     public static BigDecimal toBigDecimal(long nBits)
         {
-        ensureFiniteBits(nBits);
+        long nSig = getSignificand(nBits);
+        return BigDecimal.valueOf(nBits < 0 ? -nSig : nSig, -getExponent(nBits));
+        }
 
-        // combination field is 13 bits (from bit 50 to bit 62), including 8 "pure" exponent bits
-        int  nCombo = (int) (nBits >>> 50);
-        int  nExp   = nCombo & 0xFF;
-        long nSig;
 
-        // test G0 and G1
-        if ((nCombo & 0b0_11000_00000000) == 0b0_11000_00000000)
-            {
-            // when the most significant five bits of G are 110xx or 1110x, the leading significand
-            // digit d0 is 8+G4, a value 8 or 9, and the leading biased exponent bits are 2*G2 + G3,
-            // a value of 0, 1, or 2
-            nExp |= ((nCombo & 0b0_00110_00000000) >>> 1);   // shift right 9, but then shift left 8
-            nSig  = ((nCombo & 0b0_00001_00000000) >>> 8) + 8;
-            }
-        else
-            {
-            // when the most significant five bits of G are 0xxxx or 10xxx, the leading significand
-            // digit d0 is 4*G2 + 2*G3 + G4, a value in the range 0 through 7, and the leading
-            // biased exponent bits are 2*G0 + G1, a value 0, 1, or 2; consequently if T is 0 and
-            // the most significant five bits of G are 00000, 01000, or 10000, then the value is 0:
-            //      v = (−1) S * (+0)
-            nExp |= (nCombo & 0b0_11000_00000000) >>> 3;    // shift right 11, but then shift left 8
-            nSig  = (nCombo & 0b0_00111_00000000) >>> 8;
-            }
+    // ----- constants -----------------------------------------------------------------------------
 
-        // unbias the exponent
-        nExp -= 398;
+    /**
+     * The precision of a 64-bit IEEE 754 decimal, in decimal digits.
+     */
+    public static final int         PRECISION       = 16;
 
-        // unpack the digits from most significant declet to least significant declet
-        nSig = (((((nSig * 1000 + decletToInt((int) (nBits >>> 40)))
-                         * 1000 + decletToInt((int) (nBits >>> 30)))
-                         * 1000 + decletToInt((int) (nBits >>> 20)))
-                         * 1000 + decletToInt((int) (nBits >>> 10)))
-                         * 1000 + decletToInt((int) (nBits       )))
-                         * (((nBits & SIGN_BIT) >> 63) | 1);            // apply sign
+    /**
+     * The largest significand of a 64-bit IEEE 754 decimal.
+     */
+    public static final long        MAX_SIGNIFICAND = 9999999999999999L;
 
-        return new BigDecimal(BigInteger.valueOf(nSig), -nExp);
-        }
+    /**
+     * The exponent bias of a 64-bit IEEE 754 decimal.
+     */
+    private static final int        BIAS            = 398;
 
+    /**
+     * The smallest (unbiased) exponent of a 64-bit IEEE 754 decimal.
+     */
+    public static final int         MIN_EXPONENT    = -BIAS;
 
-    // ----- constants -----------------------------------------------------------------------------
+    /**
+     * The largest (unbiased) exponent of a 64-bit IEEE 754 decimal.
+     */
+    public static final int         MAX_EXPONENT    = 767 - BIAS;
 
     /**
      * The sign bit for a 64-bit IEEE 754 decimal.
@@ -361,6 +846,11 @@ public class Decimal64
      */
     private static final long       G0_G3_MASK      = 0b1111L << G3_SHIFT;
 
+    /**
+     * The bit mask for the G0-G1 bits of a 64-bit IEEE 754 decimal.
+     */
+    private static final long       G0_G1_MASK      = 0b11L << 61;
+
     /**
      * The amount to shift the G4 bit of a 64-bit IEEE 754 decimal.
      */
@@ -389,6 +879,12 @@ public class Decimal64
      */
     private static final long       G5_SIGNAL       = 1L << G5_SHIFT;
 
+    /**
+     * A NaN value with a payload that is never produced by the arithmetic operations, which is
+     * used internally to indicate that a result could not be calculated using long arithmetic.
+     */
+    public static final long        NOT_COMPUTED    = G0_G4_NAN | 1L;
+
     /**
      * The decimal value for zero.
      */
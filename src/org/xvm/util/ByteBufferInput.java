@@ -0,0 +1,326 @@
+package org.xvm.util;
+
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * A DataInput implementation over a ByteBuffer. This is used to read structures directly out of a
+ * memory-mapped file, and to defer the reading of portions of that file by retaining a
+ * {@link #slice slice} of the underlying buffer instead of copying the bytes out of it.
+ * <p/>
+ * The ByteBufferInput is not thread-safe; each reader should use its own instance, which can be
+ * obtained cheaply by wrapping a {@link ByteBuffer#duplicate() duplicate} of a shared buffer.
+ */
+public class ByteBufferInput
+        implements DataInput
+    {
+    /**
+     * Construct a DataInput over the remaining contents of the passed buffer. Reading from the
+     * DataInput advances the position of the passed buffer.
+     *
+     * @param buf  the buffer to read from
+     */
+    public ByteBufferInput(ByteBuffer buf)
+        {
+        f_buf = buf;
+        }
+
+    /**
+     * Memory-map the contents of the specified file for reading.
+     * <p/>
+     * There is no way to explicitly unmap a MappedByteBuffer; the mapping is released only when the
+     * buffer (and every slice or duplicate of it) has been garbage-collected. Until then, the file
+     * remains mapped, which on some platforms (e.g. Windows) prevents it from being deleted or
+     * replaced. To bound the number of such mappings, files smaller than {@link #MAP_THRESHOLD}
+     * are read into a heap buffer instead of being mapped.
+     *
+     * @param file  the file to map
+     *
+     * @return a read-only buffer containing the contents of the file
+     *
+     * @throws IOException  if the file cannot be opened or mapped
+     */
+    public static ByteBuffer mapFile(File file)
+            throws IOException
+        {
+        if (!file.exists())
+            {
+            throw new IOException("file does not exist: " + file);
+            }
+
+        if (!file.isFile() || !file.canRead())
+            {
+            throw new IOException("not a readable file: " + file);
+            }
+
+        // the mapping remains valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+            {
+            long cb = channel.size();
+            if (cb >= MAP_THRESHOLD)
+                {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, cb);
+                }
+
+            ByteBuffer buf = ByteBuffer.allocate((int) cb);
+            while (buf.hasRemaining())
+                {
+                if (channel.read(buf) < 0)
+                    {
+                    throw new EOFException("file truncated while reading: " + file);
+                    }
+                }
+            return buf.flip().asReadOnlyBuffer();
+            }
+        }
+
+    /**
+     * @return the underlying buffer
+     */
+    public ByteBuffer getBuffer()
+        {
+        return f_buf;
+        }
+
+    /**
+     * @return the number of bytes remaining to be read
+     */
+    public int available()
+        {
+        return f_buf.remaining();
+        }
+
+    /**
+     * Obtain a view of the next <tt>cb</tt> bytes of the buffer, and advance past them. No bytes are
+     * copied; the returned buffer shares the storage of the underlying buffer.
+     *
+     * @param cb  the number of bytes to slice off
+     *
+     * @return a buffer whose position is zero and whose limit is <tt>cb</tt>
+     *
+     * @throws IOException  if fewer than <tt>cb</tt> bytes remain
+     */
+    public ByteBuffer slice(int cb)
+            throws IOException
+        {
+        ByteBuffer buf = f_buf;
+        int        of  = buf.position();
+        if (cb < 0 || cb > buf.remaining())
+            {
+            throw new EOFException();
+            }
+
+        ByteBuffer bufSlice = buf.duplicate();
+        bufSlice.limit(of + cb);
+        bufSlice = bufSlice.slice();
+
+        buf.position(of + cb);
+        return bufSlice;
+        }
+
+
+    // ----- DataInput methods ---------------------------------------------------------------------
+
+    @Override
+    public void readFully(byte[] ab)
+            throws IOException
+        {
+        readFully(ab, 0, ab.length);
+        }
+
+    @Override
+    public void readFully(byte[] ab, int of, int cb)
+            throws IOException
+        {
+        try
+            {
+            f_buf.get(ab, of, cb);
+            }
+        catch (BufferUnderflowException e)
+            {
+            throw new EOFException();
+            }
+        }
+
+    @Override
+    public int skipBytes(int cb)
+        {
+        ByteBuffer buf = f_buf;
+        cb = Math.max(0, Math.min(cb, buf.remaining()));
+        buf.position(buf.position() + cb);
+        return cb;
+        }
+
+    @Override
+    public boolean readBoolean()
+            throws IOException
+        {
+        return readByte() != 0;
+        }
+
+    @Override
+    public byte readByte()
+            throws IOException
+        {
+        try
+            {
+            return f_buf.get();
+            }
+        catch (BufferUnderflowException e)
+            {
+            throw new EOFException();
+            }
+        }
+
+    @Override
+    public int readUnsignedByte()
+            throws IOException
+        {
+        return readByte() & 0xFF;
+        }
+
+    @Override
+    public short readShort()
+            throws IOException
+        {
+        try
+            {
+            return f_buf.getShort();
+            }
+        catch (BufferUnderflowException e)
+            {
+            throw new EOFException();
+            }
+        }
+
+    @Override
+    public int readUnsignedShort()
+            throws IOException
+        {
+        return readShort() & 0xFFFF;
+        }
+
+    @Override
+    public char readChar()
+            throws IOException
+        {
+        return (char) readShort();
+        }
+
+    @Override
+    public int readInt()
+            throws IOException
+        {
+        try
+            {
+            return f_buf.getInt();
+            }
+        catch (BufferUnderflowException e)
+            {
+            throw new EOFException();
+            }
+        }
+
+    @Override
+    public long readLong()
+            throws IOException
+        {
+        try
+            {
+            return f_buf.getLong();
+            }
+        catch (BufferUnderflowException e)
+            {
+            throw new EOFException();
+            }
+        }
+
+    @Override
+    public float readFloat()
+            throws IOException
+        {
+        return Float.intBitsToFloat(readInt());
+        }
+
+    @Override
+    public double readDouble()
+            throws IOException
+        {
+        return Double.longBitsToDouble(readLong());
+        }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * As with {@link DataInputStream#readLine()}, each byte is converted to a char by zero-extension,
+     * and a line is terminated by a line feed, a carriage return, or a carriage return followed by a
+     * line feed.
+     */
+    @Override
+    public String readLine()
+        {
+        ByteBuffer buf = f_buf;
+        if (!buf.hasRemaining())
+            {
+            return null;
+            }
+
+        StringBuilder sb = new StringBuilder();
+        while (buf.hasRemaining())
+            {
+            char ch = (char) (buf.get() & 0xFF);
+            if (ch == '\n')
+                {
+                break;
+                }
+
+            if (ch == '\r')
+                {
+                int of = buf.position();
+                if (of < buf.limit() && buf.get(of) == '\n')
+                    {
+                    buf.position(of + 1);
+                    }
+                break;
+                }
+
+            sb.append(ch);
+            }
+        return sb.toString();
+        }
+
+    @Override
+    public String readUTF()
+            throws IOException
+        {
+        return DataInputStream.readUTF(this);
+        }
+
+
+    // ----- constants -----------------------------------------------------------------------------
+
+    /**
+     * Files smaller than this many bytes are read into the heap instead of being memory-mapped.
+     */
+    public static final int MAP_THRESHOLD = 64 * 1024;
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The underlying buffer; its byte order is expected to be big-endian, as per DataInput.
+     */
+    private final ByteBuffer f_buf;
+    }
@@ -1186,6 +1186,67 @@ public class Handy
             }
         }
 
+    // ----- unsigned arithmetic -------------------------------------------------------------------
+
+    /**
+     * Divide an unsigned 128-bit value by an unsigned 64-bit value, when the quotient is known to
+     * fit into 64 bits (i.e. when the high 64 bits of the dividend are less than the divisor).
+     * <p/>
+     * This is the "divlu" algorithm from Hacker's Delight (section 9-4), using 32-bit "digits";
+     * the remainder can be calculated by the caller as <tt>nLo - nQuotient * nDivisor</tt>.
+     *
+     * @param nHi       the high 64 bits of the dividend
+     * @param nLo       the low 64 bits of the dividend
+     * @param nDivisor  the divisor, which must be greater than <tt>nHi</tt> (unsigned)
+     *
+     * @return the unsigned quotient
+     */
+    public static long divideUnsigned(long nHi, long nLo, long nDivisor)
+        {
+        assert Long.compareUnsigned(nHi, nDivisor) < 0;
+
+        // normalize the divisor so that its most significant bit is set
+        int  cShift = Long.numberOfLeadingZeros(nDivisor);
+        long nV     = nDivisor << cShift;
+        long nV1    = nV >>> 32;
+        long nV0    = nV & 0xFFFFFFFFL;
+        long nU32   = cShift == 0 ? nHi : nHi << cShift | nLo >>> (64 - cShift);
+        long nU10   = nLo << cShift;
+        long nU1    = nU10 >>> 32;
+        long nU0    = nU10 & 0xFFFFFFFFL;
+
+        // calculate the high 32 bits of the quotient
+        long nQ1   = Long.divideUnsigned(nU32, nV1);
+        long nRHat = nU32 - nQ1 * nV1;
+        while (nQ1 > 0xFFFFFFFFL || Long.compareUnsigned(nQ1 * nV0, nRHat << 32 | nU1) > 0)
+            {
+            --nQ1;
+            nRHat += nV1;
+            if (nRHat > 0xFFFFFFFFL)
+                {
+                break;
+                }
+            }
+
+        // calculate the low 32 bits of the quotient (the result of the subtraction fits into 64
+        // bits, even though the intermediate values do not)
+        long nU21 = (nU32 << 32) + nU1 - nQ1 * nV;
+        long nQ0  = Long.divideUnsigned(nU21, nV1);
+        nRHat = nU21 - nQ0 * nV1;
+        while (nQ0 > 0xFFFFFFFFL || Long.compareUnsigned(nQ0 * nV0, nRHat << 32 | nU0) > 0)
+            {
+            --nQ0;
+            nRHat += nV1;
+            if (nRHat > 0xFFFFFFFFL)
+                {
+                break;
+                }
+            }
+
+        return nQ1 << 32 | nQ0;
+        }
+
+
     // ----- file I/O ------------------------------------------------------------------------------
 
     /**
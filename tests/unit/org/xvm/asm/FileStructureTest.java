@@ -3,9 +3,13 @@ package org.xvm.asm;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import java.nio.ByteBuffer;
+
 import java.util.Arrays;
 import java.util.List;
 
@@ -15,6 +19,7 @@ import org.junit.Test;
 import org.xvm.asm.ErrorList.ErrorInfo;
 
 import org.xvm.asm.constants.ClassConstant;
+import org.xvm.asm.constants.UInt8ArrayConstant;
 
 import org.xvm.compiler.BuildRepository;
 import org.xvm.compiler.Compiler;
@@ -25,9 +30,11 @@ import org.xvm.compiler.Source;
 import org.xvm.compiler.ast.Statement;
 import org.xvm.compiler.ast.TypeCompositionStatement;
 
+import org.xvm.util.ByteBufferInput;
 import org.xvm.util.Severity;
 
 import static org.xvm.util.Handy.byteArrayToHexDump;
+import static org.xvm.util.Handy.writePackedLong;
 
 
 /**
@@ -104,6 +111,95 @@ public class FileStructureTest
         testFileStructure(file);
         }
 
+    @Test
+    public void testMappedFile()
+            throws IOException
+        {
+        FileStructure    structfile = new FileStructure("test");
+        PackageStructure structpkg  = structfile.getModule().createPackage(Constants.Access.PUBLIC, "pkg", null);
+        structpkg.createClass(Constants.Access.PUBLIC, Component.Format.CLASS, "Test", null);
+
+        File file = File.createTempFile("test", ".xtc");
+        file.deleteOnExit();
+        structfile.writeTo(file);
+
+        // the children are deferred, and read on demand from the memory-mapped file
+        FileStructure structfile2 = new FileStructure(file, true);
+        Assert.assertTrue(structfile.equals(structfile2));
+        Assert.assertNotNull(structfile2.getModule().getChild("pkg").getChild("Test"));
+
+        // re-writing the file that the structure was mapped from must not lose anything
+        structfile2.writeTo(file);
+        FileStructure structfile3 = new FileStructure(file, false);
+        Assert.assertTrue(structfile.equals(structfile3));
+        }
+
+    @Test
+    public void testDeferredBytes()
+            throws IOException
+        {
+        ConstantPool pool = new FileStructure("test").getConstantPool();
+
+        byte[] ab = new byte[UInt8ArrayConstant.LAZY_THRESHOLD + 1];
+        for (int i = 0; i < ab.length; ++i)
+            {
+            ab[i] = (byte) (i * 31);
+            }
+
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        DataOutputStream      out      = new DataOutputStream(outBytes);
+        writePackedLong(out, ab.length);
+        out.write(ab);
+
+        // a large value read from a buffer is not copied until it's asked for
+        UInt8ArrayConstant constLazy = new UInt8ArrayConstant(pool, Constant.Format.UInt8Array,
+                new ByteBufferInput(ByteBuffer.wrap(outBytes.toByteArray())));
+        UInt8ArrayConstant constEager = new UInt8ArrayConstant(pool, ab.clone());
+        Assert.assertTrue(constLazy.isDeferred());
+        Assert.assertEquals(ab.length, constLazy.size());
+        Assert.assertEquals(constEager.hashCode(), constLazy.hashCode());
+        Assert.assertTrue(constLazy.isDeferred());
+
+        // nor is it copied to be compared
+        byte[] abLess = ab.clone();
+        abLess[1] = (byte) (ab[1] - 1);
+        Assert.assertEquals(0, constLazy.compareTo(constEager));
+        Assert.assertTrue(constLazy.compareTo(new UInt8ArrayConstant(pool, abLess)) > 0);
+        Assert.assertTrue(constLazy.isDeferred());
+
+        Assert.assertArrayEquals(ab, constLazy.getValue());
+        Assert.assertFalse(constLazy.isDeferred());
+        Assert.assertSame(constLazy.getValue(), constLazy.getValue());
+        Assert.assertEquals(constEager, constLazy);
+        }
+
+    @Test
+    public void testTypeInfoSnapshot()
+            throws IOException
+        {
+        FileStructure structfile = new FileStructure("test");
+        structfile.getModule().createPackage(Constants.Access.PUBLIC, "pkg", null);
+        structfile.setEmitTypeInfo(true);
+
+        File file = File.createTempFile("test", ".xtc");
+        file.deleteOnExit();
+        structfile.writeTo(file);
+        Long LHash = structfile.getContentHash();
+        Assert.assertNotNull(LHash);
+
+        // the snapshot section follows the structure, and is not part of its content hash
+        FileStructure structfile2 = new FileStructure(file, true);
+        Assert.assertTrue(structfile.equals(structfile2));
+        Assert.assertNotNull(structfile2.getConstantPool().getTypeInfoSnapshot());
+        Assert.assertEquals(LHash, structfile2.getContentHash());
+
+        // the snapshot is discarded when the structure is re-written without one
+        structfile2.writeTo(file);
+        FileStructure structfile3 = new FileStructure(file, false);
+        Assert.assertNull(structfile3.getConstantPool().getTypeInfoSnapshot());
+        Assert.assertEquals(LHash, structfile3.getContentHash());
+        }
+
     @Test
     public void testFoo()
             throws IOException
@@ -0,0 +1,53 @@
+package org.xvm.asm.constants;
+
+
+import org.xvm.asm.ConstantPool;
+
+
+/**
+ * Micro-benchmark for "isA" on parameterized types; this is not a unit test.
+ *
+ * TypeInfoBenchmark [iterations]
+ */
+public class TypeInfoBenchmark
+    {
+    /**
+     * The first run of each pair is measured separately, since that is the one that calculates the
+     * relation; all subsequent runs are answered from the relation cache.
+     *
+     * @param asArgs  optional: the number of iterations (default is 1,000,000)
+     */
+    public static void main(String[] asArgs)
+        {
+        int cIters = asArgs.length > 0 ? Integer.parseInt(asArgs[0]) : 1_000_000;
+
+        ConstantPool pool = TypeInfoTest.loadCoreModule().getConstantPool();
+        ConstantPool.setCurrentPool(pool);
+
+        for (TypeConstant[] aType : TypeInfoTest.makeRelationTypes(pool))
+            {
+            TypeConstant typeRight = aType[0];
+            TypeConstant typeLeft  = aType[1];
+
+            long    ldtStart = System.nanoTime();
+            boolean fIsA     = typeRight.isA(typeLeft);
+            long    cColdNs  = System.nanoTime() - ldtStart;
+
+            int cHits = 0;
+            ldtStart = System.nanoTime();
+            for (int i = 0; i < cIters; ++i)
+                {
+                if (typeRight.isA(typeLeft))
+                    {
+                    ++cHits;
+                    }
+                }
+            long cWarmNs = System.nanoTime() - ldtStart;
+
+            System.out.println(typeRight.getValueString() + " isA " + typeLeft.getValueString()
+                    + " = " + fIsA + ": cold " + cColdNs / 1000 + "us, cached "
+                    + (cWarmNs * 100 / cIters) / 100.0 + "ns/op");
+            assert cHits == (fIsA ? cIters : 0);
+            }
+        }
+    }
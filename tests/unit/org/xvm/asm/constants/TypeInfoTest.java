@@ -0,0 +1,290 @@
+package org.xvm.asm.constants;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.xvm.asm.ClassStructure;
+import org.xvm.asm.Component;
+import org.xvm.asm.Component.Contribution;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.Constants;
+import org.xvm.asm.ErrorList;
+import org.xvm.asm.FileStructure;
+import org.xvm.asm.ModuleRepository;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.XvmStructure;
+
+import org.xvm.asm.constants.TypeConstant.Relation;
+
+import org.xvm.compiler.CommandLine;
+
+
+/**
+ * Tests of TypeInfo construction.
+ */
+public class TypeInfoTest
+    {
+    /**
+     * Build the TypeInfo for every class in the core module from many threads at once, each in a
+     * different order, so that the threads race to build the same TypeInfos and run into each
+     * other's cyclic dependencies.
+     */
+    @Test
+    public void testConcurrentTypeInfo()
+            throws InterruptedException
+        {
+        ModuleStructure    module    = loadCoreModule();
+        List<TypeConstant> listTypes = new ArrayList<>();
+        collectTypes(module, listTypes);
+        Assert.assertFalse(listTypes.isEmpty());
+
+        // discard the TypeInfos that were built by the compiler
+        for (Iterator<? extends XvmStructure> iter = module.getConstantPool().getContained(); iter.hasNext(); )
+            {
+            XvmStructure constant = iter.next();
+            if (constant instanceof TypeConstant)
+                {
+                ((TypeConstant) constant).clearTypeInfo();
+                }
+            }
+
+        int                             cThreads   = 16;
+        CountDownLatch                  latchStart = new CountDownLatch(1);
+        Map<TypeConstant, TypeInfo>     mapInfos   = new ConcurrentHashMap<>();
+        List<Throwable>                 listErrs   = Collections.synchronizedList(new ArrayList<>());
+        Thread[]                        aThread    = new Thread[cThreads];
+        for (int i = 0; i < cThreads; ++i)
+            {
+            List<TypeConstant> listOrder = new ArrayList<>(listTypes);
+            Collections.shuffle(listOrder, new Random(i));
+
+            aThread[i] = new Thread(() ->
+                {
+                try
+                    {
+                    latchStart.await();
+                    for (TypeConstant type : listOrder)
+                        {
+                        TypeInfo info = type.ensureTypeInfo(new ErrorList(100));
+                        Assert.assertTrue(type.getValueString(), info.isComplete());
+                        mapInfos.putIfAbsent(type, info);
+                        }
+                    }
+                catch (Throwable e)
+                    {
+                    listErrs.add(e);
+                    }
+                }, "TypeInfoTest-" + i);
+            aThread[i].start();
+            }
+
+        latchStart.countDown();
+        for (Thread thread : aThread)
+            {
+            thread.join(600_000);
+            Assert.assertFalse("deadlock: " + thread.getName(), thread.isAlive());
+            }
+
+        if (!listErrs.isEmpty())
+            {
+            throw new AssertionError(listErrs.get(0));
+            }
+        Assert.assertEquals(listTypes.size(), mapInfos.size());
+        }
+
+    /**
+     * Verify the relations between parameterized types, and that the relations are answered from
+     * the relation cache once they have been calculated.
+     */
+    @Test
+    public void testParameterizedRelations()
+        {
+        ConstantPool pool = loadCoreModule().getConstantPool();
+        ConstantPool.setCurrentPool(pool);
+
+        // the compiler may have already calculated some of the relations; invalidating the
+        // TypeInfos discards all the cached relations
+        pool.invalidateTypeInfos(pool.ensureEcstasyClassConstant("collections.Array"));
+
+        TypeConstant[][] aaTypes = makeRelationTypes(pool);
+        boolean[]        afIsA   = {true, true, true, false, false};
+        for (int i = 0; i < aaTypes.length; ++i)
+            {
+            TypeConstant typeRight = aaTypes[i][0];
+            TypeConstant typeLeft  = aaTypes[i][1];
+            String       sMsg      = typeRight.getValueString() + " isA " + typeLeft.getValueString();
+
+            Assert.assertNull(sMsg, typeRight.getCachedRelation(typeLeft));
+            Assert.assertEquals(sMsg, afIsA[i], typeRight.isA(typeLeft));
+
+            Relation relation = typeRight.getCachedRelation(typeLeft);
+            Assert.assertNotNull(sMsg, relation);
+            Assert.assertEquals(sMsg, afIsA[i], relation != Relation.INCOMPATIBLE);
+
+            // the second lookup is answered by the cached relation
+            Assert.assertEquals(sMsg, afIsA[i], typeRight.isA(typeLeft));
+            Assert.assertSame(sMsg, relation, typeRight.getCachedRelation(typeLeft));
+            }
+        }
+
+    /**
+     * Write the core module with a TypeInfo snapshot, read it back, and verify that the TypeInfos
+     * taken from the snapshot describe the same types as the ones that were written.
+     */
+    @Test
+    public void testTypeInfoSnapshot()
+            throws IOException
+        {
+        ModuleStructure    module    = loadCoreModule();
+        List<TypeConstant> listTypes = new ArrayList<>();
+        collectTypes(module, listTypes);
+
+        Map<String, String> mapExpect = new HashMap<>();
+        for (TypeConstant type : listTypes)
+            {
+            TypeInfo info = type.ensureTypeInfo(new ErrorList(100));
+            if (info.isComplete())
+                {
+                mapExpect.put(type.getDefiningConstant().toString(), describe(info));
+                }
+            }
+
+        FileStructure struct = module.getFileStructure();
+        struct.setEmitTypeInfo(true);
+
+        File file = File.createTempFile("snapshot", ".xtc");
+        file.deleteOnExit();
+        struct.writeTo(file);
+
+        FileStructure    struct2   = new FileStructure(file, true);
+        ConstantPool     pool2     = struct2.getConstantPool();
+        TypeInfoSnapshot snapshot  = pool2.getTypeInfoSnapshot();
+        Assert.assertNotNull(snapshot);
+        Assert.assertTrue(snapshot.size() > 0);
+        Assert.assertEquals(struct.getContentHash(), struct2.getContentHash());
+
+        ConstantPool.setCurrentPool(pool2);
+        List<TypeConstant> listTypes2 = new ArrayList<>();
+        collectTypes(struct2.getModule(), listTypes2);
+
+        int cChecked = 0;
+        for (TypeConstant type : listTypes2)
+            {
+            String   sExpect = mapExpect.get(type.getDefiningConstant().toString());
+            TypeInfo info    = snapshot.takeTypeInfo(type);
+            if (info != null)
+                {
+                Assert.assertEquals(type.getValueString(), sExpect, describe(info));
+                ++cChecked;
+                }
+            }
+
+        // not every TypeInfo can be represented in a snapshot, but most of them can
+        Assert.assertTrue(cChecked > listTypes2.size() / 3);
+        }
+
+    /**
+     * @return pairs of (R-Value, L-Value) parameterized types
+     */
+    static TypeConstant[][] makeRelationTypes(ConstantPool pool)
+        {
+        TypeConstant typeInt      = pool.typeInt();
+        TypeConstant typeString   = pool.typeString();
+        TypeConstant typeArrayInt = pool.ensureParameterizedTypeConstant(pool.typeArray(), typeInt);
+        TypeConstant typeMapSI    = pool.ensureParameterizedTypeConstant(pool.typeMap(), typeString, typeInt);
+
+        return new TypeConstant[][]
+            {
+            {typeArrayInt, pool.ensureParameterizedTypeConstant(pool.typeList(), typeInt)},
+            {typeArrayInt, pool.ensureParameterizedTypeConstant(pool.typeIterable(), typeInt)},
+            {typeArrayInt, pool.ensureParameterizedTypeConstant(pool.typeSequence(), typeInt)},
+            {typeArrayInt, pool.ensureParameterizedTypeConstant(pool.typeList(), typeString)},
+            {typeMapSI,    pool.ensureParameterizedTypeConstant(pool.typeMap(), typeInt, typeString)},
+            };
+        }
+
+    /**
+     * Compile the core module.
+     */
+    static ModuleStructure loadCoreModule()
+        {
+        File dirSystem = new File("xsrc", "system");
+        if (!dirSystem.isDirectory())
+            {
+            dirSystem = new File("system");
+            }
+
+        ModuleRepository repo   = new CommandLine(new String[] {dirSystem.getPath()}).build();
+        ModuleStructure  module = repo.loadModule(Constants.ECSTASY_MODULE);
+        Assert.assertNotNull(module);
+        return module;
+        }
+
+    /**
+     * @return a description of the passed TypeInfo that does not depend on the identity of the
+     *         constants (or the pool) that it refers to
+     */
+    private static String describe(TypeInfo info)
+        {
+        StringBuilder sb = new StringBuilder();
+        sb.append(info.getType().getValueString())
+          .append(" depth=").append(info.getDepth())
+          .append(" abstract=").append(info.isExplicitlyAbstract())
+          .append(" extends=").append(info.getExtends())
+          .append(" into=").append(info.getInto());
+
+        for (Contribution contrib : info.getContributionList())
+            {
+            sb.append("\n  ").append(contrib.getComposition())
+              .append(' ').append(contrib.getTypeConstant());
+            }
+
+        sb.append("\n  chain=").append(info.getClassChain().keySet());
+        sb.append("\n  params=").append(sorted(info.getTypeParams().keySet()));
+        sb.append("\n  props=").append(sorted(info.getProperties().keySet()));
+        sb.append("\n  methods=").append(sorted(info.getMethods().keySet()));
+        sb.append("\n  vprops=").append(sorted(info.getVirtProperties().keySet()));
+        sb.append("\n  vmethods=").append(sorted(info.getVirtMethods().keySet()));
+        return sb.toString();
+        }
+
+    private static List<String> sorted(Collection<?> coll)
+        {
+        List<String> list = new ArrayList<>();
+        for (Object o : coll)
+            {
+            list.add(String.valueOf(o));
+            }
+        Collections.sort(list);
+        return list;
+        }
+
+    private static void collectTypes(Component component, List<TypeConstant> listTypes)
+        {
+        if (component instanceof ClassStructure)
+            {
+            listTypes.add(((ClassStructure) component).getCanonicalType());
+            }
+
+        for (Component child : component.children())
+            {
+            collectTypes(child, listTypes);
+            }
+        }
+    }
@@ -0,0 +1,70 @@
+package org.xvm.runtime;
+
+import java.math.BigInteger;
+
+import java.util.Random;
+
+import org.xvm.runtime.template.LongLong;
+
+/**
+ * Micro-benchmark comparing the performance of the LongLong multiplication and division against
+ * the BigInteger based implementation that it replaced; this is not a unit test.
+ */
+public class LongLongBenchmark
+    {
+    public static void main(String[] asArg)
+        {
+        int        cValues = 1024;
+        LongLong[] all1    = new LongLong[cValues];
+        LongLong[] all2    = new LongLong[cValues];
+        LongLong[] allM1   = new LongLong[cValues];
+        LongLong[] allM2   = new LongLong[cValues];
+        Random     rnd     = new Random(0);
+        for (int i = 0; i < cValues; i++)
+            {
+            all1[i]  = new LongLong(rnd.nextLong(), rnd.nextLong() >> 1);
+            all2[i]  = new LongLong(rnd.nextLong(), rnd.nextInt(1000));
+            allM1[i] = new LongLong(rnd.nextLong(), rnd.nextInt(1 << 20));
+            allM2[i] = new LongLong(rnd.nextLong() >>> 24, 0);
+            }
+
+        for (int iPass = 0; iPass < 5; iPass++)
+            {
+            long cChecksum = 0;
+            long lStart    = System.nanoTime();
+            for (int i = 0; i < 1_000_000; i++)
+                {
+                cChecksum += all1[i & 1023].div(all2[(i >> 10) & 1023]).getLowValue();
+                }
+            long lNative = System.nanoTime() - lStart;
+
+            lStart = System.nanoTime();
+            for (int i = 0; i < 1_000_000; i++)
+                {
+                BigInteger bi = all1[i & 1023].toBigInteger().divide(all2[(i >> 10) & 1023].toBigInteger());
+                cChecksum -= LongLong.fromBigInteger(bi).getLowValue();
+                }
+            long lBig = System.nanoTime() - lStart;
+
+            lStart = System.nanoTime();
+            for (int i = 0; i < 1_000_000; i++)
+                {
+                cChecksum += allM1[i & 1023].mul(allM2[(i >> 10) & 1023]).getLowValue();
+                }
+            long lMulNative = System.nanoTime() - lStart;
+
+            lStart = System.nanoTime();
+            for (int i = 0; i < 1_000_000; i++)
+                {
+                BigInteger bi = allM1[i & 1023].toBigInteger().multiply(allM2[(i >> 10) & 1023].toBigInteger());
+                cChecksum -= LongLong.fromBigInteger(bi).getLowValue();
+                }
+            long lMulBig = System.nanoTime() - lStart;
+
+            System.out.println("div: " + lNative / 1_000_000.0 + " ns/op (BigInteger: "
+                    + lBig / 1_000_000.0 + " ns/op); mul: " + lMulNative / 1_000_000.0
+                    + " ns/op (BigInteger: " + lMulBig / 1_000_000.0 + " ns/op); checksum="
+                    + cChecksum);
+            }
+        }
+    }
@@ -1,5 +1,9 @@
 package org.xvm.runtime;
 
+import java.math.BigInteger;
+
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -58,12 +62,112 @@ public class TestNumber
 
         Assert.assertEquals("MAX+1", LongLong.OVERFLOW, MAX128.sub(new LongLong(-1)));
         Assert.assertEquals("MIN-1", LongLong.OVERFLOW, MIN128.sub(new LongLong(1)));
+
+        // mul
+        Assert.assertEquals("-3*4", new LongLong(-12), new LongLong(-3).mul(new LongLong(4)));
+        Assert.assertEquals("MIN64*MIN64", new LongLong(0, 1L << 62), new LongLong(MIN64).mul(new LongLong(MIN64)));
+        Assert.assertEquals("MAX*-1", new LongLong(1, MIN64), MAX128.mul(new LongLong(-1)));
+        Assert.assertEquals("MIN*1", MIN128, MIN128.mul(new LongLong(1)));
+
+        Assert.assertEquals("MIN*-1", LongLong.OVERFLOW, MIN128.mul(new LongLong(-1)));
+        Assert.assertEquals("MAX*2", LongLong.OVERFLOW, MAX128.mul(new LongLong(2)));
+        Assert.assertEquals("MIN128H*MIN128H", LongLong.OVERFLOW, MIN128H.mul(MIN128H));
+
+        // div
+        Assert.assertEquals("-7/2", new LongLong(-3), new LongLong(-7).div(new LongLong(2)));
+        Assert.assertEquals("MIN64/-1", new LongLong(MIN64, 0), new LongLong(MIN64).div(new LongLong(-1)));
+        Assert.assertEquals("MIN/MIN", new LongLong(1), MIN128.div(MIN128));
+        Assert.assertEquals("MAX/MIN", LongLong.ZERO, MAX128.div(MIN128));
+
+        Assert.assertEquals("MIN/-1", LongLong.OVERFLOW, MIN128.div(new LongLong(-1)));
+        Assert.assertEquals("1/0", LongLong.OVERFLOW, new LongLong(1).div(LongLong.ZERO));
+
+        // mod
+        Assert.assertEquals("-7%2", new LongLong(1), new LongLong(-7).mod(new LongLong(2)));
+        Assert.assertEquals("-7%-2", new LongLong(1), new LongLong(-7).mod(new LongLong(-2)));
+        Assert.assertEquals("MIN%-1", LongLong.ZERO, MIN128.mod(new LongLong(-1)));
+        Assert.assertEquals("-1%MIN", MAX128, new LongLong(-1).mod(MIN128));
+        Assert.assertEquals("1%0", LongLong.OVERFLOW, new LongLong(1).mod(LongLong.ZERO));
         }
 
     @Test
     public void test128Unsigned()
         {
-        // TODO
+        LongLong MAX = LongLong.MAX_VALUE_UNSIGNED;
+
+        // mul
+        Assert.assertEquals("MAX64U*MAX64U", new LongLong(1, -2), new LongLong(MAX64U, 0).mulUnsigned(new LongLong(MAX64U, 0)));
+        Assert.assertEquals("MAX*1", MAX, MAX.mulUnsigned(new LongLong(1, 0)));
+        Assert.assertEquals("MAX*2", LongLong.OVERFLOW, MAX.mulUnsigned(new LongLong(2, 0)));
+        Assert.assertEquals("MIN128H*MIN128H", LongLong.OVERFLOW, MIN128H.mulUnsigned(MIN128H));
+
+        // div
+        Assert.assertEquals("MAX/MAX64U", new LongLong(1, 1), MAX.divUnsigned(new LongLong(MAX64U, 0)));
+        Assert.assertEquals("MAX/MIN128H", new LongLong(MAX64U, 0), MAX.divUnsigned(MIN128H));
+        Assert.assertEquals("MAX/MAX", new LongLong(1, 0), MAX.divUnsigned(MAX));
+        Assert.assertEquals("1/0", LongLong.OVERFLOW, new LongLong(1, 0).divUnsigned(LongLong.ZERO));
+
+        // mod
+        Assert.assertEquals("MAX%MIN128H", new LongLong(MAX64U, 0), MAX.modUnsigned(MIN128H));
+        Assert.assertEquals("MAX%10", new LongLong(5, 0), MAX.modUnsigned(new LongLong(10, 0)));
+        }
+
+    /**
+     * Compare the results of the 128-bit multiplication, division and modulo against BigInteger
+     * for random operands of random bit lengths.
+     */
+    @Test
+    public void test128Random()
+        {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 200_000; i++)
+            {
+            LongLong ll1 = randomLongLong(rnd);
+            LongLong ll2 = randomLongLong(rnd);
+
+            BigInteger bi1  = ll1.toBigInteger();
+            BigInteger bi2  = ll2.toBigInteger();
+            BigInteger biU1 = ll1.toUnsignedBigInteger();
+            BigInteger biU2 = ll2.toUnsignedBigInteger();
+            String     sMsg = ll1 + ", " + ll2;
+
+            checkResult(sMsg + " mul", bi1.multiply(bi2), ll1.mul(ll2), true);
+            checkResult(sMsg + " mulUnsigned", biU1.multiply(biU2), ll1.mulUnsigned(ll2), false);
+
+            if (bi2.signum() == 0)
+                {
+                Assert.assertEquals(sMsg, LongLong.OVERFLOW, ll1.div(ll2));
+                Assert.assertEquals(sMsg, LongLong.OVERFLOW, ll1.mod(ll2));
+                Assert.assertEquals(sMsg, LongLong.OVERFLOW, ll1.divUnsigned(ll2));
+                Assert.assertEquals(sMsg, LongLong.OVERFLOW, ll1.modUnsigned(ll2));
+                continue;
+                }
+
+            checkResult(sMsg + " div", bi1.divide(bi2), ll1.div(ll2), true);
+            checkResult(sMsg + " mod", bi1.mod(bi2.abs()), ll1.mod(ll2), true);
+            checkResult(sMsg + " divUnsigned", biU1.divide(biU2), ll1.divUnsigned(ll2), false);
+            checkResult(sMsg + " modUnsigned", biU1.mod(biU2), ll1.modUnsigned(ll2), false);
+            }
+        }
+
+    private static LongLong randomLongLong(Random rnd)
+        {
+        // favor the interesting cases: small values, values that fit into a long, and values
+        // near the 128-bit limits
+        int  cBits = rnd.nextInt(129);
+        long lL    = cBits == 0 ? 0 : rnd.nextLong() >>> Math.max(0, 64 - cBits);
+        long lH    = cBits <= 64 ? 0 : rnd.nextLong() >>> (128 - cBits);
+        return rnd.nextBoolean()
+                ? new LongLong(lL, lH)
+                : new LongLong(~lL, ~lH);
+        }
+
+    private static void checkResult(String sMsg, BigInteger biExpect, LongLong llActual, boolean fSigned)
+        {
+        boolean fFits = fSigned
+                ? biExpect.bitLength() <= 127
+                : biExpect.signum() >= 0 && biExpect.bitLength() <= 128;
+        Assert.assertEquals(sMsg, fFits ? LongLong.fromBigInteger(biExpect) : LongLong.OVERFLOW, llActual);
         }
 
     @Test
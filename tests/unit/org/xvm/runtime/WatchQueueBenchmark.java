@@ -0,0 +1,157 @@
+package org.xvm.runtime;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.xvm.api.Connector;
+
+import org.xvm.asm.ModuleRepository;
+
+import org.xvm.compiler.CommandLine;
+
+
+/**
+ * Measures the depth of the service queues while a large number of files is copied into a
+ * directory watched by the "tests/manual/watchqueue.x" module; this is not a unit test. Run it from
+ * the "xsrc" directory; the watch window could be changed with the "xvm.fs.watchWindow" property.
+ *
+ * WatchQueueBenchmark [file count]
+ */
+public class WatchQueueBenchmark
+    {
+    /**
+     * @param asArgs  optional: the number of files to copy (default is 50,000)
+     */
+    public static void main(String[] asArgs)
+            throws Exception
+        {
+        int cFiles = asArgs.length > 0 ? Integer.parseInt(asArgs[0]) : 50_000;
+
+        Path pathTmp = Paths.get(System.getProperty("java.io.tmpdir"));
+        Path pathSrc = pathTmp.resolve("watch-queue-src");
+        Path pathDst = pathTmp.resolve("watch-queue");
+        delete(pathSrc);
+        delete(pathDst);
+
+        Files.createDirectories(pathSrc);
+        byte[] ab = new byte[128];
+        for (int i = 0; i < cFiles; i++)
+            {
+            Files.write(pathSrc.resolve("f" + i + ".dat"), ab);
+            }
+
+        ModuleRepository repository = new CommandLine(
+            new String[] {"system", "tests/manual/watchqueue.x"}).build();
+
+        Connector connector = new Connector(repository);
+        connector.loadModule("TestWatchQueue.xqiz.it");
+        connector.start();
+
+        Container container = connector.getContainer();
+        connector.invoke0("run", Utils.OBJECTS_NONE);
+
+        Path pathReady = pathDst.resolve("ready");
+        while (!Files.exists(pathReady))
+            {
+            Thread.sleep(10);
+            }
+
+        Sampler sampler = new Sampler(container);
+        sampler.start();
+
+        long lStart = System.currentTimeMillis();
+        for (int i = 0; i < cFiles; i++)
+            {
+            String sName = "f" + i + ".dat";
+            Files.copy(pathSrc.resolve(sName), pathDst.resolve(sName),
+                       StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        long lCopy = System.currentTimeMillis() - lStart;
+
+        connector.join();
+        sampler.interrupt();
+        sampler.join();
+
+        System.out.println("copied " + cFiles + " files in " + lCopy + " ms");
+        for (Map.Entry<String, long[]> entry : sampler.f_mapStats.entrySet())
+            {
+            long[] ai = entry.getValue();
+            System.out.println(entry.getKey() + ": max depth=" + ai[0]
+                + ", average depth=" + (ai[2] == 0 ? 0 : ai[1] / ai[2])
+                + " (" + ai[2] + " non-empty samples)");
+            }
+
+        delete(pathSrc);
+        delete(pathDst);
+        }
+
+    private static void delete(Path pathDir)
+            throws IOException
+        {
+        File[] aFile = pathDir.toFile().listFiles();
+        if (aFile != null)
+            {
+            for (File file : aFile)
+                {
+                file.delete();
+                }
+            }
+        Files.deleteIfExists(pathDir);
+        }
+
+    /**
+     * Samples the queue depth of every service in the container each millisecond, collecting the
+     * maximum, the sum and the number of the non-empty samples for each service name.
+     */
+    private static class Sampler
+            extends Thread
+        {
+        Sampler(Container container)
+            {
+            super("Sampler");
+
+            setDaemon(true);
+
+            f_container = container;
+            }
+
+        @Override
+        public void run()
+            {
+            try
+                {
+                while (true)
+                    {
+                    for (ServiceContext context : f_container.f_mapServices.keySet())
+                        {
+                        int cDepth = context.getQueueDepth();
+                        if (cDepth > 0)
+                            {
+                            long[] ai = f_mapStats.computeIfAbsent(context.f_sName, s -> new long[3]);
+                            ai[0] = Math.max(ai[0], cDepth);
+                            ai[1] += cDepth;
+                            ai[2]++;
+                            }
+                        }
+                    Thread.sleep(1);
+                    }
+                }
+            catch (InterruptedException e)
+                {
+                // done
+                }
+            }
+
+        private final Container          f_container;
+        private final Map<String, long[]> f_mapStats = new TreeMap<>();
+        }
+    }
@@ -0,0 +1,75 @@
+package org.xvm.type;
+
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import java.util.Random;
+
+
+/**
+ * Micro-benchmark for the decimal arithmetic, comparing the operations on the encoded 64-bit
+ * decimals with the same operations done by converting to and from BigDecimal; this is not a unit
+ * test.
+ */
+public class DecimalBenchmark
+    {
+    /**
+     * @param asArgs  optional: the number of iterations (default is 10,000,000)
+     */
+    public static void main(String[] asArgs)
+        {
+        int    cIters = asArgs.length > 0 ? Integer.parseInt(asArgs[0]) : 10_000_000;
+        Random rnd    = new Random(42);
+        int    cVals  = 1024;
+        long[] anBits = new long[cVals];
+        for (int i = 0; i < cVals; ++i)
+            {
+            // amounts with two decimal places, like prices
+            anBits[i] = Decimal64.toLongBits(BigDecimal.valueOf(rnd.nextInt(1_000_000) + 1, 2));
+            }
+
+        for (int iPass = 0; iPass < 3; ++iPass)
+            {
+            String[] asOp = {"add", "mul", "div", "cmp"};
+            for (int iOp = 0; iOp < asOp.length; ++iOp)
+                {
+                long ldtStart = System.nanoTime();
+                long nSum     = 0;
+                for (int i = 0; i < cIters; ++i)
+                    {
+                    long n1 = anBits[i & (cVals - 1)];
+                    long n2 = anBits[(i + 1) & (cVals - 1)];
+                    switch (iOp)
+                        {
+                        case 0: nSum += Decimal64.add(n1, n2);      break;
+                        case 1: nSum += Decimal64.multiply(n1, n2); break;
+                        case 2: nSum += Decimal64.divide(n1, n2);   break;
+                        case 3: nSum += Decimal64.compare(n1, n2);  break;
+                        }
+                    }
+                long cNative = System.nanoTime() - ldtStart;
+
+                // the BigDecimal alternative has to decode and encode the values as well
+                ldtStart = System.nanoTime();
+                for (int i = 0; i < cIters; ++i)
+                    {
+                    BigDecimal dec1 = Decimal64.toBigDecimal(anBits[i & (cVals - 1)]);
+                    BigDecimal dec2 = Decimal64.toBigDecimal(anBits[(i + 1) & (cVals - 1)]);
+                    switch (iOp)
+                        {
+                        case 0: nSum += Decimal64.toLongBits(dec1.add(dec2, MathContext.DECIMAL64));      break;
+                        case 1: nSum += Decimal64.toLongBits(dec1.multiply(dec2, MathContext.DECIMAL64)); break;
+                        case 2: nSum += Decimal64.toLongBits(dec1.divide(dec2, MathContext.DECIMAL64));   break;
+                        case 3: nSum += dec1.compareTo(dec2);                                              break;
+                        }
+                    }
+                long cBigDec = System.nanoTime() - ldtStart;
+
+                System.out.println("Dec64 " + asOp[iOp] + ": " + (cNative * 100 / cIters) / 100.0
+                        + "ns/op, BigDecimal " + (cBigDec * 100 / cIters) / 100.0
+                        + "ns/op (" + (nSum & 1) + ")");
+                }
+            }
+        }
+    }
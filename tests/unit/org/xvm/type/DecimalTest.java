@@ -0,0 +1,227 @@
+package org.xvm.type;
+
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Tests of the Decimal32, Decimal64 and Decimal128 arithmetic, using BigDecimal as the reference.
+ */
+public class DecimalTest
+    {
+    @Test
+    public void testDigitCount()
+        {
+        Assert.assertEquals(0, Decimal.getDigitCount(0));
+        for (int i = 0; i <= 18; ++i)
+            {
+            long n = Decimal.pow10(i);
+            Assert.assertEquals(i + 1, Decimal.getDigitCount(n));
+            Assert.assertEquals(i    , Decimal.getDigitCount(n - 1));
+            }
+        Assert.assertEquals(19, Decimal.getDigitCount(Long.MAX_VALUE));
+        }
+
+    @Test
+    public void testEncoding()
+        {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 100_000; ++i)
+            {
+            BigDecimal dec32 = randomDecimal(rnd, 7, 90);
+            Assert.assertEquals(dec32, new Decimal32(dec32).toBigDecimal());
+            Assert.assertEquals(dec32, Decimal32.toBigDecimal(Decimal32.toIntBits(dec32)));
+
+            BigDecimal dec64 = randomDecimal(rnd, 16, 369);
+            Assert.assertEquals(dec64, Decimal64.toBigDecimal(Decimal64.toLongBits(dec64)));
+            Assert.assertEquals(dec64, Decimal128.fromDecimal64Bits(Decimal64.toLongBits(dec64)).toBigDecimal());
+            Assert.assertEquals(Decimal64.toLongBits(dec64), new Decimal128(dec64).toDecimal64Bits());
+            }
+        }
+
+    @Test
+    public void testDecimal32()
+        {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 200_000; ++i)
+            {
+            BigDecimal dec1  = randomDecimal(rnd, 7, 20);
+            BigDecimal dec2  = randomDecimal(rnd, 7, 20);
+            int        nBits1 = Decimal32.toIntBits(dec1);
+            int        nBits2 = Decimal32.toIntBits(dec2);
+            String     sMsg   = dec1 + ", " + dec2;
+
+            Assert.assertEquals(sMsg, dec1.add(dec2, MathContext.DECIMAL32),
+                    Decimal32.toBigDecimal(Decimal32.add(nBits1, nBits2)));
+            Assert.assertEquals(sMsg, dec1.subtract(dec2, MathContext.DECIMAL32),
+                    Decimal32.toBigDecimal(Decimal32.subtract(nBits1, nBits2)));
+            Assert.assertEquals(sMsg, dec1.multiply(dec2, MathContext.DECIMAL32),
+                    Decimal32.toBigDecimal(Decimal32.multiply(nBits1, nBits2)));
+            if (dec2.signum() != 0)
+                {
+                Assert.assertEquals(sMsg, dec1.divide(dec2, MathContext.DECIMAL32),
+                        Decimal32.toBigDecimal(Decimal32.divide(nBits1, nBits2)));
+                }
+            Assert.assertEquals(sMsg, dec1.compareTo(dec2),
+                    Integer.signum(Decimal32.compare(nBits1, nBits2)));
+            }
+        }
+
+    @Test
+    public void testDecimal64()
+        {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 200_000; ++i)
+            {
+            BigDecimal dec1  = randomDecimal(rnd, 16, 40);
+            BigDecimal dec2  = randomDecimal(rnd, 16, 40);
+            long       nBits1 = Decimal64.toLongBits(dec1);
+            long       nBits2 = Decimal64.toLongBits(dec2);
+            String     sMsg   = dec1 + ", " + dec2;
+
+            Assert.assertEquals(sMsg, dec1.add(dec2, MathContext.DECIMAL64),
+                    Decimal64.toBigDecimal(Decimal64.add(nBits1, nBits2)));
+            Assert.assertEquals(sMsg, dec1.subtract(dec2, MathContext.DECIMAL64),
+                    Decimal64.toBigDecimal(Decimal64.subtract(nBits1, nBits2)));
+            Assert.assertEquals(sMsg, dec1.multiply(dec2, MathContext.DECIMAL64),
+                    Decimal64.toBigDecimal(Decimal64.multiply(nBits1, nBits2)));
+            if (dec2.signum() != 0)
+                {
+                Assert.assertEquals(sMsg, dec1.divide(dec2, MathContext.DECIMAL64),
+                        Decimal64.toBigDecimal(Decimal64.divide(nBits1, nBits2)));
+                }
+            Assert.assertEquals(sMsg, dec1.compareTo(dec2),
+                    Integer.signum(Decimal64.compare(nBits1, nBits2)));
+            }
+        }
+
+    @Test
+    public void testDecimal128()
+        {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 100_000; ++i)
+            {
+            // mostly values that fit into 16 digits, but also some that don't
+            int        cDigits = rnd.nextInt(4) == 0 ? 34 : 16;
+            BigDecimal dec1    = randomDecimal(rnd, cDigits, 40);
+            BigDecimal dec2    = randomDecimal(rnd, 16, 40);
+            Decimal128 d1      = new Decimal128(dec1);
+            Decimal128 d2      = new Decimal128(dec2);
+            String     sMsg    = dec1 + ", " + dec2;
+
+            Assert.assertEquals(sMsg, dec1.add(dec2, MathContext.DECIMAL128),
+                    Decimal128.add(d1, d2).toBigDecimal());
+            Assert.assertEquals(sMsg, dec1.subtract(dec2, MathContext.DECIMAL128),
+                    Decimal128.subtract(d1, d2).toBigDecimal());
+            Assert.assertEquals(sMsg, dec1.multiply(dec2, MathContext.DECIMAL128),
+                    Decimal128.multiply(d1, d2).toBigDecimal());
+            if (dec2.signum() != 0)
+                {
+                Assert.assertEquals(sMsg, dec1.divide(dec2, MathContext.DECIMAL128),
+                        Decimal128.divide(d1, d2).toBigDecimal());
+                }
+            Assert.assertEquals(sMsg, dec1.compareTo(dec2),
+                    Integer.signum(Decimal128.compare(d1, d2)));
+            }
+        }
+
+    @Test
+    public void testRounding()
+        {
+        // ties to even
+        assertAdd64("1234567890123456", "0.5", "1234567890123456");
+        assertAdd64("1234567890123455", "0.5", "1234567890123456");
+        assertAdd64("1234567890123455", "0.50001", "1234567890123456");
+        assertAdd64("1234567890123456", "0.49999", "1234567890123456");
+
+        // rounding that carries into an additional digit
+        assertAdd64("9999999999999999", "0.5", "1.000000000000000E+16");
+
+        // cohorts
+        assertAdd64("1.10", "2.2", "3.30");
+        assertAdd64("1.5", "-1.5", "0.0");
+
+        Assert.assertEquals(new BigDecimal("0.3333333333333333"), Decimal64.toBigDecimal(
+                Decimal64.divide(bits64("1"), bits64("3"))));
+        Assert.assertEquals(new BigDecimal("2.5"), Decimal64.toBigDecimal(
+                Decimal64.divide(bits64("10"), bits64("4"))));
+        Assert.assertEquals(new BigDecimal("1E+2"), Decimal64.toBigDecimal(
+                Decimal64.divide(bits64("1E+2"), bits64("1"))));
+        Assert.assertEquals(new BigDecimal("0.5000000000000000"), Decimal64.toBigDecimal(
+                Decimal64.multiply(bits64("0.9999999999999999"), bits64("0.5000000000000001"))));
+        }
+
+    @Test
+    public void testNonFinite()
+        {
+        long nPosInf = Decimal64.POS_INFINITY.toLongBits();
+        long nNegInf = Decimal64.NEG_INFINITY.toLongBits();
+        long nOne    = Decimal64.POS_ONE.toLongBits();
+        long nZero   = Decimal64.POS_ZERO.toLongBits();
+
+        Assert.assertEquals(nPosInf, Decimal64.add(nPosInf, nOne));
+        Assert.assertTrue(Decimal64.isNaN(Decimal64.add(nPosInf, nNegInf)));
+        Assert.assertTrue(Decimal64.isNaN(Decimal64.multiply(nPosInf, nZero)));
+        Assert.assertEquals(nNegInf, Decimal64.multiply(nPosInf, Decimal64.NEG_ONE.toLongBits()));
+        Assert.assertEquals(nPosInf, Decimal64.divide(nOne, nZero));
+        Assert.assertTrue(Decimal64.isNaN(Decimal64.divide(nZero, nZero)));
+        Assert.assertTrue(Decimal64.isZero(Decimal64.divide(nOne, nPosInf)));
+        Assert.assertTrue(Decimal64.compare(nNegInf, nOne) < 0);
+        Assert.assertTrue(Decimal64.compare(nPosInf, nOne) > 0);
+        Assert.assertTrue(Decimal64.compare(Decimal64.NaN.toLongBits(), nPosInf) > 0);
+        Assert.assertEquals(0, Decimal64.compare(nZero, Decimal64.NEG_ZERO.toLongBits()));
+
+        Assert.assertTrue(Decimal32.NaN.equals(new Decimal32(
+                Decimal32.add(Decimal32.POS_INFINITY.toIntBits(), Decimal32.NEG_INFINITY.toIntBits()))));
+        Assert.assertTrue(Decimal128.add(Decimal128.POS_INFINITY, Decimal128.POS_ONE).isInfinite());
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Create a random decimal value.
+     *
+     * @param rnd      the random number generator
+     * @param cDigits  the maximum number of significant digits
+     * @param nMaxExp  the maximum magnitude of the exponent
+     */
+    private static BigDecimal randomDecimal(Random rnd, int cDigits, int nMaxExp)
+        {
+        StringBuilder sb = new StringBuilder();
+        if (rnd.nextBoolean())
+            {
+            sb.append('-');
+            }
+
+        // favor "short" values, which are the common case, and zero
+        int c = rnd.nextInt(3) == 0 ? 1 + rnd.nextInt(3) : 1 + rnd.nextInt(cDigits);
+        for (int i = 0; i < c; ++i)
+            {
+            sb.append((char) ('0' + rnd.nextInt(10)));
+            }
+
+        // keep the adjusted exponent within range
+        int nExp = rnd.nextInt(2 * nMaxExp + 1) - nMaxExp;
+        nExp = Math.max(-nMaxExp, Math.min(nMaxExp - c, nExp));
+        return new BigDecimal(new BigInteger(sb.toString()), -nExp);
+        }
+
+    private static void assertAdd64(String s1, String s2, String sExpect)
+        {
+        Assert.assertEquals(new BigDecimal(sExpect),
+                Decimal64.toBigDecimal(Decimal64.add(bits64(s1), bits64(s2))));
+        }
+
+    private static long bits64(String s)
+        {
+        return Decimal64.toLongBits(new BigDecimal(s));
+        }
+    }
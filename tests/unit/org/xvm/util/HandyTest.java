@@ -9,12 +9,16 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import java.math.BigInteger;
+
 import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import static org.xvm.util.Handy.hexStringToByteArray;
+import static org.xvm.util.Handy.divideUnsigned;
 import static org.xvm.util.Handy.nibbleToChar;
 import static org.xvm.util.Handy.appendByteAsHex;
 import static org.xvm.util.Handy.byteToHexString;
@@ -490,9 +494,35 @@ public class HandyTest
             }
         }
 
+    @Test
+    public void testDivideUnsigned()
+        {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 100_000; ++i)
+            {
+            long nDivisor = rnd.nextLong() >>> rnd.nextInt(63);
+            if (nDivisor == 0)
+                {
+                continue;
+                }
+
+            long       nHi  = Long.remainderUnsigned(rnd.nextLong(), nDivisor);
+            long       nLo  = rnd.nextLong();
+            BigInteger bint = toUnsigned(nHi).shiftLeft(64).add(toUnsigned(nLo));
+            long       nQuo = divideUnsigned(nHi, nLo, nDivisor);
+            Assert.assertEquals(bint.divide(toUnsigned(nDivisor)), toUnsigned(nQuo));
+            }
+        }
+
 
     // ----- helpers -------------------------------------------------------------------------------
 
+    static BigInteger toUnsigned(long n)
+        {
+        BigInteger bint = BigInteger.valueOf(n);
+        return n < 0 ? bint.add(BigInteger.ONE.shiftLeft(64)) : bint;
+        }
+
     static DataInput dis(String s)
         {
         return new DataInputStream(new ByteArrayInputStream(hexStringToByteArray(s)));
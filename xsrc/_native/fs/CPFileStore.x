@@ -34,50 +34,27 @@ const CPFileStore(String path, Object constRoot)
             return False;
             }
 
-        Directory dir = root;
-        Segments: for (Path segment : path)
+        if (path.relative)
             {
-            switch (segment.form)
+            if (path[0].form == Parent)
                 {
-                case Root:
-                    // this should only occur at the first segment
-                    assert Segments.first && dir == root;
-                    break;
-
-                case Parent:
-                    // since this was not cleaned out by the call to normalize(), it implies that
-                    // the caller is trying to climb up past the root
-                    return False;
-
-                case Current:
-                    // this should have been cleaned out by the call to normalize()
-                    assert;
-
-                case Name:
-                    if (Directory|File node := dir.find(segment.name))
-                        {
-                        if (Segments.last)
-                            {
-                            return True, node;
-                            }
-
-                        if (node.is(File))
-                            {
-                            // this isn't the last segment, and the node isn't a directory, so we
-                            // can't keep searching down the tree
-                            return False;
-                            }
-
-                        dir = node;
-                        }
-                    else
-                        {
-                        return False;
-                        }
-                    break;
+                // a normalized path can only start with parent segments, which implies that the
+                // caller is trying to climb up past the root
+                return False;
                 }
+            path = Path.ROOT + path;
             }
-        assert;
+
+        // the paths of all the nodes are indexed natively
+        if (Object cookie := findNode(constRoot, path.toString()))
+            {
+            (Boolean isdir, String name, DateTime created, DateTime modified, Int size) = loadNode(cookie);
+            return True, isdir
+                    ? new CPDirectory(cookie, path, created, modified, size)
+                    : new CPFile(cookie, path, created, modified, size);
+            }
+
+        return False;
         }
 
     @Override
@@ -199,10 +176,19 @@ const CPFileStore(String path, Object constRoot)
         }
 
     /**
-     * Load contents for a file.
+     * Load contents for a file. The contents are decoded only once; all the subsequent calls for
+     * the same file (or an identical one) return the same array.
      */
     static immutable Byte[] loadFile(Object constNode)
         {
         TODO("native");
         }
+
+    /**
+     * Find the node at the specified path relative to the root directory.
+     */
+    static conditional Object findNode(Object constRoot, String pathString)
+        {
+        TODO("native");
+        }
     }
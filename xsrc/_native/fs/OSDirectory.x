@@ -1,5 +1,6 @@
 import Ecstasy.fs.Directory;
 import Ecstasy.fs.File;
+import Ecstasy.fs.FileNode;
 import Ecstasy.fs.FileWatcher;
 import Ecstasy.fs.Path;
 
@@ -13,17 +14,71 @@ const OSDirectory
     @Override
     Iterator<String> names()
         {
-        return store.names(this:protected).iterator();
+        TODO("native");
         }
 
     @Override
-    Iterator<Directory> dirs();
+    Iterator<Directory> dirs()
+        {
+        Directory[] dirs = new Directory[];
+        for (FileNode node : store.nodes(this:protected))
+            {
+            if (node.is(Directory))
+                {
+                dirs += node;
+                }
+            }
+        return dirs.iterator();
+        }
 
     @Override
-    Iterator<File> files();
+    Iterator<File> files()
+        {
+        File[] files = new File[];
+        for (FileNode node : store.nodes(this:protected))
+            {
+            if (node.is(File))
+                {
+                files += node;
+                }
+            }
+        return files.iterator();
+        }
 
     @Override
-    Iterator<File> filesRecursively();
+    Iterator<File> filesRecursively()
+        {
+        Iterator<FileNode> walker = walk(Int.maxvalue, Null, True);
+        return new Iterator<File>()
+            {
+            @Override
+            conditional File next()
+                {
+                if (FileNode node := walker.next())
+                    {
+                    return True, node.as(File);
+                    }
+                return False;
+                }
+            };
+        }
+
+    /**
+     * Obtain an iterator over the files and directories in the tree under this directory. The
+     * iterator reads the tree lazily as the iteration goes.
+     *
+     * @param maxDepth   (optional) the maximum depth to descend to; 1 for the immediate children
+     * @param glob       (optional) the glob pattern (e.g. "**.x") that the paths of the nodes
+     *                   relative to this directory must match; the directories that don't match
+     *                   are still descended into
+     * @param filesOnly  (optional) pass True to skip the directories
+     *
+     * @return an iterator over the matching nodes
+     */
+    Iterator<FileNode> walk(Int maxDepth = Int.maxvalue, String? glob = Null, Boolean filesOnly = False)
+        {
+        TODO("native");
+        }
 
     @Override
     conditional Directory|File find(String name)
@@ -33,7 +33,10 @@ const OSFile
         }
 
     @Override
-    FileChannel open(ReadOption read=Read, WriteOption... write=[Write]);
+    FileChannel open(ReadOption read=Read, WriteOption... write=[Write])
+        {
+        TODO("native");
+        }
 
     /**
      * The parent directory.
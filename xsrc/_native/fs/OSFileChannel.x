@@ -0,0 +1,73 @@
+import Ecstasy.fs.FileChannel;
+import Ecstasy.io.Buffer;
+
+/**
+ * Native OS FileChannel implementation.
+ *
+ * The channel only moves bytes in and out of the [io.ByteBuffer] buffers, which it hands directly
+ * to the underlying file system; the transfers that could take a while are performed off the
+ * service thread, so the calling fiber waits, but the service doesn't.
+ */
+class OSFileChannel
+        implements FileChannel
+    {
+    @Override
+    @RO Boolean readable;
+
+    @Override
+    @RO Boolean writable;
+
+    @Override
+    Int size;
+
+    @Override
+    Int position;
+
+    @Override
+    conditional Int read(Buffer<Byte> buffer, Int minBytes = Int.maxvalue)
+        {
+        TODO("native");
+        }
+
+    @Override
+    conditional (Int, Int) read(Buffer<Byte>[] buffers, Int minBytes = Int.maxvalue)
+        {
+        TODO("native");
+        }
+
+    @Override
+    Int write(Buffer<Byte> buffer)
+        {
+        TODO("native");
+        }
+
+    @Override
+    (Int, Int) write(Buffer<Byte>[] buffers)
+        {
+        TODO("native");
+        }
+
+    @Override
+    conditional Int readAt(Int offset, Buffer<Byte> buffer)
+        {
+        TODO("native");
+        }
+
+    @Override
+    Int writeAt(Int offset, Buffer<Byte> buffer)
+        {
+        TODO("native");
+        }
+
+    @Override
+    void flush()
+        {
+        TODO("native");
+        }
+
+    @Override
+    void close()
+        {
+        TODO("native");
+        }
+    }
@@ -61,7 +61,12 @@ const OSFileNode
     @Override
     Boolean create()
         {
-        return !exists && store.create(this:protected);
+        if (!exists && store.create(this:protected))
+            {
+            refresh();
+            return True;
+            }
+        return False;
         }
 
     @Override
@@ -77,7 +82,12 @@ const OSFileNode
     @Override
     Boolean delete()
         {
-        return exists && store.delete(this:protected);
+        if (exists && store.delete(this:protected))
+            {
+            refresh();
+            return True;
+            }
+        return False;
         }
 
     @Override
@@ -110,4 +120,15 @@ const OSFileNode
     @Abstract private Int createdMillis;
     @Abstract private Int accessedMillis;
     @Abstract private Int modifiedMillis;
+
+    /**
+     * Discard the attributes (existence, size and times) that this node holds on to, so that the
+     * next access reads them from the file system again. The attributes are otherwise refreshed
+     * only after a short while or, if the parent directory is being watched, after a change in
+     * that directory is reported.
+     */
+    void refresh()
+        {
+        TODO("native");
+        }
     }
@@ -88,6 +88,11 @@ class OSFileStore
         return storage.names(dir.pathString);
         }
 
+    FileNode[] nodes(OSDirectory:protected dir)
+        {
+        return storage.nodes(this, dir.pathString);
+        }
+
     Boolean create(OSFileNode:protected node)
         {
         if (readOnly)
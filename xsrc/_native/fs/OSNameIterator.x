@@ -0,0 +1,24 @@
+/**
+ * Native iterator over the names of a directory's children.
+ *
+ * The names are read from the underlying directory stream as the iteration goes, so the memory
+ * used by the iterator doesn't depend on the size of the directory. The directory stream is
+ * closed once the iterator is exhausted or fails; an iterator that is abandoned before that should
+ * be closed explicitly, otherwise its stream is only closed after the iterator is collected.
+ */
+class OSNameIterator
+        implements Iterator<String>
+        implements Closeable
+    {
+    @Override
+    conditional String next()
+        {
+        TODO("native");
+        }
+
+    @Override
+    void close()
+        {
+        TODO("native");
+        }
+    }
@@ -2,6 +2,7 @@ import Ecstasy.collections.HashMap;
 
 import Ecstasy.fs.Directory;
 import Ecstasy.fs.File;
+import Ecstasy.fs.FileNode;
 import Ecstasy.fs.FileNotFound;
 import Ecstasy.fs.FileStore;
 import Ecstasy.fs.FileWatcher;
@@ -112,7 +113,36 @@ service OSStorage
             }
         }
 
-    // called natively
+    /**
+     * Called natively with all the events collected for the specified directory during a single
+     * watch window; the repeated events for the same node have already been collapsed.
+     *
+     * @param pathStringDir    the watched directory
+     * @param pathStringNodes  the nodes the events are for
+     * @param eventIds         the event ids (see [EVENTS]) matching the nodes
+     * @param overflow         True iff some events were lost, in which case the events represent
+     *                         the differences found by re-reading the directory
+     */
+    private void onEvents(String pathStringDir, String[] pathStringNodes, Int[] eventIds,
+                          Boolean overflow)
+        {
+        if (overflow)
+            {
+            if (FileWatcher?[] watchers := allWatchers.get(pathStringDir))
+                {
+                for (FileWatcher? watcher : watchers)
+                    {
+                    watcher?.eventsDiscarded();
+                    }
+                }
+            }
+
+        for (Int i = 0; i < pathStringNodes.size; i++)
+            {
+            onEvent(pathStringDir, pathStringNodes[i], True, eventIds[i]);
+            }
+        }
+
     private void onEvent(String pathStringDir, String pathStringNode, Boolean isFile, Int eventId)
         {
         // TODO GG when Enumeration is implemented: event = FileWatcher.Event.values[eventId];
@@ -162,6 +192,12 @@ service OSStorage
 
     String[] names(String pathString);
 
+    /**
+     * Obtain all the children of the specified directory. The listing reads the attributes of each
+     * child as it goes, so the returned nodes already hold them.
+     */
+    FileNode[] nodes(OSFileStore store, String pathString);
+
     Boolean createDir(String pathString);
 
     Boolean createFile(String pathString);
@@ -0,0 +1,28 @@
+import Ecstasy.fs.FileNode;
+
+/**
+ * Native iterator over the files and directories of a directory tree.
+ *
+ * The tree is walked depth-first, with each directory preceding its content. Only one directory
+ * stream per level of the tree is open at any time, and the nodes are created in small batches
+ * (each node already holding its attributes), so the memory used by the walk doesn't depend on
+ * the size of the tree. The directory streams are closed once the iterator is exhausted or fails;
+ * a walk that is abandoned before that should be closed explicitly, otherwise its streams are only
+ * closed after the iterator is collected.
+ */
+class OSTreeWalker
+        implements Iterator<FileNode>
+        implements Closeable
+    {
+    @Override
+    conditional FileNode next()
+        {
+        TODO("native");
+        }
+
+    @Override
+    void close()
+        {
+        TODO("native");
+        }
+    }
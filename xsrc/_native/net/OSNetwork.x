@@ -0,0 +1,22 @@
+import Ecstasy.net.Network;
+import Ecstasy.net.ServerSocketChannel;
+import Ecstasy.net.SocketChannel;
+
+/**
+ * Native OS Network implementation.
+ */
+class OSNetwork
+        implements Network
+    {
+    @Override
+    ServerSocketChannel listen(String host, Int port, Int backlog = 0)
+        {
+        TODO("native");
+        }
+
+    @Override
+    SocketChannel connect(String host, Int port)
+        {
+        TODO("native");
+        }
+    }
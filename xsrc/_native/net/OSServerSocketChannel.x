@@ -0,0 +1,27 @@
+import Ecstasy.net.ServerSocketChannel;
+import Ecstasy.net.SocketChannel;
+
+/**
+ * Native OS ServerSocketChannel implementation.
+ */
+class OSServerSocketChannel
+        implements ServerSocketChannel
+    {
+    @Override
+    @RO String localAddress;
+
+    @Override
+    @RO Int port;
+
+    @Override
+    SocketChannel accept()
+        {
+        TODO("native");
+        }
+
+    @Override
+    void close()
+        {
+        TODO("native");
+        }
+    }
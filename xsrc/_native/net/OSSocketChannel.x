@@ -0,0 +1,64 @@
+import Ecstasy.io.Buffer;
+import Ecstasy.net.SocketChannel;
+
+/**
+ * Native OS SocketChannel implementation.
+ *
+ * The channel only moves bytes in and out of the [io.ByteBuffer] buffers, which it hands directly
+ * to the network stack; while the network is not ready, the calling fiber waits, but the service
+ * doesn't.
+ */
+class OSSocketChannel
+        implements SocketChannel
+    {
+    @Override
+    @RO Boolean readable;
+
+    @Override
+    @RO Boolean writable;
+
+    @Override
+    @RO String localAddress;
+
+    @Override
+    @RO String remoteAddress;
+
+    @Override
+    Boolean noDelay;
+
+    @Override
+    conditional Int read(Buffer<Byte> buffer, Int minBytes = Int.maxvalue)
+        {
+        TODO("native");
+        }
+
+    @Override
+    conditional (Int, Int) read(Buffer<Byte>[] buffers, Int minBytes = Int.maxvalue)
+        {
+        TODO("native");
+        }
+
+    @Override
+    Int write(Buffer<Byte> buffer)
+        {
+        TODO("native");
+        }
+
+    @Override
+    (Int, Int) write(Buffer<Byte>[] buffers)
+        {
+        TODO("native");
+        }
+
+    @Override
+    void shutdownOutput()
+        {
+        TODO("native");
+        }
+
+    @Override
+    void close()
+        {
+        TODO("native");
+        }
+    }
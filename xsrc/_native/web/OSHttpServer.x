@@ -0,0 +1,43 @@
+import Ecstasy.io.ByteBuffer;
+import Ecstasy.web.Handler;
+import Ecstasy.web.HttpServer;
+import Ecstasy.web.Request;
+import Ecstasy.web.Response;
+
+/**
+ * Native OS HttpServer implementation.
+ */
+class OSHttpServer
+        implements HttpServer
+    {
+    @Override
+    @RO String localAddress;
+
+    @Override
+    @RO Int port;
+
+    @Override
+    void start(String host, Int port, Handler[] handlers)
+        {
+        TODO("native");
+        }
+
+    @Override
+    void close()
+        {
+        TODO("native");
+        }
+
+    /**
+     * Process a request parsed by the native server. This function is called by the runtime on
+     * the handler's service; the response values it returns are then sent back natively.
+     */
+    static (Int, String[], String[], ByteBuffer?) dispatch(Handler handler,
+            String method, String uri, String version,
+            String[] headerNames, String[] headerValues, ByteBuffer body)
+        {
+        Request  request  = new Request(method, uri, version, headerNames, headerValues, body);
+        Response response = handler.handle(request);
+        return response.status, response.headerNames, response.headerValues, response.body;
+        }
+    }
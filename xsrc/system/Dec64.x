@@ -296,4 +296,25 @@ const Dec64
         {
         return new VarDec(bits);
         }
+
+
+    // ----- Stringable implementation -------------------------------------------------------------
+
+    @Override
+    String toString()
+        {
+        TODO
+        }
+
+    @Override
+    Int estimateStringLength()
+        {
+        return toString().size;
+        }
+
+    @Override
+    void appendTo(Appender<Char> appender)
+        {
+        appender.add(toString());
+        }
     }
@@ -283,6 +283,60 @@ const Float64
 
     // ----- conversions ---------------------------------------------------------------------------
 
+    @Override
+    Int8 toInt8()
+        {
+        TODO
+        }
+
+    @Override
+    Int16 toInt16()
+        {
+        TODO
+        }
+
+    @Override
+    Int32 toInt32()
+        {
+        TODO
+        }
+
+    @Override
+    Int64 toInt()
+        {
+        TODO
+        }
+
+    @Override
+    UInt8 toByte()
+        {
+        TODO
+        }
+
+    @Override
+    UInt16 toUInt16()
+        {
+        TODO
+        }
+
+    @Override
+    UInt32 toUInt32()
+        {
+        TODO
+        }
+
+    @Override
+    UInt64 toUInt()
+        {
+        TODO
+        }
+
+    @Override
+    Float32 toFloat32()
+        {
+        TODO
+        }
+
     @Override
     Float64! toFloat64()
         {
@@ -312,4 +366,25 @@ const Float64
         {
         TODO
         }
+
+
+    // ----- Stringable implementation -------------------------------------------------------------
+
+    @Override
+    String toString()
+        {
+        TODO
+        }
+
+    @Override
+    Int estimateStringLength()
+        {
+        return toString().size;
+        }
+
+    @Override
+    void appendTo(Appender<Char> appender)
+        {
+        appender.add(toString());
+        }
     }
@@ -384,4 +384,14 @@ const Int16
         {
         TODO
         }
+
+
+    // ----- Stringable implementation -------------------------------------------------------------
+
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
     }
\ No newline at end of file
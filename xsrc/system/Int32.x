@@ -385,4 +385,14 @@ const Int32
         {
         TODO
         }
+
+
+    // ----- Stringable implementation -------------------------------------------------------------
+
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
     }
\ No newline at end of file
@@ -381,9 +381,25 @@ const Int64
         TODO
         }
 
+    @Override
+    @Auto Float64 toFloat64()
+        {
+        TODO
+        }
+
     @Override
     @Auto VarDec toVarDec()
         {
         TODO
         }
+
+
+    // ----- Stringable implementation -------------------------------------------------------------
+
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
     }
\ No newline at end of file
@@ -383,4 +383,14 @@ const Int8
         {
         TODO
         }
+
+
+    // ----- Stringable implementation -------------------------------------------------------------
+
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
     }
\ No newline at end of file
@@ -356,6 +356,6 @@ const String
     @Override
     void appendTo(Appender<Char> appender)
         {
-        appender.add(chars);
+        appender.add(this);
         }
     }
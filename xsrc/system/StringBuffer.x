@@ -1,6 +1,9 @@
 /**
  * A StringBuffer is used to efficiently create a resulting String from any number of contributions
  * of any size.
+ *
+ * The characters are held by the runtime in a growable buffer; the methods without a body
+ * below are implemented natively.
  */
 class StringBuffer
         implements Appender<Char>
@@ -14,14 +17,9 @@ class StringBuffer
      */
     construct(Int capacity = 0)
         {
-        chars = new Array<Char>(capacity);
+        TODO
         }
 
-    /**
-     * The underlying representation of a StringBuffer is a mutable array of characters.
-     */
-    private Char[] chars;
-
 
     // ----- StringBuffer API ----------------------------------------------------------------------
 
@@ -32,6 +30,14 @@ class StringBuffer
      */
     @Op("+")
     StringBuffer append(Object o)
+        {
+        TODO
+        }
+
+    /**
+     * The [append] implementation for the values that the runtime does not handle by itself.
+     */
+    private StringBuffer appendObject(Object o)
         {
         if (o.is(Stringable))
             {
@@ -48,7 +54,7 @@ class StringBuffer
     @Override
     String toString()
         {
-        return new String(chars);
+        TODO
         }
 
 
@@ -63,7 +69,7 @@ class StringBuffer
     @Override
     void appendTo(Appender<Char> appender)
         {
-        appender.add(chars);
+        appender.add(this);
         }
 
 
@@ -72,38 +78,55 @@ class StringBuffer
     @Override
     StringBuffer add(Char v)
         {
-        chars[size] = v;
-        return this;
+        TODO
         }
 
     @Override
     StringBuffer add(Iterable<Char> array)
         {
-        chars += array;
+        TODO
+        }
+
+    /**
+     * The [add] implementation for the Iterables that the runtime does not handle by itself.
+     */
+    private StringBuffer addIterable(Iterable<Char> iterable)
+        {
+        ensureCapacity(size + iterable.size);
+        for (Char ch : iterable)
+            {
+            add(ch);
+            }
         return this;
         }
 
+    @Override
+    StringBuffer ensureCapacity(Int count)
+        {
+        TODO
+        }
+
 
     // ----- Sequence methods ----------------------------------------------------------------------
 
     @Override
     Int size.get()
         {
-        return chars.size;
+        TODO
         }
 
     @Override
     @Op("[]")
     @Op Char getElement(Int index)
         {
-        return chars[index];
+        TODO
         }
 
     @Override
     @Op("[]=")
     void setElement(Int index, Char value)
         {
-        chars[index] = value;
+        TODO
         }
 
     @Override
@@ -111,25 +134,55 @@ class StringBuffer
     StringBuffer! slice(Range<Int> range)
         {
         StringBuffer that = new StringBuffer(range.size);
-        that.add(chars[range]);
+        for (Int index : range)
+            {
+            that.add(this[index]);
+            }
         return that;
         }
 
     @Override
     Iterator<Char> iterator()
         {
-        return chars.iterator();
+        return new Iterator()
+            {
+            Int index = 0;
+
+            @Override
+            conditional Char next()
+                {
+                if (index < this.StringBuffer.size)
+                    {
+                    return True, this.StringBuffer[index++];
+                    }
+                return False;
+                }
+            };
         }
 
     @Override
     conditional Int indexOf(Char value, Int startAt = 0)
         {
-        return chars.indexOf(value, startAt);
+        for (Int index = startAt.maxOf(0), Int size = this.size; index < size; ++index)
+            {
+            if (this[index] == value)
+                {
+                return True, index;
+                }
+            }
+        return False;
         }
 
     @Override
     conditional Int lastIndexOf(Char value, Int startAt = Int.maxvalue)
         {
-        return chars.lastIndexOf(value, startAt);
+        for (Int index = startAt.minOf(size - 1); index >= 0; --index)
+            {
+            if (this[index] == value)
+                {
+                return True, index;
+                }
+            }
+        return False;
         }
     }
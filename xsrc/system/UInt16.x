@@ -360,6 +360,13 @@ const UInt16
 
     // ----- Stringable implementation -------------------------------------------------------------
 
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
+
     @Override
     Int estimateStringLength()
         {
@@ -362,6 +362,13 @@ const UInt32
 
     // ----- Stringable implementation -------------------------------------------------------------
 
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
+
     @Override
     Int estimateStringLength()
         {
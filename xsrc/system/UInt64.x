@@ -364,6 +364,13 @@ const UInt64
 
     // ----- Stringable implementation -------------------------------------------------------------
 
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
+
     @Override
     Int estimateStringLength()
         {
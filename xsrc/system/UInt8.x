@@ -358,6 +358,13 @@ const UInt8
 
     // ----- Stringable implementation -------------------------------------------------------------
 
+    @Override
+    String toString()
+        {
+        // the runtime implements this natively
+        return super();
+        }
+
     @Override
     Int estimateStringLength()
         {
@@ -282,6 +282,109 @@ class Array<ElementType>
             }
         }
 
+    /**
+     * Copy the specified elements of this array into another array, replacing the elements of that
+     * array starting at the specified index.
+     *
+     * @param target       the array to copy the elements into
+     * @param targetIndex  the index in the target array of the first element to replace
+     * @param range        an optional range of element indexes, defaulting to the entire array
+     *
+     * @return the target array
+     *
+     * @throws ReadOnly     if the target array mutability is not Mutable or Fixed
+     * @throws OutOfBounds  if the target array does not have enough elements to replace
+     */
+    Array<ElementType> copyInto(Array<ElementType> target, Int targetIndex = 0, Range<Int>? range = Null)
+        {
+        if (range == Null)
+            {
+            if (empty)
+                {
+                return target;
+                }
+            range = 0..size-1;
+            }
+
+        if (target.mutability.persistent)
+            {
+            throw new ReadOnly();
+            }
+
+        if (targetIndex < 0 || targetIndex + range.size > target.size)
+            {
+            throw new OutOfBounds("index=" + targetIndex + ", size=" + target.size);
+            }
+
+        Int first  = range.lowerBound;
+        Int last   = range.upperBound;
+        Int offset = targetIndex - first;
+        if (offset > 0)
+            {
+            // copy backwards in case the target is this array and the elements overlap
+            for (Int i = last; i >= first; --i)
+                {
+                target[i + offset] = this[i];
+                }
+            }
+        else
+            {
+            for (Int i = first; i <= last; ++i)
+                {
+                target[i + offset] = this[i];
+                }
+            }
+        return target;
+        }
+
+    /**
+     * Search for the specified value in this array, which must be sorted in the order specified by
+     * the optional Comparator.
+     *
+     * @param value       the value to search for
+     * @param comparator  the Comparator that the array is sorted by; (optional, defaulting to using
+     *                    the "natural" sort order of the ElementType)
+     *
+     * @return True iff the value was found
+     * @return the index of the value if it was found; otherwise, the index at which the value
+     *         would have to be inserted to keep the array sorted
+     */
+    (Boolean, Int) binarySearch(ElementType value, collections.Comparator<ElementType>? comparator = Null)
+        {
+        function Ordered (ElementType, ElementType) compare;
+
+        if (comparator == null)
+            {
+            assert ElementType.is(Type<Orderable>);
+            compare = (v1, v2) -> v1 <=> v2;
+            }
+        else
+            {
+            compare = comparator.compareForOrder;
+            }
+
+        Int lo = 0;
+        Int hi = size - 1;
+        while (lo <= hi)
+            {
+            Int mid = (lo + hi) >>> 1;
+            switch (compare(this[mid], value))
+                {
+                case Lesser:
+                    lo = mid + 1;
+                    break;
+
+                case Greater:
+                    hi = mid - 1;
+                    break;
+
+                case Equal:
+                    return True, mid;
+                }
+            }
+        return False, lo;
+        }
+
 
     // ----- VariablyMutable interface -------------------------------------------------------------
 
@@ -500,6 +603,34 @@ class Array<ElementType>
                 : result;
         }
 
+    /**
+     * Obtain an array that holds the elements of this array in the reverse order.
+     *
+     * @return a new array with the same mutability as this array, unless this array has less than
+     *         two elements, in which case it is returned as is
+     */
+    @Override
+    Array reverse()
+        {
+        Int last = size - 1;
+        return last <= 0
+                ? this
+                : new Array<ElementType>(mutability, new Array<ElementType>(size, i -> this[last - i]));
+        }
+
+    @Override
+    conditional Int indexOf(ElementType value, Int startAt = 0)
+        {
+        for (Int i = startAt.maxOf(0), Int size = this.size; i < size; ++i)
+            {
+            if (this[i] == value)
+                {
+                return True, i;
+                }
+            }
+        return False;
+        }
+
     @Override
     Array reify()
         {
@@ -514,7 +645,6 @@ class Array<ElementType>
     @Override
     Boolean contains(ElementType value)
         {
-        // use the default implementation from the Sequence interface
         return indexOf(value);
         }
 
@@ -680,6 +810,13 @@ class Array<ElementType>
 
     // ----- List interface ------------------------------------------------------------------------
 
+    @Override
+    Array sort(collections.Comparator<ElementType>? comparator = Null)
+        {
+        // the runtime sorts arrays using a stable merge sort
+        return super(comparator);
+        }
+
     @Override
     Array replace(Int index, ElementType value)
         {
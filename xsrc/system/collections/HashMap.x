@@ -27,11 +27,12 @@ class HashMap<KeyType, ValueType>
         assert(KeyType.is(Type<Hashable>));
 
         this.hasher = new NaturalHasher<KeyType>();
-
+        mutability  = Mutable;
+        }
+    finally
+        {
         // allocate the initial capacity
-        (Int bucketCount, this.growAt) = calcBucketCount(initCapacity);
-        buckets    = new HashEntry?[bucketCount];
-        mutability = Mutable;
+        ensureCapacity(initCapacity);
         }
 
     /**
@@ -43,11 +44,12 @@ class HashMap<KeyType, ValueType>
     construct(Hasher<KeyType> hasher, Int initCapacity = 0)
         {
         this.hasher = hasher;
-
+        mutability  = Mutable;
+        }
+    finally
+        {
         // allocate the initial capacity
-        (Int bucketCount, this.growAt) = calcBucketCount(initCapacity);
-        buckets    = new HashEntry?[bucketCount];
-        mutability = Mutable;
+        ensureCapacity(initCapacity);
         }
 
     // ----- internal state ------------------------------------------------------------------------
@@ -59,59 +61,169 @@ class HashMap<KeyType, ValueType>
     public/private Hasher<KeyType> hasher;
 
     /**
-     * This is the Entry implementation used to store the HashMap's keys and values.
+     * The number of entries added.
+     *
+     * The entries of the HashMap are stored by the runtime in an open-addressing hash table and
+     * are accessed from here by "slot" indexes. Removing an entry never moves any other entry, but
+     * adding one may, so the iterators use this count to detect a concurrent modification.
      */
-    protected static class HashEntry(KeyType key, Int keyhash, ValueType value, HashEntry? next = null);
+    private Int addCount;
 
     /**
-     * An array of hash buckets.
+     * Make sure that the hash table can hold the specified number of entries without growing.
+     *
+     * @param capacity  the number of entries to be able to manage efficiently
      */
-    private HashEntry?[] buckets;
+    private void ensureCapacity(Int capacity)
+        {
+        TODO
+        }
 
     /**
-     * The size at which the capacity must grow.
+     * Find the next slot that holds an entry with the specified key hash.
+     *
+     * @param keyhash  the hash of the key as computed by the [hasher]
+     * @param slot     the slot returned by the previous call, or -1 to start the search
+     *
+     * @return the next matching slot, or -1 if there are no more matching slots
      */
-    private Int growAt;
+    private Int nextMatch(Int keyhash, Int slot)
+        {
+        TODO
+        }
 
     /**
-     * The size at which the capacity must shrink.
+     * Find the next slot that holds an entry.
+     *
+     * @param slot  the slot returned by the previous call, or -1 to start the iteration
+     *
+     * @return the next occupied slot, or -1 if there are no more occupied slots
      */
-    private Int shrinkAt = -1;
+    private Int nextSlot(Int slot)
+        {
+        TODO
+        }
 
     /**
-     * The number of entries added.
+     * @return the key of the entry in the specified occupied slot
      */
-    private Int addCount = 0;
+    private KeyType keyAt(Int slot)
+        {
+        TODO
+        }
 
     /**
-     * The number of entries removed.
+     * @return the value of the entry in the specified occupied slot
      */
-    private Int removeCount = 0;
+    private ValueType valueAt(Int slot)
+        {
+        TODO
+        }
+
+    /**
+     * Replace the value of the entry in the specified occupied slot.
+     */
+    private void setValueAt(Int slot, ValueType value)
+        {
+        TODO
+        }
+
+    /**
+     * Add an entry for a key that is known not to be in the map.
+     */
+    private void insert(Int keyhash, KeyType key, ValueType value)
+        {
+        TODO
+        }
+
+    /**
+     * Remove the entry in the specified occupied slot.
+     */
+    private void removeAt(Int slot)
+        {
+        TODO
+        }
 
     /**
-     * This is the primary means to find a HashEntry in the HashMap.
+     * This is the primary means to find an entry in the HashMap using the [hasher]. The runtime
+     * handles the keys of the [NaturalHasher] that it knows how to hash and compare by itself,
+     * and falls back on this method for all other keys.
      *
      * @param key  the key to find in the map
      *
-     * @return True iff the key is in the map
-     * @return the HashEntry identified by the key
+     * @return the slot holding the entry identified by the key, or -1 if the key is not in the map
      */
-    protected conditional HashEntry find(KeyType key)
+    protected Int find(KeyType key)
         {
-        Int        keyhash  = hasher.hashOf(key);
-        Int        bucketId = keyhash % buckets.size;
-        HashEntry? entry    = buckets[bucketId];
-        while (entry != null)
+        Int keyhash = hasher.hashOf(key);
+        Int slot    = nextMatch(keyhash, -1);
+        while (slot >= 0)
             {
-            if (entry.keyhash == keyhash && hasher.areEqual(entry.key, key))
+            if (hasher.areEqual(keyAt(slot), key))
                 {
-                return True, entry;
+                return slot;
                 }
-            entry = entry.next;
+            slot = nextMatch(keyhash, slot);
+            }
+        return -1;
+        }
+
+    /**
+     * The [contains] implementation for the keys that the runtime does not handle by itself.
+     */
+    private Boolean hashedContains(KeyType key)
+        {
+        return find(key) >= 0;
+        }
+
+    /**
+     * The [get] implementation for the keys that the runtime does not handle by itself.
+     */
+    private conditional ValueType hashedGet(KeyType key)
+        {
+        Int slot = find(key);
+        if (slot >= 0)
+            {
+            return True, valueAt(slot);
             }
         return False;
         }
 
+    /**
+     * The [put] implementation for the keys that the runtime does not handle by itself.
+     */
+    private HashMap hashedPut(KeyType key, ValueType value)
+        {
+        Int keyhash = hasher.hashOf(key);
+        Int slot    = nextMatch(keyhash, -1);
+        while (slot >= 0)
+            {
+            if (hasher.areEqual(keyAt(slot), key))
+                {
+                setValueAt(slot, value);
+                return this;
+                }
+            slot = nextMatch(keyhash, slot);
+            }
+
+        verifyMutable();
+        insert(keyhash, key, value);
+        return this;
+        }
+
+    /**
+     * The [remove] implementation for the keys that the runtime does not handle by itself.
+     */
+    private HashMap hashedRemove(KeyType key)
+        {
+        Int slot = find(key);
+        if (slot >= 0)
+            {
+            removeAt(slot);
+            }
+        return this;
+        }
+
     // ----- Map interface -------------------------------------------------------------------------
 
     /**
@@ -120,47 +232,25 @@ class HashMap<KeyType, ValueType>
     @Override
     Int size.get()
         {
-        return addCount - removeCount;
+        TODO
         }
 
     @Override
     Boolean contains(KeyType key)
         {
-        return find(key);
+        TODO
         }
 
     @Override
     conditional ValueType get(KeyType key)
         {
-        if (HashEntry entry := find(key))
-            {
-            return True, entry.value;
-            }
-        return False;
+        TODO
         }
 
     @Override
     HashMap put(KeyType key, ValueType value)
         {
-        Int        keyhash  = hasher.hashOf(key);
-        Int        bucketId = keyhash % buckets.size;
-        HashEntry? entry    = buckets[bucketId];
-        while (entry != null)
-            {
-            if (entry.keyhash == keyhash && hasher.areEqual(entry.key, key))
-                {
-                entry.value = value;
-                return this;
-                }
-
-            entry = entry.next;
-            }
-
-        buckets[bucketId] = new HashEntry(key, keyhash, value, buckets[bucketId]);
-        ++addCount;
-        checkCapacity();
-
-        return this;
+        TODO
         }
 
     @Override
@@ -168,29 +258,11 @@ class HashMap<KeyType, ValueType>
         {
         // check the capacity up front (to avoid multiple resizes); the worst case is that we end
         // up a bit bigger than we want
-        checkCapacity(size + that.size);
+        ensureCapacity(size + that.size);
 
-        HashEntry?[] buckets     = this.buckets;
-        Int          bucketCount = buckets.size;
-        NextPut: for (Map<KeyType, ValueType>.Entry entry : that.entries)
+        for (Map<KeyType, ValueType>.Entry entry : that.entries)
             {
-            KeyType    key       = entry.key;
-            Int        keyhash   = hasher.hashOf(key);
-            Int        bucketId  = keyhash % bucketCount;
-            HashEntry? currEntry = buckets[bucketId];
-            while (currEntry != null)
-                {
-                if (currEntry.keyhash == keyhash && hasher.areEqual(currEntry.key, key))
-                    {
-                    // an entry with the same key already exists in the HashMap
-                    currEntry.value = entry.value;
-                    continue NextPut;
-                    }
-                currEntry = currEntry.next;
-                }
-            // no such entry with the same key in the HashMap; create a new HashEntry
-            buckets[bucketId] = new HashEntry(key, keyhash, entry.value, buckets[bucketId]);
-            ++addCount;
+            put(entry.key, entry.value);
             }
 
         return this;
@@ -199,53 +271,13 @@ class HashMap<KeyType, ValueType>
     @Override
     HashMap remove(KeyType key)
         {
-        Int        keyhash   = hasher.hashOf(key);
-        Int        bucketId  = keyhash % buckets.size;
-        HashEntry? entry     = buckets[bucketId];
-        HashEntry? prevEntry = null;
-        while (entry != null)
-            {
-            if (entry.keyhash == keyhash && hasher.areEqual(entry.key, key))
-                {
-                // unlink the entry
-                if (prevEntry != null)
-                    {
-                    prevEntry.next = entry.next;
-                    }
-                else
-                    {
-                    buckets[bucketId] = entry.next;
-                    }
-                entry.next = null;
-
-                ++removeCount;
-                return this;
-                }
-
-            prevEntry = entry;
-            entry = entry.next;
-            }
-
-        return this;
+        TODO
         }
 
     @Override
     HashMap clear()
         {
-        Int entryCount = size;
-        if (entryCount == 0)
-            {
-            return this;
-            }
-
-        // TODO implement Persistent/Constant mutability
-        verifyNotPersistent();
-
-        (Int bucketCount, this.growAt, this.shrinkAt) = calcBucketCount(0);
-        buckets = new HashEntry?[bucketCount];
-        removeCount += entryCount;
-        assert size == 0;
-        return this;
+        TODO
         }
 
     @Override
@@ -283,20 +315,24 @@ class HashMap<KeyType, ValueType>
     class CursorEntry
             implements Entry
         {
-        @Unassigned
-        private HashEntry hashEntry;
+        private Int slot = -1;
 
-        protected CursorEntry advance(HashEntry hashEntry)
+        /**
+         * The key of the entry after it has been removed, since its slot no longer holds it.
+         */
+        private KeyType? removedKey = Null;
+
+        protected CursorEntry advance(Int slot)
             {
-            this.hashEntry = hashEntry;
-            this.exists    = true;
+            this.slot   = slot;
+            this.exists = true;
             return this;
             }
 
         @Override
         KeyType key.get()
             {
-            return hashEntry.key;
+            return exists ? keyAt(slot) : removedKey.as(KeyType);
             }
 
         @Override
@@ -310,7 +346,7 @@ class HashMap<KeyType, ValueType>
                 {
                 if (exists)
                     {
-                    return hashEntry.value;
+                    return valueAt(slot);
                     }
                 else
                     {
@@ -324,12 +360,13 @@ class HashMap<KeyType, ValueType>
                 verifyNotPersistent();
                 if (exists)
                     {
-                    hashEntry.value = value;
+                    setValueAt(slot, value);
                     }
                 else
                     {
+                    KeyType key = this.key;
                     this.HashMap.put(key, value);
-                    assert hashEntry := this.HashMap.find(key);
+                    slot   = find(key);
                     exists = true;
                     }
                 }
@@ -338,9 +375,10 @@ class HashMap<KeyType, ValueType>
         @Override
         void remove()
             {
-            if (verifyNotPersistent() & exists)
+            if (verifyMutable() & exists)
                 {
-                assert this.HashMap.keys.removeIfPresent(key);
+                removedKey = keyAt(slot);
+                removeAt(slot);
                 exists = false;
                 }
             }
@@ -356,7 +394,7 @@ class HashMap<KeyType, ValueType>
     // ----- EntrySet implementation ---------------------------------------------------------------
 
     /**
-     * A representation of all of the HashEntry objects in the Map.
+     * A representation of all of the entries in the Map.
      */
     class EntrySet
             implements Set<Entry>
@@ -372,11 +410,9 @@ class HashMap<KeyType, ValueType>
             {
             return new Iterator()
                 {
-                HashEntry?[] buckets     = this.HashMap.buckets;
-                Int          nextBucket  = 0;
-                HashEntry?   nextEntry   = null;
-                Int          addSnapshot = this.HashMap.addCount;
-                CursorEntry  entry       = new CursorEntry();
+                Int         slot        = -1;
+                Int         addSnapshot = this.HashMap.addCount;
+                CursorEntry entry       = new CursorEntry();
 
                 @Override
                 conditional Entry next()
@@ -386,20 +422,12 @@ class HashMap<KeyType, ValueType>
                         throw new ConcurrentModification();
                         }
 
-                    Int bucketCount = buckets.size;
-                    while (nextEntry == null && nextBucket < bucketCount)
+                    // removing the current entry does not move any other entry, so the position
+                    // is never lost
+                    slot = nextSlot(slot);
+                    if (slot >= 0)
                         {
-                        nextEntry = buckets[nextBucket++];
-                        }
-
-                    HashEntry? currEntry = nextEntry;
-                    if (currEntry != null)
-                        {
-                        // this is the entry to return;
-                        // always load next one in the chain to avoid losing the position if/when
-                        // the current entry is removed
-                        nextEntry = currEntry.next;
-                        return True, entry.advance(currEntry);
+                        return True, entry.advance(slot);
                         }
 
                     return False;
@@ -412,89 +440,26 @@ class HashMap<KeyType, ValueType>
             {
             verifyMutable();
 
-            if (entry.is(CursorEntry))
-                {
-                HashEntry    hashEntry = entry.hashEntry;
-                HashEntry?[] buckets   = this.HashMap.buckets;
-                Int          keyhash   = hashEntry.keyhash;
-                Int          bucketId  = keyhash % buckets.size;
-                HashEntry?   currEntry = buckets[bucketId];
-                HashEntry?   prevEntry = null;
-
-                loop: while (currEntry != null)
-                    {
-                    // check if we found the entry that we're looking for
-                    if (currEntry.keyhash == keyhash && hasher.areEqual(currEntry.key, hashEntry.key))
-                        {
-                        // verify that it is the same entry (i.e. values also have to match!)
-                        if (&currEntry == &hashEntry || currEntry.value == hashEntry.value)
-                            {
-                            // unlink the entry that is being removed
-                            if (prevEntry != null)
-                                {
-                                prevEntry.next = currEntry.next;
-                                }
-                            else
-                                {
-                                buckets[loop.count] = currEntry.next;
-                                }
-
-                            ++this.HashMap.removeCount;
-                            }
-
-                        // whether or not the entry matched and was removed, it was the one that we
-                        // were looking for (i.e. there will be no other entry with that same key)
-                        return this;
-                        }
-
-                    prevEntry = currEntry;
-                    currEntry = currEntry.next;
-                    }
-                }
-            else
-                {
-                this.HashMap.remove(entry.key, entry.value);
-                }
-
+            this.HashMap.remove(entry.key, entry.value);
             return this;
             }
 
         @Override
         (EntrySet, Int) removeIf(function Boolean (Entry) shouldRemove)
             {
-            Int          removed     = 0;
-            HashEntry?[] buckets     = this.HashMap.buckets;
-            Int          bucketCount = buckets.size;
-            CursorEntry  entry       = new CursorEntry();
-            for (Int i = 0; i < bucketCount; ++i)
+            verifyMutable();
+
+            Int         removed = 0;
+            CursorEntry entry   = new CursorEntry();
+            Int         slot    = nextSlot(-1);
+            while (slot >= 0)
                 {
-                HashEntry? currEntry = buckets[i];
-                HashEntry? prevEntry = null;
-                while (currEntry != null)
+                if (shouldRemove(entry.advance(slot)))
                     {
-                    if (shouldRemove(entry.advance(currEntry)))
-                        {
-                        // move to the next entry (the current one is getting unlinked)
-                        currEntry = currEntry.next;
-
-                        // unlink the entry that is being removed
-                        if (prevEntry != null)
-                            {
-                            prevEntry.next = currEntry;
-                            }
-                        else
-                            {
-                            buckets[i] = currEntry;
-                            }
-                        ++removed;
-                        ++this.HashMap.removeCount;
-                        }
-                    else
-                        {
-                        prevEntry = currEntry;
-                        currEntry = currEntry.next;
-                        }
+                    removeAt(slot);
+                    ++removed;
                     }
+                slot = nextSlot(slot);
                 }
 
             return this, removed;
@@ -548,131 +513,4 @@ class HashMap<KeyType, ValueType>
             }
         return True;
         }
-
-    /**
-     * Check to see if the HashMap needs to grow or shrink based on the current capacity need.
-     */
-    private void checkCapacity()
-        {
-        Int size = this.size;
-        if (size < shrinkAt)
-            {
-            // we've lost a lot of weight; shrink the number of buckets
-            resize(size);
-            }
-        else if (size > growAt)
-            {
-            // we're growing, so make some extra room (assume we need at least double the capacity)
-            resize(size * 2);
-            }
-        }
-
-    /**
-     * Check to see if the HashMap needs to grow or shrink based on a planned capacity need.
-     *
-     * @param plannedSize  the capacity to assume that the map will need
-     */
-    private void checkCapacity(Int plannedSize)
-        {
-        // check if a resize is necessary
-        if (plannedSize < shrinkAt || plannedSize > growAt)
-            {
-            // perform the resize of the hash buckets
-            resize(plannedSize);
-            }
-        }
-
-    /**
-     * Resize the HashMap based on the assumed capacity need.
-     *
-     * @param plannedSize  the capacity to assume that the map will need
-     */
-    private void resize(Int plannedSize)
-        {
-        (Int bucketCount, Int growAt, Int shrinkAt) = calcBucketCount(plannedSize);
-        HashEntry?[] oldBuckets = buckets;
-        HashEntry?[] newBuckets = new HashEntry?[bucketCount];
-
-        for (HashEntry? entry : oldBuckets)
-            {
-            while (entry != null)
-                {
-                // before we change the "next reference", remember which one is next in the old
-                // bucket
-                HashEntry? entryNext = entry.next;
-
-                // move the entry to a new hash bucket
-                Int newBucket = entry.keyhash % bucketCount;
-                entry.next = newBuckets[newBucket];
-                newBuckets[newBucket] = entry;
-
-                entry = entryNext;
-                }
-            }
-
-        this.buckets  = newBuckets;
-        this.growAt   = growAt;
-        this.shrinkAt = shrinkAt;
-        }
-
-    /**
-     * Select a desired number of buckets to use for the specified entry capacity.
-     *
-     * @param capacity  the number of entries to be able to manage efficiently
-     *
-     * @return the suggested number of buckets to achieve the specified capacity, and the
-     *         suggested grow and shrink thresholds
-     */
-    static (Int bucketCount, Int growAt, Int shrinkAt) calcBucketCount(Int capacity)
-        {
-        assert capacity >= 0;
-
-        // shoot for 20% empty buckets (i.e. 25% oversize)
-        Int target = capacity + (capacity >>> 2) + 1;
-
-        // round up to a prime number by performing a binary search for the target size through an
-        // array of prime values
-        Int   first = 0;
-        Int   last  = PRIMES.size - 1;
-        Search: do
-            {
-            Int midpoint = (first + last) >>> 1;
-            switch (capacity <=> midpoint)
-                {
-                case Lesser:
-                    last = midpoint - 1;
-                    break;
-                case Equal:
-                    // exact match; stop searching
-                    first = midpoint;
-                    break Search;
-                case Greater:
-                    first = midpoint + 1;
-                    break;
-                }
-            }
-        while (first <= last);
-
-        Int bucketCount = first < PRIMES.size ? PRIMES[first] : target;
-
-        // shrink when falls below 20% capacity
-        Int shrinkThreshold = first <= 8 ? -1 : ((bucketCount >>> 2) - (bucketCount >>> 5) - (bucketCount >>> 6));
-
-        // grow when around 80% capacity
-        Int growThreshold = bucketCount - (bucketCount >>> 2) + (bucketCount >>> 5) + (bucketCount >>> 6);
-
-        return bucketCount, growThreshold, shrinkThreshold;
-        }
-
-    /**
-     * Primes used for bucket array sizes (to ensure a prime modulo).
-     */
-    protected static Int[] PRIMES =
-        [
-        7, 13, 23, 37, 47, 61, 79, 107, 137, 181, 229, 283, 349, 419, 499, 599, 727, 863, 1013,
-        1187, 1399, 1697, 2039, 2503, 3253, 4027, 5113, 6679, 8999, 11987, 16381, 21023, 28351,
-        39719, 65521, 99991, 149993, 262139, 524269, 1048571, 2097143, 4194301, 8388593, 16777213,
-        33554393, 67108859, 134217689, 268435399, 536870909, 1073741789, 2147483647, 4294967291,
-        8589934583, 17179869143, 34359738337, 68719476731, 137438953447, 274877906899, 549755813881
-        ];
     }
@@ -1,11 +1,21 @@
+/**
+ * HashSet is a hashed implementation of the Set interface. One of two conditions is required:
+ * * If no [Hasher] is provided, then the ElementType must be immutable and must implement Hashable;
+ *   or
+ * * If a [Hasher] is provided, then the ElementType does not have to be immutable and does not have
+ *   to implement Hashable.
+ */
 class HashSet<ElementType>
         implements Set<ElementType>
     {
+    // ----- constructors --------------------------------------------------------------------------
+
     construct()
         {
         assert(ElementType.is(Type<Hashable>));
 
         this.hasher = new NaturalHasher<ElementType>();
+        mutability  = Mutable;
         }
 
     construct(Collection<ElementType> elements)
@@ -20,6 +30,7 @@ class HashSet<ElementType>
     construct(Hasher<ElementType> hasher)
         {
         this.hasher = hasher;
+        mutability  = Mutable;
         }
 
     construct(Hasher<ElementType> hasher, Collection<ElementType> elements)
@@ -31,36 +42,228 @@ class HashSet<ElementType>
         addAll(elements);
         }
 
+    // ----- internal state ------------------------------------------------------------------------
+
+    /**
+     * The Hasher is the thing that knows how to take a value and provide a hash code, or compare
+     * two values for equality -- even if the values don't know how to do that themselves.
+     */
     public/private Hasher<ElementType> hasher;
 
-    private class Entry(ElementType value, Entry? next);
+    /**
+     * The number of elements added.
+     *
+     * Just like the [HashMap], the elements are stored by the runtime in an open-addressing hash
+     * table and are accessed from here by "slot" indexes.
+     */
+    private Int addCount;
+
+    /**
+     * Make sure that the hash table can hold the specified number of elements without growing.
+     */
+    private void ensureCapacity(Int capacity)
+        {
+        TODO
+        }
+
+    /**
+     * Find the next slot that holds an element with the specified hash.
+     *
+     * @param hash  the hash of the element as computed by the [hasher]
+     * @param slot  the slot returned by the previous call, or -1 to start the search
+     *
+     * @return the next matching slot, or -1 if there are no more matching slots
+     */
+    private Int nextMatch(Int hash, Int slot)
+        {
+        TODO
+        }
+
+    /**
+     * Find the next slot that holds an element.
+     *
+     * @param slot  the slot returned by the previous call, or -1 to start the iteration
+     *
+     * @return the next occupied slot, or -1 if there are no more occupied slots
+     */
+    private Int nextSlot(Int slot)
+        {
+        TODO
+        }
+
+    /**
+     * @return the element in the specified occupied slot
+     */
+    private ElementType elementAt(Int slot)
+        {
+        TODO
+        }
+
+    /**
+     * Add an element that is known not to be in the set.
+     */
+    private void insert(Int hash, ElementType value)
+        {
+        TODO
+        }
+
+    /**
+     * Remove the element in the specified occupied slot.
+     */
+    private void removeAt(Int slot)
+        {
+        TODO
+        }
+
+    /**
+     * Find an element in the HashSet using the [hasher]. The runtime handles the elements of the
+     * [NaturalHasher] that it knows how to hash and compare by itself, and falls back on this
+     * method for all other elements.
+     *
+     * @param value  the element to find in the set
+     *
+     * @return the slot holding the element, or -1 if the element is not in the set
+     */
+    protected Int find(ElementType value)
+        {
+        Int hash = hasher.hashOf(value);
+        Int slot = nextMatch(hash, -1);
+        while (slot >= 0)
+            {
+            if (hasher.areEqual(elementAt(slot), value))
+                {
+                return slot;
+                }
+            slot = nextMatch(hash, slot);
+            }
+        return -1;
+        }
+
+    /**
+     * The [contains] implementation for the elements that the runtime does not handle by itself.
+     */
+    private Boolean hashedContains(ElementType value)
+        {
+        return find(value) >= 0;
+        }
+
+    /**
+     * The [add] implementation for the elements that the runtime does not handle by itself.
+     */
+    private HashSet hashedAdd(ElementType value)
+        {
+        if (find(value) < 0)
+            {
+            verifyMutable();
+            insert(hasher.hashOf(value), value);
+            }
+        return this;
+        }
+
+    /**
+     * The [remove] implementation for the elements that the runtime does not handle by itself.
+     */
+    private HashSet hashedRemove(ElementType value)
+        {
+        Int slot = find(value);
+        if (slot >= 0)
+            {
+            removeAt(slot);
+            }
+        return this;
+        }
 
-    private Entry?[] buckets;
+    // ----- Set interface -------------------------------------------------------------------------
 
+    /**
+     * The size of the set is maintained internally.
+     */
     @Override
-    public/private Int size;
+    Int size.get()
+        {
+        TODO
+        }
 
     @Override
     Boolean contains(ElementType value)
         {
-        Int nHash   = hasher.hashOf(value);
-        Int nBucket = nHash % buckets.size;
+        TODO
+        }
 
-        Entry? entry = buckets[nBucket];
-        while (entry != null)
+    @Override
+    Iterator<ElementType> iterator()
+        {
+        return new Iterator()
             {
-            if (hasher.areEqual(value, entry.value))
+            Int slot        = -1;
+            Int addSnapshot = this.HashSet.addCount;
+
+            @Override
+            conditional ElementType next()
                 {
-                return true;
+                if (addSnapshot != this.HashSet.addCount)
+                    {
+                    throw new ConcurrentModification();
+                    }
+
+                slot = nextSlot(slot);
+                if (slot >= 0)
+                    {
+                    return True, elementAt(slot);
+                    }
+
+                return False;
                 }
-            entry = entry.next;
+            };
+        }
+
+    @Override
+    HashSet add(ElementType value)
+        {
+        TODO
+        }
+
+    @Override
+    HashSet addAll(Iterable<ElementType> values)
+        {
+        // check the capacity up front (to avoid multiple resizes)
+        ensureCapacity(size + values.size);
+
+        for (ElementType value : values)
+            {
+            add(value);
             }
+        return this;
+        }
 
-        return false;
+    @Override
+    HashSet remove(ElementType value)
+        {
+        TODO
         }
 
     @Override
-    Iterator<ElementType> iterator()
+    (HashSet, Int) removeIf(function Boolean (ElementType) shouldRemove)
+        {
+        verifyMutable();
+
+        Int removed = 0;
+        Int slot    = nextSlot(-1);
+        while (slot >= 0)
+            {
+            if (shouldRemove(elementAt(slot)))
+                {
+                removeAt(slot);
+                ++removed;
+                }
+            slot = nextSlot(slot);
+            }
+
+        return this, removed;
+        }
+
+    @Override
+    HashSet clear()
         {
         TODO
         }
@@ -74,6 +277,26 @@ class HashSet<ElementType>
     @Override
     HashSet clone()
         {
-        return new HashSet(this);
+        return new HashSet(hasher, this);
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Some operations require that the Set be Mutable; this method throws an exception if the Set
+     * is not Mutable.
+     *
+     * @return True
+     *
+     * @throws ReadOnly if the Set is not Mutable
+     */
+    protected Boolean verifyMutable()
+        {
+        if (mutability != Mutable)
+            {
+            throw new ReadOnly("Set operation requires mutability==Mutable");
+            }
+        return True;
         }
     }
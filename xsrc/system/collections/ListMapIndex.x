@@ -37,6 +37,18 @@ mixin ListMapIndex<KeyType extends Hashable, ValueType>
      */
     protected static Int MINSIZE = 10;
 
+    /**
+     * Primes used for bucket array sizes (to ensure a prime modulo).
+     */
+    protected static Int[] PRIMES =
+        [
+        7, 13, 23, 37, 47, 61, 79, 107, 137, 181, 229, 283, 349, 419, 499, 599, 727, 863, 1013,
+        1187, 1399, 1697, 2039, 2503, 3253, 4027, 5113, 6679, 8999, 11987, 16381, 21023, 28351,
+        39719, 65521, 99991, 149993, 262139, 524269, 1048571, 2097143, 4194301, 8388593, 16777213,
+        33554393, 67108859, 134217689, 268435399, 536870909, 1073741789, 2147483647, 4294967291,
+        8589934583, 17179869143, 34359738337, 68719476731, 137438953447, 274877906899, 549755813881
+        ];
+
     /**
      * The sole information managed by the HashIndex is an array of buckets.
      */
@@ -181,7 +193,7 @@ mixin ListMapIndex<KeyType extends Hashable, ValueType>
      */
     protected void buildIndex()
         {
-        Int bucketCount = HashMap.calcBucketCount(size);
+        Int bucketCount = calcBucketCount(size);
         Bucket[] buckets = new Bucket[bucketCount];
         loop: for (KeyType key : listKeys)
             {
@@ -192,6 +204,46 @@ mixin ListMapIndex<KeyType extends Hashable, ValueType>
         this.buckets = buckets;
         }
 
+    /**
+     * Select a desired number of buckets to use for the specified entry capacity.
+     *
+     * @param capacity  the number of entries to be able to manage efficiently
+     *
+     * @return the suggested number of buckets to achieve the specified capacity
+     */
+    static Int calcBucketCount(Int capacity)
+        {
+        assert capacity >= 0;
+
+        // shoot for 20% empty buckets (i.e. 25% oversize)
+        Int target = capacity + (capacity >>> 2) + 1;
+
+        // round up to a prime number by performing a binary search for the target size through an
+        // array of prime values
+        Int first = 0;
+        Int last  = PRIMES.size - 1;
+        Search: do
+            {
+            Int midpoint = (first + last) >>> 1;
+            switch (target <=> PRIMES[midpoint])
+                {
+                case Lesser:
+                    last = midpoint - 1;
+                    break;
+                case Equal:
+                    // exact match; stop searching
+                    first = midpoint;
+                    break Search;
+                case Greater:
+                    first = midpoint + 1;
+                    break;
+                }
+            }
+        while (first <= last);
+
+        return first < PRIMES.size ? PRIMES[first] : target;
+        }
+
     /**
      * Given a single index (an `Int`) or multiple indexes (an `Int[]`), all of which are
      * assumed to have the same hash value, calculate what that hash value is.
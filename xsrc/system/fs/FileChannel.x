@@ -25,6 +25,35 @@ interface FileChannel
         return size - position;
         }
 
+    /**
+     * Read a sequence of bytes from the file into the specified buffer starting at the specified
+     * offset. Unlike [read], this operation does not affect the channel's position.
+     *
+     * The buffer position is updated according to the number of bytes read.
+     *
+     * @param offset  the offset in the file to start reading at
+     * @param buffer  the buffer to read into
+     *
+     * @return the number of bytes read or false if the offset is at or beyond the end of the file
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    conditional Int readAt(Int offset, Buffer<Byte> buffer);
+
+    /**
+     * Write a sequence of bytes from the specified buffer into the file starting at the specified
+     * offset. Unlike [write], this operation does not affect the channel's position; if the offset
+     * is greater than the file size, the file is grown accordingly.
+     *
+     * @param offset  the offset in the file to start writing at
+     * @param buffer  the buffer to write from
+     *
+     * @return the number of bytes written
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    Int writeAt(Int offset, Buffer<Byte> buffer);
+
     /**
      * Ensure all the changes are written to the underlying storage medium.
      */
@@ -0,0 +1,248 @@
+/**
+ * A ByteBuffer is a Buffer of Bytes whose storage is held by the runtime. Depending on how the
+ * buffer has been constructed, its storage is either a regular in-memory array or a "direct" block
+ * of memory that the runtime can pass to the underlying I/O facilities without an intermediate
+ * copy, which makes direct buffers the preferred choice for the buffers that are repeatedly used by
+ * the channels.
+ *
+ * A buffer could also be constructed for an existing array of bytes; an immutable array is shared
+ * by a (read-only) buffer without copying, and [toArray] shares the buffer's content in the same
+ * way whenever the storage allows.
+ *
+ * Multi-byte values are read and written using the byte order specified by [littleEndian]; the
+ * "array" forms of those operations transfer all the values at once.
+ *
+ * All the methods with a TODO body below are implemented natively.
+ */
+class ByteBuffer
+        implements Buffer<Byte>
+    {
+    /**
+     * Construct a ByteBuffer.
+     *
+     * @param capacity  the buffer capacity
+     * @param direct    (optional) pass True to allocate the storage that the I/O facilities
+     *                  can access directly
+     */
+    construct(Int capacity, Boolean direct = False)
+        {
+        TODO
+        }
+
+    /**
+     * Construct a ByteBuffer holding the specified bytes; the buffer's position is zero and the
+     * limit is the array size. If the array is immutable, the resulting read-only buffer shares its
+     * storage; otherwise the buffer is writable and holds a copy of the bytes.
+     *
+     * @param bytes  the bytes to hold
+     */
+    construct(Byte[] bytes)
+        {
+        TODO
+        }
+
+
+    // ----- ByteBuffer API ------------------------------------------------------------------------
+
+    /**
+     * True if the multi-byte values are stored in the little-endian order; False (the default) for
+     * the big-endian ("network") order.
+     */
+    Boolean littleEndian;
+
+    /**
+     * Obtain the bytes between the position and the limit as an immutable array. The position is
+     * not affected. Unless the buffer is "direct", the array shares the buffer's storage, which the
+     * buffer then copies before the next modification.
+     *
+     * @return an immutable array holding the remaining bytes
+     */
+    immutable Byte[] toArray()
+        {
+        TODO
+        }
+
+    /**
+     * Read the specified number of bytes at the position and increment the position accordingly.
+     *
+     * @throws OutOfBounds if there are not enough bytes remaining
+     */
+    Byte[] getBytes(Int count)
+        {
+        TODO
+        }
+
+    /**
+     * Write the specified bytes at the position and increment the position accordingly.
+     *
+     * @throws OutOfBounds if there is not enough space remaining
+     */
+    void putBytes(Byte[] bytes)
+        {
+        TODO
+        }
+
+    /**
+     * Read an Int16 value at the position and increment the position by two.
+     */
+    Int16 getInt16()
+        {
+        TODO
+        }
+
+    /**
+     * Read an Int32 value at the position and increment the position by four.
+     */
+    Int32 getInt32()
+        {
+        TODO
+        }
+
+    /**
+     * Read an Int64 value at the position and increment the position by eight.
+     */
+    Int64 getInt64()
+        {
+        TODO
+        }
+
+    /**
+     * Write an Int16 value at the position and increment the position by two.
+     */
+    void putInt16(Int16 value)
+        {
+        TODO
+        }
+
+    /**
+     * Write an Int32 value at the position and increment the position by four.
+     */
+    void putInt32(Int32 value)
+        {
+        TODO
+        }
+
+    /**
+     * Write an Int64 value at the position and increment the position by eight.
+     */
+    void putInt64(Int64 value)
+        {
+        TODO
+        }
+
+    /**
+     * Read the specified number of Int16 values starting at the position.
+     */
+    Int16[] getInt16Array(Int count)
+        {
+        TODO
+        }
+
+    /**
+     * Read the specified number of Int32 values starting at the position.
+     */
+    Int32[] getInt32Array(Int count)
+        {
+        TODO
+        }
+
+    /**
+     * Read the specified number of Int64 values starting at the position.
+     */
+    Int64[] getInt64Array(Int count)
+        {
+        TODO
+        }
+
+    /**
+     * Write the specified Int16 values starting at the position.
+     */
+    void putInt16Array(Int16[] values)
+        {
+        TODO
+        }
+
+    /**
+     * Write the specified Int32 values starting at the position.
+     */
+    void putInt32Array(Int32[] values)
+        {
+        TODO
+        }
+
+    /**
+     * Write the specified Int64 values starting at the position.
+     */
+    void putInt64Array(Int64[] values)
+        {
+        TODO
+        }
+
+
+    // ----- Buffer interface ----------------------------------------------------------------------
+
+    @Override
+    @RO Boolean readOnly;
+
+    @Override
+    @RO Int capacity;
+
+    @Override
+    Int limit;
+
+    @Override
+    Int position;
+
+    @Override
+    Int mark;
+
+    @Override
+    Byte get()
+        {
+        TODO
+        }
+
+    @Override
+    @Op("[]")
+    Byte getElement(Int ix)
+        {
+        TODO
+        }
+
+    @Override
+    void put(Byte el)
+        {
+        TODO
+        }
+
+    @Override
+    @Op("[]=")
+    void put(Int ix, Byte el)
+        {
+        TODO
+        }
+
+    @Override
+    void setElement(Int ix, Byte el)
+        {
+        put(ix, el);
+        }
+
+    @Override
+    ByteBuffer clear()
+        {
+        TODO
+        }
+
+    @Override
+    ByteBuffer rewind()
+        {
+        TODO
+        }
+
+    @Override
+    ByteBuffer flip()
+        {
+        TODO
+        }
+    }
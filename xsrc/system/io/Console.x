@@ -16,6 +16,8 @@ interface Console
 
     /**
     * Read a single text line from the console.
+    *
+    * @throws EndOfFile  if the end of the input has been reached
     */
     String readLine();
 
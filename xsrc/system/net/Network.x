@@ -0,0 +1,38 @@
+/**
+ * Network provides the ability to open outbound network connections and to listen for inbound
+ * ones. A Network is obtained by injection:
+ *
+ *     @Inject Network network;
+ *
+ * The channels are owned by the service that has created them: the operations that need to wait
+ * for the network (accepting, connecting, reading and writing) suspend only the calling fiber.
+ */
+interface Network
+    {
+    /**
+     * Create a ServerSocketChannel listening on the specified local address.
+     *
+     * @param host     the name or the address of the local interface to listen on; an empty
+     *                 string to listen on all the interfaces
+     * @param port     the port to listen on; zero to let the system pick an available port
+     * @param backlog  (optional) the maximum number of pending connections; zero to use the
+     *                 system default
+     *
+     * @return a new ServerSocketChannel
+     *
+     * @throws IOException if the channel cannot be bound to the specified address
+     */
+    ServerSocketChannel listen(String host, Int port, Int backlog = 0);
+
+    /**
+     * Open a connection to the specified remote address.
+     *
+     * @param host  the name or the address of the remote host
+     * @param port  the remote port
+     *
+     * @return a new SocketChannel for the established connection
+     *
+     * @throws IOException if the connection cannot be established
+     */
+    SocketChannel connect(String host, Int port);
+    }
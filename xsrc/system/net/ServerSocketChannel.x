@@ -5,11 +5,22 @@ interface ServerSocketChannel
         extends Closeable
     {
     /**
-     * Obtain a SocketChannel for a new inbound network connection.
+     * The local address the channel is bound to in the "host:port" form.
+     */
+    @RO String localAddress;
+
+    /**
+     * The local port the channel is bound to; useful when the port was picked by the system.
+     */
+    @RO Int port;
+
+    /**
+     * Obtain a SocketChannel for a new inbound network connection. The calling fiber waits for a
+     * connection to arrive, but the service does not.
      *
      * @return the newly created SocketChannel
      *
      * @throws IOException if an I/O error occurs
      */
     SocketChannel accept();
-    }
\ No newline at end of file
+    }
@@ -3,9 +3,32 @@ import io.Channel;
 
 /**
  * SocketChannel provides the ability to read and write from a Socket.
+ *
+ * A read completes as soon as the requested minimum number of bytes has arrived; to read whatever
+ * is available without waiting for the buffer to be filled, pass `minBytes = 1`.
  */
 interface SocketChannel
         extends Channel
     {
-    // TODO: modes and attributes...
-    }
\ No newline at end of file
+    /**
+     * The local address of the socket in the "host:port" form.
+     */
+    @RO String localAddress;
+
+    /**
+     * The remote address of the socket in the "host:port" form.
+     */
+    @RO String remoteAddress;
+
+    /**
+     * True iff the small writes are sent immediately rather than coalesced (the TCP_NODELAY
+     * option).
+     */
+    Boolean noDelay;
+
+    /**
+     * Shut down the output side of the connection, without closing the channel; the remote end
+     * will see the end-of-stream after reading everything written so far.
+     */
+    void shutdownOutput();
+    }
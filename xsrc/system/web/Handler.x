@@ -0,0 +1,14 @@
+/**
+ * A Handler processes the requests received by an [HttpServer].
+ */
+interface Handler
+    {
+    /**
+     * Process the specified request.
+     *
+     * @param request  the request
+     *
+     * @return the response to send back to the client
+     */
+    Response handle(Request request);
+    }
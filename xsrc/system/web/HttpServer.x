@@ -0,0 +1,42 @@
+/**
+ * An HttpServer is an embedded HTTP/1.1 server hosted by the runtime. A new server is obtained by
+ * injection and started with a number of request handlers:
+ *
+ *     @Inject HttpServer server;
+ *     server.start("", 8080, [new MyHandler(), new MyHandler(), new MyHandler()]);
+ *
+ * The connections are handled natively: the runtime accepts the connections, parses the requests
+ * (including the pipelined ones), reads the request bodies and keeps the connections alive as the
+ * clients ask. Each request is then dispatched to one of the handlers; when the handlers are
+ * services, the requests are processed by them in parallel, while the responses on any given
+ * connection are still sent back in the order the requests have arrived.
+ *
+ * The server is owned by the service that has started it; the handlers that are not services are
+ * called on that service.
+ */
+interface HttpServer
+        extends Closeable
+    {
+    /**
+     * The local address the server is listening on in the "host:port" form.
+     */
+    @RO String localAddress;
+
+    /**
+     * The local port the server is listening on; useful when the port was picked by the system.
+     */
+    @RO Int port;
+
+    /**
+     * Start accepting the connections on the specified local address.
+     *
+     * @param host      the name or the address of the local interface to listen on; an empty
+     *                  string to listen on all the interfaces
+     * @param port      the port to listen on; zero to let the system pick an available port
+     * @param handlers  the handlers to dispatch the requests to
+     *
+     * @throws IOException if the server cannot be bound to the specified address
+     * @throws IllegalState if the server has already been started
+     */
+    void start(String host, Int port, Handler[] handlers);
+    }
@@ -0,0 +1,73 @@
+import io.ByteBuffer;
+
+/**
+ * An HTTP request received by an [HttpServer].
+ *
+ * The header names are reported in lower case, since HTTP header names are case-insensitive; the
+ * header values are reported as they were received.
+ */
+class Request
+    {
+    construct(String method, String uri, String version,
+              String[] headerNames, String[] headerValues, ByteBuffer body)
+        {
+        this.method       = method;
+        this.uri          = uri;
+        this.version      = version;
+        this.headerNames  = headerNames;
+        this.headerValues = headerValues;
+        this.body         = body;
+        }
+
+    /**
+     * The request method, such as "GET" or "POST".
+     */
+    String method;
+
+    /**
+     * The request target as it appears in the request line, such as "/index.html?lang=en".
+     */
+    String uri;
+
+    /**
+     * The protocol version, such as "HTTP/1.1".
+     */
+    String version;
+
+    /**
+     * The (lower case) names of the request headers in the order they were received.
+     */
+    String[] headerNames;
+
+    /**
+     * The values of the request headers matching the [headerNames].
+     */
+    String[] headerValues;
+
+    /**
+     * The (read-only) request body, positioned at its first byte; empty if the request has no
+     * body.
+     */
+    ByteBuffer body;
+
+    /**
+     * Obtain the value of the specified header. If the header was received more than once, the
+     * first value is reported.
+     *
+     * @param name  the lower case header name
+     *
+     * @return True iff the request has the specified header
+     * @return (conditional) the header value
+     */
+    conditional String getHeader(String name)
+        {
+        for (Int i = 0; i < headerNames.size; i++)
+            {
+            if (headerNames[i] == name)
+                {
+                return True, headerValues[i];
+                }
+            }
+        return False;
+        }
+    }
@@ -0,0 +1,58 @@
+import io.ByteBuffer;
+
+/**
+ * An HTTP response produced by a [Handler].
+ *
+ * The server adds the "Content-Length", "Connection" and "Date" headers itself; all other headers
+ * (e.g. "Content-Type") are up to the handler.
+ */
+class Response
+    {
+    /**
+     * Construct a Response.
+     *
+     * @param status  (optional) the status code
+     * @param body    (optional) the response body
+     */
+    construct(Int status = 200, ByteBuffer? body = Null)
+        {
+        this.status = status;
+        this.body   = body;
+        }
+
+    /**
+     * The status code.
+     */
+    Int status;
+
+    /**
+     * The names of the response headers.
+     */
+    String[] headerNames = new String[];
+
+    /**
+     * The values of the response headers matching the [headerNames].
+     */
+    String[] headerValues = new String[];
+
+    /**
+     * The response body; the bytes between the buffer's position and its limit are sent to the
+     * client. The buffer must not be modified once the response has been returned.
+     */
+    ByteBuffer? body;
+
+    /**
+     * Add the specified header.
+     *
+     * @param name   the header name
+     * @param value  the header value
+     *
+     * @return this Response
+     */
+    Response addHeader(String name, String value)
+        {
+        headerNames  += name;
+        headerValues += value;
+        return this;
+        }
+    }
@@ -12,6 +12,18 @@ class Doc
         {
         }
 
+    /**
+     * Construct a JSON document holding the specified fields; this is how the [Parser] produces the
+     * JSON objects.
+     *
+     * @param names   the field names, in the order of the fields
+     * @param values  the field values, corresponding by index to the names
+     */
+    construct(String[] names, FieldType[] values)
+        {
+        contents = new ListMap(names, values);
+        }
+
 
     // ----- properties ----------------------------------------------------------------------------
 
@@ -0,0 +1,133 @@
+import io.ByteBuffer;
+import io.IOException;
+
+/**
+ * A natively implemented JSON parser for a document held by a String or by a ByteBuffer.
+ *
+ * Unlike the [Lexer], which reads the document char by char via a [Reader], the Parser operates on
+ * the entire document text at once, and can be used in two ways:
+ *
+ * * [parse] produces the entire JSON value, with the JSON objects represented by [Doc] instances,
+ *   the JSON arrays by immutable arrays of [FieldType] values, and the numbers by [IntLiteral] and
+ *   [FPLiteral] values;
+ * * as a "pull" parser, [next] reports the structure of the document one [Event] at a time without
+ *   materializing it, while [parseValue] and [skip] materialize or skip over just the value that
+ *   the last event started.
+ *
+ * A malformed document causes an [IOException] describing the problem and its location.
+ *
+ * All the methods with a TODO body below are implemented natively.
+ */
+class Parser
+    {
+    // ----- constructors --------------------------------------------------------------------------
+
+    /**
+     * Construct a JSON parser for the specified document text.
+     *
+     * @param text  the JSON document text
+     */
+    construct(String text)
+        {
+        TODO
+        }
+
+    /**
+     * Construct a JSON parser for the UTF-8 encoded document held by the specified buffer between
+     * its position and its limit. The buffer itself is not affected.
+     *
+     * @param buffer  the buffer holding the JSON document
+     *
+     * @throws IOException if the buffer content is not a valid UTF-8 text
+     */
+    construct(ByteBuffer buffer)
+        {
+        TODO
+        }
+
+
+    // ----- types ---------------------------------------------------------------------------------
+
+    /**
+     * The structural elements of a JSON document, as reported by [next].
+     */
+    enum Event
+        {
+        ObjectEnter, ObjectExit,
+        ArrayEnter, ArrayExit,
+        Name, Value
+        }
+
+
+    // ----- properties ----------------------------------------------------------------------------
+
+    /**
+     * The value associated with the last event: the field name for the [Name] event, the primitive
+     * value for the [Value] event, and Null for any other event.
+     */
+    @RO Primitive value;
+
+    /**
+     * The number of the JSON objects and arrays that have been entered, but not exited yet.
+     */
+    @RO Int depth;
+
+
+    // ----- parsing -------------------------------------------------------------------------------
+
+    /**
+     * Parse the entire JSON document.
+     *
+     * @return the JSON value the document consists of
+     *
+     * @throws IOException if the document is malformed or anything follows the value
+     */
+    FieldType parse()
+        {
+        // the parser reports a missing value or anything following the value as an IOException
+        assert next();
+        FieldType value = parseValue();
+        assert !next();
+        return value;
+        }
+
+    /**
+     * Advance to the next structural element of the JSON document.
+     *
+     * @return True iff there is a next element, or False if the entire document has been consumed
+     * @return (conditional) the element's event
+     *
+     * @throws IOException if the document is malformed
+     */
+    conditional Event next()
+        {
+        TODO
+        }
+
+    /**
+     * Materialize the value that the last event started: the entire object or array for the
+     * [ObjectEnter] or [ArrayEnter] event (after which the next event is the one following the
+     * matching exit), the field value for the [Name] event, or the [value] for the [Value] event.
+     *
+     * @return the JSON value
+     *
+     * @throws IOException if the document is malformed
+     * @throws IllegalState if the last event did not start a value
+     */
+    FieldType parseValue()
+        {
+        TODO
+        }
+
+    /**
+     * Skip over the value that the last event started, without materializing it; this is the same
+     * as calling [parseValue] and ignoring the result, but much cheaper. The call has no effect if
+     * the last event did not start an object, an array, or a field.
+     *
+     * @throws IOException if the document is malformed
+     */
+    void skip()
+        {
+        TODO
+        }
+    }
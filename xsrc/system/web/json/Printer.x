@@ -0,0 +1,25 @@
+/**
+ * A natively implemented JSON printer, which produces the JSON text for the values of the same
+ * structure as the ones produced by the [Parser]: [Doc] instances for the JSON objects, arrays of
+ * [FieldType] values for the JSON arrays, and the [Primitive] values.
+ *
+ * All the methods with a TODO body below are implemented natively.
+ */
+class Printer
+    {
+    /**
+     * Produce the JSON text for the specified value.
+     *
+     * @param value   the JSON value
+     * @param pretty  (optional) pass True to place each field and array element on its own
+     *                indented line
+     *
+     * @return the JSON text
+     *
+     * @throws IllegalArgument if the value is not a valid JSON value
+     */
+    static String print(FieldType value, Boolean pretty = False)
+        {
+        TODO
+        }
+    }
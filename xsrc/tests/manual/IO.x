@@ -1,6 +1,8 @@
 module TestIO
     {
+    import Ecstasy.Int32;
     import Ecstasy.io.ByteArrayInputStream;
+    import Ecstasy.io.ByteBuffer;
     import Ecstasy.io.CharArrayReader;
     import Ecstasy.io.DataInputStream;
     import Ecstasy.io.InputStream;
@@ -10,7 +12,8 @@ module TestIO
     import Ecstasy.web.json.Lexer;
     import Ecstasy.web.json.Lexer.Token;
 
-    @Inject Console console;
+    @Inject Console      console;
+    @Inject Ecstasy.Timer timer;
 
     void run()
         {
@@ -18,6 +21,7 @@ module TestIO
         testJavaUTF();
         testUTF8Reader();
         testJSONLex();
+        testByteBuffer();
         }
 
     void testInputStream()
@@ -106,4 +110,78 @@ module TestIO
 
         console.println($"(eof) position={reader.position}");
         }
-    }
\ No newline at end of file
+
+    void testByteBuffer()
+        {
+        console.println("\n*** testByteBuffer()");
+
+        ByteBuffer buffer = new ByteBuffer(64);
+        buffer.putInt16(0x0102);
+        buffer.putInt32(0x03040506);
+        buffer.putInt64(-1);
+        buffer.littleEndian = True;
+        buffer.putInt32(0x0A0B0C0D);
+        buffer.littleEndian = False;
+        buffer.flip();
+
+        Byte[] bytes = buffer.toArray();
+        console.println($"bytes={bytes}");
+        console.println($"big={buffer.getInt16()}, {buffer.getInt32()}, {buffer.getInt64()}");
+        buffer.littleEndian = True;
+        console.println($"little={buffer.getInt32()} position={buffer.position}");
+
+        // the array keeps its content when the buffer is modified
+        buffer.put(0, 0xFF);
+        console.println($"shared={bytes[0]} buffer={buffer[0]}");
+
+        // an immutable array is wrapped by a read-only buffer
+        ByteBuffer wrapped = new ByteBuffer(bytes);
+        console.println($"wrapped: readOnly={wrapped.readOnly} limit={wrapped.limit} [1]={wrapped[1]}");
+        try
+            {
+            wrapped.put(0);
+            }
+        catch (ReadOnly e)
+            {
+            console.println("expected ReadOnly");
+            }
+
+        Int count = 100_000;
+        Int32[] values = new Int32[];
+        for (Int i = 0; i < count; i++)
+            {
+            values += i.toInt32();
+            }
+        ByteBuffer bulk = new ByteBuffer(count * 4);
+
+        timer.reset();
+        for (Int32 value : values)
+            {
+            bulk.putInt32(value);
+            }
+        bulk.flip();
+        Int32[] back = new Int32[];
+        for (Int i = 0; i < count; i++)
+            {
+            back += bulk.getInt32();
+            }
+        Duration loop = timer.elapsed;
+        assert back == values;
+
+        bulk.clear();
+        timer.reset();
+        bulk.putInt32Array(values);
+        bulk.flip();
+        back = bulk.getInt32Array(count);
+        Duration batch = timer.elapsed;
+        assert back == values;
+
+        console.println($"int32 round trip: loop={loop.milliseconds} ms, bulk={batch.milliseconds} ms");
+
+        bulk.clear();
+        bulk.putInt16Array([1, -2, 3]);
+        bulk.putInt64Array([Int.maxvalue, -5]);
+        bulk.flip();
+        console.println($"int16={bulk.getInt16Array(3)} int64={bulk.getInt64Array(2)} remaining={bulk.remaining}");
+        }
+    }
@@ -1,6 +1,14 @@
 module TestArray.xqiz.it
     {
+    import Ecstasy.Duration;
+    import Ecstasy.Int16;
+    import Ecstasy.Int32;
+    import Ecstasy.Int128;
+    import Ecstasy.UInt32;
+    import Ecstasy.collections.Comparator;
+
     @Inject Ecstasy.io.Console console;
+    @Inject Ecstasy.Timer      timer;
 
     void run()
         {
@@ -19,6 +27,13 @@ module TestArray.xqiz.it
         testBits();
 
         testComparable();
+        testPrimitives();
+        testSlices();
+        testBulk();
+
+        profile("Int32 sum", &testInt32Sum(), 10);
+        testSortInts();
+        testSortStrings();
         }
 
     void testSimple()
@@ -185,4 +200,190 @@ module TestArray.xqiz.it
         Bit[] bits = [0, 1, 1, 0];
         console.println($"Array<Bit>.hashCode(bits)={Array<Bit>.hashCode(bits)}");
         }
-    }
\ No newline at end of file
+    
+    void testPrimitives()
+        {
+        console.println("\n** testPrimitives()");
+
+        Int32[] ints = new Int32[];
+        ints += 1;
+        ints += -2;
+        ints[2] = Int32.maxvalue;
+        Int32[] more = [4, 5];
+        ints += more;
+        console.println($"ints={ints}, size={ints.size}, ints[2]={ints[2]}");
+        console.println($"ints[1..3]={ints[1..3]}");
+
+        Int32[] copy = new Int32[];
+        copy += ints;
+        console.println($"copy==ints: {copy == ints}");
+        copy[0] = 0;
+        console.println($"copy={copy}, copy==ints: {copy == ints}");
+
+        Int16[] shorts = new Array<Int16>(3, (i) -> -1);
+        console.println($"shorts={shorts}");
+
+        UInt32[] uints = new UInt32[];
+        uints += UInt32.maxvalue;
+        uints += 0;
+        console.println($"uints={uints}");
+
+        Int128[] bigs = new Int128[];
+        bigs += Int128.maxvalue;
+        bigs += Int128.minvalue;
+        bigs += -1;
+        console.println($"bigs={bigs}");
+        console.println($"bigs[1..2]={bigs[1..2]}");
+        }
+
+    void testSlices()
+        {
+        console.println("\n** testSlices()");
+
+        Int[] nums = new Int[];
+        for (Int i : 0..9)
+            {
+            nums += i;
+            }
+
+        Int[] slice = nums[2..5];
+        console.println($"nums={nums}, slice={slice}");
+
+        // the slice and the array are independent from each other
+        slice[0] = 42;
+        nums[3]  = 17;
+        console.println($"nums={nums}, slice={slice}");
+
+        Int[] slice2 = slice[1..2];
+        slice2 += 99;
+        console.println($"slice={slice}, slice2={slice2}");
+
+        Int[] reversed = nums[7..4];
+        console.println($"reversed={reversed}");
+        console.println($"slice==nums[2..5]: {slice == nums[2..5]}, nums[4..5]==reversed[3..2]: {nums[4..5] == reversed[3..2]}");
+
+        Char[] chars = ['a', 'b', 'c', 'd', 'e'];
+        Char[] charSlice = chars[1..3];
+        console.println($"chars={chars}, charSlice={charSlice}, string={new String(charSlice)}");
+
+        Int   n    = 0x0F;
+        Bit[] bits = n.toBitArray()[2..10];
+        Bit[] bitsCopy = new Bit[];
+        bitsCopy += bits;
+        bits[0] = 0;
+        console.println($"bits={bits}, bitsCopy={bitsCopy}");
+
+        Int32[] ints = new Array<Int32>(8, (i) -> i.toInt32());
+        Int32[] intSlice = ints[3..6];
+        intSlice[0] = -1;
+        console.println($"ints={ints}, intSlice={intSlice}, reversed={ints[3..0]}");
+
+        String[] strings = ["a", "b", "c", "d"];
+        String[] strSlice = strings[1..2];
+        console.println($"strings={strings}, strSlice={strSlice}, reversed={strings[2..0]}");
+        }
+
+    void testBulk()
+        {
+        console.println("\n** testBulk()");
+
+        Int[] init = [5, 3, 9, 1, 7, 3];
+        Int[] nums = new Int[];
+        nums.addAll(init);
+        console.println($"sorted={nums.sort()}");
+        (Boolean found, Int index) = nums.binarySearch(7);
+        console.println($"search 7: {found} at {index}");
+        (found, index) = nums.binarySearch(4);
+        console.println($"search 4: {found} at {index}");
+        console.println($"indexOf 3: {nums.indexOf(3)}, indexOf 3 from 2: {nums.indexOf(3, 2)}, contains 9: {nums.contains(9)}, contains 8: {nums.contains(8)}");
+
+        Comparator<Int> descending = new Comparator((n1, n2) -> n2 <=> n1);
+        console.println($"descending={nums.sort(descending)}");
+        (found, index) = nums.binarySearch(7, descending);
+        console.println($"search 7: {found} at {index}");
+        console.println($"reversed={nums.reverse()}, nums={nums}, filled={nums.fill(0, 1..2)}");
+
+        Int[] target = new Array<Int>(8, (i) -> -1);
+        nums.copyInto(target, 1, 2..4);
+        console.println($"target={target}");
+        target.copyInto(target, 2, 0..3);
+        console.println($"target={target}");
+
+        Int[] constant = [3, 1, 2];
+        console.println($"constant={constant}, sorted={constant.sort()}, reversed={constant.reverse()}");
+
+        String[] strings = new String[];
+        strings.addAll(["pear", "fig", "apple", "kiwi", "banana", "date"]);
+        console.println($"strings={strings.sort()}");
+        (found, index) = strings.binarySearch("kiwi");
+        console.println($"search kiwi: {found} at {index}");
+
+        // the sort is stable: the strings of the same size keep their (alphabetical) order
+        Comparator<String> bySize = new Comparator((s1, s2) -> s1.size <=> s2.size);
+        console.println($"by size={strings.sort(bySize)}, indexOf kiwi: {strings.indexOf("kiwi")}");
+
+        Char[] chars = new Char[];
+        chars.addAll(['d', 'a', 'c', 'b']);
+        console.println($"chars={chars.sort()}");
+        (found, index) = chars.binarySearch('c');
+        console.println($"search c: {found} at {index}");
+
+        Byte[] initBytes = [0xFF, 0x01, 0x80, 0x7F];
+        Byte[] bytes     = new Byte[];
+        bytes.addAll(initBytes);
+        console.println($"bytes={bytes.sort()}");
+        (found, index) = bytes.binarySearch(0x80);
+        console.println($"search 0x80: {found} at {index}");
+
+        Int32[] ints = new Array<Int32>(6, (i) -> i.toInt32()).reverse();
+        console.println($"ints={ints.sort()}");
+        (found, index) = ints.binarySearch(3);
+        console.println($"search 3: {found} at {index}");
+        }
+
+    static Int SIZE = 10000;
+
+    void testInt32Sum()
+        {
+        Int32[] values = new Array<Int32>(SIZE, (i) -> 0);
+        for (Int i = 0; i < SIZE; i++)
+            {
+            values[i] = i.toInt32();
+            }
+
+        Int32 sum = 0;
+        for (Int32 value : values)
+            {
+            sum += value;
+            }
+        assert sum == 49995000;
+        }
+
+    void testSortInts()
+        {
+        Int[] values = new Array<Int>(1000000, (i) -> (i * 7919) % 1000003);
+
+        profile("sort 1M Int", () -> {values.sort();}, 1);
+        assert values[0] == 0;
+        }
+
+    void testSortStrings()
+        {
+        String[] parts  = new Array<String>(1000, (i) -> i.toString());
+        String[] values = new Array<String>(100000, (i) -> parts[(i * 7919) % 1000] + parts[i % 100]);
+
+        profile("sort 100K String", () -> {values.sort();}, 1);
+        assert values[0] == "00";
+        }
+
+    void profile(String name, function void () run, Int iterations)
+        {
+        timer.reset();
+        for (Int i = 0; i < iterations; i++)
+            {
+            run();
+            }
+        Duration time = timer.elapsed;
+        console.println($"\n** {name}: elapsed {time.milliseconds} ms, latency {(time / iterations).milliseconds} ms");
+        }
+    }
@@ -0,0 +1,75 @@
+module TestConsole
+    {
+    @Inject Console       console;
+    @Inject Ecstasy.Timer timer;
+
+    void run()
+        {
+        testChatty();
+        testServices();
+        testReadLine();
+        }
+
+    void testChatty()
+        {
+        console.println("\n*** testChatty()");
+
+        Int count = 20000;
+        timer.reset();
+        for (Int i : 1..count)
+            {
+            console.print("line ");
+            console.println(i);
+            }
+        console.println($"printed {count} lines in {timer.elapsed.milliseconds}ms");
+        }
+
+    void testServices()
+        {
+        console.println("\n*** testServices()");
+
+        Chatter[] chatters = new Array<Chatter>(4, i -> new Chatter(i));
+
+        timer.reset();
+        Int total = 0;
+        for (Chatter chatter : chatters)
+            {
+            total += chatter.chat(2500);
+            }
+        console.println($"{total} lines printed by {chatters.size} services in {timer.elapsed.milliseconds}ms");
+        }
+
+    void testReadLine()
+        {
+        console.println("\n*** testReadLine()");
+
+        try
+            {
+            console.print("name> ");
+            String name = console.readLine();
+            console.println($"hello, '{name}'");
+
+            console.print("again> ");
+            String next = console.readLine();
+            console.println($"read '{next}'");
+            }
+        catch (Ecstasy.io.EndOfFile e)
+            {
+            console.println("<end of input>");
+            }
+        }
+
+    service Chatter(Int id)
+        {
+        Int chat(Int count)
+            {
+            @Inject Console console;
+
+            for (Int i : 1..count)
+                {
+                console.println($"chatter {id}: {i}");
+                }
+            return count;
+            }
+        }
+    }
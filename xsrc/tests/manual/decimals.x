@@ -0,0 +1,109 @@
+module TestDecimals.xqiz.it
+    {
+    import X.Duration;
+    import X.Dec32;
+    import X.Dec64;
+    import X.Dec128;
+
+    @Inject X.io.Console console;
+    @Inject X.Timer      timer;
+
+    void run()
+        {
+        testDec64();
+        testDec32();
+        testDec128();
+        testOverflow();
+
+        profile("money sum", &testMoneySum(), 10);
+        }
+
+    void testDec64()
+        {
+        console.println("\n** testDec64()");
+
+        Dec64 a = 1.5;
+        Dec64 b = 0.25;
+        console.println($"a={a}, b={b}");
+        console.println($"a+b={a + b}, a-b={a - b}, a*b={a * b}, a/b={a / b}, a%b={a % b}");
+        console.println($"-a={-a}, abs(-a)={(-a).abs()}");
+        console.println($"floor(a)={a.floor()}, ceil(a)={a.ceil()}, round(a)={a.round()}");
+
+        assert a > b && b < a && a != b;
+        assert a + b == 1.75;
+
+        Dec64 c = 1.0;
+        Dec64 d = 3.0;
+        console.println($"c/d={c / d}");
+
+        Dec64 e = 1.10;
+        Dec64 f = 1.1;
+        assert e == f;
+        }
+
+    void testDec32()
+        {
+        console.println("\n** testDec32()");
+
+        Dec32 a = 0.1;
+        Dec32 b = 0.2;
+        console.println($"a={a}, b={b}, a+b={a + b}");
+        assert a + b == 0.3;
+        }
+
+    void testDec128()
+        {
+        console.println("\n** testDec128()");
+
+        Dec128 a = 12345678901234567890.5;
+        Dec128 b = 0.5;
+        console.println($"a={a}, b={b}, a+b={a + b}, a*b={a * b}");
+        }
+
+    void testOverflow()
+        {
+        console.println("\n** testOverflow()");
+
+        Dec32 big = 999999.9;
+        Dec32 neg = -big;
+        for (Int i = 0; i < 5; i++)
+            {
+            big *= big;
+            neg *= -neg;
+            }
+        console.println($"big={big}, neg={neg}, big+neg={big + neg}");
+        assert big.toString() == "+Infinity" && neg.toString() == "-Infinity";
+
+        Dec32 tiny = 0.0000001;
+        for (Int i = 0; i < 5; i++)
+            {
+            tiny *= tiny;
+            }
+        console.println($"tiny={tiny}, -tiny={-tiny}");
+        assert tiny == 0.0;
+        }
+
+    static Int SIZE = 10000;
+
+    void testMoneySum()
+        {
+        Dec64 price = 19.99;
+        Dec64 sum   = 0.0;
+        for (Int i = 0; i < SIZE; i++)
+            {
+            sum += price;
+            }
+        assert sum == 199900.0;
+        }
+
+    void profile(String name, function void () run, Int iterations)
+        {
+        timer.reset();
+        for (Int i = 0; i < iterations; i++)
+            {
+            run();
+            }
+        Duration time = timer.elapsed;
+        console.println($"\n** {name}: elapsed {time.milliseconds} ms, latency {(time / iterations).milliseconds} ms");
+        }
+    }
@@ -2,9 +2,11 @@ module TestFiles.xqiz.it
     {
     import X.fs.Directory;
     import X.fs.File;
+    import X.fs.FileChannel;
     import X.fs.FileWatcher;
     import X.fs.Path;
     import X.fs.FileStore;
+    import X.io.ByteBuffer;
 
     @Inject Console console;
 
@@ -12,7 +14,11 @@ module TestFiles.xqiz.it
         {
         testPaths();
         testInject();
+        testChannel();
+        testListing();
+        testWalk();
         testModify();
+        testWatchBurst();
         }
 
     void testPaths()
@@ -81,6 +87,262 @@ module TestFiles.xqiz.it
             }
         }
 
+    void testChannel()
+        {
+        console.println("\n** testChannel()");
+
+        @Inject Directory tmpDir;
+        File file = tmpDir.fileFor("channel.dat");
+        if (file.exists)
+            {
+            file.delete();
+            }
+
+        FileChannel channel = file.open(Read, [Ensure]);
+        console.println($"readable={channel.readable} writable={channel.writable} size={channel.size}");
+
+        ByteBuffer[] buffers = new Array<ByteBuffer>(3, i -> new ByteBuffer(4, i == 1));
+        for (ByteBuffer buffer : buffers)
+            {
+            while (buffer.remaining > 0)
+                {
+                buffer.put(buffer.position.toByte());
+                }
+            buffer.flip();
+            }
+
+        (Int written, Int next) = channel.write(buffers);
+        console.println($"gather: written={written} next={next} position={channel.position}");
+
+        ByteBuffer bufferAt = new ByteBuffer(2);
+        bufferAt.put(0, 0x7F);
+        bufferAt.put(1, 0x7F);
+        console.println($"writeAt: {channel.writeAt(20, bufferAt)} size={channel.size}");
+
+        channel.position = 0;
+        ByteBuffer[] targets = new Array<ByteBuffer>(2, i -> new ByteBuffer(8));
+        (Boolean success, Int read, Int index) = channel.read(targets);
+        console.println($"scatter: read={read} index={index} [{targets[1][3]}]");
+
+        ByteBuffer tail = new ByteBuffer(16);
+        if (read := channel.readAt(16, tail))
+            {
+            tail.flip();
+            console.println($"readAt: read={read} [{tail[4]}, {tail[5]}] position={channel.position}");
+            }
+        assert !channel.readAt(100, tail);
+
+        // large transfers are performed off the service thread
+        ByteBuffer big = new ByteBuffer(1024 * 1024, True);
+        channel.size = 0;
+        channel.position = 0;
+        for (Int i : 0..4)
+            {
+            big.clear();
+            big.put(big.capacity - 1, i.toByte());
+            channel.write(big);
+            }
+        channel.flush();
+        console.println($"async: size={channel.size} position={channel.position}");
+        channel.close();
+
+        // read-only channels for large files are memory-mapped
+        channel = file.open(Read, [NoWrite]);
+        big.clear();
+        Int total = 0;
+        while (read := channel.read(big))
+            {
+            total += read;
+            big.clear();
+            }
+        console.println($"mapped: total={total} last={big[big.capacity - 1]} position={channel.position}");
+        channel.close();
+
+        file.delete();
+        }
+
+    void testListing()
+        {
+        console.println("\n** testListing()");
+
+        @Inject Directory tmpDir;
+        @Inject Timer     timer;
+
+        Directory dir = tmpDir.dirFor("listing-test");
+        dir.ensure();
+
+        Int count = 200;
+        for (Int i = 0; i < count; i++)
+            {
+            dir.fileFor($"f{i}.dat").create();
+            }
+
+        // one lookup per name; each node reads its attributes once
+        timer.reset();
+        Int found = 0;
+        for (String name : dir.names())
+            {
+            assert File|Directory node := dir.find(name);
+            if (node.size == 0 && node.modified == node.modified)
+                {
+                ++found;
+                }
+            }
+        Duration byName = timer.elapsed;
+
+        // a single pass over the directory; the nodes come with the attributes
+        timer.reset();
+        Int listed = 0;
+        for (File file : dir.files())
+            {
+            if (file.size == 0 && file.modified == file.modified)
+                {
+                ++listed;
+                }
+            }
+        Duration byListing = timer.elapsed;
+
+        console.println($"found={found} listed={listed}");
+        console.println($"by name: {byName.milliseconds} ms; by listing: {byListing.milliseconds} ms");
+
+        for (Int i = 0; i < count; i++)
+            {
+            File file = dir.fileFor($"f{i}.dat");
+            assert file.exists;
+            file.delete();
+            assert !file.exists;
+            }
+        dir.delete();
+        assert !dir.exists;
+        }
+
+    void testWalk()
+        {
+        console.println("\n** testWalk()");
+
+        @Inject Directory tmpDir;
+        Directory root = tmpDir.dirFor("walk-test");
+        root.ensure();
+
+        Directory a = root.dirFor("a");
+        a.ensure();
+        Directory b = a.dirFor("b");
+        b.ensure();
+        File[] files = [root.fileFor("c.x"), a.fileFor("x.txt"), b.fileFor("y.x"), b.fileFor("z.x")];
+        for (File file : files)
+            {
+            file.create();
+            }
+
+        console.println($"names: {collect(root.names())}");
+
+        // abandon the iteration early and release the directory stream
+        Iterator<String> names = root.names();
+        assert names.next();
+        names.as(Closeable).close();
+        console.println($"after close: {names.next()}");
+
+        String[] paths = new String[];
+        Iterator<File> iter = root.filesRecursively();
+        while (File file := iter.next())
+            {
+            paths += file.name;
+            }
+        console.println($"filesRecursively: {paths.sort()}");
+
+        for (File file : files)
+            {
+            file.delete();
+            }
+        b.delete();
+        a.delete();
+        root.delete();
+        console.println($"exists: {root.exists}");
+        }
+
+    void testWatchBurst()
+        {
+        console.println("\n** testWatchBurst()");
+
+        @Inject Directory tmpDir;
+        Directory dir = tmpDir.dirFor("burst-test");
+        dir.ensure();
+
+        @Inject Timer timer;
+
+        // the events for the files that are created and deleted within the same watch window
+        // cancel each other out, so only the remaining files should be reported
+        Int[] counts = new Int[];
+        for (Int i = 0; i < 3; i++)
+            {
+            counts += 0;
+            }
+
+        FileWatcher watcher = new FileWatcher()
+            {
+            @Override
+            Boolean onEvent(Event event, File file)
+                {
+                switch (event)
+                    {
+                    case Created:
+                        counts[0]++;
+                        break;
+                    case Modified:
+                        counts[1]++;
+                        break;
+                    case Deleted:
+                        counts[2]++;
+                        break;
+                    }
+                return False;
+                }
+            };
+
+        function void () cancel = dir.watch(watcher);
+
+        Int count = 200;
+        File[] files = new File[];
+        for (Int i = 0; i < count; i++)
+            {
+            File file = dir.fileFor($"f{i}.dat");
+            file.create();
+            files += file;
+            if (i % 2 == 0)
+                {
+                file.delete();
+                }
+            }
+
+        timer.schedule(Duration.ofSeconds(1), () ->
+            {
+            // the burst creates "count" files and deletes half of them; a single window would
+            // report just the remaining half as created, while each file that is created in one
+            // window and deleted in the next one adds a "created" and a "deleted" event
+            Int events = counts[0] + counts[1] + counts[2];
+            console.println($|burst: {events} events for {count / 2} remaining files
+                          + $| (created={counts[0]} modified={counts[1]} deleted={counts[2]})
+                             );
+            cancel();
+
+            for (Int i = 1; i < count; i += 2)
+                {
+                files[i].delete();
+                }
+            dir.delete();
+            });
+        }
+
+    static String[] collect(Iterator<String> iter)
+        {
+        String[] names = new String[];
+        while (String name := iter.next())
+            {
+            names += name;
+            }
+        return names.sort();
+        }
+
     void testModify()
         {
         console.println("\n** testModify()");
@@ -0,0 +1,167 @@
+module TestFloats.xqiz.it
+    {
+    import X.Duration;
+    import X.Float32;
+    import X.Float64;
+
+    @Inject X.io.Console console;
+    @Inject X.Timer      timer;
+
+    void run()
+        {
+        testFloat64();
+        testFloat32();
+        testRounding();
+        testConversions();
+        testArray();
+
+        profile("dot product", &testDotProduct(), 10);
+        profile("moving average", &testMovingAverage(), 10);
+        }
+
+    void testFloat64()
+        {
+        console.println("\n** testFloat64()");
+
+        Float64 a = 1.5;
+        Float64 b = 0.25;
+        console.println($"a={a}, b={b}");
+        console.println($"a+b={a + b}, a-b={a - b}, a*b={a * b}, a/b={a / b}, a%b={a % b}");
+        console.println($"-a={-a}, abs(-a)={(-a).abs()}, sqrt(a)={a.sqrt()}, a^b={a.pow(b)}");
+        console.println($"floor(a)={a.floor()}, ceil(a)={a.ceil()}, round(a)={a.round()}");
+
+        assert a > b && b < a && a != b;
+        assert a + b == 1.75;
+        }
+
+    void testFloat32()
+        {
+        console.println("\n** testFloat32()");
+
+        Float32 a = 0.1;
+        Float32 b = 0.2;
+        console.println($"a={a}, b={b}, a+b={a + b}");
+        }
+
+    void testRounding()
+        {
+        console.println("\n** testRounding()");
+
+        Float64 justBelowHalf = 0.49999999999999994;
+        Float64 bigOdd        = 4503599627370497.0; // 2^52 + 1
+        console.println($"round({justBelowHalf})={justBelowHalf.round()}, round({bigOdd})={bigOdd.round()}");
+        assert justBelowHalf.round() == 0.0;
+        assert bigOdd.round() == bigOdd;
+        assert (-bigOdd).round() == -bigOdd;
+
+        Float64 half = 2.5;
+        assert half.round() == 3.0 && (-half).round() == -3.0;
+
+        Float64 a = -7.5;
+        Float64 b = 2.0;
+        (Float64 quotient, Float64 modulo) = a /% b;
+        console.println($"a={a}, b={b}, a/%b=({quotient}, {modulo})");
+        assert quotient == -4.0 && modulo == 0.5;
+        assert quotient * b + modulo == a;
+
+        // Float equality compares the bits (see xBaseFP.callEquals)
+        Float64 zero = 0.0;
+        Float64 nan1 = zero / zero;
+        Float64 nan2 = zero / zero;
+        assert nan1 == nan2;
+        assert zero != -zero;
+        }
+
+    void testConversions()
+        {
+        console.println("\n** testConversions()");
+
+        Float64 f = 12.75;
+        console.println($"f={f}, f.toInt()={f.toInt()}, f.toByte()={f.toByte()}");
+        console.println($"f.toFloat32()={f.toFloat32()}");
+
+        Int n = 42;
+        console.println($"n={n}, n.toFloat64()={n.toFloat64()}");
+
+        try
+            {
+            Float64 big = 1e300;
+            console.println($"big.toInt()={big.toInt()}");
+            assert;
+            }
+        catch (Exception e)
+            {
+            console.println($"big.toInt() failed as expected");
+            }
+        }
+
+    void testArray()
+        {
+        console.println("\n** testArray()");
+
+        Float64[] values = new Float64[];
+        values += 1.0;
+        values += 2.5;
+        values += 4.0;
+        console.println($"values={values}, size={values.size}, values[1]={values[1]}");
+        }
+
+    static Int SIZE = 10000;
+
+    void testDotProduct()
+        {
+        Float64[] v1 = new Float64[];
+        Float64[] v2 = new Float64[];
+        Float64   x  = 0.0;
+        for (Int i = 0; i < SIZE; i++)
+            {
+            v1[i] = x;
+            v2[i] = 1.0 - x;
+            x += 0.0001;
+            }
+
+        Float64 sum = 0.0;
+        for (Int i = 0; i < SIZE; i++)
+            {
+            sum += v1[i] * v2[i];
+            }
+        assert sum > 0.0;
+        }
+
+    void testMovingAverage()
+        {
+        Float64[] values = new Float64[];
+        Float64   x      = 0.0;
+        for (Int i = 0; i < SIZE; i++)
+            {
+            values[i] = x.sin();
+            x += 0.01;
+            }
+
+        Int       window  = 20;
+        Float64   scale   = 1.0 / window.toFloat64();
+        Float64[] average = new Float64[];
+        Float64   sum     = 0.0;
+        for (Int i = 0; i < SIZE; i++)
+            {
+            sum += values[i];
+            if (i >= window)
+                {
+                sum -= values[i - window];
+                }
+            average[i] = sum * scale;
+            }
+        assert average.size == SIZE;
+        }
+
+    void profile(String name, function void () run, Int iterations)
+        {
+        timer.reset();
+        for (Int i = 0; i < iterations; i++)
+            {
+            run();
+            }
+        Duration time = timer.elapsed;
+        console.println($"\n** {name}: elapsed {time.milliseconds} ms, latency {(time / iterations).milliseconds} ms");
+        }
+    }
@@ -0,0 +1,362 @@
+module TestHttp
+    {
+    import Ecstasy.io.ByteBuffer;
+    import Ecstasy.net.Network;
+    import Ecstasy.net.SocketChannel;
+    import Ecstasy.web.Handler;
+    import Ecstasy.web.HttpServer;
+    import Ecstasy.web.Request;
+    import Ecstasy.web.Response;
+
+    @Inject Console       console;
+    @Inject Ecstasy.Timer timer;
+
+    void run()
+        {
+        @Inject HttpServer server;
+        server.start("127.0.0.1", 0, [new DemoHandler(), new DemoHandler(), new DemoHandler(), new DemoHandler()]);
+
+        testRequests(server.port);
+        testPipelining(server.port);
+        testClose(server.port);
+        testLoad(server.port);
+
+        server.close();
+        }
+
+    void testRequests(Int port)
+        {
+        console.println("\n*** testRequests()");
+
+        HttpClient client = new HttpClient(port);
+
+        client.send("GET /hello HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        (Int status, String body) = client.receive();
+        console.println($"GET /hello: {status} {body}");
+
+        client.send("POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/plain\r\nContent-Length: 11\r\n\r\nhello there");
+        (status, body) = client.receive();
+        console.println($"POST /echo: {status} {body}");
+
+        client.send("GET /missing HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        (status, body) = client.receive();
+        console.println($"GET /missing: {status} size={body.size}");
+
+        client.send("GET /hello HTTP/2.0\r\n\r\n");
+        (status, body) = client.receive();
+        console.println($"bad version: {status}");
+        console.println($"closed: {client.isClosed()}");
+        }
+
+    void testPipelining(Int port)
+        {
+        console.println("\n*** testPipelining()");
+
+        HttpClient client = new HttpClient(port);
+
+        // the slow request is sent first, yet its response must come back first
+        client.send("GET /slow HTTP/1.1\r\n\r\n" +
+                    "POST /echo HTTP/1.1\r\nContent-Length: 3\r\n\r\none" +
+                    "POST /echo HTTP/1.1\r\nContent-Length: 3\r\n\r\ntwo");
+        for (Int i = 0; i < 3; i++)
+            {
+            (Int status, String body) = client.receive();
+            console.println($"response {i}: {status} {body}");
+            }
+        client.close();
+        }
+
+    void testClose(Int port)
+        {
+        console.println("\n*** testClose()");
+
+        HttpClient client = new HttpClient(port);
+
+        client.send("GET /hello HTTP/1.0\r\n\r\n");
+        (Int status, String body) = client.receive();
+        console.println($"HTTP/1.0: {status} {body} closed={client.isClosed()}");
+
+        client = new HttpClient(port);
+        client.send("GET /hello HTTP/1.0\r\nConnection: keep-alive\r\n\r\n");
+        (status, body) = client.receive();
+        console.println($"HTTP/1.0 keep-alive: {status} {body}");
+
+        // the connection must still be usable
+        client.send("GET /hello HTTP/1.1\r\nConnection: close\r\n\r\n");
+        (status, body) = client.receive();
+        console.println($"HTTP/1.1 close: {status} {body} closed={client.isClosed()}");
+        client.close();
+        }
+
+    void testLoad(Int port)
+        {
+        console.println("\n*** testLoad()");
+
+        Int clients  = 8;
+        Int requests = 2000;
+
+        LoadRunner runner = new LoadRunner(port, clients);
+
+        timer.reset();
+        Int[]    latencies = runner.run(requests);
+        Duration time      = timer.elapsed;
+
+        Int total = latencies.size;
+        console.println($"requests: {total} over {clients} connections");
+        console.println($"{total * 1000 / time.milliseconds.maxOf(1)} requests/sec");
+        console.println($"latency (us): p50={latencies[total / 2]} p90={latencies[total * 9 / 10]} p99={latencies[total * 99 / 100]} max={latencies[total - 1]}");
+
+        runner.close();
+        }
+
+    /**
+     * The request handler.
+     */
+    service DemoHandler
+            implements Handler
+        {
+        @Override
+        Response handle(Request request)
+            {
+            switch (request.uri)
+                {
+                case "/hello":
+                    return new Response(200, new ByteBuffer(toBytes("Hello, World!")))
+                            .addHeader("Content-Type", "text/plain");
+
+                case "/slow":
+                    {
+                    @Inject Ecstasy.Timer timer;
+                    timer.reset();
+                    while (timer.elapsed.milliseconds < 50)
+                        {
+                        }
+                    return new Response(200, new ByteBuffer(toBytes("slow")));
+                    }
+
+                case "/echo":
+                    {
+                    Response response = new Response(200, new ByteBuffer(request.body.toArray()));
+                    if (String type := request.getHeader("content-type"))
+                        {
+                        response.addHeader("Content-Type", type);
+                        }
+                    return response;
+                    }
+
+                default:
+                    return new Response(404);
+                }
+            }
+        }
+
+    /**
+     * Runs a number of clients concurrently.
+     */
+    service LoadRunner
+        {
+        construct(Int port, Int count)
+            {
+            LoadClient[] clients = new LoadClient[];
+            for (Int i = 0; i < count; i++)
+                {
+                clients += new LoadClient(port);
+                }
+            this.clients = clients;
+            }
+
+        LoadClient[] clients;
+
+        /**
+         * @return the sorted latencies of all the requests
+         */
+        Int[] run(Int requests)
+            {
+            Int           expected  = clients.size * requests;
+            Int[]         latencies = new Int[];
+            @Future Int[] result;
+            for (LoadClient client : clients)
+                {
+                @Future Int[] each = client.run(requests);
+                &each.whenComplete((values, e) ->
+                    {
+                    assert values != Null;
+                    latencies.addAll(values);
+                    if (latencies.size == expected)
+                        {
+                        result = latencies.sort().ensureConst(True);
+                        }
+                    });
+                }
+            return result;
+            }
+
+        void close()
+            {
+            for (LoadClient client : clients)
+                {
+                client.close();
+                }
+            }
+        }
+
+    /**
+     * A client running on its own service.
+     */
+    service LoadClient
+        {
+        construct(Int port)
+            {
+            client = new HttpClient(port);
+            }
+
+        HttpClient client;
+
+        /**
+         * @return the latencies of the requests
+         */
+        Int[] run(Int count)
+            {
+            @Inject Ecstasy.Timer timer;
+
+            Int[] latencies = new Int[];
+            for (Int i = 0; i < count; i++)
+                {
+                timer.reset();
+                client.send("GET /hello HTTP/1.1\r\nHost: localhost\r\n\r\n");
+                (Int status, String body) = client.receive();
+                assert status == 200;
+                latencies += timer.elapsed.microseconds;
+                }
+            return latencies.ensureConst(True);
+            }
+
+        void close()
+            {
+            client.close();
+            }
+        }
+
+    /**
+     * A minimal HTTP client that reads the responses with a Content-Length.
+     */
+    class HttpClient
+        {
+        construct(Int port)
+            {
+            @Inject Network network;
+            channel = network.connect("127.0.0.1", port);
+            }
+
+        SocketChannel channel;
+        ByteBuffer    out = new ByteBuffer(4096, True);
+        ByteBuffer    in  = new ByteBuffer(64 * 1024, True);
+
+        void send(String request)
+            {
+            out.clear();
+            out.putBytes(toBytes(request));
+            out.flip();
+            channel.write(out);
+            }
+
+        (Int, String) receive()
+            {
+            Int headEnd = 0;
+            while (True)
+                {
+                if (Int end := findHeadEnd())
+                    {
+                    headEnd = end;
+                    break;
+                    }
+                assert channel.read(in, 1);
+                }
+
+            String head   = fromBytes(0, headEnd);
+            Int    status = parseInt(head, 9);
+            Int    length = 0;
+            for (String line : head.split('\n'))
+                {
+                if (line.size > 16 && line[0..14] == "Content-Length:")
+                    {
+                    length = parseInt(line, 16);
+                    }
+                }
+
+            Int total = headEnd + length;
+            while (in.position < total)
+                {
+                assert channel.read(in, 1);
+                }
+            String body = fromBytes(headEnd, total);
+
+            // keep whatever follows the response
+            Int extra = in.position - total;
+            for (Int i = 0; i < extra; i++)
+                {
+                in[i] = in[total + i];
+                }
+            in.position = extra;
+
+            return status, body;
+            }
+
+        Boolean isClosed()
+            {
+            return !channel.read(in, 1);
+            }
+
+        void close()
+            {
+            channel.close();
+            }
+
+        private conditional Int findHeadEnd()
+            {
+            for (Int i = 3; i < in.position; i++)
+                {
+                if (in[i] == 10 && in[i - 1] == 13 && in[i - 2] == 10 && in[i - 3] == 13)
+                    {
+                    return True, i + 1;
+                    }
+                }
+            return False;
+            }
+
+        private String fromBytes(Int from, Int to)
+            {
+            Char[] chars = new Char[];
+            for (Int i = from; i < to; i++)
+                {
+                chars += in[i].toChar();
+                }
+            return new String(chars);
+            }
+
+        private static Int parseInt(String text, Int start)
+            {
+            Int n = 0;
+            for (Int i = start; i < text.size; i++)
+                {
+                Char ch = text[i];
+                if (ch < '0' || ch > '9')
+                    {
+                    break;
+                    }
+                n = n * 10 + (ch.toInt() - '0'.toInt());
+                }
+            return n;
+            }
+        }
+
+    static immutable Byte[] toBytes(String text)
+        {
+        Byte[] bytes = new Byte[];
+        for (Int i = 0; i < text.size; i++)
+            {
+            bytes += text[i].toByte();
+            }
+        return bytes.ensureConst(True);
+        }
+    }
@@ -0,0 +1,195 @@
+module TestJson
+    {
+    import Ecstasy.io.ByteArrayInputStream;
+    import Ecstasy.io.ByteBuffer;
+    import Ecstasy.io.CharArrayReader;
+    import Ecstasy.io.IOException;
+    import Ecstasy.io.UTF8Reader;
+    import Ecstasy.web.json;
+    import Ecstasy.web.json.Doc;
+    import Ecstasy.web.json.Lexer;
+    import Ecstasy.web.json.Lexer.Token;
+    import Ecstasy.web.json.Parser;
+    import Ecstasy.web.json.Parser.Event;
+    import Ecstasy.web.json.Printer;
+
+    @Inject Console       console;
+    @Inject Ecstasy.Timer timer;
+
+    void run()
+        {
+        testParse();
+        testPull();
+        testErrors();
+        testCorpus("catalog.json", #./json_data/catalog.json);
+        testCorpus("geo.json",     #./json_data/geo.json);
+        }
+
+    void testParse()
+        {
+        console.println("\n*** testParse()");
+
+        String text = `|{
+                       |   "name" : "Bob",
+                       |   "age" : 23,
+                       |   "married" : true,
+                       |   "parent" : false,
+                       |   "reason" : null,
+                       |   "fav_nums" : [ 17, 42, -1.5e3 ],
+                       |   "probability" : 0.10,
+                       |   "quote" : "\"hi\"\t\u00e9\ud83d\ude00",
+                       |   "dog" :
+                       |      {
+                       |      "name" : "Spot",
+                       |      "age" : 7
+                       |      }
+                       |}
+                       ;
+
+        json.FieldType value = new Parser(text).parse();
+        assert value.is(Doc);
+        assert value.requireBoolean("married");
+        assert !value.requireBoolean("parent");
+
+        console.println(Printer.print(value));
+        console.println(Printer.print(value, True));
+
+        // the printed text parses into an identical document
+        String printed = Printer.print(value);
+        assert Printer.print(new Parser(printed).parse()) == printed;
+
+        console.println(Printer.print(new Parser("[]").parse()));
+        console.println(Printer.print(new Parser(" [ {}, [[ ]], \"\" ] ").parse()));
+        console.println(Printer.print(new Parser("12345678901234567890123").parse()));
+        }
+
+    void testPull()
+        {
+        console.println("\n*** testPull()");
+
+        Parser parser = new Parser(new ByteBuffer(#./json_data/catalog.json));
+
+        // find the names of the items that are available, skipping everything else
+        assert nextEvent(parser) == ObjectEnter;
+        Int count = 0;
+        while (Event event := parser.next(), event == Name)
+            {
+            if (parser.value == "items")
+                {
+                assert nextEvent(parser) == ArrayEnter;
+                while (Event item := parser.next(), item == ObjectEnter)
+                    {
+                    String  name      = "";
+                    Boolean available = False;
+                    while (Event field := parser.next(), field == Name)
+                        {
+                        switch (parser.value)
+                            {
+                            case "name":
+                                assert nextEvent(parser) == Value;
+                                name = parser.value.as(String);
+                                break;
+
+                            case "available":
+                                json.FieldType flag = parser.parseValue();
+                                available = flag.as(Boolean);
+                                break;
+
+                            default:
+                                parser.skip();
+                                break;
+                            }
+                        }
+                    if (available && ++count <= 3)
+                        {
+                        console.println($"available: {name}");
+                        }
+                    }
+                assert parser.depth == 1;
+                }
+            else
+                {
+                console.println($"{parser.value}={parser.parseValue()}");
+                }
+            }
+        assert parser.depth == 0;
+        assert !parser.next();
+        console.println($"available items: {count}");
+        }
+
+    static Event nextEvent(Parser parser)
+        {
+        assert Event event := parser.next();
+        return event;
+        }
+
+    void testErrors()
+        {
+        console.println("\n*** testErrors()");
+
+        for (String text : ["", "{", "[1,]", "{\"a\" 1}", "01", "[1.]", "\"abc", "nul",
+                            "{\"a\":1} x", "[\"\\x\"]", "\"\t\""])
+            {
+            try
+                {
+                new Parser(text).parse();
+                console.println($"'{text}': no error");
+                }
+            catch (IOException e)
+                {
+                console.println($"'{text}': {e.text}");
+                }
+            }
+
+        try
+            {
+            new Parser(new ByteBuffer([0x22, 0xC3, 0x28, 0x22])).parse();
+            }
+        catch (IOException e)
+            {
+            console.println($"bytes: {e.text}");
+            }
+        }
+
+    void testCorpus(String name, immutable Byte[] bytes)
+        {
+        console.println($"\n*** testCorpus({name}) size={bytes.size}");
+
+        StringBuffer buffer = new StringBuffer(bytes.size);
+        new UTF8Reader(new ByteArrayInputStream(bytes)).pipeTo(buffer);
+        String text = buffer.toString();
+
+        timer.reset();
+        Int tokens = 0;
+        Lexer lexer = new Lexer(new CharArrayReader(text));
+        while (Token token := lexer.next())
+            {
+            ++tokens;
+            }
+        Duration timeLexer = timer.elapsed;
+
+        timer.reset();
+        Int    events = 0;
+        Parser parser = new Parser(text);
+        while (parser.next())
+            {
+            ++events;
+            }
+        Duration timePull = timer.elapsed;
+
+        timer.reset();
+        json.FieldType value = new Parser(new ByteBuffer(bytes)).parse();
+        Duration timeParse = timer.elapsed;
+
+        timer.reset();
+        String printed = Printer.print(value);
+        Duration timePrint = timer.elapsed;
+
+        assert Printer.print(new Parser(printed).parse()) == printed;
+
+        console.println($"lexer:  {tokens} tokens in {timeLexer.milliseconds}ms");
+        console.println($"pull:   {events} events in {timePull.milliseconds}ms");
+        console.println($"parse:  {timeParse.milliseconds}ms");
+        console.println($"print:  {printed.size} chars in {timePrint.milliseconds}ms");
+        }
+    }
@@ -13,6 +13,7 @@ module TestLambda.xqiz.it
         testRefCapture();
         testVarCapture();
         testComplexCapture();
+        testTypeTest();
         }
 
     void testVoid()
@@ -101,4 +102,26 @@ module TestLambda.xqiz.it
             console.println("result=" + f2());
             }
         }
-    }
\ No newline at end of file
+    
+    void testTypeTest()
+        {
+        console.println("\n** testTypeTest()");
+
+        // the bound function handles narrow the type of the function they are bound from
+        Int    i = 4;
+        Object o = () -> i;
+        console.println("o.is(function Int())=" + o.is(function Int()));
+
+        function Int(Int) add = n -> n + i;
+        Object p = add;
+        console.println("p.is(function Int(Int))=" + p.is(function Int(Int)));
+
+        if (p.is(function Int(Int)))
+            {
+            console.println("p(1)=" + p(1));
+            }
+
+        function Int(Int) f = p.as(function Int(Int));
+        console.println("f(2)=" + f(2));
+        }
+    }
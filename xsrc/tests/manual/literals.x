@@ -207,6 +207,21 @@ module TestLiterals.xqiz.it
         Directory dir = Directory:./resources/;
         // TODO BUGBUG CP (??) - output didn't look like it recursed into "./more/"
         console.println($"Directory:./resources/=(recursive)\n{{dir.emitListing($); return;}}");
+
+        if (File|Directory node := fs.find(new Path("more/msgs_FR.txt")))
+            {
+            console.println($"find(more/msgs_FR.txt)={node.path} size={node.size}");
+            }
+        if (File|Directory node := fs.find(new Path("/more")))
+            {
+            console.println($"find(/more)={node.path} size={node.size}");
+            }
+        console.println($"find(nothing)={fs.find(new Path("nothing"))}");
+        console.println($"find(../more)={fs.find(new Path("../more"))}");
+
+        File fileEN = fs.fileFor(new Path("/msgs_EN.txt"));
+        assert fileEN.contents == fs.fileFor(new Path("msgs_EN.txt")).contents;
+        console.println($"{fileEN.path} size={fileEN.contents.size}");
         }
 
     void testDates()
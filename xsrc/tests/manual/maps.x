@@ -1,6 +1,7 @@
 module TestMaps.xqiz.it
     {
     import X.collections.HashMap;
+    import X.collections.HashSet;
     import X.collections.ListMap;
     import X.collections.maps.KeyEntries;
 
@@ -18,6 +19,15 @@ module TestMaps.xqiz.it
         profile(run, 10);
 
         testListMap();
+
+        testStringKeys();
+        testConstKeys();
+        testRemoveIf();
+        testCursorEntry();
+        testHashSet();
+        testSubclass();
+
+        profile(&testFill10K(), 5);
         }
 
     void testBasic()
@@ -55,6 +65,181 @@ module TestMaps.xqiz.it
             }
         }
 
+    static void testFill10K()
+        {
+        Map<Int, Int> map = new HashMap();
+        for (Int i = 0; i < 10000; i++)
+            {
+            map.put(i, i);
+            }
+        for (Int i = 0; i < 10000; i++)
+            {
+            assert Int v := map.get(i);
+            assert v == i;
+            }
+        }
+
+    void testStringKeys()
+        {
+        console.println("\n** testStringKeys()");
+
+        Map<String, Int> map = new HashMap();
+        for (Int i = 0; i < 100; i++)
+            {
+            map.put($"k{i}", i);
+            }
+        assert map.size == 100;
+        assert Int v := map.get("k42");
+        assert v == 42;
+        assert !map.contains("k100");
+
+        for (Int i = 0; i < 100; i += 2)
+            {
+            map.remove($"k{i}");
+            }
+        assert map.size == 50;
+        assert !map.contains("k42") && map.contains("k43");
+
+        Int sum = 0;
+        for (Int value : map.values)
+            {
+            sum += value;
+            }
+        console.println($"size={map.size}, sum={sum}");
+        }
+
+    const Point(Int x, Int y);
+
+    void testConstKeys()
+        {
+        console.println("\n** testConstKeys()");
+
+        Map<Point, String> map = new HashMap();
+        map.put(new Point(0, 0), "origin");
+        map.put(new Point(1, 2), "a");
+        map.put(new Point(1, 2), "b");
+
+        assert map.size == 2;
+        assert String s := map.get(new Point(1, 2));
+        assert s == "b";
+        assert map.contains(new Point(0, 0));
+
+        map.remove(new Point(0, 0));
+        assert !map.contains(new Point(0, 0));
+        console.println(map);
+        }
+
+    void testRemoveIf()
+        {
+        console.println("\n** testRemoveIf()");
+
+        Map<Int, Int> map = new HashMap();
+        for (Int i = 0; i < 20; i++)
+            {
+            map.put(i, i * i);
+            }
+
+        for (Map<Int, Int>.Entry entry : map.entries)
+            {
+            if (entry.key % 3 == 0)
+                {
+                entry.remove();
+                }
+            }
+        assert map.size == 13;
+
+        (_, Int removed) = map.entries.removeIf(entry -> entry.value > 100);
+        console.println($"removed={removed}, map={map}");
+        }
+
+    void testCursorEntry()
+        {
+        console.println("\n** testCursorEntry()");
+
+        // about half of these keys have a negative hash code
+        for (Int i = 0; i < 20; i++)
+            {
+            String key = $"cursor key #{i}";
+
+            Map<String, Int> map = new HashMap();
+            map.put(key, i);
+
+            for (Map<String, Int>.Entry entry : map.entries)
+                {
+                entry.remove();
+                assert !entry.exists && map.empty;
+
+                // re-adding the entry via the cursor must make it refer to the new entry
+                entry.value = i;
+                assert entry.exists && entry.key == key;
+                entry.value = i + 1;
+                break;
+                }
+
+            assert Int v := map.get(key);
+            assert v == i + 1 && map.size == 1;
+            }
+        console.println("done");
+        }
+
+    class CountingMap<KeyType, ValueType>
+            extends HashMap<KeyType, ValueType>
+        {
+        Int puts;
+
+        @Override
+        CountingMap put(KeyType key, ValueType value)
+            {
+            ++puts;
+            super(key, value);
+            return this;
+            }
+        }
+
+    void testSubclass()
+        {
+        console.println("\n** testSubclass()");
+
+        CountingMap<String, Int> map = new CountingMap();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("a", 3);
+        map.put(new Point(1, 2).toString(), 4);
+
+        assert map.size == 3 && map.puts == 4;
+        assert Int v := map.get("a");
+        assert v == 3;
+        map.remove("b");
+        assert map.size == 2 && !map.contains("b");
+        console.println($"puts={map.puts}, size={map.size}");
+        }
+
+    void testHashSet()
+        {
+        console.println("\n** testHashSet()");
+
+        Set<String> set = new HashSet();
+        set.add("a");
+        set.add("b");
+        set.add("a");
+        assert set.size == 2;
+        assert set.contains("b") && !set.contains("c");
+
+        set.remove("a");
+        assert set.size == 1;
+
+        Set<Point> points = new HashSet();
+        points.add(new Point(1, 1));
+        points.add(new Point(1, 1));
+        points.add(new Point(2, 2));
+        assert points.size == 2 && points.contains(new Point(2, 2));
+
+        for (Point p : points)
+            {
+            console.println(p);
+            }
+        }
+
     void profile(function void () run, Int iterations)
         {
         timer.reset();
@@ -0,0 +1,160 @@
+module TestNet
+    {
+    import Ecstasy.io.ByteBuffer;
+    import Ecstasy.net.Network;
+    import Ecstasy.net.ServerSocketChannel;
+    import Ecstasy.net.SocketChannel;
+
+    @Inject Console       console;
+    @Inject Ecstasy.Timer timer;
+
+    void run()
+        {
+        testEcho();
+        testConnections();
+        testThroughput();
+        }
+
+    void testEcho()
+        {
+        console.println("\n*** testEcho()");
+
+        EchoServer server = new EchoServer();
+        Int        port   = server.start();
+
+        @Future Int served = server.serve(1);
+
+        @Inject Network network;
+        SocketChannel channel = network.connect("127.0.0.1", port);
+        console.println($"connected: readable={channel.readable} writable={channel.writable}");
+
+        Byte[] message = [1, 2, 3, 4, 5, 6, 7, 8];
+        channel.write(new ByteBuffer(message));
+
+        ByteBuffer buffer = new ByteBuffer(64);
+        assert Int count := channel.read(buffer, message.size);
+        buffer.flip();
+        console.println($"echo: {count} bytes {buffer.toArray()}");
+
+        // the end-of-stream is reported once the server closes its side
+        channel.shutdownOutput();
+        buffer.clear();
+        console.println($"eof: {!channel.read(buffer, 1)}");
+        channel.close();
+
+        console.println($"served: {served} connection(s)");
+        server.stop();
+        }
+
+    void testConnections()
+        {
+        console.println("\n*** testConnections()");
+
+        EchoServer server = new EchoServer();
+        Int        port   = server.start();
+        Int        count  = 500;
+
+        @Future Int served = server.serve(count);
+
+        @Inject Network network;
+        ByteBuffer out = new ByteBuffer(16);
+        ByteBuffer in  = new ByteBuffer(16);
+        timer.reset();
+        for (Int i = 0; i < count; i++)
+            {
+            SocketChannel channel = network.connect("127.0.0.1", port);
+            out.clear();
+            out.putInt64(i);
+            out.flip();
+            channel.write(out);
+
+            in.clear();
+            assert channel.read(in, 8);
+            in.flip();
+            assert in.getInt64() == i;
+            channel.close();
+            }
+        Duration time = timer.elapsed;
+
+        console.println($"served: {served} connections");
+        console.println($"{count * 1000 / time.milliseconds.maxOf(1)} connections/sec");
+        server.stop();
+        }
+
+    void testThroughput()
+        {
+        console.println("\n*** testThroughput()");
+
+        EchoServer server = new EchoServer();
+        Int        port   = server.start();
+
+        @Future Int served = server.serve(1);
+
+        @Inject Network network;
+        SocketChannel channel = network.connect("127.0.0.1", port);
+
+        Int        chunk  = 64 * 1024;
+        Int        chunks = 256;
+        ByteBuffer out    = new ByteBuffer(chunk, True);
+        ByteBuffer in     = new ByteBuffer(chunk, True);
+        timer.reset();
+        for (Int i = 0; i < chunks; i++)
+            {
+            out.clear();
+            channel.write(out);
+
+            in.clear();
+            assert channel.read(in);
+            }
+        Duration time  = timer.elapsed;
+        Int      total = chunk * chunks;
+        channel.close();
+
+        console.println($"echoed: {total / (1024 * 1024)} MB");
+        console.println($"{total * 1000 / time.milliseconds.maxOf(1) / (1024 * 1024)} MB/sec");
+
+        console.println($"served: {served} connection(s)");
+        server.stop();
+        }
+
+    /**
+     * A service that echoes everything it reads back to the client, one connection at a time.
+     */
+    service EchoServer
+        {
+        ServerSocketChannel? server;
+
+        Int start()
+            {
+            @Inject Network network;
+            ServerSocketChannel server = network.listen("127.0.0.1", 0);
+            this.server = server;
+            return server.port;
+            }
+
+        Int serve(Int connections)
+            {
+            assert ServerSocketChannel server ?= this.server;
+
+            ByteBuffer buffer = new ByteBuffer(64 * 1024, True);
+            for (Int i = 0; i < connections; i++)
+                {
+                SocketChannel channel = server.accept();
+                while (channel.read(buffer, 1))
+                    {
+                    buffer.flip();
+                    channel.write(buffer);
+                    buffer.clear();
+                    }
+                channel.close();
+                }
+            return connections;
+            }
+
+        void stop()
+            {
+            server?.close();
+            server = Null;
+            }
+        }
+    }
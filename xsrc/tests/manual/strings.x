@@ -0,0 +1,215 @@
+module TestStrings.xqiz.it
+    {
+    import X.Duration;
+    import X.collections.HashMap;
+
+    @Inject X.io.Console console;
+    @Inject X.Timer      timer;
+
+    void run()
+        {
+        testBuffer();
+        testTemplate();
+        testCompact();
+        testSlices();
+
+        profile("append chain", &testAppendChain(), 10);
+        profile("template", &testTemplateLoop(), 10);
+        profile("substring walk", &testSubstringWalk(), 10);
+        profile("concat loop", &testConcatLoop(), 10);
+        }
+
+    void testBuffer()
+        {
+        console.println("\n** testBuffer()");
+
+        StringBuffer buf = new StringBuffer();
+        buf.append("abc").append('d').append(-123).append(new Point(1, 2));
+        buf.add('!');
+        buf.add("?!");
+        console.println($"buf={buf}, size={buf.size}");
+
+        String s1 = buf.toString();
+        buf[0] = 'A';
+        String s2 = buf.toString();
+        assert s1 == "abcd-123(x=1, y=2)!?!";
+        assert s2 == "Abcd-123(x=1, y=2)!?!";
+        assert buf[1] == 'b';
+
+        assert Int index := buf.indexOf('d');
+        assert index == 3;
+
+        StringBuffer buf2 = new StringBuffer(4);
+        buf2.append(buf).append(Int.maxvalue).append(Int.minvalue);
+        console.println(buf2);
+        }
+
+    void testTemplate()
+        {
+        console.println("\n** testTemplate()");
+
+        Int    i = 42;
+        Char   c = 'x';
+        String s = "str";
+        console.println($"i={i}, c={c}, s={s}, p={new Point(3, 4)}");
+        }
+
+    void testCompact()
+        {
+        console.println("\n** testCompact()");
+
+        String latin = "caf\u00E9";
+        String wide  = "\u03C0=3.14";
+        String both  = latin + wide;
+        console.println($"latin={latin}, wide={wide}, both={both}, size={both.size}");
+
+        assert both.size == 10;
+        assert both[3] == '\u00E9';
+        assert both[4] == '\u03C0';
+        assert Int index := both.indexOf('\u03C0');
+        assert index == 4;
+        assert !latin.indexOf('\u03C0');
+
+        // a substring of a wide string may be Latin-1 again
+        String tail = wide.substring(1);
+        assert tail == "=3.14";
+
+        assert latin < wide;
+        assert both > latin;
+
+        StringBuffer buf = new StringBuffer();
+        buf.append(wide).append(latin);
+        String s = buf.toString();
+        assert s == "\u03C0=3.14caf\u00E9";
+        buf[0] = 'p';
+        assert s[0] == '\u03C0';
+        assert buf.toString() == "p=3.14caf\u00E9";
+
+        Map<String, Int> map = new HashMap();
+        map.put(latin, 1);
+        map.put(wide, 2);
+        assert map.getOrNull("caf\u00E9") == 1;
+        assert map.getOrNull("\u03C0=3.14") == 2;
+        }
+
+    void testSlices()
+        {
+        console.println("\n** testSlices()");
+
+        String abc = "abcdefghijklmnopqrstuvwxyz";
+        String ABC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+        String s   = abc + ABC + abc + ABC;
+        assert s.size == 104;
+
+        String tail = s.substring(26);
+        assert tail.size == 78;
+        assert tail[0] == 'A';
+        assert tail == ABC + abc + ABC;
+
+        String mid = s[26..77];
+        assert mid == ABC + abc;
+        assert mid[51] == 'z';
+        assert Int index := mid.indexOf('a');
+        assert index == 26;
+
+        String rev = mid[51..0];
+        assert rev[0] == 'z' && rev[51] == 'A';
+
+        String small = s[1..3];
+        assert small == "bcd";
+
+        Map<String, Int> map = new HashMap();
+        map.put(mid, 1);
+        assert map.getOrNull(ABC + abc) == 1;
+
+        // a String key is found by an equal String in any form: a slice, a rope or a plain one
+        String sliceKey = s[0..77];
+        String ropeKey  = abc + ABC + abc;
+        String plainKey = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+        map.put(sliceKey, 2);
+        assert map.getOrNull(ropeKey) == 2 && map.getOrNull(plainKey) == 2;
+        map.put(ropeKey, 3);
+        assert map.size == 2 && map.getOrNull(sliceKey) == 3;
+        map.remove(plainKey);
+        assert !map.contains(sliceKey) && !map.contains(ropeKey);
+
+        String rope = "";
+        for (Int i = 0; i < 100; i++)
+            {
+            rope += i;
+            }
+        assert rope.size == 190;
+        assert rope[189] == '9';
+        assert rope.substring(180) == "9596979899";
+        assert rope < rope.substring(1);
+
+        StringBuffer buf = new StringBuffer();
+        buf.add(rope).add(tail);
+        assert buf.size == 268;
+        }
+
+    const Point(Int x, Int y);
+
+    static Int SIZE = 1000;
+
+    static void testAppendChain()
+        {
+        StringBuffer buf = new StringBuffer();
+        for (Int i = 0; i < SIZE; i++)
+            {
+            buf.append("item ").append(i).append(',');
+            }
+        assert buf.toString().size > SIZE;
+        }
+
+    static void testTemplateLoop()
+        {
+        Int total = 0;
+        for (Int i = 0; i < SIZE; i++)
+            {
+            total += $"item {i} of {SIZE}".size;
+            }
+        assert total > 0;
+        }
+
+    static void testSubstringWalk()
+        {
+        StringBuffer buf = new StringBuffer();
+        for (Int i = 0; i < SIZE; i++)
+            {
+            buf.append("{\"key\":").append(i).append("},");
+            }
+
+        String doc = buf.toString();
+
+        Int count = 0;
+        while (Int index := doc.indexOf(','))
+            {
+            doc = doc.substring(index + 1);
+            ++count;
+            }
+        assert count == SIZE;
+        }
+
+    static void testConcatLoop()
+        {
+        String s = "";
+        for (Int i = 0; i < SIZE; i++)
+            {
+            s += "item ";
+            s += i;
+            }
+        assert s.size > SIZE;
+        }
+
+    void profile(String name, function void () run, Int iterations)
+        {
+        timer.reset();
+        for (Int i = 0; i < iterations; i++)
+            {
+            run();
+            }
+        Duration time = timer.elapsed;
+        console.println($"\n** {name}: elapsed {time.milliseconds} ms, latency {(time / iterations).milliseconds} ms");
+        }
+    }
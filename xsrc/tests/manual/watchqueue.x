@@ -0,0 +1,74 @@
+/**
+ * The Ecstasy side of the WatchQueueBenchmark: watch the "watch-queue" temporary directory and
+ * report the delivered events once they stop coming; the files are copied by the benchmark itself.
+ */
+module TestWatchQueue.xqiz.it
+    {
+    import X.fs.Directory;
+    import X.fs.File;
+    import X.fs.FileWatcher;
+
+    @Inject Console console;
+    @Inject Timer   timer;
+
+    void run()
+        {
+        @Inject Directory tmpDir;
+        Directory dir = tmpDir.dirFor("watch-queue");
+        dir.ensure();
+
+        Int[] counts = new Int[];
+        for (Int i = 0; i < 3; i++)
+            {
+            counts += 0;
+            }
+
+        FileWatcher watcher = new FileWatcher()
+            {
+            @Override
+            Boolean onEvent(Event event, File file)
+                {
+                switch (event)
+                    {
+                    case Created:
+                        counts[0]++;
+                        break;
+                    case Modified:
+                        counts[1]++;
+                        break;
+                    case Deleted:
+                        counts[2]++;
+                        break;
+                    }
+                return False;
+                }
+            };
+
+        function void () cancel = dir.watch(watcher);
+
+        // tell the benchmark that the watch is in place
+        dir.fileFor("ready").create();
+
+        check(counts, 0, cancel);
+        }
+
+    void check(Int[] counts, Int prev, function void () cancel)
+        {
+        timer.schedule(Duration.ofSeconds(1), () ->
+            {
+            // the "ready" file accounts for the first event
+            Int events = counts[0] + counts[1] + counts[2];
+            if (events > 1 && events == prev)
+                {
+                console.println($|events: {events}
+                              + $| (created={counts[0]} modified={counts[1]} deleted={counts[2]})
+                                 );
+                cancel();
+                }
+            else
+                {
+                check(counts, events, cancel);
+                }
+            });
+        }
+    }